@@ -22,9 +22,15 @@ package com.cronos.onlinereview.autoscreening.management;
  * <p>
  * Implementations of this interface are not required to be thread-safe.
  * </p>
+ * <p>
+ * Changes in v1.1:
+ * - added initiateScreening(long[], String) to initiate the screening tasks of many uploads at once.
+ * - added claimScreeningTasks(long, int, long, String) so that screeners can lease pending tasks in
+ * batches.
+ * </p>
  *
  * @author colau, haozhangr
- * @version 1.0
+ * @version 1.1
  */
 public interface ScreeningManager {
     /**
@@ -50,6 +56,58 @@ public interface ScreeningManager {
     public void initiateScreening(long upload, String operator) throws PersistenceException,
             ScreeningTaskAlreadyExistsException;
 
+    /**
+     * <p>
+     * Initiates the screening tasks with the specified uploads and operator. Each task should be set
+     * to pending once it's initiated, exactly as if initiateScreening(long, String) was called for
+     * every upload. No task is initiated if any of the uploads has already been used to initiate a
+     * screening task.
+     * </p>
+     *
+     * @param uploads
+     *            the upload identifiers
+     * @param operator
+     *            the creation user of the screening tasks
+     * @throws IllegalArgumentException
+     *             if uploads is null, or any of the uploads is non-positive, or uploads contains
+     *             duplicated elements, or operator is null or empty String
+     * @throws PersistenceException
+     *             if any error occurs in persistence
+     * @throws ScreeningTaskAlreadyExistsException
+     *             if any of the uploads has been used to initiate a screening task
+     * @since 1.1
+     */
+    public void initiateScreening(long[] uploads, String operator) throws PersistenceException,
+            ScreeningTaskAlreadyExistsException;
+
+    /**
+     * <p>
+     * Claims up to maxTasks pending screening tasks for the given screener. A task can be claimed
+     * if it has no screener yet, or if the lease of its previous screener (measured from the start
+     * timestamp of the task) is older than leaseTimeout milliseconds. The claimed tasks get the
+     * screener and the start timestamp set, so that they won't be handed out to another screener
+     * until the lease expires.
+     * </p>
+     *
+     * @param screener
+     *            the screener identifier
+     * @param maxTasks
+     *            the maximum number of tasks to claim
+     * @param leaseTimeout
+     *            the lease timeout in milliseconds
+     * @param operator
+     *            the modification user of the claimed screening tasks
+     * @return the claimed screening tasks without details, empty array if there is nothing to claim
+     * @throws IllegalArgumentException
+     *             if screener, maxTasks or leaseTimeout is non-positive, or operator is null or
+     *             empty String
+     * @throws PersistenceException
+     *             if any error occurs in persistence
+     * @since 1.1
+     */
+    public ScreeningTask[] claimScreeningTasks(long screener, int maxTasks, long leaseTimeout,
+            String operator) throws PersistenceException;
+
     /**
      * <p>
      * Gets the screening task with the single upload, with the screening results included as
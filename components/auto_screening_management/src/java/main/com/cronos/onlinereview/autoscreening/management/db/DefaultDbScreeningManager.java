@@ -8,9 +8,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -55,8 +57,16 @@ import com.topcoder.util.idgenerator.IDGeneratorImpl;
  * - added flag so that container transaction demarcation can be used.
  * </p>
  *
+ * <p>
+ * Changes in v1.2:
+ * - added initiateScreening(long[], String) which checks the existing tasks with IN queries and
+ * inserts the new tasks with a JDBC batch.
+ * - added claimScreeningTasks(long, int, long, String) to lease pending tasks to screeners.
+ * - the pending status id is no longer resolved under a lock on this manager.
+ * </p>
+ *
  * @author colau, haozhangr, pulky
- * @version 1.1
+ * @version 1.2
  */
 public class DefaultDbScreeningManager extends DbScreeningManager {
     /**
@@ -70,6 +80,14 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
      */
     private static final String SELECT_UPLOADID = "SELECT upload_id FROM screening_task WHERE upload_id = ?";
 
+    /**
+     * This is a sql script used to check whether screening tasks were already initiated with any of
+     * the uploads. This is an uncompleated sql script and will be finished later.
+     *
+     * @since 1.2
+     */
+    private static final String SELECT_UPLOADIDS = "SELECT upload_id FROM screening_task WHERE upload_id IN ";
+
     /**
      * This is a sql script used to insert the screening task into the table.
      */
@@ -87,6 +105,54 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
             + "a.modify_user, a.modify_date, b.name FROM screening_task AS a LEFT JOIN screening_status_lu "
             + "AS b ON a.screening_status_id = b.screening_status_id WHERE a.upload_id IN ";
 
+    /**
+     * This is a sql script used to retrieve the pending screening tasks which can be claimed by a
+     * screener, oldest first. The placeholder is replaced with the maximum number of tasks.
+     *
+     * @since 1.2
+     */
+    private static final String SELECT_CLAIMABLE_TASK = "SELECT FIRST {0} screening_task_id FROM screening_task "
+            + "WHERE screening_status_id = ? AND (screener_id IS NULL OR start_timestamp IS NULL "
+            + "OR start_timestamp < ?) ORDER BY create_date, screening_task_id";
+
+    /**
+     * This is a sql script used to lease the screening tasks to a screener. The claimable condition
+     * is repeated so that the tasks leased by another screener in the meantime are left alone. This
+     * is an uncompleated sql script and will be finished later.
+     *
+     * @since 1.2
+     */
+    private static final String UPDATE_CLAIM_TASK = "UPDATE screening_task SET screener_id = ?, "
+            + "start_timestamp = ?, modify_user = ?, modify_date = ? WHERE screening_status_id = ? "
+            + "AND (screener_id IS NULL OR start_timestamp IS NULL OR start_timestamp < ?) "
+            + "AND screening_task_id IN ";
+
+    /**
+     * This is a sql script used to retrieve the screening tasks leased by a single claim. This is an
+     * uncompleated sql script and will be finished later.
+     *
+     * @since 1.2
+     */
+    private static final String SELECT_CLAIMED_TASK = "SELECT a.screening_task_id, a.upload_id, "
+            + "a.screening_status_id, a.screener_id, a.start_timestamp, a.create_user, a.create_date, "
+            + "a.modify_user, a.modify_date, b.name FROM screening_task AS a LEFT JOIN screening_status_lu "
+            + "AS b ON a.screening_status_id = b.screening_status_id WHERE a.screener_id = ? "
+            + "AND a.start_timestamp = ? AND a.screening_task_id IN ";
+
+    /**
+     * The maximum number of ids put into a single IN list.
+     *
+     * @since 1.2
+     */
+    private static final int MAX_IN_LIST_SIZE = 500;
+
+    /**
+     * The number of screening tasks inserted with a single JDBC batch.
+     *
+     * @since 1.2
+     */
+    private static final int INSERT_BATCH_SIZE = 100;
+
     /**
      * This is a sql script used to retrieve the screening results and its associated screening
      * response and response severity with a screening task id.
@@ -165,13 +231,13 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
      * </p>
      * <p>
      * It is initially set to -1, but should be positive once it's lazily set in the
-     * initiateScreening() method. It is not changed after being set. It is accessed in the
-     * initiateScreening() method too.
+     * getPendingStatusId() method. It is not changed after being set. Since the lookup always
+     * yields the same id, concurrent initializations are harmless and no lock is needed.
      * </p>
      *
      *
      */
-    private long pendingStatusId = -1;
+    private volatile long pendingStatusId = -1;
 
     /**
      * <p>
@@ -251,11 +317,7 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
         PreparedStatement ps = null;
         ResultSet rs = null;
         try {
-            synchronized (this) { /* lock pendingStatusId */
-                if (pendingStatusId == -1) {
-                    pendingStatusId = getPendingScreeningStatusId(conn);
-                }
-            } /* unlock pendingStatusId */
+            long statusId = getPendingStatusId(conn);
             checkTask(upload, conn);
 
             long id = idGenerator.getNextID();
@@ -263,7 +325,7 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
             ps = conn.prepareStatement(INSERT_TASK);
             ps.setLong(FIRST_INDEX, id);
             ps.setLong(SECOND_INDEX, upload);
-            ps.setLong(THIRD_INDEX, pendingStatusId);
+            ps.setLong(THIRD_INDEX, statusId);
             ps.setString(FOURTH_INDEX, operator);
             ps.setTimestamp(FIFTH_INDEX, new Timestamp(System.currentTimeMillis()));
             ps.setString(SIXTH_INDEX, operator);
@@ -284,6 +346,181 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
         }
     }
 
+    /**
+     * <p>
+     * Initiates the screening tasks with the specified uploads and operator. Each task should be
+     * set to pending once it's initiated. The screener and start timestamp of the tasks should be
+     * left unspecified since they're not determined yet.
+     * </p>
+     * <p>
+     * The existing tasks are checked with IN queries and the new tasks are inserted with JDBC
+     * batches, so the number of database round trips doesn't grow with every upload.
+     * </p>
+     *
+     * @param uploads
+     *            the upload identifiers
+     * @param operator
+     *            the creation user of the screening tasks
+     * @throws IllegalArgumentException
+     *             if uploads is null, or any of the uploads is non-positive, or uploads contains
+     *             duplicated elements, or operator is null or empty String
+     * @throws PersistenceException
+     *             if any error occurs in persistence
+     * @throws ScreeningTaskAlreadyExistsException
+     *             if any of the uploads has been used to initiate a screening task
+     * @since 1.2
+     */
+    public void initiateScreening(long[] uploads, String operator)
+        throws ScreeningTaskAlreadyExistsException, PersistenceException {
+        checkUploads(uploads);
+        Helper.checkString(operator, "operator");
+        if (uploads.length == 0) {
+            return;
+        }
+
+        Connection conn = createConnection();
+
+        /*
+         * insert the rows into the screening_task table.
+         */
+        PreparedStatement ps = null;
+        try {
+            long statusId = getPendingStatusId(conn);
+            checkTasks(uploads, conn);
+
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            ps = conn.prepareStatement(INSERT_TASK);
+            for (int i = 0; i < uploads.length; i++) {
+                ps.setLong(FIRST_INDEX, idGenerator.getNextID());
+                ps.setLong(SECOND_INDEX, uploads[i]);
+                ps.setLong(THIRD_INDEX, statusId);
+                ps.setString(FOURTH_INDEX, operator);
+                ps.setTimestamp(FIFTH_INDEX, now);
+                ps.setString(SIXTH_INDEX, operator);
+                ps.setTimestamp(SEVENTH_INDEX, now);
+                ps.addBatch();
+
+                if ((i + 1) % INSERT_BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            if (uploads.length % INSERT_BATCH_SIZE != 0) {
+                ps.executeBatch();
+            }
+            if (useManualCommit) {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new PersistenceException("Failed to insert rows into the screening_task table.",
+                    e);
+        } catch (IDGenerationException e) {
+            rollback(conn);
+            throw new PersistenceException("Failed to get id from id idGenerator.", e);
+        } finally {
+            doClose(conn, ps, null);
+        }
+    }
+
+    /**
+     * <p>
+     * Claims up to maxTasks pending screening tasks for the given screener. A task can be claimed
+     * if it has no screener yet, or if the lease of its previous screener (measured from the start
+     * timestamp of the task) is older than leaseTimeout milliseconds.
+     * </p>
+     * <p>
+     * The candidates are selected first and then leased with a single conditional update. Since the
+     * update repeats the claimable condition, a task leased by a concurrent screener in between is
+     * skipped, and only the tasks actually leased by this call are returned.
+     * </p>
+     *
+     * @param screener
+     *            the screener identifier
+     * @param maxTasks
+     *            the maximum number of tasks to claim
+     * @param leaseTimeout
+     *            the lease timeout in milliseconds
+     * @param operator
+     *            the modification user of the claimed screening tasks
+     * @return the claimed screening tasks without details, empty array if there is nothing to claim
+     * @throws IllegalArgumentException
+     *             if screener, maxTasks or leaseTimeout is non-positive, or operator is null or
+     *             empty String
+     * @throws PersistenceException
+     *             if any error occurs in persistence
+     * @since 1.2
+     */
+    public ScreeningTask[] claimScreeningTasks(long screener, int maxTasks, long leaseTimeout,
+            String operator) throws PersistenceException {
+        Helper.checkNonPositive(screener, "screener");
+        Helper.checkNonPositive(maxTasks, "maxTasks");
+        Helper.checkNonPositive(leaseTimeout, "leaseTimeout");
+        Helper.checkString(operator, "operator");
+
+        Connection conn = createConnection();
+
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            long statusId = getPendingStatusId(conn);
+            long now = System.currentTimeMillis();
+            Timestamp leaseStart = new Timestamp(now);
+            Timestamp leaseExpired = new Timestamp(now - leaseTimeout);
+
+            // select the candidates, oldest first
+            ps = conn.prepareStatement(SELECT_CLAIMABLE_TASK.replace("{0}",
+                    String.valueOf(maxTasks)));
+            ps.setLong(FIRST_INDEX, statusId);
+            ps.setTimestamp(SECOND_INDEX, leaseExpired);
+            rs = ps.executeQuery();
+            List candidates = new ArrayList();
+            while (rs.next()) {
+                candidates.add(new Long(rs.getLong(FIRST_INDEX)));
+            }
+            doClose(null, ps, rs);
+            ps = null;
+            rs = null;
+            if (candidates.isEmpty()) {
+                return new ScreeningTask[0];
+            }
+            String idList = toInList(candidates);
+
+            // lease the candidates which are still claimable
+            ps = conn.prepareStatement(UPDATE_CLAIM_TASK + idList);
+            ps.setLong(FIRST_INDEX, screener);
+            ps.setTimestamp(SECOND_INDEX, leaseStart);
+            ps.setString(THIRD_INDEX, operator);
+            ps.setTimestamp(FOURTH_INDEX, leaseStart);
+            ps.setLong(FIFTH_INDEX, statusId);
+            ps.setTimestamp(SIXTH_INDEX, leaseExpired);
+            int claimed = ps.executeUpdate();
+            ps.close();
+            ps = null;
+            if (useManualCommit) {
+                conn.commit();
+            }
+            if (claimed == 0) {
+                return new ScreeningTask[0];
+            }
+
+            // read back the tasks leased by this call
+            ps = conn.prepareStatement(SELECT_CLAIMED_TASK + idList);
+            ps.setLong(FIRST_INDEX, screener);
+            ps.setTimestamp(SECOND_INDEX, leaseStart);
+            rs = ps.executeQuery();
+            List tasks = new ArrayList();
+            while (rs.next()) {
+                tasks.add(populateTask(rs));
+            }
+            return (ScreeningTask[]) tasks.toArray(new ScreeningTask[tasks.size()]);
+        } catch (SQLException e) {
+            rollback(conn);
+            throw new PersistenceException("Failed to claim screening tasks.", e);
+        } finally {
+            doClose(conn, ps, rs);
+        }
+    }
+
     /**
      * Check if the upload already initiated a screening task in the screening_task table.
      *
@@ -318,6 +555,70 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
         }
     }
 
+    /**
+     * Check if any of the uploads already initiated a screening task in the screening_task table.
+     * The uploads are checked with IN queries of at most MAX_IN_LIST_SIZE elements each.
+     *
+     * @param uploads
+     *            uploads to check
+     * @param conn
+     *            the database connection
+     * @throws PersistenceException
+     *             if any error occurs in persistence
+     * @throws ScreeningTaskAlreadyExistsException
+     *             if any of the uploads has been used to initiate a screening task
+     * @since 1.2
+     */
+    private void checkTasks(long[] uploads, Connection conn)
+        throws ScreeningTaskAlreadyExistsException, PersistenceException {
+        for (int start = 0; start < uploads.length; start += MAX_IN_LIST_SIZE) {
+            int end = Math.min(start + MAX_IN_LIST_SIZE, uploads.length);
+            StringBuffer buffer = new StringBuffer(SELECT_UPLOADIDS);
+            buffer.append("(");
+            for (int i = start; i < end; i++) {
+                if (i > start) {
+                    buffer.append(",");
+                }
+                buffer.append(uploads[i]);
+            }
+            buffer.append(")");
+
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+            try {
+                ps = conn.prepareStatement(buffer.toString());
+                rs = ps.executeQuery();
+                if (rs.next()) {
+                    throw new ScreeningTaskAlreadyExistsException(rs.getLong(FIRST_INDEX));
+                }
+            } catch (SQLException e) {
+                throw new PersistenceException(
+                        "Failed to check if the uploads already initiated screening tasks.", e);
+            } finally {
+                doClose(null, ps, rs);
+            }
+        }
+    }
+
+    /**
+     * Gets the id of the pending screening status, looking it up on first use.
+     *
+     * @param conn
+     *            the database connection
+     * @throws PersistenceException
+     *             if any error occurs in persistence
+     * @return the id of the pending screening status
+     * @since 1.2
+     */
+    private long getPendingStatusId(Connection conn) throws PersistenceException {
+        long statusId = pendingStatusId;
+        if (statusId == -1) {
+            statusId = getPendingScreeningStatusId(conn);
+            pendingStatusId = statusId;
+        }
+        return statusId;
+    }
+
     /**
      * This method gets id of the pending screening status from the screening_status_lu table.
      *
@@ -493,6 +794,29 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
      */
     public ScreeningTask[] getScreeningTasks(long[] uploads, boolean allowNonExist)
         throws PersistenceException, ScreeningTaskDoesNotExistException {
+        checkUploads(uploads);
+
+        // get database connection
+        Connection conn = createConnection();
+
+        try {
+            return getScreeningTasks(uploads, allowNonExist, conn);
+        } finally {
+            doClose(conn, null, null);
+        }
+    }
+
+    /**
+     * Checks the uploads for null, non-positive and duplicated elements.
+     *
+     * @param uploads
+     *            the upload identifiers
+     * @throws IllegalArgumentException
+     *             if uploads is null, or any of the uploads is non-positive, or uploads contains
+     *             duplicated elements
+     * @since 1.2
+     */
+    private static void checkUploads(long[] uploads) {
         Helper.checkNull(uploads, "uploads");
         // check uploads for non-positive element and duplicated
         Set set = new HashSet();
@@ -504,15 +828,6 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
             }
             set.add(new Long(uploads[i]));
         }
-
-        // get database connection
-        Connection conn = createConnection();
-
-        try {
-            return getScreeningTasks(uploads, allowNonExist, conn);
-        } finally {
-            doClose(conn, null, null);
-        }
     }
 
     /**
@@ -563,27 +878,7 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
             int taskNum = 0;
             // retrieve rows from database
             while (rs.next()) {
-                // create ScreeningTask and ScreeningStatus, and set ScreeningStatus to
-                // ScreeningTask
-                ScreeningTask task = new ScreeningTask();
-                ScreeningStatus screeningStatus = new ScreeningStatus();
-                task.setScreeningStatus(screeningStatus);
-
-                // populate the attributes retrieved from database
-                task.setId(rs.getLong(FIRST_INDEX));
-                task.setUpload(rs.getLong(SECOND_INDEX));
-                screeningStatus.setId(rs.getLong(THIRD_INDEX));
-                if (rs.getObject(FOURTH_INDEX) != null) {
-                    task.setScreener(rs.getLong(FOURTH_INDEX));
-                }
-                if (rs.getObject(FIFTH_INDEX) != null) {
-                    task.setStartTimestamp(new Date(rs.getTimestamp(FIFTH_INDEX).getTime()));
-                }
-                task.setCreationUser(rs.getString(SIXTH_INDEX));
-                task.setCreationTimestamp(new Date(rs.getTimestamp(SEVENTH_INDEX).getTime()));
-                task.setModificationUser(rs.getString(EIGHTH_INDEX));
-                task.setModificationTimestamp(new Date(rs.getTimestamp(NINTH_INDEX).getTime()));
-                screeningStatus.setName(rs.getString(TENTH_INDEX));
+                ScreeningTask task = populateTask(rs);
 
                 // add task to tasks array at corresponding position
                 tasks[((Integer) map.get(new Long(task.getUpload()))).intValue()] = task;
@@ -607,6 +902,61 @@ public class DefaultDbScreeningManager extends DbScreeningManager {
         }
     }
 
+    /**
+     * Creates a screening task (without details) from the current row of the result set. The
+     * columns are expected in the order used by the SELECT_TASK sql script.
+     *
+     * @param rs
+     *            the result set positioned on a screening task row
+     * @return the screening task
+     * @throws SQLException
+     *             if any error occurs while reading the row
+     * @since 1.2
+     */
+    private static ScreeningTask populateTask(ResultSet rs) throws SQLException {
+        // create ScreeningTask and ScreeningStatus, and set ScreeningStatus to
+        // ScreeningTask
+        ScreeningTask task = new ScreeningTask();
+        ScreeningStatus screeningStatus = new ScreeningStatus();
+        task.setScreeningStatus(screeningStatus);
+
+        // populate the attributes retrieved from database
+        task.setId(rs.getLong(FIRST_INDEX));
+        task.setUpload(rs.getLong(SECOND_INDEX));
+        screeningStatus.setId(rs.getLong(THIRD_INDEX));
+        if (rs.getObject(FOURTH_INDEX) != null) {
+            task.setScreener(rs.getLong(FOURTH_INDEX));
+        }
+        if (rs.getObject(FIFTH_INDEX) != null) {
+            task.setStartTimestamp(new Date(rs.getTimestamp(FIFTH_INDEX).getTime()));
+        }
+        task.setCreationUser(rs.getString(SIXTH_INDEX));
+        task.setCreationTimestamp(new Date(rs.getTimestamp(SEVENTH_INDEX).getTime()));
+        task.setModificationUser(rs.getString(EIGHTH_INDEX));
+        task.setModificationTimestamp(new Date(rs.getTimestamp(NINTH_INDEX).getTime()));
+        screeningStatus.setName(rs.getString(TENTH_INDEX));
+        return task;
+    }
+
+    /**
+     * Builds the IN list of the given ids, e.g. "(1,2,3)".
+     *
+     * @param ids
+     *            the list of Long ids, not empty
+     * @return the IN list
+     * @since 1.2
+     */
+    private static String toInList(List ids) {
+        StringBuffer buffer = new StringBuffer("(");
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                buffer.append(",");
+            }
+            buffer.append(ids.get(i));
+        }
+        return buffer.append(")").toString();
+    }
+
     /**
      * This method rollback all the modified data.
      *
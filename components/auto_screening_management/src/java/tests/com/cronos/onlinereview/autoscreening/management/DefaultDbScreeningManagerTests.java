@@ -340,6 +340,132 @@ public class DefaultDbScreeningManagerTests extends TestCase {
         }
     }
 
+    /**
+     * <p>
+     * Accuracy test. Tests the <code>initiateScreening(long[], String)</code> for proper behavior.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testInitiateScreeningLongArray_accuracy() throws Exception {
+        // initiate screening
+        target.initiateScreening(new long[] {UPLOAD_NOTEXIST}, OPERATOR);
+        ScreeningTask task = target.getScreeningTasks(new long[] {UPLOAD_NOTEXIST})[0];
+
+        assertEquals("CreationUser", OPERATOR, task.getCreationUser());
+        assertEquals("ModificationUser", OPERATOR, task.getModificationUser());
+        assertEquals("ScreeningStatus", ScreeningStatus.PENDING, task.getScreeningStatus()
+                .getName());
+        assertEquals("ScreeningStatus", 61, task.getScreeningStatus().getId());
+        assertTrue("id", task.getId() != -1);
+        assertEquals("Screener", -1, task.getScreener());
+        assertEquals("Upload", UPLOAD_NOTEXIST, task.getUpload());
+        assertEquals("StartTimestamp", null, task.getStartTimestamp());
+    }
+
+    /**
+     * <p>
+     * Failure test. Tests the <code>initiateScreening(long[], String)</code> for proper behavior.
+     * Verify that IllegalArgumentException is thrown for invalid parameter.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testInitiateScreeningLongArray_1_failure() throws Exception {
+        try {
+            target.initiateScreening((long[]) null, OPERATOR);
+            fail("IllegalArgumentException expected.");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    /**
+     * <p>
+     * Failure test. Tests the <code>initiateScreening(long[], String)</code> for proper behavior.
+     * Verify that IllegalArgumentException is thrown for invalid parameter.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testInitiateScreeningLongArray_2_failure() throws Exception {
+        try {
+            target.initiateScreening(new long[] {UPLOAD_NOTEXIST, UPLOAD_NOTEXIST}, OPERATOR);
+            fail("IllegalArgumentException expected.");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    /**
+     * <p>
+     * Failure test. Tests the <code>initiateScreening(long[], String)</code> for proper behavior.
+     * Verify that ScreeningTaskAlreadyExistsException is thrown if any of the uploads has been used
+     * to initiate a screening task, and that no task is initiated in that case.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testInitiateScreeningLongArray_3_failure() throws Exception {
+        try {
+            target.initiateScreening(new long[] {UPLOAD_NOTEXIST, UPLOAD_EXIST}, OPERATOR);
+            fail("ScreeningTaskAlreadyExistsException expected.");
+        } catch (ScreeningTaskAlreadyExistsException e) {
+            assertEquals("Upload", UPLOAD_EXIST, e.getUpload());
+        }
+        assertNull("No task should be initiated.", target.getScreeningTasks(
+                new long[] {UPLOAD_NOTEXIST}, true)[0]);
+    }
+
+    /**
+     * <p>
+     * Accuracy test. Tests the <code>claimScreeningTasks(long, int, long, String)</code> for proper
+     * behavior. Verify that a leased task is not handed out again until the lease expires.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testClaimScreeningTasks_accuracy() throws Exception {
+        target.initiateScreening(UPLOAD_NOTEXIST, OPERATOR);
+
+        ScreeningTask[] tasks = target.claimScreeningTasks(1, 10, 60000, OPERATOR);
+        assertEquals("Claimed", 1, tasks.length);
+        assertEquals("Upload", UPLOAD_NOTEXIST, tasks[0].getUpload());
+        assertEquals("Screener", 1, tasks[0].getScreener());
+        assertNotNull("StartTimestamp", tasks[0].getStartTimestamp());
+
+        assertEquals("The task is leased.", 0,
+                target.claimScreeningTasks(2, 10, 60000, OPERATOR).length);
+
+        Thread.sleep(50);
+        tasks = target.claimScreeningTasks(2, 10, 10, OPERATOR);
+        assertEquals("The lease has expired.", 1, tasks.length);
+        assertEquals("Screener", 2, tasks[0].getScreener());
+    }
+
+    /**
+     * <p>
+     * Failure test. Tests the <code>claimScreeningTasks(long, int, long, String)</code> for proper
+     * behavior. Verify that IllegalArgumentException is thrown for invalid parameter.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testClaimScreeningTasks_failure() throws Exception {
+        try {
+            target.claimScreeningTasks(1, 0, 60000, OPERATOR);
+            fail("IllegalArgumentException expected.");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
     /**
      * <p>
      * Accuracy test. Tests the <code>getScreeningDetails(long)</code> for proper behavior.
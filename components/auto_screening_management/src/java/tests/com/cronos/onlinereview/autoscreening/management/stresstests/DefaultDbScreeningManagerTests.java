@@ -9,8 +9,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import com.cronos.onlinereview.autoscreening.management.ScreeningStatus;
 import com.cronos.onlinereview.autoscreening.management.ScreeningTask;
@@ -26,8 +28,14 @@ import junit.framework.TestCase;
 /**
  * Stress test for the DefaultDbScreeningManager class.
  *
+ * <p>
+ * Changes in v1.1:
+ * - added the throughput tests of initiateScreening(long[], String) and
+ * claimScreeningTasks(long, int, long, String).
+ * </p>
+ *
  * @author waits
- * @version 1.0
+ * @version 1.1
  */
 public class DefaultDbScreeningManagerTests extends TestCase {
     /**
@@ -40,6 +48,16 @@ public class DefaultDbScreeningManagerTests extends TestCase {
      */
     private static final int LOAD1 = 50;
 
+    /**
+     * Represents the number of concurrent screeners used in the claim stress test.
+     */
+    private static final int SCREENERS = 8;
+
+    /**
+     * Represents the number of tasks claimed by a screener at once.
+     */
+    private static final int CLAIM_SIZE = 20;
+
     /**
      * Represents the upload base used int the tests.
      */
@@ -213,6 +231,104 @@ public class DefaultDbScreeningManagerTests extends TestCase {
         }
     }
 
+    /**
+     * <p>
+     * Stress test of <code>initiateScreening(long[], String)</code>.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testInitiateScreeningLongArray_Stress() throws Exception {
+        String operator = "stress test";
+        long[] uploads = new long[LOAD2 * 2];
+        for (int i = 0; i < uploads.length; i++) {
+            uploads[i] = UPLOAD + i;
+        }
+
+        long start = System.currentTimeMillis();
+        System.out
+                .println("----------- Start strss test of initiateScreening(long[], String) ----------");
+        defaultDbScreeningManager.initiateScreening(uploads, operator);
+        System.out.println("---------- Running initiateScreening(long[], String) for " + uploads.length
+                + " uploads costs:" + (System.currentTimeMillis() - start) + "ms -----------");
+
+        ScreeningTask[] tasks = defaultDbScreeningManager.getScreeningTasks(uploads);
+        // verify the inserted data
+        for (int i = 0; i < uploads.length; i++) {
+            assertEquals("CreationUser", operator, tasks[i].getCreationUser());
+            assertEquals("ScreeningStatus", ScreeningStatus.PENDING, tasks[i].getScreeningStatus()
+                    .getName());
+            assertEquals("Upload", UPLOAD + i, tasks[i].getUpload());
+            assertEquals("Screener", -1, tasks[i].getScreener());
+        }
+    }
+
+    /**
+     * <p>
+     * Stress test of <code>claimScreeningTasks(long, int, long, String)</code>. Several screeners
+     * claim the pending tasks concurrently; every task must be claimed exactly once.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testClaimScreeningTasks_Stress() throws Exception {
+        final String operator = "stress test";
+        long[] uploads = new long[LOAD2 * 2];
+        for (int i = 0; i < uploads.length; i++) {
+            uploads[i] = UPLOAD + i;
+        }
+        defaultDbScreeningManager.initiateScreening(uploads, operator);
+
+        final List claimed = new ArrayList();
+        final List errors = new ArrayList();
+        Thread[] threads = new Thread[SCREENERS];
+        for (int i = 0; i < threads.length; i++) {
+            final long screener = i + 1;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        ScreeningTask[] tasks;
+                        do {
+                            tasks = defaultDbScreeningManager.claimScreeningTasks(screener,
+                                    CLAIM_SIZE, 60000, operator);
+                            synchronized (claimed) {
+                                for (int j = 0; j < tasks.length; j++) {
+                                    claimed.add(tasks[j]);
+                                }
+                            }
+                        } while (tasks.length > 0);
+                    } catch (Exception e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                }
+            };
+        }
+
+        long start = System.currentTimeMillis();
+        System.out.println("----------- Start strss test of claimScreeningTasks(long, int, long, String) "
+                + "----------");
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+        }
+        System.out.println("---------- Claiming " + uploads.length + " tasks by " + SCREENERS
+                + " screeners costs:" + (System.currentTimeMillis() - start) + "ms -----------");
+
+        assertTrue("No error expected: " + errors, errors.isEmpty());
+        assertEquals("All tasks should be claimed.", uploads.length, claimed.size());
+        Set ids = new HashSet();
+        for (int i = 0; i < claimed.size(); i++) {
+            assertTrue("Each task should be claimed once.",
+                    ids.add(new Long(((ScreeningTask) claimed.get(i)).getId())));
+        }
+    }
+
     /**
      * <p>
      * Stress test of <code>getScreeningDetails(long)</code> for proper behavior.
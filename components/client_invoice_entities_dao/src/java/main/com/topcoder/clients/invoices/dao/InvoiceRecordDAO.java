@@ -3,6 +3,10 @@
  */
 package com.topcoder.clients.invoices.dao;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 import com.topcoder.clients.invoices.model.InvoiceRecord;
 
 /**
@@ -26,8 +30,18 @@ import com.topcoder.clients.invoices.model.InvoiceRecord;
  * </ul>
  * </p>
  *
+ * <p>
+ * Versions 1.3:
+ * <ul>
+ *   <li>Added {@link #getByPaymentsAndInvoiceType(Collection, long)},
+ *   {@link #getByJiraIssuesAndInvoiceType(Collection, long)} and {@link #getByContestsAndInvoiceType(Collection, long)}
+ *   to get the records of many payments, JIRA issues or contests at once.</li>
+ *   <li>Added {@link #saveOrUpdateAll(List)} to create or update many records in JDBC batches.</li>
+ * </ul>
+ * </p>
+ *
  * @author flexme, minhu, TCSASSEMBLER
- * @version 1.2
+ * @version 1.3
  */
 public interface InvoiceRecordDAO extends GenericDAO<InvoiceRecord> {
     
@@ -85,4 +99,58 @@ public interface InvoiceRecordDAO extends GenericDAO<InvoiceRecord> {
      * @throws InvoiceDAOException if any other error occurred.
      */
     int countByInvoice(long invoiceId) throws InvoiceDAOException;
+
+    /**
+     * <p>Gets the <code>InvoiceRecord</code>s by payment ids and invoice type.</p>
+     *
+     * @param paymentIds the payment ids.
+     * @param invoiceTypeId the id of the invoice type.
+     * @return the <code>InvoiceRecord</code>s keyed by payment id, the payments without record are absent.
+     * @throws IllegalArgumentException if payment ids is null or contains not positive id, or invoice type id is not
+     *         positive.
+     * @throws InvoiceDAOException if some other error occurred.
+     * @since 1.3
+     */
+    Map<Long, InvoiceRecord> getByPaymentsAndInvoiceType(Collection<Long> paymentIds, long invoiceTypeId)
+        throws InvoiceDAOException;
+
+    /**
+     * <p>Gets the <code>InvoiceRecord</code>s without payment by JIRA issue ids and invoice type.</p>
+     *
+     * @param jiraIssueIds the JIRA issue ids.
+     * @param invoiceTypeId the id of the invoice type.
+     * @return the <code>InvoiceRecord</code>s keyed by JIRA issue id, the issues without record are absent.
+     * @throws IllegalArgumentException if JIRA issue ids is null or contains null/empty id, or invoice type id is not
+     *         positive.
+     * @throws InvoiceDAOException if some other error occurred.
+     * @since 1.3
+     */
+    Map<String, InvoiceRecord> getByJiraIssuesAndInvoiceType(Collection<String> jiraIssueIds, long invoiceTypeId)
+        throws InvoiceDAOException;
+
+    /**
+     * <p>Gets the <code>InvoiceRecord</code>s without payment by contest ids and invoice type.</p>
+     *
+     * @param contestIds the contest ids.
+     * @param invoiceTypeId the id of the invoice type.
+     * @return the <code>InvoiceRecord</code>s keyed by contest id, the contests without record are absent.
+     * @throws IllegalArgumentException if contest ids is null or contains not positive id, or invoice type id is not
+     *         positive.
+     * @throws InvoiceDAOException if some other error occurred.
+     * @since 1.3
+     */
+    Map<Long, InvoiceRecord> getByContestsAndInvoiceType(Collection<Long> contestIds, long invoiceTypeId)
+        throws InvoiceDAOException;
+
+    /**
+     * <p>Creates the new <code>InvoiceRecord</code>s (with id 0) and updates the existing ones in the persistence.
+     * The statements are sent in JDBC batches, and the session is flushed and cleared periodically so it doesn't
+     * grow with the number of records, the records are detached after this call.</p>
+     *
+     * @param records the records to create or update.
+     * @throws IllegalArgumentException if records is null or contains null.
+     * @throws InvoiceDAOException if some other error occurred.
+     * @since 1.3
+     */
+    void saveOrUpdateAll(List<InvoiceRecord> records) throws InvoiceDAOException;
 }
@@ -4,9 +4,15 @@
 package com.topcoder.clients.invoices.dao.impl;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.HibernateException;
+import org.hibernate.Session;
 
 import com.topcoder.clients.invoices.dao.InvoiceDAOException;
 import com.topcoder.clients.invoices.dao.InvoiceRecordDAO;
@@ -47,8 +53,19 @@ import com.topcoder.clients.invoices.model.InvoiceRecord;
  * </ul>
  * </p>
  *
+ * <p>
+ * Versions 1.4:
+ * <ul>
+ *   <li>Added {@link #getByPaymentsAndInvoiceType(Collection, long)},
+ *   {@link #getByJiraIssuesAndInvoiceType(Collection, long)} and {@link #getByContestsAndInvoiceType(Collection, long)}
+ *   which get the records with one query per {@link #MAX_IDS_PER_QUERY} ids.</li>
+ *   <li>Added {@link #saveOrUpdateAll(List)} which flushes and clears the session every {@link #batchSize} records,
+ *   the statements are batched when <code>hibernate.jdbc.batch_size</code> is set.</li>
+ * </ul>
+ * </p>
+ *
  * @author flexme, minhu, TCSASSEMBLER
- * @version 1.3
+ * @version 1.4
  */
 public class InvoiceRecordDAOImpl extends GenericDAOImpl<InvoiceRecord> implements InvoiceRecordDAO {
     
@@ -87,6 +104,40 @@ public class InvoiceRecordDAOImpl extends GenericDAOImpl<InvoiceRecord> implemen
      * <p>Represents a hql query used for retrieving the count of {@link InvoiceRecord} by invoice id.</p>
      */
     private static final String QUERY_COUNT_BY_INVOICE_STRING = "select count(*) from InvoiceRecord where invoice.id=:invoiceId";
+
+    /**
+     * <p>Represents a hql query used for retrieving {@link InvoiceRecord}s by payment ids and invoice type id.</p>
+     * @since 1.4
+     */
+    private static final String QUERY_BY_PAYMENTS_INVOICE_TYPE =
+        "from InvoiceRecord where paymentId in (:ids) and invoiceType.id=:invoiceTypeId";
+
+    /**
+     * <p>Represents a hql query used for retrieving {@link InvoiceRecord}s by JIRA issue ids and invoice type id.</p>
+     * @since 1.4
+     */
+    private static final String QUERY_BY_JIRA_ISSUES_INVOICE_TYPE_WITH_NULL_PAYMENT_ID =
+        "from InvoiceRecord where jiraIssueId in (:ids) and invoiceType.id=:invoiceTypeId and paymentId is null";
+
+    /**
+     * <p>Represents a hql query used for retrieving {@link InvoiceRecord}s by contest ids and invoice type id.</p>
+     * @since 1.4
+     */
+    private static final String QUERY_BY_CONTESTS_INVOICE_TYPE_WITH_NULL_PAYMENT_ID =
+        "from InvoiceRecord where contestId in (:ids) and invoiceType.id=:invoiceTypeId and paymentId is null";
+
+    /**
+     * <p>Represents the max number of ids bound to a single query.</p>
+     * @since 1.4
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    /**
+     * <p>The number of records after which {@link #saveOrUpdateAll(List)} flushes and clears the session. It should
+     * match <code>hibernate.jdbc.batch_size</code>. Has a setter, must be positive.</p>
+     * @since 1.4
+     */
+    private int batchSize = 50;
     
     /**
      * <p>Creates new instance of <code>{@link InvoiceRecordDAOImpl}</code> class.</p>
@@ -287,4 +338,243 @@ public class InvoiceRecordDAOImpl extends GenericDAOImpl<InvoiceRecord> implemen
             throw ex;
         }
     }
+
+    /**
+     * <p>Gets the <code>InvoiceRecord</code>s by payment ids and invoice type.</p>
+     *
+     * @param paymentIds the payment ids.
+     * @param invoiceTypeId the id of the invoice type.
+     * @return the <code>InvoiceRecord</code>s keyed by payment id, the payments without record are absent.
+     * @throws IllegalArgumentException if payment ids is null or contains not positive id, or invoice type id is not
+     *         positive.
+     * @throws InvoiceDAOException if some other error occurred.
+     * @since 1.4
+     */
+    public Map<Long, InvoiceRecord> getByPaymentsAndInvoiceType(Collection<Long> paymentIds, long invoiceTypeId)
+        throws InvoiceDAOException {
+        final String methodName = "getByPaymentsAndInvoiceType";
+        final long executionStart = System.currentTimeMillis();
+        Helper.logMethodEntered(getLog(), CLASS_NAME, methodName);
+
+        checkIds(paymentIds, "paymentIds", methodName);
+        Helper.checkIsPositive(getLog(), invoiceTypeId, "invoiceTypeId", CLASS_NAME, methodName);
+
+        Map<Long, InvoiceRecord> result = new HashMap<Long, InvoiceRecord>();
+        for (InvoiceRecord record : list(QUERY_BY_PAYMENTS_INVOICE_TYPE, paymentIds, invoiceTypeId, methodName)) {
+            if (!result.containsKey(record.getPaymentId())) {
+                result.put(record.getPaymentId(), record);
+            }
+        }
+
+        // log method exit
+        Helper.logMethodExited(getLog(), CLASS_NAME, methodName, executionStart);
+        return result;
+    }
+
+    /**
+     * <p>Gets the <code>InvoiceRecord</code>s without payment by JIRA issue ids and invoice type.</p>
+     *
+     * @param jiraIssueIds the JIRA issue ids.
+     * @param invoiceTypeId the id of the invoice type.
+     * @return the <code>InvoiceRecord</code>s keyed by JIRA issue id, the issues without record are absent.
+     * @throws IllegalArgumentException if JIRA issue ids is null or contains null/empty id, or invoice type id is not
+     *         positive.
+     * @throws InvoiceDAOException if some other error occurred.
+     * @since 1.4
+     */
+    public Map<String, InvoiceRecord> getByJiraIssuesAndInvoiceType(Collection<String> jiraIssueIds,
+        long invoiceTypeId) throws InvoiceDAOException {
+        final String methodName = "getByJiraIssuesAndInvoiceType";
+        final long executionStart = System.currentTimeMillis();
+        Helper.logMethodEntered(getLog(), CLASS_NAME, methodName);
+
+        checkNotNull(jiraIssueIds, "jiraIssueIds", methodName);
+        for (String jiraIssueId : jiraIssueIds) {
+            Helper.checkString(getLog(), jiraIssueId, "jiraIssueIds element", CLASS_NAME, methodName);
+        }
+        Helper.checkIsPositive(getLog(), invoiceTypeId, "invoiceTypeId", CLASS_NAME, methodName);
+
+        Map<String, InvoiceRecord> result = new HashMap<String, InvoiceRecord>();
+        for (InvoiceRecord record : list(QUERY_BY_JIRA_ISSUES_INVOICE_TYPE_WITH_NULL_PAYMENT_ID, jiraIssueIds,
+            invoiceTypeId, methodName)) {
+            if (!result.containsKey(record.getJiraIssueId())) {
+                result.put(record.getJiraIssueId(), record);
+            }
+        }
+
+        // log method exit
+        Helper.logMethodExited(getLog(), CLASS_NAME, methodName, executionStart);
+        return result;
+    }
+
+    /**
+     * <p>Gets the <code>InvoiceRecord</code>s without payment by contest ids and invoice type.</p>
+     *
+     * @param contestIds the contest ids.
+     * @param invoiceTypeId the id of the invoice type.
+     * @return the <code>InvoiceRecord</code>s keyed by contest id, the contests without record are absent.
+     * @throws IllegalArgumentException if contest ids is null or contains not positive id, or invoice type id is not
+     *         positive.
+     * @throws InvoiceDAOException if some other error occurred.
+     * @since 1.4
+     */
+    public Map<Long, InvoiceRecord> getByContestsAndInvoiceType(Collection<Long> contestIds, long invoiceTypeId)
+        throws InvoiceDAOException {
+        final String methodName = "getByContestsAndInvoiceType";
+        final long executionStart = System.currentTimeMillis();
+        Helper.logMethodEntered(getLog(), CLASS_NAME, methodName);
+
+        checkIds(contestIds, "contestIds", methodName);
+        Helper.checkIsPositive(getLog(), invoiceTypeId, "invoiceTypeId", CLASS_NAME, methodName);
+
+        Map<Long, InvoiceRecord> result = new HashMap<Long, InvoiceRecord>();
+        for (InvoiceRecord record : list(QUERY_BY_CONTESTS_INVOICE_TYPE_WITH_NULL_PAYMENT_ID, contestIds,
+            invoiceTypeId, methodName)) {
+            if (!result.containsKey(record.getContestId())) {
+                result.put(record.getContestId(), record);
+            }
+        }
+
+        // log method exit
+        Helper.logMethodExited(getLog(), CLASS_NAME, methodName, executionStart);
+        return result;
+    }
+
+    /**
+     * <p>Creates the new <code>InvoiceRecord</code>s (with id 0) and updates the existing ones in the persistence.
+     * The session is flushed and cleared periodically so it doesn't grow with the number of records, the records
+     * are detached after this call. Hibernate runs the inserts of a flush before its updates, so they are sent in
+     * JDBC batches when <code>hibernate.jdbc.batch_size</code> is set on the session factory.</p>
+     *
+     * @param records the records to create or update.
+     * @throws IllegalArgumentException if records is null or contains null.
+     * @throws InvoiceDAOException if some other error occurred.
+     * @since 1.4
+     */
+    public void saveOrUpdateAll(List<InvoiceRecord> records) throws InvoiceDAOException {
+        final String methodName = "saveOrUpdateAll";
+        final long executionStart = System.currentTimeMillis();
+        Helper.logMethodEntered(getLog(), CLASS_NAME, methodName);
+
+        checkNotNull(records, "records", methodName);
+        for (InvoiceRecord record : records) {
+            checkNotNull(record, "records element", methodName);
+        }
+
+        try {
+            Session session = getSession();
+            int count = 0;
+            for (InvoiceRecord record : records) {
+                // update audit fields of the record
+                updateAuditTimestamp(record, record.getId() <= 0);
+                session.saveOrUpdate(record);
+                count++;
+                if (count % batchSize == 0) {
+                    // send the batch and release the records
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.flush();
+            session.clear();
+
+            // log method exit
+            Helper.logMethodExited(getLog(), CLASS_NAME, methodName, executionStart);
+        } catch (HibernateException e) {
+            InvoiceDAOException ex = new InvoiceDAOException(MessageFormat.format(
+                    "Error occurred when saving entities of {0}", "InvoiceRecord"), e);
+            Helper.logError(getLog(),
+                    MessageFormat.format(Helper.METHOD_ERROR, CLASS_NAME, methodName), ex);
+
+            throw ex;
+        }
+    }
+
+    /**
+     * <p>Sets the number of records after which {@link #saveOrUpdateAll(List)} flushes and clears the session.</p>
+     *
+     * @param batchSize the number of records, must be positive.
+     * @throws IllegalArgumentException if batchSize is not positive.
+     * @since 1.4
+     */
+    public void setBatchSize(int batchSize) {
+        Helper.checkIsPositive(batchSize, "batchSize");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * <p>Gets the <code>InvoiceRecord</code>s of the given ids and invoice type, with one query per
+     * {@link #MAX_IDS_PER_QUERY} ids.</p>
+     *
+     * @param hql the query, the ids are bound to <code>ids</code> parameter.
+     * @param ids the ids.
+     * @param invoiceTypeId the id of the invoice type.
+     * @param methodName the name of the calling method.
+     * @return the <code>InvoiceRecord</code>s.
+     * @throws InvoiceDAOException if any error occurred.
+     * @since 1.4
+     */
+    @SuppressWarnings("unchecked")
+    private List<InvoiceRecord> list(String hql, Collection<?> ids, long invoiceTypeId, String methodName)
+        throws InvoiceDAOException {
+        List<InvoiceRecord> result = new ArrayList<InvoiceRecord>();
+        try {
+            List<Object> chunk = new ArrayList<Object>();
+            for (Object id : new LinkedHashSet<Object>(ids)) {
+                chunk.add(id);
+                if (chunk.size() == MAX_IDS_PER_QUERY) {
+                    result.addAll(getSession().createQuery(hql).setParameterList("ids", chunk)
+                        .setParameter("invoiceTypeId", invoiceTypeId).list());
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                result.addAll(getSession().createQuery(hql).setParameterList("ids", chunk)
+                    .setParameter("invoiceTypeId", invoiceTypeId).list());
+            }
+            return result;
+        } catch (HibernateException e) {
+            InvoiceDAOException ex = new InvoiceDAOException(MessageFormat.format(
+                    "Error occurred when retrieving entities of {0}", "InvoiceRecord"), e);
+            Helper.logError(getLog(),
+                    MessageFormat.format(Helper.METHOD_ERROR, CLASS_NAME, methodName), ex);
+
+            throw ex;
+        }
+    }
+
+    /**
+     * <p>Checks if the passed ids are not null and positive.</p>
+     *
+     * @param ids the ids to check.
+     * @param paramName the parameter name used in exception error message.
+     * @param methodName the name of the calling method.
+     * @throws IllegalArgumentException if the ids are null or any of them is null or not positive.
+     * @since 1.4
+     */
+    private void checkIds(Collection<Long> ids, String paramName, String methodName) {
+        checkNotNull(ids, paramName, methodName);
+        for (Long id : ids) {
+            checkNotNull(id, paramName + " element", methodName);
+            Helper.checkIsPositive(getLog(), id, paramName + " element", CLASS_NAME, methodName);
+        }
+    }
+
+    /**
+     * <p>Checks if the passed parameter is not null, logs and throws IllegalArgumentException if it is.</p>
+     *
+     * @param param the parameter to check.
+     * @param paramName the parameter name used in exception error message.
+     * @param methodName the name of the calling method.
+     * @throws IllegalArgumentException if the parameter is null.
+     * @since 1.4
+     */
+    private void checkNotNull(Object param, String paramName, String methodName) {
+        try {
+            Helper.checkIsNotNull(param, paramName);
+        } catch (IllegalArgumentException e) {
+            Helper.logError(getLog(), MessageFormat.format(Helper.ILLEGAL_ARGUMENT, CLASS_NAME, methodName), e);
+            throw e;
+        }
+    }
 }
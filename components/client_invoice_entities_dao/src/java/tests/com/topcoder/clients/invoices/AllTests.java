@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.clients.invoices;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import com.topcoder.clients.invoices.stresstests.StressTests;
+
+/**
+ * <p>This test case aggregates all test cases.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class AllTests extends TestCase {
+
+    /**
+     * <p>Aggregates all test cases.</p>
+     *
+     * @return the aggregated cases
+     */
+    public static Test suite() {
+        final TestSuite suite = new TestSuite();
+
+        // stress tests
+        suite.addTest(StressTests.suite());
+
+        return suite;
+    }
+}
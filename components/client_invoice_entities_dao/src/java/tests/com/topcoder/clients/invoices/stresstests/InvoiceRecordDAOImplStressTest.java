@@ -0,0 +1,415 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.clients.invoices.stresstests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import com.topcoder.clients.invoices.dao.InvoiceDAOException;
+import com.topcoder.clients.invoices.dao.InvoiceRecordDAO;
+import com.topcoder.clients.invoices.model.InvoiceRecord;
+import com.topcoder.clients.invoices.model.InvoiceType;
+
+/**
+ * <p>
+ * Stress tests for the bulk methods of class <code>InvoiceRecordDAOImpl</code>. Each test looks up
+ * {@link #RECORD_COUNT} keys which have no record, creates the records with <code>saveOrUpdateAll</code>, then looks
+ * them up again and updates them all, the way <code>UpdateInvoiceRecordsAction</code> does. The number of statements
+ * is taken from the Hibernate statistics, and the elapsed time is printed.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class InvoiceRecordDAOImplStressTest {
+
+    /**
+     * <p>Represents the number of records created and updated by each test.</p>
+     */
+    private static final int RECORD_COUNT = 10000;
+
+    /**
+     * <p>Represents the number of ids bound to a single lookup query by the DAO.</p>
+     */
+    private static final int IDS_PER_QUERY = 500;
+
+    /**
+     * <p>Represents the number of records sent in a JDBC batch, it's the batch size of the DAO and the
+     * <code>hibernate.jdbc.batch_size</code> in <code>applicationContext.xml</code>.</p>
+     */
+    private static final int BATCH_SIZE = 50;
+
+    /**
+     * <p>Represents the id of the invoice type inserted by <code>DBSetup.sql</code>.</p>
+     */
+    private static final long INVOICE_TYPE_ID = 9001;
+
+    /**
+     * <p>Represents the first payment/contest id used by the tests.</p>
+     */
+    private static final long BASE_ID = 900000000L;
+
+    /**
+     * <p>Represents the path of test files.</p>
+     */
+    private static final String TEST_FILES = "test_files" + File.separator;
+
+    /**
+     * <p>Represents the <code>ApplicationContext</code> for tests.</p>
+     */
+    private static final ApplicationContext APP_CONTEXT = new ClassPathXmlApplicationContext(
+        "applicationContext.xml");
+
+    /**
+     * <p>Represents the <code>InvoiceRecordDAO</code> instance used to test against.</p>
+     */
+    private InvoiceRecordDAO dao;
+
+    /**
+     * <p>Represents the session factory used by the DAO.</p>
+     */
+    private SessionFactory sessionFactory;
+
+    /**
+     * <p>Represents the transaction manager used to run the transactions.</p>
+     */
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * <p>Represents the statistics of the session factory.</p>
+     */
+    private Statistics statistics;
+
+    /**
+     * <p>Represents the key of the records used by a test, with the bulk lookup by this key.</p>
+     *
+     * @param <K> the type of the key
+     */
+    private abstract static class RecordKey<K> {
+        /**
+         * <p>Gets the key of the record of the given index.</p>
+         *
+         * @param index the index of the record.
+         * @return the key.
+         */
+        abstract K getKey(int index);
+
+        /**
+         * <p>Sets the key of the record.</p>
+         *
+         * @param record the record.
+         * @param key the key.
+         */
+        abstract void setKey(InvoiceRecord record, K key);
+
+        /**
+         * <p>Looks up the records of the given keys with the bulk method of the DAO.</p>
+         *
+         * @param dao the DAO.
+         * @param keys the keys.
+         * @return the records keyed by key.
+         * @throws InvoiceDAOException if any error occurs.
+         */
+        abstract Map<K, InvoiceRecord> lookup(InvoiceRecordDAO dao, Collection<K> keys) throws InvoiceDAOException;
+    }
+
+    /**
+     * <p>Creates a test suite for the tests in this test case.</p>
+     *
+     * @return a Test suite for this test case.
+     */
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(InvoiceRecordDAOImplStressTest.class);
+    }
+
+    /**
+     * <p>Sets up the test environment.</p>
+     *
+     * @throws Exception to JUnit
+     */
+    @Before
+    public void setUp() throws Exception {
+        dao = (InvoiceRecordDAO) APP_CONTEXT.getBean("invoiceRecordDAO");
+        sessionFactory = (SessionFactory) APP_CONTEXT.getBean("sessionFactory");
+        transactionManager = (PlatformTransactionManager) APP_CONTEXT.getBean("txManager");
+        statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        executeSQL("DBClear.sql");
+        executeSQL("DBSetup.sql");
+    }
+
+    /**
+     * <p>Tears down the test environment.</p>
+     *
+     * @throws Exception to JUnit
+     */
+    @After
+    public void tearDown() throws Exception {
+        executeSQL("DBClear.sql");
+    }
+
+    /**
+     * <p>Stress test for <code>getByPaymentsAndInvoiceType(Collection, long)</code> and
+     * <code>saveOrUpdateAll(List)</code>.</p>
+     *
+     * @throws Exception to JUnit
+     */
+    @Test
+    public void testPayments() throws Exception {
+        runStressTest("payments", new RecordKey<Long>() {
+            Long getKey(int index) {
+                return BASE_ID + index;
+            }
+
+            void setKey(InvoiceRecord record, Long key) {
+                record.setPaymentId(key);
+            }
+
+            Map<Long, InvoiceRecord> lookup(InvoiceRecordDAO dao, Collection<Long> keys)
+                throws InvoiceDAOException {
+                return dao.getByPaymentsAndInvoiceType(keys, INVOICE_TYPE_ID);
+            }
+        });
+    }
+
+    /**
+     * <p>Stress test for <code>getByContestsAndInvoiceType(Collection, long)</code> and
+     * <code>saveOrUpdateAll(List)</code>.</p>
+     *
+     * @throws Exception to JUnit
+     */
+    @Test
+    public void testContests() throws Exception {
+        runStressTest("contests", new RecordKey<Long>() {
+            Long getKey(int index) {
+                return BASE_ID + index;
+            }
+
+            void setKey(InvoiceRecord record, Long key) {
+                record.setContestId(key);
+            }
+
+            Map<Long, InvoiceRecord> lookup(InvoiceRecordDAO dao, Collection<Long> keys)
+                throws InvoiceDAOException {
+                return dao.getByContestsAndInvoiceType(keys, INVOICE_TYPE_ID);
+            }
+        });
+    }
+
+    /**
+     * <p>Stress test for <code>getByJiraIssuesAndInvoiceType(Collection, long)</code> and
+     * <code>saveOrUpdateAll(List)</code>.</p>
+     *
+     * @throws Exception to JUnit
+     */
+    @Test
+    public void testJiraIssues() throws Exception {
+        runStressTest("JIRA issues", new RecordKey<String>() {
+            String getKey(int index) {
+                return "STRESS-" + index;
+            }
+
+            void setKey(InvoiceRecord record, String key) {
+                record.setJiraIssueId(key);
+            }
+
+            Map<String, InvoiceRecord> lookup(InvoiceRecordDAO dao, Collection<String> keys)
+                throws InvoiceDAOException {
+                return dao.getByJiraIssuesAndInvoiceType(keys, INVOICE_TYPE_ID);
+            }
+        });
+    }
+
+    /**
+     * <p>Looks up {@link #RECORD_COUNT} keys without record and creates their records, then looks them up again
+     * and updates them. Each lookup should run one query per {@link #IDS_PER_QUERY} keys, and each
+     * <code>saveOrUpdateAll</code> should send the records in JDBC batches: at most two statements per
+     * {@link #BATCH_SIZE} records (the batch and a check of the invoice type detached by the periodic clear), plus the
+     * id generator query.</p>
+     *
+     * @param name the name of the test, used in the printed timings.
+     * @param recordKey the key of the records.
+     * @param <K> the type of the key.
+     * @throws Exception to JUnit
+     */
+    private <K> void runStressTest(String name, RecordKey<K> recordKey) throws Exception {
+        List<K> keys = new ArrayList<K>();
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            keys.add(recordKey.getKey(i));
+        }
+        long lookupQueries = (RECORD_COUNT + IDS_PER_QUERY - 1) / IDS_PER_QUERY;
+        long maxSaveStatements = 2 * ((RECORD_COUNT + BATCH_SIZE - 1) / BATCH_SIZE) + 2;
+
+        // create the records
+        long startTime = System.currentTimeMillis();
+        TransactionStatus status = beginTransaction();
+        try {
+            statistics.clear();
+            Map<K, InvoiceRecord> found = recordKey.lookup(dao, keys);
+            assertEquals("No record should be found.", 0, found.size());
+            assertEquals("The lookup should run one query per " + IDS_PER_QUERY + " keys.", lookupQueries,
+                statistics.getQueryExecutionCount());
+
+            InvoiceType invoiceType = (InvoiceType) sessionFactory.getCurrentSession().get(InvoiceType.class,
+                INVOICE_TYPE_ID);
+            assertNotNull("The invoice type should be inserted.", invoiceType);
+            List<InvoiceRecord> records = new ArrayList<InvoiceRecord>();
+            for (K key : keys) {
+                InvoiceRecord record = createInvoiceRecord(invoiceType);
+                recordKey.setKey(record, key);
+                records.add(record);
+            }
+
+            statistics.clear();
+            dao.saveOrUpdateAll(records);
+            transactionManager.commit(status);
+        } finally {
+            if (!status.isCompleted()) {
+                transactionManager.rollback(status);
+            }
+        }
+        assertEquals("All the records should be inserted.", RECORD_COUNT, statistics.getEntityInsertCount());
+        assertTrue("The inserts should be batched, statements: " + statistics.getPrepareStatementCount(),
+            statistics.getPrepareStatementCount() <= maxSaveStatements);
+        System.out.println("The stress test of " + name + " creates " + RECORD_COUNT + " records in : "
+            + (System.currentTimeMillis() - startTime) + " ms");
+
+        // update the records
+        startTime = System.currentTimeMillis();
+        status = beginTransaction();
+        try {
+            statistics.clear();
+            Map<K, InvoiceRecord> found = recordKey.lookup(dao, keys);
+            assertEquals("All the records should be found.", RECORD_COUNT, found.size());
+            assertEquals("The lookup should run one query per " + IDS_PER_QUERY + " keys.", lookupQueries,
+                statistics.getQueryExecutionCount());
+
+            List<InvoiceRecord> records = new ArrayList<InvoiceRecord>(found.values());
+            for (InvoiceRecord record : records) {
+                record.setInvoiceAmount(20.0);
+                record.setModifyUser("stress");
+            }
+
+            statistics.clear();
+            dao.saveOrUpdateAll(records);
+            transactionManager.commit(status);
+        } finally {
+            if (!status.isCompleted()) {
+                transactionManager.rollback(status);
+            }
+        }
+        assertEquals("All the records should be updated.", RECORD_COUNT, statistics.getEntityUpdateCount());
+        assertTrue("The updates should be batched, statements: " + statistics.getPrepareStatementCount(),
+            statistics.getPrepareStatementCount() <= maxSaveStatements);
+        System.out.println("The stress test of " + name + " updates " + RECORD_COUNT + " records in : "
+            + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    /**
+     * <p>Begins a new transaction.</p>
+     *
+     * @return the status of the transaction.
+     */
+    private TransactionStatus beginTransaction() {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        return transactionManager.getTransaction(def);
+    }
+
+    /**
+     * <p>Creates a new invoice record without key.</p>
+     *
+     * @param invoiceType the invoice type of the record.
+     * @return the invoice record.
+     */
+    private static InvoiceRecord createInvoiceRecord(InvoiceType invoiceType) {
+        InvoiceRecord record = new InvoiceRecord();
+        record.setBillingAccountId(1);
+        record.setInvoiceType(invoiceType);
+        record.setInvoiceAmount(10.0);
+        record.setProcessed(false);
+        record.setCreateUser("stress");
+        record.setModifyUser("stress");
+        return record;
+    }
+
+    /**
+     * <p>Executes the SQL statements in the given test file, separated by ';'.</p>
+     *
+     * @param fileName the name of the file in the test files directory.
+     * @throws Exception to JUnit
+     */
+    private static void executeSQL(String fileName) throws Exception {
+        String[] values = readFile(TEST_FILES + fileName).split(";");
+
+        Connection connection = ((DataSource) APP_CONTEXT.getBean("dataSource")).getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    String sql = values[i].trim();
+                    if (sql.length() != 0) {
+                        statement.executeUpdate(sql);
+                    }
+                }
+            } finally {
+                statement.close();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * <p>Reads the content of a given file.</p>
+     *
+     * @param fileName the name of the file to read.
+     * @return a string represents the content.
+     * @throws IOException if any error occurs during reading.
+     */
+    private static String readFile(String fileName) throws IOException {
+        Reader reader = new FileReader(fileName);
+
+        try {
+            StringBuilder sb = new StringBuilder();
+            char[] buffer = new char[1024];
+            int k = 0;
+            while ((k = reader.read(buffer)) != -1) {
+                sb.append(buffer, 0, k);
+            }
+            return sb.toString();
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.clients.invoices.stresstests;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * <p>This test case aggregates all stress test cases.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class StressTests extends TestCase {
+
+    /**
+     * <p>Aggregates all stress test cases.</p>
+     *
+     * @return the aggregated cases
+     */
+    public static Test suite() {
+        final TestSuite suite = new TestSuite();
+
+        suite.addTest(InvoiceRecordDAOImplStressTest.suite());
+
+        return suite;
+    }
+}
@@ -0,0 +1,2 @@
+DELETE FROM informixoltp:invoice_record WHERE invoice_type_id = 9001;
+DELETE FROM informixoltp:invoice_type_lu WHERE invoice_type_id = 9001;
@@ -0,0 +1 @@
+INSERT INTO informixoltp:invoice_type_lu (invoice_type_id, name, create_date, create_user, modify_date, modify_user) VALUES (9001, 'Stress Test Type', CURRENT, 'stress', CURRENT, 'stress');
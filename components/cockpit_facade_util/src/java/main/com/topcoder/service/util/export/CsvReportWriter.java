@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * <p>
+ * Writes the report rows as UTF-8 CSV (RFC 4180): the values are separated by commas, the rows by CRLF, and the values
+ * containing commas, quotes or line breaks are quoted. The content starts with a byte order mark so that Excel detects
+ * the encoding.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is not thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class CsvReportWriter implements ReportWriter {
+
+    /**
+     * The writer of the content.
+     */
+    private final Writer writer;
+
+    /**
+     * The number of written rows.
+     */
+    private int rowCount;
+
+    /**
+     * Whether the writer is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates the writer.
+     *
+     * @param out the output stream to write to.
+     * @throws IllegalArgumentException if out is null.
+     * @throws IOException if an I/O error occurs.
+     */
+    public CsvReportWriter(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("The out should not be null.");
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+        writer.write('\uFEFF');
+    }
+
+    /**
+     * Writes a row.
+     *
+     * @param values the values of the row cells.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalStateException if the writer is closed.
+     */
+    public void writeRow(Object... values) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The writer is closed.");
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeValue(values[i].toString());
+            }
+        }
+        writer.write("\r\n");
+        rowCount++;
+    }
+
+    /**
+     * Gets the number of written rows.
+     *
+     * @return the number of written rows.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Flushes the content. The underlying output stream is not closed.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            writer.flush();
+        }
+    }
+
+    /**
+     * Writes a value, quoting it if needed.
+     *
+     * @param value the value.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void writeValue(String value) throws IOException {
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quoted) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
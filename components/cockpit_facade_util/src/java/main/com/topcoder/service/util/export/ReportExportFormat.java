@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <p>
+ * The formats the reports can be exported to. {@link #XLS} is the BIFF8 workbook built in memory by the Excel utility;
+ * {@link #XLSX} and {@link #CSV} are written row by row with a {@link ReportWriter}.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This enum is immutable and thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public enum ReportExportFormat {
+
+    /**
+     * The Excel 97-2003 workbook format.
+     */
+    XLS("xls", "application/vnd.ms-excel", 65536),
+
+    /**
+     * The Excel 2007 workbook format.
+     */
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", XlsxReportWriter.MAX_ROWS),
+
+    /**
+     * The comma separated values format.
+     */
+    CSV("csv", "text/csv; charset=UTF-8", Integer.MAX_VALUE);
+
+    /**
+     * The file extension.
+     */
+    private final String extension;
+
+    /**
+     * The content type.
+     */
+    private final String contentType;
+
+    /**
+     * The maximum number of rows of a sheet.
+     */
+    private final int maxRows;
+
+    /**
+     * Creates the format.
+     *
+     * @param extension the file extension.
+     * @param contentType the content type.
+     * @param maxRows the maximum number of rows of a sheet.
+     */
+    private ReportExportFormat(String extension, String contentType, int maxRows) {
+        this.extension = extension;
+        this.contentType = contentType;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Gets the file extension.
+     *
+     * @return the file extension, without the dot.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Gets the content type.
+     *
+     * @return the content type.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the maximum number of rows of a sheet.
+     *
+     * @return the maximum number of rows.
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * Checks whether the rows are written with a {@link ReportWriter}.
+     *
+     * @return true for {@link #XLSX} and {@link #CSV}, false for {@link #XLS}.
+     */
+    public boolean isStreaming() {
+        return this != XLS;
+    }
+
+    /**
+     * Gets the format able to hold the given number of rows: this format if it can, {@link #XLSX} otherwise.
+     *
+     * @param rowCount the number of rows.
+     * @return the format to use.
+     */
+    public ReportExportFormat forRows(int rowCount) {
+        return rowCount > maxRows ? XLSX : this;
+    }
+
+    /**
+     * Gets a file name with the extension of this format.
+     *
+     * @param fileName the file name, e.g. <code>cost_report.xls</code>.
+     * @return the file name with its extension replaced, e.g. <code>cost_report.csv</code>.
+     */
+    public String getFileName(String fileName) {
+        int index = fileName.lastIndexOf('.');
+        return (index < 0 ? fileName : fileName.substring(0, index)) + "." + extension;
+    }
+
+    /**
+     * Creates the writer of the rows.
+     *
+     * @param out the output stream to write to.
+     * @param sheetName the sheet name.
+     * @return the writer.
+     * @throws IllegalArgumentException if out is null, or sheetName is null or empty.
+     * @throws UnsupportedOperationException if this format is {@link #XLS}.
+     * @throws IOException if an I/O error occurs.
+     */
+    public ReportWriter createWriter(OutputStream out, String sheetName) throws IOException {
+        if (this == XLSX) {
+            return new XlsxReportWriter(out, sheetName);
+        }
+        if (this == CSV) {
+            return new CsvReportWriter(out);
+        }
+        throw new UnsupportedOperationException("The " + this + " format is not written row by row.");
+    }
+
+    /**
+     * Parses a request parameter.
+     *
+     * @param value the parameter value, the extension of the format (case insensitive).
+     * @return the format, or {@link #XLS} if the value is null, empty or unknown.
+     */
+    public static ReportExportFormat parse(String value) {
+        if (value != null) {
+            for (ReportExportFormat format : values()) {
+                if (format.extension.equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+        }
+        return XLS;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.export;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ * Writes the rows of a report to an output stream as they are produced. Implementations don't keep the written rows,
+ * so the memory used to export a report doesn't grow with the number of rows.
+ * </p>
+ *
+ * <p>
+ * The values of a row are written as numbers when they are instances of <code>Number</code>, and as text otherwise;
+ * <code>null</code> values are written as empty cells.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> Implementations are not required to be thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public interface ReportWriter {
+
+    /**
+     * Writes a row.
+     *
+     * @param values the values of the row cells, the first value is written to the first column.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalStateException if the writer is closed or the format can't hold more rows.
+     */
+    void writeRow(Object... values) throws IOException;
+
+    /**
+     * Gets the number of written rows.
+     *
+     * @return the number of written rows.
+     */
+    int getRowCount();
+
+    /**
+     * Completes the document and flushes it. The underlying output stream is not closed, it belongs to the caller.
+     * Closing a closed writer has no effect.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    void close() throws IOException;
+}
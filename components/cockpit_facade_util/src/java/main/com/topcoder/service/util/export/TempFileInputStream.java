@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.export;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * <p>
+ * Reads an exported report from a temporary file, and deletes the file when the stream is closed. The reports are
+ * exported to a temporary file rather than to a byte array so that serving them doesn't need memory proportional to
+ * their size.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is not thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class TempFileInputStream extends FileInputStream {
+
+    /**
+     * The temporary file.
+     */
+    private final File file;
+
+    /**
+     * Opens the temporary file.
+     *
+     * @param file the temporary file.
+     * @throws IOException if the file can't be opened.
+     */
+    public TempFileInputStream(File file) throws IOException {
+        super(file);
+        this.file = file;
+    }
+
+    /**
+     * Closes the stream and deletes the file.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.export;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * <p>
+ * Writes the report rows as an Excel 2007 (OOXML) workbook with a single sheet. The workbook parts are written
+ * directly to the output stream: the fixed parts when the writer is created, then each row of the sheet as soon as
+ * it's written, so only the row being written is held in memory. The text values are written as inline strings,
+ * which avoids keeping a shared string table for the whole sheet.
+ * </p>
+ *
+ * <p>
+ * Unlike the BIFF8 format, a sheet can hold up to {@link #MAX_ROWS} rows.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is not thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class XlsxReportWriter implements ReportWriter {
+
+    /**
+     * The maximum number of rows of a sheet.
+     */
+    public static final int MAX_ROWS = 1048576;
+
+    /**
+     * The maximum number of columns of a sheet.
+     */
+    public static final int MAX_COLUMNS = 16384;
+
+    /**
+     * The maximum length of a sheet name.
+     */
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    /**
+     * The XML declaration of the parts.
+     */
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    /**
+     * The spreadsheet namespace.
+     */
+    private static final String MAIN_NAMESPACE = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    /**
+     * The package relationships namespace.
+     */
+    private static final String RELATIONSHIPS_NAMESPACE =
+        "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    /**
+     * The office document relationship types prefix.
+     */
+    private static final String RELATIONSHIP_TYPE =
+        "http://schemas.openxmlformats.org/officeDocument/2006/relationships/";
+
+    /**
+     * The content types part.
+     */
+    private static final String CONTENT_TYPES = XML_DECLARATION
+        + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+        + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+        + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+        + "<Override PartName=\"/xl/workbook.xml\""
+        + " ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+        + "<Override PartName=\"/xl/styles.xml\""
+        + " ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+        + "<Override PartName=\"/xl/worksheets/sheet1.xml\""
+        + " ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+        + "</Types>";
+
+    /**
+     * The package relationships part.
+     */
+    private static final String PACKAGE_RELATIONSHIPS = XML_DECLARATION
+        + "<Relationships xmlns=\"" + RELATIONSHIPS_NAMESPACE + "\">"
+        + "<Relationship Id=\"rId1\" Type=\"" + RELATIONSHIP_TYPE + "officeDocument\" Target=\"xl/workbook.xml\"/>"
+        + "</Relationships>";
+
+    /**
+     * The workbook relationships part.
+     */
+    private static final String WORKBOOK_RELATIONSHIPS = XML_DECLARATION
+        + "<Relationships xmlns=\"" + RELATIONSHIPS_NAMESPACE + "\">"
+        + "<Relationship Id=\"rId1\" Type=\"" + RELATIONSHIP_TYPE + "worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+        + "<Relationship Id=\"rId2\" Type=\"" + RELATIONSHIP_TYPE + "styles\" Target=\"styles.xml\"/>"
+        + "</Relationships>";
+
+    /**
+     * The styles part, with the default style only.
+     */
+    private static final String STYLES = XML_DECLARATION
+        + "<styleSheet xmlns=\"" + MAIN_NAMESPACE + "\">"
+        + "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+        + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+        + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+        + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+        + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+        + "<cellXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/></cellXfs>"
+        + "</styleSheet>";
+
+    /**
+     * The zip stream the parts are written to.
+     */
+    private final ZipOutputStream zip;
+
+    /**
+     * The writer of the current part.
+     */
+    private final Writer writer;
+
+    /**
+     * The number of written rows.
+     */
+    private int rowCount;
+
+    /**
+     * Whether the writer is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates the writer and writes the fixed parts of the workbook.
+     *
+     * @param out the output stream to write to.
+     * @param sheetName the name of the sheet, it's truncated to 31 characters and the characters Excel doesn't
+     *            accept are replaced.
+     * @throws IllegalArgumentException if out is null, or sheetName is null or empty.
+     * @throws IOException if an I/O error occurs.
+     */
+    public XlsxReportWriter(OutputStream out, String sheetName) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("The out should not be null.");
+        }
+        if (sheetName == null || sheetName.trim().length() == 0) {
+            throw new IllegalArgumentException("The sheetName should not be null or empty.");
+        }
+        zip = new ZipOutputStream(new UnclosedOutputStream(out));
+        // the sheet XML is verbose and compresses well even at the fastest level
+        zip.setLevel(Deflater.BEST_SPEED);
+        writer = new BufferedWriter(new OutputStreamWriter(zip, "UTF-8"));
+
+        writePart("[Content_Types].xml", CONTENT_TYPES);
+        writePart("_rels/.rels", PACKAGE_RELATIONSHIPS);
+        writePart("xl/_rels/workbook.xml.rels", WORKBOOK_RELATIONSHIPS);
+        writePart("xl/styles.xml", STYLES);
+        writePart("xl/workbook.xml", XML_DECLARATION + "<workbook xmlns=\"" + MAIN_NAMESPACE + "\" xmlns:r=\""
+            + RELATIONSHIP_TYPE.substring(0, RELATIONSHIP_TYPE.length() - 1) + "\"><sheets><sheet name=\""
+            + escape(getSafeSheetName(sheetName)) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        writer.write(XML_DECLARATION);
+        writer.write("<worksheet xmlns=\"" + MAIN_NAMESPACE + "\"><sheetData>");
+    }
+
+    /**
+     * Writes a row.
+     *
+     * @param values the values of the row cells.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalStateException if the writer is closed, or the sheet already has {@link #MAX_ROWS} rows.
+     * @throws IllegalArgumentException if there are more than {@link #MAX_COLUMNS} values.
+     */
+    public void writeRow(Object... values) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The writer is closed.");
+        }
+        if (rowCount == MAX_ROWS) {
+            throw new IllegalStateException("The sheet can't hold more than " + MAX_ROWS + " rows.");
+        }
+        if (values.length > MAX_COLUMNS) {
+            throw new IllegalArgumentException("The sheet can't hold more than " + MAX_COLUMNS + " columns.");
+        }
+        rowCount++;
+        writer.write("<row r=\"");
+        writer.write(Integer.toString(rowCount));
+        writer.write("\">");
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            writer.write("<c r=\"");
+            writer.write(getColumnName(i));
+            writer.write(Integer.toString(rowCount));
+            if (value instanceof Number && isFinite((Number) value)) {
+                writer.write("\"><v>");
+                writer.write(value.toString());
+                writer.write("</v></c>");
+            } else {
+                String text = value.toString();
+                writer.write("\" t=\"inlineStr\"><is><t");
+                if (text.length() > 0
+                    && (Character.isWhitespace(text.charAt(0))
+                        || Character.isWhitespace(text.charAt(text.length() - 1)))) {
+                    writer.write(" xml:space=\"preserve\"");
+                }
+                writer.write('>');
+                writer.write(escape(text));
+                writer.write("</t></is></c>");
+            }
+        }
+        writer.write("</row>");
+    }
+
+    /**
+     * Gets the number of written rows.
+     *
+     * @return the number of written rows.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Completes the sheet and the workbook. The underlying output stream is flushed but not closed.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+        // finishes the zip and releases its deflater, the underlying stream is only flushed
+        writer.close();
+    }
+
+    /**
+     * Gets the name of a column, e.g. <code>A</code> for the first column and <code>AA</code> for the 27th.
+     *
+     * @param index the 0-based column index.
+     * @return the column name.
+     */
+    static String getColumnName(int index) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = index + 1; i > 0; i = (i - 1) / 26) {
+            sb.insert(0, (char) ('A' + (i - 1) % 26));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escapes a text for XML. The characters XML 1.0 doesn't allow are dropped.
+     *
+     * @param text the text.
+     * @return the escaped text.
+     */
+    static String escape(String text) {
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement = null;
+            if (c == '&') {
+                replacement = "&amp;";
+            } else if (c == '<') {
+                replacement = "&lt;";
+            } else if (c == '>') {
+                replacement = "&gt;";
+            } else if (c == '"') {
+                replacement = "&quot;";
+            } else if (c < 0x20 && c != '\t' && c != '\n' && c != '\r' || c == 0xFFFE || c == 0xFFFF) {
+                replacement = "";
+            }
+            if (replacement != null && sb == null) {
+                sb = new StringBuilder(text.length() + 16);
+                sb.append(text, 0, i);
+            }
+            if (sb != null) {
+                if (replacement != null) {
+                    sb.append(replacement);
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb == null ? text : sb.toString();
+    }
+
+    /**
+     * Writes a whole part of the workbook.
+     *
+     * @param name the part name.
+     * @param content the part content.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void writePart(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    /**
+     * Checks whether a number can be written as a numeric cell.
+     *
+     * @param number the number.
+     * @return false if the number is a NaN or infinite floating point number, true otherwise.
+     */
+    private static boolean isFinite(Number number) {
+        if (number instanceof Double || number instanceof Float) {
+            double value = number.doubleValue();
+            return !Double.isNaN(value) && !Double.isInfinite(value);
+        }
+        return true;
+    }
+
+    /**
+     * Gets a sheet name Excel accepts.
+     *
+     * @param sheetName the sheet name.
+     * @return the sheet name without the characters <code>[]:*?/\</code>, truncated to 31 characters.
+     */
+    private static String getSafeSheetName(String sheetName) {
+        String name = sheetName.replaceAll("[\\[\\]:*?/\\\\]", " ");
+        return name.length() > MAX_SHEET_NAME_LENGTH ? name.substring(0, MAX_SHEET_NAME_LENGTH) : name;
+    }
+
+    /**
+     * <p>
+     * Output stream which is flushed instead of closed, so that closing the zip stream doesn't close the stream of the
+     * caller.
+     * </p>
+     */
+    private static class UnclosedOutputStream extends FilterOutputStream {
+
+        /**
+         * Creates the stream.
+         *
+         * @param out the stream of the caller.
+         */
+        UnclosedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        /**
+         * Writes the bytes to the stream of the caller.
+         *
+         * @param b the bytes.
+         * @param off the offset of the first byte.
+         * @param len the number of bytes.
+         * @throws IOException if an I/O error occurs.
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        /**
+         * Flushes the stream of the caller without closing it.
+         *
+         * @throws IOException if an I/O error occurs.
+         */
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
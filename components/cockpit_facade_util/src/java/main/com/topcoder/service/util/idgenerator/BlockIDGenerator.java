@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.idgenerator;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.topcoder.util.idgenerator.IDGenerationException;
+import com.topcoder.util.idgenerator.IDGenerator;
+
+/**
+ * <p>
+ * The {@link IDGenerator} reserving blocks of IDs from an {@link IDBlockSource} and handing them out from memory.
+ * </p>
+ *
+ * <p>
+ * The IDs of the current block are taken with atomic operations only, the generator synchronizes only to reserve
+ * the next block once the current one is used up. The size of the reserved blocks adapts to the allocation rate of
+ * the sequence: it doubles when a block lasted less than {@link #FAST_BLOCK_MILLIS} and halves when it lasted more
+ * than {@link #SLOW_BLOCK_MILLIS}, within the configured minimum and maximum, so busy sequences go to the database
+ * rarely and idle ones do not waste many IDs on restart.
+ * </p>
+ *
+ * <p>
+ * {@link #nextIds(int)} takes the IDs of a bulk insert at once, reserving a block large enough for them if needed.
+ * </p>
+ *
+ * <p>
+ * The {@link #BlockIDGenerator(String)} constructor lets the components configured with an ID generator class name
+ * (the <code>IDGeneratorFactory.getIDGenerator(String, String)</code> way) use this class.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class BlockIDGenerator implements IDGenerator {
+
+    /**
+     * A block lasting less than this number of milliseconds doubles the block size.
+     */
+    public static final long FAST_BLOCK_MILLIS = 1000;
+
+    /**
+     * A block lasting more than this number of milliseconds halves the block size.
+     */
+    public static final long SLOW_BLOCK_MILLIS = 60000;
+
+    /**
+     * The block of IDs being handed out.
+     */
+    private static final class Block {
+
+        /**
+         * The next ID to hand out, may go past <code>end</code> when the block is used up.
+         */
+        private final AtomicLong next;
+
+        /**
+         * The end of the block (exclusive).
+         */
+        private final long end;
+
+        /**
+         * The time the block was reserved at.
+         */
+        private final long reservedAt;
+
+        /**
+         * Creates the block.
+         *
+         * @param start the first ID of the block.
+         * @param end the end of the block (exclusive).
+         * @param reservedAt the time the block was reserved at.
+         */
+        private Block(long start, long end, long reservedAt) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+            this.reservedAt = reservedAt;
+        }
+    }
+
+    /**
+     * The name of the ID sequence.
+     */
+    private final String idName;
+
+    /**
+     * The source of the blocks.
+     */
+    private final IDBlockSource source;
+
+    /**
+     * The minimum block size.
+     */
+    private final int minBlockSize;
+
+    /**
+     * The maximum block size.
+     */
+    private final int maxBlockSize;
+
+    /**
+     * The current block, an empty one until the first block is reserved.
+     */
+    private final AtomicReference<Block> current = new AtomicReference<Block>(new Block(0, 0, 0));
+
+    /**
+     * The size of the next block to reserve, guarded by this.
+     */
+    private int blockSize;
+
+    /**
+     * Creates the generator reserving its blocks from the <code>id_sequences</code> table, with the block sizes of
+     * {@link BlockIDGeneratorFactory}.
+     *
+     * @param idName the name of the ID sequence.
+     * @throws IllegalArgumentException if idName is null.
+     * @throws IDGenerationException if the DB Connection Factory fails to be created.
+     */
+    public BlockIDGenerator(String idName) throws IDGenerationException {
+        this(idName, BlockIDGeneratorFactory.getSource(), 1, BlockIDGeneratorFactory.MAX_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates the generator.
+     *
+     * @param idName the name of the ID sequence.
+     * @param source the source of the blocks.
+     * @param minBlockSize the minimum block size.
+     * @param maxBlockSize the maximum block size.
+     * @throws IllegalArgumentException if idName or source is null, minBlockSize is not positive or maxBlockSize is
+     *             less than minBlockSize.
+     */
+    public BlockIDGenerator(String idName, IDBlockSource source, int minBlockSize, int maxBlockSize) {
+        if (idName == null) {
+            throw new IllegalArgumentException("idName should not be null.");
+        }
+        if (source == null) {
+            throw new IllegalArgumentException("source should not be null.");
+        }
+        if (minBlockSize <= 0) {
+            throw new IllegalArgumentException("minBlockSize should be positive.");
+        }
+        if (maxBlockSize < minBlockSize) {
+            throw new IllegalArgumentException("maxBlockSize should not be less than minBlockSize.");
+        }
+        this.idName = idName;
+        this.source = source;
+        this.minBlockSize = minBlockSize;
+        this.maxBlockSize = maxBlockSize;
+        this.blockSize = minBlockSize;
+    }
+
+    /**
+     * Gets the name of the ID sequence.
+     *
+     * @return the name of the ID sequence.
+     */
+    public String getIDName() {
+        return idName;
+    }
+
+    /**
+     * Gets the next ID.
+     *
+     * @return the next ID.
+     * @throws IDGenerationException if the next block fails to be reserved.
+     */
+    public long getNextID() throws IDGenerationException {
+        while (true) {
+            Block block = current.get();
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            refill(block, 1);
+        }
+    }
+
+    /**
+     * Gets the next ID as a <code>BigInteger</code>.
+     *
+     * @return the next ID.
+     * @throws IDGenerationException if the next block fails to be reserved.
+     */
+    public BigInteger getNextBigID() throws IDGenerationException {
+        return BigInteger.valueOf(getNextID());
+    }
+
+    /**
+     * Gets the next <code>n</code> IDs. The IDs are not necessarily consecutive.
+     *
+     * @param n the number of IDs.
+     * @return the IDs.
+     * @throws IllegalArgumentException if n is negative.
+     * @throws IDGenerationException if the next block fails to be reserved.
+     */
+    public long[] nextIds(int n) throws IDGenerationException {
+        if (n < 0) {
+            throw new IllegalArgumentException("n should not be negative.");
+        }
+        long[] ids = new long[n];
+        int count = 0;
+        while (count < n) {
+            Block block = current.get();
+            long start = block.next.get();
+            if (start >= block.end) {
+                refill(block, n - count);
+                continue;
+            }
+            int taken = (int) Math.min(n - count, block.end - start);
+            if (block.next.compareAndSet(start, start + taken)) {
+                for (int i = 0; i < taken; i++) {
+                    ids[count++] = start + i;
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Gets the size of the next block to reserve.
+     *
+     * @return the size of the next block to reserve.
+     */
+    public synchronized int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Reserves the next block if the given block is still the current one.
+     *
+     * @param usedUp the used up block.
+     * @param needed the number of IDs needed by the caller.
+     * @throws IDGenerationException if the next block fails to be reserved.
+     */
+    private synchronized void refill(Block usedUp, int needed) throws IDGenerationException {
+        if (current.get() != usedUp) {
+            // another thread already reserved the next block
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (usedUp.reservedAt != 0) {
+            long lasted = now - usedUp.reservedAt;
+            if (lasted < FAST_BLOCK_MILLIS) {
+                blockSize = (int) Math.min(maxBlockSize, 2L * blockSize);
+            } else if (lasted > SLOW_BLOCK_MILLIS) {
+                blockSize = Math.max(minBlockSize, blockSize / 2);
+            }
+        }
+        IDBlock block = source.reserve(idName, Math.max(blockSize, needed));
+        current.set(new Block(block.getStart(), block.getStart() + block.getSize(), now));
+    }
+
+    /**
+     * Gets the next <code>n</code> IDs of the given generator, at once if it is a <code>BlockIDGenerator</code>,
+     * one by one otherwise.
+     *
+     * @param generator the generator.
+     * @param n the number of IDs.
+     * @return the IDs.
+     * @throws IllegalArgumentException if generator is null or n is negative.
+     * @throws IDGenerationException if the IDs fail to be generated.
+     */
+    public static long[] nextIds(IDGenerator generator, int n) throws IDGenerationException {
+        if (generator == null) {
+            throw new IllegalArgumentException("generator should not be null.");
+        }
+        if (generator instanceof BlockIDGenerator) {
+            return ((BlockIDGenerator) generator).nextIds(n);
+        }
+        if (n < 0) {
+            throw new IllegalArgumentException("n should not be negative.");
+        }
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = generator.getNextID();
+        }
+        return ids;
+    }
+}
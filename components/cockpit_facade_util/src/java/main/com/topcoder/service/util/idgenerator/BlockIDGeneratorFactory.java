@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.idgenerator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.topcoder.util.idgenerator.IDGenerationException;
+import com.topcoder.util.idgenerator.IDGenerator;
+
+/**
+ * <p>
+ * The factory of the {@link BlockIDGenerator}s shared by the persistence components, a drop-in replacement of
+ * <code>IDGeneratorFactory.getIDGenerator(String)</code>.
+ * </p>
+ *
+ * <p>
+ * One generator is created per sequence and cached for the life of the class loader, all of them reserving their
+ * blocks from the <code>id_sequences</code> table through a {@link DBIDBlockSource}. The <code>block_size</code>
+ * column of a sequence is the minimum size of its blocks, the adaptive size grows up to
+ * {@link #MAX_BLOCK_SIZE}.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public final class BlockIDGeneratorFactory {
+
+    /**
+     * The maximum block size of the generators.
+     */
+    public static final int MAX_BLOCK_SIZE = 1000;
+
+    /**
+     * The generators by sequence name.
+     */
+    private static final ConcurrentMap<String, BlockIDGenerator> GENERATORS =
+        new ConcurrentHashMap<String, BlockIDGenerator>();
+
+    /**
+     * The source of the blocks, created on first use.
+     */
+    private static IDBlockSource source;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BlockIDGeneratorFactory() {
+    }
+
+    /**
+     * Gets the generator of the sequence.
+     *
+     * @param idName the name of the ID sequence.
+     * @return the generator.
+     * @throws IllegalArgumentException if idName is null.
+     * @throws IDGenerationException if the DB Connection Factory fails to be created.
+     */
+    public static IDGenerator getIDGenerator(String idName) throws IDGenerationException {
+        if (idName == null) {
+            throw new IllegalArgumentException("idName should not be null.");
+        }
+        BlockIDGenerator generator = GENERATORS.get(idName);
+        if (generator == null) {
+            generator = new BlockIDGenerator(idName, getSource(), 1, MAX_BLOCK_SIZE);
+            BlockIDGenerator existing = GENERATORS.putIfAbsent(idName, generator);
+            if (existing != null) {
+                generator = existing;
+            }
+        }
+        return generator;
+    }
+
+    /**
+     * Gets the source of the blocks, creating it on first use.
+     *
+     * @return the source of the blocks.
+     * @throws IDGenerationException if the DB Connection Factory fails to be created.
+     */
+    static synchronized IDBlockSource getSource() throws IDGenerationException {
+        if (source == null) {
+            source = new DBIDBlockSource();
+        }
+        return source;
+    }
+}
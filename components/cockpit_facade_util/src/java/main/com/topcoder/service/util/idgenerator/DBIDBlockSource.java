@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.idgenerator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.topcoder.db.connectionfactory.DBConnectionException;
+import com.topcoder.db.connectionfactory.DBConnectionFactory;
+import com.topcoder.db.connectionfactory.DBConnectionFactoryImpl;
+import com.topcoder.db.connectionfactory.UnknownConnectionException;
+import com.topcoder.util.idgenerator.IDGenerationException;
+import com.topcoder.util.idgenerator.IDsExhaustedException;
+import com.topcoder.util.idgenerator.NoSuchIDSequenceException;
+
+/**
+ * <p>
+ * The {@link IDBlockSource} reserving the blocks from the <code>id_sequences</code> table, the same table and the
+ * same locking as the <code>IDGeneratorImpl</code> of the ID Generator component, so both can be used on the same
+ * sequences at the same time.
+ * </p>
+ *
+ * <p>
+ * The block size configured in the <code>block_size</code> column of a sequence is the minimum size of the blocks
+ * reserved for it.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe, each reservation is made in its own serializable
+ * transaction holding the row of the sequence locked.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class DBIDBlockSource implements IDBlockSource {
+
+    /**
+     * The namespace of the DB Connection Factory configuration used by the ID Generator component.
+     */
+    private static final String DB_CONNECTION_FACTORY_NAMESPACE =
+        "com.topcoder.db.connectionfactory.DBConnectionFactoryImpl";
+
+    /**
+     * The name of the connection used by the ID Generator component.
+     */
+    private static final String CONNECTION_NAME = "DefaultSequence";
+
+    /**
+     * The SQL statement locking and selecting the row of a sequence.
+     */
+    private static final String SELECT_SEQUENCE_SQL =
+        "SELECT next_block_start, block_size, exhausted FROM id_sequences WHERE name = ? FOR UPDATE";
+
+    /**
+     * The SQL statement moving the next block start of a sequence.
+     */
+    private static final String UPDATE_NEXT_BLOCK_START_SQL =
+        "UPDATE id_sequences SET next_block_start = ? WHERE name = ?";
+
+    /**
+     * The SQL statement marking a sequence exhausted.
+     */
+    private static final String UPDATE_EXHAUSTED_SQL = "UPDATE id_sequences SET exhausted = 1 WHERE name = ?";
+
+    /**
+     * The connection factory.
+     */
+    private final DBConnectionFactory connectionFactory;
+
+    /**
+     * Creates the source with the DB Connection Factory configuration of the ID Generator component.
+     *
+     * @throws IDGenerationException if the DB Connection Factory fails to be created.
+     */
+    public DBIDBlockSource() throws IDGenerationException {
+        try {
+            this.connectionFactory = new DBConnectionFactoryImpl(DB_CONNECTION_FACTORY_NAMESPACE);
+        } catch (Exception e) {
+            throw new IDGenerationException("Failed to create the DB Connection Factory.", e);
+        }
+    }
+
+    /**
+     * Creates the source with the given connection factory.
+     *
+     * @param connectionFactory the connection factory.
+     * @throws IllegalArgumentException if connectionFactory is null.
+     */
+    public DBIDBlockSource(DBConnectionFactory connectionFactory) {
+        if (connectionFactory == null) {
+            throw new IllegalArgumentException("connectionFactory should not be null.");
+        }
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Reserves the next block of IDs of the sequence, at least <code>block_size</code> IDs.
+     *
+     * @param idName the name of the ID sequence.
+     * @param size the requested number of IDs.
+     * @return the reserved block.
+     * @throws IllegalArgumentException if idName is null or size is not positive.
+     * @throws NoSuchIDSequenceException if the sequence does not exist.
+     * @throws IDsExhaustedException if the IDs of the sequence are exhausted.
+     * @throws IDGenerationException if any other error occurs.
+     */
+    public IDBlock reserve(String idName, int size) throws IDGenerationException {
+        if (idName == null) {
+            throw new IllegalArgumentException("idName should not be null.");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("size should be positive.");
+        }
+
+        Connection connection = createConnection();
+        try {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+
+            IDBlock block = reserve(connection, idName, size);
+            connection.commit();
+            return block;
+        } catch (SQLException e) {
+            rollback(connection);
+            throw new IDGenerationException("Failed to reserve a block of the sequence " + idName + ".", e);
+        } catch (IDGenerationException e) {
+            rollback(connection);
+            throw e;
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Reserves the next block of IDs of the sequence in the current transaction.
+     *
+     * @param connection the connection.
+     * @param idName the name of the ID sequence.
+     * @param size the requested number of IDs.
+     * @return the reserved block.
+     * @throws SQLException if any database error occurs.
+     * @throws IDGenerationException if the sequence does not exist or is exhausted.
+     */
+    private static IDBlock reserve(Connection connection, String idName, int size)
+        throws SQLException, IDGenerationException {
+        long start;
+        int blockSize;
+        PreparedStatement ps = connection.prepareStatement(SELECT_SEQUENCE_SQL);
+        try {
+            ps.setString(1, idName);
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next()) {
+                throw new NoSuchIDSequenceException("The sequence " + idName + " does not exist.");
+            }
+            start = rs.getLong(1);
+            blockSize = Math.max(size, rs.getInt(2));
+            if (rs.getBoolean(3)) {
+                throw new IDsExhaustedException("The IDs of the sequence " + idName + " are exhausted.");
+            }
+        } finally {
+            ps.close();
+        }
+
+        if (start > Long.MAX_VALUE - blockSize) {
+            ps = connection.prepareStatement(UPDATE_EXHAUSTED_SQL);
+            try {
+                ps.setString(1, idName);
+                ps.executeUpdate();
+            } finally {
+                ps.close();
+            }
+            connection.commit();
+            throw new IDsExhaustedException("The IDs of the sequence " + idName + " are exhausted.");
+        }
+
+        ps = connection.prepareStatement(UPDATE_NEXT_BLOCK_START_SQL);
+        try {
+            ps.setLong(1, start + blockSize);
+            ps.setString(2, idName);
+            ps.executeUpdate();
+        } finally {
+            ps.close();
+        }
+        return new IDBlock(start, blockSize);
+    }
+
+    /**
+     * Creates a connection, the named connection of the ID Generator component if configured, otherwise the default
+     * one.
+     *
+     * @return the connection.
+     * @throws IDGenerationException if the connection fails to be created.
+     */
+    private Connection createConnection() throws IDGenerationException {
+        try {
+            try {
+                return connectionFactory.createConnection(CONNECTION_NAME);
+            } catch (UnknownConnectionException e) {
+                return connectionFactory.createConnection();
+            }
+        } catch (DBConnectionException e) {
+            throw new IDGenerationException("Failed to create the connection.", e);
+        }
+    }
+
+    /**
+     * Rolls back the current transaction, ignoring the errors.
+     *
+     * @param connection the connection.
+     */
+    private static void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.idgenerator;
+
+/**
+ * <p>
+ * A block of consecutive IDs reserved from an {@link IDBlockSource}: the IDs from <code>start</code> (inclusive) to
+ * <code>start + size</code> (exclusive).
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is immutable and thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public final class IDBlock {
+
+    /**
+     * The first ID of the block.
+     */
+    private final long start;
+
+    /**
+     * The number of IDs of the block.
+     */
+    private final int size;
+
+    /**
+     * Creates the block.
+     *
+     * @param start the first ID of the block.
+     * @param size the number of IDs of the block.
+     * @throws IllegalArgumentException if size is not positive or the block overflows.
+     */
+    public IDBlock(long start, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size should be positive.");
+        }
+        if (start > Long.MAX_VALUE - size) {
+            throw new IllegalArgumentException("The block overflows.");
+        }
+        this.start = start;
+        this.size = size;
+    }
+
+    /**
+     * Gets the first ID of the block.
+     *
+     * @return the first ID of the block.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the number of IDs of the block.
+     *
+     * @return the number of IDs of the block.
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.idgenerator;
+
+import com.topcoder.util.idgenerator.IDGenerationException;
+
+/**
+ * <p>
+ * The persistent store of the ID sequences, the {@link BlockIDGenerator} reserves the blocks of IDs it hands out
+ * from it.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> Implementations should be thread safe, the IDs of the reserved blocks must never
+ * overlap, even across processes.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public interface IDBlockSource {
+
+    /**
+     * Reserves the next block of IDs of the sequence.
+     *
+     * @param idName the name of the ID sequence.
+     * @param size the requested number of IDs, the reserved block may be larger.
+     * @return the reserved block.
+     * @throws IllegalArgumentException if idName is null or size is not positive.
+     * @throws com.topcoder.util.idgenerator.NoSuchIDSequenceException if the sequence does not exist.
+     * @throws com.topcoder.util.idgenerator.IDsExhaustedException if the IDs of the sequence are exhausted.
+     * @throws IDGenerationException if any other error occurs.
+     */
+    IDBlock reserve(String idName, int size) throws IDGenerationException;
+}
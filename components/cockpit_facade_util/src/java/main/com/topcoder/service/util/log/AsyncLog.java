@@ -0,0 +1,481 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.topcoder.util.format.ObjectFormatter;
+import com.topcoder.util.log.Level;
+import com.topcoder.util.log.Log;
+
+/**
+ * <p>
+ * A {@link Log} which hands the log records over to a bounded buffer and writes them to the wrapped log from a
+ * background thread, so the request threads never wait for the log I/O.
+ * </p>
+ *
+ * <p>
+ * When the buffer is full, DEBUG/INFO/WARN records are dropped and counted (the number of dropped records is written
+ * to the wrapped log as a warning once there is room again), while ERROR and FATAL records are written synchronously
+ * so they are never lost. The level checks are delegated to the wrapped log, and the records of the disabled levels
+ * are discarded before they are buffered.
+ * </p>
+ *
+ * <p>
+ * Message arguments are kept as references and formatted by the background thread, so they should not be changed
+ * after they are logged. {@link LazyLoggingUtility} only passes ready-made strings.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class AsyncLog implements Log {
+
+    /**
+     * The default capacity of the buffer.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * The maximum number of records written by the background thread in one pass.
+     */
+    private static final int DRAIN_SIZE = 256;
+
+    /**
+     * The time the background thread waits for new records before checking whether the log was closed, in
+     * milliseconds.
+     */
+    private static final long POLL_TIMEOUT = 500;
+
+    /**
+     * The wrapped log.
+     */
+    private final Log delegate;
+
+    /**
+     * The buffer of the records to write.
+     */
+    private final BlockingQueue<LogRecord> buffer;
+
+    /**
+     * The number of records dropped since the last report.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * The background thread writing the records.
+     */
+    private final Thread writer;
+
+    /**
+     * Whether the log was closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Creates the log with the default buffer capacity and starts the background thread.
+     *
+     * @param delegate the wrapped log.
+     * @throws IllegalArgumentException if delegate is null.
+     */
+    public AsyncLog(Log delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates the log and starts the background thread.
+     *
+     * @param delegate the wrapped log.
+     * @param capacity the capacity of the buffer.
+     * @throws IllegalArgumentException if delegate is null or capacity is not positive.
+     */
+    public AsyncLog(Log delegate, int capacity) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate should not be null.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should be positive.");
+        }
+        this.delegate = delegate;
+        this.buffer = new ArrayBlockingQueue<LogRecord>(capacity);
+        this.writer = new Thread(new Runnable() {
+            public void run() {
+                writeRecords();
+            }
+        }, "AsyncLog-" + delegate);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Stops the background thread and writes the records remaining in the buffer. Records logged afterwards are
+     * written synchronously. The background thread finishes the records it is writing, so this method may wait up to
+     * the poll timeout.
+     */
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    /**
+     * Gets the number of records waiting in the buffer.
+     *
+     * @return the number of records waiting in the buffer.
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Gets the number of records dropped and not reported yet.
+     *
+     * @return the number of dropped records.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Checks whether the level is enabled for the wrapped log.
+     *
+     * @param level the level.
+     * @return true if the level is enabled.
+     */
+    public boolean isEnabled(Level level) {
+        return delegate.isEnabled(level);
+    }
+
+    /**
+     * Logs the message.
+     *
+     * @param level the level.
+     * @param message the message.
+     */
+    public void log(Level level, Object message) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, null, message, null, null));
+        }
+    }
+
+    /**
+     * Logs the message formatted with the formatter.
+     *
+     * @param level the level.
+     * @param message the message.
+     * @param formatter the formatter.
+     */
+    public void log(Level level, Object message, ObjectFormatter formatter) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, null, message, null, formatter));
+        }
+    }
+
+    /**
+     * Logs the formatted message.
+     *
+     * @param level the level.
+     * @param format the message format.
+     * @param param1 the first argument.
+     */
+    public void log(Level level, String format, Object param1) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, null, format, new Object[] {param1}, null));
+        }
+    }
+
+    /**
+     * Logs the formatted message.
+     *
+     * @param level the level.
+     * @param format the message format.
+     * @param param1 the first argument.
+     * @param param2 the second argument.
+     */
+    public void log(Level level, String format, Object param1, Object param2) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, null, format, new Object[] {param1, param2}, null));
+        }
+    }
+
+    /**
+     * Logs the formatted message.
+     *
+     * @param level the level.
+     * @param format the message format.
+     * @param param1 the first argument.
+     * @param param2 the second argument.
+     * @param param3 the third argument.
+     */
+    public void log(Level level, String format, Object param1, Object param2, Object param3) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, null, format, new Object[] {param1, param2, param3}, null));
+        }
+    }
+
+    /**
+     * Logs the formatted message.
+     *
+     * @param level the level.
+     * @param format the message format.
+     * @param params the arguments.
+     */
+    public void log(Level level, String format, Object[] params) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, null, format, params, null));
+        }
+    }
+
+    /**
+     * Logs the message with the throwable.
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param message the message.
+     */
+    public void log(Level level, Throwable throwable, Object message) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, throwable, message, null, null));
+        }
+    }
+
+    /**
+     * Logs the message formatted with the formatter, with the throwable.
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param message the message.
+     * @param formatter the formatter.
+     */
+    public void log(Level level, Throwable throwable, Object message, ObjectFormatter formatter) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, throwable, message, null, formatter));
+        }
+    }
+
+    /**
+     * Logs the formatted message with the throwable.
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param format the message format.
+     * @param param1 the first argument.
+     */
+    public void log(Level level, Throwable throwable, String format, Object param1) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, throwable, format, new Object[] {param1}, null));
+        }
+    }
+
+    /**
+     * Logs the formatted message with the throwable.
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param format the message format.
+     * @param param1 the first argument.
+     * @param param2 the second argument.
+     */
+    public void log(Level level, Throwable throwable, String format, Object param1, Object param2) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, throwable, format, new Object[] {param1, param2}, null));
+        }
+    }
+
+    /**
+     * Logs the formatted message with the throwable.
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param format the message format.
+     * @param param1 the first argument.
+     * @param param2 the second argument.
+     * @param param3 the third argument.
+     */
+    public void log(Level level, Throwable throwable, String format, Object param1, Object param2, Object param3) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, throwable, format, new Object[] {param1, param2, param3}, null));
+        }
+    }
+
+    /**
+     * Logs the formatted message with the throwable.
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param format the message format.
+     * @param params the arguments.
+     */
+    public void log(Level level, Throwable throwable, String format, Object[] params) {
+        if (delegate.isEnabled(level)) {
+            enqueue(new LogRecord(level, throwable, format, params, null));
+        }
+    }
+
+    /**
+     * Puts the record into the buffer. If the log is closed or the buffer is full, ERROR and FATAL records are
+     * written synchronously and the other records are dropped.
+     *
+     * @param record the record.
+     */
+    private void enqueue(LogRecord record) {
+        if (closed) {
+            record.writeTo(delegate);
+            return;
+        }
+        if (!buffer.offer(record)) {
+            if (record.level.intValue() >= Level.ERROR.intValue()) {
+                record.writeTo(delegate);
+            } else {
+                dropped.incrementAndGet();
+            }
+        } else if (closed) {
+            // closed while the record was being added, the background thread may be gone already
+            drain();
+        }
+    }
+
+    /**
+     * The body of the background thread: writes the buffered records until the log is closed.
+     */
+    private void writeRecords() {
+        List<LogRecord> records = new ArrayList<LogRecord>(DRAIN_SIZE);
+        while (!closed) {
+            try {
+                LogRecord record = buffer.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (record == null) {
+                    continue;
+                }
+                records.add(record);
+                buffer.drainTo(records, DRAIN_SIZE - 1);
+                write(records);
+                records.clear();
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                // the wrapped log failed, keep the thread alive for the next records
+                records.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes all the records remaining in the buffer.
+     */
+    private void drain() {
+        List<LogRecord> records = new ArrayList<LogRecord>(buffer.size());
+        buffer.drainTo(records);
+        write(records);
+    }
+
+    /**
+     * Writes the records to the wrapped log, then reports the number of dropped records, if any.
+     *
+     * @param records the records.
+     */
+    private void write(List<LogRecord> records) {
+        for (LogRecord record : records) {
+            record.writeTo(delegate);
+        }
+        long count = dropped.getAndSet(0);
+        if (count > 0) {
+            delegate.log(Level.WARN, count + " log records were dropped because the log buffer was full.");
+        }
+    }
+
+    /**
+     * <p>
+     * A buffered log record: the arguments of one of the <code>log</code> methods.
+     * </p>
+     *
+     * <p>
+     * <strong>Thread Safety:</strong> This class is immutable and thread safe.
+     * </p>
+     *
+     * @author TCSASSEMBLER
+     * @version 1.0
+     */
+    private static final class LogRecord {
+
+        /**
+         * The level.
+         */
+        private final Level level;
+
+        /**
+         * The throwable, can be null.
+         */
+        private final Throwable throwable;
+
+        /**
+         * The message or the message format.
+         */
+        private final Object message;
+
+        /**
+         * The format arguments, null if the message is not a format.
+         */
+        private final Object[] params;
+
+        /**
+         * The formatter, can be null.
+         */
+        private final ObjectFormatter formatter;
+
+        /**
+         * Creates the record.
+         *
+         * @param level the level.
+         * @param throwable the throwable, can be null.
+         * @param message the message or the message format.
+         * @param params the format arguments, null if the message is not a format.
+         * @param formatter the formatter, can be null.
+         */
+        LogRecord(Level level, Throwable throwable, Object message, Object[] params, ObjectFormatter formatter) {
+            this.level = level;
+            this.throwable = throwable;
+            this.message = message;
+            this.params = params;
+            this.formatter = formatter;
+        }
+
+        /**
+         * Writes the record to the log.
+         *
+         * @param log the log.
+         */
+        void writeTo(Log log) {
+            if (throwable == null) {
+                if (formatter != null) {
+                    log.log(level, message, formatter);
+                } else if (params != null) {
+                    log.log(level, (String) message, params);
+                } else {
+                    log.log(level, message);
+                }
+            } else {
+                if (formatter != null) {
+                    log.log(level, throwable, message, formatter);
+                } else if (params != null) {
+                    log.log(level, throwable, (String) message, params);
+                } else {
+                    log.log(level, throwable, message);
+                }
+            }
+        }
+    }
+}
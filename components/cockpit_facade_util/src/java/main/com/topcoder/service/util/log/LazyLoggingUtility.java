@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.log;
+
+import com.topcoder.util.log.Level;
+import com.topcoder.util.log.Log;
+
+/**
+ * <p>
+ * Method entrance/exit logging that costs nothing when DEBUG is disabled. It writes the same messages as
+ * <code>LoggingWrapperUtility.logEntrance</code>/<code>logExit</code>, but:
+ * <ul>
+ * <li>the level is checked before anything is built, so no message, parameter name array or value array is created
+ * when the level is disabled;</li>
+ * <li>the method signature and the parameter names come from a {@link MethodSignature} constant instead of being
+ * concatenated on each call;</li>
+ * <li>parameters are passed through fixed arity overloads, so the caller doesn't allocate an array for them, and the
+ * <code>long</code> overloads take the primitive parameters and results without boxing them;</li>
+ * <li>logged values are rendered by a {@link LogValueRenderer}, so large collections and maps produce bounded
+ * messages.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * private static final MethodSignature GET_ALL = new MethodSignature(Foo.class, "getAll(long id)", "id");
+ * ...
+ * final long entranceTimestamp = LazyLoggingUtility.logEntrance(logger, GET_ALL, id);
+ * ...
+ * LazyLoggingUtility.logExit(logger, GET_ALL, result, entranceTimestamp);
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public final class LazyLoggingUtility {
+
+    /**
+     * The renderer of the logged values.
+     */
+    private static final LogValueRenderer RENDERER = new LogValueRenderer();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private LazyLoggingUtility() {
+    }
+
+    /**
+     * Checks whether the method entrance/exit messages will be written to the given log.
+     *
+     * @param log the log, can be null.
+     * @return true if DEBUG is enabled for the log.
+     */
+    public static boolean isDebugEnabled(Log log) {
+        return log != null && log.isEnabled(Level.DEBUG);
+    }
+
+    /**
+     * Logs the entrance of a method without parameters.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @return the entrance timestamp to pass to <code>logExit</code>.
+     */
+    public static long logEntrance(Log log, MethodSignature signature) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getEntranceMessage(signature));
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Logs the entrance of a method with a single <code>long</code> parameter.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param p1 the parameter value.
+     * @return the entrance timestamp to pass to <code>logExit</code>.
+     */
+    public static long logEntrance(Log log, MethodSignature signature, long p1) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getEntranceMessage(signature));
+            StringBuilder sb = startParameters();
+            appendParameter(sb, signature, 0, p1);
+            log.log(Level.DEBUG, endParameters(sb));
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Logs the entrance of a method with one parameter.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param p1 the parameter value.
+     * @return the entrance timestamp to pass to <code>logExit</code>.
+     */
+    public static long logEntrance(Log log, MethodSignature signature, Object p1) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getEntranceMessage(signature));
+            StringBuilder sb = startParameters();
+            appendParameter(sb, signature, 0, p1);
+            log.log(Level.DEBUG, endParameters(sb));
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Logs the entrance of a method with two parameters.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param p1 the first parameter value.
+     * @param p2 the second parameter value.
+     * @return the entrance timestamp to pass to <code>logExit</code>.
+     */
+    public static long logEntrance(Log log, MethodSignature signature, Object p1, Object p2) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getEntranceMessage(signature));
+            StringBuilder sb = startParameters();
+            appendParameter(sb, signature, 0, p1);
+            appendParameter(sb, signature, 1, p2);
+            log.log(Level.DEBUG, endParameters(sb));
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Logs the entrance of a method with a <code>long</code> parameter and another parameter.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param p1 the first parameter value.
+     * @param p2 the second parameter value.
+     * @return the entrance timestamp to pass to <code>logExit</code>.
+     */
+    public static long logEntrance(Log log, MethodSignature signature, long p1, Object p2) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getEntranceMessage(signature));
+            StringBuilder sb = startParameters();
+            appendParameter(sb, signature, 0, p1);
+            appendParameter(sb, signature, 1, p2);
+            log.log(Level.DEBUG, endParameters(sb));
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Logs the entrance of a method with two <code>long</code> parameters.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param p1 the first parameter value.
+     * @param p2 the second parameter value.
+     * @return the entrance timestamp to pass to <code>logExit</code>.
+     */
+    public static long logEntrance(Log log, MethodSignature signature, long p1, long p2) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getEntranceMessage(signature));
+            StringBuilder sb = startParameters();
+            appendParameter(sb, signature, 0, p1);
+            appendParameter(sb, signature, 1, p2);
+            log.log(Level.DEBUG, endParameters(sb));
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Logs the entrance of a method with a <code>long</code> parameter and two other parameters.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param p1 the first parameter value.
+     * @param p2 the second parameter value.
+     * @param p3 the third parameter value.
+     * @return the entrance timestamp to pass to <code>logExit</code>.
+     */
+    public static long logEntrance(Log log, MethodSignature signature, long p1, Object p2, Object p3) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getEntranceMessage(signature));
+            StringBuilder sb = startParameters();
+            appendParameter(sb, signature, 0, p1);
+            appendParameter(sb, signature, 1, p2);
+            appendParameter(sb, signature, 2, p3);
+            log.log(Level.DEBUG, endParameters(sb));
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Logs the entrance of a method with three parameters.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param p1 the first parameter value.
+     * @param p2 the second parameter value.
+     * @param p3 the third parameter value.
+     * @return the entrance timestamp to pass to <code>logExit</code>.
+     */
+    public static long logEntrance(Log log, MethodSignature signature, Object p1, Object p2, Object p3) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getEntranceMessage(signature));
+            StringBuilder sb = startParameters();
+            appendParameter(sb, signature, 0, p1);
+            appendParameter(sb, signature, 1, p2);
+            appendParameter(sb, signature, 2, p3);
+            log.log(Level.DEBUG, endParameters(sb));
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Logs the entrance of a method with four parameters.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param p1 the first parameter value.
+     * @param p2 the second parameter value.
+     * @param p3 the third parameter value.
+     * @param p4 the fourth parameter value.
+     * @return the entrance timestamp to pass to <code>logExit</code>.
+     */
+    public static long logEntrance(Log log, MethodSignature signature, Object p1, Object p2, Object p3, Object p4) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getEntranceMessage(signature));
+            StringBuilder sb = startParameters();
+            appendParameter(sb, signature, 0, p1);
+            appendParameter(sb, signature, 1, p2);
+            appendParameter(sb, signature, 2, p3);
+            appendParameter(sb, signature, 3, p4);
+            log.log(Level.DEBUG, endParameters(sb));
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Logs the entrance of a method with three <code>long</code> parameters and another parameter.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param p1 the first parameter value.
+     * @param p2 the second parameter value.
+     * @param p3 the third parameter value.
+     * @param p4 the fourth parameter value.
+     * @return the entrance timestamp to pass to <code>logExit</code>.
+     */
+    public static long logEntrance(Log log, MethodSignature signature, long p1, long p2, long p3, Object p4) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getEntranceMessage(signature));
+            StringBuilder sb = startParameters();
+            appendParameter(sb, signature, 0, p1);
+            appendParameter(sb, signature, 1, p2);
+            appendParameter(sb, signature, 2, p3);
+            appendParameter(sb, signature, 3, p4);
+            log.log(Level.DEBUG, endParameters(sb));
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Logs the exit of a method without a return value.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param entranceTimestamp the timestamp returned by <code>logEntrance</code>.
+     */
+    public static void logExit(Log log, MethodSignature signature, long entranceTimestamp) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getExitMessage(signature, entranceTimestamp));
+        }
+    }
+
+    /**
+     * Logs the exit of a method and its return value.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param result the return value of the method.
+     * @param entranceTimestamp the timestamp returned by <code>logEntrance</code>.
+     */
+    public static void logExit(Log log, MethodSignature signature, Object result, long entranceTimestamp) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getExitMessage(signature, entranceTimestamp));
+            StringBuilder sb = new StringBuilder("Output parameter: ");
+            RENDERER.render(sb, result);
+            log.log(Level.DEBUG, sb.toString());
+        }
+    }
+
+    /**
+     * Logs the exit of a method and its <code>long</code> return value.
+     *
+     * @param log the log, can be null.
+     * @param signature the method signature.
+     * @param result the return value of the method.
+     * @param entranceTimestamp the timestamp returned by <code>logEntrance</code>.
+     */
+    public static void logExit(Log log, MethodSignature signature, long result, long entranceTimestamp) {
+        if (isDebugEnabled(log)) {
+            log.log(Level.DEBUG, getExitMessage(signature, entranceTimestamp));
+            log.log(Level.DEBUG, "Output parameter: " + result);
+        }
+    }
+
+    /**
+     * Builds the method entrance message.
+     *
+     * @param signature the method signature.
+     * @return the message.
+     */
+    private static String getEntranceMessage(MethodSignature signature) {
+        return "Entering method [" + signature.getSignature() + "].";
+    }
+
+    /**
+     * Builds the method exit message.
+     *
+     * @param signature the method signature.
+     * @param entranceTimestamp the entrance timestamp.
+     * @return the message.
+     */
+    private static String getExitMessage(MethodSignature signature, long entranceTimestamp) {
+        return "Exiting method [" + signature.getSignature() + "], time spent in the method: "
+            + (System.currentTimeMillis() - entranceTimestamp) + " milliseconds.";
+    }
+
+    /**
+     * Starts the input parameters message.
+     *
+     * @return the builder of the message.
+     */
+    private static StringBuilder startParameters() {
+        return new StringBuilder("Input parameters [");
+    }
+
+    /**
+     * Appends a parameter to the input parameters message.
+     *
+     * @param sb the builder of the message.
+     * @param signature the method signature.
+     * @param index the parameter index.
+     * @param value the parameter value.
+     */
+    private static void appendParameter(StringBuilder sb, MethodSignature signature, int index, Object value) {
+        if (index > 0) {
+            sb.append(", ");
+        }
+        sb.append(index < signature.getParameterCount() ? signature.getParameterName(index) : "arg" + index);
+        sb.append(':');
+        RENDERER.render(sb, value);
+    }
+
+    /**
+     * Appends a <code>long</code> parameter to the input parameters message.
+     *
+     * @param sb the builder of the message.
+     * @param signature the method signature.
+     * @param index the parameter index.
+     * @param value the parameter value.
+     */
+    private static void appendParameter(StringBuilder sb, MethodSignature signature, int index, long value) {
+        if (index > 0) {
+            sb.append(", ");
+        }
+        sb.append(index < signature.getParameterCount() ? signature.getParameterName(index) : "arg" + index);
+        sb.append(':').append(value);
+    }
+
+    /**
+     * Completes the input parameters message.
+     *
+     * @param sb the builder of the message.
+     * @return the message.
+     */
+    private static String endParameters(StringBuilder sb) {
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.log;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * <p>
+ * Renders logged values with a bounded size. Collections, maps and arrays are rendered with at most
+ * <code>maxElements</code> elements followed by the number of the omitted ones, nested containers are rendered up to
+ * <code>maxDepth</code> levels, and long strings are truncated to <code>maxLength</code> characters. This keeps the
+ * log lines (and the memory used to build them) small even when whole result maps are logged.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is immutable and thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class LogValueRenderer {
+
+    /**
+     * The default maximum number of rendered elements of a container.
+     */
+    public static final int DEFAULT_MAX_ELEMENTS = 10;
+
+    /**
+     * The default maximum nesting depth of rendered containers.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 3;
+
+    /**
+     * The default maximum length of a rendered string.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 512;
+
+    /**
+     * The maximum number of rendered elements of a container.
+     */
+    private final int maxElements;
+
+    /**
+     * The maximum nesting depth of rendered containers.
+     */
+    private final int maxDepth;
+
+    /**
+     * The maximum length of a rendered string.
+     */
+    private final int maxLength;
+
+    /**
+     * Creates the renderer with the default limits.
+     */
+    public LogValueRenderer() {
+        this(DEFAULT_MAX_ELEMENTS, DEFAULT_MAX_DEPTH, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Creates the renderer with the given limits.
+     *
+     * @param maxElements the maximum number of rendered elements of a container.
+     * @param maxDepth the maximum nesting depth of rendered containers.
+     * @param maxLength the maximum length of a rendered string.
+     * @throws IllegalArgumentException if any limit is not positive.
+     */
+    public LogValueRenderer(int maxElements, int maxDepth, int maxLength) {
+        if (maxElements <= 0 || maxDepth <= 0 || maxLength <= 0) {
+            throw new IllegalArgumentException("The limits should be positive.");
+        }
+        this.maxElements = maxElements;
+        this.maxDepth = maxDepth;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Renders the value.
+     *
+     * @param value the value to render, can be null.
+     * @return the rendered value.
+     */
+    public String render(Object value) {
+        StringBuilder sb = new StringBuilder();
+        render(sb, value);
+        return sb.toString();
+    }
+
+    /**
+     * Renders the value into the given builder.
+     *
+     * @param sb the builder.
+     * @param value the value to render, can be null.
+     */
+    public void render(StringBuilder sb, Object value) {
+        render(sb, value, 0);
+    }
+
+    /**
+     * Renders the value into the given builder.
+     *
+     * @param sb the builder.
+     * @param value the value to render, can be null.
+     * @param depth the current nesting depth.
+     */
+    private void render(StringBuilder sb, Object value, int depth) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Collection<?>) {
+            Collection<?> collection = (Collection<?>) value;
+            if (depth >= maxDepth) {
+                sb.append("[").append(collection.size()).append(" elements]");
+                return;
+            }
+            sb.append('[');
+            int count = 0;
+            for (Iterator<?> it = collection.iterator(); it.hasNext() && count < maxElements; count++) {
+                if (count > 0) {
+                    sb.append(", ");
+                }
+                render(sb, it.next(), depth + 1);
+            }
+            appendOmitted(sb, collection.size() - count);
+            sb.append(']');
+        } else if (value instanceof Map<?, ?>) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            if (depth >= maxDepth) {
+                sb.append("{").append(map.size()).append(" entries}");
+                return;
+            }
+            sb.append('{');
+            int count = 0;
+            for (Iterator<? extends Map.Entry<?, ?>> it = map.entrySet().iterator();
+                 it.hasNext() && count < maxElements; count++) {
+                Map.Entry<?, ?> entry = it.next();
+                if (count > 0) {
+                    sb.append(", ");
+                }
+                render(sb, entry.getKey(), depth + 1);
+                sb.append('=');
+                render(sb, entry.getValue(), depth + 1);
+            }
+            appendOmitted(sb, map.size() - count);
+            sb.append('}');
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            if (depth >= maxDepth) {
+                sb.append("[").append(length).append(" elements]");
+                return;
+            }
+            sb.append('[');
+            int count = Math.min(length, maxElements);
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                render(sb, Array.get(value, i), depth + 1);
+            }
+            appendOmitted(sb, length - count);
+            sb.append(']');
+        } else {
+            String text = String.valueOf(value);
+            if (text.length() > maxLength) {
+                sb.append(text, 0, maxLength).append("...(").append(text.length()).append(" chars)");
+            } else {
+                sb.append(text);
+            }
+        }
+    }
+
+    /**
+     * Appends the number of omitted elements, if any.
+     *
+     * @param sb the builder.
+     * @param omitted the number of omitted elements.
+     */
+    private static void appendOmitted(StringBuilder sb, int omitted) {
+        if (omitted > 0) {
+            sb.append(", ...").append(omitted).append(" more");
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.log;
+
+/**
+ * <p>
+ * The signature of a logged method: the full method name and the names of its parameters. Instances are meant to be
+ * created once per method and kept in <code>static final</code> fields, so that logging the entrance and exit of the
+ * method doesn't build the signature string or the parameter name array on every call.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is immutable and thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public final class MethodSignature {
+
+    /**
+     * The full signature, e.g. <code>com.topcoder.Foo.bar(long id)</code>.
+     */
+    private final String signature;
+
+    /**
+     * The names of the method parameters.
+     */
+    private final String[] parameterNames;
+
+    /**
+     * Creates the method signature.
+     *
+     * @param type the class declaring the method.
+     * @param methodName the method name with the declared parameter list, e.g. <code>bar(long id)</code>.
+     * @param parameterNames the names of the logged method parameters.
+     * @throws IllegalArgumentException if type or methodName is null.
+     */
+    public MethodSignature(Class<?> type, String methodName, String... parameterNames) {
+        if (type == null) {
+            throw new IllegalArgumentException("type should not be null.");
+        }
+        if (methodName == null) {
+            throw new IllegalArgumentException("methodName should not be null.");
+        }
+        this.signature = type.getName() + "." + methodName;
+        this.parameterNames = parameterNames == null ? new String[0] : parameterNames.clone();
+    }
+
+    /**
+     * Gets the full signature.
+     *
+     * @return the full signature.
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * Gets the number of logged parameters.
+     *
+     * @return the number of logged parameters.
+     */
+    public int getParameterCount() {
+        return parameterNames.length;
+    }
+
+    /**
+     * Gets the name of the logged parameter at the given index.
+     *
+     * @param index the parameter index.
+     * @return the parameter name.
+     */
+    public String getParameterName(int index) {
+        return parameterNames[index];
+    }
+
+    /**
+     * Gets the full signature.
+     *
+     * @return the full signature.
+     */
+    @Override
+    public String toString() {
+        return signature;
+    }
+}
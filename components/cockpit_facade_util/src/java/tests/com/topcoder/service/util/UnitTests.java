@@ -3,9 +3,15 @@
  */
 package com.topcoder.service.util;
 
+import com.topcoder.service.util.export.ReportExportStressTests;
+import com.topcoder.service.util.export.ReportWriterTests;
 import com.topcoder.service.util.gameplan.SoftwareProjectDataTests;
 import com.topcoder.service.util.gameplan.StudioProjectDataTests;
 import com.topcoder.service.util.gameplan.TCDirectProjectGamePlanDataTests;
+import com.topcoder.service.util.idgenerator.BlockIDGeneratorTests;
+import com.topcoder.service.util.log.AsyncLogTests;
+import com.topcoder.service.util.log.LazyLoggingUtilityBenchmarkTests;
+import com.topcoder.service.util.log.LazyLoggingUtilityTests;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -17,6 +23,8 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses(
-        {SoftwareProjectDataTests.class, StudioProjectDataTests.class, TCDirectProjectGamePlanDataTests.class })
+        {SoftwareProjectDataTests.class, StudioProjectDataTests.class, TCDirectProjectGamePlanDataTests.class,
+            LazyLoggingUtilityTests.class, AsyncLogTests.class, LazyLoggingUtilityBenchmarkTests.class, ReportWriterTests.class,
+            ReportExportStressTests.class, BlockIDGeneratorTests.class })
 public class UnitTests {
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.export;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Stress test exporting a generated report of a million rows with <code>XlsxReportWriter</code> and
+ * <code>CsvReportWriter</code>.</p>
+ *
+ * <p>The test suite runs with a 64MB heap (see the <code>test.execute</code> target), which can't hold a million
+ * row workbook model; the exports only succeed if the rows are written as they are produced.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class ReportExportStressTests {
+
+    /**
+     * <p>The number of data rows.</p>
+     */
+    private static final int ROWS = 1000000;
+
+    /**
+     * <p>The exported file.</p>
+     */
+    private File file;
+
+    /**
+     * <p>Creates the exported file.</p>
+     *
+     * @throws Exception to JUnit.
+     */
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("report", ".export");
+    }
+
+    /**
+     * <p>Deletes the exported file.</p>
+     */
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * <p>Exports a million rows to XLSX.</p>
+     *
+     * <p>Expected: all the rows are written to the sheet.</p>
+     *
+     * @throws Exception to JUnit.
+     */
+    @Test
+    public void testXlsx() throws Exception {
+        long start = System.currentTimeMillis();
+        export(ReportExportFormat.XLSX);
+        System.out.println("Exported " + ROWS + " rows to XLSX in " + (System.currentTimeMillis() - start)
+            + " ms, " + file.length() + " bytes.");
+
+        ZipInputStream zip = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null && !entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                // skip the other parts
+            }
+            assertTrue("The sheet should be written.", entry != null);
+            assertEquals("Wrong number of rows.", ROWS + 1, count(zip, "<row "));
+        } finally {
+            zip.close();
+        }
+    }
+
+    /**
+     * <p>Exports a million rows to CSV.</p>
+     *
+     * <p>Expected: all the rows are written.</p>
+     *
+     * @throws Exception to JUnit.
+     */
+    @Test
+    public void testCsv() throws Exception {
+        long start = System.currentTimeMillis();
+        export(ReportExportFormat.CSV);
+        System.out.println("Exported " + ROWS + " rows to CSV in " + (System.currentTimeMillis() - start)
+            + " ms, " + file.length() + " bytes.");
+
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        try {
+            assertEquals("Wrong number of rows.", ROWS + 1, count(in, "\r\n"));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * <p>Exports the generated rows to the file.</p>
+     *
+     * @param format the export format.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void export(ReportExportFormat format) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            ReportWriter writer = format.createWriter(out, "Cost Details");
+            writer.writeRow("Customer", "Project", "Contest", "Contest ID", "Status", "Contest Fee", "Total");
+            for (int i = 0; i < ROWS; i++) {
+                writer.writeRow("Customer " + (i % 100), "Project " + (i % 5000), "Contest \"" + i + "\", <v2>",
+                    (long) i, i % 3 == 0 ? "Completed" : "Active", 250.0, i * 1.25);
+            }
+            writer.close();
+            assertEquals("Wrong number of rows.", ROWS + 1, writer.getRowCount());
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * <p>Counts the occurrences of an ASCII token in a stream.</p>
+     *
+     * @param in the stream.
+     * @param token the token.
+     * @return the number of occurrences.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static int count(InputStream in, String token) throws IOException {
+        byte[] buffer = new byte[65536];
+        int matched = 0;
+        int count = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == token.charAt(matched)) {
+                    matched++;
+                    if (matched == token.length()) {
+                        count++;
+                        matched = 0;
+                    }
+                } else {
+                    matched = buffer[i] == token.charAt(0) ? 1 : 0;
+                }
+            }
+        }
+        return count;
+    }
+}
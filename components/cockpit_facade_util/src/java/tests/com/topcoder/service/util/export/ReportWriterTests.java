@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Unit test for <code>CsvReportWriter</code>, <code>XlsxReportWriter</code>, <code>ReportExportFormat</code> and
+ * <code>TempFileInputStream</code> classes.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class ReportWriterTests {
+
+    /**
+     * <p>Tests the <code>CsvReportWriter.writeRow</code> method.</p>
+     *
+     * <p>Expected: the values are separated by commas and quoted when needed, null values are empty.</p>
+     */
+    @Test
+    public void testCsvWriteRow() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportWriter writer = new CsvReportWriter(out);
+        writer.writeRow("Name", "Amount", "Note");
+        writer.writeRow("a, b", 1.5, null);
+        writer.writeRow("say \"hi\"", 2, "line\nbreak");
+        writer.close();
+
+        assertEquals("Wrong number of rows.", 3, writer.getRowCount());
+        assertEquals("Wrong content.",
+            "\uFEFFName,Amount,Note\r\n\"a, b\",1.5,\r\n\"say \"\"hi\"\"\",2,\"line\nbreak\"\r\n",
+            new String(out.toByteArray(), "UTF-8"));
+    }
+
+    /**
+     * <p>Tests the <code>XlsxReportWriter.writeRow</code> method.</p>
+     *
+     * <p>Expected: the workbook parts are written, numbers are numeric cells and text is escaped.</p>
+     */
+    @Test
+    public void testXlsxWriteRow() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportWriter writer = new XlsxReportWriter(out, "Cost: Details");
+        writer.writeRow("Name", "Amount");
+        writer.writeRow("<a & b>", 10L, null, Double.NaN);
+        writer.close();
+
+        Map<String, String> parts = readParts(new ByteArrayInputStream(out.toByteArray()));
+        assertTrue("The content types should be written.", parts.containsKey("[Content_Types].xml"));
+        assertTrue("The relationships should be written.", parts.containsKey("_rels/.rels"));
+        assertTrue("The sheet name should be safe.", parts.get("xl/workbook.xml").contains("name=\"Cost  Details\""));
+
+        String sheet = parts.get("xl/worksheets/sheet1.xml");
+        assertTrue("Wrong header.",
+            sheet.contains("<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>Name</t></is></c>"));
+        assertTrue("Wrong text cell.",
+            sheet.contains("<c r=\"A2\" t=\"inlineStr\"><is><t>&lt;a &amp; b&gt;</t></is></c>"));
+        assertTrue("Wrong number cell.", sheet.contains("<c r=\"B2\"><v>10</v></c>"));
+        assertFalse("The null value should be skipped.", sheet.contains("r=\"C2\""));
+        assertTrue("NaN should be written as text.", sheet.contains("<c r=\"D2\" t=\"inlineStr\"><is><t>NaN</t>"));
+        assertTrue("Wrong sheet end.", sheet.endsWith("</row></sheetData></worksheet>"));
+    }
+
+    /**
+     * <p>Tests the <code>XlsxReportWriter.writeRow</code> method after the writer is closed.</p>
+     *
+     * <p>Expected: <code>IllegalStateException</code>.</p>
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testXlsxWriteRow_closed() throws Exception {
+        ReportWriter writer = new XlsxReportWriter(new ByteArrayOutputStream(), "Sheet");
+        writer.close();
+        writer.writeRow("value");
+    }
+
+    /**
+     * <p>Tests the <code>XlsxReportWriter</code> constructor with an empty sheet name.</p>
+     *
+     * <p>Expected: <code>IllegalArgumentException</code>.</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testXlsxCtor_emptySheetName() throws Exception {
+        new XlsxReportWriter(new ByteArrayOutputStream(), " ");
+    }
+
+    /**
+     * <p>Tests the <code>XlsxReportWriter.getColumnName</code> method.</p>
+     *
+     * <p>Expected: the Excel column names are returned.</p>
+     */
+    @Test
+    public void testGetColumnName() {
+        assertEquals("Wrong name.", "A", XlsxReportWriter.getColumnName(0));
+        assertEquals("Wrong name.", "Z", XlsxReportWriter.getColumnName(25));
+        assertEquals("Wrong name.", "AA", XlsxReportWriter.getColumnName(26));
+        assertEquals("Wrong name.", "XFD", XlsxReportWriter.getColumnName(XlsxReportWriter.MAX_COLUMNS - 1));
+    }
+
+    /**
+     * <p>Tests the <code>ReportExportFormat</code> methods.</p>
+     *
+     * <p>Expected: the formats are parsed, and XLS is replaced by XLSX when it can't hold the rows.</p>
+     */
+    @Test
+    public void testReportExportFormat() {
+        assertEquals("Wrong format.", ReportExportFormat.CSV, ReportExportFormat.parse(" CSV "));
+        assertEquals("Wrong format.", ReportExportFormat.XLSX, ReportExportFormat.parse("xlsx"));
+        assertEquals("Wrong format.", ReportExportFormat.XLS, ReportExportFormat.parse("pdf"));
+        assertEquals("Wrong format.", ReportExportFormat.XLS, ReportExportFormat.parse(null));
+
+        assertEquals("Wrong format.", ReportExportFormat.XLS, ReportExportFormat.XLS.forRows(65536));
+        assertEquals("Wrong format.", ReportExportFormat.XLSX, ReportExportFormat.XLS.forRows(65537));
+        assertEquals("Wrong format.", ReportExportFormat.CSV, ReportExportFormat.CSV.forRows(2000000));
+
+        assertEquals("Wrong file name.", "cost_report.csv", ReportExportFormat.CSV.getFileName("cost_report.xls"));
+        assertEquals("Wrong file name.", "report.xlsx", ReportExportFormat.XLSX.getFileName("report"));
+    }
+
+    /**
+     * <p>Tests the <code>ReportExportFormat.createWriter</code> method for XLS.</p>
+     *
+     * <p>Expected: <code>UnsupportedOperationException</code>.</p>
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCreateWriter_xls() throws Exception {
+        ReportExportFormat.XLS.createWriter(new ByteArrayOutputStream(), "Sheet");
+    }
+
+    /**
+     * <p>Tests the <code>TempFileInputStream.close</code> method.</p>
+     *
+     * <p>Expected: the content is read and the file is deleted.</p>
+     */
+    @Test
+    public void testTempFileInputStream() throws Exception {
+        File file = File.createTempFile("report", ".csv");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] {1, 2, 3});
+        out.close();
+
+        InputStream in = new TempFileInputStream(file);
+        assertEquals("Wrong content.", 1, in.read());
+        in.close();
+        assertFalse("The file should be deleted.", file.exists());
+    }
+
+    /**
+     * <p>Reads the parts of a workbook.</p>
+     *
+     * @param in the workbook content.
+     * @return the parts content by name.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static Map<String, String> readParts(InputStream in) throws IOException {
+        Map<String, String> parts = new HashMap<String, String>();
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = zip.read(buffer)) != -1) {
+                content.write(buffer, 0, read);
+            }
+            parts.put(entry.getName(), new String(content.toByteArray(), "UTF-8"));
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.idgenerator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.topcoder.util.idgenerator.IDGenerationException;
+import com.topcoder.util.idgenerator.IDGenerator;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Unit test for <code>BlockIDGenerator</code> class.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class BlockIDGeneratorTests {
+
+    /**
+     * <p>The number of threads of the concurrency tests.</p>
+     */
+    private static final int THREADS = 16;
+
+    /**
+     * <p>The number of IDs taken by each thread of the concurrency tests.</p>
+     */
+    private static final int IDS_PER_THREAD = 20000;
+
+    /**
+     * <p>Tests the <code>getNextID</code> method.</p>
+     *
+     * <p>Expected: the IDs are consecutive, the second block is twice as large as the first one.</p>
+     */
+    @Test
+    public void testGetNextID_accuracy() throws Exception {
+        MockIDBlockSource source = new MockIDBlockSource(100, 0);
+        BlockIDGenerator generator = new BlockIDGenerator("test", source, 2, 8);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Wrong ID.", 100 + i, generator.getNextID());
+        }
+        assertEquals("Wrong number of reserved blocks.", 2, source.getReservations());
+        assertEquals("Wrong BigInteger ID.", 105, generator.getNextBigID().longValue());
+    }
+
+    /**
+     * <p>Tests the <code>nextIds</code> method.</p>
+     *
+     * <p>Expected: the rest of the current block is used, then one block large enough is reserved.</p>
+     */
+    @Test
+    public void testNextIds_accuracy() throws Exception {
+        MockIDBlockSource source = new MockIDBlockSource(1, 0);
+        BlockIDGenerator generator = new BlockIDGenerator("test", source, 4, 4);
+
+        generator.getNextID();
+        long[] ids = generator.nextIds(10);
+
+        assertEquals("Wrong number of IDs.", 10, ids.length);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Wrong ID.", 2 + i, ids[i]);
+        }
+        assertEquals("Wrong number of reserved blocks.", 2, source.getReservations());
+        assertEquals("Wrong number of IDs.", 0, generator.nextIds(0).length);
+    }
+
+    /**
+     * <p>Tests the static <code>nextIds</code> method with another generator.</p>
+     *
+     * <p>Expected: the IDs are taken one by one.</p>
+     */
+    @Test
+    public void testNextIds_otherGenerator() throws Exception {
+        IDGenerator other = new IDGenerator() {
+            private long next = 10;
+
+            public String getIDName() {
+                return "other";
+            }
+
+            public long getNextID() {
+                return next++;
+            }
+
+            public java.math.BigInteger getNextBigID() {
+                return java.math.BigInteger.valueOf(getNextID());
+            }
+        };
+
+        long[] ids = BlockIDGenerator.nextIds(other, 3);
+        assertEquals("Wrong ID.", 10, ids[0]);
+        assertEquals("Wrong ID.", 12, ids[2]);
+    }
+
+    /**
+     * <p>Tests the adaptive block size.</p>
+     *
+     * <p>Expected: the block size doubles while the blocks are used up quickly, up to the maximum.</p>
+     */
+    @Test
+    public void testBlockSize_adaptive() throws Exception {
+        BlockIDGenerator generator = new BlockIDGenerator("test", new MockIDBlockSource(1, 0), 2, 16);
+
+        assertEquals("Wrong initial block size.", 2, generator.getBlockSize());
+        for (int i = 0; i < 100; i++) {
+            generator.getNextID();
+        }
+        assertEquals("The block size should grow to the maximum.", 16, generator.getBlockSize());
+    }
+
+    /**
+     * <p>Tests the <code>getNextID</code> method with many threads.</p>
+     *
+     * <p>Expected: all IDs are unique, and the threads go to the source rarely.</p>
+     */
+    @Test
+    public void testGetNextID_concurrent() throws Exception {
+        MockIDBlockSource source = new MockIDBlockSource(1, 1);
+        final BlockIDGenerator generator = new BlockIDGenerator("test", source, 10, 1000);
+
+        long start = System.currentTimeMillis();
+        List<long[]> results = run(new Callable<long[]>() {
+            public long[] call() throws Exception {
+                long[] ids = new long[IDS_PER_THREAD];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.getNextID();
+                }
+                return ids;
+            }
+        });
+        long spent = System.currentTimeMillis() - start;
+
+        assertUnique(results);
+        // with one ID per reservation, the 1 ms reservation latency alone would take minutes
+        assertTrue("Too many reservations: " + source.getReservations(),
+            source.getReservations() < THREADS * IDS_PER_THREAD / 100);
+        System.out.println("BlockIDGenerator: " + THREADS * IDS_PER_THREAD + " IDs by " + THREADS + " threads in "
+            + spent + " ms, " + source.getReservations() + " reservations.");
+    }
+
+    /**
+     * <p>Tests the <code>nextIds</code> method with many threads mixing single and bulk allocations.</p>
+     *
+     * <p>Expected: all IDs are unique.</p>
+     */
+    @Test
+    public void testNextIds_concurrent() throws Exception {
+        final BlockIDGenerator generator = new BlockIDGenerator("test", new MockIDBlockSource(1, 0), 1, 64);
+
+        List<long[]> results = run(new Callable<long[]>() {
+            public long[] call() throws Exception {
+                long[] ids = new long[IDS_PER_THREAD];
+                int count = 0;
+                while (count < ids.length) {
+                    int n = Math.min(ids.length - count, count % 7 == 0 ? 1 : 25);
+                    long[] bulk = generator.nextIds(n);
+                    System.arraycopy(bulk, 0, ids, count, n);
+                    count += n;
+                }
+                return ids;
+            }
+        });
+
+        assertUnique(results);
+    }
+
+    /**
+     * <p>Runs the task in {@link #THREADS} threads.</p>
+     *
+     * @param task the task.
+     * @return the results of the threads.
+     * @throws Exception if any task fails.
+     */
+    private static List<long[]> run(Callable<long[]> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(task));
+            }
+            List<long[]> results = new ArrayList<long[]>();
+            for (Future<long[]> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * <p>Asserts that all the IDs are unique.</p>
+     *
+     * @param results the IDs taken by the threads.
+     */
+    private static void assertUnique(List<long[]> results) {
+        Set<Long> all = new HashSet<Long>();
+        int total = 0;
+        for (long[] ids : results) {
+            for (long id : ids) {
+                all.add(id);
+                total++;
+            }
+        }
+        assertEquals("The IDs should be unique.", total, all.size());
+    }
+
+    /**
+     * <p>Mock <code>IDBlockSource</code> handing out consecutive blocks.</p>
+     */
+    private static class MockIDBlockSource implements IDBlockSource {
+
+        /**
+         * <p>The start of the next block.</p>
+         */
+        private long next;
+
+        /**
+         * <p>The latency of a reservation in milliseconds.</p>
+         */
+        private final long latency;
+
+        /**
+         * <p>The number of reservations.</p>
+         */
+        private int reservations;
+
+        /**
+         * <p>Creates the source.</p>
+         *
+         * @param first the first ID.
+         * @param latency the latency of a reservation in milliseconds.
+         */
+        MockIDBlockSource(long first, long latency) {
+            this.next = first;
+            this.latency = latency;
+        }
+
+        /**
+         * <p>Reserves the next block.</p>
+         *
+         * @param idName the name of the ID sequence.
+         * @param size the requested number of IDs.
+         * @return the reserved block.
+         * @throws IDGenerationException if interrupted.
+         */
+        public synchronized IDBlock reserve(String idName, int size) throws IDGenerationException {
+            if (latency > 0) {
+                try {
+                    Thread.sleep(latency);
+                } catch (InterruptedException e) {
+                    throw new IDGenerationException("interrupted", e);
+                }
+            }
+            reservations++;
+            IDBlock block = new IDBlock(next, size);
+            next += size;
+            return block;
+        }
+
+        /**
+         * <p>Gets the number of reservations.</p>
+         *
+         * @return the number of reservations.
+         */
+        synchronized int getReservations() {
+            return reservations;
+        }
+    }
+}
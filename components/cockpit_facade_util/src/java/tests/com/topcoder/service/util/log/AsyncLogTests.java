@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.log;
+
+import java.util.List;
+
+import com.topcoder.util.log.Level;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Unit test for <code>AsyncLog</code> class.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class AsyncLogTests {
+
+    /**
+     * <p>Tests the <code>log</code> methods.</p>
+     *
+     * <p>Expected: all records are written in order once the log is closed.</p>
+     */
+    @Test
+    public void testLog_accuracy() {
+        MockLog delegate = new MockLog(true);
+        AsyncLog log = new AsyncLog(delegate, 100);
+
+        for (int i = 0; i < 50; i++) {
+            log.log(Level.DEBUG, "message " + i);
+        }
+        log.log(Level.INFO, "{0} and {1}", "a", "b");
+        log.close();
+
+        List<String> messages = delegate.getMessages();
+        assertEquals("Wrong number of messages.", 51, messages.size());
+        for (int i = 0; i < 50; i++) {
+            assertTrue("Wrong message.", messages.get(i).endsWith("message " + i));
+        }
+        assertTrue("Wrong formatted message.", messages.get(50).endsWith("a and b"));
+    }
+
+    /**
+     * <p>Tests the <code>log</code> methods when the buffer is full.</p>
+     *
+     * <p>Expected: the caller is not blocked, DEBUG records are dropped and counted, ERROR records are kept.</p>
+     */
+    @Test
+    public void testLog_full() {
+        MockLog delegate = new MockLog(true);
+        delegate.setDelay(50);
+        AsyncLog log = new AsyncLog(delegate, 2);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 20; i++) {
+            log.log(Level.DEBUG, "message " + i);
+        }
+        log.log(Level.ERROR, "error");
+        long spent = System.currentTimeMillis() - start;
+        log.close();
+
+        assertTrue("The caller should not wait for the writes.", spent < 20 * 50);
+        List<String> messages = delegate.getMessages();
+        boolean error = false;
+        boolean dropped = false;
+        for (String message : messages) {
+            error |= message.endsWith("error");
+            dropped |= message.endsWith("log records were dropped because the log buffer was full.");
+        }
+        assertTrue("The error should be written.", error);
+        assertTrue("The dropped records should be reported.", dropped);
+        assertTrue("Some records should be dropped.", messages.size() < 22);
+    }
+
+    /**
+     * <p>Tests the <code>isEnabled</code> method.</p>
+     *
+     * <p>Expected: the wrapped log is checked.</p>
+     */
+    @Test
+    public void testIsEnabled() {
+        AsyncLog log = new AsyncLog(new MockLog(false));
+        assertEquals("Wrong result.", false, log.isEnabled(Level.DEBUG));
+        log.close();
+    }
+
+    /**
+     * <p>Tests the <code>log</code> methods when the level is disabled.</p>
+     *
+     * <p>Expected: nothing is buffered or written.</p>
+     */
+    @Test
+    public void testLog_disabled() {
+        MockLog delegate = new MockLog(false);
+        AsyncLog log = new AsyncLog(delegate, 100);
+
+        log.log(Level.DEBUG, "message");
+        log.log(Level.INFO, "{0} and {1}", "a", "b");
+        log.close();
+
+        assertEquals("Nothing should be written.", 0, delegate.getMessages().size());
+    }
+
+    /**
+     * <p>Tests the <code>AsyncLog</code> constructor with a null delegate.</p>
+     *
+     * <p>Expected: <code>IllegalArgumentException</code>.</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCtor_nullDelegate() {
+        new AsyncLog(null);
+    }
+}
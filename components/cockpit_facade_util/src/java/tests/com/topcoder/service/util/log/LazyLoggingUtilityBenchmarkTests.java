@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.topcoder.util.log.Level;
+import com.topcoder.util.log.Log;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Benchmark of the enabled and disabled paths of <code>LazyLoggingUtility</code>, compared with the eager
+ * formatting done by the <code>LoggingWrapperUtility</code> call sites (the parameter arrays and the messages are
+ * built before the log decides to discard them).</p>
+ *
+ * <p>Each path is warmed up first, then timed over <code>ITERATIONS</code> calls; the results are printed in
+ * nanoseconds per call.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class LazyLoggingUtilityBenchmarkTests {
+
+    /**
+     * <p>The number of warm up calls.</p>
+     */
+    private static final int WARM_UP = 200000;
+
+    /**
+     * <p>The number of timed calls.</p>
+     */
+    private static final int ITERATIONS = 1000000;
+
+    /**
+     * <p>The signature used in the benchmark.</p>
+     */
+    private static final MethodSignature SIGNATURE = new MethodSignature(LazyLoggingUtilityBenchmarkTests.class,
+        "getAll(List<Long> projectIds)", "projectIds");
+
+    /**
+     * <p>The logged parameter.</p>
+     */
+    private final List<Long> projectIds = new ArrayList<Long>();
+
+    /**
+     * <p>Consumes the results so the calls are not eliminated.</p>
+     */
+    private long sink;
+
+    /**
+     * <p>Compares the paths.</p>
+     *
+     * <p>Expected: the disabled path is faster than both the enabled path and the eager disabled path.</p>
+     */
+    @Test
+    public void testBenchmark() {
+        for (long i = 0; i < 50; i++) {
+            projectIds.add(i);
+        }
+        MockLog disabled = new MockLog(false);
+        MockLog enabled = new MockLog(true);
+        enabled.setRecording(false);
+
+        run(disabled, true, WARM_UP);
+        run(enabled, true, WARM_UP / 10);
+        run(disabled, false, WARM_UP / 10);
+
+        long lazyDisabled = run(disabled, true, ITERATIONS);
+        long lazyEnabled = run(enabled, true, ITERATIONS / 10) * 10;
+        long eagerDisabled = run(disabled, false, ITERATIONS / 10) * 10;
+
+        System.out.println("LazyLoggingUtility disabled: " + lazyDisabled / ITERATIONS + " ns/call");
+        System.out.println("LazyLoggingUtility enabled: " + lazyEnabled / ITERATIONS + " ns/call");
+        System.out.println("Eager formatting, disabled: " + eagerDisabled / ITERATIONS + " ns/call");
+
+        assertTrue("The disabled path should be faster than the enabled path.", lazyDisabled < lazyEnabled);
+        assertTrue("The disabled path should be faster than eager formatting.", lazyDisabled < eagerDisabled);
+        assertTrue("The sink should be used.", sink != 0);
+    }
+
+    /**
+     * <p>Logs the entrance and exit of a method the given number of times.</p>
+     *
+     * @param log the log.
+     * @param lazy whether <code>LazyLoggingUtility</code> is used, or the messages are built eagerly.
+     * @param iterations the number of calls.
+     * @return the time spent, in nanoseconds.
+     */
+    private long run(MockLog log, boolean lazy, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (lazy) {
+                long timestamp = LazyLoggingUtility.logEntrance(log, SIGNATURE, projectIds);
+                LazyLoggingUtility.logExit(log, SIGNATURE, projectIds, timestamp);
+                sink += timestamp;
+            } else {
+                sink += logEagerly(log, SIGNATURE.getSignature(), new String[] {"projectIds"},
+                    new Object[] {projectIds});
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * <p>Builds the messages the way <code>LoggingWrapperUtility</code> does and hands them to the log, which
+     * checks the level itself.</p>
+     *
+     * @param log the log.
+     * @param signature the method signature.
+     * @param names the parameter names.
+     * @param values the parameter values.
+     * @return the length of the built messages.
+     */
+    private static long logEagerly(Log log, String signature, String[] names, Object[] values) {
+        String entrance = "Entering method [" + signature + "].";
+        StringBuilder sb = new StringBuilder("Input parameters [");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(names[i]).append(':').append(values[i]);
+        }
+        String parameters = sb.append(']').toString();
+        String output = "Output parameter: " + values[0];
+        if (log.isEnabled(Level.DEBUG)) {
+            log.log(Level.DEBUG, entrance);
+            log.log(Level.DEBUG, parameters);
+            log.log(Level.DEBUG, output);
+        }
+        return entrance.length() + parameters.length() + output.length();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Unit test for <code>LazyLoggingUtility</code>, <code>MethodSignature</code> and <code>LogValueRenderer</code>
+ * classes.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class LazyLoggingUtilityTests {
+
+    /**
+     * <p>The signature used in the tests.</p>
+     */
+    private static final MethodSignature SIGNATURE = new MethodSignature(LazyLoggingUtilityTests.class,
+        "foo(long id, List<Long> ids)", "id", "ids");
+
+    /**
+     * <p>Tests the <code>logEntrance</code> and <code>logExit</code> methods when DEBUG is enabled.</p>
+     *
+     * <p>Expected: the messages have the <code>LoggingWrapperUtility</code> format.</p>
+     */
+    @Test
+    public void testLogEntranceExit_enabled() {
+        MockLog log = new MockLog(true);
+
+        long timestamp = LazyLoggingUtility.logEntrance(log, SIGNATURE, 5L, null);
+        LazyLoggingUtility.logExit(log, SIGNATURE, "result", timestamp);
+
+        List<String> messages = log.getMessages();
+        assertEquals("Wrong number of messages.", 4, messages.size());
+        assertTrue("Wrong entrance message.", messages.get(0).endsWith(
+            "Entering method [" + LazyLoggingUtilityTests.class.getName() + ".foo(long id, List<Long> ids)]."));
+        assertTrue("Wrong parameters message.", messages.get(1).endsWith("Input parameters [id:5, ids:null]"));
+        assertTrue("Wrong exit message.", messages.get(2).contains("Exiting method ["
+            + LazyLoggingUtilityTests.class.getName() + ".foo(long id, List<Long> ids)], time spent in the method: "));
+        assertTrue("Wrong output message.", messages.get(3).endsWith("Output parameter: result"));
+    }
+
+    /**
+     * <p>Tests the <code>logEntrance</code> and <code>logExit</code> methods when DEBUG is disabled.</p>
+     *
+     * <p>Expected: nothing is logged and the level is checked once per call.</p>
+     */
+    @Test
+    public void testLogEntranceExit_disabled() {
+        MockLog log = new MockLog(false);
+
+        long timestamp = LazyLoggingUtility.logEntrance(log, SIGNATURE, 5L);
+        LazyLoggingUtility.logExit(log, SIGNATURE, timestamp);
+
+        assertEquals("Nothing should be logged.", 0, log.getMessages().size());
+        assertEquals("The level should be checked once per call.", 2, log.getChecks());
+        assertTrue("The timestamp should be returned.", timestamp > 0);
+    }
+
+    /**
+     * <p>Tests the <code>logEntrance</code> and <code>logExit</code> methods with primitive values.</p>
+     *
+     * <p>Expected: the values are logged when the level is enabled and nothing is logged otherwise.</p>
+     */
+    @Test
+    public void testLogEntranceExit_primitive() {
+        MockLog log = new MockLog(true);
+
+        long timestamp = LazyLoggingUtility.logEntrance(log, SIGNATURE, 5L, null);
+        LazyLoggingUtility.logExit(log, SIGNATURE, 7L, timestamp);
+
+        List<String> messages = log.getMessages();
+        assertTrue("Wrong parameters message.", messages.get(1).endsWith("Input parameters [id:5, ids:null]"));
+        assertTrue("Wrong output message.", messages.get(3).endsWith("Output parameter: 7"));
+
+        MockLog disabled = new MockLog(false);
+        timestamp = LazyLoggingUtility.logEntrance(disabled, SIGNATURE, 5L, null);
+        LazyLoggingUtility.logExit(disabled, SIGNATURE, 7L, timestamp);
+        assertEquals("Nothing should be logged.", 0, disabled.getMessages().size());
+    }
+
+    /**
+     * <p>Tests the <code>logEntrance</code> method with a null log.</p>
+     *
+     * <p>Expected: nothing happens.</p>
+     */
+    @Test
+    public void testLogEntrance_nullLog() {
+        long timestamp = LazyLoggingUtility.logEntrance(null, SIGNATURE, 1L, 2L);
+        LazyLoggingUtility.logExit(null, SIGNATURE, "x", timestamp);
+    }
+
+    /**
+     * <p>Tests the <code>logExit</code> method with a large map result.</p>
+     *
+     * <p>Expected: the rendered result is capped.</p>
+     */
+    @Test
+    public void testLogExit_largeMap() {
+        MockLog log = new MockLog(true);
+        Map<Integer, List<Integer>> result = new HashMap<Integer, List<Integer>>();
+        for (int i = 0; i < 1000; i++) {
+            List<Integer> values = new ArrayList<Integer>();
+            for (int j = 0; j < 100; j++) {
+                values.add(j);
+            }
+            result.put(i, values);
+        }
+
+        LazyLoggingUtility.logExit(log, SIGNATURE, result, System.currentTimeMillis());
+
+        String output = log.getMessages().get(1);
+        assertTrue("The omitted entries should be counted.", output.endsWith(", ...990 more}"));
+        assertTrue("The nested lists should be capped.", output.contains(", ...90 more]"));
+        assertTrue("The message should be small.", output.length() < 1000);
+    }
+
+    /**
+     * <p>Tests the <code>LogValueRenderer#render(Object)</code> method.</p>
+     *
+     * <p>Expected: arrays, nested containers and long strings are capped.</p>
+     */
+    @Test
+    public void testRender() {
+        LogValueRenderer renderer = new LogValueRenderer(2, 2, 5);
+
+        assertEquals("Wrong rendered value.", "null", renderer.render(null));
+        assertEquals("Wrong rendered value.", "[1, 2, ...1 more]", renderer.render(new long[] {1, 2, 3}));
+        assertEquals("Wrong rendered value.", "[[1], [[2 elements], b]]",
+            renderer.render(new Object[] {new int[] {1}, new Object[] {new int[2], "b"}}));
+        assertEquals("Wrong rendered value.", "abcde...(7 chars)", renderer.render("abcdefg"));
+    }
+
+    /**
+     * <p>Tests the <code>MethodSignature</code> constructor with a null type.</p>
+     *
+     * <p>Expected: <code>IllegalArgumentException</code>.</p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMethodSignature_nullType() {
+        new MethodSignature(null, "foo()");
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.service.util.log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.topcoder.util.format.ObjectFormatter;
+import com.topcoder.util.log.Level;
+import com.topcoder.util.log.Log;
+
+/**
+ * <p>Mock implementation of <code>Log</code> recording the logged messages.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class MockLog implements Log {
+
+    /**
+     * <p>Whether the levels are enabled.</p>
+     */
+    private final boolean enabled;
+
+    /**
+     * <p>The logged messages.</p>
+     */
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+
+    /**
+     * <p>The number of <code>isEnabled</code> calls.</p>
+     */
+    private volatile int checks;
+
+    /**
+     * <p>The time each message takes to write, in milliseconds.</p>
+     */
+    private volatile long delay;
+
+    /**
+     * <p>Whether the messages are recorded.</p>
+     */
+    private volatile boolean recording = true;
+
+    /**
+     * <p>Creates the mock.</p>
+     *
+     * @param enabled whether the levels are enabled.
+     */
+    public MockLog(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * <p>Sets the time each message takes to write.</p>
+     *
+     * @param delay the time in milliseconds.
+     */
+    public void setDelay(long delay) {
+        this.delay = delay;
+    }
+
+    /**
+     * <p>Sets whether the messages are recorded.</p>
+     *
+     * @param recording whether the messages are recorded.
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * <p>Gets the logged messages.</p>
+     *
+     * @return the logged messages.
+     */
+    public List<String> getMessages() {
+        synchronized (messages) {
+            return new ArrayList<String>(messages);
+        }
+    }
+
+    /**
+     * <p>Gets the number of <code>isEnabled</code> calls.</p>
+     *
+     * @return the number of calls.
+     */
+    public int getChecks() {
+        return checks;
+    }
+
+    /**
+     * <p>Checks whether the level is enabled.</p>
+     *
+     * @param level the level.
+     * @return whether the levels are enabled.
+     */
+    public boolean isEnabled(Level level) {
+        checks++;
+        return enabled;
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param message the message.
+     */
+    public void log(Level level, Object message) {
+        record(level + " " + message);
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param message the message.
+     * @param formatter ignored.
+     */
+    public void log(Level level, Object message, ObjectFormatter formatter) {
+        record(level + " " + message);
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param format the message format.
+     * @param param1 the argument.
+     */
+    public void log(Level level, String format, Object param1) {
+        log(level, format, new Object[] {param1});
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param format the message format.
+     * @param param1 the argument.
+     * @param param2 the argument.
+     */
+    public void log(Level level, String format, Object param1, Object param2) {
+        log(level, format, new Object[] {param1, param2});
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param format the message format.
+     * @param param1 the argument.
+     * @param param2 the argument.
+     * @param param3 the argument.
+     */
+    public void log(Level level, String format, Object param1, Object param2, Object param3) {
+        log(level, format, new Object[] {param1, param2, param3});
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param format the message format.
+     * @param params the arguments.
+     */
+    public void log(Level level, String format, Object[] params) {
+        record(level + " " + java.text.MessageFormat.format(format, params));
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param message the message.
+     */
+    public void log(Level level, Throwable throwable, Object message) {
+        record(level + " " + message + " " + throwable.getMessage());
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param message the message.
+     * @param formatter ignored.
+     */
+    public void log(Level level, Throwable throwable, Object message, ObjectFormatter formatter) {
+        log(level, throwable, message);
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param format the message format.
+     * @param param1 the argument.
+     */
+    public void log(Level level, Throwable throwable, String format, Object param1) {
+        log(level, throwable, format, new Object[] {param1});
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param format the message format.
+     * @param param1 the argument.
+     * @param param2 the argument.
+     */
+    public void log(Level level, Throwable throwable, String format, Object param1, Object param2) {
+        log(level, throwable, format, new Object[] {param1, param2});
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param format the message format.
+     * @param param1 the argument.
+     * @param param2 the argument.
+     * @param param3 the argument.
+     */
+    public void log(Level level, Throwable throwable, String format, Object param1, Object param2, Object param3) {
+        log(level, throwable, format, new Object[] {param1, param2, param3});
+    }
+
+    /**
+     * <p>Records the message.</p>
+     *
+     * @param level the level.
+     * @param throwable the throwable.
+     * @param format the message format.
+     * @param params the arguments.
+     */
+    public void log(Level level, Throwable throwable, String format, Object[] params) {
+        log(level, throwable, (Object) java.text.MessageFormat.format(format, params));
+    }
+
+    /**
+     * <p>Records the message, waiting for the configured delay first.</p>
+     *
+     * @param message the message.
+     */
+    private void record(String message) {
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (recording) {
+            messages.add(message);
+        }
+    }
+}
@@ -4,16 +4,28 @@
 package com.topcoder.direct.services.copilot.dao;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.topcoder.direct.services.copilot.dto.CopilotContestInfo;
 
 /**
  * <p>This interface represents a helper utility DAO. It provides methods for retrieving the number of bug races for
  * specific contest, the latest bug resolution date for specific contest, the earnings of specific copilot user and
  * contest IDs for specific copilot user and TC direct project.</p>
  *
+ * <p>
+ * Version 1.1 change notes:
+ * <ol>
+ *     <li>Added {@link #getCopilotContests(long[])} and {@link #getCopilotProjectCounts(long[])} methods to retrieve
+ *     the data needed by the copilot statistics for many copilots at once.</li>
+ * </ol>
+ * </p>
+ *
  * <p><strong>Thread safety:</strong> Implementations of this interface must be thread safe.</p>
  *
- * @author saarixx, TCSDEVELOPER
- * @version 1.0
+ * @author saarixx, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public interface UtilityDAO {
 
@@ -68,5 +80,35 @@ public interface UtilityDAO {
      * @throws CopilotDAOException      if any error occurs during persistence operation
      */
     long[] getCopilotProjectContests(long copilotUserId, long tcDirectProjectId) throws CopilotDAOException;
+
+    /**
+     * <p>Retrieves the contests managed by the copilots with the specified profile IDs in their copilot projects. A
+     * contest is returned once for each copilot project of the copilot it belongs to. Returns an empty list if the
+     * copilots have no contests.</p>
+     *
+     * @param copilotProfileIds the IDs of the copilot profiles
+     *
+     * @return the retrieved contests (not null, doesn't contain null)
+     *
+     * @throws IllegalArgumentException if copilotProfileIds is null or contains not positive ID
+     * @throws CopilotDAOException      if any error occurs during persistence operation
+     * @since 1.1
+     */
+    List<CopilotContestInfo> getCopilotContests(long[] copilotProfileIds) throws CopilotDAOException;
+
+    /**
+     * <p>Retrieves the numbers of copilot projects of the copilots with the specified profile IDs, grouped by the
+     * copilot project status. The copilots with no copilot projects are absent from the result.</p>
+     *
+     * @param copilotProfileIds the IDs of the copilot profiles
+     *
+     * @return the mapping from copilot profile ID to the mapping from copilot project status ID to the number of
+     *         copilot projects (not null)
+     *
+     * @throws IllegalArgumentException if copilotProfileIds is null or contains not positive ID
+     * @throws CopilotDAOException      if any error occurs during persistence operation
+     * @since 1.1
+     */
+    Map<Long, Map<Long, Integer>> getCopilotProjectCounts(long[] copilotProfileIds) throws CopilotDAOException;
 }
 
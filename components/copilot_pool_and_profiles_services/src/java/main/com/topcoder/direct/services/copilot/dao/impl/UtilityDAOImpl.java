@@ -6,14 +6,20 @@ package com.topcoder.direct.services.copilot.dao.impl;
 import com.topcoder.direct.services.copilot.dao.CopilotDAOException;
 import com.topcoder.direct.services.copilot.dao.CopilotDAOInitializationException;
 import com.topcoder.direct.services.copilot.dao.UtilityDAO;
+import com.topcoder.direct.services.copilot.dto.CopilotContestInfo;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 
 import javax.annotation.PostConstruct;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * <p>This class is an implementation of UtilityDAO that uses Hibernate sessions to access databases. It uses 3 data
@@ -62,15 +68,27 @@ import java.util.List;
  * // Retrieves the IDs of OR contests for copilot with user ID=1
  * // and TC direct project with ID=101
  * long[] contestIds = utilityDAO.getCopilotProjectContests(1, 101);
+ *
+ * // Retrieves the contests and the copilot project counts of the copilots with profile ID=1 and ID=2
+ * List&lt;CopilotContestInfo&gt; contests = utilityDAO.getCopilotContests(new long[] {1, 2});
+ * Map&lt;Long, Map&lt;Long, Integer&gt;&gt; projectCounts = utilityDAO.getCopilotProjectCounts(new long[] {1, 2});
  * </pre>
  * </p>
  *
+ * <p>
+ * Version 1.1 change notes:
+ * <ol>
+ *     <li>Added {@link #getCopilotContests(long[])} and {@link #getCopilotProjectCounts(long[])} methods which
+ *     retrieve the data of many copilots with a few native SQL queries.</li>
+ * </ol>
+ * </p>
+ *
  * <p><strong>Thread safety:</strong> This class has mutable attributes, thus it's not thread safe. But it's assumed
  * that it will be initialized via Spring IoC before calling any business method, this way it's always used in thread
  * safe manner. It uses thread safe SessionFactory, Session and Log instances.</p>
  *
- * @author saarixx, TCSDEVELOPER
- * @version 1.0
+ * @author saarixx, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public class UtilityDAOImpl extends BaseDAO implements UtilityDAO {
 
@@ -117,6 +135,44 @@ public class UtilityDAOImpl extends BaseDAO implements UtilityDAO {
                     + " and r.resource_role_id = :copilotResourceRoleId"
                     + " and ri.resource_info_type_id = :userResourceInfoTypeId and ri.value = :copilotUserId";
 
+    /**
+     * <p>Represents a sql query used for retrieving the contests of the copilot projects of the given copilots with the
+     * copilot user ID they are assigned to. The last column is the number of the 'Repost For' links to the contest.</p>
+     *
+     * @since 1.1
+     */
+    private static final String SELECT_COPILOT_CONTESTS =
+            "select cp.copilot_profile_id, cp.copilot_project_id, cpr.user_id, ri.value, p.project_id,"
+                    + " p.project_category_id, p.project_status_id,"
+                    + " (select count(*) from linked_project_xref l where l.dest_project_id = p.project_id"
+                    + " and l.link_type_id = 5)"
+                    + " from copilot_project cp "
+                    + " join copilot_profile cpr on cpr.copilot_profile_id = cp.copilot_profile_id "
+                    + " join project p on p.tc_direct_project_id = cp.tc_direct_project_id "
+                    + " join resource r on r.project_id = p.project_id "
+                    + " join resource_info ri on ri.resource_id = r.resource_id "
+                    + " where cp.copilot_profile_id in (:copilotProfileIds)"
+                    + " and r.resource_role_id = :copilotResourceRoleId"
+                    + " and ri.resource_info_type_id = :userResourceInfoTypeId";
+
+    /**
+     * <p>Represents a sql query used for retrieving the numbers of copilot projects of the given copilots grouped by
+     * status.</p>
+     *
+     * @since 1.1
+     */
+    private static final String SELECT_COPILOT_PROJECT_COUNTS =
+            "select copilot_profile_id, copilot_project_status_id, count(*) from copilot_project"
+                    + " where copilot_profile_id in (:copilotProfileIds)"
+                    + " group by copilot_profile_id, copilot_project_status_id";
+
+    /**
+     * <p>Represents the max number of IDs bound to a single IN list.</p>
+     *
+     * @since 1.1
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+
     /**
      * <p>The Hibernate session factory to be used when retrieving session for accessing JIRA database. Cannot be null
      * after initialization (validation is performed in checkInit() method). Initialized by Spring setter injection. Has
@@ -476,6 +532,189 @@ public class UtilityDAOImpl extends BaseDAO implements UtilityDAO {
         }
     }
 
+    /**
+     * <p>Retrieves the contests managed by the copilots with the specified profile IDs in their copilot projects. A
+     * contest is returned once for each copilot project of the copilot it belongs to. Returns an empty list if the
+     * copilots have no contests.</p>
+     *
+     * @param copilotProfileIds the IDs of the copilot profiles
+     *
+     * @return the retrieved contests (not null, doesn't contain null)
+     *
+     * @throws IllegalArgumentException if copilotProfileIds is null or contains not positive ID
+     * @throws CopilotDAOException      if any error occurs during persistence operation
+     * @since 1.1
+     */
+    @SuppressWarnings("unchecked")
+    public List<CopilotContestInfo> getCopilotContests(long[] copilotProfileIds) throws CopilotDAOException {
+        final String methodName = "getCopilotContests";
+        final long executionStart = System.currentTimeMillis();
+        Helper.logMethodEntered(getLog(), CLASS_NAME, methodName, new String[]{"copilotProfileIds"},
+                new Object[]{copilotProfileIds});
+
+        checkIds(copilotProfileIds, "copilotProfileIds", methodName);
+
+        try {
+            // gets current session
+            Session session = getSession();
+
+            List<CopilotContestInfo> result = new ArrayList<CopilotContestInfo>();
+            Set<String> found = new HashSet<String>();
+            for (List<Long> ids : split(copilotProfileIds)) {
+                List<Object[]> rows = session.createSQLQuery(SELECT_COPILOT_CONTESTS)
+                        .setParameterList("copilotProfileIds", ids)
+                        .setParameter("copilotResourceRoleId", copilotResourceRoleId)
+                        .setParameter("userResourceInfoTypeId", userResourceInfoTypeId)
+                        .list();
+                for (Object[] row : rows) {
+                    // the contest may have other copilots, only the copilot of the profile is counted
+                    String copilotUserId = Long.toString(((Number) row[2]).longValue());
+                    if (!copilotUserId.equals(row[3] == null ? null : row[3].toString().trim())) {
+                        continue;
+                    }
+                    long copilotProjectId = ((Number) row[1]).longValue();
+                    long contestId = ((Number) row[4]).longValue();
+                    if (!found.add(copilotProjectId + "-" + contestId)) {
+                        continue;
+                    }
+                    CopilotContestInfo contest = new CopilotContestInfo();
+                    contest.setCopilotProfileId(((Number) row[0]).longValue());
+                    contest.setCopilotProjectId(copilotProjectId);
+                    contest.setContestId(contestId);
+                    contest.setProjectCategoryId(((Number) row[5]).longValue());
+                    contest.setProjectStatusId(((Number) row[6]).longValue());
+                    contest.setRepost(((Number) row[7]).intValue() > 0);
+                    result.add(contest);
+                }
+            }
+
+            // logs method exit
+            Helper.logMethodExited(getLog(), CLASS_NAME, methodName, executionStart, result);
+
+            return result;
+        } catch (HibernateException e) {
+            CopilotDAOException exc = new CopilotDAOException("Error occurred when retrieving copilot contests", e);
+
+            Helper.logError(getLog(), MessageFormat.format(Helper.METHOD_ERROR, CLASS_NAME, methodName), exc);
+
+            throw exc;
+        } catch (CopilotDAOException e) {
+
+            Helper.logError(getLog(), MessageFormat.format(Helper.METHOD_ERROR, CLASS_NAME, methodName), e);
+
+            throw e;
+        }
+    }
+
+    /**
+     * <p>Retrieves the numbers of copilot projects of the copilots with the specified profile IDs, grouped by the
+     * copilot project status. The copilots with no copilot projects are absent from the result.</p>
+     *
+     * @param copilotProfileIds the IDs of the copilot profiles
+     *
+     * @return the mapping from copilot profile ID to the mapping from copilot project status ID to the number of
+     *         copilot projects (not null)
+     *
+     * @throws IllegalArgumentException if copilotProfileIds is null or contains not positive ID
+     * @throws CopilotDAOException      if any error occurs during persistence operation
+     * @since 1.1
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, Map<Long, Integer>> getCopilotProjectCounts(long[] copilotProfileIds)
+        throws CopilotDAOException {
+        final String methodName = "getCopilotProjectCounts";
+        final long executionStart = System.currentTimeMillis();
+        Helper.logMethodEntered(getLog(), CLASS_NAME, methodName, new String[]{"copilotProfileIds"},
+                new Object[]{copilotProfileIds});
+
+        checkIds(copilotProfileIds, "copilotProfileIds", methodName);
+
+        try {
+            // gets current session
+            Session session = getSession();
+
+            Map<Long, Map<Long, Integer>> result = new HashMap<Long, Map<Long, Integer>>();
+            for (List<Long> ids : split(copilotProfileIds)) {
+                List<Object[]> rows = session.createSQLQuery(SELECT_COPILOT_PROJECT_COUNTS)
+                        .setParameterList("copilotProfileIds", ids)
+                        .list();
+                for (Object[] row : rows) {
+                    Long copilotProfileId = ((Number) row[0]).longValue();
+                    Map<Long, Integer> counts = result.get(copilotProfileId);
+                    if (counts == null) {
+                        counts = new HashMap<Long, Integer>();
+                        result.put(copilotProfileId, counts);
+                    }
+                    counts.put(((Number) row[1]).longValue(), ((Number) row[2]).intValue());
+                }
+            }
+
+            // logs method exit
+            Helper.logMethodExited(getLog(), CLASS_NAME, methodName, executionStart, result);
+
+            return result;
+        } catch (HibernateException e) {
+            CopilotDAOException exc = new CopilotDAOException(
+                    "Error occurred when retrieving copilot project counts", e);
+
+            Helper.logError(getLog(), MessageFormat.format(Helper.METHOD_ERROR, CLASS_NAME, methodName), exc);
+
+            throw exc;
+        } catch (CopilotDAOException e) {
+
+            Helper.logError(getLog(), MessageFormat.format(Helper.METHOD_ERROR, CLASS_NAME, methodName), e);
+
+            throw e;
+        }
+    }
+
+    /**
+     * <p>Checks if passed IDs are not null and positive. If not, IllegalArgumentException is logged and thrown.</p>
+     *
+     * @param ids        the IDs to check
+     * @param paramName  parameter name used in exception error message
+     * @param methodName method name
+     *
+     * @throws IllegalArgumentException if the IDs are null or any of them is not positive
+     * @since 1.1
+     */
+    private void checkIds(long[] ids, String paramName, String methodName) {
+        try {
+            Helper.checkIsNotNull(ids, paramName);
+        } catch (IllegalArgumentException e) {
+            Helper.logError(getLog(), MessageFormat.format(Helper.ILLEGAL_ARGUMENT, CLASS_NAME, methodName), e);
+            throw e;
+        }
+        for (long id : ids) {
+            Helper.checkIsPositive(getLog(), id, "Any element in " + paramName, CLASS_NAME, methodName);
+        }
+    }
+
+    /**
+     * <p>Splits the given IDs into the lists of at most {@link #MAX_IDS_PER_QUERY} distinct IDs.</p>
+     *
+     * @param ids the IDs
+     *
+     * @return the lists of IDs
+     * @since 1.1
+     */
+    private static List<List<Long>> split(long[] ids) {
+        List<List<Long>> result = new ArrayList<List<Long>>();
+        Set<Long> distinct = new HashSet<Long>();
+        List<Long> current = null;
+        for (long id : ids) {
+            if (!distinct.add(id)) {
+                continue;
+            }
+            if (current == null || current.size() == MAX_IDS_PER_QUERY) {
+                current = new ArrayList<Long>();
+                result.add(current);
+            }
+            current.add(id);
+        }
+        return result;
+    }
+
     /**
      * <p>Checks if passed parameter is positive. If property is less or equal to 0, then
      * CopilotDAOInitializationException is thrown.</p>
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.copilot.dto;
+
+import java.io.Serializable;
+
+/**
+ * <p>
+ * This class is a lightweight projection of a contest managed by a copilot in one of his copilot projects. It holds
+ * only the fields needed to calculate the copilot statistics, so the statistics of many copilots can be calculated
+ * without loading the full project graphs. It is a simple JavaBean (POJO) that provides getters and setters for all
+ * private attributes and performs no argument validation in the setters.
+ * </p>
+ * <p>
+ * <b>Thread Safety:</b> This class is mutable and not thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class CopilotContestInfo implements Serializable {
+    /**
+     * The serial version UID.
+     */
+    private static final long serialVersionUID = -6256332270409355554L;
+
+    /**
+     * The ID of the copilot profile. Can be any value. Has getter and setter.
+     */
+    private long copilotProfileId;
+
+    /**
+     * The ID of the copilot project the contest belongs to. Can be any value. Has getter and setter.
+     */
+    private long copilotProjectId;
+
+    /**
+     * The ID of the contest. Can be any value. Has getter and setter.
+     */
+    private long contestId;
+
+    /**
+     * The ID of the project category of the contest. Can be any value. Has getter and setter.
+     */
+    private long projectCategoryId;
+
+    /**
+     * The ID of the project status of the contest. Can be any value. Has getter and setter.
+     */
+    private long projectStatusId;
+
+    /**
+     * Whether the contest is a repost of another contest. Can be any value. Has getter and setter.
+     */
+    private boolean repost;
+
+    /**
+     * Creates an instance of CopilotContestInfo.
+     */
+    public CopilotContestInfo() {
+        // Do nothing
+    }
+
+    /**
+     * Retrieves the ID of the copilot profile.
+     *
+     * @return the ID of the copilot profile
+     */
+    public long getCopilotProfileId() {
+        return copilotProfileId;
+    }
+
+    /**
+     * Sets the ID of the copilot profile.
+     *
+     * @param copilotProfileId the ID of the copilot profile
+     */
+    public void setCopilotProfileId(long copilotProfileId) {
+        this.copilotProfileId = copilotProfileId;
+    }
+
+    /**
+     * Retrieves the ID of the copilot project the contest belongs to.
+     *
+     * @return the ID of the copilot project
+     */
+    public long getCopilotProjectId() {
+        return copilotProjectId;
+    }
+
+    /**
+     * Sets the ID of the copilot project the contest belongs to.
+     *
+     * @param copilotProjectId the ID of the copilot project
+     */
+    public void setCopilotProjectId(long copilotProjectId) {
+        this.copilotProjectId = copilotProjectId;
+    }
+
+    /**
+     * Retrieves the ID of the contest.
+     *
+     * @return the ID of the contest
+     */
+    public long getContestId() {
+        return contestId;
+    }
+
+    /**
+     * Sets the ID of the contest.
+     *
+     * @param contestId the ID of the contest
+     */
+    public void setContestId(long contestId) {
+        this.contestId = contestId;
+    }
+
+    /**
+     * Retrieves the ID of the project category of the contest.
+     *
+     * @return the ID of the project category
+     */
+    public long getProjectCategoryId() {
+        return projectCategoryId;
+    }
+
+    /**
+     * Sets the ID of the project category of the contest.
+     *
+     * @param projectCategoryId the ID of the project category
+     */
+    public void setProjectCategoryId(long projectCategoryId) {
+        this.projectCategoryId = projectCategoryId;
+    }
+
+    /**
+     * Retrieves the ID of the project status of the contest.
+     *
+     * @return the ID of the project status
+     */
+    public long getProjectStatusId() {
+        return projectStatusId;
+    }
+
+    /**
+     * Sets the ID of the project status of the contest.
+     *
+     * @param projectStatusId the ID of the project status
+     */
+    public void setProjectStatusId(long projectStatusId) {
+        this.projectStatusId = projectStatusId;
+    }
+
+    /**
+     * Retrieves whether the contest is a repost of another contest.
+     *
+     * @return true if the contest is a repost, false otherwise
+     */
+    public boolean isRepost() {
+        return repost;
+    }
+
+    /**
+     * Sets whether the contest is a repost of another contest.
+     *
+     * @param repost true if the contest is a repost, false otherwise
+     */
+    public void setRepost(boolean repost) {
+        this.repost = repost;
+    }
+}
@@ -9,6 +9,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 
@@ -21,6 +22,7 @@ import com.topcoder.direct.services.copilot.dao.CopilotProjectDAO;
 import com.topcoder.direct.services.copilot.dao.CopilotProjectPlanDAO;
 import com.topcoder.direct.services.copilot.dao.UtilityDAO;
 import com.topcoder.direct.services.copilot.dto.ContestTypeStat;
+import com.topcoder.direct.services.copilot.dto.CopilotContestInfo;
 import com.topcoder.direct.services.copilot.dto.CopilotPoolMember;
 import com.topcoder.direct.services.copilot.dto.CopilotProfileDTO;
 import com.topcoder.direct.services.copilot.model.CopilotProfile;
@@ -55,14 +57,25 @@ import com.topcoder.direct.services.copilot.model.PlannedContest;
  *
  * </p>
  * <p>
+ * Version 1.1 change notes:
+ * <ol>
+ *     <li>{@link #getCopilotPoolMembers()} calculates the statistics of all the copilots with two grouped queries
+ *     of {@link UtilityDAO} instead of loading the copilot projects, the contests and the contest links of each
+ *     copilot, so it doesn't use the ProjectManager and ProjectLinkManager anymore.</li>
+ *     <li>The copilot pool statistics are cached for poolStatsCacheTimeout milliseconds, the cache is invalidated
+ *     by {@link CopilotProjectServiceImpl} when a copilot project is created, updated or deleted.</li>
+ * </ol>
+ * </p>
+ * <p>
  * <b>Thread Safety:</b> This class has mutable attributes, thus it's not thread safe. But it's assumed that it will
  * be initialized via Spring IoC before calling any business method, this way it's always used in thread safe manner.
  * It uses thread safe DAOs and Log instances. Used instances of ProjectManager and ProjectLinkManager are not thread
- * safe, thus additional synchronization is used when accessing their methods.
+ * safe, thus additional synchronization is used when accessing their methods. The cached copilot pool statistics
+ * are immutable and replaced atomically.
  * </p>
  *
- * @author saarixx, TCSDEVELOPER
- * @version 1.0
+ * @author saarixx, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public class CopilotProfileServiceImpl extends BaseCopilotService<CopilotProfile> implements CopilotProfileService {
     /**
@@ -72,6 +85,64 @@ public class CopilotProfileServiceImpl extends BaseCopilotService<CopilotProfile
      */
     private CopilotProjectDAO copilotProjectDAO;
 
+    /**
+     * The version of the copilot projects, it's increased when a copilot project is created, updated or deleted so
+     * the copilot pool statistics cached before are not used anymore.
+     *
+     * @since 1.1
+     */
+    private static final AtomicLong COPILOT_PROJECTS_VERSION = new AtomicLong();
+
+    /**
+     * The time the copilot pool statistics are cached, in milliseconds. 0 means the statistics are not cached.
+     * Initialized by Spring setter injection, must not be negative (validation is performed in checkInit() method).
+     *
+     * @since 1.1
+     */
+    private long poolStatsCacheTimeout = 300000;
+
+    /**
+     * The cached copilot pool statistics, null if not calculated yet.
+     *
+     * @since 1.1
+     */
+    private volatile PoolStats poolStats;
+
+    /**
+     * The copilot pool statistics calculated at some time.
+     *
+     * @since 1.1
+     */
+    private static class PoolStats {
+        /**
+         * The statistics keyed by the copilot profile ID, the copilot profiles are not set.
+         */
+        private final Map<Long, CopilotPoolMember> members;
+
+        /**
+         * The version of the copilot projects the statistics were calculated for.
+         */
+        private final long version;
+
+        /**
+         * The time the statistics expire.
+         */
+        private final long expireTime;
+
+        /**
+         * Creates the statistics.
+         *
+         * @param members the statistics keyed by the copilot profile ID
+         * @param version the version of the copilot projects the statistics were calculated for
+         * @param expireTime the time the statistics expire
+         */
+        PoolStats(Map<Long, CopilotPoolMember> members, long version, long expireTime) {
+            this.members = members;
+            this.version = version;
+            this.expireTime = expireTime;
+        }
+    }
+
     /**
      * Creates an instance of CopilotProfileServiceImpl.
      */
@@ -92,6 +163,19 @@ public class CopilotProfileServiceImpl extends BaseCopilotService<CopilotProfile
             throw new CopilotServiceInitializationException("genericDAO should be an instance of CopilotProfileDAO.");
         }
         Helper.checkNullForInjectedValue(copilotProjectDAO, "copilotProjectDAO");
+        if (poolStatsCacheTimeout < 0) {
+            throw new CopilotServiceInitializationException("poolStatsCacheTimeout should not be negative.");
+        }
+    }
+
+    /**
+     * Invalidates the cached copilot pool statistics of all the instances of this class. It's called when a copilot
+     * project is created, updated or deleted.
+     *
+     * @since 1.1
+     */
+    static void invalidateCopilotPoolStats() {
+        COPILOT_PROJECTS_VERSION.incrementAndGet();
     }
 
     /**
@@ -108,12 +192,24 @@ public class CopilotProfileServiceImpl extends BaseCopilotService<CopilotProfile
             CopilotProfileDAO copilotProfileDAO = (CopilotProfileDAO) getGenericDAO();
             // Retrieve all copilot profiles
             List<CopilotProfile> copilotProfiles = copilotProfileDAO.retrieveAll();
+            // Get the statistics of all the copilots at once
+            Map<Long, CopilotPoolMember> stats = getCopilotPoolStats(copilotProfiles, method);
             List<CopilotPoolMember> result = new ArrayList<CopilotPoolMember>();
             for (CopilotProfile copilotProfile : copilotProfiles) {
                 // Create copilot pool member instance
                 CopilotPoolMember copilotPoolMember = new CopilotPoolMember();
-                // Populate this copilot pool member instance
-                populateCopilotPoolMember(copilotPoolMember, copilotProfile, method);
+                copilotPoolMember.setCopilotProfile(copilotProfile);
+                // Copy the statistics of this copilot
+                CopilotPoolMember stat = stats.get(copilotProfile.getId());
+                if (stat != null) {
+                    copilotPoolMember.setTotalProjects(stat.getTotalProjects());
+                    copilotPoolMember.setCurrentProjects(stat.getCurrentProjects());
+                    copilotPoolMember.setTotalContests(stat.getTotalContests());
+                    copilotPoolMember.setTotalRepostedContests(stat.getTotalRepostedContests());
+                    copilotPoolMember.setTotalFailedContests(stat.getTotalFailedContests());
+                    copilotPoolMember.setTotalBugRaces(stat.getTotalBugRaces());
+                    copilotPoolMember.setCurrentContests(stat.getCurrentContests());
+                }
                 // Add copilot pool member to the result list
                 result.add(copilotPoolMember);
             }
@@ -188,6 +284,97 @@ public class CopilotProfileServiceImpl extends BaseCopilotService<CopilotProfile
         }
     }
 
+    /**
+     * Retrieves the statistics of the given copilots, from the cache if they are cached and the copilot projects
+     * didn't change since.
+     *
+     * @param copilotProfiles the copilot profiles
+     * @param method the method name
+     * @return the statistics keyed by the copilot profile ID (not null, the copilot profiles are not set)
+     * @throws CopilotServiceException if any error occurred
+     * @since 1.1
+     */
+    private Map<Long, CopilotPoolMember> getCopilotPoolStats(List<CopilotProfile> copilotProfiles, String method)
+        throws CopilotServiceException {
+        long now = System.currentTimeMillis();
+        long version = COPILOT_PROJECTS_VERSION.get();
+        long[] copilotProfileIds = new long[copilotProfiles.size()];
+        for (int i = 0; i < copilotProfileIds.length; i++) {
+            copilotProfileIds[i] = copilotProfiles.get(i).getId();
+        }
+        PoolStats cached = poolStats;
+        if (cached != null && cached.version == version && cached.expireTime > now) {
+            boolean complete = true;
+            for (long copilotProfileId : copilotProfileIds) {
+                if (!cached.members.containsKey(copilotProfileId)) {
+                    complete = false;
+                    break;
+                }
+            }
+            if (complete) {
+                return cached.members;
+            }
+        }
+        try {
+            Map<Long, CopilotPoolMember> members = calculateCopilotPoolStats(copilotProfileIds);
+            if (poolStatsCacheTimeout > 0) {
+                // a copilot project changed during the calculation makes the version stale, so it's not used
+                poolStats = new PoolStats(members, version, now + poolStatsCacheTimeout);
+            }
+            return members;
+        } catch (CopilotDAOException e) {
+            throw Helper.logError(new CopilotServiceException("Error occurred when calling underlying DAO methods.",
+                e), method, getLog());
+        }
+    }
+
+    /**
+     * Calculates the statistics of the given copilots with the grouped queries of the utility DAO.
+     *
+     * @param copilotProfileIds the IDs of the copilot profiles
+     * @return the statistics keyed by the copilot profile ID (not null, the copilot profiles are not set)
+     * @throws CopilotDAOException if any error occurs while calling the utility DAO
+     * @since 1.1
+     */
+    private Map<Long, CopilotPoolMember> calculateCopilotPoolStats(long[] copilotProfileIds)
+        throws CopilotDAOException {
+        Map<Long, CopilotPoolMember> members = new HashMap<Long, CopilotPoolMember>();
+        for (long copilotProfileId : copilotProfileIds) {
+            members.put(copilotProfileId, new CopilotPoolMember());
+        }
+        Map<Long, Map<Long, Integer>> projectCounts = getUtilityDAO().getCopilotProjectCounts(copilotProfileIds);
+        for (Map.Entry<Long, Map<Long, Integer>> entry : projectCounts.entrySet()) {
+            CopilotPoolMember member = members.get(entry.getKey());
+            if (member == null) {
+                continue;
+            }
+            for (Map.Entry<Long, Integer> count : entry.getValue().entrySet()) {
+                member.setTotalProjects(member.getTotalProjects() + count.getValue());
+                if (count.getKey() == getActiveCopilotProjectStatusId()) {
+                    member.setCurrentProjects(member.getCurrentProjects() + count.getValue());
+                }
+            }
+        }
+        for (CopilotContestInfo contest : getUtilityDAO().getCopilotContests(copilotProfileIds)) {
+            CopilotPoolMember member = members.get(contest.getCopilotProfileId());
+            if (member == null) {
+                continue;
+            }
+            if (contest.isRepost()) {
+                member.setTotalRepostedContests(member.getTotalRepostedContests() + 1);
+            } else {
+                member.setTotalContests(member.getTotalContests() + 1);
+            }
+            long projectStatusId = contest.getProjectStatusId();
+            if (projectStatusId == getActiveProjectStatusId()) {
+                member.setCurrentContests(member.getCurrentContests() + 1);
+            } else if (getFailedProjectStatusIds().contains(projectStatusId)) {
+                member.setTotalFailedContests(member.getTotalFailedContests() + 1);
+            }
+        }
+        return members;
+    }
+
     /**
      * Acquires contest id list.
      *
@@ -343,4 +530,24 @@ public class CopilotProfileServiceImpl extends BaseCopilotService<CopilotProfile
     public void setCopilotProjectDAO(CopilotProjectDAO copilotProjectDAO) {
         this.copilotProjectDAO = copilotProjectDAO;
     }
+
+    /**
+     * Retrieves the time the copilot pool statistics are cached.
+     *
+     * @return the time in milliseconds, 0 if the statistics are not cached
+     * @since 1.1
+     */
+    public long getPoolStatsCacheTimeout() {
+        return poolStatsCacheTimeout;
+    }
+
+    /**
+     * Sets the time the copilot pool statistics are cached.
+     *
+     * @param poolStatsCacheTimeout the time in milliseconds, 0 if the statistics should not be cached
+     * @since 1.1
+     */
+    public void setPoolStatsCacheTimeout(long poolStatsCacheTimeout) {
+        this.poolStatsCacheTimeout = poolStatsCacheTimeout;
+    }
 }
@@ -12,7 +12,10 @@ import java.util.Set;
 
 import javax.annotation.PostConstruct;
 
+import org.springframework.transaction.annotation.Transactional;
+
 import com.topcoder.direct.services.copilot.CopilotProjectService;
+import com.topcoder.direct.services.copilot.CopilotServiceEntityNotFoundException;
 import com.topcoder.direct.services.copilot.CopilotServiceException;
 import com.topcoder.direct.services.copilot.CopilotServiceInitializationException;
 import com.topcoder.direct.services.copilot.dao.CopilotDAOException;
@@ -53,14 +56,21 @@ import com.topcoder.project.phases.Project;
  *
  * </p>
  * <p>
+ * Version 1.1 change notes:
+ * <ol>
+ *     <li>{@link #create(CopilotProject)}, {@link #update(CopilotProject)} and {@link #delete(long)} invalidate the
+ *     copilot pool statistics cached by {@link CopilotProfileServiceImpl}.</li>
+ * </ol>
+ * </p>
+ * <p>
  * <b>Thread Safety:</b> This class has mutable attributes, thus it's not thread safe. But it's assumed that it will
  * be initialized via Spring IoC before calling any business method, this way it's always used in thread safe manner.
  * It uses thread safe DAOs and Log instances. Used instances of ProjectManager and ProjectLinkManager are not thread
  * safe, thus additional synchronization is used when accessing their methods.
  * </p>
  *
- * @author saarixx, TCSDEVELOPER
- * @version 1.0
+ * @author saarixx, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public class CopilotProjectServiceImpl extends BaseCopilotService<CopilotProject> implements CopilotProjectService {
     /**
@@ -99,6 +109,61 @@ public class CopilotProjectServiceImpl extends BaseCopilotService<CopilotProject
         Helper.checkNullForInjectedValue(phaseManager, "phaseManager");
     }
 
+    /**
+     * Creates the given copilot project in the persistence and invalidates the cached copilot pool statistics.
+     *
+     * @param entity the copilot project to be created in the persistence
+     * @return the generated copilot project ID
+     * @throws IllegalArgumentException if entity is null
+     * @throws CopilotServiceException if some other error occurred
+     * @since 1.1
+     */
+    @Transactional
+    public long create(CopilotProject entity) throws CopilotServiceException {
+        try {
+            return super.create(entity);
+        } finally {
+            CopilotProfileServiceImpl.invalidateCopilotPoolStats();
+        }
+    }
+
+    /**
+     * Updates the given copilot project in the persistence and invalidates the cached copilot pool statistics.
+     *
+     * @param entity the copilot project to be updated in the persistence
+     * @throws IllegalArgumentException if entity is null or entity.getId() <= 0
+     * @throws CopilotServiceEntityNotFoundException if entity with the same ID cannot be found in the persistence
+     * @throws CopilotServiceException if some other error occurred
+     * @since 1.1
+     */
+    @Transactional
+    public void update(CopilotProject entity) throws CopilotServiceException {
+        try {
+            super.update(entity);
+        } finally {
+            CopilotProfileServiceImpl.invalidateCopilotPoolStats();
+        }
+    }
+
+    /**
+     * Deletes the copilot project with the given ID from the persistence and invalidates the cached copilot pool
+     * statistics.
+     *
+     * @param entityId the ID of the copilot project to be deleted
+     * @throws IllegalArgumentException if entityId <= 0
+     * @throws CopilotServiceEntityNotFoundException if entity with the given ID doesn't exist in the persistence
+     * @throws CopilotServiceException if some other error occurred
+     * @since 1.1
+     */
+    @Transactional
+    public void delete(long entityId) throws CopilotServiceException {
+        try {
+            super.delete(entityId);
+        } finally {
+            CopilotProfileServiceImpl.invalidateCopilotPoolStats();
+        }
+    }
+
     /**
      * Retrieves the copilot projects for the copilot with the specified profile ID. Returns an empty list if the
      * copilot has no associated projects.
@@ -5,8 +5,13 @@ package com.topcoder.direct.services.copilot.accuracytests;
 
 import com.topcoder.direct.services.copilot.dao.CopilotDAOException;
 import com.topcoder.direct.services.copilot.dao.UtilityDAO;
+import com.topcoder.direct.services.copilot.dto.CopilotContestInfo;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -70,4 +75,31 @@ public class MockutilityDAO implements UtilityDAO {
         throws CopilotDAOException {
         return new long[] { 1, 2 };
     }
+
+    /**
+     * Mock for testing!
+     *
+     * @param copilotProfileIds Mock for testing!
+     *
+     * @return Mock for testing!
+     *
+     * @throws CopilotDAOException Mock for testing!
+     */
+    public List<CopilotContestInfo> getCopilotContests(long[] copilotProfileIds) throws CopilotDAOException {
+        return new ArrayList<CopilotContestInfo>();
+    }
+
+    /**
+     * Mock for testing!
+     *
+     * @param copilotProfileIds Mock for testing!
+     *
+     * @return Mock for testing!
+     *
+     * @throws CopilotDAOException Mock for testing!
+     */
+    public Map<Long, Map<Long, Integer>> getCopilotProjectCounts(long[] copilotProfileIds)
+        throws CopilotDAOException {
+        return new HashMap<Long, Map<Long, Integer>>();
+    }
 }
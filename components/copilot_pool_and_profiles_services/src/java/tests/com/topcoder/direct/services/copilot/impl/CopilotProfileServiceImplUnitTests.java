@@ -3,6 +3,7 @@
  */
 package com.topcoder.direct.services.copilot.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -10,6 +11,7 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +31,7 @@ import com.topcoder.direct.services.copilot.dao.CopilotProjectDAO;
 import com.topcoder.direct.services.copilot.dao.CopilotProjectPlanDAO;
 import com.topcoder.direct.services.copilot.dao.GenericDAO;
 import com.topcoder.direct.services.copilot.dao.UtilityDAO;
+import com.topcoder.direct.services.copilot.dto.CopilotContestInfo;
 import com.topcoder.direct.services.copilot.dto.CopilotPoolMember;
 import com.topcoder.direct.services.copilot.dto.CopilotProfileDTO;
 import com.topcoder.direct.services.copilot.model.CopilotProfile;
@@ -43,8 +46,16 @@ import com.topcoder.management.project.link.ProjectLinkManager;
 /**
  * Unit tests for {@link CopilotProfileServiceImpl}.
  *
- * @author TCSDEVELOPER
- * @version 1.0
+ * <p>
+ * Version 1.1 change notes:
+ * <ol>
+ *     <li>Updated the tests of {@link CopilotProfileServiceImpl#getCopilotPoolMembers} for the statistics
+ *     calculated in bulk and cached.</li>
+ * </ol>
+ * </p>
+ *
+ * @author TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public class CopilotProfileServiceImplUnitTests {
 
@@ -88,39 +99,84 @@ public class CopilotProfileServiceImplUnitTests {
      *
      * @throws Exception to JUnit
      */
-    @SuppressWarnings("unchecked")
     @Test
     public void testGetCopilotPoolMembers() throws Exception {
-        instance =
-            EasyMock.createMockBuilder(CopilotProfileServiceImpl.class).addMockedMethod("calculateContestsStat")
-                .addMockedMethod("countPlannedContestInStats").createMock();
+        instance.setPoolStatsCacheTimeout(0);
+        instance.setActiveProjectStatusId(1);
+        instance.setFailedProjectStatusIds(Arrays.asList(4L, 5L));
+        instance.setActiveCopilotProjectStatusId(1);
         CopilotProfileDAO copilotProfileDAO = EasyMock.createMock(CopilotProfileDAO.class);
         instance.setGenericDAO(copilotProfileDAO);
         List<CopilotProfile> copilotProfiles = new ArrayList<CopilotProfile>();
         CopilotProfile copilotProfile = new CopilotProfile();
-
+        copilotProfile.setId(1);
         copilotProfiles.add(copilotProfile);
+        CopilotProfile copilotProfile2 = new CopilotProfile();
+        copilotProfile2.setId(2);
+        copilotProfiles.add(copilotProfile2);
         EasyMock.expect(copilotProfileDAO.retrieveAll()).andReturn(copilotProfiles);
 
-        List<CopilotProject> copilotProjects = new ArrayList<CopilotProject>();
-        CopilotProject copilotProject = new CopilotProject();
-        copilotProjects.add(copilotProject);
-        copilotProject.setStatus(new CopilotProjectStatus());
-        CopilotProjectDAO copilotProjectDAO = EasyMock.createMock(CopilotProjectDAO.class);
-        instance.setCopilotProjectDAO(copilotProjectDAO);
-        EasyMock.expect(copilotProjectDAO.getCopilotProjects(0)).andReturn(copilotProjects);
-
         UtilityDAO utilityDAO = EasyMock.createMock(UtilityDAO.class);
         instance.setUtilityDAO(utilityDAO);
-        EasyMock.expect(utilityDAO.getCopilotProjectContests(0, 0)).andReturn(new long[] {1});
-        EasyMock.expect(
-            instance.calculateContestsStat(EasyMock.capture(new Capture<List>()), EasyMock
-                .capture(new Capture<Map>()))).andReturn(new ContestsStat());
-        EasyMock.replay(copilotProfileDAO, copilotProjectDAO, utilityDAO, instance);
+        Map<Long, Map<Long, Integer>> projectCounts = new HashMap<Long, Map<Long, Integer>>();
+        projectCounts.put(1L, new HashMap<Long, Integer>());
+        projectCounts.get(1L).put(1L, 2);
+        projectCounts.get(1L).put(2L, 1);
+        EasyMock.expect(utilityDAO.getCopilotProjectCounts(EasyMock.aryEq(new long[] {1, 2})))
+            .andReturn(projectCounts);
+        List<CopilotContestInfo> contests = new ArrayList<CopilotContestInfo>();
+        contests.add(createContest(1, 1, false));
+        contests.add(createContest(1, 4, false));
+        contests.add(createContest(1, 7, true));
+        EasyMock.expect(utilityDAO.getCopilotContests(EasyMock.aryEq(new long[] {1, 2}))).andReturn(contests);
+        EasyMock.replay(copilotProfileDAO, utilityDAO);
         List<CopilotPoolMember> result = instance.getCopilotPoolMembers();
-        assertTrue("size should be 1.", result.size() == 1);
-        assertTrue("should be same with copilotProfile.", result.get(0).getCopilotProfile() == copilotProfile);
-        EasyMock.verify(copilotProfileDAO, copilotProjectDAO, utilityDAO, instance);
+        assertTrue("size should be 2.", result.size() == 2);
+        CopilotPoolMember member = result.get(0);
+        assertTrue("should be same with copilotProfile.", member.getCopilotProfile() == copilotProfile);
+        assertEquals("totalProjects should be 3.", 3, member.getTotalProjects());
+        assertEquals("currentProjects should be 2.", 2, member.getCurrentProjects());
+        assertEquals("totalContests should be 2.", 2, member.getTotalContests());
+        assertEquals("totalRepostedContests should be 1.", 1, member.getTotalRepostedContests());
+        assertEquals("totalFailedContests should be 1.", 1, member.getTotalFailedContests());
+        assertEquals("currentContests should be 1.", 1, member.getCurrentContests());
+        member = result.get(1);
+        assertTrue("should be same with copilotProfile2.", member.getCopilotProfile() == copilotProfile2);
+        assertEquals("totalProjects should be 0.", 0, member.getTotalProjects());
+        assertEquals("totalContests should be 0.", 0, member.getTotalContests());
+        EasyMock.verify(copilotProfileDAO, utilityDAO);
+    }
+
+    /**
+     * Accuracy test for {@link CopilotProfileServiceImpl#getCopilotPoolMembers}. The statistics should be cached
+     * until a copilot project changes.
+     *
+     * @throws Exception to JUnit
+     */
+    @Test
+    public void testGetCopilotPoolMembersCache() throws Exception {
+        instance.setActiveProjectStatusId(1);
+        instance.setFailedProjectStatusIds(Arrays.asList(4L, 5L));
+        instance.setActiveCopilotProjectStatusId(1);
+        CopilotProfileDAO copilotProfileDAO = EasyMock.createMock(CopilotProfileDAO.class);
+        instance.setGenericDAO(copilotProfileDAO);
+        CopilotProfile copilotProfile = new CopilotProfile();
+        copilotProfile.setId(1);
+        EasyMock.expect(copilotProfileDAO.retrieveAll()).andReturn(Arrays.asList(copilotProfile)).times(3);
+        UtilityDAO utilityDAO = EasyMock.createMock(UtilityDAO.class);
+        instance.setUtilityDAO(utilityDAO);
+        EasyMock.expect(utilityDAO.getCopilotProjectCounts(EasyMock.aryEq(new long[] {1})))
+            .andReturn(new HashMap<Long, Map<Long, Integer>>()).times(2);
+        EasyMock.expect(utilityDAO.getCopilotContests(EasyMock.aryEq(new long[] {1})))
+            .andReturn(Arrays.asList(createContest(1, 1, false))).times(2);
+        EasyMock.replay(copilotProfileDAO, utilityDAO);
+        assertEquals("totalContests should be 1.", 1, instance.getCopilotPoolMembers().get(0).getTotalContests());
+        // cached
+        assertEquals("totalContests should be 1.", 1, instance.getCopilotPoolMembers().get(0).getTotalContests());
+        CopilotProfileServiceImpl.invalidateCopilotPoolStats();
+        // calculated again
+        assertEquals("totalContests should be 1.", 1, instance.getCopilotPoolMembers().get(0).getTotalContests());
+        EasyMock.verify(copilotProfileDAO, utilityDAO);
     }
 
     /**
@@ -466,4 +522,22 @@ public class CopilotProfileServiceImplUnitTests {
         instance.setGenericDAO(EasyMock.createMock(GenericDAO.class));
         instance.checkInit();
     }
+
+    /**
+     * Creates a contest of the copilot with ID=1.
+     *
+     * @param contestId the ID of the contest
+     * @param projectStatusId the ID of the project status of the contest
+     * @param repost whether the contest is a repost
+     * @return the contest
+     */
+    private static CopilotContestInfo createContest(long contestId, long projectStatusId, boolean repost) {
+        CopilotContestInfo contest = new CopilotContestInfo();
+        contest.setCopilotProfileId(1);
+        contest.setCopilotProjectId(1);
+        contest.setContestId(contestId);
+        contest.setProjectStatusId(projectStatusId);
+        contest.setRepost(repost);
+        return contest;
+    }
 }
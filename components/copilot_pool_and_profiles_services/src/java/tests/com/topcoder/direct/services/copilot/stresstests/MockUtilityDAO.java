@@ -1,9 +1,14 @@
 package com.topcoder.direct.services.copilot.stresstests;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import com.topcoder.direct.services.copilot.dao.CopilotDAOException;
 import com.topcoder.direct.services.copilot.dao.UtilityDAO;
+import com.topcoder.direct.services.copilot.dto.CopilotContestInfo;
 
 public class MockUtilityDAO implements UtilityDAO {
 
@@ -23,4 +28,13 @@ public class MockUtilityDAO implements UtilityDAO {
         return null;
     }
 
+    public List<CopilotContestInfo> getCopilotContests(long[] copilotProfileIds) throws CopilotDAOException {
+        return new ArrayList<CopilotContestInfo>();
+    }
+
+    public Map<Long, Map<Long, Integer>> getCopilotProjectCounts(long[] copilotProfileIds)
+        throws CopilotDAOException {
+        return new HashMap<Long, Map<Long, Integer>>();
+    }
+
 }
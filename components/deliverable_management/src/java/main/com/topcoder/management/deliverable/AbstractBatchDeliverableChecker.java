@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.management.deliverable;
+
+import com.topcoder.management.deliverable.persistence.DeliverableCheckingException;
+
+/**
+ * <p>
+ * The base class of the BatchDeliverableChecker implementations. The single deliverable check falls back to the
+ * batch check with a single element array, so the implementations only have to implement the batch check.
+ * </p>
+ * <p>
+ * This class is thread safe if the batch check of the subclass is.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public abstract class AbstractBatchDeliverableChecker implements BatchDeliverableChecker {
+    /**
+     * Creates a new AbstractBatchDeliverableChecker.
+     */
+    protected AbstractBatchDeliverableChecker() {
+    }
+
+    /**
+     * Checks the given deliverable to see if it is complete, using the batch check.
+     *
+     * @param deliverable The deliverable to check
+     * @throws IllegalArgumentException If deliverable is null
+     * @throws DeliverableCheckingException If there is an error when determining whether a
+     *             Deliverable has been completed or not
+     */
+    public void check(Deliverable deliverable) throws DeliverableCheckingException {
+        if (deliverable == null) {
+            throw new IllegalArgumentException("deliverable should not be null.");
+        }
+
+        check(new Deliverable[] {deliverable});
+    }
+}
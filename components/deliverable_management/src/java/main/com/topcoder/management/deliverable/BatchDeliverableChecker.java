@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.management.deliverable;
+
+import com.topcoder.management.deliverable.persistence.DeliverableCheckingException;
+
+/**
+ * <p>
+ * The BatchDeliverableChecker interface extends DeliverableChecker with the checking of many deliverables at once.
+ * PersistenceDeliverableManager groups the deliverables it loads by checker and passes all the deliverables of a
+ * checker to this method in one call, so an implementation can decide the completion of the deliverables of whole
+ * projects or phase sets with a single set query instead of one query per deliverable.
+ * </p>
+ * <p>
+ * Implementations should make <code>check(Deliverable)</code> delegate to <code>check(Deliverable[])</code> with a
+ * single element array, see {@link AbstractBatchDeliverableChecker}.
+ * </p>
+ * <p>
+ * Implementations of this interface are not required to be thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public interface BatchDeliverableChecker extends DeliverableChecker {
+    /**
+     * Checks the given deliverables to see if they are complete, setting the completion date of the completed ones.
+     * The deliverables may belong to different projects, phases and resources.
+     *
+     * @param deliverables The deliverables to check
+     * @throws IllegalArgumentException If deliverables is null or contains null elements
+     * @throws DeliverableCheckingException If there is an error when determining whether the
+     *             Deliverables have been completed or not
+     */
+    public void check(Deliverable[] deliverables) throws DeliverableCheckingException;
+}
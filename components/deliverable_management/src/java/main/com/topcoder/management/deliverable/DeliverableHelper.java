@@ -3,12 +3,16 @@
  */
 package com.topcoder.management.deliverable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import com.topcoder.management.deliverable.logging.LogMessage;
+import com.topcoder.management.deliverable.persistence.DeliverableCheckingException;
 import com.topcoder.search.builder.SearchBuilderConfigurationException;
 import com.topcoder.search.builder.SearchBundle;
 import com.topcoder.util.datavalidator.IntegerValidator;
@@ -42,10 +46,16 @@ import com.topcoder.util.sql.databaseabstraction.NullColumnValueException;
  * PersistenceDeliverableManager class since they are only used there.</li>
  * </ul>
  * </p>
+ * <p>
+ * <em>Changes in 1.3:</em>
+ * <ul>
+ * <li>Added checkDeliverables method running the deliverable checkers in bulk.</li>
+ * </ul>
+ * </p>
  *
  * @author singlewood, sparemax
- * @author TCSDEVELOPER
- * @version 1.2
+ * @author TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.3
  */
 public final class DeliverableHelper {
 
@@ -161,6 +171,58 @@ public final class DeliverableHelper {
 
     }
 
+    /**
+     * Runs the deliverable checkers on the given deliverables. The deliverables are grouped by the checker
+     * registered for their name; a {@link BatchDeliverableChecker} checks all of its deliverables in one call, any
+     * other checker checks them one by one. Deliverables without a checker are not checked.
+     *
+     * @param deliverables
+     *            the deliverables to check.
+     * @param deliverableCheckers
+     *            the checkers by deliverable name.
+     * @param logger
+     *            the Log instance.
+     * @throws IllegalArgumentException
+     *             if the name of a deliverable is null.
+     * @throws DeliverableCheckingException
+     *             if there is an error when determining whether a Deliverable has been completed or not.
+     * @since 1.3
+     */
+    public static void checkDeliverables(Deliverable[] deliverables,
+        Map<String, DeliverableChecker> deliverableCheckers, Log logger) throws DeliverableCheckingException {
+        // The same checker may be registered under several names, so group by checker instance.
+        Map<DeliverableChecker, List<Deliverable>> groups =
+            new IdentityHashMap<DeliverableChecker, List<Deliverable>>();
+
+        for (Deliverable deliverable : deliverables) {
+            String name = deliverable.getName();
+            checkObjectNotNullFullDesp(name, "name in the deliverable can't be null.", logger);
+
+            DeliverableChecker checker = deliverableCheckers.get(name);
+            if (checker != null) {
+                List<Deliverable> group = groups.get(checker);
+                if (group == null) {
+                    group = new ArrayList<Deliverable>();
+                    groups.put(checker, group);
+                }
+                group.add(deliverable);
+            }
+        }
+
+        for (Entry<DeliverableChecker, List<Deliverable>> entry : groups.entrySet()) {
+            DeliverableChecker checker = entry.getKey();
+            List<Deliverable> group = entry.getValue();
+
+            if (checker instanceof BatchDeliverableChecker) {
+                ((BatchDeliverableChecker) checker).check(group.toArray(new Deliverable[group.size()]));
+            } else {
+                for (Deliverable deliverable : group) {
+                    checker.check(deliverable);
+                }
+            }
+        }
+    }
+
     /**
      * Check if the object is a CustomResultSet. If true, then check if the CustomResultSet's record
      * count equals count. If all ok, it will return a long[][] array that retrieved from CustomResultSet.
@@ -89,9 +89,18 @@ import java.util.Map.Entry;
  * </ul>
  * </p>
  *
+ * <p>
+ * <em>Changes in 1.3:</em>
+ * <ul>
+ * <li>the loaded deliverables are grouped by checker and checked in bulk by the {@link BatchDeliverableChecker}s,
+ * so they can decide the completion of all the deliverables with one query instead of one query per
+ * deliverable.</li>
+ * </ul>
+ * </p>
+ *
  * @author aubergineanode, singlewood, saarixx, sparemax, isv
- * @author TCSDESIGNER, TCSDEVELOPER
- * @version 1.2
+ * @author TCSDESIGNER, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.3
  */
 public class PersistenceDeliverableManager implements DeliverableManager {
 
@@ -313,6 +322,13 @@ public class PersistenceDeliverableManager implements DeliverableManager {
      * </ul>
      * </p>
      *
+     * <p>
+     * Changes in version 1.3:
+     * <ul>
+     * <li>the deliverables are checked in bulk, grouped by checker.</li>
+     * </ul>
+     * </p>
+     *
      * @param filter The filter to use
      * @param complete True to include only those deliverables that have been completed, false to
      *            include only those deliverables that are not complete, null to include both
@@ -356,27 +372,14 @@ public class PersistenceDeliverableManager implements DeliverableManager {
             deliverableArray = persistence.loadDeliverables(array[0], array[1], array[2], array[NUM_3]);
         }
 
+        // Run the DeliverableChecker found for the name of each deliverable, all the deliverables
+        // of a checker at once. The deliverables without checker are not checked.
+        DeliverableHelper.checkDeliverables(deliverableArray, deliverableCheckers, LOGGER);
+
         // For each deliverable in deliverableArray
         for (int i = 0, n = deliverableArray.length; i < n; i++) {
-
-            LOGGER.log(Level.INFO, "Loading Deliverable Array");
-
             Deliverable deliverable = deliverableArray[i];
 
-            // Get the name of deliverable. This can not be null, if it is, throw a
-            // DeliverablePersistenceException.
-            String name = deliverable.getName();
-            DeliverableHelper.checkObjectNotNullFullDesp(name, "name in the deliverable can't be null.", LOGGER);
-
-            // Look up the deliverable checker with the name.
-            DeliverableChecker deliverableChecker = (DeliverableChecker) deliverableCheckers.get(name);
-
-            // If DeliverableChecker is found for the name, run the retrieved DeliverableChecker
-            // on the deliverable. Otherwise do not check the deliverable.
-            if (deliverableChecker != null) {
-                deliverableChecker.check(deliverable);
-            }
-
             // If the isCompleted property of the deliverable matches the complete argument
             // (when complete is not null), then add the deliverable to the return array.
             // When complete is null, the deliverable is always added to the return array.
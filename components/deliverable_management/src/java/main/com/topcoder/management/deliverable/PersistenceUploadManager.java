@@ -15,9 +15,9 @@ import com.topcoder.search.builder.SearchBuilderException;
 import com.topcoder.search.builder.SearchBundle;
 import com.topcoder.search.builder.SearchBundleManager;
 import com.topcoder.search.builder.filter.Filter;
+import com.topcoder.service.util.idgenerator.BlockIDGeneratorFactory;
 import com.topcoder.util.idgenerator.IDGenerationException;
 import com.topcoder.util.idgenerator.IDGenerator;
-import com.topcoder.util.idgenerator.IDGeneratorFactory;
 import com.topcoder.util.log.Level;
 import com.topcoder.util.log.Log;
 import com.topcoder.util.log.LogManager;
@@ -225,13 +225,28 @@ import com.topcoder.util.sql.databaseabstraction.CustomResultSet;
  * </p>
  *
  * <p>
+ * Changes in 1.5:
+ * <ul>
+ * <li>The SearchBundleManager constructor takes the id generators from {@link BlockIDGeneratorFactory}, which
+ * reserves the ids in blocks.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Changes in 1.6:
+ * <ul>
+ * <li>Added {@link #supersedeSubmissions(long, long, SubmissionStatus, String)} method.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
  * <strong>Thread Safety: </strong> This class is immutable and hence thread-safe.
  * </p>
  *
  * @author aubergineanode, singlewood, George1
  * @author saarixx, sparemax
- * @author TCSDESIGNER, TCSDEVELOPER
- * @version 1.4
+ * @author TCSDESIGNER, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.6
  */
 public class PersistenceUploadManager implements UploadManager {
     /**
@@ -476,19 +491,20 @@ public class PersistenceUploadManager implements UploadManager {
     public PersistenceUploadManager(UploadPersistence persistence, SearchBundleManager searchBundleManager)
         throws IDGenerationException {
         // Check if searchBundleManager is null, if not, get the SearchBundles.
-        // Get IDGenerator from IDGeneratorFactory. If any id generator is not available under
+        // Get IDGenerator from BlockIDGeneratorFactory. If any id generator is not available under
         // the required names, IDGenerationException will be thrown.
         // Finally, delegate to the first constructor.
         this(
                 persistence,
                 (DeliverableHelper.checkObjectNotNull(searchBundleManager, "searchBundleManager", LOGGER)) ?
                             searchBundleManager.getSearchBundle(UPLOAD_SEARCH_BUNDLE_NAME)
-                        : null, searchBundleManager.getSearchBundle(SUBMISSION_SEARCH_BUNDLE_NAME), IDGeneratorFactory
-                        .getIDGenerator(UPLOAD_ID_GENERATOR_NAME), IDGeneratorFactory
-                        .getIDGenerator(UPLOAD_TYPE_ID_GENERATOR_NAME), IDGeneratorFactory
-                        .getIDGenerator(UPLOAD_STATUS_ID_GENERATOR_NAME), IDGeneratorFactory
-                        .getIDGenerator(SUBMISSION_ID_GENERATOR_NAME), IDGeneratorFactory
-                        .getIDGenerator(SUBMISSION_STATUS_ID_GENERATOR_NAME), IDGeneratorFactory
+                        : null, searchBundleManager.getSearchBundle(SUBMISSION_SEARCH_BUNDLE_NAME),
+                BlockIDGeneratorFactory
+                        .getIDGenerator(UPLOAD_ID_GENERATOR_NAME), BlockIDGeneratorFactory
+                        .getIDGenerator(UPLOAD_TYPE_ID_GENERATOR_NAME), BlockIDGeneratorFactory
+                        .getIDGenerator(UPLOAD_STATUS_ID_GENERATOR_NAME), BlockIDGeneratorFactory
+                        .getIDGenerator(SUBMISSION_ID_GENERATOR_NAME), BlockIDGeneratorFactory
+                        .getIDGenerator(SUBMISSION_STATUS_ID_GENERATOR_NAME), BlockIDGeneratorFactory
                         .getIDGenerator(SUBMISSION_TYPE_ID_GENERATOR_NAME));
     }
 
@@ -1308,6 +1324,40 @@ public class PersistenceUploadManager implements UploadManager {
         return persistence.getImagesForSubmission(submissionId);
     }
 
+    /**
+     * Sets the given status to all the submissions of the resource with the given ID, except the submission with the
+     * given ID and the submissions already having the given status, with a single update.
+     *
+     * @param resourceId
+     *            the ID of the resource owning the submissions
+     * @param submissionId
+     *            the ID of the submission to keep
+     * @param submissionStatus
+     *            the status to set (usually "Deleted")
+     * @param operator
+     *            the name of the operator making the change to the persistence store
+     * @return the number of updated submissions
+     * @throws IllegalArgumentException
+     *             if resourceId <= 0, submissionId <= 0, submissionStatus or operator is null, or the id of
+     *             submissionStatus is UNSET_ID
+     * @throws UploadPersistenceException
+     *             if some error occurred when accessing the persistence
+     * @since 1.6
+     */
+    public int supersedeSubmissions(long resourceId, long submissionId, SubmissionStatus submissionStatus,
+        String operator) throws UploadPersistenceException {
+        LOGGER.log(Level.INFO, new LogMessage("Submission", null, operator, MessageFormat.format(
+                "Supersede Submissions of resource id [{0}] by submission id [{1}].", resourceId, submissionId)));
+        DeliverableHelper.checkGreaterThanZero(resourceId, "resourceId", LOGGER);
+        DeliverableHelper.checkGreaterThanZero(submissionId, "submissionId", LOGGER);
+        DeliverableHelper.checkObjectNotNull(submissionStatus, "submissionStatus", LOGGER);
+        DeliverableHelper.checkObjectNotNull(operator, "operator", LOGGER);
+        DeliverableHelper.checkGreaterThanZero(submissionStatus.getId(), "submissionStatus id", LOGGER);
+
+        return persistence.supersedeSubmissions(resourceId, submissionId, submissionStatus.getId(), operator,
+                new Date());
+    }
+
     /**
      * Helper method for PersistenceUploadManager. All the create, update, remove methods delegate to this method. It
      * create (update, remove) AuditedDeliverableStructure object from the persistence.
@@ -32,6 +32,12 @@ import com.topcoder.search.builder.filter.Filter;
  * <li>Added method for retrieving images associated with submission.</li>
  * </ul>
  * </p>
+ * <p>
+ * Changes in 1.3:
+ * <ul>
+ * <li>Added method for superseding the previous submissions of a resource with a single update.</li>
+ * </ul>
+ * </p>
  *
  * <p>
  * <strong>Thread Safety: </strong> Implementations of this interface are not required to be thread safe.
@@ -39,8 +45,8 @@ import com.topcoder.search.builder.filter.Filter;
  *
  * @author aubergineanode, singlewood
  * @author saarixx, sparemax
- * @author TCSDESIGNER, TCSDEVELOPER
- * @version 1.2
+ * @author TCSDESIGNER, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.3
  */
 public interface UploadManager {
     /**
@@ -528,4 +534,27 @@ public interface UploadManager {
      * @since 1.2
      */
     public SubmissionImage[] getImagesForSubmission(long submissionId) throws UploadPersistenceException;
+
+    /**
+     * Sets the given status to all the submissions of the resource with the given ID, except the submission with the
+     * given ID and the submissions already having the given status, with a single update.
+     *
+     * @param resourceId
+     *            the ID of the resource owning the submissions
+     * @param submissionId
+     *            the ID of the submission to keep
+     * @param submissionStatus
+     *            the status to set (usually "Deleted")
+     * @param operator
+     *            the name of the operator making the change to the persistence store
+     * @return the number of updated submissions
+     * @throws IllegalArgumentException
+     *             if resourceId <= 0, submissionId <= 0, submissionStatus or operator is null, or the id of
+     *             submissionStatus is UNSET_ID
+     * @throws UploadPersistenceException
+     *             if some error occurred when accessing the persistence
+     * @since 1.3
+     */
+    public int supersedeSubmissions(long resourceId, long submissionId, SubmissionStatus submissionStatus,
+        String operator) throws UploadPersistenceException;
 }
@@ -3,6 +3,8 @@
  */
 package com.topcoder.management.deliverable.persistence;
 
+import java.util.Date;
+
 import com.topcoder.management.deliverable.MimeType;
 import com.topcoder.management.deliverable.Submission;
 import com.topcoder.management.deliverable.SubmissionDeclaration;
@@ -53,13 +55,21 @@ import com.topcoder.util.sql.databaseabstraction.CustomResultSet;
  * </p>
  *
  * <p>
+ * Changes in 1.5:
+ * <ul>
+ * <li>Added {@link #supersedeSubmissions(long, long, long, String, Date)} method to update the status of the
+ * previous submissions of a resource with a single statement.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
  * <strong>Thread Safety: </strong> Implementations of this interface are not required to be thread-safe or immutable.
  * </p>
  *
  * @author aubergineanode, singlewood, George1
  * @author saarixx, sparemax
- * @author TCSDESIGNER, TCSDEVELOPER
- * @version 1.4
+ * @author TCSDESIGNER, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.5
  */
 public interface UploadPersistence {
     /**
@@ -641,4 +651,29 @@ public interface UploadPersistence {
      * @since 1.4
      */
     public SubmissionDeclaration getSubmissionDeclaration(long submissionId) throws UploadPersistenceException;
+
+    /**
+     * Sets the given status to all the submissions of the resource with the given ID, except the submission with the
+     * given ID and the submissions already having the given status, with a single update.
+     *
+     * @param resourceId
+     *            the ID of the resource owning the submissions
+     * @param submissionId
+     *            the ID of the submission to keep
+     * @param submissionStatusId
+     *            the ID of the status to set
+     * @param operator
+     *            the modification user of the updated submissions
+     * @param modificationTimestamp
+     *            the modification timestamp of the updated submissions
+     * @return the number of updated submissions
+     * @throws IllegalArgumentException
+     *             If resourceId, submissionId or submissionStatusId is <= 0, or operator or modificationTimestamp is
+     *             null
+     * @throws UploadPersistenceException
+     *             If some error occurred when accessing the persistence
+     * @since 1.5
+     */
+    public int supersedeSubmissions(long resourceId, long submissionId, long submissionStatusId, String operator,
+        Date modificationTimestamp) throws UploadPersistenceException;
 }
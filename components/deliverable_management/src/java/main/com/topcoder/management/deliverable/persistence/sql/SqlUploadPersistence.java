@@ -193,6 +193,14 @@ import com.topcoder.util.sql.databaseabstraction.NullColumnValueException;
  *     <li>Update {@link #loadUpload(CustomResultSet)} to load the project phase id.</li>
  *   </ol>
  * </p>
+ *
+ * <p>
+ * Version 1.6 change notes:
+ *   <ol>
+ *     <li>Added {@link #supersedeSubmissions(long, long, long, String, Date)} to update the status of the previous
+ *     submissions of a resource with a single statement.</li>
+ *   </ol>
+ * </p>
  * 
  * <strong>Thread Safety:</strong> This class is immutable and thread-safe in the sense that multiple threads can not
  * corrupt its internal data structures. However, the results if used from multiple threads can be unpredictable as the
@@ -201,8 +209,8 @@ import com.topcoder.util.sql.databaseabstraction.NullColumnValueException;
  * </p>
  *
  * @author aubergineanode, saarixx, urtks, George1
- * @author TCSDESIGNER, TCSDEVELOPER
- * @version 1.5
+ * @author TCSDESIGNER, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.6
  */
 public class SqlUploadPersistence implements UploadPersistence {
 
@@ -693,6 +701,25 @@ public class SqlUploadPersistence implements UploadPersistence {
         Helper.LONG_TYPE, Helper.STRING_TYPE,
         Helper.LONG_TYPE, Helper.STRING_TYPE, Helper.STRING_TYPE
     };
+
+    /**
+     * Represents the sql statement to set the status of the submissions of a resource, except the given submission
+     * and the submissions already having the status.
+     *
+     * @since 1.6
+     */
+    private static final String SUPERSEDE_SUBMISSIONS_SQL = "UPDATE submission "
+            + "SET submission_status_id = ?, modify_user = ?, modify_date = ? "
+            + "WHERE submission_id <> ? AND submission_status_id <> ? "
+            + "AND upload_id IN (SELECT upload_id FROM upload WHERE resource_id = ?)";
+
+    /**
+     * Represents the argument types for the sql statement to supersede submissions.
+     *
+     * @since 1.6
+     */
+    private static final DataType[] SUPERSEDE_SUBMISSIONS_ARGUMENT_TYPES = new DataType[] {Helper.LONG_TYPE,
+        Helper.STRING_TYPE, Helper.DATE_TYPE, Helper.LONG_TYPE, Helper.LONG_TYPE, Helper.LONG_TYPE};
     
     /**
      * <p>
@@ -2119,6 +2146,45 @@ public class SqlUploadPersistence implements UploadPersistence {
         return null;
     }
 
+    /**
+     * Sets the given status to all the submissions of the resource with the given ID, except the submission with the
+     * given ID and the submissions already having the given status, with a single update.
+     *
+     * @param resourceId
+     *            the ID of the resource owning the submissions
+     * @param submissionId
+     *            the ID of the submission to keep
+     * @param submissionStatusId
+     *            the ID of the status to set
+     * @param operator
+     *            the modification user of the updated submissions
+     * @param modificationTimestamp
+     *            the modification timestamp of the updated submissions
+     * @return the number of updated submissions
+     * @throws IllegalArgumentException
+     *             If resourceId, submissionId or submissionStatusId is <= 0, or operator or modificationTimestamp is
+     *             null
+     * @throws UploadPersistenceException
+     *             If some error occurred when accessing the persistence
+     * @since 1.6
+     */
+    public int supersedeSubmissions(long resourceId, long submissionId, long submissionStatusId, String operator,
+        Date modificationTimestamp) throws UploadPersistenceException {
+        LOGGER.log(Level.INFO, new LogMessage("Submission", submissionId, operator, MessageFormat.format(
+                "Supersede Submissions of resource id [{0}].", resourceId)));
+
+        assertLongBePositive(resourceId, "resourceId", LOGGER);
+        assertLongBePositive(submissionId, "submissionId", LOGGER);
+        assertLongBePositive(submissionStatusId, "submissionStatusId", LOGGER);
+        Helper.assertObjectNotNull(operator, "operator", LOGGER);
+        Helper.assertObjectNotNull(modificationTimestamp, "modificationTimestamp", LOGGER);
+
+        return doDMLQuery(connectionFactory, connectionName, SUPERSEDE_SUBMISSIONS_SQL,
+                SUPERSEDE_SUBMISSIONS_ARGUMENT_TYPES, new Object[] {submissionStatusId, operator,
+                    modificationTimestamp, submissionId, submissionStatusId, resourceId},
+                new LogMessage("Submission", submissionId, operator, "Failed to supersede submissions"));
+    }
+
     /**
      * <p>
      * Removes the given AuditedDeliverableStructure instance (by id) from the persistence.
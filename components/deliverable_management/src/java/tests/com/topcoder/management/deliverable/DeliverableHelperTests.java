@@ -15,8 +15,12 @@ import junit.framework.TestCase;
 /**
  * Unit test for <code>{@link DeliverableHelper}</code> class.
  *
- * @author TCSDEVELOPER
- * @version 1.2
+ * <p>
+ * Changes in 1.3: added the tests of <code>checkDeliverables</code> method.
+ * </p>
+ *
+ * @author TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.3
  * @since 1.2
  */
 public class DeliverableHelperTests extends TestCase {
@@ -276,4 +280,89 @@ public class DeliverableHelperTests extends TestCase {
         assertTrue("invalid entry", searchableFields.containsKey("project_id"));
         assertTrue("invalid entry", searchableFields.containsKey("resource_id"));
     }
+
+    /**
+     * <p>
+     * Tests <code>checkDeliverables(Deliverable[], Map, Log)</code> method.
+     * </p>
+     * <p>
+     * The batch checker should check all its deliverables in one call, including the ones registered under another
+     * name, the other checkers one by one, and the deliverables without checker should not be checked.
+     * </p>
+     *
+     * @throws Exception to JUnit
+     */
+    public void testCheckDeliverables_accuracy() throws Exception {
+        MockBatchDeliverableChecker batchChecker = new MockBatchDeliverableChecker();
+        Map<String, DeliverableChecker> checkers = new HashMap<String, DeliverableChecker>();
+        checkers.put("batch1", batchChecker);
+        checkers.put("batch2", batchChecker);
+        checkers.put("single", new MockDeliverableChecker());
+
+        Deliverable[] deliverables = new Deliverable[] {createDeliverable("batch1"), createDeliverable("single"),
+            createDeliverable("batch2"), createDeliverable("none"), createDeliverable("batch1")};
+
+        DeliverableHelper.checkDeliverables(deliverables, checkers, null);
+
+        assertEquals("the batch checker should be called once", 1, batchChecker.getCalls());
+        assertEquals("the batch checker should check its deliverables", 3, batchChecker.getChecked());
+        assertTrue("the deliverable should be complete", deliverables[0].isComplete());
+        assertTrue("the deliverable should be complete", deliverables[1].isComplete());
+        assertTrue("the deliverable should be complete", deliverables[2].isComplete());
+        assertFalse("the deliverable should not be checked", deliverables[3].isComplete());
+        assertTrue("the deliverable should be complete", deliverables[4].isComplete());
+    }
+
+    /**
+     * <p>
+     * Tests <code>check(Deliverable)</code> method of <code>AbstractBatchDeliverableChecker</code>.
+     * </p>
+     * <p>
+     * The single deliverable check should fall back to the batch check.
+     * </p>
+     *
+     * @throws Exception to JUnit
+     */
+    public void testCheckDeliverables_single() throws Exception {
+        MockBatchDeliverableChecker batchChecker = new MockBatchDeliverableChecker();
+        Deliverable deliverable = createDeliverable("batch");
+
+        batchChecker.check(deliverable);
+
+        assertEquals("the batch checker should be called once", 1, batchChecker.getCalls());
+        assertTrue("the deliverable should be complete", deliverable.isComplete());
+    }
+
+    /**
+     * <p>
+     * Tests <code>checkDeliverables(Deliverable[], Map, Log)</code> method.
+     * </p>
+     * <p>
+     * If the name of a deliverable is null, should throw IllegalArgumentException
+     * </p>
+     *
+     * @throws Exception to JUnit
+     */
+    public void testCheckDeliverables_nullName() throws Exception {
+        try {
+            DeliverableHelper.checkDeliverables(new Deliverable[] {createDeliverable(null)},
+                new HashMap<String, DeliverableChecker>(), null);
+
+            fail("expect IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Creates a deliverable with the given name.
+     *
+     * @param name the name of the deliverable.
+     * @return the deliverable.
+     */
+    private static Deliverable createDeliverable(String name) {
+        Deliverable deliverable = new Deliverable(1, 2, 3, null, true);
+        deliverable.setName(name);
+        return deliverable;
+    }
 }
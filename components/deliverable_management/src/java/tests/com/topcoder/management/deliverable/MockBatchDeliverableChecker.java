@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.management.deliverable;
+
+import java.util.Date;
+
+
+/**
+ * A mock class extends <code>AbstractBatchDeliverableChecker</code> class. It completes every deliverable and
+ * records the number of batch checks.
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class MockBatchDeliverableChecker extends AbstractBatchDeliverableChecker {
+    /**
+     * The number of batch checks.
+     */
+    private int calls;
+
+    /**
+     * The number of checked deliverables.
+     */
+    private int checked;
+
+    /**
+     * Sets the completion date of the given deliverables. Always succeeds.
+     *
+     * @param deliverables the deliverables to be checked.
+     */
+    public void check(Deliverable[] deliverables) {
+        calls++;
+        for (int i = 0; i < deliverables.length; i++) {
+            if (deliverables[i].getCompletionDate() == null) {
+                deliverables[i].setCompletionDate(new Date());
+            }
+            checked++;
+        }
+    }
+
+    /**
+     * Gets the number of batch checks.
+     *
+     * @return the number of batch checks.
+     */
+    public int getCalls() {
+        return calls;
+    }
+
+    /**
+     * Gets the number of checked deliverables.
+     *
+     * @return the number of checked deliverables.
+     */
+    public int getChecked() {
+        return checked;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.management.deliverable.stresstests;
+
+import com.topcoder.management.deliverable.Deliverable;
+import com.topcoder.management.deliverable.DeliverableChecker;
+import com.topcoder.management.deliverable.DeliverableHelper;
+import com.topcoder.management.deliverable.MockBatchDeliverableChecker;
+import com.topcoder.management.deliverable.MockDeliverableChecker;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stress test for the batch checking of the deliverables by <code>DeliverableHelper.checkDeliverables</code>.
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class StressTestBatchDeliverableChecker extends TestCase {
+    /**
+     * The number of deliverables.
+     */
+    private static final int DELIVERABLES = 5000;
+
+    /**
+     * The names of the deliverables.
+     */
+    private static final String[] NAMES = {"Submission", "Review", "Aggregation", "Final Fix", "Approval"};
+
+    /**
+     * The run times of the tests.
+     */
+    private static final int RUN_TIMES = 20;
+
+    /**
+     * Stress test of the batch checking of thousands of deliverables. Each batch checker should be called once per
+     * run, whatever the number of deliverables, and all the deliverables should be checked.
+     *
+     * @throws Exception
+     *             to junit.
+     */
+    public void testCheckDeliverables() throws Exception {
+        long total = 0;
+
+        for (int r = 0; r < RUN_TIMES; r++) {
+            Map<String, DeliverableChecker> checkers = new HashMap<String, DeliverableChecker>();
+            MockBatchDeliverableChecker[] batchCheckers = new MockBatchDeliverableChecker[NAMES.length - 1];
+            for (int i = 0; i < batchCheckers.length; i++) {
+                batchCheckers[i] = new MockBatchDeliverableChecker();
+                checkers.put(NAMES[i], batchCheckers[i]);
+            }
+            // the last deliverable type keeps a checker without batch support
+            checkers.put(NAMES[NAMES.length - 1], new MockDeliverableChecker());
+
+            Deliverable[] deliverables = new Deliverable[DELIVERABLES];
+            for (int i = 0; i < DELIVERABLES; i++) {
+                deliverables[i] = new Deliverable(1 + i / 100, 1 + i / 10, 1 + i, null, true);
+                deliverables[i].setName(NAMES[i % NAMES.length]);
+            }
+
+            long start = System.currentTimeMillis();
+            DeliverableHelper.checkDeliverables(deliverables, checkers, null);
+            total += System.currentTimeMillis() - start;
+
+            for (int i = 0; i < batchCheckers.length; i++) {
+                assertEquals("each batch checker should be called once", 1, batchCheckers[i].getCalls());
+                assertEquals("wrong number of checked deliverables", DELIVERABLES / NAMES.length,
+                    batchCheckers[i].getChecked());
+            }
+            for (int i = 0; i < DELIVERABLES; i++) {
+                assertTrue("all the deliverables should be complete", deliverables[i].isComplete());
+            }
+        }
+
+        System.out.println("Stress test for checkDeliverables with " + DELIVERABLES + " deliverables, run "
+            + RUN_TIMES + " times, took " + total + "ms.");
+    }
+}
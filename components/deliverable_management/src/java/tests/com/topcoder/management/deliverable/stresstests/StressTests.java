@@ -25,6 +25,8 @@ public class StressTests extends TestCase {
 
         suite.addTestSuite(StressTestPersistenceDeliverableManager.class);
 
+        suite.addTestSuite(StressTestBatchDeliverableChecker.class);
+
         return suite;
     }
 }
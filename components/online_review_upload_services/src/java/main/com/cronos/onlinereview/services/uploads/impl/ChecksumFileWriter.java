@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.cronos.onlinereview.services.uploads.impl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * <p>
+ * This class streams the uploaded files to the disk, computing their checksum while they are written so the file
+ * does not need to be read again. The file is written through a single buffer, without holding its content in
+ * memory.
+ * </p>
+ *
+ * <p>
+ * Thread Safety: This class is thread safe since it is immutable.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+final class ChecksumFileWriter {
+
+    /**
+     * <p>
+     * Represents the algorithm of the computed checksum.
+     * </p>
+     */
+    static final String CHECKSUM_ALGORITHM = "MD5";
+
+    /**
+     * <p>
+     * Represents the buffer size used for the copy.
+     * </p>
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * <p>
+     * The hexadecimal digits of the checksum.
+     * </p>
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * <p>
+     * Private constructor to prevent instantiation of this class.
+     * </p>
+     */
+    private ChecksumFileWriter() {
+    }
+
+    /**
+     * <p>
+     * Writes all the bytes of the stream to the file and returns their checksum. The stream is not closed.
+     * </p>
+     *
+     * @param input the stream to write
+     * @param file  the file to write to, overwritten if it exists
+     *
+     * @return the hexadecimal checksum of the written bytes
+     *
+     * @throws IOException if the stream fails to be read or the file fails to be written
+     */
+    static String write(InputStream input, File file) throws IOException {
+        MessageDigest digest = createDigest();
+        OutputStream output = new FileOutputStream(file);
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, length);
+                output.write(buffer, 0, length);
+            }
+        } finally {
+            output.close();
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * <p>
+     * Creates the digest computing the checksum.
+     * </p>
+     *
+     * @return the digest
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports MD5
+            throw new IllegalStateException("The " + CHECKSUM_ALGORITHM + " algorithm is not supported.", e);
+        }
+    }
+
+    /**
+     * <p>
+     * Converts the bytes to a hexadecimal string.
+     * </p>
+     *
+     * @param bytes the bytes to convert
+     *
+     * @return the hexadecimal string
+     */
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+        }
+        return new String(chars);
+    }
+}
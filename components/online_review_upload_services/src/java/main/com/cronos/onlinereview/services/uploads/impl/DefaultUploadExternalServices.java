@@ -24,7 +24,6 @@ import com.topcoder.util.log.LogFactory;
 import javax.activation.DataHandler;
 import java.io.Closeable;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.rmi.RemoteException;
@@ -76,12 +75,22 @@ import java.util.Set;
  *     <li>Added {@link #removeSubmitters(long, Set, String)} method</li>
  * </ul>
  * </p>
+ *
+ * <p>
+ * Version 1.1.4 Change notes:
+ * <ul>
+ *     <li>The uploaded files are streamed to the disk by {@link ChecksumFileWriter}, which computes their checksum
+ *     during the write.</li>
+ *     <li>The name of a new file is claimed atomically, so concurrent uploads of the same file name never write to
+ *     the same file.</li>
+ * </ul>
+ * </p>
  * Thread safe: The thread safety is completely relied to the uploadServices implementation because it's impossible
  * to change the other variables
  * </p>
  *
- * @author fabrizyo, saarixx, cyberjag, TCSDEVELOPER
- * @version 1.1.3
+ * @author fabrizyo, saarixx, cyberjag, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1.4
  * @since 1.0
  */
 public class DefaultUploadExternalServices implements UploadExternalServices {
@@ -110,13 +119,6 @@ public class DefaultUploadExternalServices implements UploadExternalServices {
     private static final com.topcoder.util.log.Log LOG = com.topcoder.util.log.LogManager
             .getLog(DefaultUploadExternalServices.class.getName());
 
-    /**
-     * <p>
-     * Represents the buffer size used for input stream reading.
-     * </p>
-     */
-    private static final int BUFFER_SIZE = 1024;
-
     /**
      * <p>
      * Represents the internal <code>UploadServices</code> to delegate the calls. In upload* methods the filename
@@ -451,6 +453,11 @@ public class DefaultUploadExternalServices implements UploadExternalServices {
      * Creates a new file with a unique name and copies the stream from the <code>DataHandler</code> to the new
      * file created.
      *
+     * <p>
+     * Changes in 1.1.4: the name of the file is claimed atomically, and the stream is written by
+     * {@link ChecksumFileWriter}, which logs the checksum of the file. The file is deleted if it fails to be written.
+     * </p>
+     *
      * @param filename    the filename to use
      * @param dataHandler the <code>DataHandler</code> to get the <code>InputStream</code>
      *
@@ -460,36 +467,32 @@ public class DefaultUploadExternalServices implements UploadExternalServices {
      * @since 1.0
      */
     private File createNewFile(String filename, DataHandler dataHandler) throws RemoteException {
-        // generate the filename to storage the file
-        String filenameGenerated;
-        File newFile;
-        do {
-            UUID uuidGenerated = UUIDUtility.getNextUUID(UUIDType.TYPEINT32);
-            filenameGenerated = MessageFormat.format(filenamePattern, uuidGenerated, filename);
-            filenameGenerated = fileStorageLocation + File.separator + filenameGenerated;
-            newFile = new File(filenameGenerated);
-        } while (newFile.exists());
-
-        // write the content of submission into file
+        File newFile = null;
+        boolean created = false;
         InputStream inputStream = null;
-        FileOutputStream outputStream = null;
         try {
+            // generate the filename to storage the file, createNewFile fails if another upload took the name
+            do {
+                UUID uuidGenerated = UUIDUtility.getNextUUID(UUIDType.TYPEINT32);
+                String filenameGenerated = MessageFormat.format(filenamePattern, uuidGenerated, filename);
+                newFile = new File(fileStorageLocation + File.separator + filenameGenerated);
+            } while (!newFile.createNewFile());
+            created = true;
+
+            // write the content of submission into file
             inputStream = dataHandler.getDataSource().getInputStream();
-            outputStream = new FileOutputStream(newFile);
-            // write all bytes from input to output
-            byte[] buffer = new byte[BUFFER_SIZE];
-            int length;
-            while ((length = inputStream.read(buffer)) > 0) {
-                outputStream.write(buffer, 0, length);
-            }
+            String checksum = ChecksumFileWriter.write(inputStream, newFile);
+            Helper.logFormat(LOG, Level.INFO, "File {0} written, {1} bytes, {2} checksum {3}", new Object[]{
+                    newFile.getName(), String.valueOf(newFile.length()), ChecksumFileWriter.CHECKSUM_ALGORITHM, checksum});
         } catch (IOException e) {
+            if (created) {
+                newFile.delete();
+            }
             Helper.logFormat(LOG, Level.ERROR, e,
                     "Failed to read/write from the submission data source stream to new file", new Object[]{});
             throw new RemoteException("Failed to read/write from the submission data source stream to new file", e);
         } finally {
-
             close(inputStream);
-            close(outputStream);
         }
         return newFile;
     }
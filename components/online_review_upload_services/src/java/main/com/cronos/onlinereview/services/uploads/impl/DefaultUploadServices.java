@@ -23,6 +23,7 @@ import com.topcoder.db.connectionfactory.DBConnectionException;
 import com.topcoder.db.connectionfactory.DBConnectionFactory;
 import com.topcoder.db.connectionfactory.DBConnectionFactoryImpl;
 import com.topcoder.db.connectionfactory.UnknownConnectionException;
+import com.topcoder.management.deliverable.NamedDeliverableStructure;
 import com.topcoder.management.deliverable.Submission;
 import com.topcoder.management.deliverable.SubmissionStatus;
 import com.topcoder.management.deliverable.SubmissionType;
@@ -31,7 +32,6 @@ import com.topcoder.management.deliverable.UploadManager;
 import com.topcoder.management.deliverable.UploadStatus;
 import com.topcoder.management.deliverable.UploadType;
 import com.topcoder.management.deliverable.persistence.UploadPersistenceException;
-import com.topcoder.management.deliverable.search.SubmissionFilterBuilder;
 import com.topcoder.management.deliverable.search.UploadFilterBuilder;
 import com.topcoder.management.phase.PhaseManagementException;
 import com.topcoder.management.project.Project;
@@ -108,13 +108,26 @@ import java.text.SimpleDateFormat;
  *         <li>Added {@link #removeSubmitters(long, Set, String)} method</li>
  *     </ol>
  * </p>
+ *
+ * <p>
+ * Version 1.1.4 Change notes:
+ *     <ol>
+ *         <li>The upload statuses and types, submission statuses and types and resource roles are looked up by name
+ *         in tables loaded once and reloaded when a name is missing, instead of loading all of them on every
+ *         call.</li>
+ *         <li>{@link #uploadSubmission(long, long, String)} marks the previous submissions of the submitter as
+ *         deleted with a single update through <code>UploadManager#supersedeSubmissions</code>.</li>
+ *         <li>One <code>DBConnectionFactory</code> is created on first use and reused.</li>
+ *     </ol>
+ * </p>
  * <p>
  * Thread safety: the thread safety is completely relied to the managers implementations because it's impossible to
- * change the other variables.
+ * change the other variables. The lookup tables are immutable once loaded and published through volatile
+ * fields.
  * </p>
  *
- * @author fabrizyo, saarixx, cyberjag, TCSDEVELOPER
- * @version 1.1.3
+ * @author fabrizyo, saarixx, cyberjag, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1.4
  */
 public class DefaultUploadServices implements UploadServices {
 
@@ -158,6 +171,49 @@ public class DefaultUploadServices implements UploadServices {
      */
     private final ManagersProvider managersProvider;
 
+    /**
+     * <p>The upload statuses by name, loaded on first use and reloaded when a name is missing.</p>
+     *
+     * @since 1.1.4
+     */
+    private volatile Map<String, UploadStatus> uploadStatuses;
+
+    /**
+     * <p>The upload types by name, loaded on first use and reloaded when a name is missing.</p>
+     *
+     * @since 1.1.4
+     */
+    private volatile Map<String, UploadType> uploadTypes;
+
+    /**
+     * <p>The submission statuses by name, loaded on first use and reloaded when a name is missing.</p>
+     *
+     * @since 1.1.4
+     */
+    private volatile Map<String, SubmissionStatus> submissionStatuses;
+
+    /**
+     * <p>The submission types by name, loaded on first use and reloaded when a name is missing.</p>
+     *
+     * @since 1.1.4
+     */
+    private volatile Map<String, SubmissionType> submissionTypes;
+
+    /**
+     * <p>The resource roles by name, loaded on first use and reloaded when a name is missing.</p>
+     *
+     * @since 1.1.4
+     */
+    private volatile Map<String, ResourceRole> resourceRoles;
+
+    /**
+     * <p>The connection factory used for the project_result and component_inquiry tables, created on first use.
+     * Guarded by this.</p>
+     *
+     * @since 1.1.4
+     */
+    private DBConnectionFactory connectionFactory;
+
     /**
      * <p>
      * Creates <code>DefaultUploadServices</code> with the specified managersProvider.
@@ -343,7 +399,7 @@ public class DefaultUploadServices implements UploadServices {
                                 .getProperty("Allow multiple submissions"));
 
                         if (!allow) {
-                            deletePreviousSubmissions(userId, resource);
+                            deletePreviousSubmissions(userId, resource, submission);
                             Helper.logFormat(LOG, Level.INFO,
                                     "Marked previous submissions for deletion for the user {0}.",
                                     new Object[]{userId});
@@ -790,16 +846,13 @@ public class DefaultUploadServices implements UploadServices {
                 throw new InvalidSubmissionException("Failed to get submission with the given Id", submissionId);
             }
 
-            SubmissionStatus[] submissionStatus = managersProvider.getUploadManager().getAllSubmissionStatuses();
-            // iterate over statuses and check which status has the submissionStatusId defined
-            for (SubmissionStatus status : submissionStatus) {
-                if (status.getId() == submissionStatusId) {
-                    submission.setSubmissionStatus(status);
-                    managersProvider.getUploadManager().updateSubmission(submission, operator);
-                    Helper.logFormat(LOG, Level.INFO, "Updated submission {0} using operator {1}.", new Object[]{
-                            submission.getId(), operator});
-                    return;
-                }
+            SubmissionStatus status = getSubmissionStatusById(submissionStatusId);
+            if (status != null) {
+                submission.setSubmissionStatus(status);
+                managersProvider.getUploadManager().updateSubmission(submission, operator);
+                Helper.logFormat(LOG, Level.INFO, "Updated submission {0} using operator {1}.", new Object[]{
+                        submission.getId(), operator});
+                return;
             }
 
             Helper.logFormat(LOG, Level.ERROR, "Failed to get submission status with the given id {0}",
@@ -855,21 +908,17 @@ public class DefaultUploadServices implements UploadServices {
      * @since 1.0
      */
     private Long[] getSubmitterRoleId(String[] roles) throws UploadServicesException {
-        ResourceManager manager = managersProvider.getResourceManager();
-        ResourceRole[] resourceRoles;
-        try {
-            resourceRoles = manager.getAllResourceRoles();
-        } catch (ResourcePersistenceException e) {
-            throw new UploadServicesException(e.getMessage(), e);
-        }
         List<Long> resourceRolesIds = new ArrayList<Long>();
-        for (ResourceRole resourceRole : resourceRoles) {
+        try {
             for (String role : roles) {
-                if (role.equals(resourceRole.getName())) {
+                ResourceRole resourceRole = getResourceRoleByName(role);
+                if (resourceRole != null) {
                     // if matched return the resourceRoleId
                     resourceRolesIds.add(resourceRole.getId());
                 }
             }
+        } catch (ResourcePersistenceException e) {
+            throw new UploadServicesException(e.getMessage(), e);
         }
         return resourceRolesIds.toArray(new Long[resourceRolesIds.size()]);
     }
@@ -944,13 +993,31 @@ public class DefaultUploadServices implements UploadServices {
      * @since 1.0
      */
     private UploadStatus getUploadStatusByName(String name) throws UploadPersistenceException {
-        UploadStatus[] uploadStatus = managersProvider.getUploadManager().getAllUploadStatuses();
-        for (UploadStatus status : uploadStatus) {
-            if (name.equals(status.getName())) {
-                return status;
-            }
+        Map<String, UploadStatus> statuses = uploadStatuses;
+        if (statuses == null || !statuses.containsKey(name)) {
+            statuses = byName(managersProvider.getUploadManager().getAllUploadStatuses());
+            uploadStatuses = statuses;
         }
-        return null;
+        return statuses.get(name);
+    }
+
+    /**
+     * Gets the upload type by name.
+     *
+     * @param name the name of the type.
+     *
+     * @return the UploadType for the given name, null if there is no such type
+     *
+     * @throws UploadPersistenceException if any error occurs.
+     * @since 1.1.4
+     */
+    private UploadType getUploadTypeByName(String name) throws UploadPersistenceException {
+        Map<String, UploadType> types = uploadTypes;
+        if (types == null || !types.containsKey(name)) {
+            types = byName(managersProvider.getUploadManager().getAllUploadTypes());
+            uploadTypes = types;
+        }
+        return types.get(name);
     }
 
     /**
@@ -965,16 +1032,44 @@ public class DefaultUploadServices implements UploadServices {
      */
     private SubmissionStatus getSubmissionStatusByName(String submissionStatus) throws
             UploadPersistenceException {
-        SubmissionStatus[] submissionStatuses = managersProvider.getUploadManager()
-                .getAllSubmissionStatuses();
+        Map<String, SubmissionStatus> statuses = submissionStatuses;
+        if (statuses == null || !statuses.containsKey(submissionStatus)) {
+            statuses = byName(managersProvider.getUploadManager().getAllSubmissionStatuses());
+            submissionStatuses = statuses;
+        }
 
-        for (SubmissionStatus status : submissionStatuses) {
-            if (submissionStatus.equals(status.getName())) {
-                return status;
+        // return null if there were no matching submission status
+        return statuses.get(submissionStatus);
+    }
+
+    /**
+     * <p>Gets submission status by it's id.</p>
+     *
+     * @param submissionStatusId id of the submission status to get
+     *
+     * @return the SubmissionStatus with given id, null if there is no such status
+     *
+     * @throws UploadPersistenceException if any error occurs
+     * @since 1.1.4
+     */
+    private SubmissionStatus getSubmissionStatusById(long submissionStatusId) throws UploadPersistenceException {
+        Map<String, SubmissionStatus> statuses = submissionStatuses;
+        if (statuses != null) {
+            for (SubmissionStatus status : statuses.values()) {
+                if (status.getId() == submissionStatusId) {
+                    return status;
+                }
             }
         }
 
-        // return null if there were no matching submission status
+        // the status may have been added since the statuses were loaded
+        statuses = byName(managersProvider.getUploadManager().getAllSubmissionStatuses());
+        submissionStatuses = statuses;
+        for (SubmissionStatus status : statuses.values()) {
+            if (status.getId() == submissionStatusId) {
+                return status;
+            }
+        }
         return null;
     }
 
@@ -989,17 +1084,54 @@ public class DefaultUploadServices implements UploadServices {
      * @since 1.1
      */
     private SubmissionType getSubmissionTypeByName(String submissionType) throws UploadPersistenceException {
-        SubmissionType[] submissionTypes = managersProvider.getUploadManager()
-                .getAllSubmissionTypes();
+        Map<String, SubmissionType> types = submissionTypes;
+        if (types == null || !types.containsKey(submissionType)) {
+            types = byName(managersProvider.getUploadManager().getAllSubmissionTypes());
+            submissionTypes = types;
+        }
 
-        for (SubmissionType type : submissionTypes) {
-            if (submissionType.equals(type.getName())) {
-                return type;
+        // return null if there were no matching submission type
+        return types.get(submissionType);
+    }
+
+    /**
+     * <p>Gets resource role by it's name.</p>
+     *
+     * @param name name of the resource role to get
+     *
+     * @return the ResourceRole with given name, null if there is no such role
+     *
+     * @throws ResourcePersistenceException if any error occurs
+     * @since 1.1.4
+     */
+    private ResourceRole getResourceRoleByName(String name) throws ResourcePersistenceException {
+        Map<String, ResourceRole> roles = resourceRoles;
+        if (roles == null || !roles.containsKey(name)) {
+            roles = new HashMap<String, ResourceRole>();
+            for (ResourceRole role : managersProvider.getResourceManager().getAllResourceRoles()) {
+                roles.put(role.getName(), role);
             }
+            resourceRoles = roles;
         }
+        return roles.get(name);
+    }
 
-        // return null if there were no matching submission type
-        return null;
+    /**
+     * <p>Builds the lookup table of the given entities by name.</p>
+     *
+     * @param entities the entities
+     * @param <T> the type of the entities
+     *
+     * @return the entities by name
+     *
+     * @since 1.1.4
+     */
+    private static <T extends NamedDeliverableStructure> Map<String, T> byName(T[] entities) {
+        Map<String, T> map = new HashMap<String, T>();
+        for (T entity : entities) {
+            map.put(entity.getName(), entity);
+        }
+        return map;
     }
 
     /**
@@ -1020,23 +1152,17 @@ public class DefaultUploadServices implements UploadServices {
         // create a new Upload
         Upload upload = new Upload();
 
-        // iterate over all UploadStatuses, get the UploadStatus with name "Active" and set to Upload
+        // get the UploadStatus with name "Active" and set to Upload
         try {
-            UploadStatus[] uploadStatus = managersProvider.getUploadManager().getAllUploadStatuses();
-            for (UploadStatus status : uploadStatus) {
-                if ("Active".equals(status.getName())) {
-                    upload.setUploadStatus(status);
-                    break;
-                }
+            UploadStatus status = getUploadStatusByName("Active");
+            if (status != null) {
+                upload.setUploadStatus(status);
             }
 
-            // iterate over all UploadTypes, get the UploadType with name uploadType and set to Upload
-            UploadType[] uploadTypes = managersProvider.getUploadManager().getAllUploadTypes();
-            for (UploadType type : uploadTypes) {
-                if (uploadType.equals(type.getName())) {
-                    upload.setUploadType(type);
-                    break;
-                }
+            // get the UploadType with name uploadType and set to Upload
+            UploadType type = getUploadTypeByName(uploadType);
+            if (type != null) {
+                upload.setUploadType(type);
             }
 
             // set the owner as userId
@@ -1060,54 +1186,40 @@ public class DefaultUploadServices implements UploadServices {
     }
 
     /**
-     * Deletes the previous submissions for the given user.
+     * Deletes the previous submissions for the given user, all of them with a single update.
      *
      * @param userId           the user's id
-     * @param resource         the resource to create the filter
+     * @param resource         the resource owning the submissions
+     * @param submission       the new submission, which is kept
      *
      * @throws PersistenceException       if some error occurs in persistence layer
-     * @throws InvalidSubmissionException if the submission does not exist
      * @throws InvalidSubmissionStatusException
-     *                                    if the submission status does not exist
+     *                                    if the "Deleted" submission status does not exist
      * @throws UploadServicesException    if some other exception occurs in the process (wrap it)
      *
-     * @version 1.1
+     * @version 1.1.4
      * @since 1.0
      */
-    private void deletePreviousSubmissions(long userId, Resource resource)
+    private void deletePreviousSubmissions(long userId, Resource resource, Submission submission)
             throws UploadServicesException {
         try {
-            // Change previous submissions status to "Deleted"
-            Filter prevSubFilter = SubmissionFilterBuilder.createResourceIdFilter(resource.getId());
-
-            Submission[] prevSubmissions = managersProvider.getUploadManager().searchSubmissions(prevSubFilter);
-
-            // set the statuses of these submission to "Deleted"
-            long delSubStatusId = 0;
-
-            SubmissionStatus submissionStatus = getSubmissionStatusByName("Deleted");
-            if(submissionStatus != null) {
-                delSubStatusId = submissionStatus.getId();
+            SubmissionStatus deletedStatus = getSubmissionStatusByName("Deleted");
+            if (deletedStatus == null) {
+                Helper.logFormat(LOG, Level.ERROR, "Failed to get submission status with the name Deleted");
+                throw new InvalidSubmissionStatusException("Failed to get submission status with the name Deleted",
+                        0);
             }
 
-            String operator = String.valueOf(userId);
-            for (Submission prevSubmission : prevSubmissions) {
-                // set delSubStatusId to submissions using the method in this class
-                setSubmissionStatus(prevSubmission.getId(), delSubStatusId, operator);
-
-                // persist the submissions
-                managersProvider.getUploadManager().updateSubmission(prevSubmission, operator);
-            }
+            // Change previous submissions status to "Deleted"
+            int count = managersProvider.getUploadManager().supersedeSubmissions(resource.getId(),
+                    submission.getId(), deletedStatus, String.valueOf(userId));
+            Helper.logFormat(LOG, Level.DEBUG, "Marked {0} previous submissions of resource {1} as deleted.",
+                    new Object[]{count, resource.getId()});
         } catch (UploadPersistenceException e) {
             Helper.logFormat(LOG, Level.ERROR, e, "Failed to delete previous submissions for userId {0}",
                     new Object[]{userId});
             throw new PersistenceException("Failed to delete previous submissions.", e);
-        } catch (SearchBuilderException e) {
-            Helper.logFormat(LOG, Level.ERROR, e, "Failed to delete previous submissions for userId {0}",
-                    new Object[]{userId});
-            throw new UploadServicesException("Failed to delete previous submissions.", e);
         }
-
     }
 
     /**
@@ -1156,16 +1268,8 @@ public class DefaultUploadServices implements UploadServices {
                         new Object[]{userId});
                 throw new InvalidUserException("The user id  is not found.", userId);
             }
-            // Get all types of resource roles
-            ResourceRole[] resourceRoles = resourceManager.getAllResourceRoles();
-
-            ResourceRole submitterRole = null;
-            for (int i = 0; i < resourceRoles.length && submitterRole == null; i++) {
-                ResourceRole role = resourceRoles[i];
-                if ("Submitter".equals(role.getName())) {
-                    submitterRole = role;
-                }
-            }
+            // Get the submitter resource role
+            ResourceRole submitterRole = getResourceRoleByName("Submitter");
 
             // Get all types of notifications
             NotificationType[] types = resourceManager.getAllNotificationTypes();
@@ -1316,9 +1420,7 @@ public class DefaultUploadServices implements UploadServices {
 
         LOG.log(Level.INFO, "removing entry project result table.");
         try {
-            DBConnectionFactory dbconn;
-            dbconn = new DBConnectionFactoryImpl(DB_CONNECTION_NAMESPACE);
-            conn = dbconn.createConnection();
+            conn = getConnectionFactory().createConnection();
 
             if (users.isEmpty()){
                 return;
@@ -1651,9 +1753,7 @@ public class DefaultUploadServices implements UploadServices {
         }
         LOG.log(Level.INFO, "Populating the project result table.");
         try {
-            DBConnectionFactory dbconn;
-            dbconn = new DBConnectionFactoryImpl(DB_CONNECTION_NAMESPACE);
-            conn = dbconn.createConnection();
+            conn = getConnectionFactory().createConnection();
             long projectId = project.getId();
             // retrieve and update component_inquiry_id
             long componentInquiryId = getNextComponentInquiryId(conn, newSubmitters.size());
@@ -1823,6 +1923,23 @@ public class DefaultUploadServices implements UploadServices {
         }
     }
 
+    /**
+     * Gets the connection factory, creating it on first use.
+     *
+     * @return the connection factory
+     *
+     * @throws UnknownConnectionException if the default connection is unknown
+     * @throws com.topcoder.db.connectionfactory.ConfigurationException if the configuration is invalid
+     * @since 1.1.4
+     */
+    private synchronized DBConnectionFactory getConnectionFactory() throws UnknownConnectionException,
+            com.topcoder.db.connectionfactory.ConfigurationException {
+        if (connectionFactory == null) {
+            connectionFactory = new DBConnectionFactoryImpl(DB_CONNECTION_NAMESPACE);
+        }
+        return connectionFactory;
+    }
+
     /**
      * Return project property long value.
      *
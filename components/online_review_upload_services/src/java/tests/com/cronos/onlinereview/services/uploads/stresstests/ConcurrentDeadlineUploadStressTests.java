@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.cronos.onlinereview.services.uploads.stresstests;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.activation.DataHandler;
+import javax.activation.FileDataSource;
+
+import junit.framework.TestCase;
+
+import com.cronos.onlinereview.services.uploads.UploadServices;
+import com.cronos.onlinereview.services.uploads.impl.DefaultUploadExternalServices;
+import com.topcoder.management.resource.Resource;
+
+/**
+ * <p>
+ * This is the stress test fixture simulating the uploads of many submitters right before the submission deadline
+ * through <code>DefaultUploadExternalServices</code>. All the threads start at once and upload the same file
+ * name, every upload must be stored in its own file with the complete content.
+ * </p>
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class ConcurrentDeadlineUploadStressTests extends TestCase {
+    /**
+     * The number of concurrent submitters.
+     */
+    private static final int THREADS = 32;
+
+    /**
+     * The number of uploads of each submitter.
+     */
+    private static final int UPLOADS_PER_THREAD = 20;
+
+    /**
+     * The size of the uploaded file.
+     */
+    private static final int FILE_SIZE = 256 * 1024;
+
+    /**
+     * The directory storing the uploaded files.
+     */
+    private File storage;
+
+    /**
+     * The uploaded file.
+     */
+    private File source;
+
+    /**
+     * Sets up the test environment.
+     * @throws Exception to JUnit.
+     */
+    protected void setUp() throws Exception {
+        super.setUp();
+        storage = new File("test_files" + File.separator + "deadline_uploads");
+        storage.mkdirs();
+        source = new File("test_files" + File.separator + "deadline_submission.jar");
+        byte[] content = new byte[FILE_SIZE];
+        for (int i = 0; i < content.length; ++i) {
+            content[i] = (byte) (i * 31);
+        }
+        OutputStream output = new FileOutputStream(source);
+        try {
+            output.write(content);
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Cleans up the test environment.
+     * @throws Exception to JUnit.
+     */
+    protected void tearDown() throws Exception {
+        File[] files = storage.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        storage.delete();
+        source.delete();
+        super.tearDown();
+    }
+
+    /**
+     * <p>
+     * Test method for <code>uploadSubmission</code> called by many submitters at once.
+     * </p>
+     * @throws Exception Exception to JUnit.
+     */
+    public void testUploadSubmissionAtDeadline() throws Exception {
+        final CountingUploadServices uploadServices = new CountingUploadServices();
+        final DefaultUploadExternalServices services = new DefaultUploadExternalServices(uploadServices, null,
+            storage.getPath());
+        final CountDownLatch deadline = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int i = 0; i < THREADS; ++i) {
+            final long userId = 600 + i;
+            futures.add(executor.submit(new Callable<Void>() {
+                public Void call() throws Exception {
+                    deadline.await();
+                    for (int j = 0; j < UPLOADS_PER_THREAD; ++j) {
+                        services.uploadSubmission(30, userId, "submission.jar",
+                            new DataHandler(new FileDataSource(source)));
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        long startTime = System.currentTimeMillis();
+        deadline.countDown();
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long endTime = System.currentTimeMillis();
+
+        int total = THREADS * UPLOADS_PER_THREAD;
+        assertEquals("every upload should be delegated", total, uploadServices.getUploads());
+        assertEquals("every upload should be stored in its own file", total,
+            new HashSet<String>(uploadServices.getFilenames()).size());
+
+        File[] files = storage.listFiles();
+        assertEquals("every upload should be stored", total, files.length);
+        byte[] expected = read(source);
+        for (File file : files) {
+            assertTrue("the stored file should be complete: " + file, Arrays.equals(expected, read(file)));
+        }
+
+        System.out.println("Executing uploadSubmission for " + total + " times by " + THREADS + " threads takes "
+            + (endTime - startTime) + " milliseconds");
+    }
+
+    /**
+     * Reads the content of the file.
+     * @param file the file to read.
+     * @return the content of the file.
+     * @throws IOException if the file fails to be read.
+     */
+    private static byte[] read(File file) throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        InputStream input = new FileInputStream(file);
+        try {
+            int offset = 0;
+            int length;
+            while (offset < content.length && (length = input.read(content, offset, content.length - offset)) != -1) {
+                offset += length;
+            }
+        } finally {
+            input.close();
+        }
+        return content;
+    }
+
+    /**
+     * <p>
+     * <code>UploadServices</code> recording the uploaded file names.
+     * </p>
+     */
+    private static class CountingUploadServices implements UploadServices {
+        /**
+         * The id of the next submission.
+         */
+        private final AtomicLong nextId = new AtomicLong(1);
+
+        /**
+         * The uploaded file names.
+         */
+        private final List<String> filenames = new ArrayList<String>();
+
+        /**
+         * Records the upload.
+         * @param projectId the project's id.
+         * @param userId the user's id.
+         * @param filename the file name.
+         * @return the id of the submission.
+         */
+        public long uploadSubmission(long projectId, long userId, String filename) {
+            synchronized (filenames) {
+                filenames.add(filename);
+            }
+            return nextId.getAndIncrement();
+        }
+
+        /**
+         * Gets the number of uploads.
+         * @return the number of uploads.
+         */
+        int getUploads() {
+            synchronized (filenames) {
+                return filenames.size();
+            }
+        }
+
+        /**
+         * Gets the uploaded file names.
+         * @return the uploaded file names.
+         */
+        List<String> getFilenames() {
+            synchronized (filenames) {
+                return new ArrayList<String>(filenames);
+            }
+        }
+
+        /**
+         * Not used.
+         * @param projectId not used.
+         * @param userId not used.
+         * @param filename not used.
+         * @return nothing.
+         */
+        public long uploadFinalFix(long projectId, long userId, String filename) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not used.
+         * @param projectId not used.
+         * @param userId not used.
+         * @param filename not used.
+         * @return nothing.
+         */
+        public long uploadTestCases(long projectId, long userId, String filename) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not used.
+         * @param projectId not used.
+         * @param userId not used.
+         * @param filename not used.
+         * @return nothing.
+         */
+        public long uploadSpecification(long projectId, long userId, String filename) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not used.
+         * @param submissionId not used.
+         * @param submissionStatusId not used.
+         * @param operator not used.
+         */
+        public void setSubmissionStatus(long submissionId, long submissionStatusId, String operator) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not used.
+         * @param projectId not used.
+         * @param userId not used.
+         * @return nothing.
+         */
+        public long addSubmitter(long projectId, long userId) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not used.
+         * @param projectId not used.
+         * @param userId not used.
+         * @return nothing.
+         */
+        public Resource addReviewer(long projectId, long userId) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not used.
+         * @param projectId not used.
+         * @param userId not used.
+         * @return nothing.
+         */
+        public Resource addPrimaryScreener(long projectId, long userId) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not used.
+         * @param projectId not used.
+         * @param operator not used.
+         * @return nothing.
+         */
+        public Set<Long> removeAllSubmitters(long projectId, String operator) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Not used.
+         * @param projectId not used.
+         * @param users not used.
+         * @param operator not used.
+         * @return nothing.
+         */
+        public Set<Long> removeSubmitters(long projectId, Set<Long> users, String operator) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
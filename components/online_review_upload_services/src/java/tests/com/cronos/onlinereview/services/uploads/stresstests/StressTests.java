@@ -25,6 +25,7 @@ public class StressTests extends TestCase {
 
         suite.addTestSuite(DefaulUploadServicesStressTests.class);
         suite.addTestSuite(DefaulUploadExternalServicesStressTests.class);
+        suite.addTestSuite(ConcurrentDeadlineUploadStressTests.class);
 
         return suite;
     }
@@ -10,6 +10,7 @@ import java.util.Map;
 
 import com.topcoder.db.connectionfactory.DBConnectionException;
 import com.topcoder.db.connectionfactory.DBConnectionFactory;
+import com.topcoder.service.util.idgenerator.BlockIDGeneratorFactory;
 import com.topcoder.util.config.ConfigManager;
 import com.topcoder.util.config.UnknownNamespaceException;
 import com.topcoder.util.idgenerator.IDGenerationException;
@@ -45,8 +46,15 @@ import com.topcoder.util.idgenerator.IDGeneratorFactory;
  * the operation to Database is not thread safe because two thread may overwrite
  * each other's work in database.
  * </p>
- * @author AleaActaEst, TCSDEVELOPER
- * @version 1.1
+ * <p>
+ * Version 1.2 Change notes:
+ * <ol>
+ * <li>Without a configured generator class, the ID generator is taken from {@link BlockIDGeneratorFactory}, which
+ * reserves the IDs in blocks.</li>
+ * </ol>
+ * </p>
+ * @author AleaActaEst, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.2
  */
 public abstract class AbstractDbPhasePersistence implements PhasePersistence {
 
@@ -300,7 +308,7 @@ public abstract class AbstractDbPhasePersistence implements PhasePersistence {
             String className) throws ConfigurationException {
         try {
             if (className == null) {
-                return IDGeneratorFactory.getIDGenerator(sequence);
+                return BlockIDGeneratorFactory.getIDGenerator(sequence);
             }
             return IDGeneratorFactory.getIDGenerator(sequence, className);
         } catch (IDGenerationException ex) {
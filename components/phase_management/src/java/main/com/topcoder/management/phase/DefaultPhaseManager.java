@@ -9,6 +9,7 @@ import com.topcoder.project.phases.Phase;
 import com.topcoder.project.phases.PhaseStatus;
 import com.topcoder.project.phases.PhaseType;
 import com.topcoder.project.phases.Project;
+import com.topcoder.service.util.idgenerator.BlockIDGenerator;
 
 import com.topcoder.util.config.ConfigManager;
 import com.topcoder.util.config.UnknownNamespaceException;
@@ -51,8 +52,14 @@ import java.util.TreeSet;
  * <p>In addition, a phase validator can be provided that will ensure that all phases that are subject to
  * persistent storage operations are validated before they are persisted. This is a pluggable option.</p>
  *
- * @author AleaActaEst, RachaelLCook
- * @version 1.0
+ * <p>Version 1.1 Change notes:
+ * <ol>
+ * <li>{@link #updatePhases(Project, String)} takes the IDs of all the new phases at once.</li>
+ * </ol>
+ * </p>
+ *
+ * @author AleaActaEst, RachaelLCook, TCSASSEMBLER
+ * @version 1.1
  */
 
 public class DefaultPhaseManager implements PhaseManager {
@@ -386,9 +393,16 @@ public class DefaultPhaseManager implements PhaseManager {
 
         try {
             // next, set the ID for any phases that need it
+            int newPhases = 0;
             for (int i = 0; i < phases.length; ++i) {
                 if (persistence.isNewPhase(phases[i])) {
-                    phases[i].setId(this.idGenerator.getNextID());
+                    newPhases++;
+                }
+            }
+            long[] ids = BlockIDGenerator.nextIds(this.idGenerator, newPhases);
+            for (int i = 0, j = 0; i < phases.length; ++i) {
+                if (persistence.isNewPhase(phases[i])) {
+                    phases[i].setId(ids[j++]);
                 }
             }
 
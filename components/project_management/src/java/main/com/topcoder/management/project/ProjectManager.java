@@ -106,12 +106,19 @@ import com.topcoder.search.builder.filter.Filter;
  * </p>
  *
  * <p>
+ * Version 1.6 change notes:
+ * <ul>
+ *     <li>Added method {@link #getContestUserData(long[], long, long)}</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
  * Thread safety: The implementations of this interface do not have to be thread
  * safe.
  * </p>
  *
  * @author tuenm, iamajia, pulky, murphydog, bugbuka, GreatKevin
- * @version 1.5
+ * @version 1.6
  */
 public interface ProjectManager {
     /**
@@ -984,6 +991,24 @@ public interface ProjectManager {
     public boolean hasContestPermission(long contestId, long userId)  throws PersistenceException;
 
 
+    /**
+     * Gets the data of the given user on the given contests with a single query: the forum of each contest, whether
+     * the user has a permission on the contest or on its direct project, and whether the user has a resource with
+     * the given role on the contest.
+     *
+     * @param contestIds the contest ids
+     * @param roleId the resource role id
+     * @param userId the user id
+     *
+     * @return the data of the user on the existing contests, empty if there is no contest.
+     * @throws IllegalArgumentException if contestIds is null
+     * @throws PersistenceException if any other error occurs.
+     * @since 1.6
+     */
+    public List<SimpleContestUserData> getContestUserData(long[] contestIds, long roleId, long userId)
+        throws PersistenceException;
+
+
     /**
      * <p>
      * get tc direct project id by project id
@@ -122,6 +122,13 @@ import java.util.Map;
  *     <li>Added method {@link #getAllProjectPlatforms()}</li>
  * </ul>
  * </p>
+ *
+ * <p>
+ * Version 1.6 change notes:
+ * <ul>
+ *     <li>Added method {@link #getContestUserData(long[], long, long)}</li>
+ * </ul>
+ * </p>
  * 
  * <p>
  * Thread Safety: The implementation is not thread safe in that two threads
@@ -130,7 +137,7 @@ import java.util.Map;
  * </p>
  *
  * @author tuenm, iamajia, pulky, murphydog, bugbuka, GreatKevin
- * @version 1.5
+ * @version 1.6
  */
 public class ProjectManagerImpl implements ProjectManager {
     /**
@@ -1369,6 +1376,27 @@ public class ProjectManagerImpl implements ProjectManager {
     }
 
 
+    /**
+     * Gets the data of the given user on the given contests with a single query: the forum of each contest, whether
+     * the user has a permission on the contest or on its direct project, and whether the user has a resource with
+     * the given role on the contest.
+     *
+     * @param contestIds the contest ids
+     * @param roleId the resource role id
+     * @param userId the user id
+     *
+     * @return the data of the user on the existing contests, empty if there is no contest.
+     * @throws IllegalArgumentException if contestIds is null
+     * @throws PersistenceException if any other error occurs.
+     * @since 1.6
+     */
+    public List<SimpleContestUserData> getContestUserData(long[] contestIds, long roleId, long userId)
+        throws PersistenceException {
+        Helper.checkObjectNotNull(contestIds, "contestIds");
+        return persistence.getContestUserData(contestIds, roleId, userId);
+    }
+
+
     /**
      * <p>
      * get tc direct project id by project id
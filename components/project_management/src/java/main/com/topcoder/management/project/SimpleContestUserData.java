@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.management.project;
+
+import java.io.Serializable;
+
+/**
+ * <p>
+ * Bean class to hold the data of a user on a contest which is needed to add or remove the user's resource on the
+ * contest when the user's permissions change: the forum of the contest, whether the user has a permission on the
+ * contest or on its direct project, and whether the user has the resource already.
+ * </p>
+ *
+ * <p>
+ * Thread safety: This class is mutable and not thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class SimpleContestUserData implements Serializable {
+
+    /**
+     * Generated serial version id.
+     */
+    private static final long serialVersionUID = 3307531986274390116L;
+
+    /**
+     * Represents the contest id.
+     */
+    private long contestId;
+
+    /**
+     * Represents the forum id of the contest, 0 if the contest has no forum.
+     */
+    private long forumId;
+
+    /**
+     * Represents whether the user has a permission on the contest.
+     */
+    private boolean contestPermission;
+
+    /**
+     * Represents whether the user has a permission on the direct project of the contest.
+     */
+    private boolean projectPermission;
+
+    /**
+     * Represents whether the user has the resource on the contest.
+     */
+    private boolean resourceExists;
+
+    /**
+     * Gets the contest id.
+     *
+     * @return the contest id.
+     */
+    public long getContestId() {
+        return contestId;
+    }
+
+    /**
+     * Sets the contest id.
+     *
+     * @param contestId the contest id.
+     */
+    public void setContestId(long contestId) {
+        this.contestId = contestId;
+    }
+
+    /**
+     * Gets the forum id of the contest.
+     *
+     * @return the forum id of the contest, 0 if the contest has no forum.
+     */
+    public long getForumId() {
+        return forumId;
+    }
+
+    /**
+     * Sets the forum id of the contest.
+     *
+     * @param forumId the forum id of the contest.
+     */
+    public void setForumId(long forumId) {
+        this.forumId = forumId;
+    }
+
+    /**
+     * Gets whether the user has a permission on the contest.
+     *
+     * @return true if the user has a permission on the contest.
+     */
+    public boolean isContestPermission() {
+        return contestPermission;
+    }
+
+    /**
+     * Sets whether the user has a permission on the contest.
+     *
+     * @param contestPermission whether the user has a permission on the contest.
+     */
+    public void setContestPermission(boolean contestPermission) {
+        this.contestPermission = contestPermission;
+    }
+
+    /**
+     * Gets whether the user has a permission on the direct project of the contest.
+     *
+     * @return true if the user has a permission on the direct project of the contest.
+     */
+    public boolean isProjectPermission() {
+        return projectPermission;
+    }
+
+    /**
+     * Sets whether the user has a permission on the direct project of the contest.
+     *
+     * @param projectPermission whether the user has a permission on the direct project of the contest.
+     */
+    public void setProjectPermission(boolean projectPermission) {
+        this.projectPermission = projectPermission;
+    }
+
+    /**
+     * Gets whether the user has the resource on the contest.
+     *
+     * @return true if the user has the resource on the contest.
+     */
+    public boolean isResourceExists() {
+        return resourceExists;
+    }
+
+    /**
+     * Sets whether the user has the resource on the contest.
+     *
+     * @param resourceExists whether the user has the resource on the contest.
+     */
+    public void setResourceExists(boolean resourceExists) {
+        this.resourceExists = resourceExists;
+    }
+}
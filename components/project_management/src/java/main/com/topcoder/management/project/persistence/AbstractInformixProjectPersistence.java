@@ -52,15 +52,16 @@ import com.topcoder.management.project.SaleStatus;
 import com.topcoder.management.project.SaleType;
 import com.topcoder.management.project.SimplePipelineData;
 import com.topcoder.management.project.SimpleProjectContestData;
+import com.topcoder.management.project.SimpleContestUserData;
 import com.topcoder.management.project.SimpleProjectPermissionData;
 import com.topcoder.management.project.SoftwareCapacityData;
 import com.topcoder.management.project.persistence.Helper.DataType;
 import com.topcoder.management.project.persistence.logging.LogMessage;
+import com.topcoder.service.util.idgenerator.BlockIDGeneratorFactory;
 import com.topcoder.util.config.ConfigManager;
 import com.topcoder.util.config.ConfigManagerException;
 import com.topcoder.util.idgenerator.IDGenerationException;
 import com.topcoder.util.idgenerator.IDGenerator;
-import com.topcoder.util.idgenerator.IDGeneratorFactory;
 import com.topcoder.util.log.Level;
 import com.topcoder.util.log.Log;
 import com.topcoder.util.sql.databaseabstraction.CustomResultSet;
@@ -378,12 +379,29 @@ import com.topcoder.util.sql.databaseabstraction.NullColumnValueException;
  * </p>
  *
  * <p>
+ * Version 1.8.2 change notes:
+ * <ul>
+ *     <li>Added {@link #QUERY_CONTEST_USER_DATA_SQL}</li>
+ *     <li>Added {@link #QUERY_CONTEST_USER_DATA_COLUMN_TYPES}</li>
+ *     <li>Added method {@link #getContestUserData(long[], long, long)}</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Version 1.8.3 change notes:
+ * <ul>
+ *     <li>The ID generators are taken from {@link BlockIDGeneratorFactory}, which reserves the IDs in blocks.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
  * Thread Safety: This class is thread safe because it is immutable.
  * </p>
  *
  *
- * @author tuenm, urtks, bendlund, fuyun, flytoj2ee, tangzx, GreatKevin, frozenfx, freegod, bugbuka, Veve, GreatKevin
- * @version 1.8.1
+ * @author tuenm, urtks, bendlund, fuyun, flytoj2ee, tangzx, GreatKevin, frozenfx, freegod, bugbuka, Veve, GreatKevin,
+ *         TCSASSEMBLER
+ * @version 1.8.3
  * @since 1.0
  */
 public abstract class AbstractInformixProjectPersistence implements ProjectPersistence {
@@ -1963,6 +1981,36 @@ public abstract class AbstractInformixProjectPersistence implements ProjectPersi
      */
     private static final DataType[] QUERY_FORUM_ID_COLUMN_TYPES = new DataType[] {Helper.LONG_TYPE}; 
 
+    /**
+     * Represents the sql statement to query the forum of the contests, the permissions of a user on the contests
+     * and their direct projects, and the resources of the user with a role on the contests. The id list of the
+     * contests should be appended to it.
+     *
+     * @since 1.8.2
+     */
+    private static final String QUERY_CONTEST_USER_DATA_SQL = "SELECT p.project_id, "
+        + " (SELECT pi.value FROM project_info pi WHERE pi.project_id = p.project_id"
+        + "   AND pi.project_info_type_id = 4) AS forum_id, "
+        + " (SELECT COUNT(*) FROM user_permission_grant upg WHERE upg.resource_id = p.project_id"
+        + "   AND upg.is_studio = 0 AND upg.permission_type_id >= " + CONTEST_READ_PERMISSION_ID
+        + "   AND upg.user_id = ?) AS contest_permission, "
+        + " (SELECT COUNT(*) FROM user_permission_grant upg WHERE upg.resource_id = p.tc_direct_project_id"
+        + "   AND upg.permission_type_id >= " + PROJECT_READ_PERMISSION_ID
+        + "   AND upg.user_id = ?) AS project_permission, "
+        + " (SELECT COUNT(*) FROM resource r, resource_info ri WHERE r.project_id = p.project_id"
+        + "   AND r.resource_role_id = ? AND ri.resource_id = r.resource_id AND ri.resource_info_type_id = 1"
+        + "   AND ri.value = ?) AS resource_count "
+        + " FROM project p WHERE p.project_id IN ";
+
+    /**
+     * Represents the column types for the result set which is returned by executing the sql statement to query
+     * the data of a user on contests.
+     *
+     * @since 1.8.2
+     */
+    private static final DataType[] QUERY_CONTEST_USER_DATA_COLUMN_TYPES = new DataType[] {Helper.LONG_TYPE,
+        Helper.LONG_TYPE, Helper.LONG_TYPE, Helper.LONG_TYPE, Helper.LONG_TYPE};
+
             
     /**
         * Represents the sql statement to insert the term of use.
@@ -2717,7 +2765,7 @@ public abstract class AbstractInformixProjectPersistence implements ProjectPersi
 
         // try to get the IDGenerators
         try {
-            projectIdGenerator = IDGeneratorFactory
+            projectIdGenerator = BlockIDGeneratorFactory
                     .getIDGenerator(projectIdSequenceName);
         } catch (IDGenerationException e) {
         	getLogger().log(Level.ERROR, "The projectIdSequence [" + projectIdSequenceName+"] is invalid.");
@@ -2725,7 +2773,7 @@ public abstract class AbstractInformixProjectPersistence implements ProjectPersi
                     + projectIdSequenceName + "'.", e);
         }
         try {
-            contestSaleIdGenerator = IDGeneratorFactory
+            contestSaleIdGenerator = BlockIDGeneratorFactory
                     .getIDGenerator(contestSaleIdSequenceName);
         } catch (IDGenerationException e) {
         	getLogger().log(Level.ERROR, "The contestSaleIdSequence [" + contestSaleIdSequenceName+"] is invalid.");
@@ -2734,7 +2782,7 @@ public abstract class AbstractInformixProjectPersistence implements ProjectPersi
         }
         
 		try {
-            fileTypeIdGenerator = IDGeneratorFactory.getIDGenerator(fileTypeIdGeneratorSequenceName);
+            fileTypeIdGenerator = BlockIDGeneratorFactory.getIDGenerator(fileTypeIdGeneratorSequenceName);
         } catch (IDGenerationException e) {
             getLogger().log(Level.ERROR,
                 "The fileTypeIdGeneratorSequence [" + fileTypeIdGeneratorSequenceName + "] is invalid.");
@@ -2743,7 +2791,7 @@ public abstract class AbstractInformixProjectPersistence implements ProjectPersi
         }
         
 		try {
-            projectAuditIdGenerator = IDGeneratorFactory
+            projectAuditIdGenerator = BlockIDGeneratorFactory
                     .getIDGenerator(projectAuditIdSequenceName);
         } catch (IDGenerationException e) {
         	getLogger().log(Level.ERROR, "The projectAuditIdSequence [" + projectAuditIdSequenceName +"] is invalid.");
@@ -2753,7 +2801,7 @@ public abstract class AbstractInformixProjectPersistence implements ProjectPersi
         
         
         try {
-            prizeIdGenerator = IDGeneratorFactory.getIDGenerator(prizeIdGeneratorSequenceName);
+            prizeIdGenerator = BlockIDGeneratorFactory.getIDGenerator(prizeIdGeneratorSequenceName);
         } catch (IDGenerationException e) {
             getLogger().log(Level.ERROR,
                 "The prizeIdGeneratorSequence [" + prizeIdGeneratorSequenceName + "] is invalid.");
@@ -2761,7 +2809,7 @@ public abstract class AbstractInformixProjectPersistence implements ProjectPersi
                 e);
         }
         try {
-            studioSpecIdGenerator = IDGeneratorFactory.getIDGenerator(studioSpecIdGeneratorSequenceName);
+            studioSpecIdGenerator = BlockIDGeneratorFactory.getIDGenerator(studioSpecIdGeneratorSequenceName);
         } catch (IDGenerationException e) {
             getLogger().log(Level.ERROR,
                 "The studioSpecIdGeneratorSequence [" + studioSpecIdGeneratorSequenceName + "] is invalid.");
@@ -2770,7 +2818,7 @@ public abstract class AbstractInformixProjectPersistence implements ProjectPersi
         }
         
         try {
-            mmSpecIdGenerator = IDGeneratorFactory.getIDGenerator(mmSpecIdGeneratorSequenceName);
+            mmSpecIdGenerator = BlockIDGeneratorFactory.getIDGenerator(mmSpecIdGeneratorSequenceName);
         } catch (IDGenerationException e) {
             getLogger().log(Level.ERROR,
                 "The mmSpecIdGeneratorSequence [" + mmSpecIdGeneratorSequenceName + "] is invalid.");
@@ -2783,7 +2831,7 @@ public abstract class AbstractInformixProjectPersistence implements ProjectPersi
         // since Cockpit Launch Contest - Update for Spec Creation v1.0
         //
 		try {
-            projectSpecIdGenerator = IDGeneratorFactory
+            projectSpecIdGenerator = BlockIDGeneratorFactory
                     .getIDGenerator(projectSpecIdSequenceName);
         } catch (IDGenerationException e) {
             getLogger().log(Level.ERROR, "The projectSpecIdSequence [" + projectSpecIdSequenceName +"] is invalid.");
@@ -9427,6 +9475,70 @@ public abstract class AbstractInformixProjectPersistence implements ProjectPersi
     }
 
 
+
+    /**
+     * Gets the data of the given user on the given contests with a single query: the forum of each contest, whether
+     * the user has a permission on the contest or on its direct project, and whether the user has a resource with
+     * the given role on the contest.
+     *
+     * @param contestIds the contest ids
+     * @param roleId the resource role id
+     * @param userId the user id
+     *
+     * @return the data of the user on the existing contests, empty if there is no contest.
+     * @throws IllegalArgumentException if contestIds is null
+     * @throws PersistenceException if any other error occurs.
+     * @since 1.8.2
+     */
+    public List<SimpleContestUserData> getContestUserData(long[] contestIds, long roleId, long userId)
+        throws PersistenceException {
+        Helper.assertObjectNotNull(contestIds, "contestIds");
+
+        List<SimpleContestUserData> ret = new ArrayList<SimpleContestUserData>();
+        if (contestIds.length == 0) {
+            return ret;
+        }
+
+        StringBuffer idListBuffer = new StringBuffer();
+        idListBuffer.append('(');
+        for (int i = 0; i < contestIds.length; ++i) {
+            if (i != 0) {
+                idListBuffer.append(',');
+            }
+            idListBuffer.append(contestIds[i]);
+        }
+        idListBuffer.append(')');
+
+        Connection conn = null;
+        try {
+            // create the connection
+            conn = openConnection();
+
+            Object[][] rows = Helper.doQuery(conn, QUERY_CONTEST_USER_DATA_SQL + idListBuffer.toString(),
+                new Object[] {userId, userId, roleId, String.valueOf(userId)}, QUERY_CONTEST_USER_DATA_COLUMN_TYPES);
+
+            for (int i = 0; i < rows.length; i++) {
+                SimpleContestUserData data = new SimpleContestUserData();
+                data.setContestId((Long) rows[i][0]);
+                data.setForumId(rows[i][1] == null ? 0 : ((Long) rows[i][1]).longValue());
+                data.setContestPermission(((Long) rows[i][2]).longValue() > 0);
+                data.setProjectPermission(((Long) rows[i][3]).longValue() > 0);
+                data.setResourceExists(((Long) rows[i][4]).longValue() > 0);
+                ret.add(data);
+            }
+            return ret;
+        } catch (PersistenceException e) {
+            getLogger().log(Level.ERROR, new LogMessage(null, null,
+                  "Fails to retrieve the data of user " + userId + " on contests", e));
+            if (conn != null) {
+                closeConnectionOnError(conn);
+            }
+            throw e;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
     /**
      * <p>
      * check if it is dev only 
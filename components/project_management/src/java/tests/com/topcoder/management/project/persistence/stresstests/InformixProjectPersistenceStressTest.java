@@ -3,9 +3,12 @@
  */
 package com.topcoder.management.project.persistence.stresstests;
 
+import java.util.List;
+
 import junit.framework.TestCase;
 
 import com.topcoder.management.project.Project;
+import com.topcoder.management.project.SimpleContestUserData;
 import com.topcoder.management.project.persistence.InformixProjectPersistence;
 
 /**
@@ -13,8 +16,15 @@ import com.topcoder.management.project.persistence.InformixProjectPersistence;
  * Stress tests for the InformixProjectPersistence class.
  * </p>
  * 
+ * <p>
+ * Version 1.1 change notes:
+ * <ul>
+ * <li>Added stress test for getContestUserData(long[], long, long).</li>
+ * </ul>
+ * </p>
+ *
  * @author mgmg
- * @version 1.0
+ * @version 1.1
  */
 public class InformixProjectPersistenceStressTest extends TestCase {
     /** 
@@ -216,4 +226,38 @@ public class InformixProjectPersistenceStressTest extends TestCase {
                 + "takes " + Long.toString(dure) + " ms.");
     }
 
+    /**
+     * Stress Test on getContestUserData(long[], long, long) for the 300 contests of a direct project, compared
+     * with checking the permission and getting the forum of the contests one by one.
+     *
+     * @throws Exception
+     *             any exception to JUnit.
+     * @since 1.1
+     */
+    public void testGetContestUserData_300() throws Exception {
+        long[] contestIds = new long[300];
+        for (int i = 0; i < contestIds.length; i++) {
+            Project project = StressTestHelper.getSampleProject();
+            persistence.createProject(project, "reviewer");
+            contestIds[i] = project.getId();
+        }
+
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < contestIds.length; i++) {
+            persistence.hasContestPermission(contestIds[i], 1);
+            persistence.getForumId(contestIds[i]);
+        }
+        long dure = System.currentTimeMillis() - startTime;
+        System.out.println("InformixProjectPersistence#hasContestPermission(long, long) and getForumId(long) "
+                + "tested for 300 contests, takes " + Long.toString(dure) + " ms.");
+
+        startTime = System.currentTimeMillis();
+        // 14 is the observer role
+        List<SimpleContestUserData> data = persistence.getContestUserData(contestIds, 14, 1);
+        dure = System.currentTimeMillis() - startTime;
+        assertEquals("check the number of contests", contestIds.length, data.size());
+        System.out.println("InformixProjectPersistence#getContestUserData(long[], long, long) "
+                + "tested for 300 contests, takes " + Long.toString(dure) + " ms.");
+    }
+
 }
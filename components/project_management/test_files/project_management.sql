@@ -85,6 +85,7 @@ CREATE TABLE project_audit (
 CREATE TABLE resource (
   resource_id                   INTEGER                         NOT NULL,
   project_id                    INTEGER,
+  resource_role_id              INTEGER,
   PRIMARY KEY(resource_id),
   FOREIGN KEY(project_id)
     REFERENCES project(project_id)
@@ -106,6 +107,15 @@ CREATE TABLE resource_info (
   PRIMARY KEY(resource_id, resource_info_type_id)
 );
 
+CREATE TABLE user_permission_grant (
+  user_permission_grant_id      INTEGER                         NOT NULL,
+  user_id                       DECIMAL(10,0)                   NOT NULL,
+  resource_id                   DECIMAL(10,0)                   NOT NULL,
+  permission_type_id            DECIMAL(10,0)                   NOT NULL,
+  is_studio                     SMALLINT                        DEFAULT 0,
+  PRIMARY KEY(user_permission_grant_id)
+);
+
 CREATE TABLE id_sequences (
   name VARCHAR(255) NOT NULL,
   next_block_start INTEGER NOT NULL,
@@ -28,9 +28,9 @@ import com.topcoder.search.builder.filter.AndFilter;
 import com.topcoder.search.builder.filter.Filter;
 import com.topcoder.search.builder.filter.GreaterThanOrEqualToFilter;
 import com.topcoder.search.builder.filter.OrFilter;
+import com.topcoder.service.util.idgenerator.BlockIDGeneratorFactory;
 import com.topcoder.util.idgenerator.IDGenerationException;
 import com.topcoder.util.idgenerator.IDGenerator;
-import com.topcoder.util.idgenerator.IDGeneratorFactory;
 import com.topcoder.util.sql.databaseabstraction.CustomResultSet;
 
 /**
@@ -96,11 +96,15 @@ import com.topcoder.util.sql.databaseabstraction.CustomResultSet;
  * Please refer to Demo for more usage details.
  * </p>
  * <p>
+ * Version 1.4 update:
+ * The ID generators are taken from BlockIDGeneratorFactory, which reserves the IDs in blocks.
+ * </p>
+ * <p>
  * This class is immutable and hence thread-safe.
  * </p>
  *
- * @author aubergineanode, kinfkong, George1, waits
- * @version 1.3
+ * @author aubergineanode, kinfkong, George1, waits, TCSASSEMBLER
+ * @version 1.4
  * @since 1.0
  */
 public class PersistenceResourceManager implements ResourceManager {
@@ -1519,7 +1523,7 @@ public class PersistenceResourceManager implements ResourceManager {
 
     /**
      * <p>
-     * Returns an IDGenerator from the IDGeneratorFactory.
+     * Returns an IDGenerator from the BlockIDGeneratorFactory.
      * </p>
      *
      * @param idGeneratorName the name of the IDGenerator
@@ -1531,7 +1535,7 @@ public class PersistenceResourceManager implements ResourceManager {
     private IDGenerator getIdGenerator(String idGeneratorName) {
         IDGenerator idGenerator = null;
         try {
-            idGenerator = IDGeneratorFactory.getIDGenerator(idGeneratorName);
+            idGenerator = BlockIDGeneratorFactory.getIDGenerator(idGeneratorName);
         } catch (IDGenerationException e) {
 
             // wrap it to IllegalArgumentException
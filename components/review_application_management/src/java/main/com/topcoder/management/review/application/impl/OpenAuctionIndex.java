@@ -0,0 +1,552 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.management.review.application.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import com.topcoder.management.review.application.ReviewAuction;
+
+/**
+ * <p>
+ * An in-memory index of the open review auctions, used by {@link ReviewAuctionManagerImpl} to serve
+ * searchOpenAuctions without running the search bundle and the assigned resource roles query on every call.
+ * </p>
+ *
+ * <p>
+ * The index keeps one snapshot per search (auction category ID and project category IDs). A snapshot holds the open
+ * auctions with their open positions as computed from the database at load time. Changes are recorded with a
+ * sequence number:
+ * <ul>
+ * <li>{@link #auctionChanged(long)} is called when an application of the auction is created or updated
+ * ({@link ReviewApplicationManagerImpl} does it), the snapshots reload just that auction;</li>
+ * <li>{@link #projectChanged(long)} is called when the resources, the phases or the status of a project change
+ * (ProjectServicesImpl does it), the snapshots reload just the auctions of the project;</li>
+ * <li>{@link #categoryChanged(long)} is called when an auction of the category is created, the snapshots of the
+ * category are reloaded entirely.</li>
+ * </ul>
+ * The reloaded auctions replace the ones of the snapshot, so an auction which was full or whose project was not
+ * active when the snapshot was loaded is added once it's open again.
+ * When these methods are called in a JTA transaction, the change is recorded once the transaction commits (and
+ * dropped if it rolls back): a load started before the commit reads the old rows, so the change must get a later
+ * sequence number than the load to be picked up by the next search.
+ * Changes not reported through these methods are picked up by the periodic reconciliation: a snapshot older than the
+ * refresh interval of the manager is reloaded from the database. Only one thread reloads a given snapshot, the others
+ * keep serving the current one.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety: </strong> This class is thread safe. The snapshots are immutable and the returned auctions
+ * are copies.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0.4
+ * @since 1.0.4
+ */
+public class OpenAuctionIndex {
+    /**
+     * The index shared by the managers of this JVM.
+     */
+    private static final OpenAuctionIndex INSTANCE = new OpenAuctionIndex();
+
+    /**
+     * The JNDI name of the transaction synchronization registry.
+     */
+    private static final String REGISTRY_NAME = "java:comp/TransactionSynchronizationRegistry";
+
+    /**
+     * The snapshots by search key. Cannot be null.
+     */
+    private final ConcurrentMap<String, Snapshot> snapshots = new ConcurrentHashMap<String, Snapshot>();
+
+    /**
+     * The sequence number of the last change of each changed auction. Cannot be null.
+     */
+    private final ConcurrentMap<Long, Long> changedAuctions = new ConcurrentHashMap<Long, Long>();
+
+    /**
+     * The sequence number of the last change of each changed project. Cannot be null.
+     */
+    private final ConcurrentMap<Long, Long> changedProjects = new ConcurrentHashMap<Long, Long>();
+
+    /**
+     * The sequence number of the last change of each changed auction category. Cannot be null.
+     */
+    private final ConcurrentMap<Long, Long> changedCategories = new ConcurrentHashMap<Long, Long>();
+
+    /**
+     * The sequence of the changes. Cannot be null.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The number of loads in progress. Cannot be null.
+     */
+    private final AtomicInteger loading = new AtomicInteger();
+
+    /**
+     * Creates an empty index.
+     */
+    public OpenAuctionIndex() {
+        // Empty
+    }
+
+    /**
+     * Gets the index shared by the managers of this JVM.
+     *
+     * @return the shared index.
+     */
+    public static OpenAuctionIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records that the applications or the assignments of the auction changed.
+     *
+     * @param auctionId
+     *            the auction ID
+     */
+    public void auctionChanged(long auctionId) {
+        recordAfterCommit(changedAuctions, auctionId);
+    }
+
+    /**
+     * Records that the resources, the phases or the status of the project changed.
+     *
+     * @param projectId
+     *            the project ID
+     */
+    public void projectChanged(long projectId) {
+        recordAfterCommit(changedProjects, projectId);
+    }
+
+    /**
+     * Records that an auction of the category was created.
+     *
+     * @param auctionCategoryId
+     *            the auction category ID
+     */
+    public void categoryChanged(long auctionCategoryId) {
+        recordAfterCommit(changedCategories, auctionCategoryId);
+    }
+
+    /**
+     * Records the change once the current JTA transaction commits, or right away if there is no transaction.
+     *
+     * @param changes
+     *            the changes to record the change in
+     * @param id
+     *            the ID of the changed entity
+     */
+    private void recordAfterCommit(final ConcurrentMap<Long, Long> changes, final long id) {
+        TransactionSynchronizationRegistry registry = getTransactionSynchronizationRegistry();
+        if (registry != null && registry.getTransactionKey() != null) {
+            try {
+                registry.registerInterposedSynchronization(new Synchronization() {
+                    public void beforeCompletion() {
+                        // Empty
+                    }
+
+                    public void afterCompletion(int status) {
+                        if (status == Status.STATUS_COMMITTED) {
+                            record(changes, id);
+                        }
+                    }
+                });
+                return;
+            } catch (IllegalStateException e) {
+                // the transaction is completing, record the change right away
+            }
+        }
+        record(changes, id);
+    }
+
+    /**
+     * Records the change if some search is indexed or being loaded.
+     *
+     * @param changes
+     *            the changes to record the change in
+     * @param id
+     *            the ID of the changed entity
+     */
+    private void record(ConcurrentMap<Long, Long> changes, long id) {
+        if (isIndexing()) {
+            changes.put(id, sequence.incrementAndGet());
+        }
+    }
+
+    /**
+     * Gets the transaction synchronization registry of the container.
+     *
+     * @return the registry, or null if it's not available (outside a container).
+     */
+    TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+        try {
+            return (TransactionSynchronizationRegistry) new InitialContext().lookup(REGISTRY_NAME);
+        } catch (NamingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether some search is indexed or being loaded, the changes are recorded only in this case.
+     *
+     * @return true if the changes must be recorded.
+     */
+    private boolean isIndexing() {
+        return loading.get() > 0 || !snapshots.isEmpty();
+    }
+
+    /**
+     * Removes all the snapshots.
+     */
+    public void clear() {
+        snapshots.clear();
+    }
+
+    /**
+     * Gets the key of a search.
+     *
+     * @param auctionCategoryId
+     *            the auction category ID
+     * @param projectCategoryIds
+     *            the project category IDs, can be null
+     *
+     * @return the search key.
+     */
+    static String getKey(long auctionCategoryId, List<Long> projectCategoryIds) {
+        if (projectCategoryIds == null) {
+            return String.valueOf(auctionCategoryId);
+        }
+        Long[] ids = projectCategoryIds.toArray(new Long[projectCategoryIds.size()]);
+        Arrays.sort(ids);
+        return auctionCategoryId + ":" + Arrays.toString(ids);
+    }
+
+    /**
+     * Starts loading auctions from the database. It must be followed by {@link #endLoad()}.
+     *
+     * @return the current sequence number, to be passed to {@link #put(String, long, List, long)} or
+     *         {@link #merge(String, Snapshot, Set, Set, List, long)} once the auctions are loaded.
+     */
+    long startLoad() {
+        loading.incrementAndGet();
+        return sequence.get();
+    }
+
+    /**
+     * Ends loading auctions from the database. The changes older than every snapshot are removed when no load is in
+     * progress.
+     */
+    void endLoad() {
+        if (loading.decrementAndGet() == 0) {
+            pruneChanges();
+        }
+    }
+
+    /**
+     * Gets the snapshot of a search.
+     *
+     * @param key
+     *            the search key
+     *
+     * @return the snapshot, null if the search is not indexed.
+     */
+    Snapshot get(String key) {
+        return snapshots.get(key);
+    }
+
+    /**
+     * Stores the snapshot of a search.
+     *
+     * @param key
+     *            the search key
+     * @param auctionCategoryId
+     *            the auction category ID
+     * @param auctions
+     *            the open auctions
+     * @param loadSequence
+     *            the sequence number taken before the auctions were loaded
+     *
+     * @return the stored snapshot.
+     */
+    Snapshot put(String key, long auctionCategoryId, List<ReviewAuction> auctions, long loadSequence) {
+        Snapshot snapshot = new Snapshot(auctionCategoryId, auctions, loadSequence, System.currentTimeMillis());
+        snapshots.put(key, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Stores the snapshot of a search with some auctions reloaded.
+     *
+     * @param key
+     *            the search key
+     * @param snapshot
+     *            the current snapshot
+     * @param reloadedIds
+     *            the IDs of the reloaded auctions
+     * @param reloadedProjectIds
+     *            the IDs of the projects whose auctions were reloaded
+     * @param reloaded
+     *            the reloaded auctions which are still open, they may be missing from the snapshot
+     * @param loadSequence
+     *            the sequence number taken before the auctions were reloaded
+     *
+     * @return the stored snapshot.
+     */
+    Snapshot merge(String key, Snapshot snapshot, Set<Long> reloadedIds, Set<Long> reloadedProjectIds,
+        List<ReviewAuction> reloaded, long loadSequence) {
+        Map<Long, ReviewAuction> byId = new LinkedHashMap<Long, ReviewAuction>();
+        for (ReviewAuction auction : reloaded) {
+            byId.put(auction.getId(), auction);
+        }
+        List<ReviewAuction> auctions = new ArrayList<ReviewAuction>(snapshot.auctions.size() + byId.size());
+        for (ReviewAuction auction : snapshot.auctions) {
+            if (byId.containsKey(auction.getId())) {
+                // keep the position of the auction
+                auctions.add(byId.remove(auction.getId()));
+            } else if (!reloadedIds.contains(auction.getId())
+                && !reloadedProjectIds.contains(auction.getProjectId())) {
+                auctions.add(auction);
+            }
+        }
+        // the auctions which became open since the snapshot was loaded
+        auctions.addAll(byId.values());
+        // the reload time is kept, the reconciliation is still due at the same time
+        Snapshot merged = new Snapshot(snapshot.auctionCategoryId, auctions, loadSequence, snapshot.loadTime);
+        snapshots.replace(key, snapshot, merged);
+        return merged;
+    }
+
+    /**
+     * Checks whether the category of the snapshot changed since it was loaded.
+     *
+     * @param snapshot
+     *            the snapshot
+     *
+     * @return true if the snapshot must be reloaded entirely.
+     */
+    boolean isCategoryChanged(Snapshot snapshot) {
+        Long changed = changedCategories.get(snapshot.auctionCategoryId);
+        return changed != null && changed > snapshot.sequence;
+    }
+
+    /**
+     * Gets the IDs of the auctions which changed since the snapshot was loaded. The auctions missing from the
+     * snapshot are included, they may have been full when it was loaded.
+     *
+     * @param snapshot
+     *            the snapshot
+     *
+     * @return the IDs of the changed auctions, empty if none changed.
+     */
+    Set<Long> getChangedAuctionIds(Snapshot snapshot) {
+        return getChanges(changedAuctions, snapshot);
+    }
+
+    /**
+     * Gets the IDs of the projects which changed since the snapshot was loaded. The projects without auctions in the
+     * snapshot are included, their auctions may have been full or inactive when it was loaded.
+     *
+     * @param snapshot
+     *            the snapshot
+     *
+     * @return the IDs of the changed projects, empty if none changed.
+     */
+    Set<Long> getChangedProjectIds(Snapshot snapshot) {
+        return getChanges(changedProjects, snapshot);
+    }
+
+    /**
+     * Gets the IDs recorded in the changes after the snapshot was loaded.
+     *
+     * @param changes
+     *            the changes
+     * @param snapshot
+     *            the snapshot
+     *
+     * @return the changed IDs, empty if none changed.
+     */
+    private Set<Long> getChanges(ConcurrentMap<Long, Long> changes, Snapshot snapshot) {
+        if (sequence.get() == snapshot.sequence) {
+            return Collections.emptySet();
+        }
+        Set<Long> result = new HashSet<Long>();
+        for (Map.Entry<Long, Long> entry : changes.entrySet()) {
+            if (entry.getValue() > snapshot.sequence) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the changes which are older than every snapshot.
+     */
+    private void pruneChanges() {
+        long oldest = sequence.get();
+        for (Snapshot snapshot : snapshots.values()) {
+            oldest = Math.min(oldest, snapshot.sequence);
+        }
+        pruneChanges(changedAuctions, oldest);
+        pruneChanges(changedProjects, oldest);
+        pruneChanges(changedCategories, oldest);
+    }
+
+    /**
+     * Removes the changes which are not newer than the given sequence number.
+     *
+     * @param changes
+     *            the changes
+     * @param oldest
+     *            the sequence number of the oldest snapshot
+     */
+    private static void pruneChanges(ConcurrentMap<Long, Long> changes, long oldest) {
+        for (Map.Entry<Long, Long> entry : changes.entrySet()) {
+            if (entry.getValue() <= oldest) {
+                changes.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Copies the auction so the caller can't change the indexed one.
+     *
+     * @param auction
+     *            the auction
+     *
+     * @return the copy.
+     */
+    static ReviewAuction copy(ReviewAuction auction) {
+        ReviewAuction result = new ReviewAuction();
+        result.setId(auction.getId());
+        result.setProjectId(auction.getProjectId());
+        result.setAuctionType(auction.getAuctionType());
+        result.setOpen(auction.isOpen());
+        result.setOpenPositions(new ArrayList<Long>(auction.getOpenPositions()));
+        result.setAssignmentDate(auction.getAssignmentDate());
+        return result;
+    }
+
+    /**
+     * <p>
+     * The open auctions of a search, as loaded at some point.
+     * </p>
+     *
+     * <p>
+     * <strong>Thread Safety: </strong> This class is thread safe, it's immutable except for the refresh flag.
+     * </p>
+     *
+     * @author TCSASSEMBLER
+     * @version 1.0.4
+     * @since 1.0.4
+     */
+    static final class Snapshot {
+        /**
+         * The auction category ID of the search.
+         */
+        private final long auctionCategoryId;
+
+        /**
+         * The open auctions. Cannot be null.
+         */
+        private final List<ReviewAuction> auctions;
+
+        /**
+         * The sequence number taken before the auctions were loaded.
+         */
+        private final long sequence;
+
+        /**
+         * The time the auctions were loaded from the database.
+         */
+        private final long loadTime;
+
+        /**
+         * Whether a thread is reloading this snapshot.
+         */
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        /**
+         * Creates the snapshot.
+         *
+         * @param auctionCategoryId
+         *            the auction category ID of the search
+         * @param auctions
+         *            the open auctions
+         * @param sequence
+         *            the sequence number taken before the auctions were loaded
+         * @param loadTime
+         *            the time the auctions were loaded from the database
+         */
+        private Snapshot(long auctionCategoryId, List<ReviewAuction> auctions, long sequence, long loadTime) {
+            this.auctionCategoryId = auctionCategoryId;
+            this.sequence = sequence;
+            this.loadTime = loadTime;
+            this.auctions = new ArrayList<ReviewAuction>(auctions.size());
+            for (ReviewAuction auction : auctions) {
+                this.auctions.add(copy(auction));
+            }
+        }
+
+        /**
+         * Gets copies of the open auctions.
+         *
+         * @return the open auctions.
+         */
+        List<ReviewAuction> getAuctions() {
+            List<ReviewAuction> result = new ArrayList<ReviewAuction>(auctions.size());
+            for (ReviewAuction auction : auctions) {
+                result.add(copy(auction));
+            }
+            return result;
+        }
+
+        /**
+         * Checks whether the snapshot is due for reconciliation.
+         *
+         * @param refreshInterval
+         *            the refresh interval in milliseconds
+         *
+         * @return true if the snapshot was loaded more than refreshInterval milliseconds ago.
+         */
+        boolean isExpired(long refreshInterval) {
+            return System.currentTimeMillis() - loadTime >= refreshInterval;
+        }
+
+        /**
+         * Tries to become the thread reloading this snapshot.
+         *
+         * @return true if the caller should reload the snapshot, false if another thread is doing it.
+         */
+        boolean startRefresh() {
+            return refreshing.compareAndSet(false, true);
+        }
+
+        /**
+         * Gives up reloading this snapshot, used when the reload failed.
+         */
+        void endRefresh() {
+            refreshing.set(false);
+        }
+    }
+}
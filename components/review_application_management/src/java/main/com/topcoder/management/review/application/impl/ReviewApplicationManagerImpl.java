@@ -188,8 +188,16 @@ import com.topcoder.util.sql.databaseabstraction.NullColumnValueException;
  * thread safe manner. It uses thread safe SearchBundle, ReviewApplicationPersistence and Log instances.
  * </p>
  *
+ * <p>
+ * <em>Changes in version 1.0.1:</em>
+ * <ol>
+ * <li>createApplication and updateApplication report the auction of the application to {@link OpenAuctionIndex}, so
+ * the indexed open positions of the auction are reloaded on the next search.</li>
+ * </ol>
+ * </p>
+ *
  * @author albertwang, sparemax
- * @version 1.0
+ * @version 1.0.1
  */
 public class ReviewApplicationManagerImpl implements ReviewApplicationManager {
     /**
@@ -333,6 +341,8 @@ public class ReviewApplicationManagerImpl implements ReviewApplicationManager {
         try {
             ReviewApplication result = persistence.createApplication(application);
 
+            OpenAuctionIndex.getInstance().auctionChanged(result.getAuctionId());
+
             // Log Exit
             LoggingWrapperUtility.logExit(log, signature, new Object[] {result});
             return result;
@@ -368,6 +378,8 @@ public class ReviewApplicationManagerImpl implements ReviewApplicationManager {
         try {
             persistence.updateApplication(application);
 
+            OpenAuctionIndex.getInstance().auctionChanged(application.getAuctionId());
+
             // Log Exit
             LoggingWrapperUtility.logExit(log, signature, null);
         } catch (IllegalArgumentException e) {
@@ -31,6 +31,9 @@ import com.topcoder.search.builder.filter.AndFilter;
 import com.topcoder.search.builder.filter.EqualToFilter;
 import com.topcoder.search.builder.filter.Filter;
 import com.topcoder.search.builder.filter.InFilter;
+import com.topcoder.search.builder.filter.OrFilter;
+import com.topcoder.service.util.log.LazyLoggingUtility;
+import com.topcoder.service.util.log.MethodSignature;
 import com.topcoder.util.log.Log;
 import com.topcoder.util.sql.databaseabstraction.CustomResultSet;
 import com.topcoder.util.sql.databaseabstraction.InvalidCursorStateException;
@@ -79,6 +82,9 @@ import com.topcoder.util.sql.databaseabstraction.NullColumnValueException;
  *     &lt;Property name="specReviewAuctionCategoryId"&gt;
  *       &lt;Value&gt;2&lt;/Value&gt;
  *     &lt;/Property&gt;
+ *     &lt;Property name="openAuctionIndexRefreshInterval"&gt;
+ *       &lt;Value&gt;300000&lt;/Value&gt;
+ *     &lt;/Property&gt;
  *     &lt;Property name="persistenceKey"&gt;
  *       &lt;Value&gt;DatabaseReviewAuctionPersistence&lt;/Value&gt;
  *     &lt;/Property&gt;
@@ -178,8 +184,26 @@ import com.topcoder.util.sql.databaseabstraction.NullColumnValueException;
  * thread safe manner. It uses thread safe SearchBundle, ReviewApplicationPersistence and Log instances.
  * </p>
  *
+ * <p>
+ * <em>Changes in version 1.0.3:</em>
+ * <ol>
+ * <li>The searchOpenAuctions methods log their entrance and exit through LazyLoggingUtility, so nothing is formatted
+ * when DEBUG is disabled and the logged auction lists are capped.</li>
+ * </ol>
+ * </p>
+ *
+ * <p>
+ * <em>Changes in version 1.0.4:</em>
+ * <ol>
+ * <li>Added the optional openAuctionIndexRefreshInterval property. When it's set, the searchOpenAuctions methods
+ * serve the open auctions from {@link OpenAuctionIndex}: only the auctions and the projects reported as changed are
+ * reloaded, and the whole search is reconciled with the database once the refresh interval elapsed.</li>
+ * <li>createAuction reports the new auction to {@link OpenAuctionIndex}.</li>
+ * </ol>
+ * </p>
+ *
  * @author albertwang, sparemax
- * @version 1.0.2
+ * @version 1.0.4
  */
 public class ReviewAuctionManagerImpl implements ReviewAuctionManager {
     /**
@@ -200,6 +224,27 @@ public class ReviewAuctionManagerImpl implements ReviewAuctionManager {
      */
     private static final String CLASS_NAME = ReviewAuctionManagerImpl.class.getName();
 
+    /**
+     * <p>
+     * Represents the signature of searchOpenAuctions(long).
+     * </p>
+     *
+     * @since 1.0.3
+     */
+    private static final MethodSignature SEARCH_OPEN_AUCTIONS_SIGNATURE = new MethodSignature(
+        ReviewAuctionManagerImpl.class, "searchOpenAuctions(long auctionCategoryId)", "auctionCategoryId");
+
+    /**
+     * <p>
+     * Represents the signature of searchOpenAuctions(long, List).
+     * </p>
+     *
+     * @since 1.0.3
+     */
+    private static final MethodSignature SEARCH_OPEN_AUCTIONS_BY_CATEGORIES_SIGNATURE = new MethodSignature(
+        ReviewAuctionManagerImpl.class, "searchOpenAuctions(long auctionCategoryId, List<Long> projectCategoryIds)",
+        "auctionCategoryId", "projectCategoryIds");
+
     /**
      * <p>
      * Represents the property key 'specReviewAuctionSearchBundleName'.
@@ -242,6 +287,15 @@ public class ReviewAuctionManagerImpl implements ReviewAuctionManager {
      */
     private static final String KEY_ITERATIVE_GATEGORY_ID = "iterativeReviewAuctionCategoryId";
 
+    /**
+     * <p>
+     * Represents the property key 'openAuctionIndexRefreshInterval'.
+     * </p>
+     *
+     * @since 1.0.4
+     */
+    private static final String KEY_OPEN_AUCTION_INDEX_REFRESH_INTERVAL = "openAuctionIndexRefreshInterval";
+
     /**
      * The review auction persistence instance used by this class. Can be non-null ReviewAuctionPersistence. It will be
      * initialized in the constructor method and never changed after that. Cannot be null after initialization.
@@ -285,6 +339,14 @@ public class ReviewAuctionManagerImpl implements ReviewAuctionManager {
      * constructor method and never changed after that. Cannot be non-positive after initialization.
      */
     private final long iterativeReviewAuctionCategoryId;
+    /**
+     * The interval in milliseconds after which the indexed open auctions are reloaded from the database. Zero means
+     * the open auctions are not indexed. It will be initialized in the constructor method and never changed after
+     * that. Cannot be negative after initialization.
+     *
+     * @since 1.0.4
+     */
+    private final long openAuctionIndexRefreshInterval;
     /**
      * Represents the lookup values for review auction types. Can be non-null, non-empty list, items in the list must be
      * non-null ReviewAuctionType object. It will be initialized in getAuctionTypes method when this method gets invoked
@@ -368,6 +430,10 @@ public class ReviewAuctionManagerImpl implements ReviewAuctionManager {
         specReviewAuctionCategoryId = getPropertyPositive(configuration, KEY_SPEC_GATEGORY_ID);
         contestReviewAuctionCategoryId = getPropertyPositive(configuration, KEY_CONTEST_GATEGORY_ID);
         iterativeReviewAuctionCategoryId = getPropertyPositive(configuration, KEY_ITERATIVE_GATEGORY_ID);
+
+        // The open auctions are indexed only if the refresh interval is configured
+        openAuctionIndexRefreshInterval = Helper.getProperty(configuration, KEY_OPEN_AUCTION_INDEX_REFRESH_INTERVAL,
+            false) == null ? 0 : getPropertyPositive(configuration, KEY_OPEN_AUCTION_INDEX_REFRESH_INTERVAL);
     }
 
     /**
@@ -394,6 +460,10 @@ public class ReviewAuctionManagerImpl implements ReviewAuctionManager {
         try {
             ReviewAuction result = persistence.createAuction(auction);
 
+            if (result.getAuctionType() != null && result.getAuctionType().getAuctionCategory() != null) {
+                OpenAuctionIndex.getInstance().categoryChanged(result.getAuctionType().getAuctionCategory().getId());
+            }
+
             // Log Exit
             LoggingWrapperUtility.logExit(log, signature, new Object[] {result});
             return result;
@@ -422,19 +492,17 @@ public class ReviewAuctionManagerImpl implements ReviewAuctionManager {
      *             if any other error occurred during the operation
      */
     public List<ReviewAuction> searchOpenAuctions(long auctionCategoryId) throws ReviewAuctionManagerException {
-        String signature = CLASS_NAME + ".searchOpenAuctions(long auctionCategoryId)";
+        String signature = SEARCH_OPEN_AUCTIONS_SIGNATURE.getSignature();
 
         // Log Entrance
-        LoggingWrapperUtility.logEntrance(log, signature,
-            new String[] {"auctionCategoryId"},
-            new Object[] {auctionCategoryId});
+        long entranceTimestamp = LazyLoggingUtility.logEntrance(log, SEARCH_OPEN_AUCTIONS_SIGNATURE, auctionCategoryId);
 
         try {
 
             List<ReviewAuction> result = searchOpenAuctions(auctionCategoryId, null);
 
             // Log Exit
-            LoggingWrapperUtility.logExit(log, signature, new Object[] {result});
+            LazyLoggingUtility.logExit(log, SEARCH_OPEN_AUCTIONS_SIGNATURE, result, entranceTimestamp);
             return result;
         } catch (IllegalArgumentException e) {
             // Log exception
@@ -464,58 +532,24 @@ public class ReviewAuctionManagerImpl implements ReviewAuctionManager {
      */
     public List<ReviewAuction> searchOpenAuctions(long auctionCategoryId, List<Long> projectCategoryIds)
         throws ReviewAuctionManagerException {
-        String signature = CLASS_NAME + ".searchOpenAuctions(long auctionCategoryId, List<Long> projectCategoryIds)";
+        String signature = SEARCH_OPEN_AUCTIONS_BY_CATEGORIES_SIGNATURE.getSignature();
 
         // Log Entrance
-        LoggingWrapperUtility.logEntrance(log, signature,
-            new String[] {"auctionCategoryId", "projectCategoryIds"},
-            new Object[] {auctionCategoryId, projectCategoryIds});
+        long entranceTimestamp = LazyLoggingUtility.logEntrance(log, SEARCH_OPEN_AUCTIONS_BY_CATEGORIES_SIGNATURE,
+            auctionCategoryId, projectCategoryIds);
 
         checkArgs(log, signature, auctionCategoryId, projectCategoryIds);
 
         try {
-            Filter filter = new EqualToFilter("projectStatusId", 1);
-            if (projectCategoryIds != null) {
-                filter = new AndFilter(filter, new InFilter("projectCategoryId", projectCategoryIds));
-            }
-
-            CustomResultSet resultSet = search(log, signature, auctionCategoryId, filter);
-
-            // Create a list for result
-            List<ReviewAuction> result = new ArrayList<ReviewAuction>();
-            Map<Long, Long> reviewersNeeded = new HashMap<Long, Long>();
-
-            // Call getAuctionTypes to initialize the auction types cache if not yet
-            getAuctionTypes();
-
-            while (resultSet.next()) {
-                boolean isOpen = resultSet.getBoolean("open");
-                if (isOpen) {
-
-                    ReviewAuction reviewAuction = new ReviewAuction();
-
-                    reviewAuction.setId(resultSet.getLong("review_auction_id"));
-
-                    reviewAuction.setOpen(true);
-
-                    reviewAuction.setAuctionType(auctionTypesMap.get(resultSet.getLong("review_auction_type_id")));
-                    reviewAuction.setAssignmentDate(resultSet.getDate("assignment_date"));
-                    reviewAuction.setProjectId(resultSet.getLong("project_id"));
-                    reviewAuction.setOpenPositions(new ArrayList<Long>());
-
-                    result.add(reviewAuction);
-
-                    reviewersNeeded.put(reviewAuction.getId(), resultSet.getLong("reviewers_required"));
-                }
-            }
-
-            // If result list is empty, return directly
-            if (!result.isEmpty()) {
-                prepareResult(result, reviewersNeeded);
+            List<ReviewAuction> result;
+            if (openAuctionIndexRefreshInterval > 0) {
+                result = searchIndexedOpenAuctions(signature, auctionCategoryId, projectCategoryIds);
+            } else {
+                result = loadOpenAuctions(signature, auctionCategoryId, projectCategoryIds, null, null);
             }
 
             // Log Exit
-            LoggingWrapperUtility.logExit(log, signature, new Object[] {result});
+            LazyLoggingUtility.logExit(log, SEARCH_OPEN_AUCTIONS_BY_CATEGORIES_SIGNATURE, result, entranceTimestamp);
             return result;
         } catch (IllegalArgumentException e) {
             // Log exception
@@ -540,6 +574,162 @@ public class ReviewAuctionManagerImpl implements ReviewAuctionManager {
         }
     }
 
+    /**
+     * Searches the open auctions of the given auction category and project categories, and computes their open
+     * positions.
+     *
+     * @param signature
+     *            the signature
+     * @param auctionCategoryId
+     *            the auction category ID
+     * @param projectCategoryIds
+     *            the list of project category ids (can be null if no need to filter by project categories)
+     * @param auctionIds
+     *            the IDs of the auctions to load (can be null to load all the open auctions)
+     * @param projectIds
+     *            the IDs of the projects whose auctions are loaded along with the given auctions (can be null to load
+     *            all the open auctions)
+     *
+     * @return the open auctions which have open positions.
+     *
+     * @throws ReviewAuctionManagerException
+     *             if failed to search the auctions
+     * @throws ReviewAuctionPersistenceException
+     *             if failed to get resource role IDs
+     * @throws InvalidCursorStateException
+     *             if failed to read the result
+     * @throws NullColumnValueException
+     *             if failed to read the result
+     * @throws ClassCastException
+     *             if the result is invalid
+     *
+     * @since 1.0.4
+     */
+    private List<ReviewAuction> loadOpenAuctions(String signature, long auctionCategoryId,
+        List<Long> projectCategoryIds, Set<Long> auctionIds, Set<Long> projectIds)
+        throws ReviewAuctionManagerException, ReviewAuctionPersistenceException, InvalidCursorStateException,
+        NullColumnValueException {
+        Filter filter = new EqualToFilter("projectStatusId", 1);
+        if (projectCategoryIds != null) {
+            filter = new AndFilter(filter, new InFilter("projectCategoryId", projectCategoryIds));
+        }
+        Filter changedFilter = null;
+        if (auctionIds != null && !auctionIds.isEmpty()) {
+            changedFilter = new InFilter("id", new ArrayList<Long>(auctionIds));
+        }
+        if (projectIds != null && !projectIds.isEmpty()) {
+            Filter projectFilter = new InFilter("projectId", new ArrayList<Long>(projectIds));
+            changedFilter = changedFilter == null ? projectFilter : new OrFilter(changedFilter, projectFilter);
+        }
+        if (changedFilter != null) {
+            filter = new AndFilter(filter, changedFilter);
+        }
+
+        CustomResultSet resultSet = search(log, signature, auctionCategoryId, filter);
+
+        // Create a list for result
+        List<ReviewAuction> result = new ArrayList<ReviewAuction>();
+        Map<Long, Long> reviewersNeeded = new HashMap<Long, Long>();
+
+        // Call getAuctionTypes to initialize the auction types cache if not yet
+        getAuctionTypes();
+
+        while (resultSet.next()) {
+            boolean isOpen = resultSet.getBoolean("open");
+            if (isOpen) {
+
+                ReviewAuction reviewAuction = new ReviewAuction();
+
+                reviewAuction.setId(resultSet.getLong("review_auction_id"));
+
+                reviewAuction.setOpen(true);
+
+                reviewAuction.setAuctionType(auctionTypesMap.get(resultSet.getLong("review_auction_type_id")));
+                reviewAuction.setAssignmentDate(resultSet.getDate("assignment_date"));
+                reviewAuction.setProjectId(resultSet.getLong("project_id"));
+                reviewAuction.setOpenPositions(new ArrayList<Long>());
+
+                result.add(reviewAuction);
+
+                reviewersNeeded.put(reviewAuction.getId(), resultSet.getLong("reviewers_required"));
+            }
+        }
+
+        // If result list is empty, return directly
+        if (!result.isEmpty()) {
+            prepareResult(result, reviewersNeeded);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the open auctions of the given auction category and project categories from {@link OpenAuctionIndex}.
+     * The search is loaded entirely when it's not indexed yet, when an auction of the category was created, or when
+     * the refresh interval elapsed (only one thread reloads it, the others use the current snapshot). Otherwise only
+     * the auctions reported as changed and the auctions of the projects reported as changed are reloaded, including
+     * the ones missing from the snapshot.
+     *
+     * @param signature
+     *            the signature
+     * @param auctionCategoryId
+     *            the auction category ID
+     * @param projectCategoryIds
+     *            the list of project category ids (can be null if no need to filter by project categories)
+     *
+     * @return the open auctions which have open positions.
+     *
+     * @throws ReviewAuctionManagerException
+     *             if failed to search the auctions
+     * @throws ReviewAuctionPersistenceException
+     *             if failed to get resource role IDs
+     * @throws InvalidCursorStateException
+     *             if failed to read the result
+     * @throws NullColumnValueException
+     *             if failed to read the result
+     * @throws ClassCastException
+     *             if the result is invalid
+     *
+     * @since 1.0.4
+     */
+    private List<ReviewAuction> searchIndexedOpenAuctions(String signature, long auctionCategoryId,
+        List<Long> projectCategoryIds) throws ReviewAuctionManagerException, ReviewAuctionPersistenceException,
+        InvalidCursorStateException, NullColumnValueException {
+        OpenAuctionIndex index = OpenAuctionIndex.getInstance();
+        String key = OpenAuctionIndex.getKey(auctionCategoryId, projectCategoryIds);
+
+        OpenAuctionIndex.Snapshot snapshot = index.get(key);
+        boolean reload = snapshot == null || index.isCategoryChanged(snapshot);
+        OpenAuctionIndex.Snapshot refreshed = null;
+        if (!reload && snapshot.isExpired(openAuctionIndexRefreshInterval) && snapshot.startRefresh()) {
+            refreshed = snapshot;
+            reload = true;
+        }
+
+        long sequence = index.startLoad();
+        try {
+            if (reload) {
+                List<ReviewAuction> auctions = loadOpenAuctions(signature, auctionCategoryId, projectCategoryIds,
+                    null, null);
+                return index.put(key, auctionCategoryId, auctions, sequence).getAuctions();
+            }
+
+            Set<Long> changedAuctionIds = index.getChangedAuctionIds(snapshot);
+            Set<Long> changedProjectIds = index.getChangedProjectIds(snapshot);
+            if (!changedAuctionIds.isEmpty() || !changedProjectIds.isEmpty()) {
+                List<ReviewAuction> auctions = loadOpenAuctions(signature, auctionCategoryId, projectCategoryIds,
+                    changedAuctionIds, changedProjectIds);
+                snapshot = index.merge(key, snapshot, changedAuctionIds, changedProjectIds, auctions, sequence);
+            }
+            return snapshot.getAuctions();
+        } finally {
+            index.endLoad();
+            if (refreshed != null) {
+                refreshed.endRefresh();
+            }
+        }
+    }
+
     /**
      * Retrieve the review auction by auction ID.
      *
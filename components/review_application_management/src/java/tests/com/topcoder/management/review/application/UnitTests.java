@@ -7,6 +7,7 @@ import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import com.topcoder.management.review.application.impl.OpenAuctionIndexUnitTests;
 import com.topcoder.management.review.application.impl.ReviewApplicationManagerImplUnitTests;
 import com.topcoder.management.review.application.impl.ReviewApplicationPersistenceExceptionUnitTests;
 import com.topcoder.management.review.application.impl.ReviewAuctionManagerImplUnitTests;
@@ -49,6 +50,7 @@ public class UnitTests extends TestCase {
 
         suite.addTest(ReviewApplicationManagerImplUnitTests.suite());
         suite.addTest(ReviewAuctionManagerImplUnitTests.suite());
+        suite.addTest(OpenAuctionIndexUnitTests.suite());
 
         suite.addTest(DatabaseReviewApplicationPersistenceUnitTests.suite());
         suite.addTest(DatabaseReviewAuctionPersistenceUnitTests.suite());
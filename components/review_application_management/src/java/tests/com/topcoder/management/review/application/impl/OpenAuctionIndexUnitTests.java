@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.management.review.application.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.topcoder.management.review.application.ReviewAuction;
+
+/**
+ * <p>
+ * Unit tests for {@link OpenAuctionIndex} class.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0.4
+ * @since 1.0.4
+ */
+public class OpenAuctionIndexUnitTests {
+    /**
+     * <p>
+     * Represents the search key used in tests.
+     * </p>
+     */
+    private static final String KEY = OpenAuctionIndex.getKey(1, null);
+
+    /**
+     * <p>
+     * Represents the <code>OpenAuctionIndex</code> instance used in tests.
+     * </p>
+     */
+    private OpenAuctionIndex instance;
+
+    /**
+     * <p>
+     * Adapter for earlier versions of JUnit.
+     * </p>
+     *
+     * @return a test suite.
+     */
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(OpenAuctionIndexUnitTests.class);
+    }
+
+    /**
+     * <p>
+     * Sets up the unit tests.
+     * </p>
+     */
+    @Before
+    public void setUp() {
+        instance = new OpenAuctionIndex();
+    }
+
+    /**
+     * <p>
+     * Accuracy test for the method <code>getKey(long auctionCategoryId, List&lt;Long&gt; projectCategoryIds)</code>.
+     * <br>
+     * The order of the project categories should not matter.
+     * </p>
+     */
+    @Test
+    public void test_getKey() {
+        assertEquals("'getKey' should be correct.", OpenAuctionIndex.getKey(1, Arrays.asList(3L, 2L)),
+            OpenAuctionIndex.getKey(1, Arrays.asList(2L, 3L)));
+        assertFalse("'getKey' should be correct.",
+            OpenAuctionIndex.getKey(1, null).equals(OpenAuctionIndex.getKey(2, null)));
+    }
+
+    /**
+     * <p>
+     * Accuracy test for the method <code>put</code>.<br>
+     * The returned auctions should be copies.
+     * </p>
+     */
+    @Test
+    public void test_put() {
+        long sequence = instance.startLoad();
+        instance.put(KEY, 1, Arrays.asList(createAuction(10, 100, 1)), sequence);
+        instance.endLoad();
+
+        List<ReviewAuction> auctions = instance.get(KEY).getAuctions();
+        assertEquals("'put' should be correct.", 1, auctions.size());
+        auctions.get(0).getOpenPositions().set(0, 0L);
+
+        ReviewAuction auction = instance.get(KEY).getAuctions().get(0);
+        assertEquals("'put' should be correct.", 10, auction.getId());
+        assertEquals("'put' should be correct.", 1L, (long) auction.getOpenPositions().get(0));
+        assertNotSame("'put' should be correct.", auctions.get(0), auction);
+    }
+
+    /**
+     * <p>
+     * Accuracy test for the methods <code>getChangedAuctionIds(Snapshot snapshot)</code> and
+     * <code>getChangedProjectIds(Snapshot snapshot)</code>.<br>
+     * Only the changes after the load should be returned, including the ones of auctions and projects which are not
+     * indexed.
+     * </p>
+     */
+    @Test
+    public void test_getChangedAuctionIds() {
+        instance.auctionChanged(11);
+        long sequence = instance.startLoad();
+        instance.put(KEY, 1, Arrays.asList(createAuction(10, 100, 1), createAuction(11, 101, 1),
+            createAuction(12, 102, 1)), sequence);
+        instance.endLoad();
+
+        OpenAuctionIndex.Snapshot snapshot = instance.get(KEY);
+        assertTrue("'getChangedAuctionIds' should be correct.", instance.getChangedAuctionIds(snapshot).isEmpty());
+        assertTrue("'getChangedProjectIds' should be correct.", instance.getChangedProjectIds(snapshot).isEmpty());
+
+        instance.auctionChanged(10);
+        instance.auctionChanged(99);
+        instance.projectChanged(102);
+        instance.projectChanged(999);
+
+        assertEquals("'getChangedAuctionIds' should be correct.", new HashSet<Long>(Arrays.asList(10L, 99L)),
+            instance.getChangedAuctionIds(snapshot));
+        assertEquals("'getChangedProjectIds' should be correct.", new HashSet<Long>(Arrays.asList(102L, 999L)),
+            instance.getChangedProjectIds(snapshot));
+    }
+
+    /**
+     * <p>
+     * Accuracy test for the method <code>merge</code>.<br>
+     * The reloaded auctions should replace the indexed ones, and the closed ones should be removed.
+     * </p>
+     */
+    @Test
+    public void test_merge() {
+        long sequence = instance.startLoad();
+        instance.put(KEY, 1, Arrays.asList(createAuction(10, 100, 1), createAuction(11, 101, 1)), sequence);
+        instance.endLoad();
+
+        instance.auctionChanged(10);
+        instance.auctionChanged(11);
+        OpenAuctionIndex.Snapshot snapshot = instance.get(KEY);
+        Set<Long> changed = instance.getChangedAuctionIds(snapshot);
+
+        sequence = instance.startLoad();
+        instance.merge(KEY, snapshot, changed, new HashSet<Long>(), Arrays.asList(createAuction(10, 100, 2)),
+            sequence);
+        instance.endLoad();
+
+        snapshot = instance.get(KEY);
+        List<ReviewAuction> auctions = snapshot.getAuctions();
+        assertEquals("'merge' should be correct.", 1, auctions.size());
+        assertEquals("'merge' should be correct.", 10, auctions.get(0).getId());
+        assertEquals("'merge' should be correct.", 2L, (long) auctions.get(0).getOpenPositions().get(0));
+        assertTrue("'merge' should be correct.", instance.getChangedAuctionIds(snapshot).isEmpty());
+    }
+
+    /**
+     * <p>
+     * Accuracy test for the method <code>merge</code> with changed projects.<br>
+     * The auctions of the changed projects should be replaced by the reloaded ones, and the reloaded auctions missing
+     * from the snapshot should be added.
+     * </p>
+     */
+    @Test
+    public void test_merge_projects() {
+        long sequence = instance.startLoad();
+        instance.put(KEY, 1, Arrays.asList(createAuction(10, 100, 1), createAuction(11, 101, 1)), sequence);
+        instance.endLoad();
+
+        instance.projectChanged(101);
+        instance.projectChanged(102);
+        instance.auctionChanged(13);
+        OpenAuctionIndex.Snapshot snapshot = instance.get(KEY);
+        Set<Long> changedAuctions = instance.getChangedAuctionIds(snapshot);
+        Set<Long> changedProjects = instance.getChangedProjectIds(snapshot);
+
+        sequence = instance.startLoad();
+        instance.merge(KEY, snapshot, changedAuctions, changedProjects, Arrays.asList(createAuction(12, 102, 1),
+            createAuction(13, 103, 1)), sequence);
+        instance.endLoad();
+
+        snapshot = instance.get(KEY);
+        List<ReviewAuction> auctions = snapshot.getAuctions();
+        assertEquals("'merge' should be correct.", 3, auctions.size());
+        assertEquals("'merge' should be correct.", 10, auctions.get(0).getId());
+        assertEquals("'merge' should be correct.", 12, auctions.get(1).getId());
+        assertEquals("'merge' should be correct.", 13, auctions.get(2).getId());
+        assertTrue("'merge' should be correct.", instance.getChangedProjectIds(snapshot).isEmpty());
+    }
+
+    /**
+     * <p>
+     * Accuracy test for the method <code>categoryChanged(long auctionCategoryId)</code>.<br>
+     * Only the snapshots of the category should be marked as changed.
+     * </p>
+     */
+    @Test
+    public void test_categoryChanged() {
+        long sequence = instance.startLoad();
+        instance.put(KEY, 1, new ArrayList<ReviewAuction>(), sequence);
+        instance.endLoad();
+
+        instance.categoryChanged(2);
+        assertFalse("'categoryChanged' should be correct.", instance.isCategoryChanged(instance.get(KEY)));
+
+        instance.categoryChanged(1);
+        assertTrue("'categoryChanged' should be correct.", instance.isCategoryChanged(instance.get(KEY)));
+    }
+
+    /**
+     * <p>
+     * Accuracy test for the change methods in a transaction.<br>
+     * The changes should be recorded when the transaction commits, after a load started before the commit, and
+     * dropped when it rolls back.
+     * </p>
+     */
+    @Test
+    public void test_changed_transaction() {
+        final MockRegistry registry = new MockRegistry();
+        instance = new OpenAuctionIndex() {
+            TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+                return registry;
+            }
+        };
+        long sequence = instance.startLoad();
+        instance.put(KEY, 1, Arrays.asList(createAuction(10, 100, 1)), sequence);
+        instance.endLoad();
+
+        instance.auctionChanged(10);
+        instance.projectChanged(100);
+        instance.categoryChanged(1);
+
+        sequence = instance.startLoad();
+        instance.put(KEY, 1, Arrays.asList(createAuction(10, 100, 1)), sequence);
+        instance.endLoad();
+        OpenAuctionIndex.Snapshot snapshot = instance.get(KEY);
+        assertTrue("'auctionChanged' should be correct.", instance.getChangedAuctionIds(snapshot).isEmpty());
+
+        registry.complete(Status.STATUS_COMMITTED);
+        assertEquals("'auctionChanged' should be correct.", new HashSet<Long>(Arrays.asList(10L)),
+            instance.getChangedAuctionIds(snapshot));
+        assertEquals("'projectChanged' should be correct.", new HashSet<Long>(Arrays.asList(100L)),
+            instance.getChangedProjectIds(snapshot));
+        assertTrue("'categoryChanged' should be correct.", instance.isCategoryChanged(snapshot));
+
+        instance.auctionChanged(11);
+        registry.complete(Status.STATUS_ROLLEDBACK);
+        assertFalse("'auctionChanged' should be correct.", instance.getChangedAuctionIds(snapshot).contains(11L));
+    }
+
+    /**
+     * <p>
+     * Accuracy test for the refresh methods of the snapshot.<br>
+     * Only one caller should be allowed to reload an expired snapshot.
+     * </p>
+     */
+    @Test
+    public void test_refresh() {
+        long sequence = instance.startLoad();
+        OpenAuctionIndex.Snapshot snapshot = instance.put(KEY, 1, new ArrayList<ReviewAuction>(), sequence);
+        instance.endLoad();
+
+        assertFalse("'isExpired' should be correct.", snapshot.isExpired(60000));
+        assertTrue("'isExpired' should be correct.", snapshot.isExpired(0));
+
+        assertTrue("'startRefresh' should be correct.", snapshot.startRefresh());
+        assertFalse("'startRefresh' should be correct.", snapshot.startRefresh());
+        snapshot.endRefresh();
+        assertTrue("'startRefresh' should be correct.", snapshot.startRefresh());
+    }
+
+    /**
+     * <p>
+     * Accuracy test for the method <code>clear()</code>.<br>
+     * The snapshots should be removed.
+     * </p>
+     */
+    @Test
+    public void test_clear() {
+        long sequence = instance.startLoad();
+        instance.put(KEY, 1, new ArrayList<ReviewAuction>(), sequence);
+        instance.endLoad();
+
+        instance.clear();
+
+        assertNull("'clear' should be correct.", instance.get(KEY));
+    }
+
+    /**
+     * <p>
+     * Creates an auction with one application role.
+     * </p>
+     *
+     * @param id
+     *            the auction ID
+     * @param projectId
+     *            the project ID
+     * @param openPositions
+     *            the open positions of the role
+     *
+     * @return the auction.
+     */
+    private static ReviewAuction createAuction(long id, long projectId, long openPositions) {
+        ReviewAuction auction = new ReviewAuction();
+        auction.setId(id);
+        auction.setProjectId(projectId);
+        auction.setOpen(true);
+        List<Long> positions = new ArrayList<Long>();
+        positions.add(openPositions);
+        auction.setOpenPositions(positions);
+        return auction;
+    }
+
+    /**
+     * <p>
+     * A mock transaction synchronization registry with an active transaction.
+     * </p>
+     */
+    private static class MockRegistry implements TransactionSynchronizationRegistry {
+        /**
+         * <p>
+         * The registered synchronizations.
+         * </p>
+         */
+        private final List<Synchronization> synchronizations = new ArrayList<Synchronization>();
+
+        /**
+         * <p>
+         * Completes the transaction and starts a new one.
+         * </p>
+         *
+         * @param status
+         *            the status of the completed transaction
+         */
+        void complete(int status) {
+            for (Synchronization synchronization : synchronizations) {
+                synchronization.afterCompletion(status);
+            }
+            synchronizations.clear();
+        }
+
+        public Object getTransactionKey() {
+            return this;
+        }
+
+        public void putResource(Object key, Object value) {
+            // Empty
+        }
+
+        public Object getResource(Object key) {
+            return null;
+        }
+
+        public void registerInterposedSynchronization(Synchronization sync) {
+            synchronizations.add(sync);
+        }
+
+        public int getTransactionStatus() {
+            return Status.STATUS_ACTIVE;
+        }
+
+        public void setRollbackOnly() {
+            // Empty
+        }
+
+        public boolean getRollbackOnly() {
+            return false;
+        }
+    }
+}
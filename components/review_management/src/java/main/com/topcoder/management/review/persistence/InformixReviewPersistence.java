@@ -33,13 +33,14 @@ import com.topcoder.search.builder.SearchBuilderException;
 import com.topcoder.search.builder.SearchBundle;
 import com.topcoder.search.builder.SearchBundleManager;
 import com.topcoder.search.builder.filter.Filter;
+import com.topcoder.service.util.idgenerator.BlockIDGenerator;
+import com.topcoder.service.util.idgenerator.BlockIDGeneratorFactory;
 import com.topcoder.util.config.ConfigManager;
 import com.topcoder.util.datavalidator.NotValidator;
 import com.topcoder.util.datavalidator.NullValidator;
 import com.topcoder.util.datavalidator.ObjectValidator;
 import com.topcoder.util.idgenerator.IDGenerationException;
 import com.topcoder.util.idgenerator.IDGenerator;
-import com.topcoder.util.idgenerator.IDGeneratorFactory;
 import com.topcoder.util.log.Level;
 import com.topcoder.util.log.Log;
 import com.topcoder.util.log.LogManager;
@@ -63,9 +64,15 @@ import com.topcoder.util.sql.databaseabstraction.NullColumnValueException;
  * - added flag so that container transaction demarcation can be used.
  * - LogManager is used instead of LogFactory.
  * </p>
+ *
+ * <p>
+ * Changes in v1.0.3:
+ * - the ID generators are taken from BlockIDGeneratorFactory, which reserves the IDs in blocks.
+ * - the IDs of the review comments, items and item comments are taken at once for each review or item.
+ * </p>
  * 
- * @author woodjhon, urtks, George1, pulky
- * @version 1.0.2
+ * @author woodjhon, urtks, George1, pulky, TCSASSEMBLER
+ * @version 1.0.3
  */
 public class InformixReviewPersistence implements ReviewPersistence {
     /**
@@ -448,7 +455,7 @@ public class InformixReviewPersistence implements ReviewPersistence {
      */
     private IDGenerator createIDGenerator(String idName) throws ReviewPersistenceException {
         try {
-            return IDGeneratorFactory.getIDGenerator(idName);
+            return BlockIDGeneratorFactory.getIDGenerator(idName);
         } catch (IDGenerationException e) {
         	LOGGER.log(Level.FATAL,"Unable to create IDGenerator [" + idName + "]."
         			+ LogMessage.getExceptionStackTrace(e));
@@ -965,12 +972,14 @@ public class InformixReviewPersistence implements ReviewPersistence {
         String operator, Connection conn, Map changeTable) throws ReviewPersistenceException {
 
         try {
+            // generate ids for the review comments
+            long[] ids = BlockIDGenerator.nextIds(reviewCommentIDGenerator, comments.length);
+
             // enumerate each review comment
             for (int i = 0; i < comments.length; ++i) {
                 Comment comment = comments[i];
 
-                // generate id for the review comment
-                Long newId = new Long(reviewCommentIDGenerator.getNextID());
+                Long newId = new Long(ids[i]);
 
                 LOGGER.log(Level.INFO, "generate new review comment id :" + newId);
                 // add the comment and newId pair to the change table.
@@ -1009,12 +1018,14 @@ public class InformixReviewPersistence implements ReviewPersistence {
         Connection conn, Map changeTable) throws ReviewPersistenceException {
 
         try {
+            // generate ids for the review items
+            long[] ids = BlockIDGenerator.nextIds(reviewItemIDGenerator, items.length);
+
             // enumerate each review item
             for (int i = 0; i < items.length; ++i) {
                 Item item = items[i];
 
-                // generate id for the review item
-                Long newId = new Long(reviewItemIDGenerator.getNextID());
+                Long newId = new Long(ids[i]);
 
                 LOGGER.log(Level.INFO, "generate new review Item id :" + newId);
 
@@ -1059,12 +1070,14 @@ public class InformixReviewPersistence implements ReviewPersistence {
         String operator, Connection conn, Map changeTable) throws ReviewPersistenceException {
 
         try {
+            // generate ids for the review item comments
+            long[] ids = BlockIDGenerator.nextIds(reviewItemCommentIDGenerator, comments.length);
+
             // enumerate each review item comment
             for (int i = 0; i < comments.length; ++i) {
                 Comment comment = comments[i];
 
-                // generate id for the review item comment
-                Long newId = new Long(reviewItemCommentIDGenerator.getNextID());
+                Long newId = new Long(ids[i]);
 
                 LOGGER.log(Level.INFO, "generate new review Item comment id :" + newId);
 
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.management.scorecard;
+
+import com.topcoder.management.scorecard.data.Scorecard;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+
+/**
+ * The versioned cache of the complete scorecards used by ScorecardManagerImpl. One cache is shared by all the
+ * managers created with the same configuration namespace, so a scorecard created or updated through any of them
+ * invalidates the scorecards cached by all of them.<br>
+ * The cached scorecards are shared by all the callers and must be treated as read-only. Every change of the cached
+ * scorecards bumps the version of the cache; scorecards loaded from the persistence are only cached if the version
+ * did not change while they were loaded, so a load racing with an update never caches the old scorecard. In a JTA
+ * transaction the scorecard is invalidated again once the transaction completes, so a load started before the commit
+ * doesn't keep the old scorecard.<br>
+ * The cached scorecards expire after the timeout of the cache, so the changes made by other applications and the
+ * 'inUse' flag of the scorecards are picked up.<br>
+ * Thread Safety: This class is thread safe. Lookups are lock free, changes are synchronized.
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+class ScorecardCache {
+    /**
+     * The default time after which the cached scorecards expire, in milliseconds.
+     */
+    static final long DEFAULT_TIMEOUT = 10 * 60 * 1000L;
+
+    /**
+     * The JNDI name of the transaction synchronization registry.
+     */
+    private static final String REGISTRY_NAME = "java:comp/TransactionSynchronizationRegistry";
+
+    /**
+     * The caches by configuration namespace. Guarded by the class.
+     */
+    private static final Map CACHES = new HashMap();
+
+    /**
+     * The cached scorecards (CachedScorecard instances) by id.
+     */
+    private final Map scorecards = new ConcurrentHashMap();
+
+    /**
+     * The version of the cache, incremented on every invalidation.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Whether the active scorecards were preloaded. Guarded by this.
+     */
+    private boolean preloaded;
+
+    /**
+     * The time after which the cached scorecards expire, in milliseconds. 0 means they never expire.
+     */
+    private volatile long timeout = DEFAULT_TIMEOUT;
+
+    /**
+     * Create an empty cache.
+     */
+    ScorecardCache() {
+    }
+
+    /**
+     * Get the cache shared by the managers of the given configuration namespace.
+     * @param namespace
+     *            The configuration namespace.
+     * @return The cache of the namespace.
+     */
+    static synchronized ScorecardCache getCache(String namespace) {
+        ScorecardCache cache = (ScorecardCache) CACHES.get(namespace);
+
+        if (cache == null) {
+            cache = new ScorecardCache();
+            CACHES.put(namespace, cache);
+        }
+
+        return cache;
+    }
+
+    /**
+     * Get the current version of the cache. It must be read before loading scorecards to be cached.
+     * @return The current version.
+     */
+    long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get the cached scorecard.
+     * @param id
+     *            The id of the scorecard.
+     * @return The cached scorecard, or null if it is not cached.
+     */
+    Scorecard get(long id) {
+        Long key = new Long(id);
+        CachedScorecard cached = (CachedScorecard) scorecards.get(key);
+
+        if (cached == null) {
+            return null;
+        }
+
+        if ((timeout > 0) && (System.currentTimeMillis() - cached.loadTime >= timeout)) {
+            scorecards.remove(key);
+            return null;
+        }
+
+        return cached.scorecard;
+    }
+
+    /**
+     * Cache the given scorecards, unless the cache was invalidated since they started loading.
+     * @param cards
+     *            The complete scorecards to cache.
+     * @param loadVersion
+     *            The version of the cache read before the scorecards started loading.
+     * @return Whether the scorecards were cached.
+     */
+    synchronized boolean put(Scorecard[] cards, long loadVersion) {
+        if (version.get() != loadVersion) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < cards.length; i++) {
+            if (cards[i] != null) {
+                scorecards.put(new Long(cards[i].getId()), new CachedScorecard(cards[i], now));
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Remove the given scorecard from the cache, and cancel the caching of the scorecards being loaded. In a JTA
+     * transaction it's done again once the transaction completes.
+     * @param id
+     *            The id of the scorecard.
+     */
+    void invalidate(final long id) {
+        remove(id);
+
+        TransactionSynchronizationRegistry registry = getTransactionSynchronizationRegistry();
+
+        if ((registry != null) && (registry.getTransactionKey() != null)) {
+            try {
+                registry.registerInterposedSynchronization(new Synchronization() {
+                    public void beforeCompletion() {
+                    }
+
+                    public void afterCompletion(int status) {
+                        remove(id);
+                    }
+                });
+            } catch (IllegalStateException e) {
+                // the transaction is completing, the scorecard was removed already
+            }
+        }
+    }
+
+    /**
+     * Remove the given scorecard from the cache, and cancel the caching of the scorecards being loaded.
+     * @param id
+     *            The id of the scorecard.
+     */
+    private synchronized void remove(long id) {
+        version.incrementAndGet();
+        scorecards.remove(new Long(id));
+    }
+
+    /**
+     * Get the transaction synchronization registry of the container.
+     * @return The registry, or null if it is not available (outside a container).
+     */
+    TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+        try {
+            return (TransactionSynchronizationRegistry) new InitialContext().lookup(REGISTRY_NAME);
+        } catch (NamingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Set the time after which the cached scorecards expire.
+     * @param timeout
+     *            The time in milliseconds, 0 means the scorecards never expire.
+     */
+    void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Remove all the scorecards from the cache, and cancel the caching of the scorecards being loaded.
+     */
+    synchronized void clear() {
+        version.incrementAndGet();
+        scorecards.clear();
+    }
+
+    /**
+     * Get the number of cached scorecards.
+     * @return The number of cached scorecards.
+     */
+    int size() {
+        return scorecards.size();
+    }
+
+    /**
+     * Tell whether the active scorecards were preloaded into this cache.
+     * @return Whether the active scorecards were preloaded.
+     */
+    synchronized boolean isPreloaded() {
+        return preloaded;
+    }
+
+    /**
+     * Record that the active scorecards were preloaded into this cache.
+     */
+    synchronized void setPreloaded() {
+        preloaded = true;
+    }
+
+    /**
+     * A cached scorecard with the time it was loaded.
+     */
+    private static final class CachedScorecard {
+        /**
+         * The scorecard.
+         */
+        private final Scorecard scorecard;
+
+        /**
+         * The time the scorecard was loaded.
+         */
+        private final long loadTime;
+
+        /**
+         * Create the cached scorecard.
+         * @param scorecard
+         *            The scorecard.
+         * @param loadTime
+         *            The time the scorecard was loaded.
+         */
+        CachedScorecard(Scorecard scorecard, long loadTime) {
+            this.scorecard = scorecard;
+            this.loadTime = loadTime;
+        }
+    }
+}
@@ -24,7 +24,9 @@ import com.topcoder.util.sql.databaseabstraction.CustomResultSet;
 
 import java.lang.reflect.InvocationTargetException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
@@ -41,12 +43,22 @@ import java.util.Map;
  * In version 1.0.2, a new method named getDefaultScorecardsIDInfo is added
  * to retrieve the scorecard type ids and scorecard ids for a specific category from default scorecards table.
  *
+ * In version 1.0.3, the complete scorecards retrieved by getScorecard and getScorecards are cached in memory. The
+ * cache is shared by the managers of the same configuration namespace and is invalidated when a scorecard is created
+ * or updated through any of them, and again when the transaction completes. The cached scorecards are shared by all
+ * the callers and must not be modified; their 'inUse' flag reflects the time they were loaded. They expire after the
+ * optional 'CacheTimeout' property (in milliseconds, 10 minutes by default, 0 for never), so the changes made by
+ * other applications are picked up. The cache can be disabled with the optional 'CacheEnabled' property, and the
+ * optional 'PreloadActiveScorecards' property loads all the active scorecards when the first manager of the
+ * namespace is created.
+ *
  * @author tuenm
  * @author zhuzeyuan
  * @author George1
  * @author Angen
+ * @author TCSASSEMBLER
  *
- * @version 1.0.2
+ * @version 1.0.3
  */
 public class ScorecardManagerImpl implements ScorecardManager {
     /**
@@ -79,6 +91,31 @@ public class ScorecardManagerImpl implements ScorecardManager {
      */
     private static final String SEARCHBUILDER_NAMESPACE = "SearchBuilderNamespace";
 
+    /**
+     * Represents the optional property name telling whether the complete scorecards are cached, true by default.
+     * @since 1.0.3
+     */
+    private static final String CACHE_ENABLED = "CacheEnabled";
+
+    /**
+     * Represents the optional property name for the time after which the cached scorecards expire, in milliseconds.
+     * @since 1.0.3
+     */
+    private static final String CACHE_TIMEOUT = "CacheTimeout";
+
+    /**
+     * Represents the optional property name telling whether the active scorecards are loaded into the cache when the
+     * first manager of the namespace is created, false by default.
+     * @since 1.0.3
+     */
+    private static final String PRELOAD_ACTIVE_SCORECARDS = "PreloadActiveScorecards";
+
+    /**
+     * The name of the status of the active scorecards.
+     * @since 1.0.3
+     */
+    private static final String ACTIVE_STATUS_NAME = "Active";
+
     /**
      * The maximal length for ScorecardStatusName.
      */
@@ -117,6 +154,13 @@ public class ScorecardManagerImpl implements ScorecardManager {
      */
     private final ScorecardValidator validator;
 
+    /**
+     * The cache of the complete scorecards, shared by the managers of the same namespace. It is initialized in the
+     * constructor and never changed after that. It is null if the cache is disabled.
+     * @since 1.0.3
+     */
+    private final ScorecardCache cache;
+
     /**
      * Create a new instance of ScorecardManagerImpl using the default configuration namespace. First it load the
      * 'PersistenceClass' and 'PersistenceNamespace' properties to initialize the persistence plug-in implementation.
@@ -211,6 +255,27 @@ public class ScorecardManagerImpl implements ScorecardManager {
 
             // Set the SearchableFields with this validationMap.
             searchBundle.setSearchableFields(validationMap);
+
+            // The cache is enabled unless explicitly disabled.
+            if ("false".equalsIgnoreCase(cm.getString(ns, CACHE_ENABLED))) {
+                cache = null;
+            } else {
+                cache = ScorecardCache.getCache(ns);
+
+                String timeoutValue = cm.getString(ns, CACHE_TIMEOUT);
+                long timeout = (timeoutValue == null) ? ScorecardCache.DEFAULT_TIMEOUT
+                                                      : Long.parseLong(timeoutValue.trim());
+
+                if (timeout < 0) {
+                    throw new IllegalArgumentException("CacheTimeout should not be negative.");
+                }
+
+                cache.setTimeout(timeout);
+
+                if ("true".equalsIgnoreCase(cm.getString(ns, PRELOAD_ACTIVE_SCORECARDS))) {
+                    preloadActiveScorecards();
+                }
+            }
         } catch (UnknownNamespaceException e) {
             throw new ConfigurationException("namespace '" + ns +
                 "' is unknown.", e);
@@ -222,6 +287,30 @@ public class ScorecardManagerImpl implements ScorecardManager {
         }
     }
 
+    /**
+     * Load all the active scorecards into the cache, unless they were already loaded by another manager of the
+     * namespace.
+     * @throws ConfigurationException
+     *             if error occurred while loading the scorecards.
+     * @since 1.0.3
+     */
+    private void preloadActiveScorecards() throws ConfigurationException {
+        synchronized (cache) {
+            if (cache.isPreloaded()) {
+                return;
+            }
+
+            try {
+                long version = cache.getVersion();
+                cache.put(searchScorecards(ScorecardSearchBundle.buildStatusNameEqualFilter(ACTIVE_STATUS_NAME),
+                        true), version);
+                cache.setPreloaded();
+            } catch (PersistenceException e) {
+                throw new ConfigurationException("unable to preload the active scorecards.", e);
+            }
+        }
+    }
+
     /**
      * Create an instance of the specified implementation of an object using reflection.
      * @param className
@@ -293,6 +382,10 @@ public class ScorecardManagerImpl implements ScorecardManager {
         // Validate the scorecard first, and then pass it to the persistence.
         validator.validateScorecard(scorecard);
         persistence.createScorecard(scorecard, operator);
+
+        if (cache != null) {
+            cache.invalidate(scorecard.getId());
+        }
     }
 
     /**
@@ -317,12 +410,21 @@ public class ScorecardManagerImpl implements ScorecardManager {
         throws PersistenceException, ValidationException {
         // Validate the scorecard first, and then pass it to the persistence.
         validator.validateScorecard(scorecard);
-        persistence.updateScorecard(scorecard, operator);
+
+        try {
+            persistence.updateScorecard(scorecard, operator);
+        } finally {
+            // even a failed update may have changed the scorecard if the transaction is managed by the container
+            if (cache != null) {
+                cache.invalidate(scorecard.getId());
+            }
+        }
     }
 
     /**
      * Retrieves the scorecard instance from the persistence given its id. The scorecard instance is retrieved with
-     * its sub items, such as group, section and questions.
+     * its sub items, such as group, section and questions. Unless the cache is disabled, the scorecard is served from
+     * the cache and must not be modified.
      * @return The scorecard instance.
      * @param id
      *            The id of the scorecard to be retrieved.
@@ -334,7 +436,22 @@ public class ScorecardManagerImpl implements ScorecardManager {
     public Scorecard getScorecard(long id) throws PersistenceException {
         Helper.assertIntegerGreaterThanZero(id, "id");
 
-        return persistence.getScorecard(id, true);
+        if (cache == null) {
+            return persistence.getScorecard(id, true);
+        }
+
+        Scorecard scorecard = cache.get(id);
+
+        if (scorecard == null) {
+            long version = cache.getVersion();
+            scorecard = persistence.getScorecard(id, true);
+
+            if (scorecard != null) {
+                cache.put(new Scorecard[] {scorecard}, version);
+            }
+        }
+
+        return scorecard;
     }
 
     /**
@@ -413,7 +530,9 @@ public class ScorecardManagerImpl implements ScorecardManager {
     /**
      * <p>
      * Retrieves an array of the scorecard instances from the persistence given their ids. The scorecard instances can
-     * be retrieved with or without its sub items, depends on the 'complete' parameter.
+     * be retrieved with or without its sub items, depends on the 'complete' parameter. Unless the cache is disabled,
+     * the complete scorecards are served from the cache and must not be modified; the ones not cached yet are loaded
+     * together.
      * </p>
      * @param ids
      *            The array of ids of the scorecards to be retrieved.
@@ -427,7 +546,64 @@ public class ScorecardManagerImpl implements ScorecardManager {
      */
     public Scorecard[] getScorecards(long[] ids, boolean complete)
         throws PersistenceException {
-        return persistence.getScorecards(ids, complete);
+        if (!complete || (cache == null)) {
+            return persistence.getScorecards(ids, complete);
+        }
+
+        Helper.assertObjectNotNull(ids, "ids");
+
+        if (ids.length == 0) {
+            throw new IllegalArgumentException("ids must contain at least one element");
+        }
+
+        // Collect the cached scorecards and the ids of the missing ones.
+        Map found = new HashMap();
+        List missingIds = new ArrayList();
+
+        for (int i = 0; i < ids.length; i++) {
+            Helper.assertIntegerGreaterThanZero(ids[i], "Element in ids");
+
+            Scorecard scorecard = cache.get(ids[i]);
+
+            if (scorecard != null) {
+                found.put(new Long(ids[i]), scorecard);
+            } else {
+                missingIds.add(new Long(ids[i]));
+            }
+        }
+
+        // Load all the missing scorecards at once.
+        if (!missingIds.isEmpty()) {
+            long[] missing = new long[missingIds.size()];
+
+            for (int i = 0; i < missing.length; i++) {
+                missing[i] = ((Long) missingIds.get(i)).longValue();
+            }
+
+            long version = cache.getVersion();
+            Scorecard[] loaded = persistence.getScorecards(missing, true);
+
+            if (loaded != null) {
+                cache.put(loaded, version);
+
+                for (int i = 0; i < loaded.length; i++) {
+                    found.put(new Long(loaded[i].getId()), loaded[i]);
+                }
+            }
+        }
+
+        // Return the scorecards in the order of the ids.
+        List result = new ArrayList();
+
+        for (int i = 0; i < ids.length; i++) {
+            Object scorecard = found.remove(new Long(ids[i]));
+
+            if (scorecard != null) {
+                result.add(scorecard);
+            }
+        }
+
+        return (Scorecard[]) result.toArray(new Scorecard[result.size()]);
     }
 
     /**
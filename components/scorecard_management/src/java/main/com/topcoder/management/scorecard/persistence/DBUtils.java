@@ -11,6 +11,7 @@ import java.util.List;
 
 import com.topcoder.management.scorecard.PersistenceException;
 import com.topcoder.management.scorecard.persistence.logging.LogMessage;
+import com.topcoder.service.util.idgenerator.BlockIDGenerator;
 import com.topcoder.util.idgenerator.IDGenerationException;
 import com.topcoder.util.idgenerator.IDGenerator;
 import com.topcoder.util.log.Level;
@@ -28,8 +29,13 @@ import com.topcoder.util.log.LogManager;
  * - LogManager is used instead of LogFactory.
  * </p>
  *
- * @author kr00tki, pulky
- * @version 1.0.2
+ * <p>
+ * Changes in v1.0.3:
+ * - generateIdsArray takes the ids at once.
+ * </p>
+ *
+ * @author kr00tki, pulky, TCSASSEMBLER
+ * @version 1.0.3
  */
 final class DBUtils {
 
@@ -162,13 +168,11 @@ final class DBUtils {
      * @throws PersistenceException if error occurs while generating the ids.
      */
     public static long[] generateIdsArray(int length, IDGenerator idGenerator) throws PersistenceException {
-        long[] result = new long[length];
+        long[] result;
 
         try {
-            for (int i = 0; i < result.length; i++) {
-                result[i] = idGenerator.getNextID();
-                logger.log(Level.INFO, "Generate next id using the idgenerator:" + idGenerator.getIDName());
-            }
+            result = BlockIDGenerator.nextIds(idGenerator, length);
+            logger.log(Level.INFO, "Generate " + length + " ids using the idgenerator:" + idGenerator.getIDName());
         } catch (IDGenerationException ex) {
             logger.log(Level.ERROR, "Fail to generate next id using the idgenerator:"
                     + idGenerator.getIDName() + "\n" + LogMessage.getExceptionStackTrace(ex));
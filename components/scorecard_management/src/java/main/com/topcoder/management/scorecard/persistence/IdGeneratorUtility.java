@@ -5,11 +5,11 @@ package com.topcoder.management.scorecard.persistence;
 
 import com.topcoder.management.scorecard.ConfigurationException;
 import com.topcoder.management.scorecard.persistence.logging.LogMessage;
+import com.topcoder.service.util.idgenerator.BlockIDGeneratorFactory;
 import com.topcoder.util.config.ConfigManager;
 import com.topcoder.util.config.UnknownNamespaceException;
 import com.topcoder.util.idgenerator.IDGenerationException;
 import com.topcoder.util.idgenerator.IDGenerator;
-import com.topcoder.util.idgenerator.IDGeneratorFactory;
 import com.topcoder.util.log.Level;
 import com.topcoder.util.log.Log;
 import com.topcoder.util.log.LogManager;
@@ -26,8 +26,13 @@ import com.topcoder.util.log.LogManager;
  * - LogManager is used instead of LogFactory.
  * </p>
  *
- * @author tuenm, kr00tki, pulky
- * @version 1.0.2
+ * <p>
+ * Changes in v1.0.3:
+ * - the IDGenerators are taken from BlockIDGeneratorFactory, which reserves the IDs in blocks.
+ * </p>
+ *
+ * @author tuenm, kr00tki, pulky, TCSASSEMBLER
+ * @version 1.0.3
  */
 class IdGeneratorUtility {
 
@@ -116,7 +121,7 @@ class IdGeneratorUtility {
 
     /**
      * <p>
-     * Creates the IdGenerator using the IDGeneratorFactory. The name of the generator is retrieved
+     * Creates the IdGenerator using the BlockIDGeneratorFactory. The name of the generator is retrieved
      * from the configuration or the default is used.
      * </p>
      *
@@ -139,7 +144,7 @@ class IdGeneratorUtility {
                         "Read property " + property + "[" + name + "] from namespace:" + namespace);
             }
    
-            IDGenerator idGenerator = IDGeneratorFactory.getIDGenerator(defaultName);
+            IDGenerator idGenerator = BlockIDGeneratorFactory.getIDGenerator(defaultName);
             logger.log(Level.INFO, "create IDGenerator instance with the idGenerator name:" + defaultName);
             return idGenerator;
         } catch (IDGenerationException ex) {
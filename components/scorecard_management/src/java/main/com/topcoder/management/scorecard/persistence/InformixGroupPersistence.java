@@ -9,8 +9,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.topcoder.management.scorecard.PersistenceException;
@@ -34,8 +36,13 @@ import com.topcoder.util.log.LogManager;
  * - LogManager is used instead of LogFactory.
  * </p>
  *
- * @author tuenm, kr00tki, pulky
- * @version 1.0.2
+ * <p>
+ * Changes in v1.0.3:
+ * - added getGroupsByScorecards to load the complete groups of several scorecards with three queries.
+ * </p>
+ *
+ * @author tuenm, kr00tki, pulky, TCSASSEMBLER
+ * @version 1.0.3
  */
 class InformixGroupPersistence {
 
@@ -48,6 +55,14 @@ class InformixGroupPersistence {
     private static final String SELECT_SCORECARD_GROUP_BY_PARENT_ID = "SELECT scorecard_group_id, "
             + "name, weight FROM scorecard_group WHERE scorecard_id = ? ORDER BY sort";
 
+    /**
+     * Selects the groups of the scorecards with the given ids.
+     *
+     * @since 1.0.3
+     */
+    private static final String SELECT_SCORECARD_GROUPS_BY_SCORECARD_IDS = "SELECT scorecard_id, "
+            + "scorecard_group_id, name, weight FROM scorecard_group WHERE scorecard_id IN ";
+
     /**
      * Selects the group be its id.
      */
@@ -509,6 +524,57 @@ class InformixGroupPersistence {
         }
     }
 
+    /**
+     * Retrieves the groups of the scorecards with the given ids, with all their sub items. The whole trees are
+     * loaded with three queries, whatever the number of scorecards.
+     *
+     * @param scorecardIds the scorecard ids.
+     * @return the lists of groups in their order, keyed by the scorecard id.
+     * @throws PersistenceException if database error occur.
+     * @since 1.0.3
+     */
+    Map getGroupsByScorecards(long[] scorecardIds) throws PersistenceException {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            pstmt = connection.prepareStatement(SELECT_SCORECARD_GROUPS_BY_SCORECARD_IDS
+                    + DBUtils.createQuestionMarks(scorecardIds.length) + " ORDER BY scorecard_id, sort");
+            for (int i = 0; i < scorecardIds.length; i++) {
+                pstmt.setLong(i + 1, scorecardIds[i]);
+            }
+            rs = pstmt.executeQuery();
+
+            Map sections = new InformixSectionPersistence(connection).getSectionsByScorecards(scorecardIds);
+            Map result = new HashMap();
+            while (rs.next()) {
+                Long scorecardId = new Long(rs.getLong("scorecard_id"));
+                Group group = populateGroup(rs);
+                List groupSections = (List) sections.get(new Long(group.getId()));
+                if (groupSections != null) {
+                    group.addSections((Section[]) groupSections.toArray(new Section[groupSections.size()]));
+                }
+
+                List groups = (List) result.get(scorecardId);
+                if (groups == null) {
+                    groups = new ArrayList();
+                    result.put(scorecardId, groups);
+                }
+                groups.add(group);
+            }
+
+            return result;
+        } catch (SQLException ex) {
+            logger.log(Level.ERROR, new LogMessage("Group", null, null,
+                    "Failed to retrieve groups of scorecards:"
+                    + InformixPersistenceHelper.generateIdString(scorecardIds), ex));
+            throw new PersistenceException("Error occurs while retrieving the group.", ex);
+        } finally {
+            DBUtils.close(rs);
+            DBUtils.close(pstmt);
+        }
+    }
+
     /**
      * Creates the Group instance using the data from the ResultSet.
      *
@@ -10,7 +10,9 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.topcoder.management.scorecard.PersistenceException;
 import com.topcoder.management.scorecard.data.Question;
@@ -31,8 +33,13 @@ import com.topcoder.util.log.LogManager;
  * - LogManager is used instead of LogFactory.
  * </p>
  *
- * @author tuenm, kr00tki, pulky
- * @version 1.0.2
+ * <p>
+ * Changes in v1.0.3:
+ * - added getQuestionsByScorecards to load the questions of several scorecards with one query.
+ * </p>
+ *
+ * @author tuenm, kr00tki, pulky, TCSASSEMBLER
+ * @version 1.0.3
  */
 class InformixQuestionPersistence {
     
@@ -49,6 +56,19 @@ class InformixQuestionPersistence {
             + "scorecard_question_type_lu AS type ON sq.scorecard_question_type_id = "
             + "type.scorecard_question_type_id WHERE sq.scorecard_section_id = ? ORDER BY sort";
 
+    /**
+     * Selects all questions of the scorecards with the given ids.
+     *
+     * @since 1.0.3
+     */
+    private static final String SELECT_SCORECARD_QUESTION_BY_SCORECARD_IDS = "SELECT sq.scorecard_section_id, "
+            + "sq.scorecard_question_id, sq.description, sq.guideline, sq.weight, sq.upload_document, "
+            + "sq.upload_document_required, type.scorecard_question_type_id, type.name AS TypeName "
+            + "FROM scorecard_question AS sq JOIN scorecard_question_type_lu AS type "
+            + "ON sq.scorecard_question_type_id = type.scorecard_question_type_id "
+            + "JOIN scorecard_section AS s ON sq.scorecard_section_id = s.scorecard_section_id "
+            + "JOIN scorecard_group AS g ON s.scorecard_group_id = g.scorecard_group_id WHERE g.scorecard_id IN ";
+
     /**
      * Select the question by its id.
      */
@@ -413,6 +433,52 @@ class InformixQuestionPersistence {
         }
     }
 
+    /**
+     * Returns the questions of the scorecards with the given ids, loaded with one query.
+     *
+     * @param scorecardIds the scorecard ids.
+     * @return the lists of questions in their order, keyed by the section id.
+     * @throws PersistenceException if any database error occurs.
+     * @since 1.0.3
+     */
+    Map getQuestionsByScorecards(long[] scorecardIds) throws PersistenceException {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        logger.log(Level.INFO, new LogMessage("Question", null, null,
+                "retrieve Questions of scorecards:" + InformixPersistenceHelper.generateIdString(scorecardIds)));
+
+        try {
+            pstmt = connection.prepareStatement(SELECT_SCORECARD_QUESTION_BY_SCORECARD_IDS
+                    + DBUtils.createQuestionMarks(scorecardIds.length) + " ORDER BY sq.scorecard_section_id, sq.sort");
+            for (int i = 0; i < scorecardIds.length; i++) {
+                pstmt.setLong(i + 1, scorecardIds[i]);
+            }
+            rs = pstmt.executeQuery();
+
+            Map result = new HashMap();
+            while (rs.next()) {
+                Long sectionId = new Long(rs.getLong("scorecard_section_id"));
+                List questions = (List) result.get(sectionId);
+                if (questions == null) {
+                    questions = new ArrayList();
+                    result.put(sectionId, questions);
+                }
+                questions.add(populateQuestion(rs));
+            }
+
+            return result;
+        } catch (SQLException ex) {
+            logger.log(Level.ERROR, new LogMessage("Question", null, null,
+                    "Failed to retrieve Questions of scorecards:"
+                    + InformixPersistenceHelper.generateIdString(scorecardIds), ex));
+            throw new PersistenceException("Error occurs while retrieving question.", ex);
+        } finally {
+            DBUtils.close(rs);
+            DBUtils.close(pstmt);
+        }
+    }
+
     /**
      * Creates the question instance using the ResultSet as source.
      *
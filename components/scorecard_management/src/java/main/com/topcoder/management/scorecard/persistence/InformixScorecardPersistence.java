@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.topcoder.db.connectionfactory.DBConnectionException;
@@ -57,9 +58,15 @@ import com.topcoder.util.sql.databaseabstraction.NullColumnValueException;
  * - LogManager is used instead of LogFactory.
  * </p>
  *
- * @author tuenm, kr00tki, George1, Angen, pulky
+ * <p>
+ * Changes in v1.0.4:
+ * - the complete scorecards are loaded in bulk, with three queries for all of their groups, sections and
+ * questions instead of several queries per scorecard.
+ * </p>
+ *
+ * @author tuenm, kr00tki, George1, Angen, pulky, TCSASSEMBLER
  *
- * @version 1.0.3
+ * @version 1.0.4
  */
 public class InformixScorecardPersistence implements ScorecardPersistence {
     /** Logger instance using the class name as category */
@@ -760,12 +767,7 @@ public class InformixScorecardPersistence implements ScorecardPersistence {
             List scorecards = getScorecards(conn, ids, inUseIds);
 
             if (complete) {
-                InformixGroupPersistence groupPersistence = new InformixGroupPersistence(conn);
-
-                for (Iterator it = scorecards.iterator(); it.hasNext();) {
-                    Scorecard card = (Scorecard) it.next();
-                    card.addGroups(groupPersistence.getGroups(card.getId()));
-                }
+                addGroups(conn, scorecards);
             }
 
             return (Scorecard[]) scorecards.toArray(new Scorecard[scorecards.size()]);
@@ -794,23 +796,15 @@ public class InformixScorecardPersistence implements ScorecardPersistence {
         }
 
         Connection conn = createConnection();
-        InformixGroupPersistence groupPersistence = null;
         List scorecards = new ArrayList();
 
-        if (complete) {
-            groupPersistence = new InformixGroupPersistence(conn);
-        }
-
         try {
             while (resultSet.next()) {
-                Scorecard scorecard = populateScorecard(resultSet);
-
-                if (groupPersistence != null) {
-                    scorecard.addGroups(groupPersistence.getGroups(
-                            scorecard.getId()));
-                }
+                scorecards.add(populateScorecard(resultSet));
+            }
 
-                scorecards.add(scorecard);
+            if (complete) {
+                addGroups(conn, scorecards);
             }
 
             return (Scorecard[]) scorecards.toArray(new Scorecard[scorecards.size()]);
@@ -825,6 +819,34 @@ public class InformixScorecardPersistence implements ScorecardPersistence {
         }
     }
 
+    /**
+     * Adds the complete groups to the given scorecards, loading them in bulk.
+     *
+     * @param conn the database connection.
+     * @param scorecards the scorecards.
+     * @throws PersistenceException if error occurred while accessing the persistence.
+     * @since 1.0.4
+     */
+    private static void addGroups(Connection conn, List scorecards) throws PersistenceException {
+        if (scorecards.isEmpty()) {
+            return;
+        }
+
+        long[] scorecardIds = new long[scorecards.size()];
+        for (int i = 0; i < scorecardIds.length; i++) {
+            scorecardIds[i] = ((Scorecard) scorecards.get(i)).getId();
+        }
+
+        Map groups = new InformixGroupPersistence(conn).getGroupsByScorecards(scorecardIds);
+        for (Iterator it = scorecards.iterator(); it.hasNext();) {
+            Scorecard card = (Scorecard) it.next();
+            List cardGroups = (List) groups.get(new Long(card.getId()));
+            if (cardGroups != null) {
+                card.addGroups((Group[]) cardGroups.toArray(new Group[cardGroups.size()]));
+            }
+        }
+    }
+
     /**
      * Retrieves the scorecard type ids and scorecard ids for a specific category
      * from default scorecards table.
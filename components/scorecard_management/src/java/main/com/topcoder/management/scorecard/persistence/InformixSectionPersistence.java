@@ -9,8 +9,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.topcoder.management.scorecard.PersistenceException;
@@ -35,8 +37,14 @@ import com.topcoder.util.log.LogManager;
  * - LogManager is used instead of LogFactory.
  * </p>
  *
- * @author tuenm, kr00tki, pulky
- * @version 1.0.2
+ * <p>
+ * Changes in v1.0.3:
+ * - added getSectionsByScorecards to load the sections of several scorecards, with their questions, with two
+ * queries.
+ * </p>
+ *
+ * @author tuenm, kr00tki, pulky, TCSASSEMBLER
+ * @version 1.0.3
  */
 class InformixSectionPersistence {
 
@@ -49,6 +57,15 @@ class InformixSectionPersistence {
     private static final String SELECT_SECTIONS_BY_PARENT_ID = "SELECT scorecard_section_id, name, "
             + "weight FROM scorecard_section WHERE scorecard_group_id = ? ORDER BY sort";
 
+    /**
+     * Selects the sections of the scorecards with the given ids.
+     *
+     * @since 1.0.3
+     */
+    private static final String SELECT_SECTIONS_BY_SCORECARD_IDS = "SELECT s.scorecard_group_id, "
+            + "s.scorecard_section_id, s.name, s.weight FROM scorecard_section AS s JOIN scorecard_group AS g "
+            + "ON s.scorecard_group_id = g.scorecard_group_id WHERE g.scorecard_id IN ";
+
     /**
      * Select the section by its id.
      */
@@ -487,6 +504,57 @@ class InformixSectionPersistence {
         }
     }
 
+    /**
+     * Returns the sections of the scorecards with the given ids, with their questions.
+     *
+     * @param scorecardIds the scorecard ids.
+     * @return the lists of sections in their order, keyed by the group id.
+     * @throws PersistenceException if any database error occurs.
+     * @since 1.0.3
+     */
+    Map getSectionsByScorecards(long[] scorecardIds) throws PersistenceException {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            pstmt = connection.prepareStatement(SELECT_SECTIONS_BY_SCORECARD_IDS
+                    + DBUtils.createQuestionMarks(scorecardIds.length) + " ORDER BY s.scorecard_group_id, s.sort");
+            for (int i = 0; i < scorecardIds.length; i++) {
+                pstmt.setLong(i + 1, scorecardIds[i]);
+            }
+            rs = pstmt.executeQuery();
+
+            Map questions = new InformixQuestionPersistence(connection).getQuestionsByScorecards(scorecardIds);
+            Map result = new HashMap();
+            while (rs.next()) {
+                Long groupId = new Long(rs.getLong("scorecard_group_id"));
+                Section section = prepareSection(rs);
+                List sectionQuestions = (List) questions.get(new Long(section.getId()));
+                if (sectionQuestions != null) {
+                    section.addQuestions((Question[]) sectionQuestions.toArray(
+                            new Question[sectionQuestions.size()]));
+                }
+
+                List sections = (List) result.get(groupId);
+                if (sections == null) {
+                    sections = new ArrayList();
+                    result.put(groupId, sections);
+                }
+                sections.add(section);
+            }
+
+            return result;
+        } catch (SQLException ex) {
+            logger.log(Level.ERROR, new LogMessage("Section", null, null,
+                    "Failed to retrieve Sections of scorecards:"
+                    + InformixPersistenceHelper.generateIdString(scorecardIds), ex));
+            throw new PersistenceException("Error occurs while retrieving the section.", ex);
+        } finally {
+            DBUtils.close(rs);
+            DBUtils.close(pstmt);
+        }
+    }
+
     /**
      * Creates the Section instance from the given ResultSet.
      *
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.management.scorecard;
+
+import com.topcoder.management.scorecard.data.Scorecard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Unit test for ScorecardCache class.
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class ScorecardCacheTest extends TestCase {
+    /**
+     * The ScorecardCache instance used in the tests.
+     */
+    private ScorecardCache cache;
+
+    /**
+     * Aggragates all tests in this class.
+     *
+     * @return Test suite aggragating all tests.
+     */
+    public static Test suite() {
+        return new TestSuite(ScorecardCacheTest.class);
+    }
+
+    /**
+     * Create the cache used in the tests.
+     */
+    protected void setUp() {
+        cache = new ScorecardCache();
+    }
+
+    /**
+     * Accuracy test of <code>getCache(String namespace)</code> method.
+     *
+     * <p>
+     * The managers of the same namespace share the same cache.
+     * </p>
+     *
+     * @throws Exception
+     *             throw exception to JUnit.
+     */
+    public void testGetCacheAccuracy() throws Exception {
+        ScorecardCache first = ScorecardCache.getCache("ScorecardCacheTest.first");
+        assertSame("the cache should be shared", first, ScorecardCache.getCache("ScorecardCacheTest.first"));
+        assertNotSame("the caches should be different", first, ScorecardCache.getCache("ScorecardCacheTest.second"));
+    }
+
+    /**
+     * Accuracy test of <code>put(Scorecard[] cards, long loadVersion)</code> method.
+     *
+     * <p>
+     * The scorecards loaded at the current version are cached.
+     * </p>
+     *
+     * @throws Exception
+     *             throw exception to JUnit.
+     */
+    public void testPutAccuracy() throws Exception {
+        Scorecard scorecard = new Scorecard(12);
+        assertTrue("the scorecards should be cached",
+            cache.put(new Scorecard[] {scorecard, new Scorecard(13)}, cache.getVersion()));
+        assertSame("the cached scorecard is incorrect", scorecard, cache.get(12));
+        assertEquals("the number of cached scorecards is incorrect", 2, cache.size());
+        assertNull("the scorecard should not be cached", cache.get(14));
+    }
+
+    /**
+     * Accuracy test of <code>invalidate(long id)</code> method.
+     *
+     * <p>
+     * The scorecard is removed, and the scorecards loaded before the invalidation are not cached.
+     * </p>
+     *
+     * @throws Exception
+     *             throw exception to JUnit.
+     */
+    public void testInvalidateAccuracy() throws Exception {
+        cache.put(new Scorecard[] {new Scorecard(12), new Scorecard(13)}, cache.getVersion());
+        long version = cache.getVersion();
+
+        cache.invalidate(12);
+
+        assertNull("the scorecard should be removed", cache.get(12));
+        assertNotNull("the scorecard should still be cached", cache.get(13));
+        assertFalse("stale scorecards should not be cached", cache.put(new Scorecard[] {new Scorecard(12)}, version));
+        assertNull("stale scorecards should not be cached", cache.get(12));
+    }
+
+    /**
+     * Accuracy test of <code>invalidate(long id)</code> method in a transaction.
+     *
+     * <p>
+     * The scorecard loaded before the transaction completes is removed when it completes.
+     * </p>
+     *
+     * @throws Exception
+     *             throw exception to JUnit.
+     */
+    public void testInvalidateTransactionAccuracy() throws Exception {
+        final List synchronizations = new ArrayList();
+        cache = new ScorecardCache() {
+            TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+                return new MockRegistry(synchronizations);
+            }
+        };
+
+        cache.invalidate(12);
+        cache.put(new Scorecard[] {new Scorecard(12)}, cache.getVersion());
+        assertNotNull("the scorecard should be cached", cache.get(12));
+
+        ((Synchronization) synchronizations.get(0)).afterCompletion(Status.STATUS_COMMITTED);
+
+        assertNull("the scorecard should be removed after the commit", cache.get(12));
+    }
+
+    /**
+     * Accuracy test of <code>get(long id)</code> method with a timeout.
+     *
+     * <p>
+     * The expired scorecards are removed.
+     * </p>
+     *
+     * @throws Exception
+     *             throw exception to JUnit.
+     */
+    public void testGetExpiredAccuracy() throws Exception {
+        cache.setTimeout(1);
+        cache.put(new Scorecard[] {new Scorecard(12)}, cache.getVersion());
+        Thread.sleep(10);
+
+        assertNull("the scorecard should expire", cache.get(12));
+        assertEquals("the scorecard should be removed", 0, cache.size());
+
+        cache.setTimeout(0);
+        cache.put(new Scorecard[] {new Scorecard(12)}, cache.getVersion());
+        Thread.sleep(10);
+
+        assertNotNull("the scorecard should not expire", cache.get(12));
+    }
+
+    /**
+     * Accuracy test of <code>clear()</code> method.
+     *
+     * <p>
+     * All the scorecards are removed.
+     * </p>
+     *
+     * @throws Exception
+     *             throw exception to JUnit.
+     */
+    public void testClearAccuracy() throws Exception {
+        cache.put(new Scorecard[] {new Scorecard(12), new Scorecard(13)}, cache.getVersion());
+        long version = cache.getVersion();
+
+        cache.clear();
+
+        assertEquals("the scorecards should be removed", 0, cache.size());
+        assertTrue("the version should change", version != cache.getVersion());
+    }
+
+    /**
+     * A mock transaction synchronization registry with an active transaction.
+     */
+    private static class MockRegistry implements TransactionSynchronizationRegistry {
+        /**
+         * The registered synchronizations.
+         */
+        private final List synchronizations;
+
+        /**
+         * Create the registry.
+         *
+         * @param synchronizations
+         *            The list to add the registered synchronizations to.
+         */
+        MockRegistry(List synchronizations) {
+            this.synchronizations = synchronizations;
+        }
+
+        public Object getTransactionKey() {
+            return this;
+        }
+
+        public void putResource(Object key, Object value) {
+        }
+
+        public Object getResource(Object key) {
+            return null;
+        }
+
+        public void registerInterposedSynchronization(Synchronization sync) {
+            synchronizations.add(sync);
+        }
+
+        public int getTransactionStatus() {
+            return Status.STATUS_ACTIVE;
+        }
+
+        public void setRollbackOnly() {
+        }
+
+        public boolean getRollbackOnly() {
+            return false;
+        }
+    }
+}
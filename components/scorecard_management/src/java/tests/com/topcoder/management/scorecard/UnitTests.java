@@ -27,6 +27,7 @@ public class UnitTests extends TestCase {
         suite.addTest(ScorecardSearchBundleTest.suite());
         suite.addTest(DefaultScorecardValidatorTest.suite());
         suite.addTest(ScorecardManagerImplTest.suite());
+        suite.addTest(ScorecardCacheTest.suite());
         suite.addTest(DemoTest.suite());
         return suite;
     }
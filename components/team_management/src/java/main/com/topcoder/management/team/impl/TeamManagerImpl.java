@@ -16,11 +16,11 @@ import com.topcoder.management.team.TeamPersistenceException;
 import com.topcoder.management.team.TeamPosition;
 import com.topcoder.management.team.UnknownEntityException;
 import com.topcoder.search.builder.filter.Filter;
+import com.topcoder.service.util.idgenerator.BlockIDGeneratorFactory;
 import com.topcoder.util.config.ConfigManager;
 import com.topcoder.util.config.UnknownNamespaceException;
 import com.topcoder.util.idgenerator.IDGenerationException;
 import com.topcoder.util.idgenerator.IDGenerator;
-import com.topcoder.util.idgenerator.IDGeneratorFactory;
 import com.topcoder.util.log.Level;
 import com.topcoder.util.log.Log;
 import com.topcoder.util.log.LogManager;
@@ -114,8 +114,11 @@ import com.topcoder.util.objectfactory.impl.SpecificationConfigurationException;
  * Thread Safety: This class is immutable but operates on non thread safe objects, thus making it potentially non
  * thread safe.
  * </p>
- * @author argolite, TCSDEVELOPER
- * @version 1.0
+ * <p>
+ * Version 1.1 update: The ID generator is taken from BlockIDGeneratorFactory, which reserves the IDs in blocks.
+ * </p>
+ * @author argolite, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public class TeamManagerImpl implements TeamManager {
     /**
@@ -224,7 +227,7 @@ public class TeamManagerImpl implements TeamManager {
             }
 
             // Prepare the idGenerator
-            idGenerator = IDGeneratorFactory.getIDGenerator(myCMGetString(cm, namespace, ID_GENERATOR));
+            idGenerator = BlockIDGeneratorFactory.getIDGenerator(myCMGetString(cm, namespace, ID_GENERATOR));
         } catch (ClassCastException cce) {
             throw new TeamConfigurationException("Error while class casting", cce);
         } catch (SpecificationConfigurationException sce) {
@@ -19,6 +19,7 @@ import com.topcoder.direct.services.project.metadata.entities.dao.DirectProjectM
 import com.topcoder.direct.services.project.metadata.entities.dao.DirectProjectMetadataKey;
 import com.topcoder.direct.services.project.metadata.entities.dao.TcDirectProject;
 import com.topcoder.direct.services.project.metadata.entities.dto.CompositeFilter;
+import com.topcoder.direct.services.project.metadata.entities.dto.CompositeOperator;
 import com.topcoder.direct.services.project.metadata.entities.dto.DirectProjectFilter;
 import com.topcoder.direct.services.project.metadata.entities.dto.DirectProjectMetadataDTO;
 import com.topcoder.direct.services.project.metadata.entities.dto.MetadataKeyIdValueFilter;
@@ -27,18 +28,22 @@ import com.topcoder.direct.services.project.metadata.entities.dto.MetadataValueO
 import com.topcoder.util.log.Level;
 import com.topcoder.util.log.Log;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
-import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <p>
@@ -247,12 +252,27 @@ import java.util.Set;
  * </p>
  *
  * <p>
+ *     Version 1.5 changes:
+ *     <ul>
+ *         <li>{@link #searchProjects(DirectProjectFilter)} and {@link #searchProjectIds(long, List)} evaluate the
+ *         filters against an in-memory inverted index of the metadata ({@link ProjectMetadataIndex}) instead of
+ *         scanning the metadata table with LOWER/LIKE predicates. The index is loaded on first use, reloaded every
+ *         {@link #setIndexRefreshInterval(long) indexRefreshInterval} milliseconds, and updated by the
+ *         create/update/save/delete methods once their transaction commits. Only the first load blocks the
+ *         searches; during a reload they keep using the current index until the reloaded one is swapped in.</li>
+ *         <li>{@link #searchProjects(DirectProjectFilter)} gets the found projects with one query per 500 ids
+ *         instead of one query per project. A composite filter matches a project when its metadata satisfies the
+ *         sub filters, which may be satisfied by different metadata of the project.</li>
+ *     </ul>
+ * </p>
+ *
+ * <p>
  * <strong>Thread Safety: </strong> The only non-thread safe part of class is configuration, but it is done in thread
  * safe manner by Spring IoC framework. The class is thread safe under these conditions.
  * </p>
  *
- * @author faeton, sparemax, GreatKevin, Blues, GreatKevin
- * @version 1.4
+ * @author faeton, sparemax, GreatKevin, Blues, GreatKevin, TCSASSEMBLER
+ * @version 1.5
  */
 @Transactional(rollbackFor = DirectProjectServiceException.class)
 public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetadataService implements
@@ -306,12 +326,51 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
 
     /**
      * <p>
-     * Represents the SQL string to query the project id.
+     * Represents the JPA query to get all the project metadata rows loaded by the metadata index.
+     * </p>
+     *
+     * @since 1.5
+     */
+    private static final String QUERY_METADATA_INDEX_ROWS =
+        "SELECT m.id, m.tcDirectProjectId, m.projectMetadataKey.id, m.metadataValue FROM DirectProjectMetadata m";
+
+    /**
+     * <p>
+     * Represents the JPA query to get the ids of the project metadata keys with a name.
      * </p>
+     *
+     * @since 1.5
      */
-    private static final String QUERY_PROJECT_ID =
-        "SELECT distinct tc_direct_project_id FROM direct_project_metadata INNER JOIN direct_project_metadata_key"
-        + " ON direct_project_metadata.project_metadata_key_id=direct_project_metadata_key.project_metadata_key_id WHERE ";
+    private static final String QUERY_KEY_IDS_BY_NAME =
+        "SELECT k.id FROM DirectProjectMetadataKey k WHERE k.name=:name";
+
+    /**
+     * <p>
+     * Represents the JPA query to get the projects by ids.
+     * </p>
+     *
+     * @since 1.5
+     */
+    private static final String QUERY_PROJECTS_BY_IDS =
+        "SELECT p FROM TcDirectProject p WHERE p.projectId IN (:projectIds)";
+
+    /**
+     * <p>
+     * Represents the max number of project ids bound to a single query.
+     * </p>
+     *
+     * @since 1.5
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    /**
+     * <p>
+     * Represents the default time after which the metadata index is reloaded, in milliseconds.
+     * </p>
+     *
+     * @since 1.5
+     */
+    private static final long DEFAULT_INDEX_REFRESH_INTERVAL = 10 * 60 * 1000;
 
 
     /**
@@ -350,6 +409,39 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
      */
     private DirectProjectMetadataValidator directProjectMetadataValidator;
 
+    /**
+     * <p>
+     * The time after which the metadata index is reloaded from the persistence, in milliseconds. It picks up the
+     * metadata changed without this service.
+     * </p>
+     *
+     * <p>
+     * The default value is 10 minutes. It must be positive after configuration. It is modified by setter. Its'
+     * legality is checked in checkInitialization method.
+     * </p>
+     *
+     * @since 1.5
+     */
+    private long indexRefreshInterval = DEFAULT_INDEX_REFRESH_INTERVAL;
+
+    /**
+     * <p>
+     * The inverted index of the project metadata used to search the projects.
+     * </p>
+     *
+     * @since 1.5
+     */
+    private final ProjectMetadataIndex metadataIndex = new ProjectMetadataIndex();
+
+    /**
+     * <p>
+     * The lock making sure the metadata index is loaded by one thread at a time.
+     * </p>
+     *
+     * @since 1.5
+     */
+    private final Lock indexLoadLock = new ReentrantLock();
+
     /**
      * Creates an instance of DirectProjectMetadataServiceImpl.
      */
@@ -481,6 +573,7 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
             entityManager.persist(projectMetadata);
 
             performAudit(projectMetadata, userId, getAuditActionTypeIdMap().get(Helper.ACTION_CREATE));
+            updateIndex(projectMetadata);
 
             long result = projectMetadata.getId();
 
@@ -534,6 +627,7 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
             // Update the entity
             entityManager.merge(projectMetadata);
             performAudit(projectMetadata, userId, getAuditActionTypeIdMap().get(Helper.ACTION_UPDATE));
+            updateIndex(projectMetadata);
 
             LoggingWrapperUtility.logExit(logger, signature, null);
         } catch (EntityNotFoundException e) {
@@ -579,6 +673,7 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
             // Update the entity
             DirectProjectMetadata mergedEntity = entityManager.merge(projectMetadata);
             performAudit(mergedEntity, userId, getAuditActionTypeIdMap().get(Helper.ACTION_UPDATE));
+            updateIndex(mergedEntity);
 
             long result = mergedEntity.getId();
             LoggingWrapperUtility.logExit(logger, signature, new Object[]{result});
@@ -620,6 +715,7 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
                 directProjectMetadataValidator.validate(data);
                 DirectProjectMetadata mergedEntity = entityManager.merge(data);
                 performAudit(mergedEntity, userId, getAuditActionTypeIdMap().get(Helper.ACTION_UPDATE));
+                updateIndex(mergedEntity);
                 result[count++] = mergedEntity.getId();
             }
 
@@ -666,6 +762,7 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
             performAudit(projectMetadata, userId, getAuditActionTypeIdMap().get(Helper.ACTION_DELETE));
 
             entityManager.remove(projectMetadata);
+            removeFromIndex(projectMetadataId);
 
             LoggingWrapperUtility.logExit(logger, signature, null);
         } catch (EntityNotFoundException e) {
@@ -979,14 +1076,29 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
         try {
             ParameterCheckUtility.checkNotNull(filter, "filter");
 
-            EntityManager entityManager = getEntityManager();
+            BitSet projectIds = searchIndex(filter);
 
-            Query query = entityManager.createNativeQuery(QUERY_PROJECT_ID + createSearchWhereClause(filter));
-
-            List<BigDecimal> projectIds = query.getResultList();
+            // get the projects in bulk, ordered by id
+            EntityManager entityManager = getEntityManager();
+            Map<Long, TcDirectProject> projects = new HashMap<Long, TcDirectProject>();
+            List<Long> ids = new ArrayList<Long>();
+            for (int id = projectIds.nextSetBit(0); id >= 0; id = projectIds.nextSetBit(id + 1)) {
+                ids.add((long) id);
+                if (ids.size() == MAX_IDS_PER_QUERY || projectIds.nextSetBit(id + 1) < 0) {
+                    Query query = entityManager.createQuery(QUERY_PROJECTS_BY_IDS);
+                    query.setParameter("projectIds", ids);
+                    for (TcDirectProject project : (List<TcDirectProject>) query.getResultList()) {
+                        projects.put(project.getProjectId(), project);
+                    }
+                    ids = new ArrayList<Long>();
+                }
+            }
             List<TcDirectProject> result = new ArrayList<TcDirectProject>();
-            for (BigDecimal tcDirectProjectId : projectIds) {
-                result.add(entityManager.find(TcDirectProject.class, tcDirectProjectId.longValue()));
+            for (int id = projectIds.nextSetBit(0); id >= 0; id = projectIds.nextSetBit(id + 1)) {
+                TcDirectProject project = projects.get((long) id);
+                if (project != null) {
+                    result.add(project);
+                }
             }
 
             LoggingWrapperUtility.logExit(logger, signature, new Object[] {Helper.toString(result)});
@@ -1022,33 +1134,17 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
                 if(projectMetadataValues == null || projectMetadataValues.size() == 0) {
                     return new HashSet<Long>();
                 }
-                
-                EntityManager entityManager = getEntityManager();
 
-                StringBuilder whereClause = new StringBuilder();
-                
-                whereClause.append(" direct_project_metadata.project_metadata_key_id=").append(projectMetadataKeyId)
-                        .append(" AND LOWER(direct_project_metadata.metadata_value) IN (");
-                
-                for(int i = 0, n = projectMetadataValues.size(); i < n; ++i) {
-                    whereClause.append('\'' + projectMetadataValues.get(i).toLowerCase() + '\'');
-                    if (i != (n - 1)) {
-                        whereClause.append(',');
-                    }
+                ProjectMetadataIndex index = getMetadataIndex();
+                BitSet projectIds = new BitSet();
+                for (String value : projectMetadataValues) {
+                    projectIds.or(index.getProjects(projectMetadataKeyId, value));
                 }
 
-                whereClause.append(')');
-
-                logger.log(Level.DEBUG, QUERY_PROJECT_ID + whereClause.toString());
-
-                Query query = entityManager.createNativeQuery(QUERY_PROJECT_ID + whereClause.toString());
-
-                List<BigDecimal> projectIds = query.getResultList();
-
                 Set<Long> result = new HashSet<Long>();
                 
-                for(BigDecimal id : projectIds) {
-                    result.add(id.longValue());
+                for (int id = projectIds.nextSetBit(0); id >= 0; id = projectIds.nextSetBit(id + 1)) {
+                    result.add((long) id);
                 }
 
                 LoggingWrapperUtility.logExit(logger, signature, new Object[] {Helper.toString(result)});
@@ -1122,11 +1218,24 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
         this.directProjectMetadataValidator = directProjectMetadataValidator;
     }
 
+    /**
+     * Sets the time after which the metadata index is reloaded from the persistence.
+     *
+     * @param indexRefreshInterval
+     *            the time in milliseconds.
+     *
+     * @since 1.5
+     */
+    public void setIndexRefreshInterval(long indexRefreshInterval) {
+        this.indexRefreshInterval = indexRefreshInterval;
+    }
+
     /**
      * This method is used to check, whether the dependencies were properly initialized for the class.
      *
      * @throws ConfigurationException
      *             if entityManager or directProjectMetadataValidator is <code>null</code>;
+     *             indexRefreshInterval is not positive;
      *             auditActionTypeIdMap is <code>null</code>, contains <code>null</code>/empty keys,
      *             <code>null</code> values or does not contain values for keys "create", "update", "delete".
      */
@@ -1137,6 +1246,7 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
 
         ValidationUtility.checkNotNull(directProjectMetadataValidator, "directProjectMetadataValidator",
             ConfigurationException.class);
+        ValidationUtility.checkPositive(indexRefreshInterval, "indexRefreshInterval", ConfigurationException.class);
     }
 
     /**
@@ -1184,17 +1294,22 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
     }
 
     /**
-     * This is a helper method, which is used to create where clause for search projects query.
+     * This is a helper method, which is used to evaluate the search filter against the metadata index.
      *
      * @param filter
      *            the direct project filter.
      *
-     * @return the where clause for search projects query.
+     * @return the bitmap of the ids of the projects matching the filter.
      *
      * @throws IllegalArgumentException
-     *             if the query can not be created(the filter parameter is invalid).
+     *             if the filter parameter is invalid.
+     * @throws javax.persistence.PersistenceException
+     *             if any problem with persistence occurs.
+     *
+     * @since 1.5
      */
-    private static String createSearchWhereClause(DirectProjectFilter filter) {
+    @SuppressWarnings("unchecked")
+    private BitSet searchIndex(DirectProjectFilter filter) {
         if (filter instanceof CompositeFilter) {
             CompositeFilter compositeFilter = (CompositeFilter) filter;
             List<DirectProjectFilter> projectFilters = compositeFilter.getProjectFilters();
@@ -1202,51 +1317,202 @@ public class DirectProjectMetadataServiceImpl extends AbstractDirectProjectMetad
             if (projectFilters.size() != 2) {
                 throw new IllegalArgumentException("Size of 'compositeFilter.getProjectFilters()' should be 2.");
             }
+            ParameterCheckUtility.checkNotNull(compositeFilter.getCompositeOperator(),
+                "compositeFilter.getCompositeOperator()");
 
-            DirectProjectFilter left = projectFilters.get(0);
-            DirectProjectFilter right = projectFilters.get(1);
-            return new StringBuilder().append("(" + createSearchWhereClause(left)).append(") ").append(
-                compositeFilter.getCompositeOperator().name()).append(" (").append(createSearchWhereClause(right))
-                .append(")").toString();
+            BitSet result = searchIndex(projectFilters.get(0));
+            BitSet right = searchIndex(projectFilters.get(1));
+            if (compositeFilter.getCompositeOperator() == CompositeOperator.AND) {
+                result.and(right);
+            } else {
+                result.or(right);
+            }
+            return result;
         }
 
         if (filter instanceof MetadataKeyIdValueFilter) {
             MetadataKeyIdValueFilter metadataKeyIdValueFilter = (MetadataKeyIdValueFilter) filter;
 
-            if (metadataKeyIdValueFilter.getMetadataValueOperator() == MetadataValueOperator.EQUALS) {
-                return new StringBuilder().append("direct_project_metadata.project_metadata_key_id=").append(
-                    metadataKeyIdValueFilter.getProjectMetadataKeyId()).append(
-                    " AND LOWER(direct_project_metadata.metadata_value)='").append(
-                    checkMetadataValue(metadataKeyIdValueFilter.getMetadataValue().toLowerCase())).append("'").toString();
-            }
-            if (metadataKeyIdValueFilter.getMetadataValueOperator() == MetadataValueOperator.LIKE) {
-                return new StringBuilder().append("direct_project_metadata.project_metadata_key_id=").append(
-                    metadataKeyIdValueFilter.getProjectMetadataKeyId()).append(
-                    " AND LOWER(direct_project_metadata.metadata_value) LIKE '%").append(
-                    checkMetadataValue(metadataKeyIdValueFilter.getMetadataValue().toLowerCase())).append("%'").toString();
-            }
+            return searchIndex(metadataKeyIdValueFilter.getProjectMetadataKeyId(),
+                metadataKeyIdValueFilter.getMetadataValue(), metadataKeyIdValueFilter.getMetadataValueOperator());
         }
 
         if (filter instanceof MetadataKeyNameValueFilter) {
             MetadataKeyNameValueFilter metadataKeyNameValueFilter = (MetadataKeyNameValueFilter) filter;
+            String value = metadataKeyNameValueFilter.getMetadataValue();
+            MetadataValueOperator operator = metadataKeyNameValueFilter.getMetadataValueOperator();
+            checkMetadataValue(value);
 
-            if (metadataKeyNameValueFilter.getMetadataValueOperator() == MetadataValueOperator.EQUALS) {
-                return new StringBuilder().append("direct_project_metadata_key.name='").append(
-                    metadataKeyNameValueFilter.getProjectMetadataKeyName()).append(
-                    "' AND LOWER(direct_project_metadata.metadata_value)='").append(
-                    checkMetadataValue(metadataKeyNameValueFilter.getMetadataValue().toLowerCase())).append("'").toString();
-            }
-            if (metadataKeyNameValueFilter.getMetadataValueOperator() == MetadataValueOperator.LIKE) {
-                return new StringBuilder().append("direct_project_metadata_key.name='").append(
-                    metadataKeyNameValueFilter.getProjectMetadataKeyName()).append(
-                    "' AND LOWER(direct_project_metadata.metadata_value) LIKE '%").append(
-                    checkMetadataValue(metadataKeyNameValueFilter.getMetadataValue().toLowerCase())).append("%'").toString();
+            Query query = getEntityManager().createQuery(QUERY_KEY_IDS_BY_NAME);
+            query.setParameter("name", metadataKeyNameValueFilter.getProjectMetadataKeyName());
+
+            BitSet result = new BitSet();
+            for (Number keyId : (List<Number>) query.getResultList()) {
+                result.or(searchIndex(keyId.longValue(), value, operator));
             }
+            return result;
         }
 
         throw new IllegalArgumentException("'filter' is not of the expected type.");
     }
 
+    /**
+     * This is a helper method, which is used to search the metadata index by a key id and a value.
+     *
+     * @param keyId
+     *            the metadata key id.
+     * @param value
+     *            the metadata value.
+     * @param operator
+     *            the metadata value operator.
+     *
+     * @return the bitmap of the ids of the projects matching the key id and the value.
+     *
+     * @throws IllegalArgumentException
+     *             if value contains '%' or the operator is not supported.
+     * @throws javax.persistence.PersistenceException
+     *             if any problem with persistence occurs.
+     *
+     * @since 1.5
+     */
+    private BitSet searchIndex(long keyId, String value, MetadataValueOperator operator) {
+        checkMetadataValue(value);
+
+        if (operator == MetadataValueOperator.EQUALS) {
+            return getMetadataIndex().getProjects(keyId, value);
+        }
+        if (operator == MetadataValueOperator.LIKE) {
+            return getMetadataIndex().getProjectsLike(keyId, value);
+        }
+
+        throw new IllegalArgumentException("'filter' is not of the expected type.");
+    }
+
+    /**
+     * This is a helper method, which is used to get the metadata index, it's (re)loaded if it's not loaded or
+     * expired. Only the first load is waited for: once the index is loaded, an expired index is reloaded by one
+     * caller while the others keep searching the current index.
+     *
+     * @return the metadata index.
+     *
+     * @throws javax.persistence.PersistenceException
+     *             if any problem with persistence occurs.
+     *
+     * @since 1.5
+     */
+    @SuppressWarnings("unchecked")
+    private ProjectMetadataIndex getMetadataIndex() {
+        if (!metadataIndex.isExpired(indexRefreshInterval)) {
+            return metadataIndex;
+        }
+        if (metadataIndex.isLoaded()) {
+            if (!indexLoadLock.tryLock()) {
+                // another thread is reloading it
+                return metadataIndex;
+            }
+        } else {
+            indexLoadLock.lock();
+        }
+        try {
+            if (metadataIndex.isExpired(indexRefreshInterval)) {
+                metadataIndex.beginLoad();
+                boolean loaded = false;
+                try {
+                    Query query = getEntityManager().createQuery(QUERY_METADATA_INDEX_ROWS);
+                    metadataIndex.endLoad((List<Object[]>) query.getResultList());
+                    loaded = true;
+                } finally {
+                    if (!loaded) {
+                        metadataIndex.abortLoad();
+                    }
+                }
+            }
+        } finally {
+            indexLoadLock.unlock();
+        }
+        return metadataIndex;
+    }
+
+    /**
+     * This is a helper method, which is used to update the metadata in the metadata index once the current
+     * transaction commits.
+     *
+     * @param projectMetadata
+     *            the direct project metadata.
+     *
+     * @since 1.5
+     */
+    private void updateIndex(DirectProjectMetadata projectMetadata) {
+        final long metadataId = projectMetadata.getId();
+        final long tcDirectProjectId = projectMetadata.getTcDirectProjectId();
+        final long projectMetadataKeyId = projectMetadata.getProjectMetadataKey().getId();
+        final String metadataValue = projectMetadata.getMetadataValue();
+        afterCommit(new Runnable() {
+            public void run() {
+                metadataIndex.put(metadataId, tcDirectProjectId, projectMetadataKeyId, metadataValue);
+            }
+        });
+    }
+
+    /**
+     * This is a helper method, which is used to remove the metadata from the metadata index once the current
+     * transaction commits.
+     *
+     * @param projectMetadataId
+     *            the direct project metadata id.
+     *
+     * @since 1.5
+     */
+    private void removeFromIndex(final long projectMetadataId) {
+        afterCommit(new Runnable() {
+            public void run() {
+                metadataIndex.remove(projectMetadataId);
+            }
+        });
+    }
+
+    /**
+     * This is a helper method, which is used to run the metadata index change once the current transaction commits,
+     * so the rolled back changes are never indexed. The change is run at once if there is no transaction.
+     *
+     * @param change
+     *            the metadata index change.
+     *
+     * @since 1.5
+     */
+    private void afterCommit(final Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runIndexChange(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                runIndexChange(change);
+            }
+        });
+    }
+
+    /**
+     * This is a helper method, which is used to run the metadata index change. The errors are only logged since the
+     * metadata is already persisted, the index is corrected on its next reload.
+     *
+     * @param change
+     *            the metadata index change.
+     *
+     * @since 1.5
+     */
+    private void runIndexChange(Runnable change) {
+        try {
+            change.run();
+        } catch (IllegalArgumentException e) {
+            Log logger = getLogger();
+            if (logger != null) {
+                logger.log(Level.ERROR, e, "Failed to update the project metadata index.");
+            }
+        }
+    }
+
     /**
      * Checks if the value contains '%'.
      *
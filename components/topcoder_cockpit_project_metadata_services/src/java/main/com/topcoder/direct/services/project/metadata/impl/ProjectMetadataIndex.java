@@ -0,0 +1,471 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.project.metadata.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * An in-memory inverted index of the direct project metadata: metadata key id -&gt; normalized (lower case) metadata
+ * value -&gt; bitmap of the direct project ids having that value. It's used to evaluate the project search filters
+ * without scanning the metadata table.
+ * </p>
+ *
+ * <p>
+ * The index is loaded from the metadata rows and then kept up to date with {@link #put(long, long, long, String)}
+ * and {@link #remove(long)}. A reload builds the new index without holding the lock, the current index is searched
+ * meanwhile and the new one is swapped in at the end. The changes made while a reload is in progress are recorded
+ * and replayed on the reloaded index, so they are not lost.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety: </strong> This class is thread safe, the index is guarded by a read-write lock.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+final class ProjectMetadataIndex {
+    /**
+     * Represents a metadata row of the index.
+     */
+    private static class Row {
+        /**
+         * The direct project id.
+         */
+        private final int projectId;
+
+        /**
+         * The metadata key id.
+         */
+        private final long keyId;
+
+        /**
+         * The normalized metadata value, null if the metadata has no value (it matches no filter).
+         */
+        private final String value;
+
+        /**
+         * Creates the row.
+         *
+         * @param projectId
+         *            the direct project id.
+         * @param keyId
+         *            the metadata key id.
+         * @param value
+         *            the normalized metadata value.
+         */
+        Row(int projectId, long keyId, String value) {
+            this.projectId = projectId;
+            this.keyId = keyId;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Represents the projects having a metadata value of a key.
+     */
+    private static class Posting {
+        /**
+         * The bitmap of the direct project ids.
+         */
+        private final BitSet projects = new BitSet();
+
+        /**
+         * The number of the extra rows of the projects having the value more than once, created when needed.
+         */
+        private Map<Integer, Integer> duplicates;
+
+        /**
+         * Adds a row of the project.
+         *
+         * @param projectId
+         *            the direct project id.
+         */
+        void add(int projectId) {
+            if (!projects.get(projectId)) {
+                projects.set(projectId);
+                return;
+            }
+            if (duplicates == null) {
+                duplicates = new HashMap<Integer, Integer>();
+            }
+            Integer count = duplicates.get(projectId);
+            duplicates.put(projectId, count == null ? 1 : count + 1);
+        }
+
+        /**
+         * Removes a row of the project.
+         *
+         * @param projectId
+         *            the direct project id.
+         *
+         * @return true if no project has the value anymore, false otherwise.
+         */
+        boolean remove(int projectId) {
+            Integer count = duplicates == null ? null : duplicates.get(projectId);
+            if (count == null) {
+                projects.clear(projectId);
+            } else if (count == 1) {
+                duplicates.remove(projectId);
+            } else {
+                duplicates.put(projectId, count - 1);
+            }
+            return projects.isEmpty();
+        }
+    }
+
+    /**
+     * Represents a change of the index recorded while it's reloaded.
+     */
+    private static class Change {
+        /**
+         * The metadata id.
+         */
+        private final long metadataId;
+
+        /**
+         * The new row, null if the metadata is removed.
+         */
+        private final Row row;
+
+        /**
+         * Creates the change.
+         *
+         * @param metadataId
+         *            the metadata id.
+         * @param row
+         *            the new row, null if the metadata is removed.
+         */
+        Change(long metadataId, Row row) {
+            this.metadataId = metadataId;
+            this.row = row;
+        }
+    }
+
+    /**
+     * The lock guarding the index.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The indexed rows keyed by metadata id.
+     */
+    private Map<Long, Row> rows = new HashMap<Long, Row>();
+
+    /**
+     * The postings keyed by metadata key id and normalized value.
+     */
+    private Map<Long, Map<String, Posting>> postings = new HashMap<Long, Map<String, Posting>>();
+
+    /**
+     * The changes made while the index is reloaded, null if it's not reloaded.
+     */
+    private List<Change> pendingChanges;
+
+    /**
+     * The time the index was loaded, -1 if it's not loaded yet.
+     */
+    private volatile long loadTime = -1;
+
+    /**
+     * Creates an empty index, it must be loaded before searching.
+     */
+    ProjectMetadataIndex() {
+        // Empty
+    }
+
+    /**
+     * Checks whether the index must be (re)loaded.
+     *
+     * @param refreshInterval
+     *            the time after which the index is reloaded, in milliseconds.
+     *
+     * @return true if the index is not loaded or expired, false otherwise.
+     */
+    boolean isExpired(long refreshInterval) {
+        return loadTime < 0 || System.currentTimeMillis() - loadTime >= refreshInterval;
+    }
+
+    /**
+     * Checks whether the index was loaded at least once.
+     *
+     * @return true if the index was loaded, false otherwise.
+     */
+    boolean isLoaded() {
+        return loadTime >= 0;
+    }
+
+    /**
+     * Starts the reload of the index, the changes made after this call are replayed on the reloaded index.
+     */
+    void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<Change>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finishes the reload of the index.
+     *
+     * @param metadataRows
+     *            the metadata rows, each row is {metadata id, direct project id, metadata key id, metadata value}.
+     *
+     * @throws IllegalArgumentException
+     *             if any direct project id is negative or too large.
+     */
+    void endLoad(List<Object[]> metadataRows) {
+        Map<Long, Row> newRows = new HashMap<Long, Row>();
+        Map<Long, Map<String, Posting>> newPostings = new HashMap<Long, Map<String, Posting>>();
+        for (Object[] metadataRow : metadataRows) {
+            put(newRows, newPostings, ((Number) metadataRow[0]).longValue(), createRow(
+                ((Number) metadataRow[1]).longValue(), ((Number) metadataRow[2]).longValue(),
+                (String) metadataRow[3]));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Change change : pendingChanges) {
+                apply(newRows, newPostings, change);
+            }
+            rows = newRows;
+            postings = newPostings;
+            pendingChanges = null;
+            loadTime = System.currentTimeMillis();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aborts the reload of the index, the current index is kept.
+     */
+    void abortLoad() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the metadata to the index, or updates it if it's already indexed.
+     *
+     * @param metadataId
+     *            the metadata id.
+     * @param projectId
+     *            the direct project id.
+     * @param keyId
+     *            the metadata key id.
+     * @param value
+     *            the metadata value.
+     *
+     * @throws IllegalArgumentException
+     *             if the direct project id is negative or too large.
+     */
+    void put(long metadataId, long projectId, long keyId, String value) {
+        record(new Change(metadataId, createRow(projectId, keyId, value)));
+    }
+
+    /**
+     * Removes the metadata from the index.
+     *
+     * @param metadataId
+     *            the metadata id.
+     */
+    void remove(long metadataId) {
+        record(new Change(metadataId, null));
+    }
+
+    /**
+     * Gets the projects having a value of the given key equal to the given value, ignoring case.
+     *
+     * @param keyId
+     *            the metadata key id.
+     * @param value
+     *            the metadata value.
+     *
+     * @return the new bitmap of the direct project ids.
+     */
+    BitSet getProjects(long keyId, String value) {
+        BitSet result = new BitSet();
+        if (value == null) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            Map<String, Posting> values = postings.get(keyId);
+            Posting posting = values == null ? null : values.get(normalize(value));
+            if (posting != null) {
+                result.or(posting.projects);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the projects having a value of the given key containing the given value, ignoring case. The '_'
+     * character matches any character, as in SQL LIKE.
+     *
+     * @param keyId
+     *            the metadata key id.
+     * @param value
+     *            the value to search, null matches every value.
+     *
+     * @return the new bitmap of the direct project ids.
+     */
+    BitSet getProjectsLike(long keyId, String value) {
+        String search = value == null ? "" : normalize(value);
+        Pattern pattern = null;
+        if (search.indexOf('_') >= 0) {
+            StringBuilder regex = new StringBuilder();
+            for (String part : search.split("_", -1)) {
+                regex.append(regex.length() == 0 ? "" : ".").append(Pattern.quote(part));
+            }
+            pattern = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+
+        BitSet result = new BitSet();
+        lock.readLock().lock();
+        try {
+            Map<String, Posting> values = postings.get(keyId);
+            if (values != null) {
+                // only the distinct values of the key are scanned
+                for (Map.Entry<String, Posting> entry : values.entrySet()) {
+                    if (pattern == null ? entry.getKey().contains(search)
+                        : pattern.matcher(entry.getKey()).find()) {
+                        result.or(entry.getValue().projects);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Applies the change to the index, and records it if the index is reloaded.
+     *
+     * @param change
+     *            the change.
+     */
+    private void record(Change change) {
+        lock.writeLock().lock();
+        try {
+            apply(rows, postings, change);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the change to the given index.
+     *
+     * @param indexRows
+     *            the indexed rows.
+     * @param indexPostings
+     *            the postings.
+     * @param change
+     *            the change.
+     */
+    private static void apply(Map<Long, Row> indexRows, Map<Long, Map<String, Posting>> indexPostings,
+        Change change) {
+        Row old = indexRows.remove(change.metadataId);
+        if (old != null && old.value != null) {
+            Map<String, Posting> values = indexPostings.get(old.keyId);
+            Posting posting = values == null ? null : values.get(old.value);
+            if (posting != null && posting.remove(old.projectId)) {
+                values.remove(old.value);
+                if (values.isEmpty()) {
+                    indexPostings.remove(old.keyId);
+                }
+            }
+        }
+        if (change.row != null) {
+            put(indexRows, indexPostings, change.metadataId, change.row);
+        }
+    }
+
+    /**
+     * Adds the row to the given index.
+     *
+     * @param indexRows
+     *            the indexed rows.
+     * @param indexPostings
+     *            the postings.
+     * @param metadataId
+     *            the metadata id.
+     * @param row
+     *            the row.
+     */
+    private static void put(Map<Long, Row> indexRows, Map<Long, Map<String, Posting>> indexPostings,
+        long metadataId, Row row) {
+        indexRows.put(metadataId, row);
+        if (row.value == null) {
+            return;
+        }
+        Map<String, Posting> values = indexPostings.get(row.keyId);
+        if (values == null) {
+            values = new HashMap<String, Posting>();
+            indexPostings.put(row.keyId, values);
+        }
+        Posting posting = values.get(row.value);
+        if (posting == null) {
+            posting = new Posting();
+            values.put(row.value, posting);
+        }
+        posting.add(row.projectId);
+    }
+
+    /**
+     * Creates the row.
+     *
+     * @param projectId
+     *            the direct project id.
+     * @param keyId
+     *            the metadata key id.
+     * @param value
+     *            the metadata value.
+     *
+     * @return the row.
+     *
+     * @throws IllegalArgumentException
+     *             if the direct project id is negative or too large.
+     */
+    private static Row createRow(long projectId, long keyId, String value) {
+        if (projectId < 0 || projectId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The direct project id [" + projectId + "] can't be indexed.");
+        }
+        return new Row((int) projectId, keyId, value == null ? null : normalize(value));
+    }
+
+    /**
+     * Normalizes the metadata value.
+     *
+     * @param value
+     *            the metadata value.
+     *
+     * @return the normalized value.
+     */
+    private static String normalize(String value) {
+        return value.toLowerCase();
+    }
+}
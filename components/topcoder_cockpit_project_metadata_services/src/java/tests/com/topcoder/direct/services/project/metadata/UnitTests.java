@@ -14,6 +14,7 @@ import com.topcoder.direct.services.project.metadata.impl.DirectProjectMetadataK
 import com.topcoder.direct.services.project.metadata.impl.DirectProjectMetadataServiceImplUnitTests;
 import com.topcoder.direct.services.project.metadata.impl.DirectProjectMetadataValidatorImplUnitTests;
 import com.topcoder.direct.services.project.metadata.impl.HelperUnitTests;
+import com.topcoder.direct.services.project.metadata.impl.ProjectMetadataIndexUnitTests;
 
 /**
  * <p>
@@ -46,6 +47,7 @@ public class UnitTests extends TestCase {
         suite.addTest(DirectProjectMetadataValidatorImplUnitTests.suite());
         suite.addTest(AbstractDirectProjectMetadataServiceUnitTests.suite());
         suite.addTest(AbstractDirectProjectMetadataValidatorUnitTests.suite());
+        suite.addTest(ProjectMetadataIndexUnitTests.suite());
 
         // Exceptions
         suite.addTest(ConfigurationExceptionUnitTests.suite());
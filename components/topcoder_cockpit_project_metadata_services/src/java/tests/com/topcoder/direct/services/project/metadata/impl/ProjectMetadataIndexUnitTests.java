@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.project.metadata.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ * Unit tests for {@link ProjectMetadataIndex} class.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class ProjectMetadataIndexUnitTests {
+    /**
+     * <p>
+     * Represents the <code>ProjectMetadataIndex</code> instance used in tests.
+     * </p>
+     */
+    private ProjectMetadataIndex instance;
+
+    /**
+     * <p>
+     * Adapter for earlier versions of JUnit.
+     * </p>
+     *
+     * @return a test suite.
+     */
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ProjectMetadataIndexUnitTests.class);
+    }
+
+    /**
+     * <p>
+     * Sets up the unit tests.
+     * </p>
+     */
+    @Before
+    public void setUp() {
+        instance = new ProjectMetadataIndex();
+
+        List<Object[]> rows = new ArrayList<Object[]>();
+        rows.add(new Object[] {1L, 10L, 1L, "First Value"});
+        rows.add(new Object[] {2L, 11L, 1L, "first value"});
+        rows.add(new Object[] {3L, 12L, 1L, "Second value"});
+        rows.add(new Object[] {4L, 10L, 2L, "other"});
+        rows.add(new Object[] {5L, 13L, 2L, null});
+        instance.beginLoad();
+        instance.endLoad(rows);
+    }
+
+    /**
+     * <p>
+     * Tests accuracy of <code>isExpired(long refreshInterval)</code> method.<br>
+     * Result should be correct.
+     * </p>
+     */
+    @Test
+    public void test_isExpired() {
+        assertTrue("'isExpired' should be correct.", new ProjectMetadataIndex().isExpired(60000));
+        assertFalse("'isExpired' should be correct.", instance.isExpired(60000));
+    }
+
+    /**
+     * <p>
+     * Tests accuracy of <code>getProjects(long keyId, String value)</code> method.<br>
+     * The value should be matched ignoring case.
+     * </p>
+     */
+    @Test
+    public void test_getProjects() {
+        assertEquals("'getProjects' should be correct.", bits(10, 11), instance.getProjects(1, "FIRST value"));
+        assertEquals("'getProjects' should be correct.", bits(), instance.getProjects(1, "first"));
+        assertEquals("'getProjects' should be correct.", bits(), instance.getProjects(3, "first value"));
+        assertEquals("'getProjects' should be correct.", bits(), instance.getProjects(2, null));
+    }
+
+    /**
+     * <p>
+     * Tests accuracy of <code>getProjectsLike(long keyId, String value)</code> method.<br>
+     * The values containing the search value should be matched, '_' should match any character.
+     * </p>
+     */
+    @Test
+    public void test_getProjectsLike() {
+        assertEquals("'getProjectsLike' should be correct.", bits(10, 11, 12), instance.getProjectsLike(1, "VALUE"));
+        assertEquals("'getProjectsLike' should be correct.", bits(12), instance.getProjectsLike(1, "c_nd"));
+        assertEquals("'getProjectsLike' should be correct.", bits(10), instance.getProjectsLike(2, ""));
+        assertEquals("'getProjectsLike' should be correct.", bits(), instance.getProjectsLike(1, "third"));
+    }
+
+    /**
+     * <p>
+     * Tests accuracy of <code>put</code> and <code>remove</code> methods.<br>
+     * The index should be updated.
+     * </p>
+     */
+    @Test
+    public void test_put_remove() {
+        // update the value of a metadata
+        instance.put(3, 12, 1, "First Value");
+        assertEquals("'put' should be correct.", bits(10, 11, 12), instance.getProjects(1, "first value"));
+        assertEquals("'put' should be correct.", bits(), instance.getProjects(1, "second value"));
+
+        // a second metadata with the same value for the same project
+        instance.put(6, 12, 1, "first value");
+        instance.remove(3);
+        assertEquals("'remove' should be correct.", bits(10, 11, 12), instance.getProjects(1, "first value"));
+        instance.remove(6);
+        assertEquals("'remove' should be correct.", bits(10, 11), instance.getProjects(1, "first value"));
+
+        // remove a metadata not indexed
+        instance.remove(100);
+        assertEquals("'remove' should be correct.", bits(10), instance.getProjects(2, "other"));
+    }
+
+    /**
+     * <p>
+     * Tests accuracy of <code>endLoad(List&lt;Object[]&gt; metadataRows)</code> method.<br>
+     * The changes made during the reload should be kept.
+     * </p>
+     */
+    @Test
+    public void test_endLoad_pendingChanges() {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        rows.add(new Object[] {1L, 10L, 1L, "First Value"});
+        rows.add(new Object[] {2L, 11L, 1L, "first value"});
+
+        instance.beginLoad();
+        instance.put(7, 14, 1, "first value");
+        instance.remove(2);
+        instance.endLoad(rows);
+
+        assertEquals("'endLoad' should be correct.", bits(10, 14), instance.getProjects(1, "first value"));
+        assertEquals("'endLoad' should be correct.", bits(), instance.getProjects(2, "other"));
+    }
+
+    /**
+     * <p>
+     * Tests accuracy of <code>isLoaded()</code> method.<br>
+     * Result should be correct.
+     * </p>
+     */
+    @Test
+    public void test_isLoaded() {
+        assertFalse("'isLoaded' should be correct.", new ProjectMetadataIndex().isLoaded());
+        assertTrue("'isLoaded' should be correct.", instance.isLoaded());
+    }
+
+    /**
+     * <p>
+     * Tests accuracy of <code>getProjects(long keyId, String value)</code> method during a reload.<br>
+     * The current index should be searched until the reloaded one is swapped in.
+     * </p>
+     */
+    @Test
+    public void test_getProjects_duringReload() {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        rows.add(new Object[] {1L, 10L, 1L, "First Value"});
+
+        instance.beginLoad();
+        assertEquals("'getProjects' should be correct.", bits(10, 11), instance.getProjects(1, "first value"));
+        instance.endLoad(rows);
+        assertEquals("'getProjects' should be correct.", bits(10), instance.getProjects(1, "first value"));
+    }
+
+    /**
+     * <p>
+     * Failure test for the method <code>put</code> with a project id out of range.<br>
+     * <code>IllegalArgumentException</code> is expected.
+     * </p>
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void test_put_projectIdInvalid() {
+        instance.put(8, Integer.MAX_VALUE + 1L, 1, "value");
+    }
+
+    /**
+     * <p>
+     * Creates a bitmap with the given bits.
+     * </p>
+     *
+     * @param bits
+     *            the bits.
+     *
+     * @return the bitmap.
+     */
+    private static BitSet bits(int... bits) {
+        BitSet result = new BitSet();
+        for (int bit : bits) {
+            result.set(bit);
+        }
+        return result;
+    }
+}
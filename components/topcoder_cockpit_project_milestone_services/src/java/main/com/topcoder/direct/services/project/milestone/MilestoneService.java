@@ -39,11 +39,18 @@ import com.topcoder.direct.services.project.milestone.model.SortOrder;
  * </p>
  *
  * <p>
+ * Version 1.4 change notes:
+ * <ul>
+ *     <li>Add method {@link #getAllForProjectsInRange(java.util.List, java.util.Date, java.util.Date)}</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
  * <b>Thread Safety:</b> Implementations are expected to be effectively thread-safe.
  * </p>
  *
- * @author argolite, GreatKevin
- * @version 1.3
+ * @author argolite, GreatKevin, TCSASSEMBLER
+ * @version 1.4
  */
 public interface MilestoneService {
     /**
@@ -236,4 +243,23 @@ public interface MilestoneService {
     public Map<MilestoneStatus, List<Milestone>> getAllForProjectsGroupedByStatus(List<Long> projectIds,
                                 Map<MilestoneStatus, SortOrder> filters, Date startDate, Date endDate)
             throws ProjectMilestoneManagementException;
+
+    /**
+     * Gets the milestones of a list of projects shown in the specified date range: the completed milestones whose
+     * completion date is in the range and the other milestones whose due date is in the range. Only the displayed
+     * columns of the milestones are loaded and their owners are loaded in batch, the returned milestones are not
+     * attached to the persistence and their <code>sendNotifications</code> flag is not loaded. They are grouped by
+     * status (overdue, upcoming and completed) and sorted in ascending order like
+     * {@link #getAllForProjects(List, List, SortOrder)}. If none found, returns an empty list.
+     *
+     * @param projectIds the list of project ids to get milestones for
+     * @param startDate the start date of the range, inclusive
+     * @param endDate the end date of the range, exclusive
+     * @return the milestones in the range.
+     * @throws IllegalArgumentException if any argument is null, or endDate is before startDate
+     * @throws ProjectMilestoneManagementException if there is any error when retrieving the milestones.
+     * @since 1.4
+     */
+    public List<Milestone> getAllForProjectsInRange(List<Long> projectIds, Date startDate, Date endDate)
+            throws ProjectMilestoneManagementException;
 }
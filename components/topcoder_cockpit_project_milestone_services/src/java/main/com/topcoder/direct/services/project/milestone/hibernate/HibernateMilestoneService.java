@@ -5,6 +5,7 @@ package com.topcoder.direct.services.project.milestone.hibernate;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -26,7 +27,10 @@ import com.topcoder.commons.utils.ParameterCheckUtility;
 import com.topcoder.commons.utils.ValidationUtility;
 import com.topcoder.direct.services.project.milestone.model.Milestone;
 import com.topcoder.direct.services.project.milestone.model.MilestoneStatus;
+import com.topcoder.direct.services.project.milestone.model.ResponsiblePerson;
 import com.topcoder.direct.services.project.milestone.model.SortOrder;
+import com.topcoder.service.util.log.LazyLoggingUtility;
+import com.topcoder.service.util.log.MethodSignature;
 import com.topcoder.util.log.Level;
 import com.topcoder.util.log.Log;
 import org.springframework.transaction.annotation.Transactional;
@@ -212,8 +216,26 @@ import org.springframework.transaction.annotation.Transactional;
  * </ul>
  * </p>
  *
- * @author argolite, GreatKevin
- * @version 1.5
+ * <p>
+ * Version 1.6 change notes:
+ * <ul>
+ *     <li>The read methods log their entrance and exit through {@link LazyLoggingUtility}, so the parameter and
+ *     result arrays and messages are not built when DEBUG is disabled, and the logged milestone lists and maps
+ *     are capped.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Version 1.7 change notes:
+ * <ul>
+ *     <li>Add method {@link #getAllForProjectsInRange(List, Date, Date)}, which filters the milestones by date in
+ *     the query and loads the owners of all the milestones with one query, instead of loading every milestone of
+ *     the projects with its owners.</li>
+ * </ul>
+ * </p>
+ *
+ * @author argolite, GreatKevin, TCSASSEMBLER
+ * @version 1.7
  */
 public class HibernateMilestoneService implements InitializingBean, MilestoneService {
     /**
@@ -223,6 +245,87 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
      */
     private static final String CLASS_NAME = HibernateMilestoneService.class.getName();
 
+    /**
+     * <p>
+     * Represent the signature of {@link #get(List)}.
+     * </p>
+     *
+     * @since 1.6
+     */
+    private static final MethodSignature GET_LIST_SIGNATURE = new MethodSignature(HibernateMilestoneService.class,
+        "get(List<Long> milestoneIds)", "milestoneIds");
+
+    /**
+     * <p>
+     * Represent the signature of {@link #getAll(long, List, SortOrder)}.
+     * </p>
+     *
+     * @since 1.6
+     */
+    private static final MethodSignature GET_ALL_SIGNATURE = new MethodSignature(HibernateMilestoneService.class,
+        "getAll(long projectId, List<MilestoneStatus> requestedStatuses, SortOrder sortOrder)",
+        "projectId", "requestedStatuses", "sortOrder");
+
+    /**
+     * <p>
+     * Represent the signature of {@link #getAllForProjects(List, List, SortOrder)}.
+     * </p>
+     *
+     * @since 1.6
+     */
+    private static final MethodSignature GET_ALL_FOR_PROJECTS_SIGNATURE = new MethodSignature(
+        HibernateMilestoneService.class,
+        "getAllForProjects(List<Long> projectIds, List<MilestoneStatus> requestedStatuses, SortOrder sortOrder)",
+        "projectIds", "requestedStatuses", "sortOrder");
+
+    /**
+     * <p>
+     * Represent the signature of {@link #getAllForProjectsGroupedByStatus(List, Map)}.
+     * </p>
+     *
+     * @since 1.6
+     */
+    private static final MethodSignature GET_ALL_GROUPED_SIGNATURE = new MethodSignature(
+        HibernateMilestoneService.class,
+        "getAllForProjectsGroupedByStatus(List<Long> projectIds, Map<MilestoneStatus, SortOrder> filters)",
+        "projectIds", "filters");
+
+    /**
+     * <p>
+     * Represent the signature of {@link #getAllForProjectsGroupedByStatus(List, Map, Date, Date)}.
+     * </p>
+     *
+     * @since 1.6
+     */
+    private static final MethodSignature GET_ALL_GROUPED_IN_RANGE_SIGNATURE = new MethodSignature(
+        HibernateMilestoneService.class,
+        "getAllForProjectsGroupedByStatus(List<Long> projectIds, Map<MilestoneStatus, SortOrder> filters,"
+            + " Date startDate, Date endDate)", "projectIds", "filters", "startDate", "endDate");
+
+    /**
+     * <p>
+     * Represent the signature of {@link #getAllForProjectsInRange(List, Date, Date)}.
+     * </p>
+     *
+     * @since 1.7
+     */
+    private static final MethodSignature GET_ALL_IN_RANGE_SIGNATURE = new MethodSignature(
+        HibernateMilestoneService.class,
+        "getAllForProjectsInRange(List<Long> projectIds, Date startDate, Date endDate)",
+        "projectIds", "startDate", "endDate");
+
+    /**
+     * <p>
+     * Represent the signature of {@link #getAllInMonth(long, int, int, List)}.
+     * </p>
+     *
+     * @since 1.6
+     */
+    private static final MethodSignature GET_ALL_IN_MONTH_SIGNATURE = new MethodSignature(
+        HibernateMilestoneService.class,
+        "getAllInMonth(long projectId, int month, int year, List<MilestoneStatus> requestedStatuses)",
+        "projectId", "month", "year", "requestedStatuses");
+
     /**
      * <p>
      * Represent the name of query.
@@ -253,6 +356,33 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
 
     private static final String SQL_GET_ALL_FOR_PROJECTS = "getAllForProjects";
 
+    /**
+     * <p>
+     * Represent the name of the query getting the displayed columns of the milestones in a date range.
+     * </p>
+     *
+     * @since 1.7
+     */
+    private static final String SQL_GET_ALL_FOR_PROJECTS_IN_RANGE = "getAllForProjectsInRange";
+
+    /**
+     * <p>
+     * Represent the name of the query getting the owners of a list of milestones.
+     * </p>
+     *
+     * @since 1.7
+     */
+    private static final String SQL_GET_OWNERS_FOR_MILESTONES = "getOwnersForMilestones";
+
+    /**
+     * <p>
+     * Represent the max number of ids bound to a single IN list.
+     * </p>
+     *
+     * @since 1.7
+     */
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
     /**
      * <p>
      * Represent the number: 12.
@@ -720,11 +850,9 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
     @SuppressWarnings("unchecked")
     @Transactional(readOnly = true)
     public List<Milestone> get(List<Long> milestoneIds) throws ProjectMilestoneManagementException {
-        final String signature = CLASS_NAME + ".get(List<Long> milestoneIds)";
-        final Date entranceTimestamp = new Date();
+        final String signature = GET_LIST_SIGNATURE.getSignature();
         // Log entrance
-        LoggingWrapperUtility.logEntrance(logger, signature, new String[] {"milestoneIds"},
-            new Object[] {milestoneIds}, true, Level.DEBUG);
+        final long entranceTimestamp = LazyLoggingUtility.logEntrance(logger, GET_LIST_SIGNATURE, milestoneIds);
 
         try {
             // Check parameter
@@ -752,7 +880,7 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
             }
 
             // Log exit
-            LoggingWrapperUtility.logExit(logger, signature, new Object[] {res}, entranceTimestamp);
+            LazyLoggingUtility.logExit(logger, GET_LIST_SIGNATURE, res, entranceTimestamp);
 
             // Return entity
             return res;
@@ -784,12 +912,10 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
     @Transactional(readOnly = true)
     public List<Milestone> getAll(long projectId, List<MilestoneStatus> requestedStatuses, SortOrder sortOrder)
         throws ProjectMilestoneManagementException {
-        final String signature = CLASS_NAME + ".getAll(long projectId, List<MilestoneStatus> requestedStatuses,"
-            + " SortOrder sortOrder)";
-        final Date entranceTimestamp = new Date();
+        final String signature = GET_ALL_SIGNATURE.getSignature();
         // Log entrance
-        LoggingWrapperUtility.logEntrance(logger, signature, new String[] {"projectId", "requestedStatuses",
-            "sortOrder"}, new Object[] {projectId, requestedStatuses, sortOrder}, true, Level.DEBUG);
+        final long entranceTimestamp = LazyLoggingUtility.logEntrance(logger, GET_ALL_SIGNATURE, projectId,
+            requestedStatuses, sortOrder);
 
         try {
             // Check parameter
@@ -806,7 +932,7 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
             List<Milestone> res = getOrderedMileStone(requestedStatuses, sortOrder, statuses, milestones, -1, -1);
 
             // Log exit
-            LoggingWrapperUtility.logExit(logger, signature, new Object[] {res}, entranceTimestamp);
+            LazyLoggingUtility.logExit(logger, GET_ALL_SIGNATURE, res, entranceTimestamp);
 
             return res;
         } catch (IllegalArgumentException e) {
@@ -833,12 +959,10 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
     @Transactional(readOnly = true)
     public List<Milestone> getAllForProjects(List<Long> projectIds, List<MilestoneStatus> requestedStatuses,
                                              SortOrder sortOrder) throws ProjectMilestoneManagementException {
-        final String signature = CLASS_NAME + ".getAllForProjects(List<Long> projectIds, List<MilestoneStatus> requestedStatuses,"
-                + " SortOrder sortOrder)";
-        final Date entranceTimestamp = new Date();
+        final String signature = GET_ALL_FOR_PROJECTS_SIGNATURE.getSignature();
         // Log entrance
-        LoggingWrapperUtility.logEntrance(logger, signature, new String[]{"projectIds", "requestedStatuses",
-                "sortOrder"}, new Object[]{projectIds, requestedStatuses, sortOrder}, true, Level.DEBUG);
+        final long entranceTimestamp = LazyLoggingUtility.logEntrance(logger, GET_ALL_FOR_PROJECTS_SIGNATURE,
+                projectIds, requestedStatuses, sortOrder);
 
         try {
             // Check parameter
@@ -855,7 +979,7 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
             List<Milestone> res = getOrderedMileStone(requestedStatuses, sortOrder, statuses, milestones, -1, -1);
 
             // Log exit
-            LoggingWrapperUtility.logExit(logger, signature, new Object[]{res}, entranceTimestamp);
+            LazyLoggingUtility.logExit(logger, GET_ALL_FOR_PROJECTS_SIGNATURE, res, entranceTimestamp);
 
             return res;
         } catch (IllegalArgumentException e) {
@@ -879,11 +1003,10 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
     @Transactional(readOnly = true)
     public Map<MilestoneStatus, List<Milestone>> getAllForProjectsGroupedByStatus(List<Long> projectIds,
                                                             Map<MilestoneStatus, SortOrder> filters) throws ProjectMilestoneManagementException {
-        final String signature = CLASS_NAME + ".getAllForProjectsGroupedByStatus(List<Long> projectIds, Map<MilestoneStatus, SortOrder> filters)";
-        final Date entranceTimestamp = new Date();
+        final String signature = GET_ALL_GROUPED_SIGNATURE.getSignature();
         // Log entrance
-        LoggingWrapperUtility.logEntrance(logger, signature, new String[]{"projectIds", "filters"},
-                new Object[]{projectIds, filters}, true, Level.DEBUG);
+        final long entranceTimestamp = LazyLoggingUtility.logEntrance(logger, GET_ALL_GROUPED_SIGNATURE, projectIds,
+                filters);
 
         try {
 
@@ -898,7 +1021,8 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
             final Map<MilestoneStatus, List<Milestone>> orderedMileStoneGroupedByStatus = getOrderedMileStoneGroupedByStatus(filters, milestones, -1, -1);
 
             // Log exit
-            LoggingWrapperUtility.logExit(logger, signature, new Object[]{orderedMileStoneGroupedByStatus}, entranceTimestamp);
+            LazyLoggingUtility.logExit(logger, GET_ALL_GROUPED_SIGNATURE, orderedMileStoneGroupedByStatus,
+                    entranceTimestamp);
 
             return orderedMileStoneGroupedByStatus;
         } catch (IllegalArgumentException e) {
@@ -926,11 +1050,10 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
                                                                                   Map<MilestoneStatus, SortOrder> filters,
                                                                                   Date startDate, Date endDate)
             throws ProjectMilestoneManagementException {
-        final String signature = CLASS_NAME + ".getAllForProjectsGroupedByStatus(List<Long> projectIds, Map<MilestoneStatus, SortOrder> filters, Date startDate, Date endDate)";
-        final Date entranceTimestamp = new Date();
+        final String signature = GET_ALL_GROUPED_IN_RANGE_SIGNATURE.getSignature();
         // Log entrance
-        LoggingWrapperUtility.logEntrance(logger, signature, new String[]{"projectIds", "filters", "startDate", "endDate"},
-                new Object[]{projectIds, filters, startDate, endDate}, true, Level.DEBUG);
+        final long entranceTimestamp = LazyLoggingUtility.logEntrance(logger, GET_ALL_GROUPED_IN_RANGE_SIGNATURE,
+                projectIds, filters, startDate, endDate);
 
         try {
 
@@ -946,7 +1069,8 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
                     getOrderedMileStoneGroupedByStatus(filters, milestones, startDate.getTime(), endDate.getTime());
 
             // Log exit
-            LoggingWrapperUtility.logExit(logger, signature, new Object[]{orderedMileStoneGroupedByStatus}, entranceTimestamp);
+            LazyLoggingUtility.logExit(logger, GET_ALL_GROUPED_IN_RANGE_SIGNATURE, orderedMileStoneGroupedByStatus,
+                    entranceTimestamp);
 
             return orderedMileStoneGroupedByStatus;
         } catch (IllegalArgumentException e) {
@@ -957,6 +1081,108 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
         }
     }
 
+    /**
+     * Gets the milestones of a list of projects shown in the specified date range: the completed milestones whose
+     * completion date is in the range and the other milestones whose due date is in the range. Only the displayed
+     * columns of the milestones are loaded and their owners are loaded in batch.
+     *
+     * @param projectIds the list of project ids to get milestones for
+     * @param startDate the start date of the range, inclusive
+     * @param endDate the end date of the range, exclusive
+     * @return the milestones in the range, grouped by status and sorted in ascending order.
+     * @throws IllegalArgumentException if any argument is null, or endDate is before startDate
+     * @throws ProjectMilestoneManagementException if there is any error when retrieving the milestones.
+     * @since 1.7
+     */
+    @SuppressWarnings("unchecked")
+    @Transactional(readOnly = true)
+    public List<Milestone> getAllForProjectsInRange(List<Long> projectIds, Date startDate, Date endDate)
+        throws ProjectMilestoneManagementException {
+        final String signature = GET_ALL_IN_RANGE_SIGNATURE.getSignature();
+        // Log entrance
+        final long entranceTimestamp = LazyLoggingUtility.logEntrance(logger, GET_ALL_IN_RANGE_SIGNATURE,
+            projectIds, startDate, endDate);
+
+        try {
+            // Check parameter
+            ParameterCheckUtility.checkNotNull(projectIds, "projectIds");
+            ParameterCheckUtility.checkNotNull(startDate, "startDate");
+            ParameterCheckUtility.checkNotNull(endDate, "endDate");
+            if (endDate.before(startDate)) {
+                throw new IllegalArgumentException("endDate should not be before startDate.");
+            }
+
+            // Get the milestones in the range, without their owners
+            Map<Long, Milestone> milestones = new HashMap<Long, Milestone>();
+            for (List<Long> ids : split(projectIds)) {
+                Query query = getSession().getNamedQuery(SQL_GET_ALL_FOR_PROJECTS_IN_RANGE);
+                query.setParameterList("projectIds", ids);
+                query.setBoolean("completed", true);
+                query.setTimestamp("startDate", startDate);
+                query.setTimestamp("endDate", endDate);
+                for (Object[] row : (List<Object[]>) query.list()) {
+                    Milestone milestone = new Milestone();
+                    milestone.setId((Long) row[0]);
+                    milestone.setProjectId((Long) row[1]);
+                    milestone.setName((String) row[2]);
+                    milestone.setDescription((String) row[3]);
+                    milestone.setDueDate((Date) row[4]);
+                    milestone.setCompletionDate((Date) row[5]);
+                    milestone.setCompleted((Boolean) row[6]);
+                    milestone.setOwners(new ArrayList<ResponsiblePerson>());
+                    milestones.put(milestone.getId(), milestone);
+                }
+            }
+
+            // Get the owners of all the milestones
+            for (List<Long> ids : split(milestones.keySet())) {
+                Query query = getSession().getNamedQuery(SQL_GET_OWNERS_FOR_MILESTONES);
+                query.setParameterList("ids", ids);
+                for (Object[] row : (List<Object[]>) query.list()) {
+                    ResponsiblePerson owner = new ResponsiblePerson();
+                    owner.setId((Long) row[1]);
+                    owner.setUserId((Long) row[2]);
+                    owner.setName((String) row[3]);
+                    milestones.get(row[0]).getOwners().add(owner);
+                }
+            }
+
+            // Get ordered milestones
+            List<Milestone> res = getOrderedMileStone(null, SortOrder.ASCENDING, null,
+                new ArrayList<Milestone>(milestones.values()), -1, -1);
+
+            // Log exit
+            LazyLoggingUtility.logExit(logger, GET_ALL_IN_RANGE_SIGNATURE, res, entranceTimestamp);
+
+            return res;
+        } catch (IllegalArgumentException e) {
+            throw LoggingWrapperUtility.logException(logger, signature, e, true, Level.ERROR);
+        } catch (HibernateException e) {
+            throw LoggingWrapperUtility.logException(logger, signature, new ProjectMilestoneManagementException(
+                "HibernateException occurs while accessing to db", e), true, Level.ERROR);
+        }
+    }
+
+    /**
+     * Splits the ids into lists of at most {@link #MAX_IDS_PER_QUERY} ids, each bound to the IN list of a query.
+     *
+     * @param ids the ids to split
+     * @return the lists of ids
+     * @since 1.7
+     */
+    private static List<List<Long>> split(Collection<Long> ids) {
+        List<List<Long>> res = new ArrayList<List<Long>>();
+        List<Long> current = null;
+        for (Long id : ids) {
+            if (current == null || current.size() == MAX_IDS_PER_QUERY) {
+                current = new ArrayList<Long>();
+                res.add(current);
+            }
+            current.add(id);
+        }
+        return res;
+    }
+
     /**
      * Get ordered milestones.
      *
@@ -1130,12 +1356,10 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
     @Transactional(readOnly = true)
     public List<Milestone> getAllInMonth(long projectId, int month, int year,
         List<MilestoneStatus> requestedStatuses) throws ProjectMilestoneManagementException {
-        final String signature = CLASS_NAME + ".getAllInMonth(long projectId, int month, int year,"
-            + " List<MilestoneStatus> requestedStatuses)";
-        final Date entranceTimestamp = new Date();
+        final String signature = GET_ALL_IN_MONTH_SIGNATURE.getSignature();
         // Log entrance
-        LoggingWrapperUtility.logEntrance(logger, signature, new String[] {"projectId", "month", "year",
-            "requestedStatuses"}, new Object[] {projectId, month, year, requestedStatuses}, true, Level.DEBUG);
+        final long entranceTimestamp = LazyLoggingUtility.logEntrance(logger, GET_ALL_IN_MONTH_SIGNATURE, projectId,
+            month, year, requestedStatuses);
 
         try {
             // Check parameter
@@ -1166,7 +1390,7 @@ public class HibernateMilestoneService implements InitializingBean, MilestoneSer
                 endTime);
 
             // Log exit
-            LoggingWrapperUtility.logExit(logger, signature, new Object[] {res}, entranceTimestamp);
+            LazyLoggingUtility.logExit(logger, GET_ALL_IN_MONTH_SIGNATURE, res, entranceTimestamp);
 
             return res;
         } catch (IllegalArgumentException e) {
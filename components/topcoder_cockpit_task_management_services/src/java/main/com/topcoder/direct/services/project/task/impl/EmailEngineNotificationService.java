@@ -2,6 +2,11 @@
  * Copyright (C) 2013 TopCoder Inc., All Rights Reserved.
  */
 package com.topcoder.direct.services.project.task.impl;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -9,6 +14,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 
@@ -88,8 +94,16 @@ import com.topcoder.util.log.Log;
  * </ul>
  * </p>
  *
+ * <p>
+ * Version 1.2 Change notes:
+ * <ul>
+ *     <li>Added the optional {@link #setMailSinkDirectory(String) mailSinkDirectory} property, when it's set the
+ *     email messages are written to files in that directory instead of being sent, which is used by tests.</li>
+ * </ul>
+ * </p>
+ *
  * @author Mozgastik, TCSASSEMBLER
- * @version 1.1
+ * @version 1.2
  */
 public class EmailEngineNotificationService extends BaseJPAService implements NotificationService {
 
@@ -213,6 +227,30 @@ public class EmailEngineNotificationService extends BaseJPAService implements No
      */
     private String taskStatusChangeEmailBodyTemplatePath;
 
+    /**
+     * <p>
+     * Represents the directory the email messages are written to instead of being sent.
+     * </p>
+     * <p>
+     * It is mutable, has setter for injection.
+     * </p>
+     * <p>
+     * It's optional, if null the email messages are sent with the Email Engine.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private File mailSinkDirectory;
+
+    /**
+     * <p>
+     * Represents the sequence used to name the email message files of the mail sink.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private final AtomicLong mailSinkSequence = new AtomicLong();
+
     /**
      * <p>
      * Creates the instance of EmailEngineNotificationService.
@@ -588,6 +626,18 @@ public class EmailEngineNotificationService extends BaseJPAService implements No
         this.taskStatusChangeEmailBodyTemplatePath = taskStatusChangeEmailBodyTemplatePath;
     }
 
+    /**
+     * <p>
+     * Sets the directory the email messages are written to instead of being sent.
+     * </p>
+     * @param mailSinkDirectory the directory the email messages are written to, null to send the email messages
+     *            with the Email Engine.
+     * @since 1.2
+     */
+    public void setMailSinkDirectory(String mailSinkDirectory) {
+        this.mailSinkDirectory = mailSinkDirectory == null ? null : new File(mailSinkDirectory);
+    }
+
     /**
      * <p>
      * Sends an email message generated from templates to the specified recipients. The email message is
@@ -642,7 +692,11 @@ public class EmailEngineNotificationService extends BaseJPAService implements No
             message.setContentType("text/html");
 
             // send the message
-            EmailEngine.send(message);
+            if (mailSinkDirectory == null) {
+                EmailEngine.send(message);
+            } else {
+                writeEmail(methodName, emailSender, recipient, emailSubject, emailBody);
+            }
         } catch (TemplateFormatException e) {
             // log and wrap
             throw ServiceHelper.logException(log, methodName, new NotificationException(
@@ -669,5 +723,46 @@ public class EmailEngineNotificationService extends BaseJPAService implements No
                 "Errors occur while sending the email.", e));
         }
     }
+
+    /**
+     * <p>
+     * Writes an email message to a new file of the mail sink directory.
+     * </p>
+     * @param methodName the name of the method for logging.
+     * @param emailSender the email address of sender.
+     * @param recipient the email address of recipient.
+     * @param subject the email message subject.
+     * @param body the email message body.
+     *
+     * @throws NotificationException if failed to write the email message.
+     * @since 1.2
+     */
+    private void writeEmail(String methodName, String emailSender, String recipient, String subject,
+        String body) throws NotificationException {
+        File file = new File(mailSinkDirectory, System.currentTimeMillis() + "-"
+            + mailSinkSequence.incrementAndGet() + ".eml");
+        Writer writer = null;
+        try {
+            mailSinkDirectory.mkdirs();
+            writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            writer.write("From: " + emailSender + "\r\n");
+            writer.write("To: " + recipient + "\r\n");
+            writer.write("Subject: " + subject + "\r\n");
+            writer.write("Content-Type: text/html; charset=UTF-8\r\n\r\n");
+            writer.write(body);
+        } catch (IOException e) {
+            // log and wrap
+            throw ServiceHelper.logException(log, methodName, new NotificationException(
+                "Failed to write the email to " + file + ".", e));
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
 }
 
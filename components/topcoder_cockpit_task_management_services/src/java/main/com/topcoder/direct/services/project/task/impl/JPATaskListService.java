@@ -20,7 +20,9 @@ import com.topcoder.util.log.Log;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -63,8 +65,18 @@ import java.util.List;
  * - Fix the task lists with 0 task issue
  * </p>
  *
+ * <p>
+ * Version 1.2 Change notes:
+ * <ol>
+ * <li>{@link #getTaskListsWithTasks(long, TaskFilter)} loads the tasks of all the task lists with one fetch join
+ * query instead of one query per task list.</li>
+ * <li>{@link #resolveTaskList(long, long)} completes the tasks with one bulk update instead of merging them one
+ * by one.</li>
+ * </ol>
+ * </p>
+ *
  * @author Mozgastik, TCSASSEMBLER
- * @version 1.1
+ * @version 1.2
  */
 public class JPATaskListService extends BaseJPAService implements TaskListService {
 
@@ -87,6 +99,55 @@ public class JPATaskListService extends BaseJPAService implements TaskListServic
             + "LEFT JOIN t.associatedToContests tc LEFT JOIN tl.associatedToContests tlc "
             + "LEFT JOIN tl.permittedUsers pu WHERE 1 = 1 ";
 
+    /**
+     * <p>
+     * Represents the query statement to fetch the tasks of the given task lists.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private static final String QUERY_TASK_LISTS_WITH_TASKS_STATEMENT =
+        "SELECT DISTINCT tl FROM TaskList tl LEFT JOIN FETCH tl.tasks WHERE tl.id IN (?1)";
+
+    /**
+     * <p>
+     * Represents the query statement to retrieve the ids and statuses of the tasks of a task list which are not
+     * completed.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private static final String QUERY_UNCOMPLETED_TASK_STATUSES_STATEMENT =
+        "SELECT t.id, t.status FROM Task t WHERE t.taskListId = ?1 AND t.status <> ?2";
+
+    /**
+     * <p>
+     * Represents the query statement to retrieve the tasks of a task list.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private static final String QUERY_TASKS_STATEMENT = "SELECT t FROM Task t WHERE t.taskListId = ?1";
+
+    /**
+     * <p>
+     * Represents the statement to mark all the tasks of a task list as completed.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private static final String UPDATE_TASKS_STATUS_STATEMENT = "UPDATE Task t SET t.status = ?1, "
+        + "t.lastModifiedBy = ?2, t.lastModifiedDate = ?3 WHERE t.taskListId = ?4";
+
+    /**
+     * <p>
+     * Represents the maximum number of task list ids in a single IN clause.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+
     /**
      * <p>
      * Represents the name of the class for logging.
@@ -216,14 +277,52 @@ public class JPATaskListService extends BaseJPAService implements TaskListServic
         ServiceHelper.logEntrance(log, methodName, new String[] {
             "userId", "taskListId"},  new Object[] {userId, taskListId});
 
+        // get the task list and check the permission
+        TaskList taskList = findTaskList(log, methodName, userId, taskListId);
+        if (taskList == null) {
+            // the task list does not exist, return null
+            return ServiceHelper.logExit(log, methodName, taskList);
+        }
+
+        // fetch the tasks since it is lazy-fetch
+        List<Task> tasks = taskList.getTasks();
+        if (tasks != null) {
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.get(i);
+            }
+        }
+
+        // log and exit
+        return ServiceHelper.logExit(log, methodName, taskList);
+    }
+
+    /**
+     * <p>
+     * Retrieves an existing TaskList without fetching its tasks, and checks that the user is permitted to access
+     * it.
+     * </p>
+     *
+     * @param log the logger for logging.
+     * @param methodName the name of the calling method for logging.
+     * @param userId the ID of user performing this action.
+     * @param taskListId the task list ID.
+     *
+     * @return the retrieved entity, or null if the task list is not found.
+     *
+     * @throws PermissionException if specified user doesn't exist or isn't permitted to perform the
+     *             requested action.
+     *
+     * @since 1.2
+     */
+    private TaskList findTaskList(Log log, String methodName, long userId, long taskListId)
+        throws PermissionException {
         // check the permission
         String callerHandle = ServiceHelper.getUserHandle(log, methodName, getUserService(), userId);
 
         // get the task list
         TaskList taskList = getEntityManager().find(TaskList.class, taskListId);
         if (taskList == null) {
-            // the task list does not exist, return null
-            return ServiceHelper.logExit(log, methodName, taskList);
+            return null;
         }
 
         // create the user dto
@@ -255,16 +354,7 @@ public class JPATaskListService extends BaseJPAService implements TaskListServic
                 new PermissionException("The user is not permitted for the operation:" + userId));
         }
 
-        // fetch the tasks since it is lazy-fetch
-        List<Task> tasks = taskList.getTasks();
-        if (tasks != null) {
-            for (int i = 0; i < tasks.size(); i++) {
-                tasks.get(i);
-            }
-        }
-
-        // log and exit
-        return ServiceHelper.logExit(log, methodName, taskList);
+        return taskList;
     }
 
     /**
@@ -383,49 +473,52 @@ public class JPATaskListService extends BaseJPAService implements TaskListServic
         ServiceHelper.logEntrance(log, methodName,
             new String[] {"userId", "taskListId"}, new Object[] {userId, taskListId});
 
-        // get the task list and this will check the permission
-        TaskList taskList = getTaskList(userId, taskListId);
+        // get the task list and this will check the permission, the tasks are not fetched
+        TaskList taskList = findTaskList(log, methodName, userId, taskListId);
         if (taskList == null) {
             throw ServiceHelper.logException(log, methodName,
                 new EntityNotFoundException("The task list for id:" + taskListId + " is not found."));
         }
 
         String callerHandle = ServiceHelper.getUserHandle(log, methodName, getUserService(), userId);
+        Date now = new Date();
+
         // Save old versions of task statuses, they will be needed for notifications
-        List<TaskStatus> oldTaskStatuses = new ArrayList<TaskStatus>();
-        if (taskList.getTasks() != null) {
-            for (Task task : taskList.getTasks()) {
-                // save the old status
-                oldTaskStatuses.add(task.getStatus());
-
-                // update the task
-                task.setStatus(TaskStatus.COMPLETED);
-                task.setLastModifiedBy(callerHandle);
-                task.setLastModifiedDate(new Date());
-
-                // update the task
-                getEntityManager().merge(task);
-            }
+        List<Object[]> rows = ServiceHelper.queryListResult(log, methodName, getEntityManager(),
+            QUERY_UNCOMPLETED_TASK_STATUSES_STATEMENT, new Object[] {taskListId, TaskStatus.COMPLETED});
+        Map<Long, TaskStatus> oldTaskStatuses = new HashMap<Long, TaskStatus>();
+        for (Object[] row : rows) {
+            oldTaskStatuses.put((Long) row[0], (TaskStatus) row[1]);
         }
 
+        // complete all the tasks with one update
+        ServiceHelper.executeUpdate(log, methodName, getEntityManager(), UPDATE_TASKS_STATUS_STATEMENT,
+            new Object[] {TaskStatus.COMPLETED, callerHandle, now, taskListId});
+
         // UPDATE in TC Cockpit Tasks Management Release 2 - do not archive the default task list
         if(!taskList.isDefault()) {
             // set the task list archived
             taskList.setActive(false);
         }
 
-        // update the task list and it will handle the auditing
-        updateTaskList(userId, taskList);
-
-        // send notifications if necessary
-        for (int i = 0; i < oldTaskStatuses.size(); i++) {
-            TaskStatus oldStatus = oldTaskStatuses.get(i);
-            Task newTask = taskList.getTasks().get(i);
-            TaskStatus newStatus = newTask.getStatus();
+        // update the task list auditing fields
+        taskList.setLastModifiedBy(callerHandle);
+        taskList.setLastModifiedDate(now);
+        getEntityManager().merge(taskList);
+        ServiceHelper.flush(log, methodName, getEntityManager());
 
-            if (!oldStatus.equals(newStatus)) {
-                // sent the notification email if status changed
-                getNotificationService().notifyTaskStatusChange(userId, oldStatus, newTask);
+        if (!oldTaskStatuses.isEmpty()) {
+            // the tasks are not in the persistence context yet, so they are read with the updated statuses
+            List<Task> tasks = ServiceHelper.queryListResult(log, methodName, getEntityManager(),
+                QUERY_TASKS_STATEMENT, new Object[] {taskListId});
+
+            // send notifications if necessary
+            for (Task newTask : tasks) {
+                TaskStatus oldStatus = oldTaskStatuses.get(newTask.getId());
+                if (oldStatus != null) {
+                    // sent the notification email if status changed
+                    getNotificationService().notifyTaskStatusChange(userId, oldStatus, newTask);
+                }
             }
         }
 
@@ -599,15 +692,17 @@ public class JPATaskListService extends BaseJPAService implements TaskListServic
         // get the tasks
         List<TaskList> taskLists = getTaskLists(userId, taskFilter);
 
-        // get the task for lazy loaded reason
+        // fetch the lazy loaded tasks of all the task lists at once, the assignees, attachments and associations
+        // of the tasks are then loaded with one subselect query per collection
+        List<Long> taskListIds = new ArrayList<Long>();
         for (TaskList taskList : taskLists) {
-            List<Task> tasks = taskList.getTasks();
-            if (tasks != null) {
-                // we must iterate the tasks, otherwise we cannot get the tasks
-                for (int i = 0; i < tasks.size(); i++) {
-                    tasks.get(i);
-                }
-            }
+            taskListIds.add(taskList.getId());
+        }
+        for (int i = 0; i < taskListIds.size(); i += MAX_IDS_PER_QUERY) {
+            List<Long> ids = new ArrayList<Long>(
+                taskListIds.subList(i, Math.min(i + MAX_IDS_PER_QUERY, taskListIds.size())));
+            ServiceHelper.queryListResult(log, methodName, getEntityManager(),
+                QUERY_TASK_LISTS_WITH_TASKS_STATEMENT, new Object[] {ids});
         }
 
         // log and exit
@@ -0,0 +1,710 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.project.task.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.topcoder.direct.services.project.task.NotificationException;
+import com.topcoder.direct.services.project.task.NotificationService;
+import com.topcoder.direct.services.project.task.TaskManagementConfigurationException;
+import com.topcoder.direct.services.project.task.model.Task;
+import com.topcoder.direct.services.project.task.model.TaskStatus;
+import com.topcoder.direct.services.project.task.model.UserDTO;
+import com.topcoder.util.log.Log;
+
+/**
+ * <p>
+ * This is the implementation of service for sending notifications which queues the notifications in a durable
+ * outbox and sends them off the calling thread.
+ * </p>
+ * <p>
+ * Each notification is written to a file of the outbox directory, and a background thread sends the queued
+ * notifications in batches with the configured notification service, in the order they were queued. The
+ * notifications left in the outbox when the application is stopped are sent after it's started again.
+ * </p>
+ * <p>
+ * When the notification is queued in a Spring managed transaction (like the one of the task services), the file is
+ * only added to the outbox once the transaction commits, and it's discarded if the transaction rolls back, so no
+ * notification is sent for a change which didn't happen. Without a transaction the file is added right away.
+ * </p>
+ * <p>
+ * A notification which fails to be sent is retried after <code>retryDelay</code> milliseconds, and the delay doubles
+ * with every failed attempt. The number of attempts and the time of the next attempt are kept in the file name, so
+ * they survive a restart, and the notifications waiting for a retry don't hold up the others. The processing of
+ * the outbox stops at the first failure until the next poll, so an outage of the mail server costs one attempt per
+ * poll. A notification which fails to be sent <code>maxAttempts</code> times is renamed with the ".failed" suffix and
+ * is not retried anymore.
+ * </p>
+ * <p>
+ * Sample Configuration: (the log, batchSize, pollInterval, maxAttempts and retryDelay are optional)
+ *
+ * <pre>
+ *  &lt;bean id=&quot;outboxNotificationService&quot;
+ *     class=&quot;com.topcoder.direct.services.project.task.impl.OutboxNotificationService&quot;&gt;
+ *     &lt;property name=&quot;log&quot; ref=&quot;logBean&quot; /&gt;
+ *     &lt;property name=&quot;notificationService&quot; ref=&quot;notificationService&quot;/&gt;
+ *     &lt;property name=&quot;outboxDirectory&quot; value=&quot;test_files/outbox/&quot;/&gt;
+ *     &lt;property name=&quot;batchSize&quot; value=&quot;50&quot;/&gt;
+ *     &lt;property name=&quot;pollInterval&quot; value=&quot;5000&quot;/&gt;
+ *     &lt;property name=&quot;maxAttempts&quot; value=&quot;5&quot;/&gt;
+ *     &lt;property name=&quot;retryDelay&quot; value=&quot;60000&quot;/&gt;
+ *   &lt;/bean&gt;
+ * </pre>
+ *
+ * </p>
+ * <p>
+ * <b>Thread-Safety:</b> This class is mutable, but can be used thread safely under following conditions:
+ * setters should not be called after initialization and method arguments will not be used concurrently. The
+ * outbox is processed by one thread at a time.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class OutboxNotificationService implements NotificationService {
+
+    /**
+     * <p>
+     * Represents the name of the class for logging.
+     * </p>
+     */
+    private static final String CLASS_NAME = OutboxNotificationService.class.getName();
+
+    /**
+     * <p>
+     * Represents the suffix of the queued notification files.
+     * </p>
+     */
+    private static final String ENTRY_SUFFIX = ".ntf";
+
+    /**
+     * <p>
+     * Represents the suffix of the notification files being written.
+     * </p>
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * <p>
+     * Represents the suffix of the notification files which failed to be sent.
+     * </p>
+     */
+    private static final String FAILED_SUFFIX = ".failed";
+
+    /**
+     * <p>
+     * Represents the separator of the number of attempts and the time of the next attempt in the name of a
+     * notification file which is waiting for a retry.
+     * </p>
+     */
+    private static final String RETRY_SEPARATOR = ".";
+
+    /**
+     * <p>
+     * Represents the maximum number of times the retry delay is doubled.
+     * </p>
+     */
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    /**
+     * <p>
+     * Represents a queued notification.
+     * </p>
+     */
+    private static class OutboxEntry implements Serializable {
+
+        /**
+         * <p>
+         * The serial version UID.
+         * </p>
+         */
+        private static final long serialVersionUID = 4718294013387362105L;
+
+        /**
+         * <p>
+         * The ID of user performing the action.
+         * </p>
+         */
+        private final long userId;
+
+        /**
+         * <p>
+         * The task status before status change, null for the task creation notification.
+         * </p>
+         */
+        private final TaskStatus oldStatus;
+
+        /**
+         * <p>
+         * The detached copy of the task.
+         * </p>
+         */
+        private final Task task;
+
+        /**
+         * <p>
+         * Creates the entry.
+         * </p>
+         * @param userId the ID of user performing the action.
+         * @param oldStatus the task status before status change, null for the task creation notification.
+         * @param task the detached copy of the task.
+         */
+        OutboxEntry(long userId, TaskStatus oldStatus, Task task) {
+            this.userId = userId;
+            this.oldStatus = oldStatus;
+            this.task = task;
+        }
+    }
+
+    /**
+     * <p>
+     * Represents the logger for performing logging. If null, logging will not be performed.
+     * </p>
+     * <p>
+     * It is mutable, has setter for injection.
+     * </p>
+     */
+    private Log log;
+
+    /**
+     * <p>
+     * Represents the service used to send the queued notifications.
+     * </p>
+     * <p>
+     * It is mutable, has setter for injection. It will be validated in checkInitialization method to be not
+     * null.
+     * </p>
+     */
+    private NotificationService notificationService;
+
+    /**
+     * <p>
+     * Represents the directory of the outbox.
+     * </p>
+     * <p>
+     * It is mutable, has setter for injection. It will be validated in checkInitialization method to be not
+     * null.
+     * </p>
+     */
+    private File outboxDirectory;
+
+    /**
+     * <p>
+     * Represents the maximum number of notifications sent in a batch.
+     * </p>
+     * <p>
+     * It is mutable, has setter for injection. It will be validated in checkInitialization method to be
+     * positive.
+     * </p>
+     */
+    private int batchSize = 50;
+
+    /**
+     * <p>
+     * Represents the delay between the checks of the outbox, in milliseconds.
+     * </p>
+     * <p>
+     * It is mutable, has setter for injection. It will be validated in checkInitialization method to be
+     * positive.
+     * </p>
+     */
+    private long pollInterval = 5000;
+
+    /**
+     * <p>
+     * Represents the number of times a notification is tried to be sent before it's given up.
+     * </p>
+     * <p>
+     * It is mutable, has setter for injection. It will be validated in checkInitialization method to be
+     * positive.
+     * </p>
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * <p>
+     * Represents the delay before a failed notification is retried the first time, in milliseconds. The delay
+     * doubles with every failed attempt.
+     * </p>
+     * <p>
+     * It is mutable, has setter for injection. It will be validated in checkInitialization method to be not
+     * negative.
+     * </p>
+     */
+    private long retryDelay = 60000;
+
+    /**
+     * <p>
+     * Represents the sequence used to name the notification files.
+     * </p>
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * <p>
+     * Represents the executor processing the outbox, null if the service is not started.
+     * </p>
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * <p>
+     * Creates the instance of OutboxNotificationService.
+     * </p>
+     */
+    public OutboxNotificationService() {
+        // does nothing
+    }
+
+    /**
+     * <p>
+     * Validates the configuration parameters.
+     * </p>
+     *
+     * @throws TaskManagementConfigurationException if any configuration parameter has invalid value.
+     */
+    public void checkInitialization() {
+        ServiceHelper.checkState(notificationService == null, "The notificationService is not properly injected.");
+        ServiceHelper.checkState(outboxDirectory == null, "The outboxDirectory is not properly injected.");
+        ServiceHelper.checkState(batchSize <= 0, "The batchSize should be positive.");
+        ServiceHelper.checkState(pollInterval <= 0, "The pollInterval should be positive.");
+        ServiceHelper.checkState(maxAttempts <= 0, "The maxAttempts should be positive.");
+        ServiceHelper.checkState(retryDelay < 0, "The retryDelay should not be negative.");
+    }
+
+    /**
+     * <p>
+     * Validates the configuration parameters, creates the outbox directory and starts the background thread
+     * processing the outbox.
+     * </p>
+     *
+     * @throws TaskManagementConfigurationException if any configuration parameter has invalid value or the
+     *             outbox directory can't be created.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        checkInitialization();
+        outboxDirectory.mkdirs();
+        ServiceHelper.checkState(!outboxDirectory.isDirectory(),
+            "The outboxDirectory can't be created: " + outboxDirectory);
+
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "task-notification-outbox");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    try {
+                        // drain the outbox batch by batch, until a batch is not full or has a failure
+                        while (processOutbox() == batchSize) {
+                            // continue
+                        }
+                    } catch (RuntimeException e) {
+                        // keep the schedule
+                        ServiceHelper.logException(log, CLASS_NAME + "#start()", e);
+                    }
+                }
+            }, 0, pollInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * <p>
+     * Stops the background thread processing the outbox. The queued notifications are kept in the outbox.
+     * </p>
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * <p>
+     * Queues the notification about task creation.
+     * </p>
+     * @param userId the id of user performing this action.
+     * @param task the created task.
+     *
+     * @throws IllegalArgumentException if task is null or task.getName() is null/empty or task.getStatus() is
+     *             null or task.getPriority() is null.
+     *
+     * @throws NotificationException if failed to write the notification to the outbox.
+     */
+    public void notifyTaskCreation(long userId, Task task) throws NotificationException {
+        // prepare for logging
+        final String methodName = CLASS_NAME + "#notifyTaskCreation(long userId, Task task)";
+        // log the entrance
+        ServiceHelper.logEntrance(log, methodName, new String[] {"userId", "task"}, new Object[] {userId, task});
+
+        // validate the parameters
+        ServiceHelper.checkNull(log, methodName, task, "task");
+        ServiceHelper.checkNullOrEmpty(log, methodName, task.getName(), "name in task");
+        ServiceHelper.checkNull(log, methodName, task.getStatus(), "status in task");
+        ServiceHelper.checkNull(log, methodName, task.getPriority(), "priority in task");
+
+        enqueue(methodName, new OutboxEntry(userId, null, copyTask(task)));
+
+        // log the exit
+        ServiceHelper.logExit(log, methodName);
+    }
+
+    /**
+     * <p>
+     * Queues the notification about task status change.
+     * </p>
+     *
+     * @param userId the ID of user performing this action.
+     * @param oldTask the task status before status change.
+     * @param newTask the task after status change.
+     * @throws IllegalArgumentException if any of the tasks (oldTask or newTask) is null or have
+     *             Task.getName() null/empty or Task.getStatus() null, or the Task.getCreatedBy is null or empty.
+     *
+     * @throws NotificationException if failed to write the notification to the outbox.
+     */
+    public void notifyTaskStatusChange(long userId, TaskStatus oldTask, Task newTask)
+        throws NotificationException {
+        // prepare for logging
+        final String methodName = CLASS_NAME
+            + "#notifyTaskStatusChange(long userId, TaskStatus oldTask, Task newTask)";
+        // log the entrance
+        ServiceHelper.logEntrance(log, methodName, new String[] {"userId", "oldTask", "newTask"},
+            new Object[] {userId, oldTask, newTask});
+
+        // validate the parameters
+        ServiceHelper.checkNull(log, methodName, oldTask, "oldTask");
+        ServiceHelper.checkNull(log, methodName, newTask, "newTask");
+        ServiceHelper.checkNullOrEmpty(log, methodName, newTask.getName(), "name in newTask");
+        ServiceHelper.checkNull(log, methodName, newTask.getStatus(), "status in newTask");
+        ServiceHelper.checkNullOrEmpty(log, methodName, newTask.getCreatedBy(), "createdBy in newTask");
+
+        enqueue(methodName, new OutboxEntry(userId, oldTask, copyTask(newTask)));
+
+        // log the exit
+        ServiceHelper.logExit(log, methodName);
+    }
+
+    /**
+     * <p>
+     * Sends the next batch of the queued notifications which are due with the configured notification service.
+     * The sent notifications are removed from the outbox. The batch ends at the first notification which fails to
+     * be sent, the notification is retried later.
+     * </p>
+     *
+     * @return the number of the notifications sent.
+     */
+    public synchronized int processOutbox() {
+        // prepare for logging
+        final String methodName = CLASS_NAME + "#processOutbox()";
+
+        String[] names = outboxDirectory.list(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.endsWith(ENTRY_SUFFIX);
+            }
+        });
+        if (names == null || names.length == 0) {
+            return 0;
+        }
+        // the names start with the time and the sequence, so they are sorted in the queued order
+        Arrays.sort(names);
+
+        long now = System.currentTimeMillis();
+        int sent = 0;
+        for (int i = 0; i < names.length && sent < batchSize; i++) {
+            String[] retry = getRetry(names[i]);
+            if (retry != null && parseLong(retry[2]) > now) {
+                // waiting for the retry
+                continue;
+            }
+            int attempts = retry == null ? 0 : (int) parseLong(retry[1]);
+            File file = new File(outboxDirectory, names[i]);
+            try {
+                OutboxEntry entry = readEntry(file);
+                if (entry.oldStatus == null) {
+                    notificationService.notifyTaskCreation(entry.userId, entry.task);
+                } else {
+                    notificationService.notifyTaskStatusChange(entry.userId, entry.oldStatus, entry.task);
+                }
+                file.delete();
+                sent++;
+            } catch (IOException e) {
+                // the file is corrupted, don't retry it
+                ServiceHelper.logException(log, methodName, e);
+                fail(file, maxAttempts);
+            } catch (ClassNotFoundException e) {
+                ServiceHelper.logException(log, methodName, e);
+                fail(file, maxAttempts);
+            } catch (NotificationException e) {
+                ServiceHelper.logException(log, methodName, e);
+                fail(file, attempts + 1);
+                break;
+            } catch (RuntimeException e) {
+                ServiceHelper.logException(log, methodName, e);
+                fail(file, attempts + 1);
+                break;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * <p>
+     * Sets the logger for performing logging. If null, logging will not be performed.
+     * </p>
+     * @param log the logger for performing logging.
+     */
+    public void setLog(Log log) {
+        this.log = log;
+    }
+
+    /**
+     * <p>
+     * Sets the service used to send the queued notifications.
+     * </p>
+     * @param notificationService the service used to send the queued notifications.
+     */
+    public void setNotificationService(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    /**
+     * <p>
+     * Sets the directory of the outbox.
+     * </p>
+     * @param outboxDirectory the directory of the outbox.
+     */
+    public void setOutboxDirectory(String outboxDirectory) {
+        this.outboxDirectory = outboxDirectory == null ? null : new File(outboxDirectory);
+    }
+
+    /**
+     * <p>
+     * Sets the maximum number of notifications sent in a batch.
+     * </p>
+     * @param batchSize the maximum number of notifications sent in a batch.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * <p>
+     * Sets the delay between the checks of the outbox.
+     * </p>
+     * @param pollInterval the delay between the checks of the outbox, in milliseconds.
+     */
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * <p>
+     * Sets the number of times a notification is tried to be sent before it's given up.
+     * </p>
+     * @param maxAttempts the number of times a notification is tried to be sent.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * <p>
+     * Sets the delay before a failed notification is retried the first time.
+     * </p>
+     * @param retryDelay the delay before a failed notification is retried the first time, in milliseconds.
+     */
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * <p>
+     * Writes the notification to a new file of the outbox. The file is written under a temporary name and then
+     * renamed, so a partially written notification is never sent. In a transaction the file is renamed after the
+     * transaction commits, and deleted if it rolls back.
+     * </p>
+     * @param methodName the name of the method for logging.
+     * @param entry the notification.
+     *
+     * @throws NotificationException if failed to write the notification.
+     */
+    private void enqueue(final String methodName, OutboxEntry entry) throws NotificationException {
+        String name = String.format("%013d-%010d", System.currentTimeMillis(), sequence.incrementAndGet());
+        final File tempFile = new File(outboxDirectory, name + TEMP_SUFFIX);
+        final File file = new File(outboxDirectory, name + ENTRY_SUFFIX);
+        ObjectOutputStream out = null;
+        try {
+            out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            out.writeObject(entry);
+        } catch (IOException e) {
+            tempFile.delete();
+            throw ServiceHelper.logException(log, methodName, new NotificationException(
+                "Failed to write the notification to the outbox: " + outboxDirectory, e));
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                public void afterCommit() {
+                    if (!tempFile.renameTo(file)) {
+                        tempFile.delete();
+                        ServiceHelper.logException(log, methodName, new NotificationException(
+                            "Failed to write the notification to the outbox: " + outboxDirectory));
+                    }
+                }
+
+                public void afterCompletion(int status) {
+                    if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                        tempFile.delete();
+                    }
+                }
+            });
+        } else if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw ServiceHelper.logException(log, methodName, new NotificationException(
+                "Failed to write the notification to the outbox: " + outboxDirectory));
+        }
+    }
+
+    /**
+     * <p>
+     * Reads the notification from the file.
+     * </p>
+     * @param file the file.
+     * @return the notification.
+     *
+     * @throws IOException if failed to read the file.
+     * @throws ClassNotFoundException if the class of the notification can't be found.
+     */
+    private static OutboxEntry readEntry(File file) throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            return (OutboxEntry) in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * <p>
+     * Records the failed attempts of a notification. The file is renamed with the number of attempts and the time
+     * of the next attempt, or with the ".failed" suffix when the notification has failed <code>maxAttempts</code>
+     * times.
+     * </p>
+     * @param file the file of the notification.
+     * @param attempts the number of the failed attempts so far.
+     */
+    private void fail(File file, int attempts) {
+        String name = file.getName();
+        String[] retry = getRetry(name);
+        String baseName = retry == null ? name.substring(0, name.length() - ENTRY_SUFFIX.length()) : retry[0];
+        if (attempts < maxAttempts) {
+            long delay = retryDelay << Math.min(attempts - 1, MAX_BACKOFF_SHIFT);
+            file.renameTo(new File(outboxDirectory, baseName + RETRY_SEPARATOR + attempts + RETRY_SEPARATOR
+                + (System.currentTimeMillis() + delay) + ENTRY_SUFFIX));
+        } else {
+            file.renameTo(new File(outboxDirectory, baseName + ENTRY_SUFFIX + FAILED_SUFFIX));
+        }
+    }
+
+    /**
+     * <p>
+     * Parses the name of a notification file which is waiting for a retry.
+     * </p>
+     * @param name the name of the notification file.
+     * @return the base name, the number of attempts and the time of the next attempt, or null if the notification
+     *         didn't fail yet.
+     */
+    private static String[] getRetry(String name) {
+        String[] parts = name.substring(0, name.length() - ENTRY_SUFFIX.length()).split("\\.");
+        return parts.length == 3 ? parts : null;
+    }
+
+    /**
+     * <p>
+     * Parses a number of the name of a notification file.
+     * </p>
+     * @param value the number.
+     * @return the number, or 0 if it's invalid so the notification is tried right away.
+     */
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * <p>
+     * Creates a detached copy of the task which can be written to the outbox. The associations and attachments
+     * of the task are not used by the notifications, so they are not copied.
+     * </p>
+     * @param task the task.
+     * @return the copy of the task.
+     */
+    private static Task copyTask(Task task) {
+        Task copy = new Task();
+        copy.setId(task.getId());
+        copy.setCreatedBy(task.getCreatedBy());
+        copy.setCreatedDate(task.getCreatedDate());
+        copy.setLastModifiedBy(task.getLastModifiedBy());
+        copy.setLastModifiedDate(task.getLastModifiedDate());
+        copy.setName(task.getName());
+        copy.setNotes(task.getNotes());
+        copy.setStartDate(task.getStartDate());
+        copy.setDueDate(task.getDueDate());
+        copy.setTaskListId(task.getTaskListId());
+        copy.setStatus(task.getStatus());
+        copy.setPriority(task.getPriority());
+        if (task.getAssignees() != null) {
+            List<UserDTO> assignees = new ArrayList<UserDTO>();
+            for (UserDTO assignee : task.getAssignees()) {
+                UserDTO user = new UserDTO();
+                user.setUserId(assignee.getUserId());
+                user.setHandle(assignee.getHandle());
+                assignees.add(user);
+            }
+            copy.setAssignees(assignees);
+        }
+        return copy;
+    }
+}
@@ -34,8 +34,14 @@ import com.topcoder.util.log.Log;
  * <p>
  * This is a helper class using in the package: <code>com.topcoder.direct.services.project.task.impl</code>.
  * </p>
- * @author TCSDEVELOPER
- * @version 1.0
+ * <p>
+ * Version 1.1 Change notes:
+ * <ol>
+ * <li>Added {@link #executeUpdate(Log, String, EntityManager, String, Object[])} method.</li>
+ * </ol>
+ * </p>
+ * @author TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  *
  */
 final class ServiceHelper {
@@ -485,6 +491,30 @@ final class ServiceHelper {
         return ((Long) query.getSingleResult()).intValue();
     }
 
+    /**
+     * <p>
+     * Executes the bulk update or delete statement.
+     * </p>
+     * @param log the logger for logging.
+     * @param methodName the name of the method for logging.
+     * @param entityManager the entity manager to access the database.
+     * @param statement the update or delete statement.
+     * @param parameters the parameters to set into the statement.
+     * @return the number of the entities updated or deleted.
+     * @throws PersistenceException if failed to execute the statement.
+     * @since 1.1
+     */
+    static int executeUpdate(Log log, String methodName,
+        EntityManager entityManager, String statement, Object[] parameters) throws PersistenceException {
+        try {
+            return createQuery(entityManager, statement, parameters).executeUpdate();
+        } catch (javax.persistence.PersistenceException e) {
+            // wrap the exception
+            throw ServiceHelper.logException(log, methodName, new PersistenceException(
+                "Failed to update the entities in database.", e));
+        }
+    }
+
     /**
      * <p>
      * Creates the native query.
@@ -7,6 +7,7 @@ import com.topcoder.direct.services.project.task.impl.BaseJPAServiceTests;
 import com.topcoder.direct.services.project.task.impl.EmailEngineNotificationServiceTests;
 import com.topcoder.direct.services.project.task.impl.JPATaskListServiceTests;
 import com.topcoder.direct.services.project.task.impl.JPATaskServiceTests;
+import com.topcoder.direct.services.project.task.impl.OutboxNotificationServiceTests;
 import com.topcoder.direct.services.project.task.impl.ServiceHelperTests;
 import com.topcoder.direct.services.project.task.model.*;
 import junit.framework.Test;
@@ -37,6 +38,7 @@ public class UnitTests extends TestCase {
         suite.addTest(EmailEngineNotificationServiceTests.suite());
         suite.addTest(JPATaskListServiceTests.suite());
         suite.addTest(JPATaskServiceTests.suite());
+        suite.addTest(OutboxNotificationServiceTests.suite());
         suite.addTest(ServiceHelperTests.suite());
 
         suite.addTest(Demo.suite());
@@ -0,0 +1,538 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.project.task.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.topcoder.direct.services.project.task.NotificationException;
+import com.topcoder.direct.services.project.task.NotificationService;
+import com.topcoder.direct.services.project.task.TaskManagementConfigurationException;
+import com.topcoder.direct.services.project.task.model.Task;
+import com.topcoder.direct.services.project.task.model.TaskPriority;
+import com.topcoder.direct.services.project.task.model.TaskStatus;
+import com.topcoder.direct.services.project.task.model.UserDTO;
+
+/**
+ * <p>
+ * All unit tests class for <code>OutboxNotificationService</code>.
+ * </p>
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class OutboxNotificationServiceTests {
+
+    /**
+     * <p>
+     * Represents the outbox directory for unit tests.
+     * </p>
+     */
+    private static final String OUTBOX_DIRECTORY = "test_files" + File.separator + "outbox";
+
+    /**
+     * <p>
+     * Mock notification service recording the sent notifications.
+     * </p>
+     */
+    private static class MockNotificationService implements NotificationService {
+
+        /**
+         * <p>
+         * The sent tasks.
+         * </p>
+         */
+        private final List<Task> tasks = new ArrayList<Task>();
+
+        /**
+         * <p>
+         * The old statuses of the sent tasks, null for the task creation notifications.
+         * </p>
+         */
+        private final List<TaskStatus> oldStatuses = new ArrayList<TaskStatus>();
+
+        /**
+         * <p>
+         * Whether the notifications fail to be sent.
+         * </p>
+         */
+        private boolean failing;
+
+        /**
+         * <p>
+         * The number of attempts to send a notification.
+         * </p>
+         */
+        private int attempts;
+
+        /**
+         * <p>
+         * Records the notification about task creation.
+         * </p>
+         * @param userId the id of user performing this action.
+         * @param task the created task.
+         * @throws NotificationException if the notifications fail to be sent.
+         */
+        public void notifyTaskCreation(long userId, Task task) throws NotificationException {
+            send(null, task);
+        }
+
+        /**
+         * <p>
+         * Records the notification about task status change.
+         * </p>
+         * @param userId the ID of user performing this action.
+         * @param oldTask the task status before status change.
+         * @param newTask the task after status change.
+         * @throws NotificationException if the notifications fail to be sent.
+         */
+        public void notifyTaskStatusChange(long userId, TaskStatus oldTask, Task newTask)
+            throws NotificationException {
+            send(oldTask, newTask);
+        }
+
+        /**
+         * <p>
+         * Records the notification.
+         * </p>
+         * @param oldStatus the task status before status change.
+         * @param task the task.
+         * @throws NotificationException if the notifications fail to be sent.
+         */
+        private void send(TaskStatus oldStatus, Task task) throws NotificationException {
+            attempts++;
+            if (failing) {
+                throw new NotificationException("failed");
+            }
+            oldStatuses.add(oldStatus);
+            tasks.add(task);
+        }
+    }
+
+    /**
+     * <p>
+     * Mock transaction manager without a resource, only running the transaction synchronizations.
+     * </p>
+     */
+    private static class MockTransactionManager extends AbstractPlatformTransactionManager {
+
+        /**
+         * <p>
+         * The serial version UID.
+         * </p>
+         */
+        private static final long serialVersionUID = -2213530405784219372L;
+
+        /**
+         * <p>
+         * Gets the transaction object.
+         * </p>
+         * @return the transaction object.
+         */
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        /**
+         * <p>
+         * Begins the transaction, does nothing.
+         * </p>
+         * @param transaction the transaction object.
+         * @param definition the transaction definition.
+         */
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            // does nothing
+        }
+
+        /**
+         * <p>
+         * Commits the transaction, does nothing.
+         * </p>
+         * @param status the transaction status.
+         */
+        protected void doCommit(DefaultTransactionStatus status) {
+            // does nothing
+        }
+
+        /**
+         * <p>
+         * Rolls back the transaction, does nothing.
+         * </p>
+         * @param status the transaction status.
+         */
+        protected void doRollback(DefaultTransactionStatus status) {
+            // does nothing
+        }
+    }
+
+    /**
+     * <p>
+     * Represents the mock notification service for unit tests.
+     * </p>
+     */
+    private MockNotificationService mockNotificationService;
+
+    /**
+     * <p>
+     * Represents the instance of OutboxNotificationService for unit tests.
+     * </p>
+     */
+    private OutboxNotificationService instance;
+
+    /**
+     * <p>
+     * Adapter for earlier versions of JUnit.
+     * </p>
+     *
+     * @return a test suite.
+     */
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(OutboxNotificationServiceTests.class);
+    }
+
+    /**
+     * <p>
+     * Sets up the test environment.
+     * </p>
+     */
+    @Before
+    public void setUp() {
+        new File(OUTBOX_DIRECTORY).mkdirs();
+        mockNotificationService = new MockNotificationService();
+        instance = createInstance();
+    }
+
+    /**
+     * <p>
+     * Tears down the test environment.
+     * </p>
+     */
+    @After
+    public void tearDown() {
+        File directory = new File(OUTBOX_DIRECTORY);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#notifyTaskStatusChange(long, TaskStatus, Task)}.
+     * </p>
+     * <p>
+     * The notification should be queued and sent with a copy of the task when the outbox is processed.
+     * </p>
+     * @throws Exception to JUnit.
+     */
+    @Test
+    public void testNotifyTaskStatusChange() throws Exception {
+        Task task = createTask("task1");
+        instance.notifyTaskStatusChange(1, TaskStatus.IN_PROGRESS, task);
+
+        assertEquals("The notification should be queued.", 0, mockNotificationService.tasks.size());
+        assertEquals("The notification should be queued.", 1, countFiles(".ntf"));
+
+        assertEquals("The notification should be sent.", 1, instance.processOutbox());
+        assertEquals("The notification should be sent.", 1, mockNotificationService.tasks.size());
+        assertEquals("The notification should be removed.", 0, countFiles(".ntf"));
+
+        Task sent = mockNotificationService.tasks.get(0);
+        assertNotSame("A copy of the task should be sent.", task, sent);
+        assertEquals("The old status is incorrect.", TaskStatus.IN_PROGRESS,
+            mockNotificationService.oldStatuses.get(0));
+        assertEquals("The name is incorrect.", "task1", sent.getName());
+        assertEquals("The status is incorrect.", TaskStatus.COMPLETED, sent.getStatus());
+        assertEquals("The task list id is incorrect.", 2, sent.getTaskListId());
+        assertEquals("The assignees are incorrect.", "user3", sent.getAssignees().get(0).getHandle());
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#notifyTaskCreation(long, Task)}.
+     * </p>
+     * <p>
+     * The notification should be queued and sent as a task creation notification.
+     * </p>
+     * @throws Exception to JUnit.
+     */
+    @Test
+    public void testNotifyTaskCreation() throws Exception {
+        instance.notifyTaskCreation(1, createTask("task1"));
+        instance.processOutbox();
+
+        assertEquals("The notification should be sent.", 1, mockNotificationService.tasks.size());
+        assertNull("The notification should be a task creation.", mockNotificationService.oldStatuses.get(0));
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#notifyTaskCreation(long, Task)} in a transaction.
+     * </p>
+     * <p>
+     * The notification should not be queued before the transaction commits.
+     * </p>
+     * @throws Exception to JUnit.
+     */
+    @Test
+    public void testNotifyTaskCreationTransactionCommit() throws Exception {
+        new TransactionTemplate(new MockTransactionManager()).execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                try {
+                    instance.notifyTaskCreation(1, createTask("task1"));
+                } catch (NotificationException e) {
+                    throw new IllegalStateException(e);
+                }
+                assertEquals("The notification should not be sent before the commit.", 0, instance.processOutbox());
+            }
+        });
+
+        assertEquals("The notification should be sent after the commit.", 1, instance.processOutbox());
+        assertEquals("The notification should be sent after the commit.", 1, mockNotificationService.tasks.size());
+        assertEquals("The temporary file should be removed.", 0, countFiles(".tmp"));
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#notifyTaskCreation(long, Task)} in a transaction.
+     * </p>
+     * <p>
+     * The notification should be discarded when the transaction rolls back.
+     * </p>
+     * @throws Exception to JUnit.
+     */
+    @Test
+    public void testNotifyTaskCreationTransactionRollback() throws Exception {
+        new TransactionTemplate(new MockTransactionManager()).execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                try {
+                    instance.notifyTaskCreation(1, createTask("task1"));
+                } catch (NotificationException e) {
+                    throw new IllegalStateException(e);
+                }
+                status.setRollbackOnly();
+            }
+        });
+
+        assertEquals("No notification should be sent.", 0, instance.processOutbox());
+        assertEquals("No notification should be sent.", 0, mockNotificationService.attempts);
+        assertEquals("The notification should be discarded.", 0, countFiles(".ntf"));
+        assertEquals("The notification should be discarded.", 0, countFiles(".tmp"));
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#processOutbox()}.
+     * </p>
+     * <p>
+     * The notifications should be sent in batches in the queued order.
+     * </p>
+     * @throws Exception to JUnit.
+     */
+    @Test
+    public void testProcessOutboxBatches() throws Exception {
+        instance.setBatchSize(2);
+        for (int i = 0; i < 3; i++) {
+            instance.notifyTaskStatusChange(1, TaskStatus.NOT_STARTED, createTask("task" + i));
+        }
+
+        assertEquals("The first batch should be sent.", 2, instance.processOutbox());
+        assertEquals("The second batch should be sent.", 1, instance.processOutbox());
+        assertEquals("The outbox should be empty.", 0, instance.processOutbox());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("The notifications should be sent in order.", "task" + i,
+                mockNotificationService.tasks.get(i).getName());
+        }
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#processOutbox()}.
+     * </p>
+     * <p>
+     * The notifications left in the outbox should be sent by a new instance.
+     * </p>
+     * @throws Exception to JUnit.
+     */
+    @Test
+    public void testProcessOutboxDurable() throws Exception {
+        instance.notifyTaskStatusChange(1, TaskStatus.NOT_STARTED, createTask("task1"));
+
+        createInstance().processOutbox();
+
+        assertEquals("The notification should be sent.", 1, mockNotificationService.tasks.size());
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#processOutbox()}.
+     * </p>
+     * <p>
+     * The notification should be retried, and given up after maxAttempts failures.
+     * </p>
+     * @throws Exception to JUnit.
+     */
+    @Test
+    public void testProcessOutboxFailure() throws Exception {
+        instance.setMaxAttempts(2);
+        instance.setRetryDelay(0);
+        instance.notifyTaskStatusChange(1, TaskStatus.NOT_STARTED, createTask("task1"));
+        mockNotificationService.failing = true;
+
+        instance.processOutbox();
+        assertEquals("The notification should be kept.", 1, countFiles(".ntf"));
+
+        instance.processOutbox();
+        assertEquals("The notification should be given up.", 0, countFiles(".ntf"));
+        assertEquals("The notification should be given up.", 1, countFiles(".failed"));
+        assertEquals("The notification should not be sent.", 0, mockNotificationService.tasks.size());
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#processOutbox()}.
+     * </p>
+     * <p>
+     * The batch should stop at the first failure, and the failed notifications should not be retried before the
+     * retry delay, even by a new instance.
+     * </p>
+     * @throws Exception to JUnit.
+     */
+    @Test
+    public void testProcessOutboxBackoff() throws Exception {
+        instance.notifyTaskStatusChange(1, TaskStatus.NOT_STARTED, createTask("task1"));
+        instance.notifyTaskStatusChange(1, TaskStatus.NOT_STARTED, createTask("task2"));
+        mockNotificationService.failing = true;
+
+        assertEquals("No notification should be sent.", 0, instance.processOutbox());
+        assertEquals("The batch should stop at the failure.", 1, mockNotificationService.attempts);
+
+        assertEquals("No notification should be sent.", 0, instance.processOutbox());
+        assertEquals("The failed notification should wait.", 2, mockNotificationService.attempts);
+
+        mockNotificationService.failing = false;
+        assertEquals("The failed notifications should wait.", 0, createInstance().processOutbox());
+        assertEquals("The failed notifications should wait.", 2, mockNotificationService.attempts);
+        assertEquals("The notifications should be kept.", 2, countFiles(".ntf"));
+        assertEquals("The notifications should be kept.", 0, countFiles(".failed"));
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#notifyTaskStatusChange(long, TaskStatus, Task)}.
+     * </p>
+     * <p>
+     * If the new task is null, IllegalArgumentException is expected.
+     * </p>
+     * @throws Exception to JUnit.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotifyTaskStatusChangeNullTask() throws Exception {
+        instance.notifyTaskStatusChange(1, TaskStatus.NOT_STARTED, null);
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#checkInitialization()}.
+     * </p>
+     * <p>
+     * If the notificationService is not properly injected, TaskManagementConfigurationException is expected.
+     * </p>
+     */
+    @Test(expected = TaskManagementConfigurationException.class)
+    public void testCheckInitializationMissingNotificationService() {
+        instance.setNotificationService(null);
+        instance.checkInitialization();
+    }
+
+    /**
+     * <p>
+     * Tests the method: {@link OutboxNotificationService#checkInitialization()}.
+     * </p>
+     * <p>
+     * If the batchSize is not positive, TaskManagementConfigurationException is expected.
+     * </p>
+     */
+    @Test(expected = TaskManagementConfigurationException.class)
+    public void testCheckInitializationInvalidBatchSize() {
+        instance.setBatchSize(0);
+        instance.checkInitialization();
+    }
+
+    /**
+     * <p>
+     * Creates the instance of OutboxNotificationService, without starting it.
+     * </p>
+     * @return the instance.
+     */
+    private OutboxNotificationService createInstance() {
+        OutboxNotificationService service = new OutboxNotificationService();
+        service.setNotificationService(mockNotificationService);
+        service.setOutboxDirectory(OUTBOX_DIRECTORY);
+        service.checkInitialization();
+        return service;
+    }
+
+    /**
+     * <p>
+     * Creates a task.
+     * </p>
+     * @param name the name of the task.
+     * @return the task.
+     */
+    private static Task createTask(String name) {
+        UserDTO assignee = new UserDTO();
+        assignee.setUserId(3);
+        assignee.setHandle("user3");
+        List<UserDTO> assignees = new ArrayList<UserDTO>();
+        assignees.add(assignee);
+
+        Task task = new Task();
+        task.setName(name);
+        task.setCreatedBy("user1");
+        task.setStatus(TaskStatus.COMPLETED);
+        task.setPriority(TaskPriority.NORMAL);
+        task.setTaskListId(2);
+        task.setAssignees(assignees);
+        return task;
+    }
+
+    /**
+     * <p>
+     * Counts the files of the outbox with the given suffix.
+     * </p>
+     * @param suffix the suffix.
+     * @return the number of the files.
+     */
+    private static int countFiles(String suffix) {
+        int count = 0;
+        for (String name : new File(OUTBOX_DIRECTORY).list()) {
+            if (name.endsWith(suffix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -23,12 +23,16 @@ import com.topcoder.search.builder.filter.Filter;
  * <strong>THREAD SAFETY:</strong> Implementations of this interface should be
  * thread safe.
  * </p>
+ * <p>
+ * Version 1.1 Change Notes:
+ *  - Added {@link #retrieveAll(Serializable, int)} to retrieve the entities page by page.
+ * </p>
  *
  * @param <T> The entity type to operate
  * @param <Id> The type of id of entity
  *
  * @author Mafy, TCSDEVELOPER
- * @version 1.0
+ * @version 1.1
  */
 public interface GenericDAO<T extends AuditableEntity, Id extends Serializable> {
     /**
@@ -64,6 +68,31 @@ public interface GenericDAO<T extends AuditableEntity, Id extends Serializable>
      */
     public List<T> retrieveAll() throws DAOException;
 
+    /**
+     * <p>
+     * Defines the operation that performs the retrieval of one page of the
+     * entities from the persistence, ordered by id. The page contains the
+     * first entities whose id is greater than the given one; the next page is
+     * retrieved passing the id of the last entity of this page. If nothing is
+     * found, return an empty list.
+     * </p>
+     *
+     * @param afterId
+     *                the id after which the entities are retrieved. Null
+     *                means the first page is retrieved.
+     * @param limit
+     *                the maximum number of entities to retrieve. Should be
+     *                positive.
+     * @return the page of entities found in the persistence. If nothing is
+     *         found, return an empty list.
+     * @throws IllegalArgumentException
+     *                 if limit <= 0.
+     * @throws DAOException
+     *                 if any error occurs while performing this operation.
+     * @since 1.1
+     */
+    public List<T> retrieveAll(Id afterId, int limit) throws DAOException;
+
     /**
      * <p>
      * Defines the operation that performs the retrieval of all entities that
@@ -35,13 +35,18 @@ import com.topcoder.clients.model.ProjectContestFee;
  * Version 1.2 (Module Assembly - TC Cockpit Direct Project Related Services Update and Integration)
  * - Add method {@link #getProjectsByIds(java.util.List)}
  * </p>
+ *
+ * <p>
+ * Version 1.3 Change Notes:
+ *  - Added {@link #retrieveAll(boolean, Long, int)} to retrieve the projects page by page.
+ * </p>
  * <p>
  * <strong>THREAD SAFETY:</strong> Implementations of this interface should be
  * thread safe.
  * </p>
  *
  * @author Mafy, flying2hk, TCSDEVELOPER
- * @version 1.2
+ * @version 1.3
  */
 @Remote
 public interface ProjectDAO extends GenericDAO<Project, Long> {
@@ -101,6 +106,35 @@ public interface ProjectDAO extends GenericDAO<Project, Long> {
     public List<Project> retrieveAll(boolean includeChildren)
         throws DAOException;
 
+    /**
+     * <p>
+     * Defines the operation that performs the retrieval of one page of the
+     * active projects from the persistence, ordered by id. If include children
+     * is true return the Project.childProjects list too; otherwise the list
+     * should not be returned. The next page is retrieved passing the id of the
+     * last project of this page. If nothing is found, return an empty list.
+     * </p>
+     *
+     * @param includeChildren
+     *                the flag that mention if the Project.childrenProjects list
+     *                should be returned or not.
+     * @param afterId
+     *                the id after which the projects are retrieved. Null
+     *                means the first page is retrieved.
+     * @param limit
+     *                the maximum number of projects to retrieve. Should be
+     *                positive.
+     * @return the page of Projects found in the persistence. If nothing is
+     *         found, return an empty list.
+     * @throws IllegalArgumentException
+     *                 if limit <= 0.
+     * @throws DAOException
+     *                 if any error occurs while performing this operation.
+     * @since 1.3
+     */
+    public List<Project> retrieveAll(boolean includeChildren, Long afterId, int limit)
+        throws DAOException;
+
     /**
      * <p>
      * Defines the operation that performs the retrieval of the list with
@@ -5,7 +5,9 @@ package com.topcoder.clients.dao.ejb3;
 
 import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -25,6 +27,8 @@ import com.topcoder.configuration.persistence.ConfigurationFileManager;
 import com.topcoder.search.builder.filter.AndFilter;
 import com.topcoder.search.builder.filter.EqualToFilter;
 import com.topcoder.search.builder.filter.Filter;
+import com.topcoder.search.builder.filter.NullFilter;
+import com.topcoder.search.builder.filter.OrFilter;
 import com.topcoder.util.objectfactory.ObjectFactory;
 import com.topcoder.util.objectfactory.impl.ConfigurationObjectSpecificationFactory;
 
@@ -75,6 +79,10 @@ import com.topcoder.util.objectfactory.impl.ConfigurationObjectSpecificationFact
  * // delete the project
  * bean.delete(project);
  *
+ * // get the first 100 projects, then the next 100 ones
+ * projects = bean.retrieveAll(null, 100);
+ * projects = bean.retrieveAll(projects.get(projects.size() - 1).getId(), 100);
+ *
  * // get project for corresponding id without projectChildren
  * tempProject = bean.retrieveById(100L, false);
  *
@@ -125,13 +133,22 @@ import com.topcoder.util.objectfactory.impl.ConfigurationObjectSpecificationFact
  * <p>
  * <strong>THREAD SAFETY:</strong> Implementations of this interface should be thread safe.
  * </p>
+ * <p>
+ * Version 1.2 Change Notes:
+ * <ul>
+ * <li>Added {@link #retrieveAll(Serializable, int)} to retrieve the entities page by page, using the id of the last
+ * entity of the previous page instead of an offset.</li>
+ * <li>Added {@link #stream(Filter, int)} to iterate over all the matching entities while keeping only one page of
+ * them in the persistence context.</li>
+ * </ul>
+ * </p>
  *
  * @param <T>
  *            The entity type to operate
  * @param <Id>
  *            The type of id of entity
  * @author Mafy, TCSDEVELOPER
- * @version 1.1
+ * @version 1.2
  */
 public abstract class GenericEJB3DAO<T extends AuditableEntity, Id extends Serializable>
         implements GenericDAO<T, Id> {
@@ -513,6 +530,101 @@ public abstract class GenericEJB3DAO<T extends AuditableEntity, Id extends Seria
         }
     }
 
+    /**
+     * Performs the retrieval of one page of the entities from the persistence,
+     * ordered by id. If nothing is found, return an empty list. Return only the
+     * entities that are not marked as deleted.
+     *
+     * @param afterId
+     *                the id after which the entities are retrieved. Null
+     *                means the first page is retrieved.
+     * @param limit
+     *                the maximum number of entities to retrieve. Should be
+     *                positive.
+     * @return the page of entities found in the persistence. If nothing is
+     *         found, return an empty list.
+     * @throws IllegalArgumentException
+     *                 if limit <= 0.
+     * @throws DAOConfigurationException
+     *                 if the configured entityManager is invalid (invalid means
+     *                 null here).
+     * @throws DAOException
+     *                 if any error occurs while performing this operation.
+     * @since 1.2
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> retrieveAll(Id afterId, int limit) throws DAOException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("'limit' should not be <= 0.");
+        }
+        String queryString = "select e from "
+                + entityBeanType.getCanonicalName() + " as e"
+                + " where (e.deleted is null or e.deleted = false)"
+                + (afterId == null ? "" : " and e.id > :afterId")
+                + " order by e.id";
+        Query query = Helper.checkEntityManager(entityManager).createQuery(
+                queryString);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        query.setMaxResults(limit);
+
+        try {
+            // Involves an unchecked conversion:
+            return query.getResultList();
+        } catch (Exception e) {
+            throw new DAOException("Failed to get entities after id:" + afterId + ".", e);
+        }
+    }
+
+    /**
+     * <p>
+     * Returns an iterator over all the entities that match the given filter
+     * and are not marked as deleted, in the order of their ids.
+     * </p>
+     * <p>
+     * The entities are retrieved fetchSize at a time, and the EntityManager is
+     * flushed and cleared before the next page is retrieved, so the entities of
+     * the previous pages are detached and the memory used does not depend on
+     * the number of entities. The pending changes of the caller are written
+     * before the clear, not lost. The returned entities should not be
+     * modified.
+     * </p>
+     * <p>
+     * The pages are retrieved with the id of the last entity of the previous
+     * page; when a filter is given, it is applied by the same query, so each
+     * page costs a single query whatever the selectivity of the filter.
+     * </p>
+     * <p>
+     * The iterator is bound to the EntityManager and the transaction of the
+     * bean, so it is not part of the DAO business interfaces: it is only
+     * meant to be used by the methods of the subclasses, which consume it
+     * before they return.
+     * </p>
+     *
+     * @param filter
+     *                the filter that should be used to search the matched
+     *                entities. Null means all the entities are returned.
+     * @param fetchSize
+     *                the number of entities retrieved at a time. Should be
+     *                positive.
+     * @return the iterator over the entities. The DAOException thrown while
+     *         retrieving a page is wrapped in an IllegalStateException.
+     * @throws IllegalArgumentException
+     *                 if fetchSize <= 0.
+     * @throws DAOConfigurationException
+     *                 if the configured entityManager is invalid (invalid means
+     *                 null here).
+     * @since 1.2
+     */
+    protected Iterator<T> stream(Filter filter, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("'fetchSize' should not be <= 0.");
+        }
+        Helper.checkEntityManager(entityManager);
+        return new PageIterator(filter, fetchSize);
+    }
+
     /**
      * Performs the retrieval of all entities that have the given name in the
      * persistence. If nothing is found, return an empty list. Return only the
@@ -625,4 +737,160 @@ public abstract class GenericEJB3DAO<T extends AuditableEntity, Id extends Seria
         }
     }
 
+    /**
+     * <p>
+     * The iterator returned by {@link GenericEJB3DAO#stream(Filter, int)}. It
+     * keeps one page of entities and the id of the last retrieved one.
+     * </p>
+     * <p>
+     * <strong>THREAD SAFETY:</strong> This class is mutable and not thread
+     * safe.
+     * </p>
+     *
+     * @author TCSDEVELOPER
+     * @version 1.2
+     * @since 1.2
+     */
+    private class PageIterator implements Iterator<T> {
+        /**
+         * The filter of the entities, null means all the entities are
+         * returned.
+         */
+        private final Filter filter;
+
+        /**
+         * The number of entities retrieved at a time.
+         */
+        private final int fetchSize;
+
+        /**
+         * The current page. Null before the first page is retrieved.
+         */
+        private List<T> page;
+
+        /**
+         * The index of the next entity of the current page.
+         */
+        private int index;
+
+        /**
+         * The id of the last retrieved entity.
+         */
+        private long lastId;
+
+        /**
+         * Whether the last page was retrieved.
+         */
+        private boolean last;
+
+        /**
+         * Creates the iterator.
+         *
+         * @param filter
+         *                the filter of the entities, null means all the
+         *                entities are returned.
+         * @param fetchSize
+         *                the number of entities retrieved at a time.
+         */
+        PageIterator(Filter filter, int fetchSize) {
+            this.filter = filter;
+            this.fetchSize = fetchSize;
+        }
+
+        /**
+         * Checks whether there are more entities, retrieving the next page if
+         * the current one is consumed.
+         *
+         * @return true if there are more entities.
+         * @throws IllegalStateException
+         *                 if failed to retrieve the next page.
+         */
+        public boolean hasNext() {
+            while (page == null || index == page.size()) {
+                if (last) {
+                    return false;
+                }
+                if (page != null) {
+                    // write the pending changes, then detach the previous page
+                    // before retrieving the next one
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+                try {
+                    page = filter == null ? retrieveNextPage() : searchNextPage();
+                } catch (DAOException e) {
+                    throw new IllegalStateException("Failed to retrieve the entities after id:" + lastId + ".", e);
+                }
+                index = 0;
+            }
+            return true;
+        }
+
+        /**
+         * Returns the next entity.
+         *
+         * @return the next entity.
+         * @throws NoSuchElementException
+         *                 if there are no more entities.
+         * @throws IllegalStateException
+         *                 if failed to retrieve the next page.
+         */
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.get(index++);
+        }
+
+        /**
+         * The entities can't be removed through this iterator.
+         *
+         * @throws UnsupportedOperationException
+         *                 always.
+         */
+        public void remove() {
+            throw new UnsupportedOperationException("The entities can't be removed through this iterator.");
+        }
+
+        /**
+         * Retrieves the next page of all the entities.
+         *
+         * @return the next page.
+         * @throws DAOException
+         *                 if any error occurs while retrieving the page.
+         */
+        @SuppressWarnings("unchecked")
+        private List<T> retrieveNextPage() throws DAOException {
+            List<T> result = retrieveAll(page == null ? null : (Id) ((Long) lastId), fetchSize);
+            if (result.size() < fetchSize) {
+                last = true;
+            }
+            if (!result.isEmpty()) {
+                lastId = result.get(result.size() - 1).getId();
+            }
+            return result;
+        }
+
+        /**
+         * Retrieves the next page of the entities matching the filter.
+         *
+         * @return the next page.
+         * @throws DAOException
+         *                 if any error occurs while retrieving the page.
+         */
+        private List<T> searchNextPage() throws DAOException {
+            // the same condition as retrieveAll: a null deleted flag means not deleted
+            Filter notDeleted = new OrFilter(new NullFilter("deleted"), new EqualToFilter("deleted",
+                    Boolean.FALSE));
+            List<T> result = searchByFilterUtility.search(new AndFilter(filter, notDeleted), entityManager,
+                    page == null ? null : lastId, fetchSize);
+            if (result.size() < fetchSize) {
+                last = true;
+            }
+            if (!result.isEmpty()) {
+                lastId = result.get(result.size() - 1).getId();
+            }
+            return result;
+        }
+    }
 }
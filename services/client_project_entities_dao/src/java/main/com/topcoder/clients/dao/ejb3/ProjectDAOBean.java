@@ -28,8 +28,8 @@ import com.topcoder.clients.dao.ProjectDAO;
 import com.topcoder.clients.model.Client;
 import com.topcoder.clients.model.Project;
 import com.topcoder.clients.model.ProjectContestFee;
+import com.topcoder.service.util.idgenerator.BlockIDGeneratorFactory;
 import com.topcoder.util.idgenerator.IDGenerator;
-import com.topcoder.util.idgenerator.IDGeneratorFactory;
 
 /**
  * <p>
@@ -82,13 +82,23 @@ import com.topcoder.util.idgenerator.IDGeneratorFactory;
  * </p>
  *
  * <p>
+ * Version 1.3 Change Notes:
+ * - Add method {@link #retrieveAll(boolean, Long, int)} to retrieve the projects page by page.
+ * </p>
+ *
+ * <p>
+ * Version 1.4 Change Notes:
+ * - The user account IDs are taken from BlockIDGeneratorFactory, which reserves the IDs in blocks.
+ * </p>
+ *
+ * <p>
  * <strong>THREAD SAFETY:</strong> This class is technically mutable since the inherited configuration properties (with
  * {@link PersistenceContext}) are set after construction, but the container will not initialize the properties more
  * than once for the session beans and the EJB3 container ensure the thread safety in this case.
  * </p>
  *
- * @author Mafy, snow01, flying2hk, TCSDEVELOPER
- * @version 1.2
+ * @author Mafy, snow01, flying2hk, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.4
  */
 @TransactionManagement(TransactionManagementType.CONTAINER)
 @TransactionAttribute(TransactionAttributeType.REQUIRED)
@@ -346,6 +356,67 @@ public class ProjectDAOBean extends GenericEJB3DAO<Project, Long> implements
         }
     }
 
+    /**
+     * Performs the retrieval of one page of the active projects from the
+     * persistence, ordered by id. If include children is true return the
+     * Project.childProjects list too; otherwise the list should not be
+     * returned. If nothing is found, return an empty list. Return only the
+     * entities that are not marked as deleted.
+     *
+     * @param includeChildren
+     *                the flag that mention if the Project.childrenProjects list
+     *                should be returned or not.
+     * @param afterId
+     *                the id after which the projects are retrieved. Null
+     *                means the first page is retrieved.
+     * @param limit
+     *                the maximum number of projects to retrieve. Should be
+     *                positive.
+     * @return the page of Projects found in the persistence. If nothing is
+     *         found, return an empty list.
+     * @throws IllegalArgumentException
+     *                 if limit <= 0.
+     * @throws DAOConfigurationException
+     *                 if the configured entityManager is invalid (invalid means
+     *                 null here).
+     * @throws DAOException
+     *                 if any error occurs while performing this operation.
+     * @since 1.3
+     */
+    @SuppressWarnings("unchecked")
+    public List<Project> retrieveAll(boolean includeChildren, Long afterId, int limit)
+        throws DAOException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("'limit' should not be <= 0.");
+        }
+        EntityManager entityManager = Helper
+                .checkEntityManager(getEntityManager());
+
+        try {
+            String queryString = "select p from com.topcoder.clients.model.Project p"
+                    + " where (p.deleted is null or p.deleted = false) and p.active = true"
+                    + (afterId == null ? "" : " and p.id > :afterId") + " order by p.id";
+            Query query = entityManager.createQuery(queryString);
+            if (afterId != null) {
+                query.setParameter("afterId", afterId);
+            }
+            query.setMaxResults(limit);
+
+            // Involves an unchecked conversion:
+            List<Project> projects = query.getResultList();
+
+            // the children of the page are fetched in batches, see Project.childProjects
+            if (!includeChildren) {
+                for (Project proj : projects) {
+                    proj.setChildProjects(null);
+                }
+            }
+            return projects;
+        } catch (Exception e) {
+            throw new DAOException("Failed to retrieve the projects after id:" + afterId + ".", e);
+        }
+    }
+
 
     /**
      * <p>
@@ -1070,7 +1141,7 @@ public class ProjectDAOBean extends GenericEJB3DAO<Project, Long> implements
 
             if (null == userAccountId && isAdd) {
                 // generate the user account id.
-                IDGenerator idGen = IDGeneratorFactory.getIDGenerator(ID_KEY);
+                IDGenerator idGen = BlockIDGeneratorFactory.getIDGenerator(ID_KEY);
 
                 userAccountId = idGen.getNextID();
 
@@ -6,6 +6,8 @@ package com.topcoder.clients.dao.ejb3;
 import java.io.Serializable;
 import java.util.List;
 
+import javax.persistence.EntityManager;
+
 import com.topcoder.clients.dao.DAOException;
 import com.topcoder.clients.model.AuditableEntity;
 import com.topcoder.search.builder.filter.Filter;
@@ -20,12 +22,19 @@ import com.topcoder.search.builder.filter.Filter;
  * <strong>THREAD SAFETY:</strong> Implementations of this interface should be
  * thread safe.
  * </p>
+ * <p>
+ * Version 1.1 Change Notes:
+ * <ul>
+ * <li>Added the search of a page of the entities matching a filter, in the
+ * order of their ids.</li>
+ * </ul>
+ * </p>
  *
  * @param <T> The entity type to operate
  * @param <Id> The type of id of entity
  *
- * @author Mafy, TCSDEVELOPER
- * @version 1.0
+ * @author Mafy, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public interface SearchByFilterUtility<T extends AuditableEntity, Id extends Serializable> {
     /**
@@ -45,4 +54,33 @@ public interface SearchByFilterUtility<T extends AuditableEntity, Id extends Ser
      */
     public List<T> search(Filter filter) throws DAOException;
 
+    /**
+     * Defines the operation that performs the retrieval of at most limit
+     * entities that match the given filter and have an id greater than the
+     * given one, in the order of their ids. The filter, the id condition, the
+     * order and the limit are all applied by the query.
+     *
+     * @param filter
+     *                the filter that should be used to search the matched
+     *                entities. Should not be null.
+     * @param entityManager
+     *                the entity manager used to run the query. Should not be
+     *                null.
+     * @param afterId
+     *                the id after which the entities are retrieved, null means
+     *                from the first entity.
+     * @param limit
+     *                the maximum number of retrieved entities. Should be
+     *                positive.
+     * @return the list with the matched entities, in the order of their ids.
+     *         If nothing is found, return an empty list.
+     * @throws IllegalArgumentException
+     *                 if filter or entityManager is null, or limit <= 0.
+     * @throws DAOException
+     *                 if any error occurs while performing this operation.
+     * @since 1.1
+     */
+    public List<T> search(Filter filter, EntityManager entityManager,
+            Long afterId, int limit) throws DAOException;
+
 }
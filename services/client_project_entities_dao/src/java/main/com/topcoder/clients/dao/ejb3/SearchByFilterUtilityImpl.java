@@ -4,16 +4,47 @@
 package com.topcoder.clients.dao.ejb3;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
 
 import com.topcoder.clients.dao.DAOConfigurationException;
 import com.topcoder.clients.dao.DAOException;
 import com.topcoder.clients.model.AuditableEntity;
 import com.topcoder.search.builder.SearchBuilderConfigurationException;
 import com.topcoder.search.builder.SearchBuilderException;
+import com.topcoder.search.builder.SearchBuilderHelper;
 import com.topcoder.search.builder.SearchBundle;
 import com.topcoder.search.builder.SearchBundleManager;
+import com.topcoder.search.builder.SearchContext;
+import com.topcoder.search.builder.filter.AndFilter;
+import com.topcoder.search.builder.filter.BetweenFilter;
+import com.topcoder.search.builder.filter.EqualToFilter;
 import com.topcoder.search.builder.filter.Filter;
+import com.topcoder.search.builder.filter.GreaterThanFilter;
+import com.topcoder.search.builder.filter.GreaterThanOrEqualToFilter;
+import com.topcoder.search.builder.filter.InFilter;
+import com.topcoder.search.builder.filter.LessThanFilter;
+import com.topcoder.search.builder.filter.LessThanOrEqualToFilter;
+import com.topcoder.search.builder.filter.LikeFilter;
+import com.topcoder.search.builder.filter.NotFilter;
+import com.topcoder.search.builder.filter.NullFilter;
+import com.topcoder.search.builder.filter.OrFilter;
+import com.topcoder.search.builder.hibernate.AndFragmentBuilder;
+import com.topcoder.search.builder.hibernate.EqualsFragmentBuilder;
+import com.topcoder.search.builder.hibernate.InFragmentBuilder;
+import com.topcoder.search.builder.hibernate.LikeFragmentBuilder;
+import com.topcoder.search.builder.hibernate.NotFragmentBuilder;
+import com.topcoder.search.builder.hibernate.NullFragmentBuilder;
+import com.topcoder.search.builder.hibernate.OrFragmentBuilder;
+import com.topcoder.search.builder.hibernate.RangeFragmentBuilder;
+import com.topcoder.util.classassociations.ClassAssociator;
+import com.topcoder.util.classassociations.IllegalHandlerException;
+import com.topcoder.util.config.Property;
 import com.topcoder.util.errorhandling.ExceptionUtils;
 
 /**
@@ -28,12 +59,21 @@ import com.topcoder.util.errorhandling.ExceptionUtils;
  * immutable. Search Builder used is used only local and not shared between
  * multiple threads so this component is thread safe.
  * </p>
+ * <p>
+ * Version 1.1 Change Notes:
+ * <ul>
+ * <li>Added the search of a page of the entities matching a filter. The query
+ * is built from the context and the aliases configured for the search bundle
+ * with the Hibernate fragment builders of Search Builder, and is run by the
+ * given entity manager with the id condition, the order and the limit.</li>
+ * </ul>
+ * </p>
  *
  * @param <T> The entity type to operate
  * @param <Id> The type of id of entity
  *
- * @author Mafy, TCSDEVELOPER
- * @version 1.0
+ * @author Mafy, TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public class SearchByFilterUtilityImpl<T extends AuditableEntity, Id extends Serializable>
         implements SearchByFilterUtility<T, Id> {
@@ -58,6 +98,46 @@ public class SearchByFilterUtilityImpl<T extends AuditableEntity, Id extends Ser
      */
     private final SearchBundle searchBundle;
 
+    /**
+     * <p>
+     * Represents the context of the query configured for the search bundle,
+     * the filter condition is appended to it.
+     * </p>
+     * <p>
+     * Initialized in the constructor and never changed afterwards. Null if the
+     * search bundle has no context configured.
+     * </p>
+     *
+     * @since 1.1
+     */
+    private final String context;
+
+    /**
+     * <p>
+     * Represents the aliases of the fields configured for the search bundle.
+     * </p>
+     * <p>
+     * Initialized in the constructor with non null value and never changed
+     * afterwards.
+     * </p>
+     *
+     * @since 1.1
+     */
+    private final Map<String, String> aliasMap = new HashMap<String, String>();
+
+    /**
+     * <p>
+     * Represents the Hibernate fragment builders of the filters.
+     * </p>
+     * <p>
+     * Initialized in the constructor with non null value and never changed
+     * afterwards.
+     * </p>
+     *
+     * @since 1.1
+     */
+    private final ClassAssociator fragmentBuilders = new ClassAssociator();
+
     /**
      * <p>
      * Constructs a new 'SearchByFilterUtilityImpl' instance. Initialize the
@@ -76,7 +156,8 @@ public class SearchByFilterUtilityImpl<T extends AuditableEntity, Id extends Ser
      *                 null or empty string.
      * @throws DAOConfigurationException
      *                 if this utility can not be configured. (if SearcBundle
-     *                 could not be initialized).
+     *                 could not be initialized, or its configuration could not
+     *                 be read).
      */
     public SearchByFilterUtilityImpl(String searchBundleManagerNamespace,
             String searchBundleName) {
@@ -89,11 +170,39 @@ public class SearchByFilterUtilityImpl<T extends AuditableEntity, Id extends Ser
                     searchBundleManagerNamespace);
             searchBundle = searchBundleManager
                     .getSearchBundle(searchBundleName);
+            Property bundleConfig = SearchBuilderHelper.getConfigPropertyObject(
+                    searchBundleManagerNamespace, "searchBundles", true)
+                    .getProperty(searchBundleName);
+            context = bundleConfig == null ? null : bundleConfig.getValue("context");
+            Property aliasConfig = bundleConfig == null ? null : bundleConfig.getProperty("alias");
+            if (aliasConfig != null) {
+                for (Iterator<?> iter = aliasConfig.list().iterator(); iter.hasNext();) {
+                    Property alias = (Property) iter.next();
+                    aliasMap.put(alias.getName(), alias.getValue());
+                }
+            }
+            fragmentBuilders.addClassAssociation(AndFilter.class, new AndFragmentBuilder());
+            fragmentBuilders.addClassAssociation(OrFilter.class, new OrFragmentBuilder());
+            fragmentBuilders.addClassAssociation(LikeFilter.class, new LikeFragmentBuilder());
+            fragmentBuilders.addClassAssociation(NotFilter.class, new NotFragmentBuilder());
+            fragmentBuilders.addClassAssociation(EqualToFilter.class, new EqualsFragmentBuilder());
+            fragmentBuilders.addClassAssociation(InFilter.class, new InFragmentBuilder());
+            fragmentBuilders.addClassAssociation(NullFilter.class, new NullFragmentBuilder());
+            RangeFragmentBuilder rangeFragmentBuilder = new RangeFragmentBuilder();
+            fragmentBuilders.addClassAssociation(GreaterThanFilter.class, rangeFragmentBuilder);
+            fragmentBuilders.addClassAssociation(GreaterThanOrEqualToFilter.class, rangeFragmentBuilder);
+            fragmentBuilders.addClassAssociation(LessThanFilter.class, rangeFragmentBuilder);
+            fragmentBuilders.addClassAssociation(LessThanOrEqualToFilter.class, rangeFragmentBuilder);
+            fragmentBuilders.addClassAssociation(BetweenFilter.class, rangeFragmentBuilder);
         } catch (SearchBuilderConfigurationException e) {
             throw new DAOConfigurationException(
                     "Failed to create SearchBundleManager with searchBundleManagerNamespace:"
                             + searchBundleManagerNamespace
                             + " and searchBundleName:" + searchBundleName, e);
+        } catch (IllegalHandlerException e) {
+            throw new DAOConfigurationException(
+                    "Failed to register the fragment builders of the search bundle:"
+                            + searchBundleName, e);
         }
     }
 
@@ -124,4 +233,69 @@ public class SearchByFilterUtilityImpl<T extends AuditableEntity, Id extends Ser
                     e);
         }
     }
+
+    /**
+     * Performs the retrieval of at most limit entities that match the given
+     * filter and have an id greater than the given one, in the order of their
+     * ids. The filter, the id condition, the order and the limit are all
+     * applied by the query, so a selective filter costs a single query per
+     * page. If nothing is found, return an empty list.
+     *
+     * @param filter
+     *                the filter that should be used to search the matched
+     *                entities. Should not be null.
+     * @param entityManager
+     *                the entity manager used to run the query. Should not be
+     *                null.
+     * @param afterId
+     *                the id after which the entities are retrieved, null means
+     *                from the first entity.
+     * @param limit
+     *                the maximum number of retrieved entities. Should be
+     *                positive.
+     * @return the list with the matched entities, in the order of their ids.
+     *         If nothing is found, return an empty list.
+     * @throws IllegalArgumentException
+     *                 if filter or entityManager is null, or limit <= 0.
+     * @throws DAOException
+     *                 if any error occurs while performing this operation.
+     * @since 1.1
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> search(Filter filter, EntityManager entityManager,
+            Long afterId, int limit) throws DAOException {
+        ExceptionUtils.checkNull(filter, null, null, "filter");
+        ExceptionUtils.checkNull(entityManager, null, null, "entityManager");
+        if (limit <= 0) {
+            throw new IllegalArgumentException("'limit' should not be <= 0.");
+        }
+        if (context == null) {
+            throw new DAOException("The search bundle has no context to build the query from.");
+        }
+        Filter pageFilter = afterId == null ? filter : new AndFilter(filter,
+                new GreaterThanFilter("id", afterId));
+        try {
+            SearchContext searchContext = new SearchContext(fragmentBuilders, aliasMap);
+            searchContext.getSearchString().append(context);
+            searchContext.getFragmentBuilder(pageFilter).buildSearch(pageFilter, searchContext);
+            String idField = searchContext.getFieldName("id");
+            searchContext.getSearchString().append(" order by ").append(idField == null ? "id" : idField);
+
+            Query query = entityManager.createQuery(searchContext.getSearchString().toString());
+            List<?> parameters = searchContext.getBindableParameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                query.setParameter(i + 1, parameters.get(i));
+            }
+            query.setMaxResults(limit);
+            return query.getResultList();
+        } catch (SearchBuilderException e) {
+            throw new DAOException(
+                    "Failed to search filter using search builder.", e);
+        } catch (ClassCastException e) {
+            throw new DAOException("The found entities are not correct type.",
+                    e);
+        } catch (Exception e) {
+            throw new DAOException("Failed to search entities after id:" + afterId + ".", e);
+        }
+    }
 }
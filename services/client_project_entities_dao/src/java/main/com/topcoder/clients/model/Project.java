@@ -14,6 +14,8 @@ import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+
+import org.hibernate.annotations.BatchSize;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlType;
@@ -42,12 +44,17 @@ import javax.xml.bind.annotation.XmlType;
  * </p>
  *
  * <p>
+ * Version 1.0.2 Change Notes:
+ *  - The child projects are loaded in batches, instead of one query per project.
+ * </p>
+ *
+ * <p>
  * <strong>THREAD SAFETY:</strong> This class contains only mutable fields so
  * therefore it is not thread safe.
  * </p>
  *
  * @author Mafy, TCSDEVELOPER, TCSASSEMBLER
- * @version 1.0.1
+ * @version 1.0.2
  */
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "clientProject", propOrder = { "company", "active", "salesTax",
@@ -246,8 +253,12 @@ public class Project extends AuditableEntity {
      * There are no restrictions at this moment. It can take any value.
      * OPTIONAL.
      * </p>
+     * <p>
+     * The children of up to 100 loaded projects are retrieved by one query.
+     * </p>
      */
     @OneToMany(cascade = CascadeType.REFRESH, fetch=FetchType.EAGER)
+    @BatchSize(size = 100)
     @JoinColumn(name = "parent_project_id", referencedColumnName = "project_id", updatable = false)
     private List<Project> childProjects = new ArrayList<Project>();
 
@@ -4,6 +4,7 @@
 package com.topcoder.clients.dao.ejb3;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -699,6 +700,180 @@ public class GenericEJB3DAOTest extends TestBase {
         }
     }
 
+    /**
+     * <p>
+     * Tests the <code>retrieveAll(Id afterId, int limit)</code> for proper
+     * behavior.
+     * </p>
+     *
+     * @throws Exception
+     *                 to JUnit
+     */
+    public void test_retrieveAll_page_1() throws Exception {
+        target.initialize();
+
+        // prepare data
+        Client client = createClient(200L);
+        createProjectWithClient(103, client);
+        createProjectWithClient(100, client);
+        createProjectWithClient(102, client);
+        createProjectWithClient(101, client);
+        EntityManager entityManager = getEntityManager();
+        entityManager.createNativeQuery("update project set is_deleted=" + 1 + " where project_id=" + 102)
+                .executeUpdate();
+
+        List<Project> res = target.retrieveAll(null, 2);
+        assertEquals("The page should be full.", 2, res.size());
+        assertEquals("should be returned in the order of ids", 100L, res.get(0).getId());
+        assertEquals("should be returned in the order of ids", 101L, res.get(1).getId());
+
+        res = target.retrieveAll(101L, 2);
+        assertEquals("Only not deleted project should be returned.", 1, res.size());
+        assertEquals("should be returned with correct id", 103L, res.get(0).getId());
+
+        assertEquals("No project should be returned.", 0, target.retrieveAll(103L, 2).size());
+    }
+
+    /**
+     * <p>
+     * Tests the <code>retrieveAll(Id afterId, int limit)</code> for proper
+     * behavior. IllegalArgumentException if limit <= 0.
+     * </p>
+     *
+     * @throws Exception
+     *                 to JUnit
+     */
+    public void test_retrieveAll_page_failure_1() throws Exception {
+        try {
+            target.retrieveAll(null, 0);
+            fail("IllegalArgumentException expected.");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    /**
+     * <p>
+     * Tests the <code>stream(Filter filter, int fetchSize)</code> for proper
+     * behavior without filter.
+     * </p>
+     *
+     * @throws Exception
+     *                 to JUnit
+     */
+    public void test_stream_1() throws Exception {
+        target.initialize();
+
+        // prepare data
+        Client client = createClient(200L);
+        for (long id = 100; id < 107; id++) {
+            createProjectWithClient(id, client);
+        }
+        EntityManager entityManager = getEntityManager();
+        entityManager.createNativeQuery("update project set is_deleted=" + 1 + " where project_id=" + 104)
+                .executeUpdate();
+
+        List<Long> ids = new ArrayList<Long>();
+        for (Iterator<Project> it = target.stream(null, 2); it.hasNext();) {
+            ids.add(it.next().getId());
+        }
+        assertEquals("Only not deleted project should be returned in the order of ids.",
+                "[100, 101, 102, 103, 105, 106]", ids.toString());
+    }
+
+    /**
+     * <p>
+     * Tests the <code>stream(Filter filter, int fetchSize)</code> for proper
+     * behavior with a filter.
+     * </p>
+     *
+     * @throws Exception
+     *                 to JUnit
+     */
+    public void test_stream_2() throws Exception {
+        target.initialize();
+
+        // prepare data
+        Client client = createClient(11);
+        Project project = createProjectWithClient(110, client);
+        createProjectWithClient(111, client);
+        createProjectWithClient(115, client);
+        createProjectWithClient(130, client);
+        ProjectStatus status = createProjectStatus(project.getProjectStatus().getId() + 1);
+        EntityManager entityManager = getEntityManager();
+        entityManager.createNativeQuery(
+                "update project set project_status_id=" + status.getId() + " where project_id=" + 110).executeUpdate();
+        entityManager.getTransaction().commit();
+
+        Filter filter = new EqualToFilter("projectStatus", status.getId() - 1);
+        List<Long> ids = new ArrayList<Long>();
+        for (Iterator<Project> it = target.stream(filter, 3); it.hasNext();) {
+            ids.add(it.next().getId());
+        }
+        assertEquals("The matching projects should be returned in the order of ids.", "[111, 115, 130]",
+                ids.toString());
+    }
+
+    /**
+     * <p>
+     * Tests the <code>stream(Filter filter, int fetchSize)</code> for proper
+     * behavior with a selective filter. The matching projects are paged by the
+     * query, and the changes made before the next page is retrieved are
+     * flushed instead of being lost.
+     * </p>
+     *
+     * @throws Exception
+     *                 to JUnit
+     */
+    public void test_stream_3() throws Exception {
+        target.initialize();
+
+        // prepare data
+        Client client = createClient(12);
+        Project project = createProjectWithClient(120, client);
+        for (long id = 121; id < 140; id++) {
+            createProjectWithClient(id, client);
+        }
+        ProjectStatus status = createProjectStatus(project.getProjectStatus().getId() + 1);
+        EntityManager entityManager = getEntityManager();
+        entityManager.createNativeQuery("update project set project_status_id=" + status.getId()
+                + " where project_id in (122, 131, 139)").executeUpdate();
+        entityManager.getTransaction().commit();
+        entityManager.getTransaction().begin();
+
+        Filter filter = new EqualToFilter("projectStatus", status.getId());
+        List<Long> ids = new ArrayList<Long>();
+        for (Iterator<Project> it = target.stream(filter, 1); it.hasNext();) {
+            Project next = it.next();
+            next.setName("streamed");
+            ids.add(next.getId());
+        }
+        entityManager.getTransaction().commit();
+        assertEquals("The matching projects should be returned in the order of ids.", "[122, 131, 139]",
+                ids.toString());
+        List<?> res = entityManager.createNativeQuery(
+                "select * from project where project_id in (122, 131) and name = 'streamed'").getResultList();
+        assertEquals("The changes of the previous pages should be flushed.", 2, res.size());
+    }
+
+    /**
+     * <p>
+     * Tests the <code>stream(Filter filter, int fetchSize)</code> for proper
+     * behavior. IllegalArgumentException if fetchSize <= 0.
+     * </p>
+     *
+     * @throws Exception
+     *                 to JUnit
+     */
+    public void test_stream_failure_1() throws Exception {
+        try {
+            target.stream(null, 0);
+            fail("IllegalArgumentException expected.");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
     /**
      * <p>
      * Tests the <code>searchByName(String name)</code> for proper behavior.
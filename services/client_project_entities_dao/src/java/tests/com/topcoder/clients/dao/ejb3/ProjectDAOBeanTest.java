@@ -339,6 +339,53 @@ public class ProjectDAOBeanTest extends TestBase {
         assertEquals("The number of returned projects.", 4, res.size());
     }
 
+    /**
+     * <p>
+     * Tests the <code>retrieveAll(boolean, Long, int)</code> for proper behavior.
+     * </p>
+     *
+     * @throws Exception
+     *                 to JUnit
+     */
+    public void test_retrieveAll_page_1() throws Exception {
+        // prepare data
+        Client client = createClient(100);
+        createProjectWithClient(10, client);
+        createProjectWithClient(12, client);
+        createProjectWithClient(13, client);
+        createProjectWithClient(14, client);
+
+        setChildProject(10, 12);
+        setChildProject(10, 13);
+
+        List<Project> res = target.retrieveAll(true, null, 3);
+        assertEquals("The number of returned projects.", 3, res.size());
+        assertEquals("The children should be returned.", 2, res.get(0).getChildProjects().size());
+
+        res = target.retrieveAll(false, 13L, 3);
+        assertEquals("The number of returned projects.", 1, res.size());
+        assertEquals("The project should be returned.", 14L, res.get(0).getId());
+        assertNull("The children should not be returned.", res.get(0).getChildProjects());
+    }
+
+    /**
+     * <p>
+     * Tests the <code>retrieveAll(boolean, Long, int)</code> for proper behavior.
+     * IllegalArgumentException if limit <= 0.
+     * </p>
+     *
+     * @throws Exception
+     *                 to JUnit
+     */
+    public void test_retrieveAll_page_failure_1() throws Exception {
+        try {
+            target.retrieveAll(true, null, -1);
+            fail("IllegalArgumentException expected.");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+
     /**
      * <p>
      * Tests the <code>retrieveAll(boolean)</code> for proper behavior.
@@ -1,6 +1,6 @@
 /*
 
- * Copyright (C) 2010 - 2013 TopCoder Inc., All Rights Reserved.
+ * Copyright (C) 2010 - 2016 TopCoder Inc., All Rights Reserved.
  */
 package com.topcoder.direct.cloudvm.service.bean;
 
@@ -9,10 +9,14 @@ import java.util.*;
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.annotation.security.DeclareRoles;
+import javax.annotation.security.PermitAll;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.EJB;
 import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerService;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.ejb.TransactionManagement;
@@ -81,9 +85,22 @@ import com.topcoder.util.log.LogManager;
  *     </li>
  * </ul>
  * </p>
+ *
+ * <p>
+ * Version 1.5 change notes:
+ * <ul>
+ *     <li>added {@link #reconcileVMInstanceStatus(Timer)} timeout method which polls the vm providers every
+ *     {@link #statusRefreshInterval} milliseconds for the accounts which have live instances, and caches the
+ *     statuses in {@link #STATUS_CACHE}.</li>
+ *     <li>updated {@link #populateVMInstanceDataWithLatestStatus} to read the cached statuses, to retrieve the vm
+ *     images and usages in bulk, and to only save the vm instances which changed.</li>
+ *     <li>added {@link #setAmazonServiceInvoker(AmazonCloudServiceInvoker)} and
+ *     {@link #setNotusServiceInvoker(NotusCloudServiceInvoker)} so the invokers can be replaced.</li>
+ * </ul>
+ * </p>
  * 
  * @author Standlove, kanakarajank, hohosky, gentva, jiajizhou86
- * @version 1.4
+ * @version 1.5
  */
 @Stateless
 @TransactionManagement(TransactionManagementType.CONTAINER)
@@ -216,6 +233,46 @@ public class CloudVMServiceBean implements CloudVMServiceRemote, CloudVMServiceL
 	 */
 	private static final int BUG_RACE_TYPE_ID = 3;
 
+    /**
+     * The snapshot of the vm instance statuses retrieved from the vm providers, shared by all the bean instances.
+     *
+     * @since 1.5
+     */
+    private static final VMInstanceStatusCache STATUS_CACHE = new VMInstanceStatusCache();
+
+    /**
+     * The lock used to schedule the status reconciler once.
+     *
+     * @since 1.5
+     */
+    private static final Object RECONCILER_LOCK = new Object();
+
+    /**
+     * Whether the status reconciler is scheduled.
+     *
+     * @since 1.5
+     */
+    private static volatile boolean reconcilerScheduled;
+
+    /**
+     * The interval in milliseconds between two status reconciliations. Will be injected by the container. Null or
+     * non-positive value means the statuses are only retrieved on the vm instance requests.
+     *
+     * @since 1.5
+     */
+    @Resource(name = "statusRefreshInterval")
+    private Long statusRefreshInterval;
+
+    /**
+     * The max age in milliseconds of a cached status to be returned without calling the vm provider. Will be
+     * injected by the container. Null or non-positive value means the statuses are always retrieved from the vm
+     * providers.
+     *
+     * @since 1.5
+     */
+    @Resource(name = "statusMaxAge")
+    private Long statusMaxAge;
+
 	/**
 	 * Constructor.
 	 */
@@ -247,6 +304,27 @@ public class CloudVMServiceBean implements CloudVMServiceRemote, CloudVMServiceL
 		}
         Helper.logExit(logger, "CloudVMServiceBean.init()");
 	}
+
+    /**
+     * Sets the provider of the implementation logic to invoke the launch/get/terminate VM Instance on Amazon.
+     *
+     * @param amazonServiceInvoker the invoker to set.
+     * @since 1.5
+     */
+    public void setAmazonServiceInvoker(AmazonCloudServiceInvoker amazonServiceInvoker) {
+        this.amazonServiceInvoker = amazonServiceInvoker;
+    }
+
+    /**
+     * Sets the provider of the implementation logic to invoke the launch/get/terminate VM Instance on Notus.
+     *
+     * @param notusServiceInvoker the invoker to set.
+     * @since 1.5
+     */
+    public void setNotusServiceInvoker(NotusCloudServiceInvoker notusServiceInvoker) {
+        this.notusServiceInvoker = notusServiceInvoker;
+    }
+
 	/**
 	 * Launch VM instance.
 	 * 
@@ -564,6 +642,7 @@ public class CloudVMServiceBean implements CloudVMServiceRemote, CloudVMServiceL
 	public List<VMInstanceData> getVMInstances(TCSubject tcSubject) throws CloudVMServiceException {
 		Helper.logEnter(logger, "CloudVMServiceBean.getVMInstances");
 		Helper.checkNull("tcSubject", tcSubject);
+		scheduleStatusReconciler();
 		try {
 			EntityManager entityManager = getEntityManager();
 			List<VMAccount> vmAccounts;
@@ -700,6 +779,7 @@ public class CloudVMServiceBean implements CloudVMServiceRemote, CloudVMServiceL
             }
         }
         List<Long> distinctContestIds = new ArrayList<Long>(distinctContestIdSet);
+        scheduleStatusReconciler();
 
         try {
             EntityManager entityManager = getEntityManager();
@@ -753,9 +833,11 @@ public class CloudVMServiceBean implements CloudVMServiceRemote, CloudVMServiceL
 
     /**
      * <p>
-     * Populate VMInstanceData with the latest vm status from the vm provider for the given vm instances.
-     * If the status is {@link VMInstanceStatus.TERMINATED} while the vm instance's isTerminated property is false,
-     * the vm instance will be marked as terminated.
+     * Populate VMInstanceData with the latest vm status for the given vm instances. The statuses are read from the
+     * status snapshot kept by {@link #reconcileVMInstanceStatus(Timer)}, only the live instances whose status is
+     * missing or older than {@link #statusMaxAge} are retrieved from the vm provider. If the status is
+     * {@link VMInstanceStatus.TERMINATED} while the vm instance's isTerminated property is false, the vm instance will
+     * be marked as terminated.
      * </p>
      * @param tcSubject the currently logged-in user info.
      * @param vmAccount the VM account of the VMInstances.
@@ -768,30 +850,84 @@ public class CloudVMServiceBean implements CloudVMServiceRemote, CloudVMServiceL
                                                                               VMAccount vmAccount,
                                                                               List<VMInstance> instances)
             throws CloudVMServiceException {
-        EntityManager entityManager = getEntityManager();
+        Map<Long, VMImage> vmImageMap = getVMImageMap(instances);
+        Map<Long, VMUsage> vmUsageMap = getVMUsageMap(instances);
+        long freshTime = System.currentTimeMillis() - (statusMaxAge == null ? 0 : statusMaxAge);
+
         // map to reference by instance id, list to preserve order
-        Map<String, VMInstanceData> notusInstanceDataMap = new LinkedHashMap<String, VMInstanceData>();
-        Map<String, VMInstanceData> amazonInstanceDataMap = new LinkedHashMap<String, VMInstanceData>();
         Map<String, VMInstanceData> allInstanceDataMap = new LinkedHashMap<String, VMInstanceData>();
+        List<VMInstanceData> staleInstanceData = new ArrayList<VMInstanceData>();
 
         // create VMInstanceData objects
         for (VMInstance instance : instances) {
+            if (!vmImageMap.containsKey(instance.getVmImageId())) {
+                logger.log(Level.ERROR, "Image Id not found for instance : "+instance.getId());
+                continue;
+            }
             VMInstanceData instanceData = new VMInstanceData();
             instanceData.setInstance(instance);
-            VMImage vmImage = getVMImage(instance.getVmImageId());
-            if (vmImage != null ){
-                int providerId = (int)vmImage.getVmProvider().getId();
-                if (providerId == Helper.NOTUS_PROVIDER){
-                    notusInstanceDataMap.put(instance.getAwsInstanceId(), instanceData);
-                } else if (providerId ==  Helper.AMAZON_PROVIDER){
-                    amazonInstanceDataMap.put(instance.getAwsInstanceId(), instanceData);
-                }
-                allInstanceDataMap.put(instance.getAwsInstanceId(), instanceData);
+            allInstanceDataMap.put(instance.getAwsInstanceId(), instanceData);
+
+            VMInstanceStatusCache.Entry entry = STATUS_CACHE.get(instance.getAwsInstanceId());
+            if (instance.isTerminated()) {
+                instanceData.setStatus(VMInstanceStatus.TERMINATED);
+            } else if (entry != null && entry.isNewerThan(freshTime)) {
+                instanceData.setStatus(entry.getStatus());
+                instanceData.setStatusTime(entry.getRefreshTime());
             } else {
-                logger.log(Level.ERROR, "Image Id not found for instance : "+instance.getId());
+                staleInstanceData.add(instanceData);
+            }
+        }
+
+        if (!staleInstanceData.isEmpty()) {
+            refreshVMInstanceStatus(vmAccount, staleInstanceData, vmImageMap, tcSubject.getUserId());
+        }
+
+        if (logger.isEnabled(Level.DEBUG)) {
+            logger.log(Level.DEBUG, "InstanceData after processing : " + allInstanceDataMap.values());
+        }
+
+        Collection<VMInstanceData> availableInstances = allInstanceDataMap.values();
+        for (VMInstanceData instanceData : availableInstances) {
+            VMInstance instance = instanceData.getInstance();
+            instanceData.fillData(instance, vmImageMap.get(instance.getVmImageId()),
+                    vmUsageMap.get(instance.getUsageId()));
+        }
+        return availableInstances;
+    }
+
+    /**
+     * <p>
+     * Retrieves the statuses of the given live vm instances of a vm account from the vm providers, and caches them
+     * in the status snapshot. The instances which are not found on the vm provider side are marked as terminated,
+     * the other instances are only saved when their public IP changed.
+     * </p>
+     *
+     * @param vmAccount the VM account of the VMInstances.
+     * @param instanceData the data of the vm instances.
+     * @param vmImageMap the vm images of the instances keyed by id.
+     * @param userId the id of the user who performs the action, null to audit the termination as the owner of the
+     *            vm instance.
+     * @throws CloudVMServiceException if any error occurs.
+     * @since 1.5
+     */
+    private void refreshVMInstanceStatus(VMAccount vmAccount, List<VMInstanceData> instanceData,
+                                         Map<Long, VMImage> vmImageMap, Long userId)
+            throws CloudVMServiceException {
+        Map<String, VMInstanceData> notusInstanceDataMap = new LinkedHashMap<String, VMInstanceData>();
+        Map<String, VMInstanceData> amazonInstanceDataMap = new LinkedHashMap<String, VMInstanceData>();
+        Map<String, String> publicIPs = new HashMap<String, String>();
+        for (VMInstanceData instData : instanceData) {
+            VMInstance instance = instData.getInstance();
+            int providerId = (int) vmImageMap.get(instance.getVmImageId()).getVmProvider().getId();
+            if (providerId == Helper.NOTUS_PROVIDER) {
+                notusInstanceDataMap.put(instance.getAwsInstanceId(), instData);
+            } else if (providerId == Helper.AMAZON_PROVIDER) {
+                amazonInstanceDataMap.put(instance.getAwsInstanceId(), instData);
             }
+            publicIPs.put(instance.getAwsInstanceId(), instance.getPublicIP());
             // Mark as terminated..Will reset once we get a status check back from the provider
-            instanceData.setStatus(VMInstanceStatus.TERMINATED);
+            instData.setStatus(VMInstanceStatus.TERMINATED);
         }
 
         if (!notusInstanceDataMap.isEmpty()){
@@ -803,38 +939,121 @@ public class CloudVMServiceBean implements CloudVMServiceRemote, CloudVMServiceL
             amazonServiceInvoker.getVMInstances(vmAccount, amazonInstanceDataMap);
         }
 
-        if (logger.isEnabled(Level.DEBUG)) {
-            logger.log(Level.DEBUG, "InstanceData after processing : " + allInstanceDataMap.values());
-        }
-
-        for (String instanceId : allInstanceDataMap.keySet()) {
-            VMInstanceData instData = allInstanceDataMap.get(instanceId);
+        long now = System.currentTimeMillis();
+        for (VMInstanceData instData : instanceData) {
             VMInstance vmInstance = instData.getInstance();
 
             // Mark it deleted when status is TERMINATED or not found on the VM provider side
             // but the VMInstance's is_terminated is still false.
             if (instData.getStatus() == VMInstanceStatus.TERMINATED && !vmInstance.isTerminated()) {
+                long auditUserId = userId != null ? userId
+                        : getEntityManager().find(VMAccountUser.class, vmInstance.getVmAccountUserId()).getUserId();
                 markAsTerminated(instData,
                         instData.getCreationDate() == null ? new Date() : instData.getCreationDate(),
-                        tcSubject);
+                        auditUserId);
+            } else {
+                String publicIP = publicIPs.get(vmInstance.getAwsInstanceId());
+                if (publicIP == null ? vmInstance.getPublicIP() != null : !publicIP.equals(vmInstance.getPublicIP())) {
+                    instData.setInstance(getEntityManager().merge(vmInstance));
+                }
             }
-            instData.setInstance(entityManager.merge(vmInstance));
+            STATUS_CACHE.put(vmInstance.getAwsInstanceId(), instData.getStatus(), now);
+            instData.setStatusTime(new Date(now));
         }
+    }
 
-        Map<Long, VMImage> vmImageMap = new HashMap<Long, VMImage>();
-        Collection<VMInstanceData> availableInstances = allInstanceDataMap.values();
-        for (VMInstanceData instanceData : availableInstances) {
-            VMInstance instance = instanceData.getInstance();
-            VMImage vmImage = vmImageMap.get(instance.getVmImageId());
-            if (vmImage == null) {
-                vmImage = getVMImage(instance.getVmImageId());
-                vmImageMap.put(instance.getVmImageId(), vmImage);
+    /**
+     * <p>
+     * Reconciles the statuses of all the live vm instances with the vm providers. It is called by the container
+     * every {@link #statusRefreshInterval} milliseconds. Only the vm accounts which have live instances are polled,
+     * one call per provider and account, and the statuses are cached in the status snapshot read by the vm instance
+     * pages. The failure of an account is logged and the previous statuses of its instances are kept. The
+     * terminations found here are audited as the owners of the vm instances, since there is no current user.
+     * </p>
+     *
+     * @param timer the timer.
+     * @since 1.5
+     */
+    @Timeout
+    @PermitAll
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public void reconcileVMInstanceStatus(Timer timer) {
+        Helper.logEnter(logger, "CloudVMServiceBean.reconcileVMInstanceStatus");
+        long startTime = System.currentTimeMillis();
+        try {
+            Query q = getEntityManager().createQuery("select a from VMInstance a where a.terminated=:terminated");
+            q.setParameter("terminated", false);
+            List<VMInstance> instances = q.getResultList();
+            Map<Long, VMImage> vmImageMap = getVMImageMap(instances);
+
+            // group the live instances by vm account
+            Map<Long, VMAccount> vmAccounts = new HashMap<Long, VMAccount>();
+            Map<Long, List<VMInstanceData>> accountInstanceData = new HashMap<Long, List<VMInstanceData>>();
+            Set<String> liveInstanceIds = new HashSet<String>();
+            for (VMInstance instance : instances) {
+                liveInstanceIds.add(instance.getAwsInstanceId());
+                VMImage vmImage = vmImageMap.get(instance.getVmImageId());
+                if (vmImage == null) {
+                    logger.log(Level.ERROR, "Image Id not found for instance : " + instance.getId());
+                    continue;
+                }
+                VMAccount vmAccount = vmImage.getVmAccount();
+                List<VMInstanceData> instanceData = accountInstanceData.get(vmAccount.getId());
+                if (instanceData == null) {
+                    instanceData = new ArrayList<VMInstanceData>();
+                    accountInstanceData.put(vmAccount.getId(), instanceData);
+                    vmAccounts.put(vmAccount.getId(), vmAccount);
+                }
+                VMInstanceData instData = new VMInstanceData();
+                instData.setInstance(instance);
+                instanceData.add(instData);
+            }
 
+            for (Map.Entry<Long, List<VMInstanceData>> entry : accountInstanceData.entrySet()) {
+                try {
+                    refreshVMInstanceStatus(vmAccounts.get(entry.getKey()), entry.getValue(), vmImageMap, null);
+                } catch (CloudVMServiceException e) {
+                    // already logged, the previous statuses are kept
+                }
             }
-            instanceData.fillData(instance, vmImage, getVMUsage(instance.getUsageId()));
 
+            STATUS_CACHE.retainAll(liveInstanceIds);
+            STATUS_CACHE.setLastRefreshTime(startTime);
+        } catch (Exception e) {
+            Helper.logError(logger, new CloudVMServiceException("Unable to reconcile vm instance statuses.", e));
+        } finally {
+            Helper.logExit(logger, "CloudVMServiceBean.reconcileVMInstanceStatus");
+        }
+    }
+
+    /**
+     * <p>
+     * Schedules {@link #reconcileVMInstanceStatus(Timer)} if it is enabled and not scheduled yet. The timer is
+     * created on the first vm instance request since the timer service can't be used in the
+     * <code>PostConstruct</code> method of a stateless bean.
+     * </p>
+     *
+     * @since 1.5
+     */
+    private void scheduleStatusReconciler() {
+        if (reconcilerScheduled || statusRefreshInterval == null || statusRefreshInterval <= 0) {
+            return;
+        }
+        synchronized (RECONCILER_LOCK) {
+            if (reconcilerScheduled) {
+                return;
+            }
+            try {
+                TimerService timerService = sessionContext.getTimerService();
+                if (timerService.getTimers().isEmpty()) {
+                    timerService.createTimer(statusRefreshInterval, statusRefreshInterval,
+                            "CloudVMServiceBean.reconcileVMInstanceStatus");
+                }
+                reconcilerScheduled = true;
+            } catch (Exception e) {
+                Helper.logError(logger, new CloudVMServiceException("Unable to schedule the status reconciler.", e));
+            }
         }
-        return availableInstances;
     }
 
     /**
@@ -842,22 +1061,23 @@ public class CloudVMServiceBean implements CloudVMServiceRemote, CloudVMServiceL
 	 * 
 	 * @param inst
 	 *            instance to be marked as terminated
-     * @param tcSubject the user instance who performs the action
+     * @param userId the id of the user who performs the action
 	 * @since BUGR-3981
 	 */
-	private void markAsTerminated(VMInstanceData inst, Date when, TCSubject tcSubject) throws CloudVMServiceException {
+	private void markAsTerminated(VMInstanceData inst, Date when, long userId) throws CloudVMServiceException {
 		try {
 			logger.log(Level.DEBUG, "setting as terminated " + inst.getInstance().getId());
 			VMInstance toBeTerminated = inst.getInstance();
 			toBeTerminated.setTerminated(true);
 			toBeTerminated = getEntityManager().merge(toBeTerminated);
+			inst.setInstance(toBeTerminated);
 
 			// create audit record
 			VMInstanceAudit audit = new VMInstanceAudit();
 			audit.setAction("terminated");
 			audit.setInstanceId(toBeTerminated.getId());
 			audit.setCreateDate(when);
-            audit.setUserId(tcSubject.getUserId());
+            audit.setUserId(userId);
 			getEntityManager().merge(audit);
 		} catch (Exception e) {
 			throw Helper.logError(logger, new CloudVMServiceException("unable to mark terminated",
@@ -1038,6 +1258,58 @@ public class CloudVMServiceBean implements CloudVMServiceRemote, CloudVMServiceL
 		return entityManager.find(VMUsage.class, vmUsageId);
 	}
 
+    /**
+     * Get the VM images of the given instances in one query.
+     *
+     * @param instances
+     *            the VM instances.
+     * @return the vm images keyed by id.
+     * @throws CloudVMServiceException
+     *             if any error occurs.
+     * @since 1.5
+     */
+    private Map<Long, VMImage> getVMImageMap(Collection<VMInstance> instances) throws CloudVMServiceException {
+        Set<Long> ids = new HashSet<Long>();
+        for (VMInstance instance : instances) {
+            ids.add(instance.getVmImageId());
+        }
+        Map<Long, VMImage> result = new HashMap<Long, VMImage>();
+        if (!ids.isEmpty()) {
+            Query q = getEntityManager().createQuery("select i from VMImage i where i.id in (:ids)");
+            q.setParameter("ids", new ArrayList<Long>(ids));
+            for (VMImage vmImage : (List<VMImage>) q.getResultList()) {
+                result.put(vmImage.getId(), vmImage);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the VM usages of the given instances in one query.
+     *
+     * @param instances
+     *            the VM instances.
+     * @return the vm usages keyed by id.
+     * @throws CloudVMServiceException
+     *             if any error occurs.
+     * @since 1.5
+     */
+    private Map<Long, VMUsage> getVMUsageMap(Collection<VMInstance> instances) throws CloudVMServiceException {
+        Set<Long> ids = new HashSet<Long>();
+        for (VMInstance instance : instances) {
+            ids.add(instance.getUsageId());
+        }
+        Map<Long, VMUsage> result = new HashMap<Long, VMUsage>();
+        if (!ids.isEmpty()) {
+            Query q = getEntityManager().createQuery("select u from VMUsage u where u.id in (:ids)");
+            q.setParameter("ids", new ArrayList<Long>(ids));
+            for (VMUsage vmUsage : (List<VMUsage>) q.getResultList()) {
+                result.put(vmUsage.getId(), vmUsage);
+            }
+        }
+        return result;
+    }
+
 	/**
 	 * Get VM accounts by user id.
 	 * 
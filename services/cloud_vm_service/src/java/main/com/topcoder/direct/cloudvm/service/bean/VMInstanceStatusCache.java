@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.cloudvm.service.bean;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.topcoder.direct.services.view.dto.cloudvm.VMInstanceStatus;
+
+/**
+ * <p>
+ * This class holds the snapshot of the VM instance statuses retrieved from the VM providers, keyed by the
+ * provider's instance id. Each status is stored with the time it was retrieved, so the readers can decide
+ * whether it is fresh enough to be used without calling the provider.
+ * </p>
+ *
+ * <p>
+ * Thread-safety: This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class VMInstanceStatusCache {
+
+    /**
+     * Represents a cached status of a VM instance.
+     *
+     * <p>
+     * Thread-safety: This class is immutable and thread safe.
+     * </p>
+     */
+    public static class Entry {
+
+        /**
+         * The status of the VM instance.
+         */
+        private final VMInstanceStatus status;
+
+        /**
+         * The time the status was retrieved from the VM provider.
+         */
+        private final long refreshTime;
+
+        /**
+         * Creates the entry.
+         *
+         * @param status the status of the VM instance.
+         * @param refreshTime the time the status was retrieved from the VM provider.
+         */
+        public Entry(VMInstanceStatus status, long refreshTime) {
+            this.status = status;
+            this.refreshTime = refreshTime;
+        }
+
+        /**
+         * Gets the status of the VM instance.
+         *
+         * @return the status of the VM instance.
+         */
+        public VMInstanceStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * Gets the time the status was retrieved from the VM provider.
+         *
+         * @return the time the status was retrieved from the VM provider.
+         */
+        public Date getRefreshTime() {
+            return new Date(refreshTime);
+        }
+
+        /**
+         * Checks whether the status was retrieved after the given time.
+         *
+         * @param time the time in milliseconds.
+         * @return true if the status was retrieved at or after the given time.
+         */
+        public boolean isNewerThan(long time) {
+            return refreshTime >= time;
+        }
+    }
+
+    /**
+     * The cached statuses keyed by the provider's instance id.
+     */
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * The time the statuses of all the live VM instances were last retrieved, 0 if never.
+     */
+    private volatile long lastRefreshTime;
+
+    /**
+     * Gets the cached status of the given VM instance.
+     *
+     * @param awsInstanceId the provider's instance id.
+     * @return the cached status, null if the status of the instance is not cached.
+     */
+    public Entry get(String awsInstanceId) {
+        return awsInstanceId == null ? null : entries.get(awsInstanceId);
+    }
+
+    /**
+     * Caches the status of the given VM instance.
+     *
+     * @param awsInstanceId the provider's instance id.
+     * @param status the status of the VM instance.
+     * @param refreshTime the time the status was retrieved from the VM provider.
+     */
+    public void put(String awsInstanceId, VMInstanceStatus status, long refreshTime) {
+        if (awsInstanceId != null) {
+            entries.put(awsInstanceId, new Entry(status, refreshTime));
+        }
+    }
+
+    /**
+     * Removes the statuses of the VM instances which are not in the given ids, i.e. the instances which are
+     * terminated.
+     *
+     * @param liveInstanceIds the provider's instance ids of the live VM instances.
+     */
+    public void retainAll(Collection<String> liveInstanceIds) {
+        entries.keySet().retainAll(liveInstanceIds);
+    }
+
+    /**
+     * Gets the time the statuses of all the live VM instances were last retrieved.
+     *
+     * @return the time in milliseconds, 0 if never.
+     */
+    public long getLastRefreshTime() {
+        return lastRefreshTime;
+    }
+
+    /**
+     * Sets the time the statuses of all the live VM instances were last retrieved.
+     *
+     * @param lastRefreshTime the time in milliseconds.
+     */
+    public void setLastRefreshTime(long lastRefreshTime) {
+        this.lastRefreshTime = lastRefreshTime;
+    }
+}
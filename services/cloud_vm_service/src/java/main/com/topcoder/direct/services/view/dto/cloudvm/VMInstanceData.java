@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2010 TopCoder Inc., All Rights Reserved.
+ * Copyright (C) 2010 - 2016 TopCoder Inc., All Rights Reserved.
  */
 package com.topcoder.direct.services.view.dto.cloudvm;
 
@@ -16,9 +16,11 @@ import java.util.Date;
  *
  * Version 1.1 : Module Assembly - Cloud VM Service Notus Cloud Integration version 1.0
  * Added  {@link #toString()} implementation
+ *
+ * Version 1.2 : Added {@link #statusTime} to tell when the status was retrieved from the VM provider.
  * 
  * @author Standlove, kanakarajank
- * @version 1.1
+ * @version 1.2
  */
 public class VMInstanceData implements Serializable {
 	
@@ -65,6 +67,14 @@ public class VMInstanceData implements Serializable {
      * vm usage for readability.
      */         
     private String usage;
+
+    /**
+     * Represents the time the status was retrieved from the VM provider. It has getter & setter. It can be any
+     * value.
+     *
+     * @since 1.2
+     */
+    private Date statusTime;
     
     /**
      * Empty constructor.
@@ -229,6 +239,26 @@ public class VMInstanceData implements Serializable {
         this.usage = usage;
     }
 
+
+    /**
+     * Getter for the namesake instance variable. Simply return the namesake instance variable.
+     *
+     * @return field value
+     * @since 1.2
+     */
+    public Date getStatusTime() {
+        return statusTime;
+    }
+
+    /**
+     * Setter for the namesake instance variable. Simply set the value to the namesake instance variable.
+     *
+     * @param statusTime value to set
+     * @since 1.2
+     */
+    public void setStatusTime(Date statusTime) {
+        this.statusTime = statusTime;
+    }
     
     /**
      * Fills contest name and vm image TC name.
@@ -270,7 +300,7 @@ public class VMInstanceData implements Serializable {
 		return "VMInstanceData [status=" + status + ", instance=" + instance + ", managerHandle="
 				+ managerHandle + ", contestName=" + contestName + ", vmImageTcName="
 				+ vmImageTcName + ", accountName=" + accountName + ", vmCreationTime="
-				+ vmCreationTime + ", usage=" + usage + "]";
+				+ vmCreationTime + ", usage=" + usage + ", statusTime=" + statusTime + "]";
 	}
 }
 
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import com.topcoder.direct.cloudvm.service.bean.CloudVMServiceBeanTests;
+
+/**
+ * <p>
+ * This test case aggregates all Unit test cases.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class UnitTests extends TestCase {
+
+    /**
+     * <p>
+     * Aggregates all unit tests.
+     * </p>
+     *
+     * @return test suite aggregating all unit tests.
+     */
+    public static Test suite() {
+        final TestSuite suite = new TestSuite();
+
+        suite.addTest(CloudVMServiceBeanTests.suite());
+
+        return suite;
+    }
+}
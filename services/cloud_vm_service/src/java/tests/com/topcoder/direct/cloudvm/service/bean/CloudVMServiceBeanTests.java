@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.cloudvm.service.bean;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ejb.SessionContext;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import com.topcoder.direct.cloudvm.client.AmazonCloudServiceInvoker;
+import com.topcoder.direct.cloudvm.service.CloudVMServiceException;
+import com.topcoder.direct.services.view.dto.cloudvm.VMAccount;
+import com.topcoder.direct.services.view.dto.cloudvm.VMAccountUser;
+import com.topcoder.direct.services.view.dto.cloudvm.VMImage;
+import com.topcoder.direct.services.view.dto.cloudvm.VMInstance;
+import com.topcoder.direct.services.view.dto.cloudvm.VMInstanceAudit;
+import com.topcoder.direct.services.view.dto.cloudvm.VMInstanceData;
+import com.topcoder.direct.services.view.dto.cloudvm.VMInstanceStatus;
+import com.topcoder.direct.services.view.dto.cloudvm.VMProvider;
+
+/**
+ * <p>
+ * Unit tests for the background status reconciliation of <code>CloudVMServiceBean</code>. The entity manager is
+ * replaced by a proxy serving the given vm instances and recording the merged entities, and the Amazon invoker by a
+ * stub reporting the given statuses.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class CloudVMServiceBeanTests extends TestCase {
+
+    /**
+     * <p>
+     * The id of the user owning the vm instances.
+     * </p>
+     */
+    private static final long OWNER_ID = 99;
+
+    /**
+     * <p>
+     * The bean to test.
+     * </p>
+     */
+    private CloudVMServiceBean bean;
+
+    /**
+     * <p>
+     * The live vm instances returned by the entity manager.
+     * </p>
+     */
+    private List<VMInstance> instances;
+
+    /**
+     * <p>
+     * The entities merged through the entity manager.
+     * </p>
+     */
+    private List<Object> merged;
+
+    /**
+     * <p>
+     * The Amazon invoker stub.
+     * </p>
+     */
+    private MockAmazonCloudServiceInvoker invoker;
+
+    /**
+     * <p>
+     * The vm image of the instances.
+     * </p>
+     */
+    private VMImage vmImage;
+
+    /**
+     * <p>
+     * Creates a test suite for the tests.
+     * </p>
+     *
+     * @return a TestSuite for this test case.
+     */
+    public static Test suite() {
+        return new TestSuite(CloudVMServiceBeanTests.class);
+    }
+
+    /**
+     * <p>
+     * Sets up test environment.
+     * </p>
+     *
+     * @throws Exception
+     *             to jUnit.
+     */
+    protected void setUp() throws Exception {
+        VMProvider vmProvider = new VMProvider();
+        vmProvider.setId(2);
+        VMAccount vmAccount = new VMAccount();
+        vmAccount.setId(3);
+        vmImage = new VMImage();
+        vmImage.setId(4);
+        vmImage.setVmProvider(vmProvider);
+        vmImage.setVmAccount(vmAccount);
+
+        instances = new ArrayList<VMInstance>();
+        merged = new ArrayList<Object>();
+        invoker = new MockAmazonCloudServiceInvoker();
+
+        bean = new CloudVMServiceBean();
+        bean.setAmazonServiceInvoker(invoker);
+        setPrivateField(bean, "unitName", "unitName");
+        setPrivateField(bean, "sessionContext", createSessionContext(createEntityManager()));
+    }
+
+    /**
+     * <p>
+     * Accuracy test for <code>reconcileVMInstanceStatus(Timer)</code>. The provider is called once for the account,
+     * the reported status is cached, and the instance not found by the provider is marked as terminated and audited
+     * as its owner, while the unchanged instance is not saved.
+     * </p>
+     *
+     * @throws Exception
+     *             to jUnit.
+     */
+    public void testReconcileVMInstanceStatusAccuracy() throws Exception {
+        VMInstance running = createInstance(1, "test-running-1", "10.0.0.1");
+        VMInstance vanished = createInstance(2, "test-vanished-1", "10.0.0.2");
+        invoker.statuses.put("test-running-1", VMInstanceStatus.RUNNING);
+
+        long start = System.currentTimeMillis();
+        bean.reconcileVMInstanceStatus(null);
+
+        assertEquals("The provider should be called once.", 1, invoker.calls);
+        assertEquals("Wrong cached status.", VMInstanceStatus.RUNNING, getStatusCache().get("test-running-1")
+            .getStatus());
+        assertEquals("Wrong cached status.", VMInstanceStatus.TERMINATED, getStatusCache().get("test-vanished-1")
+            .getStatus());
+        assertTrue("The refresh time should be set.", getStatusCache().getLastRefreshTime() >= start);
+
+        assertFalse("The running instance should not be terminated.", running.isTerminated());
+        assertTrue("The vanished instance should be terminated.", vanished.isTerminated());
+        assertEquals("Only the terminated instance and its audit should be saved.", 2, merged.size());
+        assertSame("The terminated instance should be saved.", vanished, merged.get(0));
+        VMInstanceAudit audit = (VMInstanceAudit) merged.get(1);
+        assertEquals("Wrong audited instance.", 2, audit.getInstanceId());
+        assertEquals("The termination should be audited as the owner.", OWNER_ID, audit.getUserId());
+    }
+
+    /**
+     * <p>
+     * Accuracy test for <code>reconcileVMInstanceStatus(Timer)</code>. The instance whose public IP changed on the
+     * provider side is saved.
+     * </p>
+     *
+     * @throws Exception
+     *             to jUnit.
+     */
+    public void testReconcileVMInstanceStatusPublicIPChanged() throws Exception {
+        VMInstance instance = createInstance(1, "test-moved-1", "10.0.0.1");
+        invoker.statuses.put("test-moved-1", VMInstanceStatus.RUNNING);
+        invoker.publicIP = "10.0.0.9";
+
+        bean.reconcileVMInstanceStatus(null);
+
+        assertEquals("The instance should be saved.", Arrays.asList((Object) instance), merged);
+        assertEquals("Wrong cached status.", VMInstanceStatus.RUNNING, getStatusCache().get("test-moved-1")
+            .getStatus());
+    }
+
+    /**
+     * <p>
+     * Failure test for <code>reconcileVMInstanceStatus(Timer)</code>. When the provider fails, the previous status
+     * of the instance is kept and nothing is saved.
+     * </p>
+     *
+     * @throws Exception
+     *             to jUnit.
+     */
+    public void testReconcileVMInstanceStatusProviderFailure() throws Exception {
+        VMInstance instance = createInstance(1, "test-failed-1", "10.0.0.1");
+        getStatusCache().put("test-failed-1", VMInstanceStatus.RUNNING, 1);
+        invoker.failure = new CloudVMServiceException("provider failure");
+
+        bean.reconcileVMInstanceStatus(null);
+
+        assertEquals("The provider should be called once.", 1, invoker.calls);
+        assertEquals("The previous status should be kept.", VMInstanceStatus.RUNNING, getStatusCache().get(
+            "test-failed-1").getStatus());
+        assertFalse("The instance should not be terminated.", instance.isTerminated());
+        assertTrue("Nothing should be saved.", merged.isEmpty());
+    }
+
+    /**
+     * <p>
+     * Creates a live vm instance of the test image, owned by the test user.
+     * </p>
+     *
+     * @param id
+     *            the id of the instance.
+     * @param awsInstanceId
+     *            the provider id of the instance.
+     * @param publicIP
+     *            the public IP of the instance.
+     * @return the instance.
+     */
+    private VMInstance createInstance(long id, String awsInstanceId, String publicIP) {
+        VMInstance instance = new VMInstance();
+        instance.setId(id);
+        instance.setAwsInstanceId(awsInstanceId);
+        instance.setPublicIP(publicIP);
+        instance.setVmImageId(vmImage.getId());
+        instance.setVmAccountUserId(5);
+        instances.add(instance);
+        return instance;
+    }
+
+    /**
+     * <p>
+     * Creates the entity manager serving the live vm instances and the test image, and recording the merged
+     * entities.
+     * </p>
+     *
+     * @return the entity manager.
+     */
+    private EntityManager createEntityManager() {
+        return (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class[] {EntityManager.class}, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if (method.getName().equals("createQuery")) {
+                        String query = (String) args[0];
+                        return createQuery(query.contains("VMImage") ? Arrays.asList((Object) vmImage)
+                            : new ArrayList<Object>(instances));
+                    }
+                    if (method.getName().equals("merge")) {
+                        merged.add(args[0]);
+                        return args[0];
+                    }
+                    if (method.getName().equals("find") && args[0] == VMAccountUser.class) {
+                        VMAccountUser accountUser = new VMAccountUser();
+                        accountUser.setUserId(OWNER_ID);
+                        return accountUser;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    /**
+     * <p>
+     * Creates a query returning the given result.
+     * </p>
+     *
+     * @param result
+     *            the result of the query.
+     * @return the query.
+     */
+    private static Query createQuery(final List<Object> result) {
+        return (Query) Proxy.newProxyInstance(CloudVMServiceBeanTests.class.getClassLoader(),
+            new Class[] {Query.class}, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if (method.getName().equals("setParameter")) {
+                        return proxy;
+                    }
+                    if (method.getName().equals("getResultList")) {
+                        return result;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    /**
+     * <p>
+     * Creates the session context looking up the given entity manager.
+     * </p>
+     *
+     * @param entityManager
+     *            the entity manager.
+     * @return the session context.
+     */
+    private static SessionContext createSessionContext(final EntityManager entityManager) {
+        return (SessionContext) Proxy.newProxyInstance(CloudVMServiceBeanTests.class.getClassLoader(),
+            new Class[] {SessionContext.class}, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    if (method.getName().equals("lookup")) {
+                        return entityManager;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    /**
+     * <p>
+     * Gets the status snapshot shared by the beans.
+     * </p>
+     *
+     * @return the status snapshot.
+     * @throws Exception
+     *             to jUnit.
+     */
+    private static VMInstanceStatusCache getStatusCache() throws Exception {
+        Field field = CloudVMServiceBean.class.getDeclaredField("STATUS_CACHE");
+        field.setAccessible(true);
+        return (VMInstanceStatusCache) field.get(null);
+    }
+
+    /**
+     * <p>
+     * Sets the value of a private field of the bean.
+     * </p>
+     *
+     * @param object
+     *            the bean.
+     * @param fieldName
+     *            the name of the field.
+     * @param value
+     *            the value to set.
+     * @throws Exception
+     *             to jUnit.
+     */
+    private static void setPrivateField(Object object, String fieldName, Object value) throws Exception {
+        Field field = CloudVMServiceBean.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(object, value);
+    }
+
+    /**
+     * <p>
+     * The Amazon invoker stub, reporting the given statuses.
+     * </p>
+     */
+    private static class MockAmazonCloudServiceInvoker extends AmazonCloudServiceInvoker {
+
+        /**
+         * <p>
+         * The statuses reported by the provider keyed by the provider id of the instances.
+         * </p>
+         */
+        private final Map<String, VMInstanceStatus> statuses = new HashMap<String, VMInstanceStatus>();
+
+        /**
+         * <p>
+         * The public IP reported for the instances, null to keep theirs.
+         * </p>
+         */
+        private String publicIP;
+
+        /**
+         * <p>
+         * The error thrown by the provider, null if it succeeds.
+         * </p>
+         */
+        private CloudVMServiceException failure;
+
+        /**
+         * <p>
+         * The number of calls.
+         * </p>
+         */
+        private int calls;
+
+        /**
+         * <p>
+         * Reports the statuses of the instances found by the provider.
+         * </p>
+         *
+         * @param vmAccount
+         *            the vm account.
+         * @param dataMap
+         *            the data of the instances keyed by the provider id.
+         * @return the data map.
+         * @throws CloudVMServiceException
+         *             if the failure is set.
+         */
+        public Map<String, VMInstanceData> getVMInstances(VMAccount vmAccount, Map<String, VMInstanceData> dataMap)
+            throws CloudVMServiceException {
+            calls++;
+            if (failure != null) {
+                throw failure;
+            }
+            for (Map.Entry<String, VMInstanceData> entry : dataMap.entrySet()) {
+                VMInstanceStatus status = statuses.get(entry.getKey());
+                if (status != null) {
+                    entry.getValue().setStatus(status);
+                    if (publicIP != null) {
+                        entry.getValue().getInstance().setPublicIP(publicIP);
+                    }
+                }
+            }
+            return dataMap;
+        }
+    }
+}
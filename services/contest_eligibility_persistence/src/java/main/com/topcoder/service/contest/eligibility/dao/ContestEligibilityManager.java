@@ -5,6 +5,7 @@
 package com.topcoder.service.contest.eligibility.dao;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -18,8 +19,16 @@ import com.topcoder.service.contest.eligibility.ContestEligibility;
  * <b>Thread Safety:</b> Implementations are required to be thread-safe.
  * </p>
  *
- * @author TCSDEVELOPER
- * @version 1.0
+ * <p>
+ * Version 1.1 change notes:
+ *   <ol>
+ *     <li>Added {@link #getContestEligibilities(long[], boolean)} to retrieve the eligibilities of many contests
+ *     at once.</li>
+ *   </ol>
+ * </p>
+ *
+ * @author TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public interface ContestEligibilityManager {
 
@@ -101,4 +110,22 @@ public interface ContestEligibilityManager {
      */
     public Set<Long> haveEligibility(Long[] contestids, boolean isStudio)
          throws ContestEligibilityPersistenceException;
+
+    /**
+     * Return the eligibilities of the given contests. The returned lists are unmodifiable and the eligibilities in
+     * them must not be modified.
+     *
+     * @param contestIds
+     *            the contest ids
+     * @param isStudio
+     *            the flag used to indicate whether they are studio contests
+     * @return the eligibilities keyed by contest id, the list of a contest without eligibility is empty
+     * @throws IllegalArgumentException
+     *             if contestIds is null
+     * @throws ContestEligibilityPersistenceException
+     *             if any errors occurred when retrieving the eligibilities
+     * @since 1.1
+     */
+    public Map<Long, List<ContestEligibility>> getContestEligibilities(long[] contestIds, boolean isStudio)
+        throws ContestEligibilityPersistenceException;
 }
\ No newline at end of file
@@ -3,14 +3,25 @@
  */
 package com.topcoder.service.contest.eligibility.dao;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.PostConstruct;
 import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 
 import javax.annotation.Resource;
 import javax.ejb.TransactionAttribute;
@@ -73,8 +84,21 @@ import org.jboss.logging.Logger;
  *   </ol>
  * </p>
  *
- * @author TCSDEVELOPER
- * @version 1.0.1
+ * <p>
+ * Version 1.1 change notes:
+ *   <ol>
+ *     <li>Added {@link #getContestEligibilities(long[], boolean)} to retrieve the eligibilities of many contests
+ *     with one query per {@link #MAX_IDS_PER_QUERY} contests. The eligibilities retrieved by it are shared by all
+ *     the bean instances for <code>cacheTimeout</code> milliseconds, and they are evicted when the eligibilities
+ *     of the contest are created, saved or removed through this bean, again once the transaction completes so the
+ *     eligibilities read by other transactions before the commit are not kept.</li>
+ *     <li>Updated {@link #haveEligibility(Long[], boolean)} to use the cached eligibilities instead of a native
+ *     query built by concatenating the contest ids.</li>
+ *   </ol>
+ * </p>
+ *
+ * @author TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 @Stateless
 @TransactionManagement(TransactionManagementType.CONTAINER)
@@ -82,6 +106,82 @@ import org.jboss.logging.Logger;
 public class ContestEligibilityManagerBean implements ContestEligibilityManagerLocal,
     ContestEligibilityManagerRemote {
 
+    /**
+     * The JPQL to get the eligibilities of many contests.
+     *
+     * @since 1.1
+     */
+    private static final String GET_CONTEST_ELIGIBILITIES_JPQL =
+        "from ContestEligibility c where c.contestId in (:contestIds) and c.studio=:studio";
+
+    /**
+     * The max number of contest ids in a single query.
+     *
+     * @since 1.1
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    /**
+     * The default time the eligibilities are cached, in milliseconds.
+     *
+     * @since 1.1
+     */
+    private static final long DEFAULT_CACHE_TIMEOUT = 60000;
+
+    /**
+     * The JNDI name of the transaction synchronization registry.
+     *
+     * @since 1.1
+     */
+    private static final String REGISTRY_NAME = "java:comp/TransactionSynchronizationRegistry";
+
+    /**
+     * Represents the cached eligibilities of a contest with the time they expire.
+     *
+     * @since 1.1
+     */
+    private static class CacheEntry {
+
+        /**
+         * The unmodifiable eligibilities of the contest, empty if the contest has no eligibility.
+         */
+        private final List<ContestEligibility> eligibilities;
+
+        /**
+         * The time the eligibilities expire.
+         */
+        private final long expireTime;
+
+        /**
+         * Creates the entry.
+         *
+         * @param eligibilities the eligibilities of the contest.
+         * @param expireTime the time the eligibilities expire.
+         */
+        CacheEntry(List<ContestEligibility> eligibilities, long expireTime) {
+            this.eligibilities = Collections.unmodifiableList(eligibilities);
+            this.expireTime = expireTime;
+        }
+    }
+
+    /**
+     * The cached eligibilities of the studio contests keyed by contest id. It's shared by all the bean instances so
+     * the eviction done by one of them is seen by the others.
+     *
+     * @since 1.1
+     */
+    private static final ConcurrentMap<Long, CacheEntry> STUDIO_ELIGIBILITIES =
+        new ConcurrentHashMap<Long, CacheEntry>();
+
+    /**
+     * The cached eligibilities of the software contests keyed by contest id. It's shared by all the bean instances
+     * so the eviction done by one of them is seen by the others.
+     *
+     * @since 1.1
+     */
+    private static final ConcurrentMap<Long, CacheEntry> SOFTWARE_ELIGIBILITIES =
+        new ConcurrentHashMap<Long, CacheEntry>();
+
     /**
      * <p>
      * Represents the sessionContext of the EJB.
@@ -114,6 +214,16 @@ public class ContestEligibilityManagerBean implements ContestEligibilityManagerL
     @Resource(name = "logName")
     private String logName = "contest_eligibility_logger";
 
+    /**
+     * Represents the time the eligibilities retrieved by {@link #getContestEligibilities(long[], boolean)} are
+     * cached, in milliseconds. 0 disables the cache. You also could change the default value via deploy
+     * descriptor.
+     *
+     * @since 1.1
+     */
+    @Resource(name = "cacheTimeout")
+    private long cacheTimeout = DEFAULT_CACHE_TIMEOUT;
+
     /**
      * <p>
      * Default constructor.
@@ -147,6 +257,7 @@ public class ContestEligibilityManagerBean implements ContestEligibilityManagerL
         logEntrance("ContestEligibilityManagerBean#create", new String[] {"contestEligibility"},
             new Object[] {contestEligibility});
         checkNull(contestEligibility, "contestEligibility");
+        evict(contestEligibility);
         try {
             EntityManager entityManager = getEntityManager();
             entityManager.persist(contestEligibility);
@@ -172,6 +283,7 @@ public class ContestEligibilityManagerBean implements ContestEligibilityManagerL
         logEntrance("ContestEligibilityManagerBean#remove", new String[] {"contestEligibility"},
             new Object[] {contestEligibility});
         checkNull(contestEligibility, "contestEligibility");
+        evict(contestEligibility);
         try {
             EntityManager entityManager = getEntityManager();
             entityManager.remove(entityManager.merge(contestEligibility));
@@ -209,6 +321,9 @@ public class ContestEligibilityManagerBean implements ContestEligibilityManagerL
         for (ContestEligibility contestEligibility : list) {
             checkNull(contestEligibility, "contest eligibility in list");
         }
+        for (ContestEligibility contestEligibility : list) {
+            evict(contestEligibility);
+        }
         try {
             EntityManager entityManager = getEntityManager();
 
@@ -265,6 +380,79 @@ public class ContestEligibilityManagerBean implements ContestEligibilityManagerL
     }
 
 
+    /**
+     * <p>
+     * Return the eligibilities of the given contests.
+     * </p>
+     * <p>
+     * The contests whose eligibilities are not cached (or expired) are queried together, the returned lists are
+     * shared with the cache so they are unmodifiable and the eligibilities in them must not be modified.
+     * </p>
+     *
+     * @param contestIds
+     *            the contest ids
+     * @param isStudio
+     *            the flag used to indicate whether they are studio contests
+     * @return the eligibilities keyed by contest id, the list of a contest without eligibility is empty
+     * @throws IllegalArgumentException
+     *             if contestIds is null
+     * @throws ContestEligibilityPersistenceException
+     *             if any errors occurred when retrieving the eligibilities
+     * @since 1.1
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, List<ContestEligibility>> getContestEligibilities(long[] contestIds, boolean isStudio)
+        throws ContestEligibilityPersistenceException {
+        logEntrance("ContestEligibilityManagerBean#getContestEligibilities", new String[] {"contestIds",
+            "isStudio"}, new Object[] {contestIds == null ? null : contestIds.length + " contests", isStudio});
+        checkNull(contestIds, "contestIds");
+
+        Map<Long, List<ContestEligibility>> result = new HashMap<Long, List<ContestEligibility>>();
+        ConcurrentMap<Long, CacheEntry> cache = isStudio ? STUDIO_ELIGIBILITIES : SOFTWARE_ELIGIBILITIES;
+        long now = System.currentTimeMillis();
+        Set<Long> missing = new LinkedHashSet<Long>();
+        for (long contestId : contestIds) {
+            CacheEntry entry = cache.get(contestId);
+            if (entry != null && entry.expireTime > now) {
+                result.put(contestId, entry.eligibilities);
+            } else {
+                missing.add(contestId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, List<ContestEligibility>> loaded = new HashMap<Long, List<ContestEligibility>>();
+            for (Long contestId : missing) {
+                loaded.put(contestId, new ArrayList<ContestEligibility>());
+            }
+            try {
+                EntityManager entityManager = getEntityManager();
+                List<Long> ids = new ArrayList<Long>(missing);
+                for (int i = 0; i < ids.size(); i += MAX_IDS_PER_QUERY) {
+                    Query query = entityManager.createQuery(GET_CONTEST_ELIGIBILITIES_JPQL);
+                    query.setParameter("contestIds", ids.subList(i, Math.min(ids.size(), i + MAX_IDS_PER_QUERY)));
+                    query.setParameter("studio", isStudio);
+                    for (ContestEligibility contestEligibility : (List<ContestEligibility>) query.getResultList()) {
+                        loaded.get(contestEligibility.getContestId()).add(contestEligibility);
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw logError(new ContestEligibilityPersistenceException(
+                    "Some error happens while retrieving the eligibilities of the contests.", e));
+            }
+            for (Map.Entry<Long, List<ContestEligibility>> loadedEntry : loaded.entrySet()) {
+                CacheEntry entry = new CacheEntry(loadedEntry.getValue(), now + cacheTimeout);
+                if (cacheTimeout > 0) {
+                    cache.put(loadedEntry.getKey(), entry);
+                }
+                result.put(loadedEntry.getKey(), entry.eligibilities);
+            }
+        }
+
+        logExit("ContestEligibilityManagerBean#getContestEligibilities");
+        return result;
+    }
+
     /**
      * Return a list of contest ids that has eligibility.
      *
@@ -276,7 +464,6 @@ public class ContestEligibilityManagerBean implements ContestEligibilityManagerL
      * @throws IllegalArgumentException
      *             if contestId is not positive
      */
-    @SuppressWarnings("unchecked")
     public Set<Long> haveEligibility(Long[] contestids, boolean isStudio) throws ContestEligibilityPersistenceException {
         logEntrance("ContestEligibilityManagerBean#haveEligibility", new String[] {"contestIds[]",
             "isStudio"}, new Object[]{contestids, isStudio});
@@ -287,43 +474,69 @@ public class ContestEligibilityManagerBean implements ContestEligibilityManagerL
         {
             return result;
         }
-        
-        String ids = "(" + contestids[0].longValue();
-        if (contestids.length > 1)
-        {
-            for (int i = 1; i < contestids.length; i++)
-            {
-                ids += ", " + contestids[i].longValue();
-            }
-        }
-        
-        ids += ")";
-
-        int studio = isStudio ? 1 : 0;
-        String qeuryStr = "select unique contest_id from contest_eligibility where is_studio = "+ studio +" and  contest_id in " + ids;
-
-        EntityManager entityManager = getEntityManager();
-        Query query =
-            entityManager
-                .createNativeQuery(qeuryStr);
-
-        List list = query.getResultList();
 
-        if (list == null || list.size() == 0)
-        {
-            return result;
+        long[] ids = new long[contestids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = contestids[i].longValue();
         }
 
+        for (Map.Entry<Long, List<ContestEligibility>> entry : getContestEligibilities(ids, isStudio).entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                result.add(entry.getKey());
+            }
+        }
 
-        for (int i = 0; i < list.size(); i++) {
+        logExit("ContestEligibilityManagerBean#haveEligibility");
+        return result;
+    }
 
-            Object row = list.get(i);
+    /**
+     * <p>
+     * Evicts the cached eligibilities of the contest of the given eligibility, and evicts them again once the
+     * current transaction completes.
+     * </p>
+     *
+     * @param contestEligibility
+     *            the contest eligibility being created, saved or removed
+     * @since 1.1
+     */
+    private void evict(ContestEligibility contestEligibility) {
+        final ConcurrentMap<Long, CacheEntry> cache =
+            contestEligibility.isStudio() ? STUDIO_ELIGIBILITIES : SOFTWARE_ELIGIBILITIES;
+        final Long contestId = contestEligibility.getContestId();
+        cache.remove(contestId);
+
+        TransactionSynchronizationRegistry registry = getTransactionSynchronizationRegistry();
+        if (registry != null && registry.getTransactionKey() != null) {
+            try {
+                registry.registerInterposedSynchronization(new Synchronization() {
+                    public void beforeCompletion() {
+                    }
 
-            result.add(new Long(row.toString()));
+                    public void afterCompletion(int status) {
+                        cache.remove(contestId);
+                    }
+                });
+            } catch (IllegalStateException e) {
+                // the transaction is completing, the eligibilities were evicted already
+            }
         }
+    }
 
-        logExit("ContestEligibilityManagerBean#haveEligibility");
-        return result;
+    /**
+     * <p>
+     * Gets the transaction synchronization registry of the container.
+     * </p>
+     *
+     * @return the registry, or null if it is not available (outside a container)
+     * @since 1.1
+     */
+    TransactionSynchronizationRegistry getTransactionSynchronizationRegistry() {
+        try {
+            return (TransactionSynchronizationRegistry) new InitialContext().lookup(REGISTRY_NAME);
+        } catch (NamingException e) {
+            return null;
+        }
     }
 
     /**
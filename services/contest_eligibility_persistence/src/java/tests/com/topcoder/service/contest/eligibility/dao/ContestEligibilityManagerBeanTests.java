@@ -8,6 +8,7 @@ import java.io.InputStreamReader;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.EntityManager;
@@ -460,6 +461,39 @@ public class ContestEligibilityManagerBeanTests extends TestCase {
     }
 
 
+    /**
+     * <p>
+     * Accuracy test case for getContestEligibilities.It verifies that the eligibilities of the contests are
+     * retrieved, and the cached eligibilities of a contest are evicted when an eligibility of it is created.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testGetContestEligibilitiesAccuracy() throws Exception {
+        bean.initialize();
+
+        GroupContestEligibility first = createGroupContestEligibility();
+        first.setContestId(11);
+        insertGroupContestEligibility(first);
+
+        Map<Long, List<ContestEligibility>> result = bean.getContestEligibilities(new long[] {11, 12}, true);
+        assertEquals("Two contests should be returned.", 2, result.size());
+        assertEquals("Only one contest eligibility matched.", 1, result.get(11L).size());
+        checkEqualGroupContestEligibilities(first, (GroupContestEligibility) result.get(11L).get(0));
+        assertTrue("The contest has no eligibility.", result.get(12L).isEmpty());
+
+        GroupContestEligibility second = createGroupContestEligibility();
+        second.setContestId(12);
+        entityManager.getTransaction().begin();
+        bean.create(second);
+        entityManager.getTransaction().commit();
+
+        result = bean.getContestEligibilities(new long[] {12}, true);
+        assertEquals("The created contest eligibility should be retrieved.", 1, result.get(12L).size());
+        runSQL("drop.sql", entityManager);
+    }
+
     /**
      * <p>
      * Failure test case for getContestEligibility.IAE is expected because the contestId is 0.
@@ -3,6 +3,7 @@
  */
 package com.topcoder.service.contest.eligibilityvalidation;
 
+import java.util.BitSet;
 import java.util.Set;
 
 /**
@@ -30,6 +31,24 @@ public interface ContestEligibilityService {
      */
     public boolean isEligible(long userId, long contestId, boolean isStudio) throws ContestEligibilityValidatorException;
 
+    /**
+     * Returns which of the given contests a user is eligible for.
+     *
+     * @param userId
+     *            The user id
+     * @param contestIds
+     *            The contest ids
+     * @param isStudio
+     *            true if the contests are studio contests, false otherwise.
+     * @return the bit set whose bit i is set if the user is eligible for the contest at index i.
+     *
+     * @throws ContestEligibilityValidatorException
+     *             if any other error occurs
+     * @since 1.1
+     */
+    public BitSet isEligible(long userId, long[] contestIds, boolean isStudio)
+        throws ContestEligibilityValidatorException;
+
     /**
      * Returns whether a contest has any eligibility
      *
@@ -10,8 +10,10 @@ import javax.ejb.TransactionAttributeType;
 import javax.ejb.TransactionManagement;
 import javax.ejb.TransactionManagementType;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.Set;
 
 import org.jboss.logging.Logger;
@@ -35,9 +37,17 @@ import com.topcoder.service.contest.eligibility.dao.ContestEligibilityPersistenc
  *     injection of the managers in local environment for Online Review application.</li>
  *   </ol>
  * </p>
+ *
+ * <p>
+ * Version 1.1 change notes:
+ *   <ol>
+ *     <li>Added {@link #isEligible(long, long[], boolean)} to check the eligibility of a user for many contests
+ *     with the eligibilities retrieved at once.</li>
+ *   </ol>
+ * </p>
  * 
- * @author TCSDEVELOPER
- * @version 1.0.1
+ * @author TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 @Stateless
 @TransactionManagement(TransactionManagementType.CONTAINER)
@@ -107,6 +117,47 @@ public class ContestEligibilityServiceBean implements ContestEligibilityServiceL
     	return eligible;
     }
 
+    /**
+     * Returns which of the given contests a user is eligible for.
+     *
+     * @param userId
+     *            The user id
+     * @param contestIds
+     *            The contest ids
+     * @param isStudio
+     *            true if the contests are studio contests, false otherwise.
+     * @return the bit set whose bit i is set if the user is eligible for the contest at index i.
+     *
+     * @throws ContestEligibilityValidatorException
+     *             if any other error occurs
+     * @since 1.1
+     */
+    public BitSet isEligible(long userId, long[] contestIds, boolean isStudio)
+        throws ContestEligibilityValidatorException {
+        String methodName = "isEligible";
+        logger.info("Enter: " + methodName);
+
+        BitSet eligible;
+        try {
+            Map<Long, List<ContestEligibility>> eligibilities =
+                contestEligibilityManager.getContestEligibilities(contestIds, isStudio);
+            List<List<ContestEligibility>> lists = new ArrayList<List<ContestEligibility>>(contestIds.length);
+            for (long contestId : contestIds) {
+                lists.add(eligibilities.get(contestId));
+            }
+            eligible = contestEligibilityValidationManager.validateAll(userId, lists);
+        } catch (ContestEligibilityPersistenceException e) {
+            logger.error(e.getMessage(), e);
+            throw new ContestEligibilityValidatorException(e.getMessage(), e);
+        } catch (ContestEligibilityValidationManagerException e) {
+            logger.error(e.getMessage(), e);
+            throw new ContestEligibilityValidatorException(e.getMessage(), e);
+        }
+
+        logger.info("Exit: " + methodName);
+        return eligible;
+    }
+
      /**
      * Returns whether a contest has any eligibility
      *
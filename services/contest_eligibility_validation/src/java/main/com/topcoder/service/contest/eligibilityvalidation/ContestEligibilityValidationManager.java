@@ -3,6 +3,7 @@
  */
 package com.topcoder.service.contest.eligibilityvalidation;
 
+import java.util.BitSet;
 import java.util.List;
 
 import com.topcoder.service.contest.eligibility.ContestEligibility;
@@ -16,8 +17,16 @@ import com.topcoder.service.contest.eligibility.ContestEligibility;
  * <b>Thread Safety:</b> Implementations are required to be thread-safe.
  * </p>
  *
- * @author TCSDEVELOPER
- * @version 1.0
+ * <p>
+ * Version 1.1 change notes:
+ *   <ol>
+ *     <li>Added {@link #validateAll(long, List)} to validate the user against the eligibilities of many contests
+ *     at once.</li>
+ *   </ol>
+ * </p>
+ *
+ * @author TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public interface ContestEligibilityValidationManager {
 
@@ -43,4 +52,24 @@ public interface ContestEligibilityValidationManager {
      */
     public boolean validate(long userId, List<ContestEligibility> eligibilities)
         throws ContestEligibilityValidationManagerException;
+
+    /**
+     * <p>
+     * Validate the user against the eligibilities of many contests, each list is validated the same way as
+     * {@link #validate(long, List)} does.
+     * </p>
+     *
+     * @param userId
+     *            the id of user
+     * @param eligibilities
+     *            the lists of ContestEligibility entities, one list per contest
+     * @return the bit set whose bit i is set if the user is eligible to the contest of the list at index i
+     * @throws IllegalArgumentException
+     *             if eligibilities is null or it contains null list, or a list contains null item
+     * @throws ContestEligibilityValidationManagerException
+     *             if any errors occurred when validating
+     * @since 1.1
+     */
+    public BitSet validateAll(long userId, List<List<ContestEligibility>> eligibilities)
+        throws ContestEligibilityValidationManagerException;
 }
\ No newline at end of file
@@ -4,6 +4,7 @@
 package com.topcoder.service.contest.eligibilityvalidation;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -68,8 +69,16 @@ import org.jboss.logging.Logger;
  *   </ol>
  * </p>
  *
- * @author TCSDEVELOPER
- * @version 1.0.1
+ * <p>
+ * Version 1.1 change notes:
+ *   <ol>
+ *     <li>Added {@link #validateAll(long, List)} to validate the user against the eligibilities of many contests
+ *     in one call.</li>
+ *   </ol>
+ * </p>
+ *
+ * @author TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 @Stateless
 public class ContestEligibilityValidationManagerBean implements ContestEligibilityValidationManagerLocal,
@@ -211,6 +220,66 @@ public class ContestEligibilityValidationManagerBean implements ContestEligibili
         throws ContestEligibilityValidationManagerException {
         logEntrance("ContestEligibilityValidationManagerBean#validate", new String[] {"userId",
             "eligibilities"}, new Object[] {userId, eligibilities});
+        checkEligibilities(eligibilities);
+        boolean result = isEligible(userId, eligibilities);
+        logExit("ContestEligibilityValidationManagerBean#validate");
+        return result;
+    }
+
+    /**
+     * <p>
+     * Validate the user against the eligibilities of many contests, each list is validated the same way as
+     * {@link #validate(long, List)} does.
+     * </p>
+     *
+     * @param userId
+     *            the id of user
+     * @param eligibilities
+     *            the lists of ContestEligibility entities, one list per contest
+     * @return the bit set whose bit i is set if the user is eligible to the contest of the list at index i
+     * @throws IllegalArgumentException
+     *             if eligibilities is null or it contains null list, or a list contains null item
+     * @throws ContestEligibilityValidationManagerException
+     *             if any errors occurred when validating
+     * @throws UnsupportedContestEligibilityValidatiorException
+     *             if there is no corresponding validator for its ContestEligibility type in validators map
+     * @since 1.1
+     */
+    public BitSet validateAll(long userId, List<List<ContestEligibility>> eligibilities)
+        throws ContestEligibilityValidationManagerException {
+        logEntrance("ContestEligibilityValidationManagerBean#validateAll", new String[] {"userId",
+            "eligibilities"}, new Object[] {userId, eligibilities == null ? null : eligibilities.size() + " lists"});
+        checkNull(eligibilities, "eligibilities");
+        for (List<ContestEligibility> list : eligibilities) {
+            checkEligibilities(list);
+        }
+
+        BitSet result = new BitSet(eligibilities.size());
+        for (int i = 0; i < eligibilities.size(); i++) {
+            if (isEligible(userId, eligibilities.get(i))) {
+                result.set(i);
+            }
+        }
+        logExit("ContestEligibilityValidationManagerBean#validateAll");
+        return result;
+    }
+
+    /**
+     * <p>
+     * Checks the list of ContestEligibility entities is not null, and all of them are not null and have the
+     * corresponding validator.
+     * </p>
+     *
+     * @param eligibilities
+     *            a list of ContestEligibility entities
+     * @throws IllegalArgumentException
+     *             if eligibilities is null or eligibilities contains null item
+     * @throws UnsupportedContestEligibilityValidatiorException
+     *             if there is no corresponding validator for its ContestEligibility type in validators map
+     * @since 1.1
+     */
+    private void checkEligibilities(List<ContestEligibility> eligibilities)
+        throws UnsupportedContestEligibilityValidatiorException {
         checkNull(eligibilities, "eligibilities");
         for (ContestEligibility contestEligibility : eligibilities) {
             checkNull(contestEligibility, "contestEligibility item in eligibilities list");
@@ -220,27 +289,39 @@ public class ContestEligibilityValidationManagerBean implements ContestEligibili
                         + contestEligibility.getClass().getName()));
             }
         }
+    }
 
-        boolean result = false;
+    /**
+     * <p>
+     * Checks whether any one of the eligibilities is validated or the list is empty.
+     * </p>
+     *
+     * @param userId
+     *            the id of user
+     * @param eligibilities
+     *            a list of checked ContestEligibility entities
+     * @return true if any one of the eligibility check is true or the given list is empty,otherwise false
+     * @throws ContestEligibilityValidationManagerException
+     *             if any errors occurred when validating
+     * @since 1.1
+     */
+    private boolean isEligible(long userId, List<ContestEligibility> eligibilities)
+        throws ContestEligibilityValidationManagerException {
         if (eligibilities.size() == 0) {
-            result = true;
-        } else {
-            for (ContestEligibility contestEligibility : eligibilities) {
-                ContestEligibilityValidator validator =
-                    validators.get(contestEligibility.getClass().getName());
-                try {
-                    if (validator.validate(userId, contestEligibility)) {
-                        result = true;
-                        break;
-                    }
-                } catch (ContestEligibilityValidatorException e) {
-                    throw logError(new ContestEligibilityValidationManagerException(
-                        "Any errors occurred when validating the contestEligibility.", e));
+            return true;
+        }
+        for (ContestEligibility contestEligibility : eligibilities) {
+            ContestEligibilityValidator validator = validators.get(contestEligibility.getClass().getName());
+            try {
+                if (validator.validate(userId, contestEligibility)) {
+                    return true;
                 }
+            } catch (ContestEligibilityValidatorException e) {
+                throw logError(new ContestEligibilityValidationManagerException(
+                    "Any errors occurred when validating the contestEligibility.", e));
             }
         }
-        logExit("ContestEligibilityValidationManagerBean#validate");
-        return result;
+        return false;
     }
 
     /**
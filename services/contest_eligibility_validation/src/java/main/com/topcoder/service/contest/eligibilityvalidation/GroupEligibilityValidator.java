@@ -3,7 +3,17 @@
  */
 package com.topcoder.service.contest.eligibilityvalidation;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 
 import com.topcoder.service.contest.eligibility.ContestEligibility;
@@ -14,11 +24,24 @@ import com.topcoder.service.contest.eligibility.GroupContestEligibility;
  * GroupEligibilityValidator is used to validate whether the user is in the group of contestEligibility.
  * </p>
  * <p>
- * <b>Thread Safety:</b> This class is thread safe since it is immutable.
+ * <b>Thread Safety:</b> This class is thread safe, the entity manager factory is created once and the group
+ * memberships are kept in a concurrent map.
  * </p>
  *
- * @author TCSDEVELOPER
- * @version 1.0
+ * <p>
+ * Version 1.1 change notes:
+ *   <ol>
+ *     <li>The entity manager factory is created once instead of on every validation, and the entity managers are
+ *     closed after use.</li>
+ *     <li>The active groups of a user are retrieved with one query and cached for <code>cacheTimeout</code>
+ *     milliseconds, so validating the eligibilities of many contests for a user costs one query. The cache is
+ *     shared by the validators, the code changing the group memberships can drop the cached groups of a user
+ *     with {@link #invalidate(long)} so the change is seen before they expire.</li>
+ *   </ol>
+ * </p>
+ *
+ * @author TCSDEVELOPER, TCSASSEMBLER
+ * @version 1.1
  */
 public class GroupEligibilityValidator implements ContestEligibilityValidator {
 
@@ -28,6 +51,72 @@ public class GroupEligibilityValidator implements ContestEligibilityValidator {
      */
     private String persistenceUnitName = "persistenceUnitName";
 
+    /**
+     * The SQL to get the ids of the groups the user is an active member of.
+     *
+     * @since 1.1
+     */
+    private static final String GET_USER_GROUPS_SQL =
+        "select group_id from user_group_xref where security_status_id = 1 and login_id=:userId";
+
+    /**
+     * The default time the groups of a user are cached, in milliseconds.
+     *
+     * @since 1.1
+     */
+    private static final long DEFAULT_CACHE_TIMEOUT = 60000;
+
+    /**
+     * Represents the cached groups of a user with the time they expire.
+     *
+     * @since 1.1
+     */
+    private static class CacheEntry {
+
+        /**
+         * The unmodifiable ids of the groups the user is an active member of.
+         */
+        private final Set<Long> groupIds;
+
+        /**
+         * The time the groups expire.
+         */
+        private final long expireTime;
+
+        /**
+         * Creates the entry.
+         *
+         * @param groupIds the ids of the groups.
+         * @param expireTime the time the groups expire.
+         */
+        CacheEntry(Set<Long> groupIds, long expireTime) {
+            this.groupIds = Collections.unmodifiableSet(groupIds);
+            this.expireTime = expireTime;
+        }
+    }
+
+    /**
+     * The time the groups of a user are cached, in milliseconds. 0 disables the cache.
+     *
+     * @since 1.1
+     */
+    private long cacheTimeout = DEFAULT_CACHE_TIMEOUT;
+
+    /**
+     * The cached groups keyed by user id. It's shared by all the validators so {@link #invalidate(long)} reaches
+     * every one of them.
+     *
+     * @since 1.1
+     */
+    private static final ConcurrentMap<Long, CacheEntry> USER_GROUPS = new ConcurrentHashMap<Long, CacheEntry>();
+
+    /**
+     * The entity manager factory, created on first use.
+     *
+     * @since 1.1
+     */
+    private volatile EntityManagerFactory entityManagerFactory;
+
     /**
      * Default constructor.
      */
@@ -51,6 +140,26 @@ public class GroupEligibilityValidator implements ContestEligibilityValidator {
         this.persistenceUnitName = persistenceUnitName;
     }
 
+    /**
+     * Creates an instance of GroupEligibilityValidator with the specified persistence unit name and the time the
+     * groups of a user are cached.
+     *
+     * @param persistenceUnitName
+     *            the specified persistenceUnitName
+     * @param cacheTimeout
+     *            the time the groups of a user are cached in milliseconds, 0 disables the cache
+     * @throws IllegalArgumentException
+     *             if the persistenceUnitName is null or empty, or cacheTimeout is negative
+     * @since 1.1
+     */
+    public GroupEligibilityValidator(String persistenceUnitName, long cacheTimeout) {
+        this(persistenceUnitName);
+        if (cacheTimeout < 0) {
+            throw new IllegalArgumentException("Argument cacheTimeout should not be negative.");
+        }
+        this.cacheTimeout = cacheTimeout;
+    }
+
     /**
      * Validate the given contestEligibility.
      *
@@ -61,20 +170,96 @@ public class GroupEligibilityValidator implements ContestEligibilityValidator {
      * @return true if the user is eligible to join,otherwise false
      * @throws IllegalArgumentException
      *             if contestEligibility is null or it is not a GroupContestEligibility instance
+     * @throws ContestEligibilityValidatorException
+     *             if any errors occurred when retrieving the groups of the user
      */
-    public boolean validate(long userId, ContestEligibility contestEligibility) {
+    public boolean validate(long userId, ContestEligibility contestEligibility)
+        throws ContestEligibilityValidatorException {
 
         // might be replaced by real checking web service,so let us make it simple.
         if (!(contestEligibility instanceof GroupContestEligibility)) {
             throw new IllegalArgumentException(
                 "The contestEligibility should be a non-null GroupContestEligibility instance.");
         }
-        final Query query =
-            Persistence.createEntityManagerFactory(persistenceUnitName).createEntityManager()
-                .createNativeQuery(
-                    "select * from user_group_xref where security_status_id = 1 and login_id=:userId and group_id=:groupId");
-        query.setParameter("userId", userId);
-        query.setParameter("groupId", ((GroupContestEligibility) contestEligibility).getGroupId());
-        return query.getResultList().size() > 0;
+        return getGroupIds(userId).contains(((GroupContestEligibility) contestEligibility).getGroupId());
+    }
+
+    /**
+     * Gets the ids of the groups the user is an active member of, from the cache if they are not expired.
+     *
+     * @param userId
+     *            the user id
+     * @return the ids of the groups
+     * @throws ContestEligibilityValidatorException
+     *             if any errors occurred when retrieving the groups
+     * @since 1.1
+     */
+    private Set<Long> getGroupIds(long userId) throws ContestEligibilityValidatorException {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = cacheTimeout > 0 ? USER_GROUPS.get(userId) : null;
+        if (entry != null && entry.expireTime > now) {
+            return entry.groupIds;
+        }
+
+        Set<Long> groupIds = new HashSet<Long>();
+        EntityManager entityManager = null;
+        try {
+            entityManager = getEntityManagerFactory().createEntityManager();
+            Query query = entityManager.createNativeQuery(GET_USER_GROUPS_SQL);
+            query.setParameter("userId", userId);
+            for (Object row : (List<?>) query.getResultList()) {
+                groupIds.add(((Number) row).longValue());
+            }
+        } catch (PersistenceException e) {
+            throw new ContestEligibilityValidatorException("Failed to get the groups of the user " + userId, e);
+        } finally {
+            if (entityManager != null) {
+                entityManager.close();
+            }
+        }
+
+        entry = new CacheEntry(groupIds, now + cacheTimeout);
+        if (cacheTimeout > 0) {
+            USER_GROUPS.put(userId, entry);
+        }
+        return entry.groupIds;
+    }
+
+    /**
+     * Drops the cached groups of the given user, so they are retrieved again on the next validation. It should be
+     * called once the group memberships of the user are changed.
+     *
+     * @param userId
+     *            the user id
+     * @since 1.1
+     */
+    public static void invalidate(long userId) {
+        USER_GROUPS.remove(userId);
+    }
+
+    /**
+     * Drops the cached groups of all the users.
+     *
+     * @since 1.1
+     */
+    public static void invalidateAll() {
+        USER_GROUPS.clear();
+    }
+
+    /**
+     * Gets the entity manager factory, it's created on first use.
+     *
+     * @return the entity manager factory
+     * @since 1.1
+     */
+    private EntityManagerFactory getEntityManagerFactory() {
+        if (entityManagerFactory == null) {
+            synchronized (this) {
+                if (entityManagerFactory == null) {
+                    entityManagerFactory = Persistence.createEntityManagerFactory(persistenceUnitName);
+                }
+            }
+        }
+        return entityManagerFactory;
     }
 }
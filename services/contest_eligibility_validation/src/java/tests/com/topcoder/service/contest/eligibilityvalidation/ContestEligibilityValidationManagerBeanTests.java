@@ -5,6 +5,7 @@ package com.topcoder.service.contest.eligibilityvalidation;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 
@@ -474,6 +475,62 @@ public class ContestEligibilityValidationManagerBeanTests extends TestCase {
         }
     }
 
+    /**
+     * <p>
+     * Accuracy test case for validateAll.It verifies that the bits of the lists the user is eligible to are set,
+     * the empty list is eligible.
+     * </p>
+     * <p>
+     * Note that in setup.sql,the user id and group id are 5.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testValidateAllAccuracy() throws Exception {
+        bean.initialize();
+        EntityManager entityManager =
+            Persistence.createEntityManagerFactory("persistence-unit").createEntityManager();
+        TestHelper.runSQL("drop.sql", entityManager);
+        TestHelper.runSQL("setup.sql", entityManager);
+        GroupContestEligibility eligible = new GroupContestEligibility();
+        eligible.setGroupId(5);
+        GroupContestEligibility notEligible = new GroupContestEligibility();
+        notEligible.setGroupId(3);
+        List<List<ContestEligibility>> eligibilities = new ArrayList<List<ContestEligibility>>();
+        eligibilities.add(new ArrayList<ContestEligibility>());
+        eligibilities.add(new ArrayList<ContestEligibility>());
+        eligibilities.get(1).add(notEligible);
+        eligibilities.add(new ArrayList<ContestEligibility>());
+        eligibilities.get(2).add(notEligible);
+        eligibilities.get(2).add(eligible);
+        BitSet result = bean.validateAll(5, eligibilities);
+        assertTrue("The given list is empty,so it's eligible.", result.get(0));
+        assertFalse("The user should not be eligible.", result.get(1));
+        assertTrue("The user should be eligible.", result.get(2));
+        TestHelper.runSQL("drop.sql", entityManager);
+    }
+
+    /**
+     * <p>
+     * Failure test case for validateAll.IAE is expected because a list in the argument is null.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testValidateAllFailure() throws Exception {
+        bean.initialize();
+        List<List<ContestEligibility>> eligibilities = new ArrayList<List<ContestEligibility>>();
+        eligibilities.add(null);
+        try {
+            bean.validateAll(5, eligibilities);
+            fail("IllegalArgumentException should be thrown.");
+        } catch (IllegalArgumentException e) {
+            // pass
+        }
+    }
+
     /**
      * <p>
      * Sets the value of a private field in the given class.
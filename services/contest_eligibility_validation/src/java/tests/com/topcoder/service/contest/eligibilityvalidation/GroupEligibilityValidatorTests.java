@@ -59,6 +59,7 @@ public class GroupEligibilityValidatorTests extends TestCase {
         TestHelper.runSQL("drop.sql", entityManager);
         TestHelper.runSQL("setup.sql", entityManager);
         bean = new GroupEligibilityValidator("persistence-unit");
+        GroupEligibilityValidator.invalidateAll();
     }
 
     /**
@@ -171,6 +172,53 @@ public class GroupEligibilityValidatorTests extends TestCase {
         assertFalse("The user should not be eligible,so return false.", bean.validate(5, contestEligibility));
     }
 
+    /**
+     * <p>
+     * Accuracy test case for validate.It verifies that the groups of the user are cached, the removed membership
+     * is still seen by the validator with cache, but not by the validator without cache.
+     * </p>
+     * <p>
+     * Note that in setup.sql,the user id and group id are 5.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testValidateAccuracy3() throws Exception {
+        GroupEligibilityValidator uncached = new GroupEligibilityValidator("persistence-unit", 0);
+        GroupContestEligibility contestEligibility = new GroupContestEligibility();
+        contestEligibility.setGroupId(5);
+        assertTrue("The user should be eligible,so return true.", bean.validate(5, contestEligibility));
+        assertTrue("The user should be eligible,so return true.", uncached.validate(5, contestEligibility));
+
+        TestHelper.runSQL("drop.sql", entityManager);
+        assertTrue("The groups of the user should be cached.", bean.validate(5, contestEligibility));
+        assertFalse("The groups of the user should not be cached.", uncached.validate(5, contestEligibility));
+    }
+
+    /**
+     * <p>
+     * Accuracy test case for invalidate.It verifies that the removed membership is seen by the validator once the
+     * cached groups of the user are invalidated.
+     * </p>
+     * <p>
+     * Note that in setup.sql,the user id and group id are 5.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit
+     */
+    public void testInvalidateAccuracy() throws Exception {
+        GroupContestEligibility contestEligibility = new GroupContestEligibility();
+        contestEligibility.setGroupId(5);
+        assertTrue("The user should be eligible,so return true.", bean.validate(5, contestEligibility));
+
+        TestHelper.runSQL("drop.sql", entityManager);
+        assertTrue("The groups of the user should be cached.", bean.validate(5, contestEligibility));
+        GroupEligibilityValidator.invalidate(5);
+        assertFalse("The groups of the user should be invalidated.", bean.validate(5, contestEligibility));
+    }
+
     /**
      * <p>
      * Failure test case for validate.IAE is expected because the contestEligibility is null.
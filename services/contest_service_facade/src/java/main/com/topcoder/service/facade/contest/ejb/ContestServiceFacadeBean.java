@@ -854,9 +854,14 @@ import java.util.Set;
  *     <li> Updated {@link #updatePreRegister(TCSubject, SoftwareCompetition, Set)}</li>
  *     <li> Add helper {@link #isPrivate(TCSubject, long, boolean)}</li>
  * </ul>
+ *
+ * Version 3.5
+ * <ul>
+ *     <li> The debug messages built by string concatenation are only built when debug logging is enabled</li>
+ * </ul>
  * @author snow01, pulky, murphydog, waits, BeBetter, hohosky, isv, tangzx, GreatKevin, lmmortal, minhu, GreatKevin, tangzx
  * @author isv, GreatKevin, Veve, TCSCODER
- * @version 3.4
+ * @version 3.5
  */
 @Stateless
 @TransactionManagement(TransactionManagementType.CONTAINER)
@@ -2535,8 +2540,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
                             withTopicArn(contestCreationArn);
 
                     PublishResult snsResult = amazonSNSClient.publish(request);
-                    logger.debug("Publish amazon SNS successfully, the published message id is "
-                            + snsResult.getMessageId());
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Publish amazon SNS successfully, the published message id is "
+                                + snsResult.getMessageId());
+                    }
                 }
             } catch (Exception e) {
                 // we will only log publish error here, won't rollback contest creation.
@@ -3108,8 +3115,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      */
     public SoftwareCompetition createSoftwareContest(TCSubject tcSubject, SoftwareCompetition contest,
             long tcDirectProjectId, Date multiRoundEndDate, Date endDate) throws ContestServiceException, PermissionServiceException {
-        logger.debug("createSoftwareContest with information : [tcSubject = " + tcSubject.getUserId() + ", tcDirectProjectId ="
-                + tcDirectProjectId + ", multiRoundEndDate = " + multiRoundEndDate + "]");
+        if (logger.isDebugEnabled()) {
+            logger.debug("createSoftwareContest with information : [tcSubject = " + tcSubject.getUserId() + ", tcDirectProjectId ="
+                    + tcDirectProjectId + ", multiRoundEndDate = " + multiRoundEndDate + "]");
+        }
 
         try {
             ExceptionUtils.checkNull(contest, null, null, "The contest to create is null.");
@@ -3376,8 +3385,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
                             withTopicArn(contestCreationArn);
 
                     PublishResult result = amazonSNSClient.publish(request);
-                    logger.debug("Publish amazon SNS successfully, the published message id is "
-                            + result.getMessageId());
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Publish amazon SNS successfully, the published message id is "
+                                + result.getMessageId());
+                    }
                 }
             } catch (Exception e) {
                 // we will only log publish error here, won't rollback contest creation.
@@ -3391,7 +3402,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
             throw new ContestServiceException("Operation failed in the contest service facade.",
                 e);
         } finally {
-            logger.debug("Exit createSoftwareContest, the newly create contest id = " + contest.getId());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit createSoftwareContest, the newly create contest id = " + contest.getId());
+            }
         }
     }
 
@@ -4145,8 +4158,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
                                                             List<Long> softwareContestIds)
             throws ContestServiceException, PermissionServiceException {
 
-        logger.debug("deleteSoftwareContests with information : [tcSubject = " + tcSubject.getUserId() + ", tcDirectProjectId ="
-                + tcDirectProjectId + ", softwareContestIds = " + softwareContestIds.toString() + "]");
+        if (logger.isDebugEnabled()) {
+            logger.debug("deleteSoftwareContests with information : [tcSubject = " + tcSubject.getUserId() + ", tcDirectProjectId ="
+                    + tcDirectProjectId + ", softwareContestIds = " + softwareContestIds.toString() + "]");
+        }
 
         try {
             List<SoftwareCompetition> softwareContests = new ArrayList<SoftwareCompetition>();
@@ -4200,8 +4215,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
                                                                       List<SoftwareCompetition> draftContests)
             throws ContestServiceException, PermissionServiceException {
 
-        logger.debug("batchUpdateDraftSoftwareContests with information : [tcSubject = " + tcSubject.getUserId() + ", tcDirectProjectId ="
-                + tcDirectProjectId + ", draftContests size: = " + draftContests.size() + "]");
+        if (logger.isDebugEnabled()) {
+            logger.debug("batchUpdateDraftSoftwareContests with information : [tcSubject = " + tcSubject.getUserId() + ", tcDirectProjectId ="
+                    + tcDirectProjectId + ", draftContests size: = " + draftContests.size() + "]");
+        }
 
         try {
 
@@ -4736,8 +4753,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
                             withTopicArn(contestCreationArn);
 
                     PublishResult result = amazonSNSClient.publish(request);
-                    logger.debug("Publish amazon SNS successfully, the published message id is "
-                            + result.getMessageId());
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Publish amazon SNS successfully, the published message id is "
+                                + result.getMessageId());
+                    }
                 }
 
                 if (StringUtils.isNotEmpty(oldCMCTaskId) && StringUtils.isNotEmpty(cmcTaskId) &&
@@ -4758,8 +4777,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
                             withTopicArn(contestCreationArn);
 
                     PublishResult result = amazonSNSClient.publish(request);
-                    logger.debug("Publish amazon SNS successfully, the published message id is "
-                            + result.getMessageId());
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Publish amazon SNS successfully, the published message id is "
+                                + result.getMessageId());
+                    }
                 }
 
 
@@ -5146,7 +5167,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      * @since TopCoder Service Layer Integration 3 Assembly
      */
     public long addSubmitter(TCSubject tcSubject, long projectId, long userId) throws ContestServiceException {
-        logger.debug("AddSubmitter (tcSubject = " + tcSubject.getUserId() + ", " + projectId + "," + userId + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("AddSubmitter (tcSubject = " + tcSubject.getUserId() + ", " + projectId + "," + userId + ")");
+        }
 
         try {
             return uploadExternalServices.addSubmitter(projectId, userId);
@@ -5223,7 +5246,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      * @since 1.6.6
      */
     private long createStudioForum(String name, long userId) {
-        logger.debug("createStudioForm (name = " + name + ", userId = " + userId + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("createStudioForm (name = " + name + ", userId = " + userId + ")");
+        }
 
         try {
             Forums forums = getSoftwareForums();
@@ -5251,7 +5276,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      */
     public long createForum(TCSubject tcSubject, AssetDTO asset, long userId, long projectCategoryId) {
         long forumId = -1;
-        logger.debug("createForum (tcSubject = " + tcSubject.getUserId() + ", " + userId + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("createForum (tcSubject = " + tcSubject.getUserId() + ", " + userId + ")");
+        }
 
         try {
             Forums forums = getSoftwareForums();
@@ -5281,7 +5308,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
                                                                          // 1677
 
             forums.createCategoryWatch(userId, forumId);
-            logger.debug("Exit createForum (" + userId + ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit createForum (" + userId + ")");
+            }
 
             return forumId;
         } catch (Exception e) {
@@ -5299,7 +5328,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      */
     public void closeForum(long forumid) {
         long forumId = -1;
-        logger.debug("closeForum (forumid = " + forumid + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("closeForum (forumid = " + forumid + ")");
+        }
 
         try {
             Properties p = new Properties();
@@ -5316,7 +5347,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
 
             forums.closeCategory(forumid);
 
-            logger.debug("Exit closeForum (" + forumid + ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit closeForum (" + forumid + ")");
+            }
 
         } catch (Exception e) {
             logger.error("*** Could not close forum for " + forumId);
@@ -5343,7 +5376,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      */
     @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     public List<CommonProjectContestData> getCommonProjectContestDataByPID(TCSubject tcSubject, long pid) {
-        logger.debug("getCommonProjectContestDataByPID (tcSubject = " + tcSubject.getUserId() + ", " + pid + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("getCommonProjectContestDataByPID (tcSubject = " + tcSubject.getUserId() + ", " + pid + ")");
+        }
 
         List<CommonProjectContestData> ret = new ArrayList<CommonProjectContestData>();
 
@@ -5385,7 +5420,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
                     return p1.getProjectId().compareTo(p2.getProjectId());
                 }
             });
-        logger.debug("Exit getCommonProjectContestDataByPID (" + pid + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("Exit getCommonProjectContestDataByPID (" + pid + ")");
+        }
 
         return ret;
     }
@@ -5408,7 +5445,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      */
     @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     public List<CommonProjectContestData> getCommonProjectContestData(TCSubject tcSubject) {
-        logger.debug("getCommonProjectContestDataByContestData(tcSubject = " + tcSubject.getUserId() + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("getCommonProjectContestDataByContestData(tcSubject = " + tcSubject.getUserId() + ")");
+        }
 
         List<CommonProjectContestData> ret = new ArrayList<CommonProjectContestData>();
 
@@ -5576,7 +5615,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      */
     public SoftwareCompetition getSoftwareContestByProjectId(TCSubject tcSubject, long projectId)
             throws ContestServiceException, PermissionServiceException {
-        logger.debug("getSoftwareContestByProjectId (tcSubject = " + tcSubject.getUserId() + ", " + projectId + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("getSoftwareContestByProjectId (tcSubject = " + tcSubject.getUserId() + ", " + projectId + ")");
+        }
 
         SoftwareCompetition contest = new SoftwareCompetition();
 
@@ -5639,8 +5680,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
                 contest.getProjectHeader().setSecurityGroupId(((GroupContestEligibility) contestEligibilities.get(0)).getGroupId());
             }
 
-            logger.debug("Exit getSoftwareContestByProjectId (" + projectId +
-                ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit getSoftwareContestByProjectId (" + projectId +
+                    ")");
+            }
 
             return contest;
         } catch (ProjectServicesException pse) {
@@ -5711,9 +5754,11 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
             String messageBody = this.emailMessageGenerator.generateMessage(documentGenerator,
                     template, phase);
 
-            logger.debug("Generated following email message of subject [" +
-                subject + "] to be sent to [" + fromAddr + "] \n" +
-                messageBody);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Generated following email message of subject [" +
+                    subject + "] to be sent to [" + fromAddr + "] \n" +
+                    messageBody);
+            }
 
             // Create a TCSEmailMessage to be sent
             TCSEmailMessage email = new TCSEmailMessage();
@@ -5742,8 +5787,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
 
             // Send email
             EmailEngine.send(email);
-            logger.debug("Sent email message of subject [" + subject +
-                "] to [" + fromAddr + "]");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Sent email message of subject [" + subject +
+                    "] to [" + fromAddr + "]");
+            }
         } catch (BaseException e) {
             rethrowEmailError(e, messageGenerated);
         } catch (ConfigManagerException e) {
@@ -6599,7 +6646,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      * @return The long id of the created forum
      */
     private void createSoftwareForumWatchAndRole(long forumId, long userId, boolean watch) {
-        logger.debug("createSoftwareForumWatchAndRole (" + forumId + ", " + userId + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("createSoftwareForumWatchAndRole (" + forumId + ", " + userId + ")");
+        }
 
         try {
             Forums forums = getSoftwareForums();
@@ -6612,7 +6661,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
 
             forums.assignRole(userId, roleId);
 
-            logger.debug("Exit createSoftwareForumWatchAndRole (" + forumId + ", " + userId + ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit createSoftwareForumWatchAndRole (" + forumId + ", " + userId + ")");
+            }
 
         } catch (Exception e) {
             logger.error("*** Could not create a softwaer forum watch for " + forumId + ", " + userId );
@@ -6636,7 +6687,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      * @return The long id of the created forum
      */
     private void createStudioForumWatchAndRole(long forumId, long userId, boolean watch, boolean isNewStudioForum) {
-        logger.debug("createStudioForumWatchAndRole (" + forumId + ", " + userId + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("createStudioForumWatchAndRole (" + forumId + ", " + userId + ")");
+        }
 
         try {
             Forums forums = isNewStudioForum ? getSoftwareForums() : getStudioForums();
@@ -6649,7 +6702,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
 
             forums.assignRole(userId, roleId);
 
-            logger.debug("Exit createStudioForumWatchAndRole (" + forumId + ", " + userId + ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit createStudioForumWatchAndRole (" + forumId + ", " + userId + ")");
+            }
 
         } catch (Exception e) {
             logger.error("*** Could not create a studio forum watch for " + forumId + ", " + userId );
@@ -6677,7 +6732,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
             String roleId = "Software_Moderators_" + forumId;
             forums.deleteCategoryWatch(userId, forumId);
             forums.removeRole(userId, roleId);
-            logger.debug("Exit deleteForumWatch (" + forumId + ", " + userId + ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit deleteForumWatch (" + forumId + ", " + userId + ")");
+            }
 
         } catch (Exception e) {
             logger.error("*** Could not delete forum watch for " + forumId + ", " + userId );
@@ -6706,7 +6763,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
             String roleId = "Software_Moderators_" + forumId;
             forums.deleteForumWatch(userId, forumId);
             forums.removeRole(userId, roleId);
-            logger.debug("Exit deleteForumWatch (" + forumId + ", " + userId + ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit deleteForumWatch (" + forumId + ", " + userId + ")");
+            }
 
         } catch (Exception e) {
             logger.error("*** Could not delete forum watch for " + forumId + ", " + userId );
@@ -6731,7 +6790,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
 
             forums.updateComponentName(forumId, name);
 
-            logger.debug("Exit updateForumName (" + forumId + ", " + name + ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit updateForumName (" + forumId + ", " + name + ")");
+            }
 
         } catch (Exception e) {
             logger.error("*** Could not updateForumName for " + forumId + ", " + name );
@@ -6755,7 +6816,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
 
             forums.updateStudioForumName(forumId, name);
 
-            logger.debug("Exit updateStudioForumName (" + forumId + ", " + name + ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit updateStudioForumName (" + forumId + ", " + name + ")");
+            }
 
         } catch (Exception e) {
             logger.error("*** Could not updateStudioForumName for " + forumId + ", " + name );
@@ -6827,7 +6890,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
                 }
             }
 
-            logger.debug("checkTerms (" + projectId + ", " + userId + ", " + roleIds + ")");
+            if (logger.isDebugEnabled()) {
+                logger.debug("checkTerms (" + projectId + ", " + userId + ", " + roleIds + ")");
+            }
             return true;
 
         } catch (Exception e) {
@@ -6997,7 +7062,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
             if (autoDevCreating && !isDevContest) {
                 long developmentProjectId = projectServices.getDevelopmentContestId(projectId);
                 if (developmentProjectId > 0){
-                    logger.debug("create new version development project, the dev project id is :" + developmentProjectId);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("create new version development project, the dev project id is :" + developmentProjectId);
+                    }
                     createNewVersionForDesignDevContest(tcSubject, developmentProjectId, tcDirectProjectId, true, nextDevProdDay(startDate), minorVersion);
                 }
             }
@@ -7047,8 +7114,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      */
     public long createNewVersionForDesignDevContest(TCSubject tcSubject, long projectId, long tcDirectProjectId,
             boolean autoDevCreating, boolean minorVersion) throws ContestServiceException, PermissionServiceException {
-        logger.debug("createNewVersionForDesignDevContest with parameter [TCSubject " + tcSubject.getUserId() + ", projectId =" + projectId
-                     + ", tcDirectProjectId =" +tcDirectProjectId+", autoDevCreating="+ autoDevCreating +"].");
+        if (logger.isDebugEnabled()) {
+            logger.debug("createNewVersionForDesignDevContest with parameter [TCSubject " + tcSubject.getUserId() + ", projectId =" + projectId
+                         + ", tcDirectProjectId =" +tcDirectProjectId+", autoDevCreating="+ autoDevCreating +"].");
+        }
 
         return createNewVersionForDesignDevContest(tcSubject, projectId, tcDirectProjectId, autoDevCreating,
                 nextReOpenNewReleaseDay(), minorVersion);
@@ -7072,7 +7141,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      */
     public long reOpenSoftwareContest(TCSubject tcSubject, long projectId, long tcDirectProjectId)
             throws ContestServiceException, PermissionServiceException {
-        logger.debug("reOpenSoftwareContest with parameter [TCSubject " + tcSubject.getUserId() + ", projectId =" + projectId + ", tcDirectProjectId =" +tcDirectProjectId+"].");
+        if (logger.isDebugEnabled()) {
+            logger.debug("reOpenSoftwareContest with parameter [TCSubject " + tcSubject.getUserId() + ", projectId =" + projectId + ", tcDirectProjectId =" +tcDirectProjectId+"].");
+        }
 
         long reOpenContestId = 0;
         try {
@@ -7130,7 +7201,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
             throw new ContestServiceException("Operation failed in the contest service facade.",
                 e);
         } finally {
-            logger.debug("Exit reOpenSoftwareContest with the new contest " + reOpenContestId);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exit reOpenSoftwareContest with the new contest " + reOpenContestId);
+            }
         }
     }
 
@@ -7481,8 +7554,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
     public void updateNotificationsForUser(TCSubject subject, long userId, List<ProjectNotification> notifications)
             throws ContestServiceException {
 
-        logger.debug("updateNotifcationsForUser with arguments [TCSubject " + subject.getUserId() + ", notifications ="
-                + getProjectNotificationsDebugInfo(notifications) + "]");
+        if (logger.isDebugEnabled()) {
+            logger.debug("updateNotifcationsForUser with arguments [TCSubject " + subject.getUserId() + ", notifications ="
+                    + getProjectNotificationsDebugInfo(notifications) + "]");
+        }
 
         try {
 
@@ -7629,8 +7704,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
     public List<Registrant> getRegistrantsForProject(TCSubject tcSubject, long projectId)
             throws ContestServiceException {
 
-        logger.debug("getRegistrantsForProject with parameter [TCSubject " + tcSubject.getUserId() + ", projectId ="
-                + projectId + "].");
+        if (logger.isDebugEnabled()) {
+            logger.debug("getRegistrantsForProject with parameter [TCSubject " + tcSubject.getUserId() + ", projectId ="
+                    + projectId + "].");
+        }
 
         // create an empty list first to store the result
         List<Registrant> result = new ArrayList<Registrant>();
@@ -7706,8 +7783,10 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
             throw new ContestServiceException("Operation failed when calling getRegistrantsForProject", ex);
         } finally {
             // log the exit of method
-            logger.debug("Exits getRegistrantsForProject with parameter [TCSubject " + tcSubject.getUserId() + ", projectId ="
-                    + projectId + " ].");
+            if (logger.isDebugEnabled()) {
+                logger.debug("Exits getRegistrantsForProject with parameter [TCSubject " + tcSubject.getUserId() + ", projectId ="
+                        + projectId + " ].");
+            }
         }
     }
 
@@ -7724,7 +7803,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      */
     public com.topcoder.management.resource.Resource addReviewer(TCSubject tcSubject, long projectId, long userId)
         throws ContestServiceException {
-        logger.debug("addReviewer (tcSubject = " + tcSubject.getUserId() + ", " + projectId + "," + userId + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("addReviewer (tcSubject = " + tcSubject.getUserId() + ", " + projectId + "," + userId + ")");
+        }
 
         try {
             return uploadExternalServices.addReviewer(projectId, userId);
@@ -7750,7 +7831,9 @@ public class ContestServiceFacadeBean implements ContestServiceFacadeLocal, Cont
      */
     public com.topcoder.management.resource.Resource addPrimaryScreener(TCSubject tcSubject, long projectId, long userId)
         throws ContestServiceException {
-        logger.debug("addPrimaryScreener (tcSubject = " + tcSubject.getUserId() + ", " + projectId + "," + userId + ")");
+        if (logger.isDebugEnabled()) {
+            logger.debug("addPrimaryScreener (tcSubject = " + tcSubject.getUserId() + ", " + projectId + "," + userId + ")");
+        }
 
         try {
             return uploadExternalServices.addPrimaryScreener(projectId, userId);
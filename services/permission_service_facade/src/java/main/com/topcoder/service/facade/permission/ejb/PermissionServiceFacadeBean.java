@@ -1,10 +1,15 @@
 /*
- * Copyright (C) 2012 - 2014 TopCoder Inc., All Rights Reserved.
+ * Copyright (C) 2012 - 2016 TopCoder Inc., All Rights Reserved.
  */
 package com.topcoder.service.facade.permission.ejb;
 
+import com.topcoder.management.project.SimpleContestUserData;
 import com.topcoder.management.resource.ResourceRole;
+import com.topcoder.management.resource.search.ResourceFilterBuilder;
 import com.topcoder.project.service.ProjectServices;
+import com.topcoder.search.builder.filter.AndFilter;
+import com.topcoder.search.builder.filter.Filter;
+import com.topcoder.search.builder.filter.InFilter;
 import com.topcoder.security.RolePrincipal;
 import com.topcoder.security.TCSubject;
 import com.topcoder.security.groups.model.GroupPermissionType;
@@ -58,6 +63,9 @@ import java.rmi.RemoteException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -91,10 +99,30 @@ import java.util.Set;
  * </ul>
  * </p>
  *
+ * <p>
+ * Version 1.3 change notes:
+ * <ul>
+ *     <li>Updated methods {@link #updatePermissions(TCSubject, Permission[])} and
+ *     {@link #updateProjectPermissions(TCSubject, List, long)} to add / remove the observers of all the contests of
+ *     a project at once, the data of the contests, the eligibilities, the observer resources, the notifications and
+ *     the forum watches are handled in batch instead of one contest at a time.</li>
+ *     <li>Replaced methods <code>assignRole</code>, <code>checkTerms</code> and <code>isEligible</code> with
+ *     the batch methods {@link #addObservers(TCSubject, List, long, boolean, boolean, boolean, boolean)},
+ *     {@link #removeObservers(TCSubject, List, long, boolean, boolean)}, {@link #filterByTerms(List, long, int[])}
+ *     and {@link #filterByEligibility(List, long, boolean)}.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Version 1.4 change notes:
+ * <ul>
+ *     <li>Updated method {@link #filterByEligibility(List, long, boolean)} to retrieve the eligibilities of all the
+ *     contests with one call and validate them with one call.</li>
+ * </ul>
+ * </p>
  *
- * 
  * @author GreatKevin
- * @version 1.2
+ * @version 1.4
  */
 @Stateless
 @TransactionManagement(TransactionManagementType.CONTAINER)
@@ -496,18 +524,8 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
                         projectIds.add(per.getResourceId());
                     }
 
-                    if (projectIds != null && projectIds.size() > 0) {
-                        // for each OR project, find all observers
-                        for (Long pid : projectIds) {
-                            // delegate to new method added in BUGR-3731
-                            this.assignRole(tcSubject, pid.longValue(), ResourceRole.RESOURCE_ROLE_OBSERVER_ID,
-                                    per.getUserId().longValue());
-
-                        }
-
-                    }
-
-
+                    // add the user as observer of all the OR projects at once
+                    addObservers(tcSubject, projectIds, per.getUserId().longValue(), true, true, false, false);
                 }
                 // if remove permission, we need to remove observer
                 else if (per.getPermissionType() == null || per.getPermissionType().getName() == null
@@ -534,46 +552,10 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
                             projectIds.add(per.getResourceId());
                         }
 
-                        if (projectIds != null && projectIds.size() > 0) {
-                            for (Long pid : projectIds) {
-                                // if we are removing project permission but user still has contest permission,
-                                // or if we are removing contest permission but user still has project permission
-                                // we will not remove observer
-                                if ((!projectServices.hasContestPermission(pid, toDelete.getUserId()) && isTCProject)
-                                        || (!projectServices.checkProjectPermission(
-                                        projectServices.getTcDirectProject(pid), true, toDelete.getUserId()) &&
-                                        !isTCProject)) {
-                                    com.topcoder.management.resource.Resource[] resources = projectServices.searchResources(
-                                            pid, ResourceRole.RESOURCE_ROLE_OBSERVER_ID);
-
-                                    com.topcoder.management.resource.Resource delRes = null;
-
-                                    // check if user is already a observer
-                                    if (resources != null && resources.length > 0) {
-                                        for (com.topcoder.management.resource.Resource resource : resources) {
-                                            if (resource.hasProperty(RESOURCE_INFO_EXTERNAL_REFERENCE_ID)
-                                                    && resource.getProperty(RESOURCE_INFO_EXTERNAL_REFERENCE_ID).equals(
-                                                    String.valueOf(toDelete.getUserId()))) {
-                                                delRes = resource;
-                                                break;
-                                            }
-                                        }
-                                    }
-
-                                    if (delRes != null) {
-                                        projectServices.removeResource(delRes, String.valueOf(tcSubject.getUserId()));
-                                        projectServices.removeNotifications(delRes.getId(), new long[]{pid.longValue()},
-                                                String.valueOf(delRes.getId()));
-                                    }
-
-                                    // delete forum watch
-                                    long forumId = projectServices.getForumId(pid);
-                                    if (forumId > 0 && createForum && !per.isStudio()) {
-                                        deleteSoftwareForumWatchAndRole(forumId, per.getUserId());
-                                    }
-                                }
-                            }
-                        }
+                        // if we are removing project permission but user still has contest permission,
+                        // or if we are removing contest permission but user still has project permission
+                        // we will not remove observer
+                        removeObservers(tcSubject, projectIds, toDelete.getUserId(), isTCProject, per.isStudio());
                     }
 
                 }
@@ -681,8 +663,10 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
 			//for now we will always add as observer to OR contests, 
 			boolean isCopilot = (role == ResourceRole.RESOURCE_ROLE_COPILOT_ID);
 			
-			role = ResourceRole.RESOURCE_ROLE_OBSERVER_ID;
-			
+            // the project data and the user preferences are shared by the permissions of the same project / user
+            Map<Long, ProjectData> cockpitProjects = new HashMap<Long, ProjectData>();
+            Map<Long, Map<Integer, String>> userPreferences = new HashMap<Long, Map<Integer, String>>();
+
             // when add/remove permission, we need to add/remove observer
             for (ProjectPermission permission : projectPermissions) {
                 // add permission
@@ -694,15 +678,19 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
                     boolean addForumWatch;
                     boolean addGlobalForumWatch;
 
-                    List<Integer> preferenceIds = new ArrayList<Integer>();
-                    // notification preference
-                    preferenceIds.add(GLOBAL_TIMELINE_NOTIFICATION);
-                    // forum preference
-                    preferenceIds.add(GLOBAL_FORUM_WATCH);
-                    // project forum preference
-                    preferenceIds.add(GLOBAL_PROJECT_FORUM_WATCH);
-
-                    Map<Integer, String> preferences = getUserPreferenceMaps(permission.getUserId(), preferenceIds);
+                    Map<Integer, String> preferences = userPreferences.get(permission.getUserId());
+                    if (preferences == null) {
+                        List<Integer> preferenceIds = new ArrayList<Integer>();
+                        // notification preference
+                        preferenceIds.add(GLOBAL_TIMELINE_NOTIFICATION);
+                        // forum preference
+                        preferenceIds.add(GLOBAL_FORUM_WATCH);
+                        // project forum preference
+                        preferenceIds.add(GLOBAL_PROJECT_FORUM_WATCH);
+
+                        preferences = getUserPreferenceMaps(permission.getUserId(), preferenceIds);
+                        userPreferences.put(permission.getUserId(), preferences);
+                    }
 
                     addNotification = Boolean.parseBoolean(preferences.get(GLOBAL_TIMELINE_NOTIFICATION));
                     addForumWatch = Boolean.parseBoolean(preferences.get(GLOBAL_FORUM_WATCH));
@@ -715,7 +703,7 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
 					}
 
                     // grant user to project level forum, always watch project forum
-                    ProjectData cockpitProj = projectService.getProject(tcSubject, permission.getProjectId());
+                    ProjectData cockpitProj = getCockpitProject(tcSubject, permission.getProjectId(), cockpitProjects);
                     if (cockpitProj.getForumCategoryId() != null && !cockpitProj.getForumCategoryId().equals("")) {
                         Long projForumId = Long.parseLong(cockpitProj.getForumCategoryId());
                         createSoftwareForumWatchAndRole(projForumId, permission.getUserId(), addGlobalForumWatch);
@@ -725,12 +713,9 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
                             .getProjectIdByTcDirectProject(permission
                                     .getProjectId());
 
-                    // for each OR project, find all observers
-                    for (Long pid : projectIds) {
-                        this.assignRole(tcSubject, pid.longValue(), role,
-                                permission.getUserId(), null, addNotification,
-                                addForumWatch, permission.getStudio(), true);
-                    }
+                    // add the user as observer of all the OR projects at once
+                    addObservers(tcSubject, projectIds, permission.getUserId(), addNotification, addForumWatch,
+                            permission.getStudio(), true);
                 } else if (permission.getPermission() == null
                         || "".equals(permission.getPermission())) {
                     List<Permission> ps = getPermissions(tcSubject, permission
@@ -743,7 +728,8 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
                     if (toDelete != null) {
 
                         // remove user to project level forum
-                        ProjectData cockpitProj = projectService.getProject(tcSubject, permission.getProjectId());
+                        ProjectData cockpitProj = getCockpitProject(tcSubject, permission.getProjectId(),
+                                cockpitProjects);
                         if (cockpitProj.getForumCategoryId() != null && !cockpitProj.getForumCategoryId().equals("")) {
                             Long projForumId = Long.parseLong(cockpitProj.getForumCategoryId());
                             deleteSoftwareForumWatchAndRole(projForumId, permission.getUserId());
@@ -754,44 +740,10 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
                                 .getProjectIdByTcDirectProject(permission
                                         .getProjectId());
 
-                        for (Long pid : projectIds) {
-                            // if we are removing project permission but user
-                            // still has contest permission,
-                            // we will not remove observer
-                            if ((!projectServices.hasContestPermission(pid,
-                                    toDelete.getUserId()))) {
-                                com.topcoder.management.resource.Resource[] resources = projectServices
-                                        .searchResources(pid, role);
-
-                                com.topcoder.management.resource.Resource delRes = null;
-
-                                // check if user is already a observer
-                                if (resources != null && resources.length > 0) {
-                                    for (com.topcoder.management.resource.Resource resource : resources) {
-                                        if (resource.hasProperty(RESOURCE_INFO_EXTERNAL_REFERENCE_ID)
-                                                && resource.getProperty(RESOURCE_INFO_EXTERNAL_REFERENCE_ID)
-                                                .equals(String.valueOf(toDelete.getUserId()))) {
-                                            delRes = resource;
-                                            break;
-                                        }
-                                    }
-                                }
-
-                                if (delRes != null) {
-                                    projectServices.removeResource(delRes,
-                                            String.valueOf(tcSubject.getUserId()));
-                                    projectServices.removeNotifications(toDelete.getUserId(), new long[]{pid
-                                            .longValue()}, String.valueOf(tcSubject.getUserId()));
-                                }
-
-                                // delete forum watch
-                                long forumId = projectServices.getForumId(pid);
-                                if (forumId > 0 && createForum && !permission.getStudio()) {
-                                    deleteSoftwareForumWatchAndRole(forumId, permission
-                                            .getUserId());
-                                }
-                            }
-                        }
+                        // if we are removing project permission but user
+                        // still has contest permission,
+                        // we will not remove observer
+                        removeObservers(tcSubject, projectIds, toDelete.getUserId(), true, permission.getStudio());
                     }
                 }
             }
@@ -982,109 +934,232 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
     }
 
     /**
-     * Assign the given roleId to the specified userId in the given project.
+     * Adds the forum watches and forum roles for the specified userId and forumIds, the forums EJB is looked up once
+     * for all the forums.
      *
-     * @param tcSubject the TCSubject instance.
-     * @param projectId the id of the project.
-     * @param roleId    the id of the role.
-     * @param userId    the id of the user.
-     * @param phase     the <code>Phase</code> associated with the resource.
-     * @param isStudio  whether assign to studio contest.
+     * @param forumIds the ids of the forums.
+     * @param userId   the id of the user.
+     * @param watch    the forum watch flag.
+     * @since 1.3
      */
-    private void assignRole(TCSubject tcSubject, long projectId, long roleId, long userId, com.topcoder.project.phases.Phase phase,
-                            boolean addNotification, boolean addForumWatch, boolean isStudio, boolean checkTerm)
-            throws PermissionServiceException {
-        logger.debug("enter method assignRole");
+    private void createSoftwareForumWatchesAndRoles(List<Long> forumIds, long userId, boolean watch) {
+        logger.debug("createSoftwareForumWatchesAndRoles (" + forumIds + ", " + userId + ")");
 
+        Forums forums;
         try {
-            //  com.topcoder.management.resource.Resource[] resources = projectServices.searchResources(projectId, roleId);
-
-            boolean found = false;
-
-            found = projectServices.resourceExists(projectId, roleId, userId);
+            forums = getSoftwareForums();
+        } catch (Exception e) {
+            logger.error("*** Could not create the software forum watches for " + forumIds + ", " + userId);
+            logger.error(e);
+            return;
+        }
 
-            boolean termChecking = !checkTerm || checkTerms(projectId, userId, new int[]{(int) roleId});
+        for (long forumId : forumIds) {
+            try {
+                forums.assignRole(userId, "Software_Moderators_" + forumId);
+                if (watch) {
+                    forums.createCategoryWatch(userId, forumId);
+                }
+            } catch (Exception e) {
+                logger.error("*** Could not create a software forum watch for " + forumId + ", " + userId);
+                logger.error(e);
+            }
+        }
 
+        logger.debug("Exit createSoftwareForumWatchesAndRoles (" + forumIds + ", " + userId + ")");
+    }
 
-            // if not found && user agreed terms (if any) && is eligible, add resource
-            if (!found && termChecking
-                    && isEligible(userId, projectId, false)) {
+    /**
+     * Gets the cockpit project with the given id, the project is retrieved once and cached in the given map.
+     *
+     * @param tcSubject the TCSubject instance.
+     * @param projectId the id of the cockpit project.
+     * @param cockpitProjects the cockpit projects retrieved so far.
+     * @return the cockpit project.
+     * @throws Exception if any error.
+     * @since 1.3
+     */
+    private ProjectData getCockpitProject(TCSubject tcSubject, long projectId, Map<Long, ProjectData> cockpitProjects)
+            throws Exception {
+        ProjectData cockpitProj = cockpitProjects.get(projectId);
+        if (cockpitProj == null) {
+            cockpitProj = projectService.getProject(tcSubject, projectId);
+            cockpitProjects.put(projectId, cockpitProj);
+        }
+        return cockpitProj;
+    }
 
-                com.topcoder.management.resource.Resource newRes = new com.topcoder.management.resource.Resource();
-                newRes.setId(com.topcoder.management.resource.Resource.UNSET_ID);
-                newRes.setProject(projectId);
+    /**
+     * Adds the specified user as observer of the given contests. The user is added to the contests where he is not
+     * an observer yet, has agreed the terms (if checked) and is eligible to. The data of the contests and the
+     * eligibilities are retrieved for all the contests at once, and the notifications are added in one call.
+     *
+     * @param tcSubject       the TCSubject instance.
+     * @param contestIds      the ids of the contests.
+     * @param userId          the id of the user.
+     * @param addNotification whether to add the timeline notifications.
+     * @param addForumWatch   whether to watch the forums of the contests.
+     * @param isStudio        whether the contests are studio contests.
+     * @param checkTerm       whether to check the terms of the contests.
+     * @throws Exception if any error.
+     * @since 1.3
+     */
+    private void addObservers(TCSubject tcSubject, List<Long> contestIds, long userId, boolean addNotification,
+                              boolean addForumWatch, boolean isStudio, boolean checkTerm) throws Exception {
+        if (contestIds == null || contestIds.isEmpty()) {
+            return;
+        }
+        logger.debug("enter method addObservers (" + contestIds.size() + " contests, " + userId + ")");
 
-                ResourceRole[] allroles = projectServices.getAllResourceRoles();
-                ResourceRole roleToSet = null;
-                if (allroles != null && allroles.length > 0) {
-                    for (ResourceRole role : allroles) {
-                        if (role.getId() == roleId) {
-                            roleToSet = role;
-                        }
-                    }
-                }
+        long roleId = ResourceRole.RESOURCE_ROLE_OBSERVER_ID;
+        List<SimpleContestUserData> contests = new ArrayList<SimpleContestUserData>();
+        for (SimpleContestUserData data : projectServices.getContestUserData(toArray(contestIds), roleId, userId)) {
+            if (!data.isResourceExists()) {
+                contests.add(data);
+            }
+        }
 
-                if (roleToSet == null) {
-                    throw new PermissionServiceException("Invalid role id " + roleId);
-                }
+        // if user agreed terms (if any) && is eligible, add resource
+        if (checkTerm) {
+            contests = filterByTerms(contests, userId, new int[] {(int) roleId});
+        }
+        contests = filterByEligibility(contests, userId, false);
+        if (contests.isEmpty()) {
+            logger.debug("exit method addObservers");
+            return;
+        }
 
-                newRes.setResourceRole(roleToSet);
-                if (phase != null) {
-                    newRes.setPhase(phase.getId());
+        ResourceRole roleToSet = null;
+        ResourceRole[] allroles = projectServices.getAllResourceRoles();
+        if (allroles != null) {
+            for (ResourceRole role : allroles) {
+                if (role.getId() == roleId) {
+                    roleToSet = role;
                 }
+            }
+        }
+        if (roleToSet == null) {
+            throw new PermissionServiceException("Invalid role id " + roleId);
+        }
+        String handle = String.valueOf(userService.getUserHandle(userId));
+        String operator = String.valueOf(tcSubject.getUserId());
+
+        long[] addedIds = new long[contests.size()];
+        List<Long> forumIds = new ArrayList<Long>();
+        for (int i = 0; i < addedIds.length; i++) {
+            SimpleContestUserData data = contests.get(i);
+
+            com.topcoder.management.resource.Resource newRes = new com.topcoder.management.resource.Resource();
+            newRes.setId(com.topcoder.management.resource.Resource.UNSET_ID);
+            newRes.setProject(data.getContestId());
+            newRes.setResourceRole(roleToSet);
+            newRes.setProperty(RESOURCE_INFO_EXTERNAL_REFERENCE_ID, String.valueOf(userId));
+            newRes.setProperty(RESOURCE_INFO_HANDLE, handle);
+            newRes.setProperty(RESOURCE_INFO_PAYMENT_STATUS, RESOURCE_INFO_PAYMENT_STATUS_NA);
+            newRes.setProperty(RESOURCE_INFO_REGISTRATION_DATE, DATE_FORMAT.format(new Date()));
+            newRes.setUserId(userId);
+            projectServices.updateResource(newRes, operator);
+
+            addedIds[i] = data.getContestId();
+            if (data.getForumId() > 0) {
+                forumIds.add(data.getForumId());
+            }
+        }
 
-                newRes.setProperty(RESOURCE_INFO_EXTERNAL_REFERENCE_ID, String.valueOf(userId));
-                newRes.setProperty(RESOURCE_INFO_HANDLE, String.valueOf(userService.getUserHandle(userId)));
-                newRes.setProperty(RESOURCE_INFO_PAYMENT_STATUS, RESOURCE_INFO_PAYMENT_STATUS_NA);
-                newRes.setProperty(RESOURCE_INFO_REGISTRATION_DATE, DATE_FORMAT.format(new Date()));
-                newRes.setUserId(userId);
-                projectServices.updateResource(newRes, String.valueOf(tcSubject.getUserId()));
-
-                // only check notification setting for observer, else always addd
-                if (roleId != ResourceRole.RESOURCE_ROLE_OBSERVER_ID || addNotification) {
-                    projectServices.addNotifications(userId,
-                            new long[]{projectId},
-                            String.valueOf(tcSubject.getUserId()));
-                }
+        // only check notification setting for observer
+        if (addNotification) {
+            projectServices.addNotifications(userId, addedIds, operator);
+        }
 
+        // create forum watch
+        if (createForum && !isStudio && !forumIds.isEmpty()) {
+            createSoftwareForumWatchesAndRoles(forumIds, userId, addForumWatch);
+        }
 
-                // create forum watch
-                long forumId = projectServices.getForumId(projectId);
+        logger.debug("exit method addObservers");
+    }
 
-                // only check notification for observer
-                if (roleId != ResourceRole.RESOURCE_ROLE_OBSERVER_ID) {
-                    addForumWatch = true;
+    /**
+     * Removes the specified user from the observers of the given contests, unless the user still has the contest
+     * permission (when removing a project permission) or the project permission (when removing a contest
+     * permission). The data of the contests and the observer resources of the user are retrieved for all the contests
+     * at once, and the notifications are removed in one call.
+     *
+     * @param tcSubject   the TCSubject instance.
+     * @param contestIds  the ids of the contests.
+     * @param userId      the id of the user.
+     * @param isTCProject whether a project permission is removed.
+     * @param isStudio    whether the contests are studio contests.
+     * @throws Exception if any error.
+     * @since 1.3
+     */
+    private void removeObservers(TCSubject tcSubject, List<Long> contestIds, long userId, boolean isTCProject,
+                                 boolean isStudio) throws Exception {
+        if (contestIds == null || contestIds.isEmpty()) {
+            return;
+        }
+        logger.debug("enter method removeObservers (" + contestIds.size() + " contests, " + userId + ")");
+
+        long roleId = ResourceRole.RESOURCE_ROLE_OBSERVER_ID;
+        List<Long> observedIds = new ArrayList<Long>();
+        List<Long> forumIds = new ArrayList<Long>();
+        for (SimpleContestUserData data : projectServices.getContestUserData(toArray(contestIds), roleId, userId)) {
+            if (isTCProject ? !data.isContestPermission() : !data.isProjectPermission()) {
+                if (data.isResourceExists()) {
+                    observedIds.add(data.getContestId());
                 }
-
-                if (forumId > 0 && createForum && !isStudio) {
-                    createSoftwareForumWatchAndRole(forumId, userId, addForumWatch);
+                if (data.getForumId() > 0) {
+                    forumIds.add(data.getForumId());
                 }
+            }
+        }
 
+        if (!observedIds.isEmpty()) {
+            // find the observer resources of the user in all the contests at once
+            com.topcoder.management.resource.Resource[] resources = projectServices.searchResources(new AndFilter(
+                    Arrays.asList(new Filter[] {
+                        new InFilter(ResourceFilterBuilder.PROJECT_ID_FIELD_NAME, observedIds),
+                        ResourceFilterBuilder.createResourceRoleIdFilter(roleId),
+                        ResourceFilterBuilder.createExtensionPropertyNameFilter(RESOURCE_INFO_EXTERNAL_REFERENCE_ID),
+                        ResourceFilterBuilder.createExtensionPropertyValueFilter(String.valueOf(userId))})));
+
+            String operator = String.valueOf(tcSubject.getUserId());
+            Set<Long> removedIds = new HashSet<Long>();
+            if (resources != null) {
+                for (com.topcoder.management.resource.Resource resource : resources) {
+                    // remove one observer resource per contest
+                    if (removedIds.add(resource.getProject())) {
+                        projectServices.removeResource(resource, operator);
+                    }
+                }
             }
+            if (!removedIds.isEmpty()) {
+                projectServices.removeNotifications(userId, toArray(removedIds), operator);
+            }
+        }
 
-        } catch (UserServiceException use) {
-            sessionContext.setRollbackOnly();
-            throw new PermissionServiceException(use.getMessage(), use);
-        } catch (PermissionServiceException cse) {
-            sessionContext.setRollbackOnly();
-            throw new PermissionServiceException(cse.getMessage(), cse);
-        } finally {
-            logger.debug("exist method assignRole");
+        // delete forum watch
+        if (createForum && !isStudio && !forumIds.isEmpty()) {
+            deleteSoftwareForumWatchesAndRoles(forumIds, userId);
         }
+
+        logger.debug("exit method removeObservers");
     }
 
     /**
-     * Assign the given roleId to the specified userId in the given project.
+     * Converts the given ids to an array.
      *
-     * @param tcSubject the TCSubject instance.
-     * @param projectId the id of the project.
-     * @param roleId    the id of the role.
-     * @param userId    the id of the user.
-     * @throws PermissionServiceException if any error.
+     * @param ids the ids.
+     * @return the array of the ids.
+     * @since 1.3
      */
-    private void assignRole(TCSubject tcSubject, long projectId, long roleId, long userId)
-            throws PermissionServiceException {
-        assignRole(tcSubject, projectId, roleId, userId, null, true, true, false, false);
+    private static long[] toArray(Collection<Long> ids) {
+        long[] result = new long[ids.size()];
+        int i = 0;
+        for (Long id : ids) {
+            result[i++] = id;
+        }
+        return result;
     }
 
     /**
@@ -1112,6 +1187,39 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
         }
     }
 
+    /**
+     * Deletes the software forum watches and forum roles for the specified userId and forumIds, the forums EJB is
+     * looked up once for all the forums.
+     *
+     * @param forumIds the ids of the forums.
+     * @param userId   the id of the user.
+     * @since 1.3
+     */
+    private void deleteSoftwareForumWatchesAndRoles(List<Long> forumIds, long userId) {
+        logger.info("deleteForumWatches (" + forumIds + ", " + userId + ")");
+
+        Forums forums;
+        try {
+            forums = getSoftwareForums();
+        } catch (Exception e) {
+            logger.error("*** Could not delete the forum watches for " + forumIds + ", " + userId);
+            logger.error(e);
+            return;
+        }
+
+        for (long forumId : forumIds) {
+            try {
+                forums.deleteCategoryWatch(userId, forumId);
+                forums.removeRole(userId, "Software_Moderators_" + forumId);
+            } catch (Exception e) {
+                logger.error("*** Could not delete forum watch for " + forumId + ", " + userId);
+                logger.error(e);
+            }
+        }
+
+        logger.debug("Exit deleteForumWatches (" + forumIds + ", " + userId + ")");
+    }
+
     /**
      * Get the Software Forum EJB service for Software competitions.
      *
@@ -1149,16 +1257,25 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
     }
 
     /**
-     * Checks whether the specified user has the required terms of the specified project.
+     * Filters the contests whose required terms are agreed by the specified user. The terms EJBs are looked up once,
+     * and each term is checked once for all the contests.
      *
-     * @param projectId the id of the project.
-     * @param userId    the id of the user.
-     * @param roleIds   ids of the user roles.
-     * @return whether the user meets the term requirements.
+     * @param contests the contests.
+     * @param userId   the id of the user.
+     * @param roleIds  ids of the user roles.
+     * @return the contests which the user meets the term requirements of.
+     * @since 1.3
      */
-    private boolean checkTerms(long projectId, long userId, int[] roleIds) {
-        logger.info("checkTerms (" + projectId + ", " + userId + ", " + roleIds + ")");
+    private List<SimpleContestUserData> filterByTerms(List<SimpleContestUserData> contests, long userId,
+                                                      int[] roleIds) {
+        logger.info("filterByTerms (" + contests.size() + " contests, " + userId + ")");
+        List<SimpleContestUserData> result = new ArrayList<SimpleContestUserData>();
+        if (contests.isEmpty()) {
+            return result;
+        }
 
+        UserTermsOfUse userTerm;
+        ProjectRoleTermsOfUse projectTerm;
         try {
             Properties p = new Properties();
             p.put(Context.INITIAL_CONTEXT_FACTORY,
@@ -1170,7 +1287,7 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
             Context c = new InitialContext(p);
             UserTermsOfUseHome userTermsOfUseHome = (UserTermsOfUseHome) c.lookup(UserTermsOfUseHome.EJB_REF_NAME);
 
-            UserTermsOfUse userTerm = userTermsOfUseHome.create();
+            userTerm = userTermsOfUseHome.create();
 
             Properties p2 = new Properties();
             p2.put(Context.INITIAL_CONTEXT_FACTORY,
@@ -1182,60 +1299,95 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
             Context c2 = new InitialContext(p2);
             ProjectRoleTermsOfUseHome projectRoleTermsOfUseHome = (ProjectRoleTermsOfUseHome) c2.lookup(ProjectRoleTermsOfUseHome.EJB_REF_NAME);
 
-            ProjectRoleTermsOfUse projectTerm = projectRoleTermsOfUseHome.create();
-
-            List<Long>[] necessaryTerms = projectTerm.getTermsOfUse((int) projectId, roleIds, "java:/DS");
+            projectTerm = projectRoleTermsOfUseHome.create();
+        } catch (Exception e) {
+            logger.error("*** error in filterByTerms (" + userId + ")");
 
-            // if project does not have term
-            if (necessaryTerms == null || necessaryTerms.length == 0) {
-                return true;
-            }
+            logger.error(e);
+            return result;
+        }
 
-            for (int i = 0; i < necessaryTerms.length; i++) {
-                if (necessaryTerms[i] != null) {
-                    for (int j = 0; j < necessaryTerms[i].size(); j++) {
-                        Long termId = necessaryTerms[i].get(j);
-                        // if user has not agreed
-                        if (!userTerm.hasTermsOfUse(userId, termId, "java:/DS")) {
-                            return false;
+        // whether the user has agreed the terms checked so far
+        Map<Long, Boolean> agreedTerms = new HashMap<Long, Boolean>();
+        for (SimpleContestUserData contest : contests) {
+            try {
+                List<Long>[] necessaryTerms = projectTerm.getTermsOfUse((int) contest.getContestId(), roleIds,
+                        "java:/DS");
+
+                boolean agreed = true;
+                if (necessaryTerms != null) {
+                    for (int i = 0; i < necessaryTerms.length && agreed; i++) {
+                        if (necessaryTerms[i] != null) {
+                            for (int j = 0; j < necessaryTerms[i].size() && agreed; j++) {
+                                Long termId = necessaryTerms[i].get(j);
+                                Boolean hasTerm = agreedTerms.get(termId);
+                                if (hasTerm == null) {
+                                    hasTerm = userTerm.hasTermsOfUse(userId, termId, "java:/DS");
+                                    agreedTerms.put(termId, hasTerm);
+                                }
+                                // if user has not agreed
+                                agreed = hasTerm;
+                            }
                         }
                     }
                 }
-            }
-
-            logger.debug("checkTerms (" + projectId + ", " + userId + ", " + roleIds + ")");
-            return true;
 
-        } catch (Exception e) {
-            logger.error("*** error in checkTerms (" + projectId + ", " + userId + ", " + roleIds + ")");
+                if (agreed) {
+                    result.add(contest);
+                }
+            } catch (Exception e) {
+                logger.error("*** error in filterByTerms (" + contest.getContestId() + ", " + userId + ")");
 
-            logger.error(e);
-            return false;
+                logger.error(e);
+            }
         }
+
+        logger.debug("Exit filterByTerms (" + result.size() + " contests, " + userId + ")");
+        return result;
     }
 
     /**
      * <p>
-     * Checks whether the user is eligible to the contest.
+     * Filters the contests which the user is eligible to. The eligibilities of all the contests are retrieved and
+     * validated at once, the user is eligible to the contests without eligibility.
      * </p>
      *
+     * @param contests  the contests.
      * @param userId    the id of the user.
-     * @param contestId the id of the contest.
-     * @param isStudio  whether the contest is a studio contest.
-     * @return true if user is eligible, otherwise false.
+     * @param isStudio  whether the contests are studio contests.
+     * @return the contests which the user is eligible to.
      * @throws PermissionServiceException if any error.
+     * @since 1.3
      */
-    private boolean isEligible(long userId, long contestId, boolean isStudio)
-            throws PermissionServiceException {
-        String methodName = "isEligible";
+    private List<SimpleContestUserData> filterByEligibility(List<SimpleContestUserData> contests, long userId,
+                                                            boolean isStudio) throws PermissionServiceException {
+        String methodName = "filterByEligibility";
         logger.info("Enter: " + methodName);
 
-        boolean eligible = false;
+        List<SimpleContestUserData> result = new ArrayList<SimpleContestUserData>();
+        if (contests.isEmpty()) {
+            return result;
+        }
 
         try {
-            List<ContestEligibility> eligibilities = contestEligibilityManager.getContestEligibility(contestId,
-                    isStudio);
-            eligible = contestEligibilityValidationManager.validate(userId, eligibilities);
+            long[] contestIds = new long[contests.size()];
+            for (int i = 0; i < contestIds.length; i++) {
+                contestIds[i] = contests.get(i).getContestId();
+            }
+            Map<Long, List<ContestEligibility>> eligibilities =
+                    contestEligibilityManager.getContestEligibilities(contestIds, isStudio);
+
+            List<List<ContestEligibility>> lists = new ArrayList<List<ContestEligibility>>(contestIds.length);
+            for (long contestId : contestIds) {
+                lists.add(eligibilities.get(contestId));
+            }
+            BitSet eligible = contestEligibilityValidationManager.validateAll(userId, lists);
+
+            for (int i = 0; i < contestIds.length; i++) {
+                if (eligible.get(i)) {
+                    result.add(contests.get(i));
+                }
+            }
         } catch (ContestEligibilityPersistenceException e) {
             logger.error(e.getMessage(), e);
             throw new PermissionServiceException(e.getMessage(), e);
@@ -1245,6 +1397,6 @@ public class PermissionServiceFacadeBean implements PermissionServiceFacadeLocal
         }
 
         logger.info("Exit: " + methodName);
-        return eligible;
+        return result;
     }
 }
@@ -74,6 +74,8 @@ import javax.naming.NamingException;
 
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -215,9 +217,16 @@ import org.jboss.logging.Logger;
  *         <li>Updated createTopCoderDirectProjectForum method to log the method entry at INFO level</li>
  *     </ul>
  * </p>
+ * <p>
+ * Version 3.0 changes:
+ *     <ul>
+ *         <li>Updated {@link #retrieveClientProjects(boolean)} and {@link #retrieveAllClientProjects()} to retrieve
+ *         the client projects page by page instead of in a single query.</li>
+ *     </ul>
+ * </p>
  *
- * @author isv, waits, GreatKevin, duxiaoyang, GreatKevin, TCSCODER
- * @version 2.9
+ * @author isv, waits, GreatKevin, duxiaoyang, GreatKevin, TCSCODER, TCSASSEMBLER
+ * @version 3.0
  */
 @Stateless
 @TransactionManagement(TransactionManagementType.CONTAINER)
@@ -231,6 +240,26 @@ public class ProjectServiceFacadeBean implements ProjectServiceFacadeLocal, Proj
      */
     private static final String DEFAULT_NAMESPACE = ProjectServiceFacadeBean.class.getName();
 
+    /**
+     * <p>The number of client projects retrieved at a time.</p>
+     *
+     * @since 3.0
+     */
+    private static final int CLIENT_PROJECTS_PAGE_SIZE = 500;
+
+    /**
+     * <p>Orders the client projects by name, ignoring the case.</p>
+     *
+     * @since 3.0
+     */
+    private static final Comparator<Project> PROJECT_NAME_COMPARATOR = new Comparator<Project>() {
+        public int compare(Project first, Project second) {
+            String firstName = first.getName() == null ? "" : first.getName().toUpperCase();
+            String secondName = second.getName() == null ? "" : second.getName().toUpperCase();
+            return firstName.compareTo(secondName);
+        }
+    };
+
     /**
      * <p>Private constant specifying resource role observer id</p>
      *
@@ -832,6 +861,9 @@ public class ProjectServiceFacadeBean implements ProjectServiceFacadeLocal, Proj
      * Project.childProjects list too; otherwise the list should not be
      * returned. If nothing is found, return an empty list.
      * </p>
+     * <p>
+     * The projects are retrieved page by page and ordered by name.
+     * </p>
      *
      * @param includeChildren
      *                the flag that mention if the Project.childrenProjects list
@@ -844,7 +876,19 @@ public class ProjectServiceFacadeBean implements ProjectServiceFacadeLocal, Proj
  //   @WebMethod
     public List<Project> retrieveClientProjects(boolean includeChildren) throws DAOFault {
         try {
-            return this.projectDAO.retrieveAll(includeChildren);
+            List<Project> projects = new ArrayList<Project>();
+            List<Project> page;
+            Long afterId = null;
+            do {
+                page = this.projectDAO.retrieveAll(includeChildren, afterId, CLIENT_PROJECTS_PAGE_SIZE);
+                projects.addAll(page);
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == CLIENT_PROJECTS_PAGE_SIZE);
+
+            Collections.sort(projects, PROJECT_NAME_COMPARATOR);
+            return projects;
         } catch (DAOException e) {
             throw new DAOFault(e.getMessage(), e.getCause());
         }
@@ -883,6 +927,9 @@ public class ProjectServiceFacadeBean implements ProjectServiceFacadeLocal, Proj
      * Defines the operation that performs the retrieval of all entities from
      * the persistence. If nothing is found, return an empty list.
      * </p>
+     * <p>
+     * The projects are retrieved page by page, in the order of their ids.
+     * </p>
      *
      * @return the list of entities found in the persistence. If nothing is
      *         found, return an empty list.
@@ -892,7 +939,17 @@ public class ProjectServiceFacadeBean implements ProjectServiceFacadeLocal, Proj
     //@WebMethod
     public List<Project> retrieveAllClientProjects() throws DAOFault {
         try {
-            return this.projectDAO.retrieveAll();
+            List<Project> projects = new ArrayList<Project>();
+            List<Project> page;
+            Long afterId = null;
+            do {
+                page = this.projectDAO.retrieveAll(afterId, CLIENT_PROJECTS_PAGE_SIZE);
+                projects.addAll(page);
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == CLIENT_PROJECTS_PAGE_SIZE);
+            return projects;
         } catch (DAOException e) {
             throw new DAOFault(e.getMessage(), e.getCause());
         }
@@ -8,6 +8,7 @@ import com.topcoder.management.project.FileType;
 import com.topcoder.management.project.PersistenceException;
 import com.topcoder.management.project.Project;
 import com.topcoder.management.project.ProjectPlatform;
+import com.topcoder.management.project.SimpleContestUserData;
 import com.topcoder.management.project.SimplePipelineData;
 import com.topcoder.management.project.SimpleProjectContestData;
 import com.topcoder.management.project.SimpleProjectPermissionData;
@@ -211,6 +212,13 @@ import java.util.Set;
  *     <li>Added method {@link #getPhases(long)}</li>
  * </ul>
  * </p>
+ *
+ * <p>
+ * Version 1.9 change notes:
+ * <ul>
+ *     <li>Added method {@link #getContestUserData(long[], long, long)}</li>
+ * </ul>
+ * </p>
  * 
  * <p>
  * <strong>Thread Safety:</strong> Implementations must be thread-safe from the point of view of
@@ -220,7 +228,7 @@ import java.util.Set;
  *
  * @author argolite, moonli, pulky
  * @author fabrizyo, znyyddf, murphydog, waits, hohosky, isv, GreatKevin
- * @version 1.8
+ * @version 1.9
  */
 public interface ProjectServices {
     /**
@@ -1080,6 +1088,22 @@ public interface ProjectServices {
      */
     public boolean hasContestPermission(long contestId, long userId) throws ProjectServicesException;
 
+    /**
+     * Gets the data of the given user on the given contests with a single query: the forum of each contest, whether
+     * the user has a permission on the contest or on its direct project, and whether the user has a resource with
+     * the given role on the contest.
+     *
+     * @param contestIds the contest ids
+     * @param roleId the resource role id
+     * @param userId the user id
+     * @return the data of the user on the existing contests, empty if there is no contest.
+     * @throws IllegalArgumentException if contestIds is null
+     * @throws ProjectServicesException if any other error occurs.
+     * @since 1.9
+     */
+    public List<SimpleContestUserData> getContestUserData(long[] contestIds, long roleId, long userId)
+        throws ProjectServicesException;
+
      /**
      * <p>
      * Removes the given resource in the persistence store (by id).
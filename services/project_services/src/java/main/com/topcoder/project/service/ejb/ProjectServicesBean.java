@@ -18,6 +18,7 @@ import javax.ejb.TransactionAttributeType;
 import com.topcoder.management.project.FileType;
 import com.topcoder.management.project.Project;
 import com.topcoder.management.project.ProjectPlatform;
+import com.topcoder.management.project.SimpleContestUserData;
 import com.topcoder.management.project.SimplePipelineData;
 import com.topcoder.management.project.SimpleProjectContestData;
 import com.topcoder.management.project.SimpleProjectPermissionData;
@@ -247,8 +248,15 @@ import com.topcoder.util.log.LogManager;
  * </ul>
  * </p>
  *
+ * <p>
+ * Version 1.9 change notes:
+ * <ul>
+ *     <li>Added method {@link #getContestUserData(long[], long, long)}</li>
+ * </ul>
+ * </p>
+ *
  * @author fabrizyo, znyyddf, pulky, murphydog, waits, hohosky, isv, GreatKevin
- * @version 1.8
+ * @version 1.9
  * @since 1.0
  */
 @Stateless
@@ -1693,6 +1701,24 @@ public class ProjectServicesBean implements ProjectServicesLocal, ProjectService
         }
     }
 
+    /**
+     * Gets the data of the given user on the given contests with a single query: the forum of each contest, whether
+     * the user has a permission on the contest or on its direct project, and whether the user has a resource with
+     * the given role on the contest.
+     *
+     * @param contestIds the contest ids
+     * @param roleId the resource role id
+     * @param userId the user id
+     * @return the data of the user on the existing contests, empty if there is no contest.
+     * @throws IllegalArgumentException if contestIds is null
+     * @throws ProjectServicesException if any other error occurs.
+     * @since 1.9
+     */
+    public List<SimpleContestUserData> getContestUserData(long[] contestIds, long roleId, long userId)
+        throws ProjectServicesException {
+        return getProjectServices().getContestUserData(contestIds, roleId, userId);
+    }
+
     /**
      * <p>
      * Removes the given resource in the persistence store (by id). If the id does not exist in the persistence, nothing
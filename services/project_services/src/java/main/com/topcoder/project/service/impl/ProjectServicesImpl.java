@@ -21,6 +21,7 @@ import com.topcoder.management.review.ReviewManagementException;
 import com.topcoder.management.review.ReviewManager;
 import com.topcoder.management.review.data.Comment;
 import com.topcoder.management.review.data.Review;
+import com.topcoder.management.review.application.impl.OpenAuctionIndex;
 import com.topcoder.management.scorecard.ScorecardManager;
 import com.topcoder.management.scorecard.data.Scorecard;
 import com.topcoder.management.team.TeamManager;
@@ -430,13 +431,28 @@ import java.util.*;
  * </ul>
  * <p>
  *
+ * <p>
+ * Version 2.4 change notes:
+ * <ul>
+ *     <li>Added method {@link #getContestUserData(long[], long, long)}</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Version 2.5 change notes:
+ * <ul>
+ *     <li>The updates of the resources, the phases and the projects are reported to
+ *     {@link OpenAuctionIndex}, so the open review auctions of the project are reloaded.</li>
+ * </ul>
+ * </p>
+ *
  * <strong>Thread Safety:</strong> This class is immutable but operates on non thread safe objects,
  * thus making it potentially non thread safe.
  * </p>
  *
  * @author argolite, moonli, pulky
- * @author fabrizyo, znyyddf, murphydog, waits, hohosky, isv, lmmortal, GreatKevin, TCSCODER
- * @version 2.3
+ * @author fabrizyo, znyyddf, murphydog, waits, hohosky, isv, lmmortal, GreatKevin, TCSCODER, TCSASSEMBLER
+ * @version 2.5
  * @since 1.0
  */
 public class ProjectServicesImpl implements ProjectServices {
@@ -2100,6 +2116,9 @@ public class ProjectServicesImpl implements ProjectServices {
                 Util.log(logger, Level.DEBUG, "Finished calling ResourceManager#updateResources method.");
             }
 
+            // the open positions of the review auctions of the project may have changed
+            OpenAuctionIndex.getInstance().projectChanged(projectHeader.getId());
+
 
             // creates an instance of FullProjectData with phaseProject
             FullProjectData projectData = new FullProjectData(projectPhases.getStartDate(), projectPhases.getWorkdays());
@@ -3253,7 +3272,9 @@ public class ProjectServicesImpl implements ProjectServices {
 
         Util.log(logger, Level.INFO, "Enters " + method);
         try {
-            return resourceManager.updateResource(resource, operator);
+            Resource result = resourceManager.updateResource(resource, operator);
+            projectChanged(result.getProject());
+            return result;
         } catch (Exception e) {
             Util.log(logger, Level.ERROR, "ProjectServicesException occurred in " + method);
             throw new ProjectServicesException("PersistenceException occurred when operating ProjectManager.", e);
@@ -3311,6 +3332,35 @@ public class ProjectServicesImpl implements ProjectServices {
         }
     }
 
+    /**
+     * Gets the data of the given user on the given contests with a single query: the forum of each contest, whether
+     * the user has a permission on the contest or on its direct project, and whether the user has a resource with
+     * the given role on the contest.
+     *
+     * @param contestIds the contest ids
+     * @param roleId the resource role id
+     * @param userId the user id
+     * @return the data of the user on the existing contests, empty if there is no contest.
+     * @throws IllegalArgumentException if contestIds is null
+     * @throws ProjectServicesException if any other error occurs.
+     * @since 2.4
+     */
+    public List<SimpleContestUserData> getContestUserData(long[] contestIds, long roleId, long userId)
+        throws ProjectServicesException {
+        String method = "getContestUserData(" + roleId + "," + userId + ")";
+
+        Util.log(logger, Level.INFO, "Enters " + method);
+        ExceptionUtils.checkNull(contestIds, null, null, "The parameter[contestIds] should not be null.");
+        try {
+            return projectManager.getContestUserData(contestIds, roleId, userId);
+        } catch (PersistenceException e) {
+            Util.log(logger, Level.ERROR, "ProjectServicesException occurred in " + method);
+            throw new ProjectServicesException("PersistenceException occurred when operating ProjectManager.", e);
+        } finally {
+            Util.log(logger, Level.INFO, "Exits " + method);
+        }
+    }
+
     /**
      * <p>
      * Removes the given resource in the persistence store (by id).
@@ -3328,6 +3378,7 @@ public class ProjectServicesImpl implements ProjectServices {
         Util.log(logger, Level.INFO, "Enters " + method);
         try {
             resourceManager.removeResource(resource, operator);
+            projectChanged(resource.getProject());
         } catch (Exception e) {
             Util.log(logger, Level.ERROR, "ProjectServicesException occurred in " + method + ": " + e);
             throw new ProjectServicesException("PersistenceException occurred when operating ProjectManager.", e);
@@ -3336,6 +3387,19 @@ public class ProjectServicesImpl implements ProjectServices {
         }
     }
 
+    /**
+     * Reports to the open review auction index that the resources of the project changed, so the open positions of
+     * its review auctions are reloaded. The index records the change once the container transaction commits.
+     *
+     * @param projectId the project id, can be null
+     * @since 2.5
+     */
+    private static void projectChanged(Long projectId) {
+        if (projectId != null) {
+            OpenAuctionIndex.getInstance().projectChanged(projectId);
+        }
+    }
+
 
     /**
      * Search resources by project id and role id
@@ -3969,6 +4033,7 @@ public class ProjectServicesImpl implements ProjectServices {
 
         try {
             phaseManager.updatePhases(project, operator);
+            OpenAuctionIndex.getInstance().projectChanged(project.getId());
 
         } catch (PhaseManagementException ex) {
             log(Level.ERROR, "PhaseManagementException occurred in " + method);
@@ -4145,6 +4210,7 @@ public class ProjectServicesImpl implements ProjectServices {
 
         try {
             projectManager.updateProject(project, reason, operator);
+            OpenAuctionIndex.getInstance().projectChanged(project.getId());
 
         } catch (PersistenceException ex) {
             log(Level.ERROR, "PersistenceException occurred in " + method);
@@ -11,6 +11,7 @@ import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.rmi.RemoteException;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -22,6 +23,8 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Locale;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.sql.PreparedStatement;
 
 
@@ -40,7 +43,6 @@ import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 
-import com.cronos.onlinereview.phases.lookup.ResourceRoleLookupUtility;
 import com.cronos.onlinereview.phases.lookup.SubmissionStatusLookupUtility;
 import com.cronos.onlinereview.phases.lookup.SubmissionTypeLookupUtility;
 import com.cronos.onlinereview.services.uploads.UploadExternalServices;
@@ -58,9 +60,7 @@ import com.topcoder.management.resource.ResourceManager;
 import com.topcoder.management.resource.ResourceRole;
 import com.topcoder.management.resource.persistence.PersistenceResourceManager;
 import com.topcoder.management.resource.persistence.ResourcePersistence;
-import com.topcoder.management.resource.persistence.ResourcePersistenceException;
 import com.topcoder.management.resource.persistence.sql.SqlResourcePersistence;
-import com.topcoder.management.resource.search.ResourceFilterBuilder;
 import com.topcoder.management.review.ReviewManagementException;
 import com.topcoder.management.review.ReviewManager;
 import com.topcoder.management.review.data.Review;
@@ -239,11 +239,23 @@ import com.topcoder.web.ejb.forums.ForumsHome;
  * <code>ReviewManager</code>, <code>ScorecardManager</code> and
  * <code>ResourceManager</code> are not thread safe, thus all calls of their methods are
  * synchronized in this class. This bean assumes that transactions are managed by the
- * container.
+ * container. The snapshot of the open specification review positions is shared by all the
+ * bean instances, it's published through volatile fields and updated with a concurrent set.
+ * </p>
+ * <p>
+ * Version 1.2 change notes:
+ * <ul>
+ * <li>The open specification review positions are found by a single query over the active
+ * projects and their specification reviewers instead of searching the resources of every
+ * active project, and the result can be reused for
+ * <code>openPositionsRefreshInterval</code> milliseconds.</li>
+ * <li>{@link #scheduleSpecificationReview(TCSubject, long, boolean)} updates the open
+ * position of the scheduled project in the reused result.</li>
+ * </ul>
  * </p>
  *
  * @author saarixx, myxgyy
- * @version 1.0
+ * @version 1.2
  */
 @Stateless
 public class SpecificationReviewServiceBean implements SpecificationReviewServiceLocal,
@@ -288,6 +300,50 @@ public class SpecificationReviewServiceBean implements SpecificationReviewServic
 
     private static final DateFormat DATE_FORMAT = new SimpleDateFormat("MM.dd.yyyy hh:mm a", Locale.US);
 
+    /**
+     * <p>
+     * The query of the active projects having no specification reviewer.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private static final String OPEN_POSITIONS_QUERY = "SELECT p.project_id FROM project p"
+        + " INNER JOIN project_status_lu ps ON ps.project_status_id = p.project_status_id"
+        + " WHERE ps.name = 'Active' AND NOT EXISTS (SELECT 1 FROM resource r"
+        + " INNER JOIN resource_role_lu rr ON rr.resource_role_id = r.resource_role_id"
+        + " WHERE r.project_id = p.project_id AND rr.name = '" + SPECIFICATION_REVIEWER + "')";
+
+    /**
+     * <p>
+     * The query checking whether the given project is active and has no specification
+     * reviewer.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private static final String PROJECT_OPEN_POSITION_QUERY = OPEN_POSITIONS_QUERY
+        + " AND p.project_id = ?";
+
+    /**
+     * <p>
+     * The IDs of the projects whose specification review positions are not filled, as
+     * loaded at <code>openPositionsLoadTime</code>. Is null until the positions are loaded
+     * with a positive <code>openPositionsRefreshInterval</code>.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private static volatile Set<Long> openPositions;
+
+    /**
+     * <p>
+     * The time the <code>openPositions</code> were loaded.
+     * </p>
+     *
+     * @since 1.2
+     */
+    private static volatile long openPositionsLoadTime;
+
 
      /**
      * A flag indicating whether or not create the forum. It's injected, used in
@@ -308,9 +364,8 @@ public class SpecificationReviewServiceBean implements SpecificationReviewServic
      * </p>
      * <p>
      * Cannot be null after initialization. Is used in
-     * {@link #scheduleSpecificationReview(TCSubject, long, Date)},
-     * {@link #getSpecificationReviewStatus(TCSubject, long)} and
-     * {@link #getOpenSpecificationReviewPositions(TCSubject)}.
+     * {@link #scheduleSpecificationReview(TCSubject, long, Date)} and
+     * {@link #getSpecificationReviewStatus(TCSubject, long)}.
      * </p>
      */
     @EJB(name = "ejb/ProjectServicesBean")
@@ -381,7 +436,7 @@ public class SpecificationReviewServiceBean implements SpecificationReviewServic
      * </p>
      * <p>
      * Is initialized in {@link #initialize()}. Cannot be null after initialization. Is
-     * used in {@link #getOpenSpecificationReviewPositions(TCSubject)}.
+     * used in {@link #scheduleSpecificationReview(TCSubject, long, boolean)}.
      * </p>
      * <p>
      * Thread safety: Implementations of <code>ResourceManager</code> are not required
@@ -580,6 +635,21 @@ public class SpecificationReviewServiceBean implements SpecificationReviewServic
     @Resource(name = "dbConnectionFactoryNamespace")
     private String dbConnectionFactoryNamespace;
 
+    /**
+     * <p>
+     * The number of milliseconds the loaded open specification review positions are reused
+     * by {@link #getOpenSpecificationReviewPositions(TCSubject)}.
+     * </p>
+     * <p>
+     * If null or not positive, the positions are loaded by every call. Can be modified with
+     * EJB container injection.
+     * </p>
+     *
+     * @since 1.2
+     */
+    @Resource(name = "openPositionsRefreshInterval")
+    private Long openPositionsRefreshInterval;
+
     /**
      * Represents the mapping from the contest type id to default spec reviewer map.
      */
@@ -985,6 +1055,8 @@ public class SpecificationReviewServiceBean implements SpecificationReviewServic
             //turn on AP
             fullProjectData.getProjectHeader().setProperty(AUTOPILOT_OPTION_PROJECT_PROPERTY_KEY, AUTOPILOT_OPTION_PROJECT_PROPERTY_VALUE_ON);
             updateProject(fullProjectData.getProjectHeader(), "Turn on AP", operator);
+
+            updateOpenPosition(projectId);
         } catch (Exception e) {
             throw logException(new SpecificationReviewServiceException("Error in scheduleSpecificationReview" + e, e));
         }
@@ -1402,60 +1474,110 @@ public class SpecificationReviewServiceBean implements SpecificationReviewServic
         throws SpecificationReviewServiceException {
         assertNotNull(tcSubject, "tcSubject");
 
-        List<Long> result = new ArrayList<Long>();
+        long refreshInterval = getOpenPositionsRefreshInterval();
+        Set<Long> positions = openPositions;
+        long now = System.currentTimeMillis();
+        if (refreshInterval <= 0 || positions == null || now - openPositionsLoadTime >= refreshInterval) {
+            positions = loadOpenPositions();
+            if (refreshInterval > 0) {
+                openPositionsLoadTime = now;
+                openPositions = positions;
+            }
+        }
+        return new ArrayList<Long>(positions);
+    }
+
+    /**
+     * Gets the number of milliseconds the loaded open specification review positions are
+     * reused.
+     *
+     * @return the refresh interval, not positive if the positions are not reused.
+     * @since 1.2
+     */
+    private long getOpenPositionsRefreshInterval() {
+        return openPositionsRefreshInterval == null ? 0 : openPositionsRefreshInterval;
+    }
 
-        // Find all active projects
-        com.topcoder.management.project.Project[] activeProjects;
+    /**
+     * Loads the IDs of all active projects having no specification reviewer.
+     *
+     * @return the IDs of the projects whose specification review positions are not filled.
+     * @throws SpecificationReviewServiceException
+     *             if any error occurs when querying the database.
+     * @since 1.2
+     */
+    private Set<Long> loadOpenPositions() throws SpecificationReviewServiceException {
+        Set<Long> positions = new ConcurrentSkipListSet<Long>();
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
         try {
-            activeProjects = projectServices.findActiveProjectsHeaders();
-        } catch (ProjectServicesException e) {
+            connection = createConnection();
+            preparedStatement = connection.prepareStatement(OPEN_POSITIONS_QUERY);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                positions.add(resultSet.getLong(1));
+            }
+            return positions;
+        } catch (SQLException e) {
             throw logException(new SpecificationReviewServiceException(
-                "Fails to finds all active projects.", e));
+                "Fails to find the open specification review positions.", e));
+        } finally {
+            closeStatement(preparedStatement);
+            closeConnection(connection);
+        }
+    }
+
+    /**
+     * Updates the open specification review position of the given project in the loaded
+     * positions, if they are reused.
+     *
+     * @param projectId
+     *            the ID of the project.
+     * @throws SpecificationReviewServiceException
+     *             if any error occurs when querying the database.
+     * @since 1.2
+     */
+    private void updateOpenPosition(long projectId) throws SpecificationReviewServiceException {
+        Set<Long> positions = openPositions;
+        if (positions == null || getOpenPositionsRefreshInterval() <= 0) {
+            return;
         }
 
-        // Look up ID of Specification Reviewer role
         Connection connection = null;
-        long specificationReviewerResourceRoleId;
+        PreparedStatement preparedStatement = null;
         try {
             connection = createConnection();
-            specificationReviewerResourceRoleId = ResourceRoleLookupUtility.lookUpId(connection,
-                SPECIFICATION_REVIEWER);
+            preparedStatement = connection.prepareStatement(PROJECT_OPEN_POSITION_QUERY);
+            preparedStatement.setLong(1, projectId);
+            if (preparedStatement.executeQuery().next()) {
+                positions.add(projectId);
+            } else {
+                positions.remove(projectId);
+            }
         } catch (SQLException e) {
             throw logException(new SpecificationReviewServiceException(
-                "Fails to lookup id for resource role[Specification Reviewer].", e));
+                "Fails to check the specification review position of the project: " + projectId, e));
         } finally {
+            closeStatement(preparedStatement);
             closeConnection(connection);
         }
+    }
 
-        try {
-            for (com.topcoder.management.project.Project activeProject : activeProjects) {
-                long projectId = activeProject.getId();
-                // Create filter for filtering resources for the current project
-                Filter projectIdFilter = ResourceFilterBuilder.createProjectIdFilter(projectId);
-                // Create filter for filtering resources with Specification Reviewer role
-                Filter specificationReviewerResourceRoleIdFilter = ResourceFilterBuilder
-                    .createResourceRoleIdFilter(specificationReviewerResourceRoleId);
-                // Create filter for filtering resources with Specification Reviewer role for the current project
-                Filter fullFilter = new AndFilter(projectIdFilter,
-                    specificationReviewerResourceRoleIdFilter);
-
-                // Search for specification reviewers for the current project
-                com.topcoder.management.resource.Resource[] specReviewers;
-                synchronized (this) {
-                    specReviewers = resourceManager.searchResources(fullFilter);
-                }
-
-                // the reviewer position has not been filled
-                if (specReviewers.length == 0) {
-                    result.add(projectId);
-                }
+    /**
+     * Closes the given statement, ignoring the errors.
+     *
+     * @param statement
+     *            the statement to close, may be null.
+     * @since 1.2
+     */
+    private static void closeStatement(PreparedStatement statement) {
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // ignore
             }
-        } catch (ResourcePersistenceException e) {
-            throw logException(new SpecificationReviewServiceException("Fails to search resource.", e));
-        } catch (SearchBuilderException e) {
-            throw logException(new SpecificationReviewServiceException("Fails to search resource.", e));
         }
-        return result;
     }
 
     /**
@@ -123,4 +123,40 @@ public class MockScreeningManager implements ScreeningManager {
     String getUserId() {
         return userId;
     }
+
+    /**
+     * Mock method, does nothing.
+     *
+     * @param uploads
+     *            the upload identifiers
+     * @param operator
+     *            the creation user of the screening tasks
+     * @throws PersistenceException
+     *             not thrown
+     * @throws ScreeningTaskAlreadyExistsException
+     *             not thrown
+     */
+    public void initiateScreening(long[] uploads, String operator) throws PersistenceException,
+            ScreeningTaskAlreadyExistsException {
+    }
+
+    /**
+     * Mock method, claims nothing.
+     *
+     * @param screener
+     *            the screener identifier
+     * @param maxTasks
+     *            the maximum number of tasks to claim
+     * @param leaseTimeout
+     *            the lease timeout in milliseconds
+     * @param operator
+     *            the modification user of the claimed screening tasks
+     * @return always empty array
+     * @throws PersistenceException
+     *             not thrown
+     */
+    public ScreeningTask[] claimScreeningTasks(long screener, int maxTasks, long leaseTimeout,
+            String operator) throws PersistenceException {
+        return new ScreeningTask[0];
+    }
 }
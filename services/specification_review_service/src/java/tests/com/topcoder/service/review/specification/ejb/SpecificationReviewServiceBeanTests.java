@@ -2289,6 +2289,41 @@ public class SpecificationReviewServiceBeanTests extends BaseTest {
         }
     }
 
+    /**
+     * <p>
+     * Tests {@link
+     * SpecificationReviewServiceBean#getOpenSpecificationReviewPositions(TCSubject)}
+     * method.
+     * </p>
+     * <p>
+     * The loaded positions are reused within the refresh interval, and loaded again once
+     * the positions are not reused.
+     * </p>
+     *
+     * @throws Exception
+     *             to JUnit.
+     */
+    public void test_getOpenSpecificationReviewPositions4() throws Exception {
+        setField(SpecificationReviewServiceBean.class, bean, "openPositionsRefreshInterval",
+            new Long(60000));
+        assertEquals("should have three ids", 3, bean.getOpenSpecificationReviewPositions(tcSubject).size());
+
+        Connection conn = getConnection();
+        setupPhasesForSpec(conn);
+        setupSubmissionForReview(conn);
+        Resource reviewer = createResource(5, 102L, 1, 18);
+        super.insertResources(conn, new Resource[] {reviewer});
+        insertResourceInfo(conn, reviewer.getId(), 1, "wishingbone");
+
+        assertEquals("the loaded positions should be reused", 3,
+            bean.getOpenSpecificationReviewPositions(tcSubject).size());
+
+        setField(SpecificationReviewServiceBean.class, bean, "openPositionsRefreshInterval", null);
+        List<Long> result = bean.getOpenSpecificationReviewPositions(tcSubject);
+        assertEquals("should have two ids", 2, result.size());
+        assertFalse("should not contain id 1", result.contains(new Long(1)));
+    }
+
     /**
      * <p>
      * Tests {@link
@@ -35,8 +35,8 @@ import com.topcoder.service.user.UserInfo;
 import com.topcoder.service.user.UserServiceException;
 import com.topcoder.service.user.UserServiceLocal;
 import com.topcoder.service.user.UserServiceRemote;
+import com.topcoder.service.util.idgenerator.BlockIDGeneratorFactory;
 import com.topcoder.util.idgenerator.IDGenerationException;
-import com.topcoder.util.idgenerator.IDGeneratorFactory;
 import com.topcoder.util.log.Level;
 import com.topcoder.util.log.Log;
 import com.topcoder.util.log.LogManager;
@@ -85,9 +85,16 @@ import com.topcoder.util.log.LogManager;
  * </ol>
  * </p>
  *
- * @author snow01, woodjhon, ernestobf, freegod
+ * <p>
+ * Version 1.3 change notes:
+ * <ol>
+ *  <li>The ID generators are taken from BlockIDGeneratorFactory, which reserves the IDs in blocks.</li>
+ * </ol>
+ * </p>
+ *
+ * @author snow01, woodjhon, ernestobf, freegod, TCSASSEMBLER
  * @since Cockpit Release Assembly for Receipts
- * @version 1.2 (TC Registration Feature in Popup Windows)
+ * @version 1.3
  */
 @TransactionManagement(TransactionManagementType.CONTAINER)
 @TransactionAttribute(TransactionAttributeType.REQUIRED)
@@ -527,7 +534,7 @@ public class UserServiceBean implements UserServiceRemote, UserServiceLocal {
             EntityManager em = getEntityManager();
 
             // generate the user id
-            long userId = IDGeneratorFactory.getIDGenerator(userIdGeneratorName).getNextID();
+            long userId = BlockIDGeneratorFactory.getIDGenerator(userIdGeneratorName).getNextID();
 
             // NULL is used for the last_login, activation_code, middle_name and last_site_hit_date columns.
             // 1 is assumed to be an existing time zone id.
@@ -581,7 +588,7 @@ public class UserServiceBean implements UserServiceRemote, UserServiceLocal {
             securityUserInsert.setParameter("createUserId", null);
 
             // generate the email id
-            long emailId = IDGeneratorFactory.getIDGenerator(emailIdGeneratorName).getNextID();
+            long emailId = BlockIDGeneratorFactory.getIDGenerator(emailIdGeneratorName).getNextID();
 
             // 1 is assumed to be a valid email type id.
             // 1 is used as a dummy value for primary_ind.
@@ -603,7 +610,7 @@ public class UserServiceBean implements UserServiceRemote, UserServiceLocal {
 
             if (user.getPhone() != null)
             {
-                phoneId = IDGeneratorFactory.getIDGenerator(phoneIdGeneratorName).getNextID();
+                phoneId = BlockIDGeneratorFactory.getIDGenerator(phoneIdGeneratorName).getNextID();
 
                 // 1 is assumed to be a valid phone type id.
                 // 1 is used as a dummy value for primary_ind.
@@ -632,7 +639,7 @@ public class UserServiceBean implements UserServiceRemote, UserServiceLocal {
                  Helper.checkNullEmpty(logger, user.getAddress().getProvince(), "user.address.province");
                  Helper.checkNullEmpty(logger, user.getAddress().getZip(), "user.address.zip");
 
-                addressId = IDGeneratorFactory.getIDGenerator(addressIdGeneratorName).getNextID();
+                addressId = BlockIDGeneratorFactory.getIDGenerator(addressIdGeneratorName).getNextID();
 
                 // 1 is assumed to be a valid address type id.
                 addressInsert = em.createNativeQuery(
@@ -874,7 +881,7 @@ public class UserServiceBean implements UserServiceRemote, UserServiceLocal {
             // finally insert the associations
 
             for (long groupId : groupIdsSet) {
-                long userGroupId = IDGeneratorFactory.getIDGenerator(userGroupIdGeneratorName).getNextID();
+                long userGroupId = BlockIDGeneratorFactory.getIDGenerator(userGroupIdGeneratorName).getNextID();
 
                 // the create_date is omitted because it has a default value (the current date)
                 // 1 is assumed to be user id
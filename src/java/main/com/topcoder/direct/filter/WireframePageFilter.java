@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.filter;
+
+import com.topcoder.direct.services.view.util.WireframeArchiveCache;
+import com.topcoder.direct.services.view.util.ZipArchive;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * <p>
+ * This servlet filter serves the wireframe submission pages ("/viewWireframePage/$submissionId/$page") straight from
+ * the submission archives opened by the <code>ViewWireframeSubmissionAction</code>, through
+ * {@link WireframeArchiveCache}. The pages are sent with their length, an ETag and the modification time of the
+ * archive entry, and the conditional requests of the unchanged pages are answered with 304 (Not Modified).
+ * </p>
+ *
+ * <p>
+ * The archives that are not cached are opened again from their submission files, so the pages stay available after
+ * the archives are evicted or the application is restarted. The requests of the submissions that can't be found
+ * are passed to the chain, so the wireframes extracted by the previous versions of the action are still served by
+ * the container.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class WireframePageFilter implements Filter {
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(WireframePageFilter.class);
+
+    /**
+     * The path of the wireframe pages.
+     */
+    private static final String VIEW_WIREFRAME_PAGE = "/viewWireframePage/";
+
+    /**
+     * The default max age of the served pages in seconds.
+     */
+    private static final int DEFAULT_MAX_AGE = 86400;
+
+    /**
+     * The servlet context, used to get the MIME types of the pages.
+     */
+    private ServletContext servletContext;
+
+    /**
+     * The max age of the served pages in seconds.
+     */
+    private int maxAge = DEFAULT_MAX_AGE;
+
+    /**
+     * Initialize the filter.
+     *
+     * @param filterConfig the filter config.
+     */
+    public void init(FilterConfig filterConfig) {
+        servletContext = filterConfig.getServletContext();
+        String configMaxAge = filterConfig.getInitParameter("maxAge");
+        if (configMaxAge != null && configMaxAge.trim().length() > 0) {
+            maxAge = Integer.parseInt(configMaxAge.trim());
+        }
+    }
+
+    /**
+     * Serves the requested wireframe page from the submission archive.
+     *
+     * @param request the servlet request
+     * @param response the servlet response
+     * @param chain the filter chain
+     * @throws IOException if an IO error occurs
+     * @throws ServletException if an error occurs
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException,
+            ServletException {
+        if (!(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        boolean head = "HEAD".equals(httpRequest.getMethod());
+        String path = httpRequest.getServletPath()
+                + (httpRequest.getPathInfo() == null ? "" : httpRequest.getPathInfo());
+        int slash = path.indexOf('/', VIEW_WIREFRAME_PAGE.length());
+        if (!(head || "GET".equals(httpRequest.getMethod())) || !path.startsWith(VIEW_WIREFRAME_PAGE) || slash < 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String submissionId = path.substring(VIEW_WIREFRAME_PAGE.length(), slash);
+        String name = path.substring(slash + 1);
+
+        WireframeArchiveCache.WireframeArchive archive;
+        try {
+            archive = WireframeArchiveCache.getInstance().getArchive(submissionId);
+        } catch (Exception e) {
+            logger.error("Can't open the wireframe archive of submission " + submissionId, e);
+            httpResponse.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+        if (archive == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ZipArchive.Entry entry = archive.getPage(name);
+        if (entry == null) {
+            httpResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String eTag = "\"" + submissionId + "-" + Long.toHexString(entry.getCrc()) + "-" + entry.getSize() + "\"";
+        // the HTTP dates have a precision of seconds
+        long lastModified = entry.getLastModified() / 1000 * 1000;
+        httpResponse.setHeader("ETag", eTag);
+        httpResponse.setDateHeader("Last-Modified", lastModified);
+        httpResponse.setHeader("Cache-Control", "private, max-age=" + maxAge);
+        String ifNoneMatch = httpRequest.getHeader("If-None-Match");
+        if (ifNoneMatch != null ? ifNoneMatch.contains(eTag)
+                : httpRequest.getDateHeader("If-Modified-Since") >= lastModified) {
+            httpResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String contentType = servletContext.getMimeType(name);
+        if (contentType != null) {
+            httpResponse.setContentType(contentType);
+        }
+        if (entry.getSize() <= Integer.MAX_VALUE) {
+            httpResponse.setContentLength((int) entry.getSize());
+        }
+        if (head) {
+            return;
+        }
+        InputStream in = archive.getInputStream(entry);
+        try {
+            IOUtils.copy(in, httpResponse.getOutputStream());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Destroy method.
+     */
+    public void destroy() {
+    }
+}
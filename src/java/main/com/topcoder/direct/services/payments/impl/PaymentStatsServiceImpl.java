@@ -15,6 +15,8 @@ import com.topcoder.direct.services.payments.PaymentStatsService;
 import com.topcoder.direct.services.payments.PersistenceException;
 import com.topcoder.direct.services.payments.ServiceException;
 import com.topcoder.direct.services.view.util.DataProvider;
+import com.topcoder.service.util.log.LazyLoggingUtility;
+import com.topcoder.service.util.log.MethodSignature;
 
 /**
  * <p>
@@ -26,17 +28,37 @@ import com.topcoder.direct.services.view.util.DataProvider;
  * safe.
  * </p>
  * 
+ * <p>
+ * Version 1.1 change notes:
+ * <ul>
+ * <li>Method entrance and exit are logged through {@link LazyLoggingUtility},
+ * so nothing is formatted when DEBUG is disabled. The exceptions are logged
+ * with the same method signature.</li>
+ * </ul>
+ * </p>
+ * 
  * @author TCSASSEMBLER
- * @version 1.0 (Module Assembly - TopCoder Direct Member Payments Dashboard
+ * @version 1.1 (Module Assembly - TopCoder Direct Member Payments Dashboard
  *          Backend Assembly)
  * @since 1.0
  */
 public class PaymentStatsServiceImpl extends BaseService implements PaymentStatsService {
 
     /**
-     * Stands for the name of this class.
+     * The signature of {@link #getPaymentsTrends(PaymentTrendSearchCriteria)}.
+     * 
+     * @since 1.1
+     */
+    private static final MethodSignature GET_PAYMENTS_TRENDS = new MethodSignature(PaymentStatsServiceImpl.class,
+        "getPaymentsTrends(PaymentTrendSearchCriteria criteria)", "criteria");
+
+    /**
+     * The signature of {@link #getTopMemberPayments(TopMemberPaymentCriteria)}.
+     * 
+     * @since 1.1
      */
-    private static final String CLASS_NAME = "PaymentStatsServiceImpl";
+    private static final MethodSignature GET_TOP_MEMBER_PAYMENTS = new MethodSignature(PaymentStatsServiceImpl.class,
+        "getTopMemberPayments(TopMemberPaymentCriteria criteria)", "criteria");
 
     /**
      * Default result limit while retrieving top member payments.
@@ -57,9 +79,9 @@ public class PaymentStatsServiceImpl extends BaseService implements PaymentStats
      */
     public List<PaymentTrend> getPaymentsTrends(PaymentTrendSearchCriteria criteria)
         throws ServiceException {
-        final String signature = CLASS_NAME + "#getPaymentsTrends(criteria)";
+        final String signature = GET_PAYMENTS_TRENDS.getSignature();
 
-        LoggingWrapperUtility.logEntrance(getLogger(), signature, new String[] {"criteria"}, new Object[] {criteria});
+        final long entranceTimestamp = LazyLoggingUtility.logEntrance(getLogger(), GET_PAYMENTS_TRENDS, criteria);
 
         checkNotNull(getLogger(), criteria, signature, "criteria");
         if (null == criteria.getEndDate()) {
@@ -68,7 +90,7 @@ public class PaymentStatsServiceImpl extends BaseService implements PaymentStats
         checkStartAndEndDate(getLogger(), criteria.getStartDate(), criteria.getEndDate(), signature);
         try {
             List<PaymentTrend> trends = DataProvider.getPaymentsTrends(criteria);
-            LoggingWrapperUtility.logExit(getLogger(), signature, new Object[] {trends.size()});
+            LazyLoggingUtility.logExit(getLogger(), GET_PAYMENTS_TRENDS, trends.size(), entranceTimestamp);
             return trends;
         } catch (Exception e) {
             throw LoggingWrapperUtility.logException(getLogger(), signature, new PersistenceException(
@@ -90,9 +112,9 @@ public class PaymentStatsServiceImpl extends BaseService implements PaymentStats
      */
     public List<TopMemberPayment> getTopMemberPayments(TopMemberPaymentCriteria criteria)
         throws ServiceException {
-        final String signature = CLASS_NAME + "#getTopMemberPayments(criteria)";
+        final String signature = GET_TOP_MEMBER_PAYMENTS.getSignature();
 
-        LoggingWrapperUtility.logEntrance(getLogger(), signature, new String[] {"criteria"}, new Object[] {criteria});
+        final long entranceTimestamp = LazyLoggingUtility.logEntrance(getLogger(), GET_TOP_MEMBER_PAYMENTS, criteria);
 
         if (null == criteria) {
             criteria = new TopMemberPaymentCriteria();
@@ -103,7 +125,7 @@ public class PaymentStatsServiceImpl extends BaseService implements PaymentStats
 
         try {
             List<TopMemberPayment> memberPayments = DataProvider.getTopMemberPayments(criteria);
-            LoggingWrapperUtility.logExit(getLogger(), signature, new Object[] {memberPayments.size()});
+            LazyLoggingUtility.logExit(getLogger(), GET_TOP_MEMBER_PAYMENTS, memberPayments.size(), entranceTimestamp);
             return memberPayments;
         } catch (Exception e) {
             throw LoggingWrapperUtility.logException(getLogger(), signature, new PersistenceException(
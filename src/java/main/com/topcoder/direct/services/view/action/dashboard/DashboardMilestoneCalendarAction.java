@@ -7,8 +7,6 @@ import com.topcoder.direct.services.project.metadata.entities.dao.TcDirectProjec
 import com.topcoder.direct.services.project.metadata.entities.dto.MetadataKeyIdValueFilter;
 import com.topcoder.direct.services.project.metadata.entities.dto.MetadataValueOperator;
 import com.topcoder.direct.services.project.milestone.model.Milestone;
-import com.topcoder.direct.services.project.milestone.model.MilestoneStatus;
-import com.topcoder.direct.services.project.milestone.model.SortOrder;
 import com.topcoder.direct.services.view.action.FormAction;
 import com.topcoder.direct.services.view.action.ViewAction;
 import com.topcoder.direct.services.view.action.BaseDirectStrutsAction;
@@ -16,27 +14,44 @@ import com.topcoder.direct.services.view.dto.UserProjectsDTO;
 import com.topcoder.direct.services.view.dto.dashboard.calendar.DashboardMilestoneCalendarDTO;
 import com.topcoder.direct.services.view.dto.project.ProjectBriefDTO;
 import com.topcoder.direct.services.view.form.DashboardMilestoneCalendarForm;
+import com.topcoder.direct.services.view.util.DirectUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * This action handles the request of viewing the enterprise milestone calendar.
  *
+ * <p>
+ * Version 1.1 change notes:
+ * <ul>
+ *     <li>Only the milestones in the date range displayed by the calendar are retrieved, through
+ *     <code>MilestoneService.getAllForProjectsInRange</code>. The range defaults to the weeks displayed for the
+ *     current month.</li>
+ *     <li>The projects left by the customer and project metadata filters are cached per user in the
+ *     {@link #projectFilterCache}, if it's configured.</li>
+ * </ul>
+ * </p>
+ *
  * @author TCSASSEMBLER
- * @version 1.0 (Release Assembly - TC Cockpit Enterprise Calendar Revamp)
+ * @version 1.1
  */
 public class DashboardMilestoneCalendarAction extends BaseDirectStrutsAction
         implements FormAction<DashboardMilestoneCalendarForm>, ViewAction<DashboardMilestoneCalendarDTO> {
 
     /**
-     * List of all the available milestone status.
+     * The number of days displayed by the month view of the calendar.
+     *
+     * @since 1.1
      */
-    private static final List ALL_MILESTONE_STATUS = Arrays.asList(MilestoneStatus.values());
+    private static final int DISPLAYED_DAYS = 42;
 
     /**
      * Represent the project filter value for "none".
@@ -63,6 +78,12 @@ public class DashboardMilestoneCalendarAction extends BaseDirectStrutsAction
      */
     private DashboardMilestoneCalendarDTO viewData = new DashboardMilestoneCalendarDTO();
 
+    /**
+     * The cache of the projects left by the filters, can be null.
+     *
+     * @since 1.1
+     */
+    private ProjectFilterCache projectFilterCache;
 
     /**
      * The main logic of the action.
@@ -84,7 +105,74 @@ public class DashboardMilestoneCalendarAction extends BaseDirectStrutsAction
         // get the active projects the user has access to, it's already set the ActionPreProcessor
         final UserProjectsDTO userProjects = getViewData().getUserProjects();
 
+        // get the projects left by the filters
+        final long userId = getCurrentUser().getUserId();
+        Set<Long> projectIds = null;
+        if (projectFilterCache != null) {
+            projectIds = projectFilterCache.get(userId, getFormData().getCustomerId(),
+                    getFormData().getProjectFilterId(), getFormData().getProjectFilterValue());
+        }
+        if (projectIds == null) {
+            projectIds = filterProjects(userProjects);
+            if (projectFilterCache != null) {
+                projectIds = projectFilterCache.put(userId, getFormData().getCustomerId(),
+                        getFormData().getProjectFilterId(), getFormData().getProjectFilterValue(), projectIds);
+            }
+        }
+
         viewData.setProjects(new HashMap<Long, String>());
+        for (ProjectBriefDTO p : userProjects.getProjects()) {
+            if (projectIds.contains(p.getId())) {
+                viewData.getProjects().put(p.getId(), p.getName());
+            }
+        }
+
+        // retrieve the milestones in the displayed range for the left projects in getViewData().getProjects()
+        final List<Milestone> allForProjects;
+
+        if (viewData.getProjects().keySet().size() > 0) {
+            Date startDate = DirectUtils.getDate(getFormData().getStartDate());
+            Date endDate = DirectUtils.getDate(getFormData().getEndDate());
+            if (startDate == null || endDate == null || endDate.before(startDate)) {
+                // the weeks displayed for the current month, starting on Sunday
+                Calendar calendar = Calendar.getInstance();
+                calendar.setTime(DirectUtils.getDateWithoutTime(new Date()));
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                calendar.add(Calendar.DAY_OF_MONTH, Calendar.SUNDAY - calendar.get(Calendar.DAY_OF_WEEK));
+                startDate = calendar.getTime();
+                calendar.add(Calendar.DAY_OF_MONTH, DISPLAYED_DAYS);
+                endDate = calendar.getTime();
+            }
+            allForProjects = getMilestoneService().getAllForProjectsInRange(
+                    new ArrayList<Long>(viewData.getProjects().keySet()), startDate, endDate);
+        } else {
+            allForProjects = new ArrayList<Milestone>();
+        }
+
+        // extra all the responsible person user id from the milestone
+        getViewData().setResponsiblePersonIds(new HashSet<Long>());
+
+        for(Milestone m : allForProjects) {
+            if (m.getOwners() != null && m.getOwners().size() > 0) {
+                getViewData().getResponsiblePersonIds().add(m.getOwners().get(0).getUserId());
+            }
+        }
+
+        // set the milestones
+        viewData.setMilestones(allForProjects);
+
+    }
+
+    /**
+     * Gets the ids of the user projects left by the customer and project metadata filters.
+     *
+     * @param userProjects the projects the user has access to.
+     * @return the ids of the projects left by the filters.
+     * @throws Exception if there is any error.
+     * @since 1.1
+     */
+    private Set<Long> filterProjects(UserProjectsDTO userProjects) throws Exception {
+        final Map<Long, String> projects = new HashMap<Long, String>();
 
         // filter by customer id first
         for (ProjectBriefDTO p : userProjects.getProjects()) {
@@ -92,7 +180,7 @@ public class DashboardMilestoneCalendarAction extends BaseDirectStrutsAction
                     || (getFormData().getCustomerId() != ALL_CUSTOMER_ID && p.getCustomerId() == getFormData().getCustomerId())) {
                 // add the project, if all customers is selected
                 // or the customer id selected matches (0 means no customer)
-                viewData.getProjects().put(p.getId(), p.getName());
+                projects.put(p.getId(), p.getName());
             }
         }
 
@@ -108,8 +196,8 @@ public class DashboardMilestoneCalendarAction extends BaseDirectStrutsAction
                 final List<TcDirectProject> projectsToExclude = getMetadataService().searchProjects(idValueFilter);
 
                 for (TcDirectProject projectToExclude : projectsToExclude) {
-                    if (viewData.getProjects().containsKey(projectToExclude.getProjectId())) {
-                        viewData.getProjects().remove(projectToExclude.getProjectId());
+                    if (projects.containsKey(projectToExclude.getProjectId())) {
+                        projects.remove(projectToExclude.getProjectId());
                     }
                 }
             } else {
@@ -119,38 +207,17 @@ public class DashboardMilestoneCalendarAction extends BaseDirectStrutsAction
                         Arrays.asList(new String[]{getFormData().getProjectFilterValue()}));
 
                 // remove the project not in the set
-                List<Long> idsToCheck = new ArrayList<Long>(getViewData().getProjects().keySet());
+                List<Long> idsToCheck = new ArrayList<Long>(projects.keySet());
                 for (Long projectIdToCheck : idsToCheck) {
                     if (!includeProjectIds.contains(projectIdToCheck)) {
                         // no in the set, remove
-                        getViewData().getProjects().remove(projectIdToCheck);
+                        projects.remove(projectIdToCheck);
                     }
                 }
             }
         }
 
-        // retrieve milestones for the left projects in getViewData().getProjects()
-        final List<Milestone> allForProjects;
-
-        if (viewData.getProjects().keySet().size() > 0) {
-
-            allForProjects = getMilestoneService().getAllForProjects(new ArrayList<Long>(viewData.getProjects().keySet()), ALL_MILESTONE_STATUS, SortOrder.ASCENDING);
-        } else {
-            allForProjects = new ArrayList<Milestone>();
-        }
-
-        // extra all the responsible person user id from the milestone
-        getViewData().setResponsiblePersonIds(new HashSet<Long>());
-
-        for(Milestone m : allForProjects) {
-            if (m.getOwners() != null && m.getOwners().size() > 0) {
-                getViewData().getResponsiblePersonIds().add(m.getOwners().get(0).getUserId());
-            }
-        }
-
-        // set the milestones
-        viewData.setMilestones(allForProjects);
-
+        return projects.keySet();
     }
 
     /**
@@ -188,4 +255,14 @@ public class DashboardMilestoneCalendarAction extends BaseDirectStrutsAction
     public void setViewData(DashboardMilestoneCalendarDTO viewData) {
         this.viewData = viewData;
     }
+
+    /**
+     * Sets the cache of the projects left by the filters.
+     *
+     * @param projectFilterCache the cache of the projects left by the filters.
+     * @since 1.1
+     */
+    public void setProjectFilterCache(ProjectFilterCache projectFilterCache) {
+        this.projectFilterCache = projectFilterCache;
+    }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.action.dashboard;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * The cache of the projects left by the customer and project metadata filters of the enterprise milestone calendar.
+ * The ids of the projects are cached per user and filter for <code>cacheTimeout</code> milliseconds, so moving the
+ * calendar to another month doesn't search the project metadata again. The least recently used entries are evicted
+ * once there are more than <code>maxEntries</code> entries.
+ * </p>
+ *
+ * <p>
+ * <b>Sample Configuration:</b>
+ *
+ * <pre>
+ *  &lt;bean id="projectFilterCache" class="com.topcoder.direct.services.view.action.dashboard.ProjectFilterCache"&gt;
+ *      &lt;property name="cacheTimeout" value="60000"/&gt;
+ *      &lt;property name="maxEntries" value="1000"/&gt;
+ *  &lt;/bean&gt;
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class ProjectFilterCache {
+
+    /**
+     * The default time the project ids are cached, in milliseconds.
+     */
+    private static final long DEFAULT_CACHE_TIMEOUT = 60000;
+
+    /**
+     * The default maximum number of cached entries.
+     */
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * Represents the user and the filter the project ids are cached for.
+     */
+    private static class FilterKey {
+
+        /**
+         * The id of the user.
+         */
+        private final long userId;
+
+        /**
+         * The id of the customer.
+         */
+        private final long customerId;
+
+        /**
+         * The id of the project filter.
+         */
+        private final long projectFilterId;
+
+        /**
+         * The project filter value, in lower case.
+         */
+        private final String projectFilterValue;
+
+        /**
+         * Creates the key.
+         *
+         * @param userId the id of the user.
+         * @param customerId the id of the customer.
+         * @param projectFilterId the id of the project filter.
+         * @param projectFilterValue the project filter value, can be null.
+         */
+        FilterKey(long userId, long customerId, long projectFilterId, String projectFilterValue) {
+            this.userId = userId;
+            this.customerId = customerId;
+            this.projectFilterId = projectFilterId;
+            this.projectFilterValue = projectFilterValue == null ? null : projectFilterValue.toLowerCase();
+        }
+
+        /**
+         * Checks whether the given object is the same key.
+         *
+         * @param obj the object to compare.
+         * @return true if the object is the same key, false otherwise.
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FilterKey)) {
+                return false;
+            }
+            FilterKey other = (FilterKey) obj;
+            return userId == other.userId && customerId == other.customerId
+                    && projectFilterId == other.projectFilterId
+                    && (projectFilterValue == null ? other.projectFilterValue == null
+                            : projectFilterValue.equals(other.projectFilterValue));
+        }
+
+        /**
+         * Gets the hash code of the key.
+         *
+         * @return the hash code of the key.
+         */
+        @Override
+        public int hashCode() {
+            int result = (int) (userId ^ (userId >>> 32));
+            result = 31 * result + (int) (customerId ^ (customerId >>> 32));
+            result = 31 * result + (int) (projectFilterId ^ (projectFilterId >>> 32));
+            return 31 * result + (projectFilterValue == null ? 0 : projectFilterValue.hashCode());
+        }
+    }
+
+    /**
+     * Represents the cached project ids with the time they expire.
+     */
+    private static class CacheEntry {
+
+        /**
+         * The cached project ids.
+         */
+        private final Set<Long> projectIds;
+
+        /**
+         * The time the project ids expire.
+         */
+        private final long expireTime;
+
+        /**
+         * Creates the entry.
+         *
+         * @param projectIds the cached project ids.
+         * @param expireTime the time the project ids expire.
+         */
+        CacheEntry(Set<Long> projectIds, long expireTime) {
+            this.projectIds = projectIds;
+            this.expireTime = expireTime;
+        }
+    }
+
+    /**
+     * The cached project ids in access order. Guarded by <code>this</code>.
+     */
+    private final Map<FilterKey, CacheEntry> entries = new LinkedHashMap<FilterKey, CacheEntry>(16, 0.75f, true);
+
+    /**
+     * The time the project ids are cached, in milliseconds.
+     */
+    private long cacheTimeout = DEFAULT_CACHE_TIMEOUT;
+
+    /**
+     * The maximum number of cached entries.
+     */
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    /**
+     * Creates the instance.
+     */
+    public ProjectFilterCache() {
+    }
+
+    /**
+     * Gets the cached ids of the projects left by the filter for the user.
+     *
+     * @param userId the id of the user.
+     * @param customerId the id of the customer.
+     * @param projectFilterId the id of the project filter.
+     * @param projectFilterValue the project filter value, can be null.
+     * @return the unmodifiable set of the project ids, or null if they are not cached or expired.
+     */
+    public synchronized Set<Long> get(long userId, long customerId, long projectFilterId,
+            String projectFilterValue) {
+        FilterKey key = new FilterKey(userId, customerId, projectFilterId, projectFilterValue);
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireTime <= System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.projectIds;
+    }
+
+    /**
+     * Caches the ids of the projects left by the filter for the user, and evicts the least recently used entries
+     * exceeding the maximum number of entries.
+     *
+     * @param userId the id of the user.
+     * @param customerId the id of the customer.
+     * @param projectFilterId the id of the project filter.
+     * @param projectFilterValue the project filter value, can be null.
+     * @param projectIds the project ids, they are copied.
+     * @return the unmodifiable set of the cached project ids.
+     */
+    public synchronized Set<Long> put(long userId, long customerId, long projectFilterId, String projectFilterValue,
+            Set<Long> projectIds) {
+        Set<Long> cached = Collections.unmodifiableSet(new HashSet<Long>(projectIds));
+        entries.put(new FilterKey(userId, customerId, projectFilterId, projectFilterValue),
+                new CacheEntry(cached, System.currentTimeMillis() + cacheTimeout));
+        while (entries.size() > maxEntries) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+        return cached;
+    }
+
+    /**
+     * Sets the time the project ids are cached.
+     *
+     * @param cacheTimeout the time the project ids are cached, in milliseconds.
+     * @throws IllegalArgumentException if cacheTimeout is negative.
+     */
+    public void setCacheTimeout(long cacheTimeout) {
+        if (cacheTimeout < 0) {
+            throw new IllegalArgumentException("cacheTimeout should not be negative.");
+        }
+        this.cacheTimeout = cacheTimeout;
+    }
+
+    /**
+     * Sets the maximum number of cached entries.
+     *
+     * @param maxEntries the maximum number of cached entries.
+     * @throws IllegalArgumentException if maxEntries is not positive.
+     */
+    public void setMaxEntries(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries should be positive.");
+        }
+        this.maxEntries = maxEntries;
+    }
+}
@@ -5,8 +5,10 @@ package com.topcoder.direct.services.view.action.groups;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.PostConstruct;
 
@@ -53,6 +55,7 @@ import com.topcoder.security.groups.services.dto.UserDTO;
  *     &lt;property name="customerAdministratorService" ref="customerAdministratorService"/&gt;
  *     &lt;property name="groupMemberService" ref="groupMemberService"/&gt;
  *     &lt;property name="directProjectService" ref="directProjectService"/&gt;
+ *     &lt;property name="groupEntityCache" ref="groupEntityCache"/&gt;
  *  &lt;/bean&gt;
  * </pre>
  *
@@ -88,8 +91,17 @@ import com.topcoder.security.groups.services.dto.UserDTO;
  * </ol>
  * </p>
  *
- * @author gevak, TCSDEVELOPER, minhu, freegod
- * @version 1.2
+ * <p>
+ * Version 1.3 change notes:
+ * <ol>
+ *     <li>Updated {@link #executeAction()} to retrieve the groups, projects and users of all the historical data
+ *     at once through {@link #groupEntityCache}, instead of once per record.</li>
+ *     <li>Added {@link #groupEntityCache} and its setter.</li>
+ * </ol>
+ * </p>
+ *
+ * @author gevak, TCSDEVELOPER, minhu, freegod, TCSASSEMBLER
+ * @version 1.3
  * @since 1.0
  */
 @SuppressWarnings("serial")
@@ -195,6 +207,15 @@ public class AccessAuditingInfoAction extends ClientsPrepopulatingBaseAction {
      */
     private UserService groupUserService;
 
+    /**
+     * The cache used to retrieve the groups, projects and users of the historical data in bulk. It is used in
+     * execute() method. It is injected via the setter with no validation, thus can be any value. However, the post
+     * construct method will ensure that it's not null. Mutable via setter.
+     *
+     * @since 1.3
+     */
+    private GroupEntityCache groupEntityCache;
+
     /**
      * Empty default constructor.
      */
@@ -233,38 +254,39 @@ public class AccessAuditingInfoAction extends ClientsPrepopulatingBaseAction {
             // Search historical data
             historicalData = groupMemberService.searchHistoricalData(criteria, pageSize, page);
             List<GroupMemberAccessHistoricalData> historicalDataValues = historicalData.getValues();
+            Set<Long> groupIds = new HashSet<Long>();
+            Set<Long> projectIds = new HashSet<Long>();
+            Set<Long> userIds = new HashSet<Long>();
+            for (GroupMemberAccessHistoricalData data : historicalDataValues) {
+                groupIds.add(data.getGroupId());
+                projectIds.addAll(data.getDirectProjectIds());
+                userIds.add(data.getMemberUserId());
+            }
+
+            // Get the groups, projects and users of all the historical data at once
+            Map<Long, Group> groupById = groupEntityCache.getGroups(groupIds);
+            projectById = groupEntityCache.getProjects(projectIds);
+            userById = groupEntityCache.getUsers(userIds);
+
             groups = new ArrayList<Group>();
-            projectById = new HashMap<Long, ProjectDTO>();
-            userById = new HashMap<Long, UserDTO>();
             for (GroupMemberAccessHistoricalData data : historicalDataValues) {
-                // Get groups of the historical data
-                Group group = groupService.get(data.getGroupId());
+                Group group = groupById.get(data.getGroupId());
                 ValidationUtility.checkNotNull(group, "group", SecurityGroupsActionException.class);
                 groups.add(group);
-
-                // Populate project by ID map
-                List<Long> directProjectIds = data.getDirectProjectIds();
-                for (Long projectId : directProjectIds) {
-                    if (!projectById.containsKey(projectId)) {
-                        ProjectDTO project = directProjectService.get(projectId);
-                        if (project == null) {
-                            project = new ProjectDTO();
-                            project.setName("project with id: " + projectId);
-                            project.setProjectId(projectId);
-                        }
-                        projectById.put(projectId, project);
-                    }
+            }
+            for (Long projectId : projectIds) {
+                if (!projectById.containsKey(projectId)) {
+                    ProjectDTO project = new ProjectDTO();
+                    project.setName("project with id: " + projectId);
+                    project.setProjectId(projectId);
+                    projectById.put(projectId, project);
                 }
-                
-                // Populate user by ID map
-                long memberUserId = data.getMemberUserId();
+            }
+            for (Long memberUserId : userIds) {
                 if (!userById.containsKey(memberUserId)) {
-                    UserDTO user = groupUserService.get(memberUserId);
-                    if (user == null) {
-                        user = new UserDTO();
-                        user.setHandle("user with id: " + memberUserId);
-                        user.setUserId(memberUserId);
-                    }
+                    UserDTO user = new UserDTO();
+                    user.setHandle("user with id: " + memberUserId);
+                    user.setUserId(memberUserId);
                     userById.put(memberUserId, user);
                 }
             }
@@ -384,6 +406,8 @@ public class AccessAuditingInfoAction extends ClientsPrepopulatingBaseAction {
                 SecurityGroupsActionConfigurationException.class);
         ValidationUtility.checkNotNull(groupUserService, "groupUserService",
                 SecurityGroupsActionConfigurationException.class);
+        ValidationUtility.checkNotNull(groupEntityCache, "groupEntityCache",
+                SecurityGroupsActionConfigurationException.class);
     }
 
     /**
@@ -545,4 +569,14 @@ public class AccessAuditingInfoAction extends ClientsPrepopulatingBaseAction {
     public void setGroupUserService(UserService groupUserService) {
         this.groupUserService = groupUserService;
     }
+
+    /**
+     * Sets the cache used to retrieve the groups, projects and users of the historical data in bulk.
+     *
+     * @param groupEntityCache the cache used to retrieve the groups, projects and users in bulk.
+     * @since 1.3
+     */
+    public void setGroupEntityCache(GroupEntityCache groupEntityCache) {
+        this.groupEntityCache = groupEntityCache;
+    }
 }
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.action.groups;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import com.topcoder.commons.utils.ValidationUtility;
+import com.topcoder.direct.services.view.util.DatabaseUtils;
+import com.topcoder.security.groups.model.Group;
+import com.topcoder.security.groups.services.SecurityGroupException;
+import com.topcoder.security.groups.services.dto.ProjectDTO;
+import com.topcoder.security.groups.services.dto.UserDTO;
+import com.topcoder.shared.util.DBMS;
+
+/**
+ * <p>
+ * This class retrieves the groups, the direct projects and the users shown by the security groups pages in bulk, so
+ * a page costs a fixed number of queries whatever the number of its rows, instead of one
+ * <code>GroupService</code>, <code>DirectProjectService</code> or <code>UserService</code> call per row.
+ * </p>
+ *
+ * <p>
+ * The project names and the user handles and emails are shared by all the requests for <code>cacheTimeout</code>
+ * milliseconds, and only the ids not cached (or expired) are queried. The groups are not cached since the actions
+ * update their members and projects in place, they are loaded with a single query instead.
+ * </p>
+ *
+ * <p>
+ * <b>Sample Configuration:</b>
+ *
+ * <pre>
+ *  &lt;bean id="groupEntityCache" class="com.topcoder.direct.services.view.action.groups.GroupEntityCache"
+ *      init-method="checkInit"&gt;
+ *      &lt;property name="sessionFactory" ref="securityGroupsSessionFactory"/&gt;
+ *      &lt;property name="cacheTimeout" value="60000"/&gt;
+ *  &lt;/bean&gt;
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * <b>Thread Safety:</b> This class is mutable but it's expected to be configured by Spring once, and it's thread safe
+ * after that.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class GroupEntityCache {
+
+    /**
+     * The HQL to get the groups, the ids are bound to the <code>ids</code> parameter.
+     */
+    private static final String GET_GROUPS_HQL = "from Group g where g.id in (:ids)";
+
+    /**
+     * The SQL to get the names of the direct projects, the IN list of project ids is appended.
+     */
+    private static final String GET_PROJECTS_SQL = "SELECT project_id, name FROM tc_direct_project WHERE project_id IN ";
+
+    /**
+     * The SQL to get the handles and the primary emails of the users, the IN list of user ids is appended.
+     */
+    private static final String GET_USERS_SQL = "SELECT u.user_id, u.handle, e.address FROM user u "
+            + "LEFT OUTER JOIN email e ON e.user_id = u.user_id AND e.primary_ind = 1 WHERE u.user_id IN ";
+
+    /**
+     * The max number of ids in a single query.
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    /**
+     * The default time the project names and the users are cached, in milliseconds.
+     */
+    private static final long DEFAULT_CACHE_TIMEOUT = 60000;
+
+    /**
+     * Represents a cached value with the time it expires.
+     *
+     * @param <T> the type of the value.
+     */
+    private static class CacheEntry<T> {
+
+        /**
+         * The cached value.
+         */
+        private final T value;
+
+        /**
+         * The time the value expires.
+         */
+        private final long expireTime;
+
+        /**
+         * Creates the entry.
+         *
+         * @param value the cached value.
+         * @param expireTime the time the value expires.
+         */
+        CacheEntry(T value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+    }
+
+    /**
+     * The cached project names, keyed by the direct project id.
+     */
+    private final ConcurrentMap<Long, CacheEntry<String>> projectNames =
+            new ConcurrentHashMap<Long, CacheEntry<String>>();
+
+    /**
+     * The cached users, keyed by the user id. The cached DTOs are never returned, only their copies.
+     */
+    private final ConcurrentMap<Long, CacheEntry<UserDTO>> users = new ConcurrentHashMap<Long, CacheEntry<UserDTO>>();
+
+    /**
+     * The session factory of the security groups entities. It's required.
+     */
+    private SessionFactory sessionFactory;
+
+    /**
+     * The time the project names and the users are cached, in milliseconds.
+     */
+    private long cacheTimeout = DEFAULT_CACHE_TIMEOUT;
+
+    /**
+     * Creates the instance.
+     */
+    public GroupEntityCache() {
+    }
+
+    /**
+     * Checks whether this class was configured by Spring properly.
+     *
+     * @throws SecurityGroupsActionConfigurationException if the session factory is not injected or the cache timeout
+     *             is negative.
+     */
+    public void checkInit() {
+        ValidationUtility.checkNotNull(sessionFactory, "sessionFactory",
+                SecurityGroupsActionConfigurationException.class);
+        ValidationUtility.checkNotNegative(cacheTimeout, "cacheTimeout",
+                SecurityGroupsActionConfigurationException.class);
+    }
+
+    /**
+     * Gets the groups with the given ids.
+     *
+     * @param groupIds the ids of the groups.
+     * @return the groups keyed by id, the groups not found are absent.
+     * @throws SecurityGroupException if any error occurs while retrieving the groups.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, Group> getGroups(Collection<Long> groupIds) throws SecurityGroupException {
+        Map<Long, Group> result = new HashMap<Long, Group>();
+        if (groupIds.isEmpty()) {
+            return result;
+        }
+        Session session = null;
+        try {
+            session = sessionFactory.openSession();
+            for (List<Long> ids : split(new LinkedHashSet<Long>(groupIds))) {
+                for (Group group : (List<Group>) session.createQuery(GET_GROUPS_HQL)
+                        .setParameterList("ids", ids).list()) {
+                    result.put(group.getId(), group);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new SecurityGroupException("Failed to get the groups", e);
+        } finally {
+            if (session != null) {
+                session.close();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the direct projects with the given ids.
+     *
+     * @param projectIds the ids of the direct projects.
+     * @return the new project DTOs keyed by id, the projects not found are absent.
+     * @throws SecurityGroupException if any error occurs while retrieving the projects.
+     */
+    public Map<Long, ProjectDTO> getProjects(Collection<Long> projectIds) throws SecurityGroupException {
+        Map<Long, ProjectDTO> result = new HashMap<Long, ProjectDTO>();
+        long now = System.currentTimeMillis();
+        Set<Long> missing = new LinkedHashSet<Long>();
+        for (Long projectId : projectIds) {
+            CacheEntry<String> entry = projectNames.get(projectId);
+            if (entry != null && entry.expireTime > now) {
+                result.put(projectId, createProject(projectId, entry.value));
+            } else {
+                missing.add(projectId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = DatabaseUtils.getDatabaseConnection(DBMS.TCS_OLTP_DATASOURCE_NAME);
+            for (List<Long> ids : split(missing)) {
+                statement = connection.prepareStatement(GET_PROJECTS_SQL + toInList(ids));
+                resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    long projectId = resultSet.getLong(1);
+                    String name = resultSet.getString(2);
+                    projectNames.put(projectId, new CacheEntry<String>(name, now + cacheTimeout));
+                    result.put(projectId, createProject(projectId, name));
+                }
+                DatabaseUtils.close(resultSet);
+                DatabaseUtils.close(statement);
+            }
+        } catch (Exception e) {
+            throw new SecurityGroupException("Failed to get the direct projects", e);
+        } finally {
+            DatabaseUtils.close(resultSet);
+            DatabaseUtils.close(statement);
+            DatabaseUtils.close(connection);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the users with the given ids.
+     *
+     * @param userIds the ids of the users.
+     * @return the new user DTOs keyed by id, the users not found are absent.
+     * @throws SecurityGroupException if any error occurs while retrieving the users.
+     */
+    public Map<Long, UserDTO> getUsers(Collection<Long> userIds) throws SecurityGroupException {
+        Map<Long, UserDTO> result = new HashMap<Long, UserDTO>();
+        long now = System.currentTimeMillis();
+        Set<Long> missing = new LinkedHashSet<Long>();
+        for (Long userId : userIds) {
+            CacheEntry<UserDTO> entry = users.get(userId);
+            if (entry != null && entry.expireTime > now) {
+                result.put(userId, copy(entry.value));
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = DatabaseUtils.getDatabaseConnection(DBMS.COMMON_OLTP_DATASOURCE_NAME);
+            for (List<Long> ids : split(missing)) {
+                statement = connection.prepareStatement(GET_USERS_SQL + toInList(ids));
+                resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    UserDTO user = new UserDTO();
+                    user.setUserId(resultSet.getLong(1));
+                    user.setHandle(resultSet.getString(2));
+                    user.setEmailAddress(resultSet.getString(3));
+                    users.put(user.getUserId(), new CacheEntry<UserDTO>(user, now + cacheTimeout));
+                    result.put(user.getUserId(), copy(user));
+                }
+                DatabaseUtils.close(resultSet);
+                DatabaseUtils.close(statement);
+            }
+        } catch (Exception e) {
+            throw new SecurityGroupException("Failed to get the users", e);
+        } finally {
+            DatabaseUtils.close(resultSet);
+            DatabaseUtils.close(statement);
+            DatabaseUtils.close(connection);
+        }
+        return result;
+    }
+
+    /**
+     * Splits the given ids into the lists of at most {@link #MAX_IDS_PER_QUERY} ids.
+     *
+     * @param ids the ids.
+     * @return the lists of ids.
+     */
+    private static List<List<Long>> split(Collection<Long> ids) {
+        List<List<Long>> result = new ArrayList<List<Long>>();
+        List<Long> current = null;
+        for (Long id : ids) {
+            if (current == null || current.size() == MAX_IDS_PER_QUERY) {
+                current = new ArrayList<Long>();
+                result.add(current);
+            }
+            current.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the SQL IN list of the given ids.
+     *
+     * @param ids the ids, not empty.
+     * @return the IN list.
+     */
+    private static String toInList(List<Long> ids) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < ids.size(); i++) {
+            sb.append(i == 0 ? "" : ",").append(ids.get(i).longValue());
+        }
+        return sb.append(")").toString();
+    }
+
+    /**
+     * Creates the project DTO.
+     *
+     * @param projectId the project id.
+     * @param name the project name.
+     * @return the project DTO.
+     */
+    private static ProjectDTO createProject(long projectId, String name) {
+        ProjectDTO project = new ProjectDTO();
+        project.setProjectId(projectId);
+        project.setName(name);
+        return project;
+    }
+
+    /**
+     * Copies the user DTO.
+     *
+     * @param user the user DTO.
+     * @return the copy.
+     */
+    private static UserDTO copy(UserDTO user) {
+        UserDTO result = new UserDTO();
+        result.setUserId(user.getUserId());
+        result.setHandle(user.getHandle());
+        result.setEmailAddress(user.getEmailAddress());
+        return result;
+    }
+
+    /**
+     * Sets the session factory of the security groups entities.
+     *
+     * @param sessionFactory the session factory of the security groups entities.
+     */
+    public void setSessionFactory(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Sets the time the project names and the users are cached.
+     *
+     * @param cacheTimeout the time in milliseconds.
+     */
+    public void setCacheTimeout(long cacheTimeout) {
+        this.cacheTimeout = cacheTimeout;
+    }
+}
@@ -97,8 +97,15 @@ import com.topcoder.security.groups.services.dto.UserDTO;
  * </ol>
  * </p>
  * 
+ * <p>
+ * Version 1.6 change notes:
+ * <ol>
+ *   <li>Added {@link #fillHandle(GroupEntityCache, Group)} to retrieve the handles of all the members at once.</li>
+ * </ol>
+ * </p>
+ * 
  * @author woodjhon, hanshuai, flexme, suno1234, TCSDEVELOPER, TCSASSEMBLER
- * @version 1.5
+ * @version 1.6
  */
 final class HelperUtility {
     /**
@@ -462,6 +469,42 @@ final class HelperUtility {
             }
         });
     }
+
+    /**
+     * Set the handle field in GroupMember entity, the handles of all the members are retrieved at once.
+     * 
+     * @param groupEntityCache
+     *          the GroupEntityCache instance
+     * @param group
+     *            the GroupMember's group
+     * @throws SecurityGroupException
+     *             if any error is caught during the operation
+     * @since 1.6
+     */
+    static void fillHandle(GroupEntityCache groupEntityCache, Group group) throws SecurityGroupException {
+        List<GroupMember> members = group.getGroupMembers();
+        Set<Long> userIds = new HashSet<Long>();
+        for (GroupMember member : members) {
+            if (member.getHandle() == null || member.getHandle().trim().length() == 0) {
+                userIds.add(member.getUserId());
+            }
+        }
+        if (!userIds.isEmpty()) {
+            Map<Long, UserDTO> users = groupEntityCache.getUsers(userIds);
+            for (GroupMember member : members) {
+                UserDTO dto = users.get(member.getUserId());
+                if (dto != null && (member.getHandle() == null || member.getHandle().trim().length() == 0)) {
+                    member.setHandle(dto.getHandle());
+                }
+            }
+        }
+
+        Collections.sort( group.getGroupMembers(), new Comparator<GroupMember>() {
+            public int compare(GroupMember o1, GroupMember o2) {
+                return o1.getHandle().compareToIgnoreCase(o2.getHandle());
+            }
+        });
+    }
     
     /**
      * Check the user's permission while viewing the group detail.Admins, customer admins and full permission members of
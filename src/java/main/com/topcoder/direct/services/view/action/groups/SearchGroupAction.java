@@ -6,8 +6,10 @@ package com.topcoder.direct.services.view.action.groups;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.struts2.ServletActionContext;
 
@@ -83,8 +85,17 @@ import com.topcoder.security.groups.services.dto.UserDTO;
  * </ol>
  * </p>
  *
- * @author woodjhon, hanshuai, freegod, suno1234
- * @version 1.3
+ * <p>
+ * Version 1.4 change notes:
+ * <ol>
+ *     <li>Updated {@link #executeAction()} method to retrieve the project names and the member handles of all the
+ *     found groups at once through {@link #groupEntityCache}.</li>
+ *     <li>Added field {@link #groupEntityCache} and its getter/setter; updated {@link #checkInit()} to check it.</li>
+ * </ol>
+ * </p>
+ *
+ * @author woodjhon, hanshuai, freegod, suno1234, TCSASSEMBLER
+ * @version 1.4
  */
 @SuppressWarnings("serial")
 public class SearchGroupAction extends BaseAction {    
@@ -143,6 +154,13 @@ public class SearchGroupAction extends BaseAction {
      * @since 1.1
      */
     private DirectProjectService directProjectService;
+
+    /**
+     * Purpose: groupEntityCache is used to retrieve the project names and the member handles in bulk. It's required.
+     * Usage: It's injected. Legal Values: Not null after set.
+     * @since 1.4
+     */
+    private GroupEntityCache groupEntityCache;
     
     /**
      * The group id to check update/remove permission.
@@ -167,7 +185,8 @@ public class SearchGroupAction extends BaseAction {
      *
      * @throws SecurityGroupsActionConfigurationException
      *             is thrown if any of these fields is null:<br>
-     *             auditService, authorizationService, groupService, groupUserService, directProjectService
+     *             auditService, authorizationService, groupService, groupUserService, directProjectService,
+     *             groupEntityCache
      */
     public void checkInit() {
         super.checkInit();
@@ -177,6 +196,8 @@ public class SearchGroupAction extends BaseAction {
             SecurityGroupsActionConfigurationException.class);
         ValidationUtility.checkNotNull(directProjectService, "directProjectService",
             SecurityGroupsActionConfigurationException.class);
+        ValidationUtility.checkNotNull(groupEntityCache, "groupEntityCache",
+            SecurityGroupsActionConfigurationException.class);
     }
 
     /**
@@ -248,9 +269,25 @@ public class SearchGroupAction extends BaseAction {
             result.put("total", groups.getTotal());
             List<Map<String, Object>> items = new ArrayList<Map<String, Object>>();
             result.put("items", items);
-            // use map the reduce duplicate searching
-            Map<Long, String> projectIdToName = new HashMap<Long, String>();
-            Map<Long, String> userIdToHandle = new HashMap<Long, String>();
+            // retrieve the project names and the member handles of all the groups at once
+            Set<Long> projectIds = new HashSet<Long>();
+            Set<Long> userIds = new HashSet<Long>();
+            for (Group group : groups.getValues()) {
+                if (group.getDirectProjects() != null) {
+                    for (DirectProject project : group.getDirectProjects()) {
+                        projectIds.add(project.getDirectProjectId());
+                    }
+                }
+                if (group.getGroupMembers() != null) {
+                    for (GroupMember member : group.getGroupMembers()) {
+                        if (member.getActive()) {
+                            userIds.add(member.getUserId());
+                        }
+                    }
+                }
+            }
+            Map<Long, ProjectDTO> projectById = getGroupEntityCache().getProjects(projectIds);
+            Map<Long, UserDTO> userById = getGroupEntityCache().getUsers(userIds);
             for (Group group : groups.getValues()) {
                 Map<String, Object> item = new HashMap<String, Object>();
                 items.add(item);
@@ -273,16 +310,11 @@ public class SearchGroupAction extends BaseAction {
                 if (projects != null) {
                     for (DirectProject project : projects) {
                         String projectName;
-                        if (projectIdToName.containsKey(project.getDirectProjectId())) {
-                            projectName = projectIdToName.get(project.getDirectProjectId());
+                        ProjectDTO dto = projectById.get(project.getDirectProjectId());
+                        if (dto == null) {
+                            projectName = "project with id: " + project.getDirectProjectId();
                         } else {
-                            ProjectDTO dto = getDirectProjectService().get(project.getDirectProjectId());
-                            if (dto == null) {
-                                projectName = "project with id: " + project.getDirectProjectId();
-                            } else {
-                                projectName = dto.getName();
-                            }
-                            projectIdToName.put(project.getDirectProjectId(), projectName);
+                            projectName = dto.getName();
                         }
                         project.setName(projectName);
                         elements.add(projectName);
@@ -299,16 +331,11 @@ public class SearchGroupAction extends BaseAction {
                     for (GroupMember member : members) {
                         if (!member.getActive())continue;
                         String handle;
-                        if (userIdToHandle.containsKey(member.getUserId())) {
-                            handle = userIdToHandle.get(member.getUserId());
+                        UserDTO dto = userById.get(member.getUserId());
+                        if (dto == null) {
+                            handle = "user with id: " + member.getUserId();
                         } else {
-                            UserDTO dto = getGroupUserService().get(member.getUserId());
-                            if (dto == null) {
-                                handle = "user with id: " + member.getUserId();
-                            } else {
-                                handle = dto.getHandle();
-                            }
-                            userIdToHandle.put(member.getUserId(), handle);
+                            handle = dto.getHandle();
                         }
                         member.setHandle(handle);
                         elements.add(handle);
@@ -543,4 +570,24 @@ public class SearchGroupAction extends BaseAction {
     public void setDirectProjectService(DirectProjectService directProjectService) {
         this.directProjectService = directProjectService;
     }
+
+    /**
+     * Gets the group entity cache.
+     *
+     * @return the group entity cache
+     * @since 1.4
+     */
+    public GroupEntityCache getGroupEntityCache() {
+        return groupEntityCache;
+    }
+
+    /**
+     * Sets the group entity cache.
+     *
+     * @param groupEntityCache the group entity cache to set
+     * @since 1.4
+     */
+    public void setGroupEntityCache(GroupEntityCache groupEntityCache) {
+        this.groupEntityCache = groupEntityCache;
+    }
 }
@@ -3,8 +3,10 @@
  */
 package com.topcoder.direct.services.view.action.groups;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -37,6 +39,7 @@ import com.topcoder.security.groups.services.dto.ProjectDTO;
  *         &lt;property name="groupService" ref="groupService"/>
  *         &lt;property name="projectService" ref="groupProjectService"/>
  *         &lt;property name="groupUserService" ref="groupUserService"/>
+ *         &lt;property name="groupEntityCache" ref="groupEntityCache"/>
  * 
  *         &lt;!-- other properties here -->
  *   &lt;/bean>
@@ -69,8 +72,16 @@ import com.topcoder.security.groups.services.dto.ProjectDTO;
  * </ol>
  * </p>
  *
- * @author woodjhon, hanshuai, backstreetlili, flexme, minhu
- * @version 1.3
+ * <p>
+ * Version 1.4 change notes:
+ * <ol>
+ *   <li>Updated {@link #execute()} to retrieve the project names and the member handles of the group at once through
+ *   {@link #groupEntityCache}.</li>
+ * </ol>
+ * </p>
+ *
+ * @author woodjhon, hanshuai, backstreetlili, flexme, minhu, TCSASSEMBLER
+ * @version 1.4
  */
 @SuppressWarnings("serial")
 public class ViewGroupAction extends BaseAction {
@@ -121,6 +132,13 @@ public class ViewGroupAction extends BaseAction {
      */
     private UserService groupUserService;
 
+    /**
+     * Purpose: groupEntityCache is used to retrieve the project names and the member handles in bulk. It's required.
+     * Usage: It's injected. Legal Values: Not null after set
+     * @since 1.4
+     */
+    private GroupEntityCache groupEntityCache;
+
     /**
      * Represents the group invitation service.
      */
@@ -142,7 +160,7 @@ public class ViewGroupAction extends BaseAction {
      * 
      * @throws SecurityGroupsActionConfigurationException
      *             is thrown if any of these fields is null:<br>
-     *             groupService, projectService, userService
+     *             groupService, projectService, userService, groupEntityCache
      */
     public void checkInit() {
         super.checkInit();
@@ -150,6 +168,8 @@ public class ViewGroupAction extends BaseAction {
         ValidationUtility.checkNotNull(projectService, "projectService",
                         SecurityGroupsActionConfigurationException.class);
         ValidationUtility.checkNotNull(groupUserService, "groupUserService", SecurityGroupsActionConfigurationException.class);
+        ValidationUtility.checkNotNull(groupEntityCache, "groupEntityCache",
+                        SecurityGroupsActionConfigurationException.class);
     }
 
     /**
@@ -186,7 +206,7 @@ public class ViewGroupAction extends BaseAction {
             }
 
             fillProjectName(group);
-            HelperUtility.fillHandle(groupUserService, group);
+            HelperUtility.fillHandle(groupEntityCache, group);
             this.groupInvitations = HelperUtility.getGroupMemberInvitations(groupInvitationService, group);
 
             LoggingWrapperUtility.logExit(getLogger(), signature, new Object[] { SUCCESS });
@@ -218,8 +238,13 @@ public class ViewGroupAction extends BaseAction {
      */
     private void fillProjectName(Group group) throws SecurityGroupException {
         List<DirectProject> projects = group.getDirectProjects();
+        Set<Long> projectIds = new HashSet<Long>();
+        for (DirectProject project : projects) {
+            projectIds.add(project.getDirectProjectId());
+        }
+        Map<Long, ProjectDTO> projectById = groupEntityCache.getProjects(projectIds);
         for (DirectProject project : projects) {
-            ProjectDTO dto = projectService.get(project.getDirectProjectId());
+            ProjectDTO dto = projectById.get(project.getDirectProjectId());
             if (dto != null) {
                 project.setName(dto.getName());
             }
@@ -315,6 +340,17 @@ public class ViewGroupAction extends BaseAction {
         this.groupUserService = groupUserService;
     }
 
+    /**
+     * Setter of groupEntityCache
+     * 
+     * @param groupEntityCache
+     *            the groupEntityCache to set
+     * @since 1.4
+     */
+    public void setGroupEntityCache(GroupEntityCache groupEntityCache) {
+        this.groupEntityCache = groupEntityCache;
+    }
+
     /**
      * Sets the group invitations.
      * 
@@ -57,6 +57,7 @@ import com.topcoder.security.groups.services.dto.UserDTO;
  *   &lt;property name="userService" ref="userService"/&gt;
  *   &lt;property name="clientService" ref="clientService"/&gt;
  *   &lt;property name="customerAdministratorService" ref="customerAdministratorService"/&gt;
+ *   &lt;property name="groupEntityCache" ref="groupEntityCache"/&gt;
  * &lt;/bean&gt;
  * </pre>
  *
@@ -92,8 +93,16 @@ import com.topcoder.security.groups.services.dto.UserDTO;
  * </ol>
  * </p>
  *
+ * <p>
+ * Version 1.3 change notes:
+ * <ol>
+ *   <li>Updated {@link #executeAction()} to retrieve the users of all the found invitations at once through
+ *   {@link #groupEntityCache}.</li>
+ * </ol>
+ * </p>
+ *
  * @author gevak, TCSDEVELOPER, TCSASSEMBLER
- * @version 1.2
+ * @version 1.3
  */
 @SuppressWarnings("serial")
 public class ViewPendingApprovalUserAction extends
@@ -161,6 +170,17 @@ public class ViewPendingApprovalUserAction extends
      */
     private CustomerAdministratorService customerAdministratorService;
 
+    /**
+     * GroupEntityCache used to get user data for users assigned with found
+     * invitations in bulk. It is used in execute() method. It is injected via
+     * the setter with no validation, thus can be any value. However,
+     * <code>checkInit</code> method will ensure that it's not null. Mutable via
+     * setter.
+     *
+     * @since 1.3
+     */
+    private GroupEntityCache groupEntityCache;
+
     /**
      * Empty default constructor.
      */
@@ -260,12 +280,17 @@ public class ViewPendingApprovalUserAction extends
             setInvitations(pagedResult);
             // Get user for each invitation, since JSP page needs to render user
             // data
-            users = new ArrayList<UserDTO>();
+            Set<Long> userIds = new HashSet<Long>();
             for (GroupInvitation invitation : pagedResult.getValues()) {
                 ValidationUtility.checkNotNull(invitation.getGroupMember(),
                         "invitation.groupMember",
                         SecurityGroupsActionException.class);
-                UserDTO userDTO = groupUserService.get(invitation.getGroupMember()
+                userIds.add(invitation.getGroupMember().getUserId());
+            }
+            Map<Long, UserDTO> userById = groupEntityCache.getUsers(userIds);
+            users = new ArrayList<UserDTO>();
+            for (GroupInvitation invitation : pagedResult.getValues()) {
+                UserDTO userDTO = userById.get(invitation.getGroupMember()
                         .getUserId());
                 ValidationUtility.checkNotNull(userDTO, "userDTO",
                         SecurityGroupsActionException.class);
@@ -378,6 +403,8 @@ public class ViewPendingApprovalUserAction extends
         ValidationUtility.checkNotNull(customerAdministratorService,
                 "customerAdministratorService",
                 SecurityGroupsActionConfigurationException.class);
+        ValidationUtility.checkNotNull(groupEntityCache, "groupEntityCache",
+                SecurityGroupsActionConfigurationException.class);
     }
 
     /**
@@ -425,6 +452,18 @@ public class ViewPendingApprovalUserAction extends
         this.groupUserService = groupUserService;
     }
 
+    /**
+     * Sets GroupEntityCache used to get user data for users assigned with found
+     * invitations in bulk.
+     *
+     * @param groupEntityCache GroupEntityCache used to get user data for users
+     *            assigned with found invitations in bulk.
+     * @since 1.3
+     */
+    public void setGroupEntityCache(GroupEntityCache groupEntityCache) {
+        this.groupEntityCache = groupEntityCache;
+    }
+
     /**
      * Sets ClientService used to manage clients.
      *
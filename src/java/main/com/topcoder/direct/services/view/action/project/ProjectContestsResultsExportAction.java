@@ -15,15 +15,19 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import com.topcoder.direct.services.view.action.contest.launch.ContestAction;
+import com.topcoder.direct.services.view.util.CompositeReviewPdfRenderer;
 import com.topcoder.direct.services.view.util.DataProvider;
 import com.topcoder.direct.services.view.util.DirectUtils;
 import com.topcoder.management.deliverable.Submission;
 import com.topcoder.servlet.request.FileUpload;
 import com.topcoder.servlet.request.UploadedFile;
+import com.topcoder.service.util.export.ReportExportFormat;
+import com.topcoder.service.util.export.ReportWriter;
 import com.topcoder.shared.util.logging.Logger;
 
 /**
@@ -32,9 +36,29 @@ import com.topcoder.shared.util.logging.Logger;
  * results.
  * </p>
  * 
+ * <p>
+ * Version 1.1 change notes:
+ * <ol>
+ * <li>The winners and results sheets are written row by row into the zip as
+ * <code>XLSX</code> workbooks, instead of being built in memory as
+ * <code>XLS</code> workbooks.</li>
+ * </ol>
+ * </p>
+ *
+ * <p>
+ * Version 1.2 change notes:
+ * <ol>
+ * <li>The composite review scorecards of all the exported submissions are
+ * rendered in parallel by {@link CompositeReviewPdfRenderer}, which keeps the
+ * Online Review session and caches the documents, instead of logging in and
+ * rendering once per submission.</li>
+ * <li>Moved the Online Review login and composite review settings to
+ * {@link CompositeReviewPdfRenderer}.</li>
+ * </ol>
+ * </p>
+ *
  * @author TCSASSEMBLER
- * @version 1.0 (Release Assembly - TopCoder Cockpit Project Contest Results
- *          Export Part 1)
+ * @version 1.2
  */
 public class ProjectContestsResultsExportAction extends ContestAction {
 
@@ -95,31 +119,17 @@ public class ProjectContestsResultsExportAction extends ContestAction {
      */
     private Date endDate;
 
-    /**
-     * <p>A <code>String</code> providing the URL for Login controller for Online Review application.</p>
-     */
-    private String loginUrl;
-
-    /**
-     * <p>A <code>String</code> providing the username to login to Online Review application.</p>
-     */
-    private String username;
-
-    /**
-     * <p>A <code>String</code> providing the password to login to Online Review application.</p>
-     */
-    private String password;
-
     /**
      * <p>A <code>String</code> providing the base URL for Online Review application.</p>
      */
     private String onlineReviewBaseURL;
 
     /**
-     * <p>A <code>String</code> providing the base for Online Review application controller for getting the composite
-     * review scorecard.</p>
+     * <p>The renderer of the composite review scorecards.</p>
+     *
+     * @since 1.2
      */
-    private String compositeReviewBaseURL;
+    private CompositeReviewPdfRenderer pdfRenderer;
 
     /**
      * <p>
@@ -235,6 +245,10 @@ public class ProjectContestsResultsExportAction extends ContestAction {
             log.error("studioSubmissionBase is not injected");
             throw new IllegalStateException("studioSubmissionURL is not injected");
         }
+        if (pdfRenderer == null) {
+            log.error("pdfRenderer is not injected");
+            throw new IllegalStateException("pdfRenderer is not injected");
+        }
     }
 
     /**
@@ -252,11 +266,13 @@ public class ProjectContestsResultsExportAction extends ContestAction {
      *            whether this submission is first place
      * @param isStudio
      *            whether this is studio contest
+     * @param scorecard
+     *            the pending composite review scorecard of the submission
      * @throws Exception
      *             if any error happens
      */
     private void addSubmissionToZip(ZipOutputStream zos, long contestId, Submission submission, boolean isFirstPlace,
-            boolean isStudio) throws Exception {
+            boolean isStudio, Future<File> scorecard) throws Exception {
         byte[] buffer = new byte[8192];
         InputStream is = null;
         int read;
@@ -289,9 +305,7 @@ public class ProjectContestsResultsExportAction extends ContestAction {
             zos.closeEntry();
 
             // write the scorecards
-            pdfStream = DataProvider.generateCombinedReviewScorecard(getLoginUrl(), getUsername(), getPassword(), 
-                    getCompositeReviewBaseURL(), getCompositeReviewBaseURL(), 
-                    submission.getId());
+            pdfStream = new FileInputStream(scorecard.get());
             StringBuilder sbPdf = new StringBuilder(CONTESTS).append(File.separator).append(Long.toString(contestId))
                     .append(File.separator).append(isFirstPlace ? FIRST_PLACE_PREFIX : SECOND_PLACE_PREFIX).append(submission.getId())
                     .append(File.separator).append("Scorecard.pdf");
@@ -346,27 +360,34 @@ public class ProjectContestsResultsExportAction extends ContestAction {
 
         new Thread(new Runnable() {
             public void run() {
-                InputStream is = null;
                 try {
-                    byte[] buffer = new byte[8192];
-                    int read;
+                    // start rendering the scorecards while the sheets are written
+                    Map<Long, Future<File>> scorecards = new HashMap<Long, Future<File>>();
+                    if (submissions != null) {
+                        List<Long> submissionIds = new ArrayList<Long>();
+                        for (List<Submission> ss : submissions.values()) {
+                            submissionIds.add(ss.get(0).getId());
+                            if (ss.size() > 1) {
+                                submissionIds.add(ss.get(1).getId());
+                            }
+                        }
+                        scorecards = pdfRenderer.render(submissionIds);
+                    }
 
                     // get the Results and Winners
-                    ZipEntry outputEntry = new ZipEntry(CONTESTS + File.separator + "Winners." + new SimpleDateFormat("MM-dd-yy").format(new Date()) + ".xls");
+                    ZipEntry outputEntry = new ZipEntry(CONTESTS + File.separator + "Winners." + new SimpleDateFormat("MM-dd-yy").format(new Date()) + "." + ReportExportFormat.XLSX.getExtension());
                     zos.putNextEntry(outputEntry);
-                    is = DataProvider.generateWinnerSheet(getProjectId());
-                    while ((read = is.read(buffer)) != -1) {
-                        zos.write(buffer, 0, read);
-                    }
+                    ReportWriter writer = ReportExportFormat.XLSX.createWriter(zos, "Contest Results for " + getProjectId());
+                    DataProvider.writeWinnerSheet(getProjectId(), writer);
+                    writer.close();
                     zos.closeEntry();
 
                     // get Submissions
-                    outputEntry = new ZipEntry(CONTESTS + File.separator + "Results." + new SimpleDateFormat("MM-dd-yy").format(new Date()) + ".xls");
+                    outputEntry = new ZipEntry(CONTESTS + File.separator + "Results." + new SimpleDateFormat("MM-dd-yy").format(new Date()) + "." + ReportExportFormat.XLSX.getExtension());
                     zos.putNextEntry(outputEntry);
-                    is = DataProvider.generateSubmissionSheet(getProjectId(), startDate, endDate, userId);
-                    while ((read = is.read(buffer)) != -1) {
-                        zos.write(buffer, 0, read);
-                    }
+                    writer = ReportExportFormat.XLSX.createWriter(zos, "Contest Submissions for " + getProjectId());
+                    DataProvider.writeSubmissionSheet(getProjectId(), startDate, endDate, userId, writer);
+                    writer.close();
                     zos.closeEntry();
 
                     for (Map.Entry<Long, Boolean> entry : contestIds.entrySet()) {
@@ -375,24 +396,19 @@ public class ProjectContestsResultsExportAction extends ContestAction {
 
                         List<Submission> ss = submissions.get(contestId);
 
-                        self.addSubmissionToZip(zos, contestId, ss.get(0), true, isStudio);
+                        self.addSubmissionToZip(zos, contestId, ss.get(0), true, isStudio,
+                                scorecards.get(ss.get(0).getId()));
 
                         // deal with the second place submission
                         if (ss.size() > 1) {
-                            self.addSubmissionToZip(zos, contestId, ss.get(1), false, isStudio);
+                            self.addSubmissionToZip(zos, contestId, ss.get(1), false, isStudio,
+                                    scorecards.get(ss.get(1).getId()));
                         }
                     }
                     zos.finish();
                 } catch (Exception e) {
                     log.error("Got an error during exporting", e);
                 } finally {
-                    if (is != null) {
-                        try {
-                            is.close();
-                        } catch (Exception e) {
-                            // ignore
-                        }
-                    }
                     try {
                         zos.close();
                     } catch (Exception e) {
@@ -522,77 +538,13 @@ public class ProjectContestsResultsExportAction extends ContestAction {
     }
 
     /**
-     * <p>Gets the base for Online Review application controller for getting the composite review scorecard.</p>
-     *
-     * @return a <code>String</code> providing the base for Online Review application controller for getting the
-     *         composite review scorecard.
-     */
-    public String getCompositeReviewBaseURL() {
-        return this.compositeReviewBaseURL;
-    }
-
-    /**
-     * <p>Sets the base for Online Review application controller for getting the composite review scorecard.</p>
-     *
-     * @param compositeReviewBaseURL a <code>String</code> providing the base for Online Review application controller
-     *                               for getting the composite review scorecard.
-     */
-    public void setCompositeReviewBaseURL(String compositeReviewBaseURL) {
-        this.compositeReviewBaseURL = compositeReviewBaseURL;
-    }
-
-    /**
-     * <p>Gets the password to login to Online Review application.</p>
-     *
-     * @return a <code>String</code> providing the password to login to Online Review application.
-     */
-    public String getPassword() {
-        return this.password;
-    }
-
-    /**
-     * <p>Sets the password to login to Online Review application.</p>
-     *
-     * @param password a <code>String</code> providing the password to login to Online Review application.
-     */
-    public void setPassword(String password) {
-        this.password = password;
-    }
-
-    /**
-     * <p>Gets the username to login to Online Review application.</p>
-     *
-     * @return a <code>String</code> providing the username to login to Online Review application.
-     */
-    public String getUsername() {
-        return this.username;
-    }
-
-    /**
-     * <p>Sets the username to login to Online Review application.</p>
-     *
-     * @param username a <code>String</code> providing the username to login to Online Review application.
-     */
-    public void setUsername(String username) {
-        this.username = username;
-    }
-
-    /**
-     * <p>Gets the URL for Login controller for Online Review application.</p>
-     *
-     * @return a <code>String</code> providing the URL for Login controller for Online Review application.
-     */
-    public String getLoginUrl() {
-        return this.loginUrl;
-    }
-
-    /**
-     * <p>Sets the URL for Login controller for Online Review application.</p>
+     * <p>Sets the renderer of the composite review scorecards.</p>
      *
-     * @param loginUrl a <code>String</code> providing the URL for Login controller for Online Review application.
+     * @param pdfRenderer the renderer of the composite review scorecards.
+     * @since 1.2
      */
-    public void setLoginUrl(String loginUrl) {
-        this.loginUrl = loginUrl;
+    public void setPdfRenderer(CompositeReviewPdfRenderer pdfRenderer) {
+        this.pdfRenderer = pdfRenderer;
     }
 
 }
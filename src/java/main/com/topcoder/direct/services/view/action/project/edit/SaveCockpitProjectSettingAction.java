@@ -14,6 +14,7 @@ import com.topcoder.direct.services.view.action.project.WriteProject;
 import com.topcoder.direct.services.view.dto.project.edit.ProjectMetadataOperation;
 import com.topcoder.direct.services.view.dto.project.edit.ProjectNotificationSetting;
 import com.topcoder.direct.services.view.form.SaveProjectSettingsForm;
+import com.topcoder.direct.services.view.util.ClientBillingProjectMappingIndex;
 import com.topcoder.direct.services.view.util.DirectUtils;
 import com.topcoder.management.resource.ResourceRole;
 import com.topcoder.security.TCSubject;
@@ -97,8 +98,16 @@ import java.util.Set;
  *     </ul>
  * </p>
  *
- * @author GreatKevin, Veve
- * @version 2.5
+ * <p>
+ *     Version 2.6
+ *     <ul>
+ *         <li>Updated {@link #associateProjectBillingAccount()} and {@link #removeProjectBillingAccount()} to reload
+ *         the client billing project mappings of the project in {@link ClientBillingProjectMappingIndex}.</li>
+ *     </ul>
+ * </p>
+ *
+ * @author GreatKevin, Veve, TCSASSEMBLER
+ * @version 2.6
  */
 @WriteProject
 public class SaveCockpitProjectSettingAction extends BaseDirectStrutsAction
@@ -606,9 +615,8 @@ public class SaveCockpitProjectSettingAction extends BaseDirectStrutsAction
 
             setResult(result);
 
-            // remove mappings
-            DirectUtils.getApplicationContext().remove(DirectUtils.PROJECT_BILLING_MAPPING_RECORD_CACHE);
-            DirectUtils.getApplicationContext().remove(DirectUtils.PROJECT_BILLING_MAPPING_RESULT_CACHE);
+            // reload the mappings of the project
+            ClientBillingProjectMappingIndex.getInstance().refreshProjects(getFormData().getProjectId());
 
         } catch (Throwable e) {
             if (getModel() != null) {
@@ -648,6 +656,9 @@ public class SaveCockpitProjectSettingAction extends BaseDirectStrutsAction
 
             setResult(result);
 
+            // reload the mappings of the project
+            ClientBillingProjectMappingIndex.getInstance().refreshProjects(getFormData().getProjectId());
+
         } catch (Throwable e) {
             if (getModel() != null) {
                 setResult(e);
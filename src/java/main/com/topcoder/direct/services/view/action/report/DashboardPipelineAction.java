@@ -21,6 +21,7 @@ import com.topcoder.direct.services.view.util.SessionData;
 import com.topcoder.security.TCSubject;
 import com.topcoder.service.pipeline.CommonPipelineData;
 import com.topcoder.service.pipeline.PipelineServiceFacade;
+import com.topcoder.service.util.export.ReportExportFormat;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.xml.datatype.XMLGregorianCalendar;
@@ -77,8 +78,14 @@ import java.util.TreeSet;
  * load these data via ajax instead after the page finishes loading.
  * </p>
  *
+ * <p>
+ * Version 1.4
+ * - Updated {@link #execute()} to set the export format requested by the form to the view data, so that the
+ * pipeline details can be downloaded as <code>XLSX</code> or <code>CSV</code>.
+ * </p>
+ *
  * @author isv, Veve
- * @version 1.3
+ * @version 1.4
  */
 public class DashboardPipelineAction extends BaseDirectStrutsAction {
 
@@ -146,6 +153,7 @@ public class DashboardPipelineAction extends BaseDirectStrutsAction {
         String result = super.execute();
         if (SUCCESS.equals(result)) {
             if (getFormData().isExcel()) {
+                getViewData().setExportFormat(ReportExportFormat.parse(getFormData().getExportFormat()));
                 return "download";
             }
         }
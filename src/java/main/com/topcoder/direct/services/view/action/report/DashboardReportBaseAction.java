@@ -15,6 +15,7 @@ import com.topcoder.direct.services.view.util.DirectUtils;
 import com.topcoder.direct.services.view.util.SessionData;
 import com.topcoder.security.TCSubject;
 import com.topcoder.service.project.ProjectData;
+import com.topcoder.service.util.export.ReportExportFormat;
 
 import javax.servlet.http.HttpServletRequest;
 import java.text.SimpleDateFormat;
@@ -50,8 +51,14 @@ import java.util.Set;
  * load these data via ajax instead after the page finishes loading.
  * </p>
  *
+ * <p>
+ * Version 1.4
+ * - Sets the export format requested by the form to the view data, so that the report can be downloaded as
+ * <code>XLSX</code> or <code>CSV</code>.
+ * </p>
+ *
  * @author Ghost_141, Veve
- * @version 1.3
+ * @version 1.4
  * @param <FORMT> a type of the form used by the report page. It must extends from <code>DashboardReportForm</code>.
  * @param <VIEWT> a type of the view used by the report page. It must extends from <code>ReportBaseDTO</code>.
  */
@@ -146,6 +153,7 @@ public abstract class DashboardReportBaseAction<FORMT extends DashboardReportFor
         TCSubject currentUser = getCurrentUser();
 
         DashboardReportForm form = getFormData();
+        this.viewData.setExportFormat(ReportExportFormat.parse(form.getExportFormat()));
         long projectId = form.getProjectId();
         long[] categoryIds = form.getProjectCategoryIds();
         long customerId = form.getCustomerId();
@@ -5,8 +5,10 @@ package com.topcoder.direct.services.view.action.report;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
@@ -70,8 +72,18 @@ import com.topcoder.security.TCSubject;
  * </ol>
  * </p>
  *
+ * <p>
+ * Version 1.6 changes:
+ * <ol>
+ *   <li>Updated method {@link #executeAction()} to look up the existing invoice records with one query per invoice
+ *   type instead of one query per row, and to create/update the records in JDBC batches.</li>
+ *   <li>Added methods {@link #hasJiraIssueId(int)}, {@link #getIds(Map, long)} and
+ *   {@link #getRecords(Map, long)}.</li>
+ * </ol>
+ * </p>
+ *
  * @author flexme, minhu, TCSASSEMBLER, notpad
- * @version 1.5
+ * @version 1.6
  */
 public class UpdateInvoiceRecordsAction extends BaseDirectStrutsAction {
 
@@ -216,44 +228,75 @@ public class UpdateInvoiceRecordsAction extends BaseDirectStrutsAction {
                 // update the invoice date
                 invoice.setInvoiceDate(DirectUtils.getDate(invoiceDate));
             }
-            List<Long> invoiceRecordIds = new ArrayList<Long>();
+            // resolve the invoice types, and group the ids of the records to look up by invoice type
+            List<InvoiceType> recordInvoiceTypes = new ArrayList<InvoiceType>();
+            Map<Long, List<Long>> paymentIdsByType = new HashMap<Long, List<Long>>();
+            Map<Long, List<String>> jiraIssueIdsByType = new HashMap<Long, List<String>>();
+            Map<Long, List<Long>> contestIdsByType = new HashMap<Long, List<Long>>();
             for (int i = 0; i < contestIds.size(); i++) {
-                InvoiceRecord record = null;
-                InvoiceRecord record2 = null;
                 String invoiceTypeName = invoiceTypeNames.get(i).trim();
                 InvoiceType invoiceType = DirectUtils.getInvoiceType(invoiceTypeName, invoiceTypes);
                 if (invoiceType == null) {
                     throw new DirectException("Can't find the invoice type:" + invoiceTypeName);
                 }
+                recordInvoiceTypes.add(invoiceType);
                 // payment ids are only used to get related data when credit, after that, set it to zero
                 if (PaymentType.CREDIT.getDescription().equalsIgnoreCase(invoiceTypeName)) {
                     paymentIds.set(i, 0L);
+                } else if (paymentIds.get(i) > 0) {
+                    getIds(paymentIdsByType, invoiceType.getId()).add(paymentIds.get(i));
+                } else if (hasJiraIssueId(i)) {
+                    getIds(jiraIssueIdsByType, invoiceType.getId()).add(jiraIssueIds.get(i));
+                } else {
+                    getIds(contestIdsByType, invoiceType.getId()).add(contestIds.get(i));
                 }
+            }
+
+            // get the existing invoice records with one lookup per invoice type
+            Map<Long, Map<Long, InvoiceRecord>> paymentRecords = new HashMap<Long, Map<Long, InvoiceRecord>>();
+            for (Map.Entry<Long, List<Long>> entry : paymentIdsByType.entrySet()) {
+                paymentRecords.put(entry.getKey(),
+                        invoiceRecordDAO.getByPaymentsAndInvoiceType(entry.getValue(), entry.getKey()));
+            }
+            Map<Long, Map<String, InvoiceRecord>> jiraIssueRecords = new HashMap<Long, Map<String, InvoiceRecord>>();
+            for (Map.Entry<Long, List<String>> entry : jiraIssueIdsByType.entrySet()) {
+                jiraIssueRecords.put(entry.getKey(),
+                        invoiceRecordDAO.getByJiraIssuesAndInvoiceType(entry.getValue(), entry.getKey()));
+            }
+            Map<Long, Map<Long, InvoiceRecord>> contestRecords = new HashMap<Long, Map<Long, InvoiceRecord>>();
+            for (Map.Entry<Long, List<Long>> entry : contestIdsByType.entrySet()) {
+                contestRecords.put(entry.getKey(),
+                        invoiceRecordDAO.getByContestsAndInvoiceType(entry.getValue(), entry.getKey()));
+            }
+
+            // the records to create or update, and the record of each row
+            Set<InvoiceRecord> records = new LinkedHashSet<InvoiceRecord>();
+            List<InvoiceRecord> rowRecords = new ArrayList<InvoiceRecord>();
+            for (int i = 0; i < contestIds.size(); i++) {
+                InvoiceRecord record = null;
+                InvoiceRecord record2 = null;
+                InvoiceType invoiceType = recordInvoiceTypes.get(i);
+                boolean credit = PaymentType.CREDIT.getDescription().equalsIgnoreCase(invoiceTypeNames.get(i).trim());
                 if (paymentIds.get(i) > 0) {
                     // payment_id > 0, get invoice record by payment_id and invoice_type_id
-                    record = invoiceRecordDAO.getByPaymentAndInvoiceType(paymentIds.get(i), invoiceType.getId());
-                } else {
-                    if (!PaymentType.CREDIT.getDescription().equalsIgnoreCase(invoiceTypeName)) {
-                        // payment_id = 0, get invoice record by contest_id and invoice_type_id
-                        if (jiraIssueIds!= null && jiraIssueIds.get(i) != null && jiraIssueIds.get(i).length() > 0) {
-                            record = invoiceRecordDAO.getByJiraIssueAndInvoiceType(jiraIssueIds.get(i),
-                                    invoiceType.getId());
-                        } else {
-                            record = invoiceRecordDAO.getByContestAndInvoiceType(contestIds.get(i),
-                                    invoiceType.getId());
-                        }
-                        if (record != null && record.getPaymentId() != null) {
-                            throw new DirectException("Payment Id should be zero.");
-                        }
+                    record = getRecords(paymentRecords, invoiceType.getId()).get(paymentIds.get(i));
+                } else if (!credit) {
+                    // payment_id = 0, get invoice record by contest_id and invoice_type_id
+                    if (hasJiraIssueId(i)) {
+                        record = getRecords(jiraIssueRecords, invoiceType.getId()).get(jiraIssueIds.get(i));
+                    } else {
+                        record = getRecords(contestRecords, invoiceType.getId()).get(contestIds.get(i));
+                    }
+                    if (record != null && record.getPaymentId() != null) {
+                        throw new DirectException("Payment Id should be zero.");
                     }
                 }
-                
+
                 if (record != null) {
                     // InvoiceRecord exists, update the exists record
                     record.setModifyUser(userId);
                     record.setInvoiceAmount(invoiceAmounts.get(i));
                     record.setProcessed(processeds.get(i));
-                    invoiceRecordDAO.update(record);
                 } else {
                     // InvoiceRecord didn't exists, insert a new one into database
                     InvoiceRecordBriefDTO recordData = recordDatas.get(i);
@@ -263,26 +306,22 @@ public class UpdateInvoiceRecordsAction extends BaseDirectStrutsAction {
                     record = new InvoiceRecord();
                     record.setBillingAccountId(recordData.getBillingAccountId());
                     record.setContestId(recordData.getContestId());
-					if (jiraIssueIds != null && jiraIssueIds.get(i) != null && !jiraIssueIds.get(i).equals(""))
-					{
-						record.setJiraIssueId(jiraIssueIds.get(i));
-					}
+                    if (hasJiraIssueId(i)) {
+                        record.setJiraIssueId(jiraIssueIds.get(i));
+                    }
                     record.setCockpitProjectId(recordData.getCockpitProjectId());
-                    if (PaymentType.CREDIT.getDescription().equalsIgnoreCase(invoiceTypeName)) {
+                    if (credit) {
                         record.setReferenceId(referenceIds.get(i));
                     }
                     if (paymentIds.get(i) > 0) {
                         record.setPaymentId(paymentIds.get(i));
-                        //record.setInvoiceType(DirectUtils.getInvoiceType(recordData.getInvoiceType().trim(), invoiceTypes));
-                        record.setInvoiceType(invoiceType);
-                    } else {
-                        record.setInvoiceType(invoiceType);
                     }
+                    record.setInvoiceType(invoiceType);
                     record.setProcessed(processeds.get(i));
                     record.setInvoiceAmount(invoiceAmounts.get(i));
                     record.setCreateUser(userId);
                     record.setModifyUser(userId);
-                    
+
                     if (invoice == null) {
                         // create a new invoice
                         invoice = new Invoice();
@@ -293,7 +332,18 @@ public class UpdateInvoiceRecordsAction extends BaseDirectStrutsAction {
                         invoiceDAO.create(invoice);
                     }
                     record.setInvoice(invoice);
-                    
+
+                    // the later rows of the same payment, JIRA issue or contest update the new record
+                    if (paymentIds.get(i) > 0) {
+                        getRecords(paymentRecords, invoiceType.getId()).put(paymentIds.get(i), record);
+                    } else if (!credit) {
+                        if (hasJiraIssueId(i)) {
+                            getRecords(jiraIssueRecords, invoiceType.getId()).put(jiraIssueIds.get(i), record);
+                        } else {
+                            getRecords(contestRecords, invoiceType.getId()).put(contestIds.get(i), record);
+                        }
+                    }
+
                     // check if there is a second installment for this payment
                     if (paymentIds.get(i) > 0 && secondInstallments.containsKey(paymentIds.get(i))) {
                         record2 = new InvoiceRecord();
@@ -310,13 +360,20 @@ public class UpdateInvoiceRecordsAction extends BaseDirectStrutsAction {
                         record2.setCreateUser(userId);
                         record2.setModifyUser(userId);
                         record2.setInvoice(invoice);
-                    } 
-                    
-                    invoiceRecordDAO.create(record);
-                    if (record2 != null) {
-                        invoiceRecordDAO.create(record2);
                     }
                 }
+                records.add(record);
+                if (record2 != null) {
+                    records.add(record2);
+                }
+                rowRecords.add(record);
+            }
+
+            // create and update the records in JDBC batches
+            invoiceRecordDAO.saveOrUpdateAll(new ArrayList<InvoiceRecord>(records));
+
+            List<Long> invoiceRecordIds = new ArrayList<Long>();
+            for (InvoiceRecord record : rowRecords) {
                 invoiceRecordIds.add(record.getId());
             }
             transactionManager.commit(status);
@@ -333,6 +390,54 @@ public class UpdateInvoiceRecordsAction extends BaseDirectStrutsAction {
         }
     }
 
+    /**
+     * <p>Checks whether the row at the given index has a JIRA issue ID.</p>
+     *
+     * @param index the index of the row.
+     * @return true if the row has a JIRA issue ID, false otherwise.
+     * @since 1.6
+     */
+    private boolean hasJiraIssueId(int index) {
+        return jiraIssueIds != null && jiraIssueIds.get(index) != null && jiraIssueIds.get(index).length() > 0;
+    }
+
+    /**
+     * <p>Gets the IDs to look up of the given invoice type, the empty list is added if it's absent.</p>
+     *
+     * @param <K> the type of the IDs.
+     * @param idsByType the IDs keyed by invoice type ID.
+     * @param invoiceTypeId the invoice type ID.
+     * @return the IDs of the invoice type.
+     * @since 1.6
+     */
+    private static <K> List<K> getIds(Map<Long, List<K>> idsByType, long invoiceTypeId) {
+        List<K> ids = idsByType.get(invoiceTypeId);
+        if (ids == null) {
+            ids = new ArrayList<K>();
+            idsByType.put(invoiceTypeId, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * <p>Gets the invoice records of the given invoice type, the empty map is added if it's absent.</p>
+     *
+     * @param <K> the type of the keys of the records.
+     * @param recordsByType the records keyed by invoice type ID.
+     * @param invoiceTypeId the invoice type ID.
+     * @return the records of the invoice type.
+     * @since 1.6
+     */
+    private static <K> Map<K, InvoiceRecord> getRecords(Map<Long, Map<K, InvoiceRecord>> recordsByType,
+            long invoiceTypeId) {
+        Map<K, InvoiceRecord> records = recordsByType.get(invoiceTypeId);
+        if (records == null) {
+            records = new HashMap<K, InvoiceRecord>();
+            recordsByType.put(invoiceTypeId, records);
+        }
+        return records;
+    }
+
     /**
      * <p>Sets the instance of <code>InvoiceRecordDAO</code>.</p>
      * 
@@ -8,7 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.topcoder.direct.services.view.action.ForwardAction;
-import com.topcoder.direct.services.view.util.excel2html.ToHtml;
+import com.topcoder.direct.services.view.util.excel2html.StatsPageCache;
 
 /**
  * <p>A <code>Struts</code> action to be used for generating the internal stats page from an excel file. This action will return the raw HTML data in plain text.</p>
@@ -18,8 +18,15 @@ import com.topcoder.direct.services.view.util.excel2html.ToHtml;
  * This class is mutable and stateful: it's not thread safe.
  * </p>
  *
+ * <p>
+ * Version 1.1 change notes:
+ * <ol>
+ *   <li>The page is got from {@link StatsPageCache}, so it's only rendered again when the excel file changes.</li>
+ * </ol>
+ * </p>
+ *
  * @author TCSDEVELOPER
- * @version 1.0
+ * @version 1.1
  */
 public class InternalStatsAction extends ForwardAction {
     /**
@@ -113,8 +120,9 @@ public class InternalStatsAction extends ForwardAction {
     public String execute() throws Exception {
         try {
             if (new File(excelFile).canRead()) {
-                sheetTabs = new ArrayList<String>();
-                tableData = ToHtml.generateStatsPage(sheetIndex, excelFile, sheetTabs);
+                StatsPageCache.StatsPage page = StatsPageCache.getInstance().getStatsPage(excelFile, sheetIndex);
+                sheetTabs = new ArrayList<String>(page.getSheetTabs());
+                tableData = page.getTableData();
             }
             excelOpenError = "";
         } catch (IllegalArgumentException e){
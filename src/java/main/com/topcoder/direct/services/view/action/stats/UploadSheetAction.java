@@ -8,12 +8,20 @@ import java.io.*;
 import org.apache.commons.io.IOUtils;
 
 import com.topcoder.direct.services.view.action.BaseDirectStrutsAction;
+import com.topcoder.direct.services.view.util.excel2html.StatsPageCache;
 
 /**
  * <p>A <code>Struts</code> action to be used for upload the excel file.</p>
  *
+ * <p>
+ * Version 1.1 change notes:
+ * <ol>
+ *   <li>The cached stats pages of the excel file are dropped once it's uploaded.</li>
+ * </ol>
+ * </p>
+ *
  * @author flexme
- * @version 1.0
+ * @version 1.1
  */
 public class UploadSheetAction extends BaseDirectStrutsAction {
 
@@ -103,6 +111,7 @@ public class UploadSheetAction extends BaseDirectStrutsAction {
             } finally {
                 IOUtils.closeQuietly(outputStream);
                 IOUtils.closeQuietly(inputStream);
+                StatsPageCache.getInstance().invalidate(excelFile);
             }
         }
         return SUCCESS;
@@ -7,6 +7,8 @@ import java.io.Serializable;
 import java.util.Map;
 import java.util.Set;
 
+import com.topcoder.service.util.export.ReportExportFormat;
+
 /**
  * <p>A <code>DTO</code> class providing the basic report data a report.</p>
  * 
@@ -15,9 +17,17 @@ import java.util.Set;
  *   <li>Added {@link #projectStatus} and it's getter and setter.</li>
  * </ol>
  * </p>
+ *
+ * <p>Version 1.2 change notes:
+ * <ol>
+ *   <li>Added {@link #exportFormat} and it's getter and setter.</li>
+ *   <li>Added {@link #getDownloadFormat()}, {@link #getContentType()} and {@link #getExportRowCount()} methods so that
+ *   the reports exceeding the <code>XLS</code> row limit are downloaded as <code>XLSX</code>.</li>
+ * </ol>
+ * </p>
  * 
  * @author TCSASSEMBER
- * @version 1.1 (TC Cockpit Project Metrics Report )
+ * @version 1.2
  */
 public class ReportBaseDTO extends CommonDTO implements Serializable {
 
@@ -77,6 +87,13 @@ public class ReportBaseDTO extends CommonDTO implements Serializable {
      * to be calculated and displayed.</p>
      */
     private boolean showJustForm;
+
+    /**
+     * <p>The format the report is exported to when it's downloaded.</p>
+     *
+     * @since 1.2
+     */
+    private ReportExportFormat exportFormat = ReportExportFormat.XLS;
     
     /**
      * <p>Construct a new <code>ReportBaseDTO</code> instance.</p>
@@ -250,5 +267,57 @@ public class ReportBaseDTO extends CommonDTO implements Serializable {
 	public void setProjectStatus(Map<Long, String> projectStatus) {
 		this.projectStatus = projectStatus;
 	}
+
+    /**
+     * <p>Gets the format the report is exported to when it's downloaded.</p>
+     *
+     * @return the export format.
+     * @since 1.2
+     */
+    public ReportExportFormat getExportFormat() {
+        return exportFormat;
+    }
+
+    /**
+     * <p>Sets the format the report is exported to when it's downloaded.</p>
+     *
+     * @param exportFormat the export format to set.
+     * @since 1.2
+     */
+    public void setExportFormat(ReportExportFormat exportFormat) {
+        this.exportFormat = exportFormat;
+    }
+
+    /**
+     * <p>Gets the format the report is actually downloaded in: the export format, or <code>XLSX</code> if the export
+     * format can't hold the report rows.</p>
+     *
+     * @return the download format.
+     * @since 1.2
+     */
+    public ReportExportFormat getDownloadFormat() {
+        return exportFormat.forRows(getExportRowCount());
+    }
+
+    /**
+     * <p>Gets the content type of the downloaded report.</p>
+     *
+     * @return the content type.
+     * @since 1.2
+     */
+    public String getContentType() {
+        return getDownloadFormat().getContentType();
+    }
+
+    /**
+     * <p>Gets the number of rows of the exported report, including the header. This implementation returns 0, the
+     * reports which can be downloaded override it.</p>
+     *
+     * @return the number of exported rows.
+     * @since 1.2
+     */
+    protected int getExportRowCount() {
+        return 0;
+    }
     
 }
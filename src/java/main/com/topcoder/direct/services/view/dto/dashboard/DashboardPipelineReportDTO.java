@@ -12,6 +12,8 @@ import com.topcoder.direct.services.view.dto.dashboard.pipeline.PipelineLaunched
 import com.topcoder.direct.services.view.dto.dashboard.pipeline.PipelineNumericalFilterType;
 import com.topcoder.direct.services.view.dto.dashboard.pipeline.PipelineSummaryDTO;
 import com.topcoder.direct.services.view.util.JSPHelper;
+import com.topcoder.direct.services.view.util.export.SheetContent;
+import com.topcoder.direct.services.view.util.export.StreamingSheet;
 import com.topcoder.excel.Row;
 import com.topcoder.excel.Sheet;
 import com.topcoder.excel.Workbook;
@@ -21,6 +23,7 @@ import com.topcoder.excel.output.Biff8WorkbookSaver;
 import com.topcoder.excel.output.WorkbookSaver;
 import com.topcoder.excel.output.WorkbookSavingException;
 import com.topcoder.service.pipeline.CommonPipelineData;
+import com.topcoder.service.util.export.ReportExportFormat;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -47,8 +50,18 @@ import java.util.Set;
  *   </ol>
  * </p>
  *
+ * <p>
+ *  Version 1.2 change notes:
+ *   <ol>
+ *       <li>Add {@link #exportFormat} and its getter and setter.</li>
+ *       <li>Add {@link #getDownloadFormat()}, {@link #getContentType()} and {@link #getExcelFileName()}.</li>
+ *       <li>Update {@link #getInputStream()} to write the contests row by row to a temporary file when the report
+ *       is downloaded as <code>XLSX</code> or <code>CSV</code>.</li>
+ *   </ol>
+ * </p>
+ *
  * @author TCSASSEMBLER
- * @version 1.1
+ * @version 1.2
  */
 public class DashboardPipelineReportDTO extends CommonDTO implements Serializable, Report {
 
@@ -67,6 +80,13 @@ public class DashboardPipelineReportDTO extends CommonDTO implements Serializabl
      */
     private static final Map<PipelineNumericalFilterType, String> NUMERICAL_FILTER_TYPES;
 
+    /**
+     * <p>Represents the excel file name when exporting the pipeline details.</p>
+     *
+     * @since 1.2
+     */
+    private static final String PIPELINE_DETAILS_EXCEL_FILE_NAME = "pipeline-details.xls";
+
     /**
      * <p>This static initializer initializes the static maps.</p>
      */
@@ -189,6 +209,13 @@ public class DashboardPipelineReportDTO extends CommonDTO implements Serializabl
      */
     private List<PipelineLaunchedContestsDTO> projectScheduledLaunchedContestStats;
 
+    /**
+     * <p>The format the pipeline details are exported to when they're downloaded.</p>
+     *
+     * @since 1.2
+     */
+    private ReportExportFormat exportFormat = ReportExportFormat.XLS;
+
     /**
      * <p>Constructs new <code>DashboardPipelineReportDTO</code> instance. This implementation does nothing.</p>
      */
@@ -490,6 +517,13 @@ public class DashboardPipelineReportDTO extends CommonDTO implements Serializabl
      * @throws IOException if an I/O error occurs.
      */
     public InputStream getInputStream() throws WorkbookSavingException, IOException {
+        if (getDownloadFormat().isStreaming()) {
+            return StreamingSheet.export(getDownloadFormat(), "Pipeline Details", new SheetContent() {
+                public void insertSheetData(Sheet sheet) {
+                    DashboardPipelineReportDTO.this.insertSheetData(sheet);
+                }
+            });
+        }
         try {
             Workbook workbook = new ExcelWorkbook();
             Sheet sheet = new ExcelSheet("Pipeline Details", (ExcelWorkbook) workbook);
@@ -507,6 +541,57 @@ public class DashboardPipelineReportDTO extends CommonDTO implements Serializabl
         }
     }
 
+    /**
+     * <p>Gets the format the pipeline details are exported to when they're downloaded.</p>
+     *
+     * @return the export format.
+     * @since 1.2
+     */
+    public ReportExportFormat getExportFormat() {
+        return exportFormat;
+    }
+
+    /**
+     * <p>Sets the format the pipeline details are exported to when they're downloaded.</p>
+     *
+     * @param exportFormat the export format.
+     * @since 1.2
+     */
+    public void setExportFormat(ReportExportFormat exportFormat) {
+        this.exportFormat = exportFormat;
+    }
+
+    /**
+     * <p>Gets the format the pipeline details are actually downloaded in: the export format, or <code>XLSX</code>
+     * if the export format can't hold all the contests.</p>
+     *
+     * @return the download format.
+     * @since 1.2
+     */
+    public ReportExportFormat getDownloadFormat() {
+        return exportFormat.forRows(contests == null ? 1 : contests.size() + 1);
+    }
+
+    /**
+     * <p>Gets the content type of the downloaded pipeline details.</p>
+     *
+     * @return the content type.
+     * @since 1.2
+     */
+    public String getContentType() {
+        return getDownloadFormat().getContentType();
+    }
+
+    /**
+     * <p>Gets the file name of the downloaded pipeline details.</p>
+     *
+     * @return the file name.
+     * @since 1.2
+     */
+    public String getExcelFileName() {
+        return getDownloadFormat().getFileName(PIPELINE_DETAILS_EXCEL_FILE_NAME);
+    }
+
     /**
      * <p>Inserts the sheet data.</p>
      *
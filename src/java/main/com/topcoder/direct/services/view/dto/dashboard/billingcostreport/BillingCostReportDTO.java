@@ -16,6 +16,8 @@ import java.util.Map;
 
 import com.topcoder.direct.services.view.dto.ReportBaseDTO;
 import com.topcoder.direct.services.view.dto.ReportType;
+import com.topcoder.direct.services.view.util.export.SheetContent;
+import com.topcoder.direct.services.view.util.export.StreamingSheet;
 import com.topcoder.excel.Row;
 import com.topcoder.excel.Sheet;
 import com.topcoder.excel.Workbook;
@@ -54,12 +56,28 @@ import com.topcoder.excel.output.WorkbookSavingException;
  *   </li>
  * </ol>
  * </p>
+ *
+ * <p>
+ * Version 1.4 change notes:
+ * <ol>
+ *   <li>Updated {@link #getInputStream()} to write the entries row by row to a temporary file when the report is
+ *   downloaded as <code>XLSX</code> or <code>CSV</code>.</li>
+ *   <li>Added {@link #getExcelFileName()} and {@link #getExportRowCount()}.</li>
+ * </ol>
+ * </p>
  * 
  * @author Blues, GreatKevin
- * @version  1.3
+ * @version  1.4
  */
 public class BillingCostReportDTO extends ReportBaseDTO {
 
+    /**
+     * Represents the excel file name when exporting billing cost report.
+     *
+     * @since 1.4
+     */
+    private static final String BILLING_COST_REPORT_EXCEL_FILE_NAME = "billing_cost_report.xls";
+
     /**
      * <p>The list stores the billing cost report entries</p>
      */
@@ -245,6 +263,13 @@ public class BillingCostReportDTO extends ReportBaseDTO {
      * @throws IOException if an I/O error occurs.
      */
     public InputStream getInputStream() throws WorkbookSavingException, IOException {
+        if (getDownloadFormat().isStreaming()) {
+            return StreamingSheet.export(getDownloadFormat(), "Billing Cost Details", new SheetContent() {
+                public void insertSheetData(Sheet sheet) {
+                    BillingCostReportDTO.this.insertSheetData(sheet);
+                }
+            });
+        }
         try {
 
             Workbook workbook = new ExcelWorkbook();
@@ -264,6 +289,27 @@ public class BillingCostReportDTO extends ReportBaseDTO {
         }
     }
 
+    /**
+     * Return the excel file name when exporting the report.
+     *
+     * @return the excel file name
+     * @since 1.4
+     */
+    public String getExcelFileName() {
+        return getDownloadFormat().getFileName(BILLING_COST_REPORT_EXCEL_FILE_NAME);
+    }
+
+    /**
+     * Gets the number of rows of the exported report: the header and the entries.
+     *
+     * @return the number of exported rows.
+     * @since 1.4
+     */
+    @Override
+    protected int getExportRowCount() {
+        return getEntries() == null ? 1 : getEntries().size() + 1;
+    }
+
     /**
      * <p>Inserts the sheet data.</p>
      *
@@ -18,6 +18,8 @@ import com.topcoder.direct.services.view.dto.ReportAggregationBaseDTO;
 import com.topcoder.direct.services.view.dto.ReportType;
 import com.topcoder.direct.services.view.dto.dashboard.DashboardCostBreakDownDTO;
 import com.topcoder.direct.services.view.util.DataProvider;
+import com.topcoder.direct.services.view.util.export.SheetContent;
+import com.topcoder.direct.services.view.util.export.StreamingSheet;
 import com.topcoder.excel.Row;
 import com.topcoder.excel.Sheet;
 import com.topcoder.excel.Workbook;
@@ -75,9 +77,19 @@ import com.topcoder.excel.output.WorkbookSavingException;
  *     <li>Adds checking on the export value to accommodate the project level cost </li>
  * </ul>
  * </p>
+ *
+ * <p>
+ * Version 1.5 change notes:
+ * <ul>
+ *     <li>Updated {@link #getInputStream()} to write the cost details row by row to a temporary file when the report
+ *     is downloaded as <code>XLSX</code> or <code>CSV</code>.</li>
+ *     <li>Updated {@link #getExcelFileName()} to use the extension of the download format.</li>
+ *     <li>Added {@link #getExportRowCount()}.</li>
+ * </ul>
+ * </p>
  * 
  * @author Blues, flexme, GreatKevin
- * @version 1.4
+ * @version 1.5
  *
  */
 public class CostReportDTO extends ReportAggregationBaseDTO<CostAggregationDTO> {
@@ -171,6 +183,13 @@ public class CostReportDTO extends ReportAggregationBaseDTO<CostAggregationDTO>
      * @throws IOException if an I/O error occurs.
      */
     public InputStream getInputStream() throws WorkbookSavingException, IOException {
+        if (getDownloadFormat().isStreaming()) {
+            return StreamingSheet.export(getDownloadFormat(), "Cost Details", new SheetContent() {
+                public void insertSheetData(Sheet sheet) throws Exception {
+                    CostReportDTO.this.insertSheetData(sheet);
+                }
+            });
+        }
         try {
 
             Workbook workbook = new ExcelWorkbook();
@@ -345,12 +364,23 @@ public class CostReportDTO extends ReportAggregationBaseDTO<CostAggregationDTO>
      */
     public String getExcelFileName() {
         if (isShowBreakdown()) {
-            return COST_BREAKDOWN_REPORT_EXCEL_FILE_NAME;
+            return getDownloadFormat().getFileName(COST_BREAKDOWN_REPORT_EXCEL_FILE_NAME);
         } else {
-            return COST_REPORT_EXCEL_FILE_NAME;
+            return getDownloadFormat().getFileName(COST_REPORT_EXCEL_FILE_NAME);
         }
     }
 
+    /**
+     * Gets the number of rows of the exported report: the header and the cost details.
+     *
+     * @return the number of exported rows.
+     * @since 1.5
+     */
+    @Override
+    protected int getExportRowCount() {
+        return getCostDetails() == null ? 1 : getCostDetails().size() + 1;
+    }
+
     private static String getStringValue(String value) {
         if (value == null || value.trim().length() == 0) {
             return "N/A";
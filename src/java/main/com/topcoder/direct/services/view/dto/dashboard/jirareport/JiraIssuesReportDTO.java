@@ -5,6 +5,8 @@ package com.topcoder.direct.services.view.dto.dashboard.jirareport;
 
 import com.topcoder.direct.services.view.dto.ReportBaseDTO;
 import com.topcoder.direct.services.view.dto.ReportType;
+import com.topcoder.direct.services.view.util.export.SheetContent;
+import com.topcoder.direct.services.view.util.export.StreamingSheet;
 import com.topcoder.excel.Row;
 import com.topcoder.excel.Sheet;
 import com.topcoder.excel.Workbook;
@@ -33,8 +35,18 @@ import java.util.List;
  * </ul>
  * </p>
  *
+ * <p>
+ * Version 1.2
+ * <ul>
+ *     <li>Updated {@link #getInputStream()} to write the entries row by row to a temporary file when the report is
+ *     downloaded as <code>XLSX</code> or <code>CSV</code>.</li>
+ *     <li>Updated {@link #getExcelFileName()} to use the extension of the download format.</li>
+ *     <li>Added {@link #getExportRowCount()}.</li>
+ * </ul>
+ * </p>
+ *
  * @author TCSASSEMBLER
- * @version 1.1
+ * @version 1.2
  */
 public class JiraIssuesReportDTO extends ReportBaseDTO {
 
@@ -81,7 +93,18 @@ public class JiraIssuesReportDTO extends ReportBaseDTO {
      * @return the excel file name
      */
     public String getExcelFileName() {
-        return JIRA_ISSUES_REPORT_EXCEL_FILE_NAME;
+        return getDownloadFormat().getFileName(JIRA_ISSUES_REPORT_EXCEL_FILE_NAME);
+    }
+
+    /**
+     * Gets the number of rows of the exported report: the header and the entries.
+     *
+     * @return the number of exported rows.
+     * @since 1.2
+     */
+    @Override
+    protected int getExportRowCount() {
+        return getEntries() == null ? 1 : getEntries().size() + 1;
     }
 
     /**
@@ -92,6 +115,13 @@ public class JiraIssuesReportDTO extends ReportBaseDTO {
      * @throws java.io.IOException if an I/O error occurs.
      */
     public InputStream getInputStream() throws Exception {
+            if (getDownloadFormat().isStreaming()) {
+                return StreamingSheet.export(getDownloadFormat(), "Jira Issues", new SheetContent() {
+                    public void insertSheetData(Sheet sheet) throws Exception {
+                        JiraIssuesReportDTO.this.insertSheetData(sheet);
+                    }
+                });
+            }
             Workbook workbook = new ExcelWorkbook();
             Sheet sheet = new ExcelSheet("Jira Issues", (ExcelWorkbook) workbook);
             insertSheetData(sheet);
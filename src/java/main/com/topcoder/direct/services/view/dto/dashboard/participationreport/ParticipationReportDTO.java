@@ -10,6 +10,8 @@ import java.util.List;
 
 import com.topcoder.direct.services.view.dto.ReportAggregationBaseDTO;
 import com.topcoder.direct.services.view.dto.ReportType;
+import com.topcoder.direct.services.view.util.export.SheetContent;
+import com.topcoder.direct.services.view.util.export.StreamingSheet;
 import com.topcoder.excel.Row;
 import com.topcoder.excel.Sheet;
 import com.topcoder.excel.Workbook;
@@ -56,9 +58,19 @@ import com.topcoder.excel.output.WorkbookSaver;
  *   <li>Added New Column 'Total Contests'.</li>
  * </ol>
  * </p>
+ *
+ * <p>
+ * Version 1.4 change log:
+ * <ol>
+ *   <li>Updated method {@link #getInputStream()} to write the rows to a temporary file when the report is
+ *   downloaded as <code>XLSX</code> or <code>CSV</code>.</li>
+ *   <li>Updated method {@link #getExcelFileName()} to use the extension of the download format.</li>
+ *   <li>Added method {@link #getExportRowCount()}.</li>
+ * </ol>
+ * </p>
  * 
  * @author TCSASSEMBER
- * @version  1.3
+ * @version  1.4
  */
 public class ParticipationReportDTO extends ReportAggregationBaseDTO<ParticipationAggregationReportDTO> {
 
@@ -139,7 +151,18 @@ public class ParticipationReportDTO extends ReportAggregationBaseDTO<Participati
      * @since 1.2
      */
     public String getExcelFileName() {
-        return "participation_report_"+participationViewType.getKey()+".xls";
+        return getDownloadFormat().getFileName("participation_report_"+participationViewType.getKey()+".xls");
+    }
+
+    /**
+     * Gets the number of rows of the exported report: the header and the aggregation rows.
+     *
+     * @return the number of exported rows.
+     * @since 1.4
+     */
+    @Override
+    protected int getExportRowCount() {
+        return getExcelAggregation() == null ? 1 : getExcelAggregation().size() + 1;
     }
     
     /**
@@ -149,6 +172,13 @@ public class ParticipationReportDTO extends ReportAggregationBaseDTO<Participati
      * @throws Exception if any error occurs.
      */
     public InputStream getInputStream() throws Exception {
+        if (getDownloadFormat().isStreaming()) {
+            return StreamingSheet.export(getDownloadFormat(), "Project Details", new SheetContent() {
+                public void insertSheetData(Sheet sheet) throws Exception {
+                    ParticipationReportDTO.this.insertSheetData(sheet);
+                }
+            });
+        }
         Workbook workbook = new ExcelWorkbook();
         Sheet sheet = new ExcelSheet("Project Details", (ExcelWorkbook) workbook);
         insertSheetData(sheet);
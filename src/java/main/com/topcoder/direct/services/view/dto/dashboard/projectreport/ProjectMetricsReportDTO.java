@@ -16,6 +16,8 @@ import java.util.Map;
 import com.topcoder.direct.services.view.dto.ReportBaseDTO;
 import com.topcoder.direct.services.view.dto.ReportType;
 import com.topcoder.direct.services.view.dto.dashboard.DashboardCostBreakDownDTO;
+import com.topcoder.direct.services.view.util.export.SheetContent;
+import com.topcoder.direct.services.view.util.export.StreamingSheet;
 import com.topcoder.excel.Row;
 import com.topcoder.excel.Sheet;
 import com.topcoder.excel.Workbook;
@@ -29,9 +31,19 @@ import com.topcoder.excel.output.WorkbookSavingException;
  * <p>
  * The DTO to store the project metrics report data.
  * </p>
+ *
+ * <p>
+ * Version 1.1 change notes:
+ * <ol>
+ *   <li>Updated {@link #getInputStream()} to write the entries row by row to a temporary file when the report is
+ *   downloaded as <code>XLSX</code> or <code>CSV</code>.</li>
+ *   <li>Updated {@link #getExcelFileName()} to use the extension of the download format.</li>
+ *   <li>Added {@link #getExportRowCount()}.</li>
+ * </ol>
+ * </p>
  * 
  * @author TCSASSEMBER
- * @version 1.0 (TC TC Cockpit Project Metrics Report)
+ * @version 1.1
  */
 public class ProjectMetricsReportDTO extends ReportBaseDTO {
 	
@@ -70,7 +82,18 @@ public class ProjectMetricsReportDTO extends ReportBaseDTO {
      * @since 1.0.1
      */
     public String getExcelFileName() {
-            return PROJECT_REPORT_EXCEL_FILE_NAME;
+            return getDownloadFormat().getFileName(PROJECT_REPORT_EXCEL_FILE_NAME);
+    }
+
+    /**
+     * Gets the number of rows of the exported report: the header and the entries.
+     *
+     * @return the number of exported rows.
+     * @since 1.1
+     */
+    @Override
+    protected int getExportRowCount() {
+        return getEntries() == null ? 1 : getEntries().size() + 1;
     }
     
     /**
@@ -81,6 +104,13 @@ public class ProjectMetricsReportDTO extends ReportBaseDTO {
      * @throws IOException if an I/O error occurs.
      */
     public InputStream getInputStream() throws WorkbookSavingException, IOException {
+        if (getDownloadFormat().isStreaming()) {
+            return StreamingSheet.export(getDownloadFormat(), "Project Details", new SheetContent() {
+                public void insertSheetData(Sheet sheet) throws Exception {
+                    ProjectMetricsReportDTO.this.insertSheetData(sheet);
+                }
+            });
+        }
         try {
 
             Workbook workbook = new ExcelWorkbook();
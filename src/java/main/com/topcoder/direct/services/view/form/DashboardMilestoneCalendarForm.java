@@ -8,8 +8,15 @@ import java.io.Serializable;
 /**
  * The action form the the action <code>DashboardEnterpriseCalendarAction</code>
  *
+ * <p>
+ * Version 1.1 change notes:
+ * <ul>
+ *     <li>Add {@link #startDate} and {@link #endDate}, the date range displayed by the calendar.</li>
+ * </ul>
+ * </p>
+ *
  * @author TCSASSEMBLER
- * @version 1.0 (Release Assembly - TC Cockpit Enterprise Calendar Revamp)
+ * @version 1.1
  */
 public class DashboardMilestoneCalendarForm implements Serializable {
 
@@ -28,6 +35,20 @@ public class DashboardMilestoneCalendarForm implements Serializable {
      */
     private String projectFilterValue;
 
+    /**
+     * The first displayed date, in <code>MM/dd/yyyy</code> format.
+     *
+     * @since 1.1
+     */
+    private String startDate;
+
+    /**
+     * The date after the last displayed date, in <code>MM/dd/yyyy</code> format.
+     *
+     * @since 1.1
+     */
+    private String endDate;
+
     /**
      * Gets the id of the customer.
      *
@@ -81,4 +102,44 @@ public class DashboardMilestoneCalendarForm implements Serializable {
     public void setProjectFilterValue(String projectFilterValue) {
         this.projectFilterValue = projectFilterValue;
     }
+
+    /**
+     * Gets the first displayed date.
+     *
+     * @return the first displayed date.
+     * @since 1.1
+     */
+    public String getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Sets the first displayed date.
+     *
+     * @param startDate the first displayed date.
+     * @since 1.1
+     */
+    public void setStartDate(String startDate) {
+        this.startDate = startDate;
+    }
+
+    /**
+     * Gets the date after the last displayed date.
+     *
+     * @return the date after the last displayed date.
+     * @since 1.1
+     */
+    public String getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * Sets the date after the last displayed date.
+     *
+     * @param endDate the date after the last displayed date.
+     * @since 1.1
+     */
+    public void setEndDate(String endDate) {
+        this.endDate = endDate;
+    }
 }
@@ -20,8 +20,13 @@ import java.util.List;
  * - Adds {@link #clientIds}, {@link #groupId}, {@link #groupValues} and their getters and setters.
  * </p>
  *
+ * <p>
+ * Version 1.2 updates:
+ * - Adds {@link #exportFormat} and its getter and setter.
+ * </p>
+ *
  * @author TCSASSEMBLER
- * @version 1.1
+ * @version 1.2
  */
 public class DashboardPipelineReportForm implements Serializable {
 
@@ -53,6 +58,14 @@ public class DashboardPipelineReportForm implements Serializable {
      */
     private boolean excel;
 
+    /**
+     * <p>A <code>String</code> providing the format the data is downloaded in when it's converted into
+     * <code>Excel</code> format: <code>xls</code> (the default), <code>xlsx</code> or <code>csv</code>.</p>
+     *
+     * @since 1.2
+     */
+    private String exportFormat;
+
     /**
      * <p>A <code>ContestType[]</code> providing the contest types to be used for filtering the contests.</p>
      */
@@ -160,6 +173,26 @@ public class DashboardPipelineReportForm implements Serializable {
         this.excel = excel;
     }
 
+    /**
+     * <p>Gets the format the data is downloaded in.</p>
+     *
+     * @return the export format, <code>null</code> for the default one.
+     * @since 1.2
+     */
+    public String getExportFormat() {
+        return exportFormat;
+    }
+
+    /**
+     * <p>Sets the format the data is downloaded in.</p>
+     *
+     * @param exportFormat the export format.
+     * @since 1.2
+     */
+    public void setExportFormat(String exportFormat) {
+        this.exportFormat = exportFormat;
+    }
+
     /**
      * <p>Gets the contest types to be used for filtering the contests.</p>
      *
@@ -18,9 +18,14 @@ import java.util.List;
  *  Version 1.2 (Module Assembly - TC Cockpit Project Metrics Report ) updates
  *  - Adds {@link #projectStatusIds}, and it's setters and getters.
  * </p>
+ *
+ * <p>
+ *  Version 1.3 updates
+ *  - Adds {@link #exportFormat}, and it's setters and getters.
+ * </p>
  * 
  * @author TCSASSEMBLER
- * @version 1.2
+ * @version 1.3
  * @since (TC Cockpit Project Metrics Report)
  */
 public class DashboardReportForm implements Serializable {
@@ -87,6 +92,14 @@ public class DashboardReportForm implements Serializable {
      * <code>Excel</code> format or not.</p>
      */
     private boolean excel;
+
+    /**
+     * <p>A <code>String</code> providing the format the data is downloaded in when it's converted into
+     * <code>Excel</code> format: <code>xls</code> (the default), <code>xlsx</code> or <code>csv</code>.</p>
+     *
+     * @since 1.3
+     */
+    private String exportFormat;
     
     /**
      * Empty constructor.
@@ -297,4 +310,24 @@ public class DashboardReportForm implements Serializable {
     public void setExcel(boolean excel) {
         this.excel = excel;
     }
+
+    /**
+     * <p>Gets the format the data is downloaded in.</p>
+     *
+     * @return the export format, <code>null</code> for the default one.
+     * @since 1.3
+     */
+    public String getExportFormat() {
+        return exportFormat;
+    }
+
+    /**
+     * <p>Sets the format the data is downloaded in.</p>
+     *
+     * @param exportFormat the export format.
+     * @since 1.3
+     */
+    public void setExportFormat(String exportFormat) {
+        this.exportFormat = exportFormat;
+    }
 }
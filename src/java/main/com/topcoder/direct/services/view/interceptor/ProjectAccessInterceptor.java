@@ -16,6 +16,7 @@ import com.topcoder.direct.services.view.action.project.WriteProject;
 import com.topcoder.direct.services.view.form.ProjectIdForm;
 import com.topcoder.direct.services.view.util.AuthorizationProvider;
 import com.topcoder.direct.services.view.util.DirectUtils;
+import com.topcoder.direct.services.view.util.ProjectAccessRecorder;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.Map;
@@ -59,8 +60,17 @@ import java.util.Map;
  * </ul>
  * </p>
  *
+ * <p>
+ * Version 1.5 change notes:
+ * <ul>
+ *     <li>Added property {@link #accessRecorder}, the project access is recorded through it (write-behind) instead
+ *     of writing it to the database inside the request. The metadata service is still used when no recorder is
+ *     configured.</li>
+ * </ul>
+ * </p>
+ *
  * @author isv, GreatKevin
- * @version 1.4
+ * @version 1.5
  */
 public class ProjectAccessInterceptor implements Interceptor {
 
@@ -89,6 +99,13 @@ public class ProjectAccessInterceptor implements Interceptor {
      */
     private DirectProjectMetadataService metadataService;
 
+    /**
+     * The write-behind recorder of the direct project user access.
+     *
+     * @since 1.5
+     */
+    private ProjectAccessRecorder accessRecorder;
+
     /**
      * Gets the direct project metadata service.
      *
@@ -109,6 +126,26 @@ public class ProjectAccessInterceptor implements Interceptor {
         this.metadataService = metadataService;
     }
 
+    /**
+     * Gets the write-behind recorder of the direct project user access.
+     *
+     * @return the recorder of the direct project user access.
+     * @since 1.5
+     */
+    public ProjectAccessRecorder getAccessRecorder() {
+        return accessRecorder;
+    }
+
+    /**
+     * Sets the write-behind recorder of the direct project user access.
+     *
+     * @param accessRecorder the recorder of the direct project user access.
+     * @since 1.5
+     */
+    public void setAccessRecorder(ProjectAccessRecorder accessRecorder) {
+        this.accessRecorder = accessRecorder;
+    }
+
     /**
      * <p>Intercepts the action invocation chain.</p>
      *
@@ -192,8 +229,12 @@ public class ProjectAccessInterceptor implements Interceptor {
             projectAccess.setUserId(DirectUtils.getTCSubjectFromSession().getUserId());
             projectAccess.setAccessItemId(projectId);
             projectAccess.setAccessTypeId(1L);
-            getMetadataService().recordDirectProjectAccess(projectAccess,
-                                                           DirectUtils.getTCSubjectFromSession().getUserId());
+            if (getAccessRecorder() != null) {
+                getAccessRecorder().record(projectAccess);
+            } else {
+                getMetadataService().recordDirectProjectAccess(projectAccess,
+                                                               DirectUtils.getTCSubjectFromSession().getUserId());
+            }
             return actionInvocation.invoke();
         }
     }
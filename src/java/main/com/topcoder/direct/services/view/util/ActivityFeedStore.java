@@ -0,0 +1,632 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util;
+
+import com.topcoder.direct.services.view.dto.ActivityDTO;
+import com.topcoder.direct.services.view.dto.LatestActivitiesDTO;
+import com.topcoder.direct.services.view.dto.contest.TypedContestBriefDTO;
+import com.topcoder.direct.services.view.dto.project.ProjectBriefDTO;
+import com.topcoder.shared.dataAccess.DataAccess;
+import com.topcoder.shared.dataAccess.Request;
+import com.topcoder.shared.dataAccess.resultSet.ResultSetContainer;
+import com.topcoder.shared.util.DBMS;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * The store of the latest activities shown by the dashboard. The recent activities of each direct project are kept
+ * in a ring buffer ordered by date, shared by all the users who can see the project. The duplicate activities read by
+ * several loads are dropped. By default a buffer keeps all the activities of the largest requested day window, like
+ * the query did; <code>bufferCapacity</code> can bound it to the given number of latest activities per project.
+ * </p>
+ *
+ * <p>
+ * The activities of a project differ per user (the contests of a project visible to a user depend on the user), so
+ * the feed of a user only contains the activities of the contests returned by the user's own loads.
+ * </p>
+ *
+ * <p>
+ * The buffers are fed from the <code>direct_latest_activities_replatforming</code> query. The first request of a user
+ * reads the activities of the whole day window, after that the activities since the previous load (the watermark)
+ * are read at most every <code>refreshInterval</code> milliseconds. The activities of the user are reloaded entirely
+ * every <code>fullReloadInterval</code> milliseconds, so the projects the user can no longer see are dropped. The feed
+ * of a user is assembled by merging the buffers of the user's projects, so it costs no query between the refreshes
+ * and doesn't depend on the day window.
+ * </p>
+ *
+ * <p>
+ * The store is a singleton so that {@link DataProvider} can read it. It can be configured in the spring application
+ * context through the {@link #getInstance()} factory method.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class ActivityFeedStore {
+
+    /**
+     * The query tool query to get the latest activities of the projects of a user.
+     */
+    private static final String LATEST_ACTIVITIES_QUERY = "direct_latest_activities_replatforming";
+
+    /**
+     * The number of milliseconds in a day.
+     */
+    private static final long DAY = 24L * 3600 * 1000;
+
+    /**
+     * The time the activities are looked back beyond the watermark, in milliseconds, so the activities are not missed
+     * because of the clock difference between the database and this server.
+     */
+    private static final long WATERMARK_OVERLAP = 60000;
+
+    /**
+     * The default maximum number of activities kept per project, 0 means unbounded.
+     */
+    private static final int DEFAULT_BUFFER_CAPACITY = 0;
+
+    /**
+     * The initial size of the array of an unbounded buffer.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 16;
+
+    /**
+     * The default refresh interval in milliseconds.
+     */
+    private static final long DEFAULT_REFRESH_INTERVAL = 60000;
+
+    /**
+     * The default full reload interval in milliseconds.
+     */
+    private static final long DEFAULT_FULL_RELOAD_INTERVAL = 3600000;
+
+    /**
+     * The singleton instance.
+     */
+    private static final ActivityFeedStore singleton = new ActivityFeedStore();
+
+    /**
+     * The buffers of the activities, keyed by the direct project id.
+     */
+    private final ConcurrentMap<Long, ActivityBuffer> buffers = new ConcurrentHashMap<Long, ActivityBuffer>();
+
+    /**
+     * The feeds of the users, keyed by the user id.
+     */
+    private final ConcurrentMap<Long, UserFeed> feeds = new ConcurrentHashMap<Long, UserFeed>();
+
+    /**
+     * The largest day window requested, the buffers without activity in this window are dropped.
+     */
+    private volatile int maxDays;
+
+    /**
+     * The time the unused buffers and feeds were last dropped.
+     */
+    private volatile long sweepTime = System.currentTimeMillis();
+
+    /**
+     * The maximum number of activities kept per project, 0 means unbounded.
+     */
+    private volatile int bufferCapacity = DEFAULT_BUFFER_CAPACITY;
+
+    /**
+     * The refresh interval in milliseconds.
+     */
+    private long refreshInterval = DEFAULT_REFRESH_INTERVAL;
+
+    /**
+     * The full reload interval in milliseconds.
+     */
+    private long fullReloadInterval = DEFAULT_FULL_RELOAD_INTERVAL;
+
+    /**
+     * Represents the recent activities of a direct project, in ascending order of date.
+     */
+    private static class ActivityBuffer {
+
+        /**
+         * The maximum number of activities, 0 means unbounded.
+         */
+        private final int capacity;
+
+        /**
+         * The activities, the oldest one is at <code>head</code>. It grows if the buffer is unbounded.
+         */
+        private ActivityDTO[] activities;
+
+        /**
+         * The keys of the activities in the buffer.
+         */
+        private final Set<String> keys = new HashSet<String>();
+
+        /**
+         * The index of the oldest activity.
+         */
+        private int head;
+
+        /**
+         * The number of activities.
+         */
+        private int size;
+
+        /**
+         * The direct project, as it was last loaded.
+         */
+        private volatile ProjectBriefDTO project;
+
+        /**
+         * Creates the buffer.
+         *
+         * @param capacity the maximum number of activities, 0 means unbounded.
+         * @param project the direct project.
+         */
+        ActivityBuffer(int capacity, ProjectBriefDTO project) {
+            this.capacity = capacity;
+            this.activities = new ActivityDTO[capacity > 0 ? capacity : INITIAL_BUFFER_SIZE];
+            this.project = project;
+        }
+
+        /**
+         * Adds the activity unless it's already in the buffer. If the buffer is bounded and full, the oldest activity
+         * is dropped, or the activity itself if it's older than all the activities of the buffer.
+         *
+         * @param activity the activity.
+         */
+        synchronized void add(ActivityDTO activity) {
+            String key = getKey(activity);
+            if (keys.contains(key)) {
+                return;
+            }
+            long time = activity.getDate().getTime();
+            if (size == activities.length && capacity == 0) {
+                ActivityDTO[] grown = new ActivityDTO[activities.length * 2];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = get(i);
+                }
+                activities = grown;
+                head = 0;
+            } else if (size == activities.length) {
+                if (time <= activities[head].getDate().getTime()) {
+                    return;
+                }
+                keys.remove(getKey(activities[head]));
+                activities[head] = null;
+                head = (head + 1) % activities.length;
+                size--;
+            }
+
+            // the activities are mostly loaded in order, so they are rarely moved
+            int index = size;
+            while (index > 0 && get(index - 1).getDate().getTime() > time) {
+                set(index, get(index - 1));
+                index--;
+            }
+            set(index, activity);
+            size++;
+            keys.add(key);
+        }
+
+        /**
+         * Gets the activities after the given time.
+         *
+         * @param since the time.
+         * @return the activities after the time, in descending order of date.
+         */
+        synchronized ActivityDTO[] getActivities(long since) {
+            int count = 0;
+            while (count < size && get(size - 1 - count).getDate().getTime() > since) {
+                count++;
+            }
+            ActivityDTO[] result = new ActivityDTO[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = get(size - 1 - i);
+            }
+            return result;
+        }
+
+        /**
+         * Drops the activities before the given time.
+         *
+         * @param since the time.
+         */
+        synchronized void trim(long since) {
+            while (size > 0 && activities[head].getDate().getTime() <= since) {
+                keys.remove(getKey(activities[head]));
+                activities[head] = null;
+                head = (head + 1) % activities.length;
+                size--;
+            }
+        }
+
+        /**
+         * Gets the time of the latest activity.
+         *
+         * @return the time of the latest activity, 0 if the buffer is empty.
+         */
+        synchronized long getLatestTime() {
+            return size == 0 ? 0 : get(size - 1).getDate().getTime();
+        }
+
+        /**
+         * Gets the activity at the given position.
+         *
+         * @param index the position from the oldest activity.
+         * @return the activity.
+         */
+        private ActivityDTO get(int index) {
+            return activities[(head + index) % activities.length];
+        }
+
+        /**
+         * Sets the activity at the given position.
+         *
+         * @param index the position from the oldest activity.
+         * @param activity the activity.
+         */
+        private void set(int index, ActivityDTO activity) {
+            activities[(head + index) % activities.length] = activity;
+        }
+
+        /**
+         * Gets the key identifying the activity.
+         *
+         * @param activity the activity.
+         * @return the key of the activity.
+         */
+        private static String getKey(ActivityDTO activity) {
+            return activity.getContest().getId() + ":" + activity.getType() + ":" + activity.getOriginatorId() + ":"
+                    + activity.getDate().getTime();
+        }
+    }
+
+    /**
+     * Represents the state of the feed of a user. Guarded by itself.
+     */
+    private static class UserFeed {
+
+        /**
+         * The ids of the direct projects of the user having activities.
+         */
+        private Set<Long> projectIds = new HashSet<Long>();
+
+        /**
+         * The ids of the contests returned by the loads of the user, only their activities are in the feed.
+         */
+        private Set<Long> contestIds = new HashSet<Long>();
+
+        /**
+         * The day window of the full load.
+         */
+        private int days;
+
+        /**
+         * The time the activities were loaded entirely, 0 if they were never loaded.
+         */
+        private long fullLoadTime;
+
+        /**
+         * The time the activities were last loaded, entirely or not. It's the watermark of the next load.
+         */
+        private long loadTime;
+
+        /**
+         * The time the feed was last read.
+         */
+        private volatile long accessTime;
+    }
+
+    /**
+     * Represents the position of the merge in the activities of a project.
+     */
+    private static class Cursor {
+
+        /**
+         * The buffer of the project.
+         */
+        private final ActivityBuffer buffer;
+
+        /**
+         * The activities of the project, in descending order of date.
+         */
+        private final ActivityDTO[] activities;
+
+        /**
+         * The index of the next activity.
+         */
+        private int index;
+
+        /**
+         * Creates the cursor.
+         *
+         * @param buffer the buffer of the project.
+         * @param activities the activities of the project, in descending order of date.
+         */
+        Cursor(ActivityBuffer buffer, ActivityDTO[] activities) {
+            this.buffer = buffer;
+            this.activities = activities;
+        }
+
+        /**
+         * Gets the next activity.
+         *
+         * @return the next activity.
+         */
+        ActivityDTO peek() {
+            return activities[index];
+        }
+    }
+
+    /**
+     * Private constructor.
+     */
+    private ActivityFeedStore() {
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static ActivityFeedStore getInstance() {
+        return singleton;
+    }
+
+    /**
+     * Gets the latest activities of the direct projects of the user, loading the activities since the previous load
+     * if the refresh interval elapsed.
+     *
+     * @param userId the user id.
+     * @param days the number of days from current time for selecting activities.
+     * @return the activities grouped by project, the projects are in descending order of their latest activity and
+     *         the activities of a project are in descending order of date.
+     * @throws Exception if any error occurs while loading the activities.
+     */
+    public LatestActivitiesDTO getLatestActivities(long userId, int days) throws Exception {
+        long now = System.currentTimeMillis();
+        if (days > maxDays) {
+            maxDays = days;
+        }
+        sweep(now);
+
+        UserFeed feed = feeds.get(userId);
+        if (feed == null) {
+            UserFeed existing = feeds.putIfAbsent(userId, feed = new UserFeed());
+            if (existing != null) {
+                feed = existing;
+            }
+        }
+        feed.accessTime = now;
+
+        Set<Long> projectIds;
+        Set<Long> contestIds;
+        synchronized (feed) {
+            if (feed.fullLoadTime == 0 || feed.days < days || now - feed.fullLoadTime >= fullReloadInterval) {
+                Set<Long> loadedProjectIds = new HashSet<Long>();
+                Set<Long> loadedContestIds = new HashSet<Long>();
+                load(userId, days, loadedProjectIds, loadedContestIds);
+                feed.projectIds = loadedProjectIds;
+                feed.contestIds = loadedContestIds;
+                feed.days = days;
+                feed.fullLoadTime = now;
+                feed.loadTime = now;
+            } else if (now - feed.loadTime >= refreshInterval) {
+                long window = now - feed.loadTime + WATERMARK_OVERLAP;
+                Set<Long> loadedProjectIds = new HashSet<Long>();
+                Set<Long> loadedContestIds = new HashSet<Long>();
+                load(userId, (int) Math.max(1, (window + DAY - 1) / DAY), loadedProjectIds, loadedContestIds);
+                if (!feed.projectIds.containsAll(loadedProjectIds)) {
+                    Set<Long> ids = new HashSet<Long>(feed.projectIds);
+                    ids.addAll(loadedProjectIds);
+                    feed.projectIds = ids;
+                }
+                if (!feed.contestIds.containsAll(loadedContestIds)) {
+                    Set<Long> ids = new HashSet<Long>(feed.contestIds);
+                    ids.addAll(loadedContestIds);
+                    feed.contestIds = ids;
+                }
+                feed.loadTime = now;
+            }
+            projectIds = feed.projectIds;
+            contestIds = feed.contestIds;
+        }
+
+        LatestActivitiesDTO result = new LatestActivitiesDTO();
+        result.setActivities(merge(projectIds, contestIds, now - days * DAY));
+        return result;
+    }
+
+    /**
+     * Loads the latest activities of the direct projects of the user into the buffers.
+     *
+     * @param userId the user id.
+     * @param days the number of days from current time for selecting activities.
+     * @param projectIds the set the ids of the direct projects having activities are added to.
+     * @param contestIds the set the ids of the contests having activities are added to.
+     * @throws Exception if any error occurs while loading the activities.
+     */
+    private void load(long userId, int days, Set<Long> projectIds, Set<Long> contestIds) throws Exception {
+        DataAccess dataAccessor = new DataAccess(DBMS.TCS_OLTP_DATASOURCE_NAME);
+        Request request = new Request();
+        request.setContentHandle(LATEST_ACTIVITIES_QUERY);
+        // Setting to 0 means getting all the direct projects of the user
+        request.setProperty("tcdirectid", "0");
+        request.setProperty("uid", String.valueOf(userId));
+        request.setProperty("days", String.valueOf(days));
+
+        final Map<Long, ProjectBriefDTO> projects = new HashMap<Long, ProjectBriefDTO>();
+        final Map<Long, TypedContestBriefDTO> contests = new HashMap<Long, TypedContestBriefDTO>();
+        final ResultSetContainer resultContainer = dataAccessor.getData(request).get(LATEST_ACTIVITIES_QUERY);
+        final int recordNum = resultContainer.size();
+
+        for (int i = 0; i < recordNum; i++) {
+            ActivityDTO activity = DataProvider.createLatestActivity(resultContainer, i, projects, contests);
+            getBuffer(activity.getContest().getProject()).add(activity);
+        }
+        projectIds.addAll(projects.keySet());
+        contestIds.addAll(contests.keySet());
+    }
+
+    /**
+     * Gets the buffer of the direct project, creating it if it doesn't exist. The project of the buffer is replaced
+     * by the given one, so the renamed projects are shown with their new name.
+     *
+     * @param project the direct project.
+     * @return the buffer of the project.
+     */
+    private ActivityBuffer getBuffer(ProjectBriefDTO project) {
+        ActivityBuffer buffer = buffers.get(project.getId());
+        if (buffer == null) {
+            buffer = new ActivityBuffer(bufferCapacity, project);
+            ActivityBuffer existing = buffers.putIfAbsent(project.getId(), buffer);
+            if (existing != null) {
+                buffer = existing;
+            }
+        }
+        buffer.project = project;
+        return buffer;
+    }
+
+    /**
+     * Merges the activities of the given contests of the direct projects after the given time.
+     *
+     * @param projectIds the ids of the direct projects.
+     * @param contestIds the ids of the contests.
+     * @param since the time.
+     * @return the activities grouped by project, the projects are in descending order of their latest activity and
+     *         the activities of a project are in descending order of date.
+     */
+    private Map<ProjectBriefDTO, List<ActivityDTO>> merge(Set<Long> projectIds, Set<Long> contestIds, long since) {
+        PriorityQueue<Cursor> queue = new PriorityQueue<Cursor>(Math.max(1, projectIds.size()),
+                new Comparator<Cursor>() {
+                    public int compare(Cursor o1, Cursor o2) {
+                        return o2.peek().getDate().compareTo(o1.peek().getDate());
+                    }
+                });
+        for (Long projectId : projectIds) {
+            ActivityBuffer buffer = buffers.get(projectId);
+            if (buffer != null) {
+                ActivityDTO[] activities = filter(buffer.getActivities(since), contestIds);
+                if (activities.length > 0) {
+                    queue.add(new Cursor(buffer, activities));
+                }
+            }
+        }
+
+        // the projects are added in the order of their latest activity
+        Map<ProjectBriefDTO, List<ActivityDTO>> result = new LinkedHashMap<ProjectBriefDTO, List<ActivityDTO>>();
+        Map<ActivityBuffer, List<ActivityDTO>> lists = new HashMap<ActivityBuffer, List<ActivityDTO>>();
+        while (!queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            List<ActivityDTO> list = lists.get(cursor.buffer);
+            if (list == null) {
+                list = new ArrayList<ActivityDTO>(cursor.activities.length);
+                lists.put(cursor.buffer, list);
+                result.put(cursor.buffer.project, list);
+            }
+            list.add(cursor.peek());
+            if (++cursor.index < cursor.activities.length) {
+                queue.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the activities of the given contests.
+     *
+     * @param activities the activities.
+     * @param contestIds the ids of the contests.
+     * @return the activities of the contests, in the same order.
+     */
+    private static ActivityDTO[] filter(ActivityDTO[] activities, Set<Long> contestIds) {
+        List<ActivityDTO> result = new ArrayList<ActivityDTO>(activities.length);
+        for (ActivityDTO activity : activities) {
+            if (contestIds.contains(activity.getContest().getId())) {
+                result.add(activity);
+            }
+        }
+        return result.size() == activities.length ? activities : result.toArray(new ActivityDTO[result.size()]);
+    }
+
+    /**
+     * Drops the buffers without activity in the largest day window, the older activities of the other buffers and
+     * the feeds not read during the full reload interval, at most once per full reload interval.
+     *
+     * @param now the current time.
+     */
+    private void sweep(long now) {
+        if (now - sweepTime < fullReloadInterval) {
+            return;
+        }
+        synchronized (this) {
+            if (now - sweepTime < fullReloadInterval) {
+                return;
+            }
+            sweepTime = now;
+        }
+
+        long since = now - maxDays * DAY;
+        for (Iterator<ActivityBuffer> it = buffers.values().iterator(); it.hasNext();) {
+            ActivityBuffer buffer = it.next();
+            if (buffer.getLatestTime() <= since) {
+                it.remove();
+            } else {
+                buffer.trim(since);
+            }
+        }
+        for (Iterator<UserFeed> it = feeds.values().iterator(); it.hasNext();) {
+            if (now - it.next().accessTime >= fullReloadInterval) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum number of activities kept per project, it applies to the buffers created after. When it's
+     * set, the older activities of a busy project are dropped even if they are in the day window.
+     *
+     * @param bufferCapacity the maximum number of activities kept per project, 0 means unbounded (the default).
+     */
+    public void setBufferCapacity(int bufferCapacity) {
+        if (bufferCapacity < 0) {
+            throw new IllegalArgumentException("bufferCapacity should not be negative.");
+        }
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * Sets the refresh interval.
+     *
+     * @param refreshInterval the refresh interval in milliseconds.
+     */
+    public void setRefreshInterval(long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Sets the full reload interval.
+     *
+     * @param fullReloadInterval the full reload interval in milliseconds.
+     */
+    public void setFullReloadInterval(long fullReloadInterval) {
+        this.fullReloadInterval = fullReloadInterval;
+    }
+}
@@ -0,0 +1,839 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util;
+
+import com.topcoder.shared.dataAccess.DataAccess;
+import com.topcoder.shared.dataAccess.Request;
+import com.topcoder.shared.dataAccess.resultSet.ResultSetContainer;
+import com.topcoder.shared.util.DBMS;
+import org.apache.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * The index of the client - billing account - direct project mappings shown by the enterprise dashboard and the
+ * report filters.
+ * </p>
+ *
+ * <p>
+ * The mappings are held in an immutable snapshot made of sorted primitive arrays: one row (project id, billing id,
+ * client id) per mapping sorted by project id, and one sorted id array with a parallel name array for the clients,
+ * the billing accounts and the projects. A refresh builds a new snapshot aside and swaps it in at once, so the
+ * readers never see a half built index.
+ * </p>
+ *
+ * <p>
+ * The first load reads all the mappings with the <code>admin_client_billing_accounts_v2</code> query. After that, the
+ * index is refreshed every <code>refreshInterval</code> milliseconds with the mappings of the projects whose
+ * direct project, billing account or client was modified since the previous refresh, and it's reloaded entirely every
+ * <code>fullReloadInterval</code> milliseconds to drop the mappings deleted in the meantime. The actions changing the
+ * mappings of a project call {@link #refreshProjects(long...)} to see the change right away.
+ * </p>
+ *
+ * <p>
+ * The index is a singleton so that {@link DataProvider} and {@link DirectUtils} can read it. It's configured in the
+ * spring application context through the {@link #getInstance()} factory method, with {@link #start()} and
+ * {@link #shutdown()} as init and destroy methods. If it's not started, the readers refresh it when it's stale.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class ClientBillingProjectMappingIndex {
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(ClientBillingProjectMappingIndex.class);
+
+    /**
+     * The query tool query to get all the mappings.
+     */
+    private static final String ALL_MAPPINGS_QUERY = "admin_client_billing_accounts_v2";
+
+    /**
+     * The columns of the mappings, the billing account id and name, the client id and name, and the direct project
+     * id and name.
+     */
+    private static final String MAPPING_COLUMNS = "SELECT ttp.project_id AS billing_account_id, "
+            + "ttp.name AS billing_account_name, ttc.client_id, ttc.name AS client_name, "
+            + "tdp.project_id AS direct_project_id, tdp.name AS direct_project_name ";
+
+    /**
+     * The joins from the direct projects to their billing accounts and clients.
+     */
+    private static final String MAPPING_JOINS = "FROM tc_direct_project tdp "
+            + "INNER JOIN corporate_oltp:direct_project_account dpa ON dpa.project_id = tdp.project_id "
+            + "INNER JOIN time_oltp:project ttp ON ttp.project_id = dpa.billing_account_id "
+            + "INNER JOIN time_oltp:client_project ttcp ON ttcp.project_id = ttp.project_id "
+            + "INNER JOIN time_oltp:client ttc ON ttc.client_id = ttcp.client_id ";
+
+    /**
+     * The SQL to get the ids of the direct projects whose project, billing account or client was modified after the
+     * given time.
+     */
+    private static final String GET_MODIFIED_PROJECTS_SQL = "SELECT DISTINCT tdp.project_id " + MAPPING_JOINS
+            + "WHERE tdp.modify_date > ? OR ttp.modification_date > ? OR ttc.modification_date > ?";
+
+    /**
+     * The SQL to get the mappings of the direct projects, the IN list of project ids is appended.
+     */
+    private static final String GET_PROJECT_MAPPINGS_SQL = MAPPING_COLUMNS + MAPPING_JOINS
+            + "WHERE tdp.project_id IN ";
+
+    /**
+     * The max number of ids in a single query.
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    /**
+     * The time the modification dates are looked back beyond the previous refresh, in milliseconds, so the
+     * modifications are not missed because of the clock difference between the database and this server.
+     */
+    private static final long MODIFICATION_OVERLAP = 60000;
+
+    /**
+     * The default refresh interval in milliseconds.
+     */
+    private static final long DEFAULT_REFRESH_INTERVAL = 60000;
+
+    /**
+     * The default full reload interval in milliseconds.
+     */
+    private static final long DEFAULT_FULL_RELOAD_INTERVAL = 3600000;
+
+    /**
+     * The singleton instance.
+     */
+    private static final ClientBillingProjectMappingIndex singleton = new ClientBillingProjectMappingIndex();
+
+    /**
+     * The current snapshot, null if the mappings are not loaded yet.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * The lock serializing the loads.
+     */
+    private final Object loadLock = new Object();
+
+    /**
+     * The executor running the refreshes, null when the index is not started.
+     */
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * The refresh interval in milliseconds.
+     */
+    private long refreshInterval = DEFAULT_REFRESH_INTERVAL;
+
+    /**
+     * The full reload interval in milliseconds.
+     */
+    private long fullReloadInterval = DEFAULT_FULL_RELOAD_INTERVAL;
+
+    /**
+     * Represents the immutable mappings.
+     */
+    private static class Snapshot {
+
+        /**
+         * The direct project ids of the mappings, sorted.
+         */
+        private final long[] rowProjectIds;
+
+        /**
+         * The billing account ids of the mappings, parallel to <code>rowProjectIds</code>.
+         */
+        private final long[] rowBillingIds;
+
+        /**
+         * The client ids of the mappings, parallel to <code>rowProjectIds</code>.
+         */
+        private final long[] rowClientIds;
+
+        /**
+         * The names of the clients.
+         */
+        private final NameTable clients;
+
+        /**
+         * The names of the billing accounts.
+         */
+        private final NameTable billings;
+
+        /**
+         * The names of the direct projects.
+         */
+        private final NameTable projects;
+
+        /**
+         * The time the mappings were loaded entirely.
+         */
+        private final long fullLoadTime;
+
+        /**
+         * The time the mappings were last loaded, entirely or not.
+         */
+        private final long loadTime;
+
+        /**
+         * The mappings of all the projects as maps, built on first use.
+         */
+        private volatile Map<String, Object> mappings;
+
+        /**
+         * Creates the snapshot.
+         *
+         * @param rowProjectIds the direct project ids of the mappings, sorted.
+         * @param rowBillingIds the billing account ids of the mappings.
+         * @param rowClientIds the client ids of the mappings.
+         * @param clients the names of the clients.
+         * @param billings the names of the billing accounts.
+         * @param projects the names of the direct projects.
+         * @param fullLoadTime the time the mappings were loaded entirely.
+         * @param loadTime the time the mappings were last loaded.
+         */
+        Snapshot(long[] rowProjectIds, long[] rowBillingIds, long[] rowClientIds, NameTable clients,
+                 NameTable billings, NameTable projects, long fullLoadTime, long loadTime) {
+            this.rowProjectIds = rowProjectIds;
+            this.rowBillingIds = rowBillingIds;
+            this.rowClientIds = rowClientIds;
+            this.clients = clients;
+            this.billings = billings;
+            this.projects = projects;
+            this.fullLoadTime = fullLoadTime;
+            this.loadTime = loadTime;
+        }
+
+        /**
+         * Finds the first mapping of the direct project.
+         *
+         * @param projectId the direct project id.
+         * @return the index of the first mapping, -1 if the project has no mapping.
+         */
+        int firstRow(long projectId) {
+            int low = 0;
+            int high = rowProjectIds.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (rowProjectIds[middle] < projectId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low < rowProjectIds.length && rowProjectIds[low] == projectId ? low : -1;
+        }
+    }
+
+    /**
+     * Represents the immutable names keyed by id.
+     */
+    private static class NameTable {
+
+        /**
+         * The ids, sorted.
+         */
+        private final long[] ids;
+
+        /**
+         * The names, parallel to <code>ids</code>.
+         */
+        private final String[] names;
+
+        /**
+         * Creates the table.
+         *
+         * @param ids the ids, sorted.
+         * @param names the names.
+         */
+        NameTable(long[] ids, String[] names) {
+            this.ids = ids;
+            this.names = names;
+        }
+
+        /**
+         * Gets the name of the given id.
+         *
+         * @param id the id.
+         * @return the name, null if the id is absent.
+         */
+        String get(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            return index < 0 ? null : names[index];
+        }
+    }
+
+    /**
+     * Collects the mappings and builds the snapshot.
+     */
+    private static class SnapshotBuilder {
+
+        /**
+         * The mappings, three longs (project id, billing id, client id) per mapping.
+         */
+        private long[] rows = new long[3 * 1024];
+
+        /**
+         * The number of mappings.
+         */
+        private int size;
+
+        /**
+         * The names of the clients.
+         */
+        private final Map<Long, String> clientNames = new HashMap<Long, String>();
+
+        /**
+         * The names of the billing accounts.
+         */
+        private final Map<Long, String> billingNames = new HashMap<Long, String>();
+
+        /**
+         * The names of the direct projects.
+         */
+        private final Map<Long, String> projectNames = new HashMap<Long, String>();
+
+        /**
+         * Adds a mapping, the names replace the names added before.
+         *
+         * @param billingId the billing account id.
+         * @param billingName the billing account name.
+         * @param clientId the client id.
+         * @param clientName the client name.
+         * @param projectId the direct project id.
+         * @param projectName the direct project name.
+         */
+        void add(long billingId, String billingName, long clientId, String clientName, long projectId,
+                 String projectName) {
+            if (rows.length == 3 * size) {
+                rows = Arrays.copyOf(rows, rows.length * 2);
+            }
+            rows[3 * size] = projectId;
+            rows[3 * size + 1] = billingId;
+            rows[3 * size + 2] = clientId;
+            size++;
+            billingNames.put(billingId, billingName);
+            clientNames.put(clientId, clientName);
+            projectNames.put(projectId, projectName);
+        }
+
+        /**
+         * Adds the mappings of the snapshot, except the mappings of the given projects.
+         *
+         * @param snapshot the snapshot.
+         * @param excludedProjectIds the ids of the direct projects whose mappings are not added.
+         */
+        void addAll(Snapshot snapshot, Set<Long> excludedProjectIds) {
+            for (int i = 0; i < snapshot.rowProjectIds.length; i++) {
+                long projectId = snapshot.rowProjectIds[i];
+                if (!excludedProjectIds.contains(projectId)) {
+                    long billingId = snapshot.rowBillingIds[i];
+                    long clientId = snapshot.rowClientIds[i];
+                    add(billingId, snapshot.billings.get(billingId), clientId, snapshot.clients.get(clientId),
+                            projectId, snapshot.projects.get(projectId));
+                }
+            }
+        }
+
+        /**
+         * Builds the snapshot, the duplicate mappings of a project and a billing account are dropped.
+         *
+         * @param fullLoadTime the time the mappings were loaded entirely.
+         * @param loadTime the time the mappings were loaded.
+         * @return the snapshot.
+         */
+        Snapshot build(long fullLoadTime, long loadTime) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            final long[] data = rows;
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer o1, Integer o2) {
+                    int result = compareLong(data[3 * o1], data[3 * o2]);
+                    return result != 0 ? result : compareLong(data[3 * o1 + 1], data[3 * o2 + 1]);
+                }
+            });
+
+            long[] projectIds = new long[size];
+            long[] billingIds = new long[size];
+            long[] clientIds = new long[size];
+            int count = 0;
+            for (Integer index : order) {
+                long projectId = data[3 * index];
+                long billingId = data[3 * index + 1];
+                if (count > 0 && projectIds[count - 1] == projectId && billingIds[count - 1] == billingId) {
+                    continue;
+                }
+                projectIds[count] = projectId;
+                billingIds[count] = billingId;
+                clientIds[count] = data[3 * index + 2];
+                count++;
+            }
+
+            return new Snapshot(Arrays.copyOf(projectIds, count), Arrays.copyOf(billingIds, count),
+                    Arrays.copyOf(clientIds, count), toNameTable(clientNames), toNameTable(billingNames),
+                    toNameTable(projectNames), fullLoadTime, loadTime);
+        }
+
+        /**
+         * Compares two longs.
+         *
+         * @param x the first long.
+         * @param y the second long.
+         * @return the comparison result.
+         */
+        private static int compareLong(long x, long y) {
+            return x < y ? -1 : (x == y ? 0 : 1);
+        }
+
+        /**
+         * Creates the name table of the names.
+         *
+         * @param names the names keyed by id.
+         * @return the name table.
+         */
+        private static NameTable toNameTable(Map<Long, String> names) {
+            long[] ids = new long[names.size()];
+            int count = 0;
+            for (Long id : names.keySet()) {
+                ids[count++] = id;
+            }
+            Arrays.sort(ids);
+            String[] values = new String[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                values[i] = names.get(ids[i]);
+            }
+            return new NameTable(ids, values);
+        }
+    }
+
+    /**
+     * Private constructor.
+     */
+    private ClientBillingProjectMappingIndex() {
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static ClientBillingProjectMappingIndex getInstance() {
+        return singleton;
+    }
+
+    /**
+     * Starts the periodical refresh.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ClientBillingProjectMappingIndex");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                try {
+                    if (snapshot != null) {
+                        refresh();
+                    }
+                } catch (Exception e) {
+                    logger.error("Failed to refresh the client billing project mappings", e);
+                }
+            }
+        }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodical refresh.
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Gets the client id of the direct project.
+     *
+     * @param projectId the direct project id.
+     * @return the client id, null if the project has no mapping.
+     * @throws Exception if any error occurs while loading the mappings.
+     */
+    public Long getClientId(long projectId) throws Exception {
+        Snapshot current = getSnapshot();
+        int row = current.firstRow(projectId);
+        return row < 0 ? null : current.rowClientIds[row];
+    }
+
+    /**
+     * Gets the name of the client.
+     *
+     * @param clientId the client id.
+     * @return the client name, null if the client has no mapping.
+     * @throws Exception if any error occurs while loading the mappings.
+     */
+    public String getClientName(long clientId) throws Exception {
+        return getSnapshot().clients.get(clientId);
+    }
+
+    /**
+     * Gets the mappings of all the direct projects. The returned maps are shared and unmodifiable.
+     *
+     * @return the mappings keyed by <code>client.billing</code>, <code>client.project</code>,
+     *         <code>billing.project</code>, <code>clients</code> and <code>project.client</code>.
+     * @throws Exception if any error occurs while loading the mappings.
+     */
+    public Map<String, Object> getMappings() throws Exception {
+        Snapshot current = getSnapshot();
+        Map<String, Object> result = current.mappings;
+        if (result == null) {
+            Map<Long, Map<Long, String>> clientBillingMap = new HashMap<Long, Map<Long, String>>();
+            Map<Long, Map<Long, String>> clientProjectMap = new HashMap<Long, Map<Long, String>>();
+            Map<Long, Map<Long, String>> billingProjectMap = new HashMap<Long, Map<Long, String>>();
+            Map<Long, String> clientsMap = new HashMap<Long, String>();
+            Map<Long, Long> projectClientMap = new HashMap<Long, Long>();
+            for (int row = 0; row < current.rowProjectIds.length; row++) {
+                addMapping(current, row, clientBillingMap, clientProjectMap, billingProjectMap, clientsMap,
+                        projectClientMap);
+            }
+
+            result = new HashMap<String, Object>();
+            result.put("client.billing", unmodifiable(clientBillingMap));
+            result.put("client.project", unmodifiable(clientProjectMap));
+            result.put("billing.project", unmodifiable(billingProjectMap));
+            result.put("clients", Collections.unmodifiableMap(clientsMap));
+            result.put("project.client", Collections.unmodifiableMap(projectClientMap));
+            result = Collections.unmodifiableMap(result);
+            current.mappings = result;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the mappings of the given direct projects.
+     *
+     * @param projectIds the direct project ids.
+     * @return the new mappings keyed by <code>client.billing</code>, <code>client.project</code>,
+     *         <code>billing.project</code>, <code>clients</code> and <code>project.client</code>.
+     * @throws Exception if any error occurs while loading the mappings.
+     */
+    public Map<String, Object> getMappings(Collection<Long> projectIds) throws Exception {
+        Snapshot current = getSnapshot();
+        Map<Long, Map<Long, String>> clientBillingMap = new HashMap<Long, Map<Long, String>>();
+        Map<Long, Map<Long, String>> clientProjectMap = new HashMap<Long, Map<Long, String>>();
+        Map<Long, Map<Long, String>> billingProjectMap = new HashMap<Long, Map<Long, String>>();
+        Map<Long, String> clientsMap = new HashMap<Long, String>();
+        Map<Long, Long> projectClientMap = new HashMap<Long, Long>();
+        for (Long projectId : projectIds) {
+            int row = current.firstRow(projectId);
+            if (row < 0) {
+                continue;
+            }
+            for (; row < current.rowProjectIds.length && current.rowProjectIds[row] == projectId; row++) {
+                addMapping(current, row, clientBillingMap, clientProjectMap, billingProjectMap, clientsMap,
+                        projectClientMap);
+            }
+        }
+
+        Map<String, Object> result = new HashMap<String, Object>();
+        result.put("client.billing", clientBillingMap);
+        result.put("client.project", clientProjectMap);
+        result.put("billing.project", billingProjectMap);
+        result.put("clients", clientsMap);
+        result.put("project.client", projectClientMap);
+        return result;
+    }
+
+    /**
+     * Reloads the mappings of the given direct projects right away. If it fails, the index is dropped and it's
+     * loaded entirely on the next read.
+     *
+     * @param projectIds the direct project ids.
+     */
+    public void refreshProjects(long... projectIds) {
+        synchronized (loadLock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Set<Long> ids = new HashSet<Long>();
+            for (long projectId : projectIds) {
+                ids.add(projectId);
+            }
+            try {
+                snapshot = loadProjects(current, ids, current.fullLoadTime, current.loadTime);
+            } catch (Exception e) {
+                logger.error("Failed to refresh the client billing project mappings of the projects "
+                        + ids + ", the mappings will be reloaded", e);
+                snapshot = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the current snapshot, it's loaded if it's not loaded yet and refreshed if the index is not started and
+     * the snapshot is stale.
+     *
+     * @return the current snapshot.
+     * @throws Exception if any error occurs while loading the mappings.
+     */
+    private Snapshot getSnapshot() throws Exception {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (loadLock) {
+                if (snapshot == null) {
+                    long now = System.currentTimeMillis();
+                    snapshot = loadAll(now);
+                }
+                return snapshot;
+            }
+        }
+        if (executor == null && System.currentTimeMillis() - current.loadTime >= refreshInterval) {
+            try {
+                refresh();
+            } catch (Exception e) {
+                logger.error("Failed to refresh the client billing project mappings", e);
+            }
+            if (snapshot != null) {
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Refreshes the mappings, they are reloaded entirely if the full reload interval elapsed, otherwise the mappings
+     * of the modified projects are reloaded.
+     *
+     * @throws Exception if any error occurs while loading the mappings.
+     */
+    private void refresh() throws Exception {
+        synchronized (loadLock) {
+            Snapshot current = snapshot;
+            long now = System.currentTimeMillis();
+            if (current == null || now - current.fullLoadTime >= fullReloadInterval) {
+                snapshot = loadAll(now);
+            } else if (now - current.loadTime >= refreshInterval) {
+                Set<Long> modified = getModifiedProjects(current.loadTime - MODIFICATION_OVERLAP);
+                snapshot = loadProjects(current, modified, current.fullLoadTime, now);
+            }
+        }
+    }
+
+    /**
+     * Loads all the mappings.
+     *
+     * @param now the current time.
+     * @return the new snapshot.
+     * @throws Exception if any error occurs while loading the mappings.
+     */
+    private static Snapshot loadAll(long now) throws Exception {
+        DataAccess dataAccess = new DataAccess(DBMS.TCS_OLTP_DATASOURCE_NAME);
+        Request request = new Request();
+        request.setContentHandle(ALL_MAPPINGS_QUERY);
+        ResultSetContainer resultContainer = dataAccess.getData(request).get(ALL_MAPPINGS_QUERY);
+
+        SnapshotBuilder builder = new SnapshotBuilder();
+        if (resultContainer != null) {
+            for (ResultSetContainer.ResultSetRow row : resultContainer) {
+                builder.add(row.getLongItem("billing_account_id"), row.getStringItem("billing_account_name"),
+                        row.getLongItem("client_id"), row.getStringItem("client_name"),
+                        row.getLongItem("direct_project_id"), row.getStringItem("direct_project_name"));
+            }
+        }
+        return builder.build(now, now);
+    }
+
+    /**
+     * Gets the ids of the direct projects whose project, billing account or client was modified after the given
+     * time.
+     *
+     * @param time the time in milliseconds.
+     * @return the ids of the direct projects.
+     * @throws Exception if any error occurs while querying the projects.
+     */
+    private static Set<Long> getModifiedProjects(long time) throws Exception {
+        Set<Long> result = new HashSet<Long>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = DatabaseUtils.getDatabaseConnection(DBMS.TCS_OLTP_DATASOURCE_NAME);
+            statement = connection.prepareStatement(GET_MODIFIED_PROJECTS_SQL);
+            Timestamp timestamp = new Timestamp(time);
+            statement.setTimestamp(1, timestamp);
+            statement.setTimestamp(2, timestamp);
+            statement.setTimestamp(3, timestamp);
+            resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                result.add(resultSet.getLong(1));
+            }
+        } finally {
+            DatabaseUtils.close(resultSet);
+            DatabaseUtils.close(statement);
+            DatabaseUtils.close(connection);
+        }
+        return result;
+    }
+
+    /**
+     * Reloads the mappings of the given direct projects into a new snapshot.
+     *
+     * @param current the current snapshot.
+     * @param projectIds the direct project ids.
+     * @param fullLoadTime the time the mappings were loaded entirely.
+     * @param loadTime the time the mappings are loaded.
+     * @return the new snapshot, the current one if there's no project to reload.
+     * @throws Exception if any error occurs while loading the mappings.
+     */
+    private static Snapshot loadProjects(Snapshot current, Set<Long> projectIds, long fullLoadTime, long loadTime)
+        throws Exception {
+        if (projectIds.isEmpty()) {
+            return new Snapshot(current.rowProjectIds, current.rowBillingIds, current.rowClientIds, current.clients,
+                    current.billings, current.projects, fullLoadTime, loadTime);
+        }
+
+        SnapshotBuilder builder = new SnapshotBuilder();
+        builder.addAll(current, projectIds);
+
+        List<Long> ids = new ArrayList<Long>(projectIds);
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = DatabaseUtils.getDatabaseConnection(DBMS.TCS_OLTP_DATASOURCE_NAME);
+            for (int i = 0; i < ids.size(); i += MAX_IDS_PER_QUERY) {
+                List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + MAX_IDS_PER_QUERY));
+                StringBuilder inList = new StringBuilder("(");
+                String separator = "";
+                for (Long id : chunk) {
+                    inList.append(separator).append(id.longValue());
+                    separator = ",";
+                }
+                statement = connection.prepareStatement(GET_PROJECT_MAPPINGS_SQL + inList.append(")"));
+                resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    builder.add(resultSet.getLong(1), resultSet.getString(2), resultSet.getLong(3),
+                            resultSet.getString(4), resultSet.getLong(5), resultSet.getString(6));
+                }
+                DatabaseUtils.close(resultSet);
+                DatabaseUtils.close(statement);
+            }
+        } finally {
+            DatabaseUtils.close(resultSet);
+            DatabaseUtils.close(statement);
+            DatabaseUtils.close(connection);
+        }
+        return builder.build(fullLoadTime, loadTime);
+    }
+
+    /**
+     * Adds the mapping at the given row of the snapshot into the maps.
+     *
+     * @param current the snapshot.
+     * @param row the row of the mapping.
+     * @param clientBillingMap client id to billing account id to billing account name.
+     * @param clientProjectMap client id to project id to project name.
+     * @param billingProjectMap billing account id to project id to project name.
+     * @param clientsMap client id to client name.
+     * @param projectClientMap project id to client id.
+     */
+    private static void addMapping(Snapshot current, int row, Map<Long, Map<Long, String>> clientBillingMap,
+                                   Map<Long, Map<Long, String>> clientProjectMap,
+                                   Map<Long, Map<Long, String>> billingProjectMap, Map<Long, String> clientsMap,
+                                   Map<Long, Long> projectClientMap) {
+        long projectId = current.rowProjectIds[row];
+        long billingId = current.rowBillingIds[row];
+        long clientId = current.rowClientIds[row];
+        String projectName = current.projects.get(projectId);
+
+        clientsMap.put(clientId, current.clients.get(clientId));
+
+        Map<Long, String> billingsForClient = clientBillingMap.get(clientId);
+        if (billingsForClient == null) {
+            billingsForClient = new HashMap<Long, String>();
+            clientBillingMap.put(clientId, billingsForClient);
+        }
+        billingsForClient.put(billingId, current.billings.get(billingId));
+
+        Map<Long, String> projectForClient = clientProjectMap.get(clientId);
+        if (projectForClient == null) {
+            projectForClient = new HashMap<Long, String>();
+            clientProjectMap.put(clientId, projectForClient);
+        }
+        projectForClient.put(projectId, projectName);
+
+        Map<Long, String> projectForBilling = billingProjectMap.get(billingId);
+        if (projectForBilling == null) {
+            projectForBilling = new HashMap<Long, String>();
+            billingProjectMap.put(billingId, projectForBilling);
+        }
+        projectForBilling.put(projectId, projectName);
+
+        projectClientMap.put(projectId, clientId);
+    }
+
+    /**
+     * Makes the map of maps unmodifiable.
+     *
+     * @param map the map of maps.
+     * @return the unmodifiable map of unmodifiable maps.
+     */
+    private static Map<Long, Map<Long, String>> unmodifiable(Map<Long, Map<Long, String>> map) {
+        for (Map.Entry<Long, Map<Long, String>> entry : map.entrySet()) {
+            entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Sets the refresh interval.
+     *
+     * @param refreshInterval the refresh interval in milliseconds.
+     */
+    public void setRefreshInterval(long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Sets the full reload interval.
+     *
+     * @param fullReloadInterval the full reload interval in milliseconds.
+     */
+    public void setFullReloadInterval(long fullReloadInterval) {
+        this.fullReloadInterval = fullReloadInterval;
+    }
+}
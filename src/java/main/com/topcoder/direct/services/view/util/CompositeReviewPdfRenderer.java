@@ -0,0 +1,404 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util;
+
+import com.topcoder.direct.services.exception.DirectException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>
+ * Renders the composite review scorecards of the submissions from the Online Review application as <code>PDF</code>
+ * documents.
+ * </p>
+ *
+ * <p>
+ * All the renders share a single HTTP client with a pool of connections, which logs in to Online Review once and
+ * keeps the session cookie; it logs in again only when Online Review redirects a page request to the login page.
+ * The rendered documents are cached on disk, keyed by the submission id and the last modification time of the
+ * submission reviews, so the scorecards of unchanged reviews are rendered only once. The renders run in parallel on
+ * at most <code>maxWorkers</code> threads.
+ * </p>
+ *
+ * <p>
+ * The renderer is configured in the spring application context with {@link #start()} and {@link #shutdown()} as init
+ * and destroy methods.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is mutable but it's expected to be configured by Spring once, and it's
+ * thread safe after that.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class CompositeReviewPdfRenderer {
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(CompositeReviewPdfRenderer.class);
+
+    /**
+     * The default number of render threads.
+     */
+    private static final int DEFAULT_MAX_WORKERS = 4;
+
+    /**
+     * The suffix of the cached documents.
+     */
+    private static final String PDF_SUFFIX = ".pdf";
+
+    /**
+     * The lock guarding the logins.
+     */
+    private final Object loginLock = new Object();
+
+    /**
+     * The number of the logins done, each login starts a new Online Review session. Guarded by
+     * {@link #loginLock}.
+     */
+    private int sessionNumber;
+
+    /**
+     * The HTTP client shared by all the renders.
+     */
+    private DefaultHttpClient httpClient;
+
+    /**
+     * The executor running the renders.
+     */
+    private ExecutorService executor;
+
+    /**
+     * The URL for Login controller for Online Review application.
+     */
+    private String loginUrl;
+
+    /**
+     * The username to login to Online Review application.
+     */
+    private String username;
+
+    /**
+     * The password to login to Online Review application.
+     */
+    private String password;
+
+    /**
+     * The base for Online Review application controller for getting the composite review scorecard, the submission
+     * id is appended.
+     */
+    private String compositeReviewBaseURL;
+
+    /**
+     * The base URL to resolve the relative resources of the composite review pages, defaults to
+     * <code>compositeReviewBaseURL</code>.
+     */
+    private String baseURL;
+
+    /**
+     * The directory of the cached documents.
+     */
+    private File cacheDirectory = new File(System.getProperty("java.io.tmpdir"), "composite-review-pdf");
+
+    /**
+     * The max number of render threads.
+     */
+    private int maxWorkers = DEFAULT_MAX_WORKERS;
+
+    /**
+     * Creates the HTTP client and the render threads.
+     *
+     * @throws IllegalStateException if the renderer is not configured properly.
+     */
+    public void start() {
+        if (loginUrl == null || username == null || password == null || compositeReviewBaseURL == null) {
+            throw new IllegalStateException("loginUrl, username, password and compositeReviewBaseURL are required");
+        }
+        if (maxWorkers <= 0) {
+            throw new IllegalStateException("maxWorkers should be positive");
+        }
+        if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            throw new IllegalStateException("Can't create the cache directory " + cacheDirectory);
+        }
+
+        PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager();
+        connectionManager.setMaxTotal(maxWorkers);
+        connectionManager.setDefaultMaxPerRoute(maxWorkers);
+        httpClient = new DefaultHttpClient(connectionManager);
+        // a redirect of a page request means the session expired
+        httpClient.getParams().setBooleanParameter(ClientPNames.HANDLE_REDIRECTS, false);
+
+        executor = Executors.newFixedThreadPool(maxWorkers, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "CompositeReviewPdfRenderer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Stops the render threads and closes the HTTP connections.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (httpClient != null) {
+            httpClient.getConnectionManager().shutdown();
+        }
+    }
+
+    /**
+     * Starts rendering the composite review scorecards of the given submissions.
+     *
+     * @param submissionIds the submission ids.
+     * @return the pending rendered documents keyed by submission id, in the order of the given ids.
+     * @throws Exception if the last modification times of the reviews can't be retrieved.
+     */
+    public Map<Long, Future<File>> render(List<Long> submissionIds) throws Exception {
+        final Map<Long, Date> reviewModifyDates = DataProvider.getReviewModifyDates(submissionIds);
+        Map<Long, Future<File>> result = new LinkedHashMap<Long, Future<File>>();
+        for (final Long submissionId : submissionIds) {
+            if (!result.containsKey(submissionId)) {
+                result.put(submissionId, executor.submit(new Callable<File>() {
+                    public File call() throws Exception {
+                        return getDocument(submissionId, reviewModifyDates.get(submissionId));
+                    }
+                }));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the rendered composite review scorecard of the given submission, from the cache if it's rendered after
+     * the last modification of the reviews.
+     *
+     * @param submissionId the submission id.
+     * @param reviewModifyDate the last modification time of the submission reviews, null if there is no review.
+     * @return the rendered document.
+     * @throws Exception if any error occurs.
+     */
+    private File getDocument(long submissionId, Date reviewModifyDate) throws Exception {
+        File directory = new File(cacheDirectory, String.valueOf(submissionId));
+        String name = (reviewModifyDate == null ? 0 : reviewModifyDate.getTime()) + PDF_SUFFIX;
+        File document = new File(directory, name);
+        if (document.isFile()) {
+            return document;
+        }
+
+        byte[] page = getCompositeReviewPage(submissionId);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't create the cache directory " + directory);
+        }
+        File tempFile = File.createTempFile("render", ".tmp", directory);
+        try {
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile));
+            try {
+                renderPdf(page, baseURL == null ? compositeReviewBaseURL : baseURL, out);
+            } finally {
+                out.close();
+            }
+            if (!tempFile.renameTo(document) && !document.isFile()) {
+                throw new IOException("Can't create the cached document " + document);
+            }
+        } finally {
+            tempFile.delete();
+        }
+
+        // remove the documents of the previous reviews
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(PDF_SUFFIX) && !file.getName().equals(name) && !file.delete()) {
+                    logger.warn("Can't delete the outdated document " + file);
+                }
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Gets the composite review page of the given submission, logging in to Online Review first if the session is
+     * not started or expired.
+     *
+     * @param submissionId the submission id.
+     * @return the page content.
+     * @throws Exception if any error occurs.
+     */
+    private byte[] getCompositeReviewPage(long submissionId) throws Exception {
+        int session = login(0);
+        for (int attempt = 0;; attempt++) {
+            HttpResponse response = httpClient.execute(new HttpGet(compositeReviewBaseURL + submissionId));
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == HttpStatus.SC_OK) {
+                if (response.getEntity() == null) {
+                    throw new DirectException("Failed to retrieve composite review for submission: " + submissionId
+                            + ". Content is empty");
+                }
+                return EntityUtils.toByteArray(response.getEntity());
+            }
+            EntityUtils.consume(response.getEntity());
+            if (statusCode != HttpStatus.SC_MOVED_TEMPORARILY || attempt > 0) {
+                throw new DirectException("Failed to retrieve composite review for submission: " + submissionId
+                        + ". HTTP status code: " + statusCode);
+            }
+            // the session expired, log in again
+            session = login(session);
+        }
+    }
+
+    /**
+     * Logs in to Online Review, unless another thread logged in since the given session was started.
+     *
+     * @param expiredSession the number of the expired session, 0 to log in only if no session is started.
+     * @return the number of the current session.
+     * @throws Exception if the login fails.
+     */
+    private int login(int expiredSession) throws Exception {
+        synchronized (loginLock) {
+            if (sessionNumber != expiredSession) {
+                return sessionNumber;
+            }
+            HttpResponse response = httpClient.execute(new HttpPost(loginUrl + "?method=login&userName=" + username
+                    + "&password=" + password));
+            EntityUtils.consume(response.getEntity());
+            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_MOVED_TEMPORARILY) {
+                throw new DirectException("Failed to login to Online Review application. HTTP status code: "
+                        + response.getStatusLine().getStatusCode());
+            }
+            return ++sessionNumber;
+        }
+    }
+
+    /**
+     * Renders the composite review page as a <code>PDF</code> document.
+     *
+     * @param page the page content.
+     * @param baseURL the base URL to resolve the relative resources of the page.
+     * @param out the stream to write the document to.
+     * @throws Exception if any error occurs.
+     */
+    private static void renderPdf(byte[] page, String baseURL, OutputStream out) throws Exception {
+        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setValidating(false);
+        documentBuilderFactory.setFeature("http://xml.org/sax/features/namespaces", false);
+        documentBuilderFactory.setFeature("http://xml.org/sax/features/validation", false);
+        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false);
+        documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+
+        DocumentBuilder builder = documentBuilderFactory.newDocumentBuilder();
+        Document doc = builder.parse(new ByteArrayInputStream(page));
+        NodeList head = doc.getElementsByTagName("head");
+        if (head.getLength() == 0) {
+            head = doc.getElementsByTagName("HEAD");
+        }
+        Element style = doc.createElement("style");
+        style.setAttribute("type", "text/css");
+        style.appendChild(doc.createTextNode("<!--@page { size:960px 300mm; }-->"));
+        head.item(0).appendChild(style);
+
+        ITextRenderer renderer = new ITextRenderer();
+        renderer.setDocument(doc, baseURL);
+        renderer.layout();
+        renderer.createPDF(out);
+    }
+
+    /**
+     * Sets the URL for Login controller for Online Review application.
+     *
+     * @param loginUrl the URL for Login controller for Online Review application.
+     */
+    public void setLoginUrl(String loginUrl) {
+        this.loginUrl = loginUrl;
+    }
+
+    /**
+     * Sets the username to login to Online Review application.
+     *
+     * @param username the username to login to Online Review application.
+     */
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    /**
+     * Sets the password to login to Online Review application.
+     *
+     * @param password the password to login to Online Review application.
+     */
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    /**
+     * Sets the base for Online Review application controller for getting the composite review scorecard.
+     *
+     * @param compositeReviewBaseURL the base for Online Review application controller for getting the composite
+     *            review scorecard.
+     */
+    public void setCompositeReviewBaseURL(String compositeReviewBaseURL) {
+        this.compositeReviewBaseURL = compositeReviewBaseURL;
+    }
+
+    /**
+     * Sets the base URL to resolve the relative resources of the composite review pages.
+     *
+     * @param baseURL the base URL to resolve the relative resources of the composite review pages.
+     */
+    public void setBaseURL(String baseURL) {
+        this.baseURL = baseURL;
+    }
+
+    /**
+     * Sets the directory of the cached documents.
+     *
+     * @param cacheDirectory the directory of the cached documents.
+     */
+    public void setCacheDirectory(String cacheDirectory) {
+        this.cacheDirectory = new File(cacheDirectory);
+    }
+
+    /**
+     * Sets the max number of render threads.
+     *
+     * @param maxWorkers the max number of render threads.
+     */
+    public void setMaxWorkers(int maxWorkers) {
+        this.maxWorkers = maxWorkers;
+    }
+}
@@ -30,7 +30,6 @@ import com.topcoder.direct.services.project.metadata.entities.dao.DirectProjectA
 import com.topcoder.direct.services.view.action.AbstractAction;
 import com.topcoder.direct.services.view.dto.ActivityDTO;
 import com.topcoder.direct.services.view.dto.ActivityType;
-import com.topcoder.direct.services.view.dto.ClientBillingDirectProjectMappingDTO;
 import com.topcoder.direct.services.view.dto.ClientUserStatsDTO;
 import com.topcoder.direct.services.view.dto.CoPilotStatsDTO;
 import com.topcoder.direct.services.view.dto.IdNamePair;
@@ -129,6 +128,7 @@ import com.topcoder.service.facade.contest.CommonProjectContestData;
 import com.topcoder.service.facade.contest.ForumPoster;
 import com.topcoder.service.facade.contest.ProjectSummaryData;
 import com.topcoder.service.project.ProjectData;
+import com.topcoder.service.util.export.ReportWriter;
 import com.topcoder.shared.dataAccess.DataAccess;
 import com.topcoder.shared.dataAccess.Request;
 import com.topcoder.shared.dataAccess.resultSet.ResultSetContainer;
@@ -143,18 +143,6 @@ import org.apache.commons.collections.Predicate;
 import org.apache.commons.collections.Transformer;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.CookieStore;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.client.protocol.ClientContext;
-import org.apache.http.impl.client.BasicCookieStore;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.protocol.BasicHttpContext;
-import org.apache.http.protocol.HttpContext;
-import org.apache.http.util.EntityUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -164,13 +152,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.WorkbookUtil;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xhtmlrenderer.pdf.ITextRenderer;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
@@ -184,6 +166,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -1030,9 +1013,9 @@ import java.util.TimeZone;
  *     <li>Add method {@link #getProjectsOfUser(long, long)}</li>
  *     <li>Updated {@link #getUserProjects(long)} to use the added {@link #getProjectsOfUser(long, long)}</li>
  *     <li>Updated {@link #getUserProjectsList(long)} to use the added {@link #getProjectsOfUser(long, long)}</li>
- *     <li>Add method {@link #fillGlobalClientBillingProjectCache()}</li>
+ *     <li>Add method <code>fillGlobalClientBillingProjectCache</code></li>
  *     <li>Update method {@link #getDashboardClientBillingProjectMappingsV2(com.topcoder.security.TCSubject)}
- *     to use the added method {@link #fillGlobalClientBillingProjectCache()}</li>
+ *     to use the added method <code>fillGlobalClientBillingProjectCache</code></li>
  * </ul>
  * </p>
  *
@@ -1057,9 +1040,56 @@ import java.util.TimeZone;
  * </ul>
  * </p>
  *
+ * <p>
+ * Version 6.7 Change notes:
+ * <ul>
+ *     <li>Updated {@link #getUserRecentDirectProjects(long)} to merge the project accesses not flushed yet by
+ *     {@link ProjectAccessRecorder}.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Version 6.8 Change notes:
+ * <ul>
+ *     <li>Added {@link #writeWinnerSheet(long, ReportWriter)} and
+ *     {@link #writeSubmissionSheet(long, Date, Date, long, ReportWriter)} to write the contest results row by row
+ *     instead of building a workbook in memory.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Version 6.9 Change notes:
+ * <ul>
+ *     <li>Removed <code>generateCombinedReviewScorecard</code>, the composite review PDFs are rendered by
+ *     {@link CompositeReviewPdfRenderer}.</li>
+ *     <li>Added {@link #getReviewModifyDates(Collection)}, covering the reviews, review items, review comments and
+ *     review item comments.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Version 7.0 Change notes:
+ * <ul>
+ *     <li>Removed <code>fillGlobalClientBillingProjectCache</code>, the client billing project mappings are held
+ *     by {@link ClientBillingProjectMappingIndex}.</li>
+ *     <li>Updated {@link #getDashboardClientBillingProjectMappingsV2(TCSubject)} to read the mappings from
+ *     {@link ClientBillingProjectMappingIndex}.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Version 7.1 Change notes:
+ * <ul>
+ *     <li>Updated {@link #getLatestActivitiesForUserProjects(long, int)} to read the activities from
+ *     {@link ActivityFeedStore}.</li>
+ *     <li>Made <code>createLatestActivity</code> package private for {@link ActivityFeedStore}.</li>
+ * </ul>
+ * </p>
+ *
  * @author isv, BeBetter, tangzx, xjtufreeman, Blues, flexme, Veve, duxiaoyang, minhu,
  * @author bugbuka, leo_lol, morehappiness, notpad, GreatKevin, zhu_tao, Ghost_141,
- * @version 6.6
+ * @author TCSASSEMBLER
+ * @version 7.1
  * @since 1.0
  */
 public class DataProvider {
@@ -1114,6 +1144,32 @@ public class DataProvider {
             "                          where upg.user_id=DECODE(?,0,upg.user_id,?) and upg.permission_type_id IN (0,1,2,3) and upg.resource_id = tdp.project_id)\n" +
             "      and UPPER(tdp.name) like ?";
 
+    /**
+     * The SQL to get the names of direct projects, the IN list of project ids is appended.
+     *
+     * @since 6.7
+     */
+    private static final String SELECT_DIRECT_PROJECT_NAMES_SQL =
+            "SELECT project_id, name FROM tc_direct_project WHERE project_id IN ";
+
+    /**
+     * The SQL to get the modification dates of the reviews, review items, review comments and review item comments
+     * of submissions, the <code>:submissionIds</code> placeholders are replaced with the list of submission ids. Each
+     * table is selected separately so the comments don't multiply the review item rows.
+     *
+     * @since 6.9
+     */
+    private static final String SELECT_REVIEW_MODIFY_DATES_SQL =
+            "SELECT r.submission_id, r.modify_date FROM review r WHERE r.submission_id IN (:submissionIds) "
+            + "UNION ALL SELECT r.submission_id, ri.modify_date FROM review r "
+            + "INNER JOIN review_item ri ON ri.review_id = r.review_id WHERE r.submission_id IN (:submissionIds) "
+            + "UNION ALL SELECT r.submission_id, rc.modify_date FROM review r "
+            + "INNER JOIN review_comment rc ON rc.review_id = r.review_id WHERE r.submission_id IN (:submissionIds) "
+            + "UNION ALL SELECT r.submission_id, ric.modify_date FROM review r "
+            + "INNER JOIN review_item ri ON ri.review_id = r.review_id "
+            + "INNER JOIN review_item_comment ric ON ric.review_item_id = ri.review_item_id "
+            + "WHERE r.submission_id IN (:submissionIds)";
+
     /**
      * <p>Constructs new <code>DataProvider</code> instance. This implementation does nothing.</p>
      */
@@ -1455,6 +1511,8 @@ public class DataProvider {
      * - Refactoring the latest activity creation process into helper method fo reuse.
      * </p>
      *
+     * <p>Updates in version 7.1: The activities are read from {@link ActivityFeedStore}.</p>
+     *
      * @param userId a <code>long</code> providing the user to get the latest activities on associated projects for.
      * @param days an <code>int</code> providing the number of days from current time for selecting activities.
      * @return an <code>LatestActivitiesDTO</code> providing the details on latest activities on projects associated
@@ -1462,79 +1520,7 @@ public class DataProvider {
      * @throws Exception if an unexpected error occurs while communicating to persistent data store.
      */
     public static LatestActivitiesDTO getLatestActivitiesForUserProjects(long userId, int days) throws Exception {
-        DataAccess dataAccessor = new DataAccess(DBMS.TCS_OLTP_DATASOURCE_NAME);
-        Request request = new Request();
-        request.setContentHandle("direct_latest_activities_replatforming");
-        // Setting to 0 means getting all the direct projects of the user
-        request.setProperty("tcdirectid", "0");
-        request.setProperty("uid", String.valueOf(userId));
-        request.setProperty("days", String.valueOf(days));
-
-        final Map<ProjectBriefDTO, List<ActivityDTO>> activities = new HashMap<ProjectBriefDTO, List<ActivityDTO>>();
-        final Map<Long, ProjectBriefDTO> projects = new HashMap<Long, ProjectBriefDTO>();
-        final Map<Long, TypedContestBriefDTO> contests = new HashMap<Long, TypedContestBriefDTO>();//here
-
-        final ResultSetContainer resultContainer = dataAccessor.getData(request).get(
-                "direct_latest_activities_replatforming");
-        final int recordNum = resultContainer.size();
-
-        for (int i = 0; i < recordNum; i++) {
-
-            // create ActivityDTO from result row
-            ActivityDTO activity = createLatestActivity(resultContainer, i, projects, contests);
-
-            ProjectBriefDTO project = activity.getContest().getProject();
-            List<ActivityDTO> projectActivities;
-
-            if (!activities.containsKey(project)) {
-                projectActivities = new ArrayList<ActivityDTO>();
-                activities.put(project, projectActivities);
-            } else {
-                projectActivities = activities.get(project);
-            }
-
-            projectActivities.add(activity);
-        }
-
-        LatestActivitiesDTO result = new LatestActivitiesDTO();
-
-
-        // sort the activities via activity date
-        for (List<ActivityDTO> la : activities.values()) {
-            Collections.sort(la, new Comparator<ActivityDTO>() {
-                public int compare(ActivityDTO e1, ActivityDTO e2) {
-                    return -e1.getDate().compareTo(e2.getDate());
-                }
-            });
-        }
-
-        // sort the map by project's latest activity date
-        List<Map.Entry<ProjectBriefDTO, List<ActivityDTO>>> list =
-                new LinkedList<Map.Entry<ProjectBriefDTO, List<ActivityDTO>>>(activities.entrySet());
-
-        Collections.sort(list, new Comparator<Map.Entry<ProjectBriefDTO, List<ActivityDTO>>>() {
-            public int compare(Map.Entry<ProjectBriefDTO, List<ActivityDTO>> o1, Map.Entry<ProjectBriefDTO, List<ActivityDTO>> o2) {
-                ActivityDTO a1 = o1.getValue().get(0);
-                ActivityDTO a2 = o2.getValue().get(0);
-
-                if (a1 == null || a2 == null) {
-                    return 0;
-                } else {
-                    return -a1.getDate().compareTo(a2.getDate());
-                }
-
-            }
-        });
-
-        Map<ProjectBriefDTO, List<ActivityDTO>> sortedActivities = new LinkedHashMap<ProjectBriefDTO, List<ActivityDTO>>();
-
-        for(Map.Entry<ProjectBriefDTO, List<ActivityDTO>> e : list) {
-            sortedActivities.put(e.getKey(),e.getValue());
-        }
-
-        result.setActivities(sortedActivities);
-
-        return result;
+        return ActivityFeedStore.getInstance().getLatestActivities(userId, days);
     }
 
 
@@ -1550,7 +1536,7 @@ public class DataProvider {
      * @return the instantiated ActivityDTO instance
      * @since 2.5.0 - (Cockpit Performance Improvement Project Overview and Manage Copilot Posting Assembly)
      */
-    private static ActivityDTO createLatestActivity(ResultSetContainer result, int resultIndex, Map<Long,
+    static ActivityDTO createLatestActivity(ResultSetContainer result, int resultIndex, Map<Long,
             ProjectBriefDTO> directProjectsMap, Map<Long, TypedContestBriefDTO> contestsMap) {
 
         String activityTypeText = result.getStringItem(resultIndex, "activity_type");
@@ -2267,14 +2253,13 @@ public class DataProvider {
 
         // if user id equals to current user id, get customers for it
         if (currentUser.getUserId() == userId) {
-            Map<Long, String> clients = DirectUtils.getGlobalClientsCache();
-            Map<Long, Long> projectClients = DirectUtils.getGlobalProjectClientCache();
+            ClientBillingProjectMappingIndex index = ClientBillingProjectMappingIndex.getInstance();
 
             for (ProjectBriefDTO p : projects) {
-                Long clientID = projectClients.get(p.getId());
+                Long clientID = index.getClientId(p.getId());
                 if (clientID != null && clientID > 0) {
                     p.setCustomerId(clientID);
-                    p.setCustomerName(clients.get(clientID));
+                    p.setCustomerName(index.getClientName(clientID));
                 }
             }
 
@@ -5022,114 +5007,6 @@ public class DataProvider {
     }
 
 
-    /**
-     * Fills the global client-billing-project mapping cache in the application level.
-     *
-     * @throws Exception if any eror.
-     * @since 6.4
-     */
-    public static void fillGlobalClientBillingProjectCache() throws Exception {
-
-        final Map<String, Object> applicationContext = DirectUtils.getApplicationContext();
-
-        Map<String, Object> globalResult = new HashMap<String, Object>();
-
-        // project ID --> ClientBillingDirectProjectMappingDTO(Client ID, Billing ID, Project ID)
-        Map<Long, ClientBillingDirectProjectMappingDTO> globalRecordCache = new HashMap<Long, ClientBillingDirectProjectMappingDTO>();
-
-        if (applicationContext.get(DirectUtils.PROJECT_BILLING_MAPPING_RESULT_CACHE) == null
-                || applicationContext.get(DirectUtils.PROJECT_BILLING_MAPPING_RECORD_CACHE) == null) {
-
-            DataAccess dataAccess = new DataAccess(DBMS.TCS_OLTP_DATASOURCE_NAME);
-
-            Request request = new Request();
-
-            ResultSetContainer resultContainer = null;
-            // get from the database
-            request.setContentHandle("admin_client_billing_accounts_v2");
-
-            // client ID -> MAP<Billing ID -> Billing Name>
-            Map<Long, Map<Long, String>> globalClientBillingMap = new HashMap<Long, Map<Long, String>>();
-
-            // client ID -> MAP<Project ID -> Project Name>
-            Map<Long, Map<Long, String>> globalClientProjectMap = new HashMap<Long, Map<Long, String>>();
-
-            // billing ID -> MAP<Project ID -> Project NAME>
-            Map<Long, Map<Long, String>> globalBillingProjectMap = new HashMap<Long, Map<Long, String>>();
-
-            // MAP<Client ID -> Client NAME>
-            Map<Long, String> globalClientsMap = new HashMap<Long, String>();
-
-            // MAP<Project ID -> Client ID>
-            Map<Long, Long> globalProjectClientMap = new HashMap<Long, Long>();
-
-            resultContainer = dataAccess.getData(request).get(
-                    "admin_client_billing_accounts_v2");
-
-            if (resultContainer != null) {
-                for (ResultSetContainer.ResultSetRow row : resultContainer) {
-
-                    long billingId = row.getLongItem("billing_account_id");
-                    String billingName = row.getStringItem("billing_account_name");
-                    long clientId = row.getLongItem("client_id");
-                    String clientName = row.getStringItem("client_name");
-                    long directProjectId = row.getLongItem("direct_project_id");
-                    String directProjectName = row.getStringItem("direct_project_name");
-                    // put into clients map
-                    globalClientsMap.put(clientId, clientName);
-
-                    // put into clientBillingMap
-                    Map<Long, String> billingsForClient = globalClientBillingMap.get(clientId);
-                    if (billingsForClient == null) {
-                        billingsForClient = new HashMap<Long, String>();
-                        globalClientBillingMap.put(clientId, billingsForClient);
-                    }
-
-                    billingsForClient.put(billingId, billingName);
-
-                    // put into clientProjectMap
-                    Map<Long, String> projectForClient = globalClientProjectMap.get(clientId);
-                    if (projectForClient == null) {
-                        projectForClient = new HashMap<Long, String>();
-                        globalClientProjectMap.put(clientId, projectForClient);
-                    }
-
-                    projectForClient.put(directProjectId, directProjectName);
-
-                    // put into billingProjectMap
-                    Map<Long, String> projectForBilling = globalBillingProjectMap.get(billingId);
-                    if (projectForBilling == null) {
-                        projectForBilling = new HashMap<Long, String>();
-                        globalBillingProjectMap.put(billingId, projectForBilling);
-                    }
-
-                    projectForBilling.put(directProjectId, directProjectName);
-
-                    globalProjectClientMap.put(directProjectId, clientId);
-
-                    ClientBillingDirectProjectMappingDTO mappingDTO = new ClientBillingDirectProjectMappingDTO();
-                    mappingDTO.setBillingId(billingId);
-                    mappingDTO.setBillingName(billingName);
-                    mappingDTO.setClientId(clientId);
-                    mappingDTO.setClientName(clientName);
-                    mappingDTO.setProjectId(directProjectId);
-                    mappingDTO.setProjectName(directProjectName);
-                    globalRecordCache.put(directProjectId, mappingDTO);
-                }
-            }
-
-            globalResult.put("client.billing", globalClientBillingMap);
-            globalResult.put("client.project", globalClientProjectMap);
-            globalResult.put("billing.project", globalBillingProjectMap);
-            globalResult.put("clients", globalClientsMap);
-            globalResult.put("project.client", globalProjectClientMap);
-            DirectUtils.getApplicationContext().put(DirectUtils.PROJECT_BILLING_MAPPING_RESULT_CACHE, globalResult);
-            DirectUtils.getApplicationContext().put(DirectUtils.PROJECT_BILLING_MAPPING_RECORD_CACHE,
-                    globalRecordCache);
-        }
-    }
-
-
     /**
      * Gets the clients and billing accounts for the admin user. This method is a new method to replace the
      * method getDashboardClientBillingProjectMappings. It gets the project and billing account relationship
@@ -5144,75 +5021,17 @@ public class DataProvider {
     public static Map<String, Object> getDashboardClientBillingProjectMappingsV2(TCSubject tcSubject)
             throws Exception {
 
-        // fill into the cache if it's not filled
-        fillGlobalClientBillingProjectCache();
-
-        Map<String, Object> globalResult = (Map<String, Object>)
-                DirectUtils.getApplicationContext().get(DirectUtils.PROJECT_BILLING_MAPPING_RESULT_CACHE);
-        Map<Long, ClientBillingDirectProjectMappingDTO> globalRecordCache = (Map<Long, ClientBillingDirectProjectMappingDTO>)
-                DirectUtils.getApplicationContext().get(DirectUtils.PROJECT_BILLING_MAPPING_RECORD_CACHE);
+        ClientBillingProjectMappingIndex index = ClientBillingProjectMappingIndex.getInstance();
 
         if (DirectUtils.isTcOperations(tcSubject) || DirectUtils.isTcStaff(tcSubject)) {
-            return globalResult;
+            return index.getMappings();
         } else {
-            Map<String, Object> result = new HashMap<String, Object>();
-            Map<Long, Map<Long, String>> clientBillingMap = new HashMap<Long, Map<Long, String>>();
-            Map<Long, Map<Long, String>> clientProjectMap = new HashMap<Long, Map<Long, String>>();
-            Map<Long, Map<Long, String>> billingProjectMap = new HashMap<Long, Map<Long, String>>();
-            Map<Long, String> clientsMap = new HashMap<Long, String>();
-            Map<Long, Long> projectClientMap = new HashMap<Long, Long>();
-
             // get part of the result with the project ids the use has access to
-            List<ProjectBriefDTO> projects = getUserProjectsList(tcSubject.getUserId());
-            for (ProjectBriefDTO data : projects) {
-                if (globalRecordCache.containsKey(data.getId())) {
-                    ClientBillingDirectProjectMappingDTO dto = globalRecordCache.get(data.getId());
-                    long billingId = dto.getBillingId();
-                    String billingName = dto.getBillingName();
-                    long clientId = dto.getClientId();
-                    String clientName = dto.getClientName();
-                    long directProjectId = dto.getProjectId();
-                    String directProjectName = dto.getProjectName();
-                    // put into clients map
-                    clientsMap.put(clientId, clientName);
-
-                    // put into clientBillingMap
-                    Map<Long, String> billingsForClient = clientBillingMap.get(clientId);
-                    if (billingsForClient == null) {
-                        billingsForClient = new HashMap<Long, String>();
-                        clientBillingMap.put(clientId, billingsForClient);
-                    }
-
-                    billingsForClient.put(billingId, billingName);
-
-                    // put into clientProjectMap
-                    Map<Long, String> projectForClient = clientProjectMap.get(clientId);
-                    if (projectForClient == null) {
-                        projectForClient = new HashMap<Long, String>();
-                        clientProjectMap.put(clientId, projectForClient);
-                    }
-
-                    projectForClient.put(directProjectId, directProjectName);
-
-                    // put into billingProjectMap
-                    Map<Long, String> projectForBilling = billingProjectMap.get(billingId);
-                    if (projectForBilling == null) {
-                        projectForBilling = new HashMap<Long, String>();
-                        billingProjectMap.put(billingId, projectForBilling);
-                    }
-
-                    projectForBilling.put(directProjectId, directProjectName);
-
-                    projectClientMap.put(directProjectId, clientId);
-                }
+            List<Long> projectIds = new ArrayList<Long>();
+            for (ProjectBriefDTO data : getUserProjectsList(tcSubject.getUserId())) {
+                projectIds.add(data.getId());
             }
-
-            result.put("client.billing", clientBillingMap);
-            result.put("client.project", clientProjectMap);
-            result.put("billing.project", billingProjectMap);
-            result.put("clients", clientsMap);
-            result.put("project.client", projectClientMap);
-            return result;
+            return index.getMappings(projectIds);
         }
     }
 
@@ -7907,11 +7726,7 @@ public class DataProvider {
         DateFormat dateFormat2 = new SimpleDateFormat("MM.dd.yyyy");
 
         // Get project contest results from DB
-        DataAccess dataAccessor = new DataAccess(DBMS.TCS_OLTP_DATASOURCE_NAME);
-        Request request = new Request();
-        request.setContentHandle("project_contest_results");
-        request.setProperty("tcdirectid", String.valueOf(tcDirectProjectId));
-        ResultSetContainer projectContestResults = dataAccessor.getData(request).get("project_contest_results");
+        ResultSetContainer projectContestResults = getProjectContestResults(tcDirectProjectId);
 
         // Convert results to Excel worksheet
         String sheetName = WorkbookUtil.createSafeSheetName("Contest Results for " + tcDirectProjectId);
@@ -7968,18 +7783,10 @@ public class DataProvider {
     public static InputStream generateSubmissionSheet(long tcDirectProjectId, Date startDate, Date endDate, long userId) throws Exception {
         NumberFormat format = NumberFormat.getPercentInstance();
         format.setMinimumFractionDigits(2);
-        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
 
         // Get project contest results from DB
-        DataAccess dataAccessor = new DataAccess(DBMS.TCS_OLTP_DATASOURCE_NAME);
-        Request request = new Request();
-        request.setContentHandle("project_contest_submissions");
-        request.setProperty("tcdirectid", String.valueOf(tcDirectProjectId));
-        request.setProperty("sdt", dateFormat.format(startDate));
-        request.setProperty("edt", dateFormat.format(endDate));
-    request.setProperty("uid", String.valueOf(userId));
-
-        ResultSetContainer projectContestResults = dataAccessor.getData(request).get("project_contest_submissions");
+        ResultSetContainer projectContestResults =
+            getProjectContestSubmissions(tcDirectProjectId, startDate, endDate, userId);
 
         // Convert results to Excel worksheet
         String sheetName = WorkbookUtil.createSafeSheetName("Contest Submissions for " + tcDirectProjectId);
@@ -8018,87 +7825,99 @@ public class DataProvider {
     }
 
     /**
-     * <p>Generates the <code>PDF</code> document with composite review for specified submission.</p>
+     * <p>Writes the results for contests for specified <code>TC Direct</code> project row by row. The rows are the
+     * same as the ones of {@link #generateWinnerSheet(long)}.</p>
      *
-     * @param loginUrl a <code>String</code> providing the URL for Login controller for Online Review application.
-     * @param username a <code>String</code> providing username to be used to login to Online Review application.
-     * @param password a <code>String</code> providing password to be used to login to Online Review application.
-     * @param compositeReviewBaseURL a <code>String</code> providing the URL for ViewCompositeReview controller for
-     *                               Online Review application.
-     * @param baseURL a <code>String</code> providing the base URL for Online Review application.
-     * @param submissionId a <code>long</code> providing the ID of submission to generate combined review scorecard for.
-     * @since 3.11
+     * @param tcDirectProjectId a <code>long</code> providing the ID of <code>TC Direct</code> project to write the
+     *                          winner sheet for.
+     * @param writer a <code>ReportWriter</code> to write the rows to.
+     * @throws Exception if an unexpected error occurs.
+     * @since 6.8
      */
-    public static InputStream generateCombinedReviewScorecard(String loginUrl, String username, String password,
-                                                       String compositeReviewBaseURL, String baseURL,
-                                                       long submissionId) throws Exception {
-        HttpPost loginRequest = new HttpPost(loginUrl + "?method=login&userName=" + username + "&password=" + password);
-
-        HttpClient http = new DefaultHttpClient();
-        CookieStore cookieStore = new BasicCookieStore();
-        HttpContext localContext = new BasicHttpContext();
-        localContext.setAttribute(ClientContext.COOKIE_STORE, cookieStore);
-
-        HttpResponse loginResponse = http.execute(loginRequest, localContext);
-        if (loginResponse.getStatusLine().getStatusCode() == 302) {
-            HttpEntity loginResponseEntity = loginResponse.getEntity();
-            if (loginResponseEntity != null) {
-                EntityUtils.consume(loginResponseEntity);
-            }
-
-            HttpGet compositeReviewRequest = new HttpGet(compositeReviewBaseURL + submissionId);
-            HttpResponse compositeReviewResponse = http.execute(compositeReviewRequest, localContext);
-            if (compositeReviewResponse.getStatusLine().getStatusCode() == 200) {
-                HttpEntity compositeReviewPage = compositeReviewResponse.getEntity();
-                if (compositeReviewPage != null) {
-                    DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-                    documentBuilderFactory.setValidating(false);
-                    documentBuilderFactory.setFeature("http://xml.org/sax/features/namespaces", false);
-                    documentBuilderFactory.setFeature("http://xml.org/sax/features/validation", false);
-                    documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-dtd-grammar",
-                                                      false);
-                    documentBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd",
-                                                      false);
-
-                    DocumentBuilder builder = documentBuilderFactory.newDocumentBuilder();
-                    InputStream content = compositeReviewPage.getContent();
-                    Document doc = builder.parse(content);
-                    NodeList head;
-                    head = doc.getElementsByTagName("head");
-		            if(head.getLength() == 0) {
-                        head = doc.getElementsByTagName("HEAD");
-                    }
-                    Element style = doc.createElement("style");
-                    style.setAttribute("type", "text/css");
-                    style.appendChild(doc.createTextNode("<!--@page { size:960px 300mm; }-->"));
-                    head.item(0).appendChild(style);
+    public static void writeWinnerSheet(long tcDirectProjectId, ReportWriter writer) throws Exception {
+        DateFormat dateFormat = new SimpleDateFormat("MM.dd.yyyy HH:mm z");
+        DateFormat dateFormat2 = new SimpleDateFormat("MM.dd.yyyy");
 
+        ResultSetContainer projectContestResults = getProjectContestResults(tcDirectProjectId);
 
+        writer.writeRow("Contest ID", "Contest Name", "Completed", "1", "2");
+        for (ResultSetContainer.ResultSetRow data : projectContestResults) {
+            TCResultItem runnerUpHandle = data.getItem("runner_up_handle");
+            writer.writeRow(data.getLongItem("contest_id"), data.getStringItem("contest_name"),
+                dateFormat2.format(dateFormat.parse(data.getStringItem("completion_date"))),
+                data.getStringItem("winner_handle"), runnerUpHandle == null ? null : runnerUpHandle.getResultData());
+        }
+    }
 
-                    ITextRenderer renderer = new ITextRenderer();
-                    renderer.setDocument(doc, baseURL);
+    /**
+     * <p>Writes the submissions for contests for specified <code>TC Direct</code> project row by row. The rows are
+     * the same as the ones of {@link #generateSubmissionSheet(long, Date, Date, long)}.</p>
+     *
+     * @param tcDirectProjectId a <code>long</code> providing the ID of <code>TC Direct</code> project to write the
+     *                          submission sheet for.
+     * @param startDate the start date
+     * @param endDate the end date
+     * @param userId the ID of the current user
+     * @param writer a <code>ReportWriter</code> to write the rows to.
+     * @throws Exception if an unexpected error occurs.
+     * @since 6.8
+     */
+    public static void writeSubmissionSheet(long tcDirectProjectId, Date startDate, Date endDate, long userId,
+                                            ReportWriter writer) throws Exception {
+        NumberFormat format = NumberFormat.getPercentInstance();
+        format.setMinimumFractionDigits(2);
 
-                    ByteArrayOutputStream os = new ByteArrayOutputStream();
-                    renderer.layout();
-                    renderer.createPDF(os);
-                    os.close();
+        ResultSetContainer projectContestResults =
+            getProjectContestSubmissions(tcDirectProjectId, startDate, endDate, userId);
 
-                    return new ByteArrayInputStream(os.toByteArray());
-                } else {
-                    throw new DirectException("Failed to retrieve composite review for submission: " + submissionId
-                                              + ". Content is empty");
-                }
-            } else {
-                throw new DirectException("Failed to retrieve composite review for submission: " + submissionId
-                                          + ". HTTP status code: "
-                                          + compositeReviewResponse.getStatusLine().getStatusCode());
-            }
-        } else {
-            throw new DirectException("Failed to login to Online Review application. HTTP status code: " +
-                                      loginResponse.getStatusLine().getStatusCode());
+        writer.writeRow("Contest ID", "Contest Name", "Submission ID", "Score", "Rank");
+        for (ResultSetContainer.ResultSetRow data : projectContestResults) {
+            writer.writeRow(data.getLongItem("contest_id"), data.getStringItem("contest_name"),
+                data.getLongItem("submission_id"), format.format(data.getDoubleItem("final_score") / 100.0),
+                data.getLongItem("placement"));
         }
     }
 
+    /**
+     * <p>Gets the results for contests for specified <code>TC Direct</code> project.</p>
+     *
+     * @param tcDirectProjectId the ID of <code>TC Direct</code> project.
+     * @return the contest results.
+     * @throws Exception if an unexpected error occurs.
+     * @since 6.8
+     */
+    private static ResultSetContainer getProjectContestResults(long tcDirectProjectId) throws Exception {
+        DataAccess dataAccessor = new DataAccess(DBMS.TCS_OLTP_DATASOURCE_NAME);
+        Request request = new Request();
+        request.setContentHandle("project_contest_results");
+        request.setProperty("tcdirectid", String.valueOf(tcDirectProjectId));
+        return dataAccessor.getData(request).get("project_contest_results");
+    }
+
+    /**
+     * <p>Gets the submissions for contests for specified <code>TC Direct</code> project.</p>
+     *
+     * @param tcDirectProjectId the ID of <code>TC Direct</code> project.
+     * @param startDate the start date
+     * @param endDate the end date
+     * @param userId the ID of the current user
+     * @return the contest submissions.
+     * @throws Exception if an unexpected error occurs.
+     * @since 6.8
+     */
+    private static ResultSetContainer getProjectContestSubmissions(long tcDirectProjectId, Date startDate,
+                                                                   Date endDate, long userId) throws Exception {
+        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        DataAccess dataAccessor = new DataAccess(DBMS.TCS_OLTP_DATASOURCE_NAME);
+        Request request = new Request();
+        request.setContentHandle("project_contest_submissions");
+        request.setProperty("tcdirectid", String.valueOf(tcDirectProjectId));
+        request.setProperty("sdt", dateFormat.format(startDate));
+        request.setProperty("edt", dateFormat.format(endDate));
+        request.setProperty("uid", String.valueOf(userId));
+        return dataAccessor.getData(request).get("project_contest_submissions");
+    }
+
     /**
      * <p>Creates the header cell with nold text aligned in center for specified row.</p>
      *
@@ -9021,6 +8840,11 @@ public class DataProvider {
     /**
      * Gets the recent direct projects the specified user has accessed.
      *
+     * <p>
+     * Version 6.7 change notes:
+     * - merges the accesses buffered by {@link ProjectAccessRecorder} which are not in the database yet.
+     * </p>
+     *
      * @param userId the user id
      * @return a list of <code>DirectProjectAccess</code>, each one represents an access of a unique project
      * @throws Exception if any error
@@ -9048,6 +8872,149 @@ public class DataProvider {
             result.add(access);
         }
 
+        mergePendingDirectProjectAccesses(userId, result, maxRecentProjectsNumber);
+
+        return result;
+    }
+
+    /**
+     * Merges the direct project accesses of the user which are buffered by {@link ProjectAccessRecorder} and not
+     * written to the database yet into the recent projects read from the database. The merged list is sorted by the
+     * access time descending and trimmed to the maximum number of recent projects.
+     *
+     * @param userId the user id
+     * @param recentProjects the recent projects read from the database
+     * @param maxRecentProjectsNumber the maximum number of recent projects
+     * @throws Exception if any error
+     * @since 6.7
+     */
+    private static void mergePendingDirectProjectAccesses(long userId, List<DirectProjectAccess> recentProjects,
+                                                          int maxRecentProjectsNumber) throws Exception {
+        List<DirectProjectAccess> pendingAccesses = ProjectAccessRecorder.getInstance().getPendingAccesses(userId, 1L);
+        if (pendingAccesses.isEmpty()) {
+            return;
+        }
+
+        Map<Long, DirectProjectAccess> recentProjectsMap = new HashMap<Long, DirectProjectAccess>();
+        for (DirectProjectAccess access : recentProjects) {
+            recentProjectsMap.put(access.getAccessItemId(), access);
+        }
+
+        List<DirectProjectAccess> newAccesses = new ArrayList<DirectProjectAccess>();
+        for (DirectProjectAccess pendingAccess : pendingAccesses) {
+            DirectProjectAccess access = recentProjectsMap.get(pendingAccess.getAccessItemId());
+            if (access == null) {
+                access = new DirectProjectAccess();
+                access.setAccessItemId(pendingAccess.getAccessItemId());
+                access.setUserId(userId);
+                newAccesses.add(access);
+            }
+            if (access.getAccessTime() == null || access.getAccessTime().before(pendingAccess.getAccessTime())) {
+                access.setAccessTime(pendingAccess.getAccessTime());
+            }
+        }
+
+        if (!newAccesses.isEmpty()) {
+            Map<Long, String> projectNames = getDirectProjectNames(newAccesses);
+            for (DirectProjectAccess access : newAccesses) {
+                String projectName = projectNames.get(access.getAccessItemId());
+                if (projectName != null) {
+                    access.setItemName(projectName);
+                    recentProjects.add(access);
+                }
+            }
+        }
+
+        Collections.sort(recentProjects, new Comparator<DirectProjectAccess>() {
+            public int compare(DirectProjectAccess a1, DirectProjectAccess a2) {
+                return a2.getAccessTime().compareTo(a1.getAccessTime());
+            }
+        });
+        while (recentProjects.size() > maxRecentProjectsNumber) {
+            recentProjects.remove(recentProjects.size() - 1);
+        }
+    }
+
+    /**
+     * Gets the names of the direct projects of the given accesses.
+     *
+     * @param accesses the direct project accesses
+     * @return the map from the direct project id to the direct project name
+     * @throws Exception if any error
+     * @since 6.7
+     */
+    private static Map<Long, String> getDirectProjectNames(List<DirectProjectAccess> accesses) throws Exception {
+        StringBuilder sql = new StringBuilder(SELECT_DIRECT_PROJECT_NAMES_SQL).append("(");
+        for (int i = 0; i < accesses.size(); i++) {
+            sql.append(i == 0 ? "" : ",").append(accesses.get(i).getAccessItemId());
+        }
+        sql.append(")");
+
+        Map<Long, String> result = new HashMap<Long, String>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseUtils.getDatabaseConnection(DBMS.TCS_OLTP_DATASOURCE_NAME);
+            statement = connection.prepareStatement(sql.toString());
+            resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                result.put(resultSet.getLong(1), resultSet.getString(2));
+            }
+        } finally {
+            DatabaseUtils.close(resultSet);
+            DatabaseUtils.close(statement);
+            DatabaseUtils.close(connection);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the last modification dates of the reviews of the given submissions.
+     *
+     * @param submissionIds the submission ids
+     * @return the map from the submission id to the last modification date of its reviews, review items, review
+     *         comments and review item comments, the submissions without reviews are absent
+     * @throws Exception if any error
+     * @since 6.9
+     */
+    public static Map<Long, Date> getReviewModifyDates(Collection<Long> submissionIds) throws Exception {
+        Map<Long, Date> result = new HashMap<Long, Date>();
+        if (submissionIds.isEmpty()) {
+            return result;
+        }
+        StringBuilder ids = new StringBuilder();
+        String separator = "";
+        for (Long submissionId : submissionIds) {
+            ids.append(separator).append(submissionId.longValue());
+            separator = ",";
+        }
+        String sql = SELECT_REVIEW_MODIFY_DATES_SQL.replace(":submissionIds", ids);
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+
+        try {
+            connection = DatabaseUtils.getDatabaseConnection(DBMS.TCS_OLTP_DATASOURCE_NAME);
+            statement = connection.prepareStatement(sql);
+            resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                long submissionId = resultSet.getLong(1);
+                Date modifyDate = resultSet.getTimestamp(2);
+                Date lastModifyDate = result.get(submissionId);
+                if (lastModifyDate == null || modifyDate.after(lastModifyDate)) {
+                    result.put(submissionId, modifyDate);
+                }
+            }
+        } finally {
+            DatabaseUtils.close(resultSet);
+            DatabaseUtils.close(statement);
+            DatabaseUtils.close(connection);
+        }
+
         return result;
     }
 
@@ -709,9 +709,20 @@ import java.util.zip.ZipOutputStream;
  * <li>Remove {@link #SELECT_PUSH_STATUS_SQL} constant.</li>
  * </ul>
  * </p>
+ * <p>
+ * Changes in version 2.0:
+ * <ul>
+ * <li>Removed <code>PROJECT_BILLING_MAPPING_RESULT_CACHE</code> and <code>PROJECT_BILLING_MAPPING_RECORD_CACHE</code>
+ * constants, the client billing project mappings are held by {@link ClientBillingProjectMappingIndex} instead of
+ * the application context.</li>
+ * <li>Updated {@link #getGlobalClientsCache()}, {@link #getGlobalProjectClientCache()} and
+ * {@link #hasPermissionBySecurityGroups(TCSubject, long, AuthorizationService, GroupPermissionType...)} to read
+ * the mappings from {@link ClientBillingProjectMappingIndex}.</li>
+ * </ul>
+ * </p>
  *
  * @author BeBetter, isv, flexme, Blues, Veve, GreatKevin, minhu, FireIce, Ghost_141, jiajizhou86, TCSCODER
- * @version 1.9
+ * @version 2.0
  */
 public final class DirectUtils {
 
@@ -777,10 +788,6 @@ public final class DirectUtils {
     public final static List<String> CANCELLED_STATUS = Arrays.asList("Cancelled - Client Request",
         "Cancelled - Requirement Infeasible");
 
-    public final static String PROJECT_BILLING_MAPPING_RESULT_CACHE = "projectBillingMappingResultCache";
-
-    public final static String PROJECT_BILLING_MAPPING_RECORD_CACHE = "projectBillingMappingRecordCache";
-
      /**
      * Represents the &quot;Specification Submission&quot; phase type.
      */
@@ -2056,13 +2063,7 @@ public final class DirectUtils {
      * @since 1.5
      */
     private static Map<String, Object> getGlobalClientBillingProjectMappingsCache() throws Exception {
-        if (DirectUtils.getApplicationContext().get(
-                DirectUtils.PROJECT_BILLING_MAPPING_RESULT_CACHE) == null) {
-            DataProvider.fillGlobalClientBillingProjectCache();
-        }
-
-        return (Map<String, Object>) DirectUtils.getApplicationContext().get(
-                DirectUtils.PROJECT_BILLING_MAPPING_RESULT_CACHE);
+        return ClientBillingProjectMappingIndex.getInstance().getMappings();
     }
 
     /**
@@ -2904,7 +2905,7 @@ public final class DirectUtils {
         throws PermissionServiceException {
         try {
             // Check if user is administrator for client account
-            Long clientId = getGlobalProjectClientCache().get(tcDirectProjectId);
+            Long clientId = ClientBillingProjectMappingIndex.getInstance().getClientId(tcDirectProjectId);
             long userId = tcSubject.getUserId();
             boolean isCustomerAdministrator = false;
             if (clientId != null) {
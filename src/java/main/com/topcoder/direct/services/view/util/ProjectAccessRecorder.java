@@ -0,0 +1,400 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util;
+
+import com.topcoder.direct.services.project.metadata.entities.dao.DirectProjectAccess;
+import com.topcoder.shared.util.DBMS;
+import org.apache.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * The write-behind recorder of the user direct project accesses (the "recent projects" of the user).
+ * </p>
+ *
+ * <p>
+ * The accesses are buffered in memory and repeated accesses of the same user to the same item are coalesced to the
+ * latest access time. The buffer is flushed to the <code>user_recent_item</code> table with JDBC batches by a
+ * background thread, either periodically or as soon as the buffer holds <code>maxBufferSize</code> entries, and once
+ * more when the recorder is shut down. This keeps the database write out of the user request.
+ * </p>
+ *
+ * <p>
+ * The recorder is a singleton so that {@link DataProvider} can merge the accesses not flushed yet into the recent
+ * projects it reads from the database. It's configured in the spring application context through the
+ * {@link #getInstance()} factory method, with {@link #start()} and {@link #shutdown()} as init and destroy methods.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class ProjectAccessRecorder {
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(ProjectAccessRecorder.class);
+
+    /**
+     * The SQL to update the access time of an existing recent item.
+     */
+    private static final String UPDATE_RECENT_ITEM_SQL = "UPDATE user_recent_item SET access_time = ? "
+            + "WHERE user_id = ? AND recent_item_type_id = ? AND item_id = ?";
+
+    /**
+     * The SQL to insert a new recent item.
+     */
+    private static final String INSERT_RECENT_ITEM_SQL = "INSERT INTO user_recent_item (user_recent_item_id, "
+            + "user_id, recent_item_type_id, item_id, access_time) "
+            + "VALUES (user_recent_item_sequence.NEXTVAL, ?, ?, ?, ?)";
+
+    /**
+     * The default flush interval in milliseconds.
+     */
+    private static final long DEFAULT_FLUSH_INTERVAL = 5000;
+
+    /**
+     * The default number of buffered accesses which triggers a flush.
+     */
+    private static final int DEFAULT_MAX_BUFFER_SIZE = 500;
+
+    /**
+     * The singleton instance.
+     */
+    private static final ProjectAccessRecorder singleton = new ProjectAccessRecorder();
+
+    /**
+     * The buffered accesses not flushed yet, keyed by user, access type and access item.
+     */
+    private final ConcurrentMap<AccessKey, DirectProjectAccess> pending =
+            new ConcurrentHashMap<AccessKey, DirectProjectAccess>();
+
+    /**
+     * Whether a flush is running or scheduled already.
+     */
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+    /**
+     * The task flushing the buffered accesses.
+     */
+    private final Runnable flushTask = new Runnable() {
+        public void run() {
+            flush();
+        }
+    };
+
+    /**
+     * The executor running the flushes, null when the recorder is not started.
+     */
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * The flush interval in milliseconds.
+     */
+    private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+    /**
+     * The number of buffered accesses which triggers a flush.
+     */
+    private int maxBufferSize = DEFAULT_MAX_BUFFER_SIZE;
+
+    /**
+     * The data source name of the database holding the recent items.
+     */
+    private String dataSourceName = DBMS.TCS_OLTP_DATASOURCE_NAME;
+
+    /**
+     * Private constructor.
+     */
+    private ProjectAccessRecorder() {
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static ProjectAccessRecorder getInstance() {
+        return singleton;
+    }
+
+    /**
+     * Starts the periodical flush.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ProjectAccessRecorder");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                if (flushing.compareAndSet(false, true)) {
+                    flush();
+                }
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodical flush and writes the buffered accesses to the database.
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(flushInterval, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+        flushing.set(true);
+        flush();
+    }
+
+    /**
+     * Records the access of the user to the direct project. The access time is set to the current time, the access
+     * is written to the database later. If the recorder is not started, the access is written right away.
+     *
+     * @param access the access to record.
+     */
+    public void record(DirectProjectAccess access) {
+        DirectProjectAccess buffered = new DirectProjectAccess();
+        buffered.setUserId(access.getUserId());
+        buffered.setAccessTypeId(access.getAccessTypeId());
+        buffered.setAccessItemId(access.getAccessItemId());
+        buffered.setAccessTime(new Date());
+        pending.put(new AccessKey(access.getUserId(), access.getAccessTypeId(), access.getAccessItemId()), buffered);
+
+        ScheduledExecutorService currentExecutor = executor;
+        if (currentExecutor == null) {
+            if (flushing.compareAndSet(false, true)) {
+                flush();
+            }
+        } else if (pending.size() >= maxBufferSize && flushing.compareAndSet(false, true)) {
+            try {
+                currentExecutor.execute(flushTask);
+            } catch (RuntimeException e) {
+                // the executor is shutting down, the accesses will be flushed by shutdown()
+                flushing.set(false);
+            }
+        }
+    }
+
+    /**
+     * Gets the accesses of the user not flushed to the database yet.
+     *
+     * @param userId the user id.
+     * @param accessTypeId the access type id.
+     * @return the buffered accesses of the user, never null.
+     */
+    public List<DirectProjectAccess> getPendingAccesses(long userId, long accessTypeId) {
+        List<DirectProjectAccess> result = new ArrayList<DirectProjectAccess>();
+        for (Map.Entry<AccessKey, DirectProjectAccess> entry : pending.entrySet()) {
+            if (entry.getKey().userId == userId && entry.getKey().accessTypeId == accessTypeId) {
+                result.add(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the buffered accesses to the database. The existing recent items are updated with one batch, and the
+     * ones which don't exist yet are inserted with another. An access is removed from the buffer only if it wasn't
+     * replaced by a later access meanwhile. On failure the accesses stay buffered for the next flush.
+     *
+     * <p>The caller must have set the <code>flushing</code> flag, it's cleared when the flush completes.</p>
+     */
+    private void flush() {
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<AccessKey> keys = new ArrayList<AccessKey>();
+            List<DirectProjectAccess> accesses = new ArrayList<DirectProjectAccess>();
+            for (Map.Entry<AccessKey, DirectProjectAccess> entry : pending.entrySet()) {
+                keys.add(entry.getKey());
+                accesses.add(entry.getValue());
+            }
+
+            write(accesses);
+
+            for (int i = 0; i < keys.size(); i++) {
+                pending.remove(keys.get(i), accesses.get(i));
+            }
+        } catch (Exception e) {
+            logger.error("Failed to record the user direct project accesses.", e);
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    /**
+     * Writes the accesses to the database with JDBC batches.
+     *
+     * @param accesses the accesses to write.
+     * @throws Exception if any error occurs.
+     */
+    private void write(List<DirectProjectAccess> accesses) throws Exception {
+        Connection connection = null;
+        PreparedStatement updateStatement = null;
+        PreparedStatement insertStatement = null;
+
+        try {
+            connection = DatabaseUtils.getDatabaseConnection(dataSourceName);
+
+            updateStatement = connection.prepareStatement(UPDATE_RECENT_ITEM_SQL);
+            for (DirectProjectAccess access : accesses) {
+                updateStatement.setTimestamp(1, new Timestamp(access.getAccessTime().getTime()));
+                updateStatement.setLong(2, access.getUserId());
+                updateStatement.setLong(3, access.getAccessTypeId());
+                updateStatement.setLong(4, access.getAccessItemId());
+                updateStatement.addBatch();
+            }
+            int[] updated = updateStatement.executeBatch();
+
+            boolean hasInserts = false;
+            insertStatement = connection.prepareStatement(INSERT_RECENT_ITEM_SQL);
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    DirectProjectAccess access = accesses.get(i);
+                    insertStatement.setLong(1, access.getUserId());
+                    insertStatement.setLong(2, access.getAccessTypeId());
+                    insertStatement.setLong(3, access.getAccessItemId());
+                    insertStatement.setTimestamp(4, new Timestamp(access.getAccessTime().getTime()));
+                    insertStatement.addBatch();
+                    hasInserts = true;
+                }
+            }
+            if (hasInserts) {
+                insertStatement.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new Exception("Failed to write " + accesses.size() + " user direct project accesses.", e);
+        } finally {
+            DatabaseUtils.close(insertStatement);
+            DatabaseUtils.close(updateStatement);
+            DatabaseUtils.close(connection);
+        }
+    }
+
+    /**
+     * Sets the flush interval in milliseconds. It takes effect when the recorder is started.
+     *
+     * @param flushInterval the flush interval in milliseconds.
+     */
+    public void setFlushInterval(long flushInterval) {
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("flushInterval should be positive.");
+        }
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Sets the number of buffered accesses which triggers a flush.
+     *
+     * @param maxBufferSize the number of buffered accesses which triggers a flush.
+     */
+    public void setMaxBufferSize(int maxBufferSize) {
+        if (maxBufferSize <= 0) {
+            throw new IllegalArgumentException("maxBufferSize should be positive.");
+        }
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    /**
+     * Sets the data source name of the database holding the recent items.
+     *
+     * @param dataSourceName the data source name.
+     */
+    public void setDataSourceName(String dataSourceName) {
+        this.dataSourceName = dataSourceName;
+    }
+
+    /**
+     * The key of a buffered access.
+     */
+    private static final class AccessKey {
+
+        /**
+         * The user id.
+         */
+        private final long userId;
+
+        /**
+         * The access type id.
+         */
+        private final long accessTypeId;
+
+        /**
+         * The access item id.
+         */
+        private final long accessItemId;
+
+        /**
+         * Creates the key.
+         *
+         * @param userId the user id.
+         * @param accessTypeId the access type id.
+         * @param accessItemId the access item id.
+         */
+        AccessKey(long userId, long accessTypeId, long accessItemId) {
+            this.userId = userId;
+            this.accessTypeId = accessTypeId;
+            this.accessItemId = accessItemId;
+        }
+
+        /**
+         * Checks whether the given object is a key of the same access.
+         *
+         * @param o the object to compare.
+         * @return true if the given object is a key of the same access.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof AccessKey)) {
+                return false;
+            }
+            AccessKey other = (AccessKey) o;
+            return userId == other.userId && accessTypeId == other.accessTypeId && accessItemId == other.accessItemId;
+        }
+
+        /**
+         * Gets the hash code.
+         *
+         * @return the hash code.
+         */
+        @Override
+        public int hashCode() {
+            int result = (int) (userId ^ (userId >>> 32));
+            result = 31 * result + (int) (accessTypeId ^ (accessTypeId >>> 32));
+            return 31 * result + (int) (accessItemId ^ (accessItemId >>> 32));
+        }
+    }
+}
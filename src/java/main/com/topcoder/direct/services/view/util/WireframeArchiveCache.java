@@ -0,0 +1,533 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util;
+
+import com.topcoder.direct.services.exception.DirectException;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * <p>
+ * The cache of the opened wireframe submission archives, serving the wireframe pages straight from the submission
+ * zip instead of unpacking it. Opening an archive reads the central directory of the submission and of the
+ * wireframe zip in it, and finds the index page; the pages are then streamed from the archive entries. The wireframe
+ * zip is read in place when it's stored in the submission, otherwise it's copied once to the work directory.
+ * </p>
+ *
+ * <p>
+ * An archive missing from the cache is opened once even when it's requested by several threads at the same time:
+ * the first request opens it and the others wait for its result. The archives are evicted in least recently used
+ * order once there are more than <code>maxArchives</code> of them, or their copied wireframe zips take more than
+ * <code>maxExtractedBytes</code>; the copies are deleted on eviction. The submission files of the evicted archives
+ * are remembered, so that their pages can still be served by opening them again.
+ * </p>
+ *
+ * <p>
+ * The archives missing from the cache that were never opened, or whose submission files are no longer remembered
+ * (after a restart for example), are opened again on demand from the submission file found by the configured
+ * {@link SubmissionLocator}, and the compressed wireframe zips are copied to the configured work directory.
+ * </p>
+ *
+ * <p>
+ * The cache is a singleton, configured in the spring application context through the {@link #getInstance()} factory
+ * method.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class WireframeArchiveCache {
+
+    /**
+     * The logger.
+     */
+    private static final Logger logger = Logger.getLogger(WireframeArchiveCache.class);
+
+    /**
+     * Represents the directory of the wireframe zip in the submission.
+     */
+    private static final String WIREFRAME_HTML_ZIP_DIR = "submission/";
+
+    /**
+     * Represents the default name of the wireframe zip in the submission.
+     */
+    private static final String WIREFRAME_HTML_ZIP_FILE_NAME = "submission.zip";
+
+    /**
+     * Represents the suffix of the wireframe zip name.
+     */
+    private static final String WIREFRAME_HTML_ZIP_FILE_SUFFIX = ".zip";
+
+    /**
+     * Represents the index file of the wireframe html pages.
+     */
+    private static final String WIREFRAME_HTML_INDEX_FILE = "index.html";
+
+    /**
+     * The default maximum number of cached archives.
+     */
+    private static final int DEFAULT_MAX_ARCHIVES = 50;
+
+    /**
+     * The default maximum total size of the copied wireframe zips.
+     */
+    private static final long DEFAULT_MAX_EXTRACTED_BYTES = 512L * 1024 * 1024;
+
+    /**
+     * The maximum number of remembered submission files.
+     */
+    private static final int MAX_SOURCES = 10000;
+
+    /**
+     * The singleton instance.
+     */
+    private static final WireframeArchiveCache singleton = new WireframeArchiveCache();
+
+    /**
+     * The cached archives by submission id, in access order. Guarded by <code>this</code>.
+     */
+    private final Map<String, WireframeArchive> archives = new LinkedHashMap<String, WireframeArchive>(16, 0.75f,
+            true);
+
+    /**
+     * The sources of the opened archives by submission id. Guarded by <code>this</code>.
+     */
+    private final Map<String, Source> sources = new LinkedHashMap<String, Source>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Source> eldest) {
+            return size() > MAX_SOURCES;
+        }
+    };
+
+    /**
+     * The openings in progress.
+     */
+    private final ConcurrentMap<String, FutureTask<WireframeArchive>> openings =
+            new ConcurrentHashMap<String, FutureTask<WireframeArchive>>();
+
+    /**
+     * The total size of the copied wireframe zips of the cached archives. Guarded by <code>this</code>.
+     */
+    private long extractedBytes;
+
+    /**
+     * The maximum number of cached archives.
+     */
+    private volatile int maxArchives = DEFAULT_MAX_ARCHIVES;
+
+    /**
+     * The maximum total size of the copied wireframe zips.
+     */
+    private volatile long maxExtractedBytes = DEFAULT_MAX_EXTRACTED_BYTES;
+
+    /**
+     * The locator of the submission files of the archives that are not remembered, null if not configured.
+     */
+    private volatile SubmissionLocator submissionLocator;
+
+    /**
+     * The directory to which the compressed wireframe zips of the located submissions are copied.
+     */
+    private volatile File workDirectory;
+
+    /**
+     * Private constructor.
+     */
+    private WireframeArchiveCache() {
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static WireframeArchiveCache getInstance() {
+        return singleton;
+    }
+
+    /**
+     * Gets the archive of a submission, opening it again if it was evicted, or opening the submission file found by
+     * the submission locator if the archive is not remembered.
+     *
+     * @param submissionId the submission id.
+     * @return the archive, null if the archive is not remembered and the submission can't be located.
+     * @throws DirectException if the submission has no wireframe zip, or the wireframe zip has no index page.
+     * @throws Exception if any other error occurs.
+     */
+    public WireframeArchive getArchive(String submissionId) throws Exception {
+        Source source;
+        synchronized (this) {
+            WireframeArchive archive = archives.get(submissionId);
+            if (archive != null) {
+                return archive;
+            }
+            source = sources.get(submissionId);
+        }
+        if (source == null) {
+            SubmissionLocator locator = submissionLocator;
+            File directory = workDirectory;
+            if (locator == null || directory == null) {
+                return null;
+            }
+            File submissionFile = locator.getSubmissionFile(submissionId);
+            if (submissionFile == null) {
+                return null;
+            }
+            source = new Source(submissionFile, directory);
+        }
+        return open(submissionId, source);
+    }
+
+    /**
+     * Sets the maximum number of cached archives.
+     *
+     * @param maxArchives the maximum number of cached archives.
+     */
+    public void setMaxArchives(int maxArchives) {
+        if (maxArchives <= 0) {
+            throw new IllegalArgumentException("maxArchives should be positive.");
+        }
+        this.maxArchives = maxArchives;
+    }
+
+    /**
+     * Sets the maximum total size of the copied wireframe zips.
+     *
+     * @param maxExtractedBytes the maximum total size of the copied wireframe zips.
+     */
+    public void setMaxExtractedBytes(long maxExtractedBytes) {
+        if (maxExtractedBytes <= 0) {
+            throw new IllegalArgumentException("maxExtractedBytes should be positive.");
+        }
+        this.maxExtractedBytes = maxExtractedBytes;
+    }
+
+    /**
+     * Sets the locator of the submission files of the archives that are not remembered.
+     *
+     * @param submissionLocator the submission locator.
+     */
+    public void setSubmissionLocator(SubmissionLocator submissionLocator) {
+        this.submissionLocator = submissionLocator;
+    }
+
+    /**
+     * Sets the directory to which the compressed wireframe zips of the located submissions are copied.
+     *
+     * @param workDirectory the work directory.
+     */
+    public void setWorkDirectory(File workDirectory) {
+        this.workDirectory = workDirectory;
+    }
+
+    /**
+     * Opens the archive of a submission, unless another thread is opening it already, and caches it.
+     *
+     * @param submissionId the submission id.
+     * @param source the source of the archive.
+     * @return the archive.
+     * @throws Exception if the archive can't be opened.
+     */
+    private WireframeArchive open(final String submissionId, final Source source) throws Exception {
+        FutureTask<WireframeArchive> task = new FutureTask<WireframeArchive>(new Callable<WireframeArchive>() {
+            public WireframeArchive call() throws Exception {
+                return load(submissionId, source);
+            }
+        });
+        FutureTask<WireframeArchive> opening = openings.putIfAbsent(submissionId, task);
+        if (opening == null) {
+            opening = task;
+            try {
+                task.run();
+                cache(submissionId, source, task);
+            } finally {
+                openings.remove(submissionId, task);
+            }
+        }
+
+        try {
+            return opening.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * Caches an opened archive, unless the opening failed, and evicts the least recently used archives exceeding
+     * the limits.
+     *
+     * @param submissionId the submission id.
+     * @param source the source of the archive.
+     * @param task the finished opening.
+     */
+    private synchronized void cache(String submissionId, Source source, FutureTask<WireframeArchive> task) {
+        WireframeArchive archive;
+        try {
+            archive = task.get();
+        } catch (Exception e) {
+            // the error is thrown to the requests waiting for the archive
+            return;
+        }
+
+        sources.put(submissionId, source);
+        archives.put(submissionId, archive);
+        extractedBytes += archive.getExtractedBytes();
+
+        // the archive just opened is kept even if it exceeds the limits alone
+        Iterator<WireframeArchive> it = archives.values().iterator();
+        while ((archives.size() > maxArchives || extractedBytes > maxExtractedBytes) && archives.size() > 1) {
+            WireframeArchive eldest = it.next();
+            it.remove();
+            extractedBytes -= eldest.getExtractedBytes();
+            if (eldest.extractedFile != null && !eldest.extractedFile.delete()) {
+                logger.warn("Can't delete the evicted wireframe zip " + eldest.extractedFile);
+            }
+        }
+    }
+
+    /**
+     * Opens the archive of a submission.
+     *
+     * @param submissionId the submission id.
+     * @param source the source of the archive.
+     * @return the archive.
+     * @throws DirectException if the submission has no wireframe zip, or the wireframe zip has no index page.
+     * @throws IOException if the archive can't be read.
+     */
+    private static WireframeArchive load(String submissionId, Source source) throws DirectException, IOException {
+        ZipArchive submission = new ZipArchive(source.submissionFile);
+        ZipArchive.Entry entry = findSubmissionEntry(submission);
+        if (entry == null) {
+            throw new DirectException("Can't find the submission zip file in the submission");
+        }
+
+        ZipArchive pages = submission.openEmbedded(entry);
+        File extractedFile = null;
+        if (pages == null) {
+            // the wireframe zip is compressed in the submission, it's copied once to be read in place
+            extractedFile = new File(source.workDirectory, submissionId + WIREFRAME_HTML_ZIP_FILE_SUFFIX);
+            File tempFile = new File(source.workDirectory, submissionId + WIREFRAME_HTML_ZIP_FILE_SUFFIX + ".tmp");
+            source.workDirectory.mkdirs();
+            InputStream in = submission.getInputStream(entry);
+            try {
+                OutputStream out = new FileOutputStream(tempFile);
+                try {
+                    IOUtils.copy(in, out);
+                } finally {
+                    out.close();
+                }
+            } finally {
+                in.close();
+            }
+            if (extractedFile.exists() && !extractedFile.delete() || !tempFile.renameTo(extractedFile)) {
+                tempFile.delete();
+                throw new IOException("Can't move the wireframe zip to " + extractedFile);
+            }
+            pages = new ZipArchive(extractedFile);
+            logger.info("The wireframe zip of submission " + submissionId + " is copied to " + extractedFile);
+        }
+
+        String indexPage = findIndexPage(pages);
+        if (indexPage == null) {
+            throw new DirectException("Can't find the index page in the submission");
+        }
+        return new WireframeArchive(pages, indexPage, extractedFile);
+    }
+
+    /**
+     * Find the entry of the wireframe zip in the whole submission.
+     *
+     * @param submission the archive of the whole submission.
+     * @return the entry of the wireframe zip, null if not found.
+     */
+    private static ZipArchive.Entry findSubmissionEntry(ZipArchive submission) {
+        ZipArchive.Entry targetEntry = null;
+        String fileName = WIREFRAME_HTML_ZIP_DIR + WIREFRAME_HTML_ZIP_FILE_NAME;
+        for (ZipArchive.Entry entry : submission.getEntries()) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            String name = entry.getName().replace('\\', '/');
+            if (name.equalsIgnoreCase(fileName)) {
+                return entry;
+            } else if (targetEntry == null && name.toLowerCase().startsWith(WIREFRAME_HTML_ZIP_DIR)
+                    && name.toLowerCase().endsWith(WIREFRAME_HTML_ZIP_FILE_SUFFIX)) {
+                targetEntry = entry;
+            }
+        }
+        return targetEntry;
+    }
+
+    /**
+     * Finds the index page of the wireframe. The file name matching is case-insensitive, and the page closest to the
+     * root of the archive is chosen.
+     *
+     * @param pages the archive of the wireframe pages.
+     * @return the name of the index page entry, null if not found.
+     */
+    private static String findIndexPage(ZipArchive pages) {
+        String indexPage = null;
+        int indexDepth = Integer.MAX_VALUE;
+        for (ZipArchive.Entry entry : pages.getEntries()) {
+            String name = entry.getName();
+            int slash = name.lastIndexOf('/');
+            if (!entry.isDirectory() && name.substring(slash + 1).equalsIgnoreCase(WIREFRAME_HTML_INDEX_FILE)) {
+                int depth = name.split("/").length;
+                if (depth < indexDepth) {
+                    indexPage = name;
+                    indexDepth = depth;
+                }
+            }
+        }
+        return indexPage;
+    }
+
+    /**
+     * <p>Locates the submission files of the wireframe archives.</p>
+     */
+    public static interface SubmissionLocator {
+
+        /**
+         * Gets the submission file of a submission.
+         *
+         * @param submissionId the submission id.
+         * @return the submission file, null if there's no such submission.
+         * @throws Exception if the submission can't be looked up.
+         */
+        File getSubmissionFile(String submissionId) throws Exception;
+    }
+
+    /**
+     * <p>The source of an archive.</p>
+     */
+    private static class Source {
+
+        /**
+         * The submission file.
+         */
+        private final File submissionFile;
+
+        /**
+         * The directory to which the compressed wireframe zip is copied.
+         */
+        private final File workDirectory;
+
+        /**
+         * Creates the source.
+         *
+         * @param submissionFile the submission file.
+         * @param workDirectory the directory to which the compressed wireframe zip is copied.
+         */
+        Source(File submissionFile, File workDirectory) {
+            this.submissionFile = submissionFile;
+            this.workDirectory = workDirectory;
+        }
+    }
+
+    /**
+     * <p>An opened wireframe archive.</p>
+     *
+     * <p>
+     * <strong>Thread Safety:</strong> This class is immutable and thread safe.
+     * </p>
+     */
+    public static class WireframeArchive {
+
+        /**
+         * The archive of the wireframe pages.
+         */
+        private final ZipArchive pages;
+
+        /**
+         * The name of the index page entry.
+         */
+        private final String indexPage;
+
+        /**
+         * The copy of the wireframe zip, null if it's read in place.
+         */
+        private final File extractedFile;
+
+        /**
+         * The size of the copy of the wireframe zip.
+         */
+        private final long extractedBytes;
+
+        /**
+         * Creates the archive.
+         *
+         * @param pages the archive of the wireframe pages.
+         * @param indexPage the name of the index page entry.
+         * @param extractedFile the copy of the wireframe zip, null if it's read in place.
+         */
+        WireframeArchive(ZipArchive pages, String indexPage, File extractedFile) {
+            this.pages = pages;
+            this.indexPage = indexPage;
+            this.extractedFile = extractedFile;
+            this.extractedBytes = extractedFile == null ? 0 : extractedFile.length();
+        }
+
+        /**
+         * Gets the name of the index page entry.
+         *
+         * @return the name of the index page entry.
+         */
+        public String getIndexPage() {
+            return indexPage;
+        }
+
+        /**
+         * Gets the entry of a page.
+         *
+         * @param name the page path in the wireframe.
+         * @return the entry, null if the wireframe has no such page, or it's a directory.
+         */
+        public ZipArchive.Entry getPage(String name) {
+            ZipArchive.Entry entry = pages.getEntry(name);
+            return entry == null || entry.isDirectory() ? null : entry;
+        }
+
+        /**
+         * Opens the content of a page.
+         *
+         * @param entry the entry of the page.
+         * @return the stream of the page content.
+         * @throws IOException if the content can't be read.
+         */
+        public InputStream getInputStream(ZipArchive.Entry entry) throws IOException {
+            return pages.getInputStream(entry);
+        }
+
+        /**
+         * Gets the size of the copy of the wireframe zip.
+         *
+         * @return the size of the copy, 0 if the wireframe zip is read in place.
+         */
+        long getExtractedBytes() {
+            return extractedBytes;
+        }
+    }
+}
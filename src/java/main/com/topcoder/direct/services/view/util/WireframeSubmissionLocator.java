@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util;
+
+import com.topcoder.management.deliverable.Submission;
+import com.topcoder.management.deliverable.Upload;
+import com.topcoder.management.deliverable.UploadManager;
+import com.topcoder.management.deliverable.search.SubmissionFilterBuilder;
+import com.topcoder.search.builder.filter.Filter;
+import com.topcoder.service.user.UserService;
+import com.topcoder.util.objectfactory.ObjectFactory;
+import com.topcoder.util.objectfactory.impl.ConfigManagerSpecificationFactory;
+
+import java.io.File;
+
+/**
+ * <p>
+ * Locates the wireframe submission files in the studio submission base, using the upload manager to find the
+ * submission and the user service to get the handle of the submitter. It's used by {@link WireframeArchiveCache} to
+ * open the archives that are not cached, either because they were evicted or because the application was restarted.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe once configured by spring.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class WireframeSubmissionLocator implements WireframeArchiveCache.SubmissionLocator {
+
+    /**
+     * The studio submission base to retrieve the wireframe submission. It's injected from spring configuration.
+     */
+    private String studioSubmissionBase;
+
+    /**
+     * <code>UserService</code> injected by Spring.
+     */
+    private UserService userService;
+
+    /**
+     * Empty constructor.
+     */
+    public WireframeSubmissionLocator() {
+    }
+
+    /**
+     * Sets the studio submission base.
+     *
+     * @param studioSubmissionBase the studio submission base.
+     */
+    public void setStudioSubmissionBase(String studioSubmissionBase) {
+        this.studioSubmissionBase = studioSubmissionBase;
+    }
+
+    /**
+     * Sets the user service.
+     *
+     * @param userService the user service.
+     */
+    public void setUserService(UserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * Using the upload manager to get the wireframe submission file.
+     *
+     * @param submissionId the submission id.
+     * @return the wireframe submission file, null if the submission id is not a number or there's no such
+     * submission.
+     * @throws Exception if any error occurs.
+     */
+    public File getSubmissionFile(String submissionId) throws Exception {
+        long id;
+        try {
+            id = Long.parseLong(submissionId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        ObjectFactory objectFactory = new ObjectFactory(new ConfigManagerSpecificationFactory(
+            "com.topcoder.util.objectfactory"));
+        UploadManager uploadManager = (UploadManager) objectFactory.createObject("uploadManagerKey");
+
+        Filter filter = SubmissionFilterBuilder.createSubmissionIdFilter(id);
+        Submission[] submissions = uploadManager.searchSubmissions(filter);
+        if (submissions.length == 0 || submissions[0] == null) {
+            return null;
+        }
+        Submission submission = submissions[0];
+        Upload upload = submission.getUpload();
+
+        long projectId = upload.getProject();
+        long submitterId = Long.parseLong(submission.getCreationUser());
+        String handle = userService.getUserHandle(submitterId);
+
+        return new File(studioSubmissionBase + File.separator + projectId + File.separator
+                        + handle.toLowerCase() + "_" + submitterId + File.separator
+                        + upload.getParameter());
+    }
+}
@@ -0,0 +1,566 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * <p>
+ * A read-only zip archive, read through its central directory. Unlike <code>java.util.zip.ZipFile</code>, the
+ * archive can be a region of a file, so that a zip stored (not compressed) inside another zip is read in place:
+ * {@link #openEmbedded(Entry)} opens such an entry without extracting it.
+ * </p>
+ *
+ * <p>
+ * The central directory is read once when the archive is opened. The entry contents are read with a new file handle
+ * for each stream, so the streams of an archive can be read concurrently, and the file can be deleted while they are
+ * read. ZIP64 archives are not supported.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is immutable and thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class ZipArchive {
+
+    /**
+     * The signature of the local file headers.
+     */
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+    /**
+     * The signature of the central directory headers.
+     */
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+    /**
+     * The signature of the end of central directory record.
+     */
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    /**
+     * The length of the local file header, without the name and the extra field.
+     */
+    private static final int LOCAL_HEADER_LENGTH = 30;
+
+    /**
+     * The length of the central directory header, without the name, the extra field and the comment.
+     */
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+
+    /**
+     * The length of the end of central directory record, without the comment.
+     */
+    private static final int END_LENGTH = 22;
+
+    /**
+     * The maximum length of the archive comment.
+     */
+    private static final int MAX_COMMENT_LENGTH = 0xffff;
+
+    /**
+     * The compression method of the stored entries.
+     */
+    public static final int STORED = 0;
+
+    /**
+     * The compression method of the deflated entries.
+     */
+    public static final int DEFLATED = 8;
+
+    /**
+     * The file holding the archive.
+     */
+    private final File file;
+
+    /**
+     * The offset of the archive in the file.
+     */
+    private final long start;
+
+    /**
+     * The length of the archive.
+     */
+    private final long length;
+
+    /**
+     * The entries by name, in the central directory order.
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * Opens the archive of a whole file.
+     *
+     * @param file the zip file.
+     * @throws IOException if the file can't be read or isn't a zip archive.
+     */
+    public ZipArchive(File file) throws IOException {
+        this(file, 0, file.length());
+    }
+
+    /**
+     * Opens the archive of a region of a file.
+     *
+     * @param file the file holding the archive.
+     * @param start the offset of the archive in the file.
+     * @param length the length of the archive.
+     * @throws IOException if the file can't be read or the region isn't a zip archive.
+     */
+    private ZipArchive(File file, long start, long length) throws IOException {
+        this.file = file;
+        this.start = start;
+        this.length = length;
+        this.entries = Collections.unmodifiableMap(readCentralDirectory());
+    }
+
+    /**
+     * Gets the entry of a name.
+     *
+     * @param name the entry name.
+     * @return the entry, null if the archive has no entry of the name.
+     */
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * Gets the entries, in the central directory order.
+     *
+     * @return the entries.
+     */
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    /**
+     * Opens the content of an entry.
+     *
+     * @param entry the entry of this archive.
+     * @return the stream of the uncompressed entry content.
+     * @throws IOException if the content can't be read.
+     */
+    public InputStream getInputStream(Entry entry) throws IOException {
+        if (entry.getMethod() != STORED && entry.getMethod() != DEFLATED) {
+            throw new ZipException("Unsupported compression method " + entry.getMethod() + " of " + entry.getName());
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            InputStream in = new RegionInputStream(raf, start + getDataOffset(raf, entry), entry.getCompressedSize());
+            return entry.getMethod() == STORED ? in : new EntryInflaterInputStream(in);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a zip archive stored in an entry, in place.
+     *
+     * @param entry the entry of this archive.
+     * @return the archive of the entry, null if the entry is compressed and has to be extracted to be read.
+     * @throws IOException if the entry content can't be read or isn't a zip archive.
+     */
+    public ZipArchive openEmbedded(Entry entry) throws IOException {
+        if (entry.getMethod() != STORED) {
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            return new ZipArchive(file, start + getDataOffset(raf, entry), entry.getSize());
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Gets the offset of the entry content in the archive, from its local header.
+     *
+     * @param raf the archive file.
+     * @param entry the entry.
+     * @return the offset of the content.
+     * @throws IOException if the local header can't be read.
+     */
+    private long getDataOffset(RandomAccessFile raf, Entry entry) throws IOException {
+        byte[] header = read(raf, entry.localHeaderOffset, LOCAL_HEADER_LENGTH);
+        if (getInt(header, 0) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("Invalid local header of " + entry.getName());
+        }
+        return entry.localHeaderOffset + LOCAL_HEADER_LENGTH + getShort(header, 26) + getShort(header, 28);
+    }
+
+    /**
+     * Reads the central directory.
+     *
+     * @return the entries by name.
+     * @throws IOException if the central directory can't be read.
+     */
+    private Map<String, Entry> readCentralDirectory() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // the end record is followed by the archive comment
+            int tailLength = (int) Math.min(length, END_LENGTH + MAX_COMMENT_LENGTH);
+            byte[] tail = read(raf, length - tailLength, tailLength);
+            int end = tailLength - END_LENGTH;
+            while (end >= 0 && getInt(tail, end) != END_SIGNATURE) {
+                end--;
+            }
+            if (end < 0) {
+                throw new ZipException("The end of central directory is not found, not a zip archive");
+            }
+            int count = getShort(tail, end + 10);
+            long size = getInt(tail, end + 12) & 0xffffffffL;
+            long offset = getInt(tail, end + 16) & 0xffffffffL;
+            if (count == 0xffff || offset == 0xffffffffL) {
+                throw new ZipException("ZIP64 archives are not supported");
+            }
+            if (offset + size > length) {
+                throw new ZipException("Invalid central directory");
+            }
+
+            byte[] directory = read(raf, offset, (int) size);
+            Map<String, Entry> result = new LinkedHashMap<String, Entry>();
+            int pos = 0;
+            for (int i = 0; i < count; i++) {
+                if (pos + CENTRAL_HEADER_LENGTH > directory.length
+                    || getInt(directory, pos) != CENTRAL_HEADER_SIGNATURE) {
+                    throw new ZipException("Invalid central directory header");
+                }
+                int nameLength = getShort(directory, pos + 28);
+                // the names are decoded as UTF-8, like java.util.zip does
+                String name = new String(directory, pos + CENTRAL_HEADER_LENGTH, nameLength, "UTF-8");
+                Entry entry = new Entry(name, getShort(directory, pos + 10), getInt(directory, pos + 12),
+                    getInt(directory, pos + 16) & 0xffffffffL, getInt(directory, pos + 20) & 0xffffffffL,
+                    getInt(directory, pos + 24) & 0xffffffffL, getInt(directory, pos + 42) & 0xffffffffL);
+                result.put(name, entry);
+                pos += CENTRAL_HEADER_LENGTH + nameLength + getShort(directory, pos + 30)
+                    + getShort(directory, pos + 32);
+            }
+            return result;
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Reads bytes of the archive.
+     *
+     * @param raf the archive file.
+     * @param offset the offset in the archive.
+     * @param count the number of bytes.
+     * @return the bytes.
+     * @throws IOException if the bytes can't be read.
+     */
+    private byte[] read(RandomAccessFile raf, long offset, int count) throws IOException {
+        byte[] bytes = new byte[count];
+        raf.seek(start + offset);
+        raf.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Gets a little endian unsigned short.
+     *
+     * @param bytes the bytes.
+     * @param pos the position of the value.
+     * @return the value.
+     */
+    private static int getShort(byte[] bytes, int pos) {
+        return (bytes[pos] & 0xff) | ((bytes[pos + 1] & 0xff) << 8);
+    }
+
+    /**
+     * Gets a little endian int.
+     *
+     * @param bytes the bytes.
+     * @param pos the position of the value.
+     * @return the value.
+     */
+    private static int getInt(byte[] bytes, int pos) {
+        return getShort(bytes, pos) | (getShort(bytes, pos + 2) << 16);
+    }
+
+    /**
+     * <p>An entry of the archive, as described by the central directory.</p>
+     *
+     * <p>
+     * <strong>Thread Safety:</strong> This class is immutable and thread safe.
+     * </p>
+     */
+    public static class Entry {
+
+        /**
+         * The entry name.
+         */
+        private final String name;
+
+        /**
+         * The compression method.
+         */
+        private final int method;
+
+        /**
+         * The modification time in the MS-DOS format.
+         */
+        private final int dosTime;
+
+        /**
+         * The CRC-32 of the uncompressed content.
+         */
+        private final long crc;
+
+        /**
+         * The compressed size.
+         */
+        private final long compressedSize;
+
+        /**
+         * The uncompressed size.
+         */
+        private final long size;
+
+        /**
+         * The offset of the local header in the archive.
+         */
+        private final long localHeaderOffset;
+
+        /**
+         * Creates the entry.
+         *
+         * @param name the entry name.
+         * @param method the compression method.
+         * @param dosTime the modification time in the MS-DOS format.
+         * @param crc the CRC-32 of the uncompressed content.
+         * @param compressedSize the compressed size.
+         * @param size the uncompressed size.
+         * @param localHeaderOffset the offset of the local header in the archive.
+         */
+        Entry(String name, int method, int dosTime, long crc, long compressedSize, long size,
+            long localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        /**
+         * Gets the entry name.
+         *
+         * @return the entry name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Checks whether the entry is a directory.
+         *
+         * @return true if the entry is a directory, false otherwise.
+         */
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        /**
+         * Gets the compression method.
+         *
+         * @return the compression method.
+         */
+        public int getMethod() {
+            return method;
+        }
+
+        /**
+         * Gets the CRC-32 of the uncompressed content.
+         *
+         * @return the CRC-32.
+         */
+        public long getCrc() {
+            return crc;
+        }
+
+        /**
+         * Gets the compressed size.
+         *
+         * @return the compressed size.
+         */
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        /**
+         * Gets the uncompressed size.
+         *
+         * @return the uncompressed size.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the modification time.
+         *
+         * @return the modification time in milliseconds.
+         */
+        public long getLastModified() {
+            Calendar calendar = Calendar.getInstance();
+            calendar.clear();
+            calendar.set(((dosTime >> 25) & 0x7f) + 1980, ((dosTime >> 21) & 0x0f) - 1, (dosTime >> 16) & 0x1f,
+                (dosTime >> 11) & 0x1f, (dosTime >> 5) & 0x3f, (dosTime << 1) & 0x3e);
+            return calendar.getTimeInMillis();
+        }
+    }
+
+    /**
+     * <p>The stream of a region of the archive file. Closing it closes the file.</p>
+     */
+    private static class RegionInputStream extends InputStream {
+
+        /**
+         * The archive file.
+         */
+        private final RandomAccessFile raf;
+
+        /**
+         * The number of bytes left.
+         */
+        private long remaining;
+
+        /**
+         * Creates the stream.
+         *
+         * @param raf the archive file.
+         * @param offset the offset of the region in the file.
+         * @param length the length of the region.
+         * @throws IOException if the file can't be positioned.
+         */
+        RegionInputStream(RandomAccessFile raf, long offset, long length) throws IOException {
+            this.raf = raf;
+            this.remaining = length;
+            raf.seek(offset);
+        }
+
+        /**
+         * Reads a byte.
+         *
+         * @return the byte, -1 at the end of the region.
+         * @throws IOException if an I/O error occurs.
+         */
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        /**
+         * Reads bytes.
+         *
+         * @param b the buffer.
+         * @param off the offset in the buffer.
+         * @param len the maximum number of bytes.
+         * @return the number of bytes read, -1 at the end of the region.
+         * @throws IOException if an I/O error occurs.
+         */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = raf.read(b, off, (int) Math.min(len, remaining));
+            if (count == -1) {
+                throw new EOFException("Unexpected end of the zip archive");
+            }
+            remaining -= count;
+            return count;
+        }
+
+        /**
+         * Gets the number of bytes left.
+         *
+         * @return the number of bytes left, at most <code>Integer.MAX_VALUE</code>.
+         */
+        @Override
+        public int available() {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Closes the file.
+         *
+         * @throws IOException if an I/O error occurs.
+         */
+        @Override
+        public void close() throws IOException {
+            raf.close();
+        }
+    }
+
+    /**
+     * <p>The stream inflating a deflated entry. Like the streams of <code>ZipFile</code>, it feeds the inflater a
+     * dummy byte at the end of the compressed data, which the raw inflater may need to finish.</p>
+     */
+    private static class EntryInflaterInputStream extends InflaterInputStream {
+
+        /**
+         * Whether the dummy byte was fed.
+         */
+        private boolean eof;
+
+        /**
+         * Creates the stream.
+         *
+         * @param in the compressed data.
+         */
+        EntryInflaterInputStream(InputStream in) {
+            super(in, new Inflater(true), 8192);
+        }
+
+        /**
+         * Feeds the inflater.
+         *
+         * @throws IOException if an I/O error occurs.
+         */
+        @Override
+        protected void fill() throws IOException {
+            if (eof) {
+                throw new EOFException("Unexpected end of the zip entry");
+            }
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        /**
+         * Closes the stream and releases the inflater.
+         *
+         * @throws IOException if an I/O error occurs.
+         */
+        @Override
+        public void close() throws IOException {
+            inf.end();
+            super.close();
+        }
+    }
+}
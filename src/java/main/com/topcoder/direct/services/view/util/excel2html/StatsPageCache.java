@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util.excel2html;
+
+import org.apache.poi.POIXMLDocument;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * <p>
+ * The cache of the rendered internal stats pages. The pages are keyed by the path, the modification time and the
+ * length of the excel file and by the sheet index, so a page is rendered again once the file is replaced, and
+ * {@link #invalidate(String)} drops the pages of a file as soon as it's uploaded. The cached pages are evicted in
+ * least recently used order once their total length exceeds <code>maxCachedChars</code>.
+ * </p>
+ *
+ * <p>
+ * A page missing from the cache is rendered once even when it's requested by several threads at the same time: the
+ * first request renders it and the others wait for its result. <code>XLSX</code> files are rendered with
+ * {@link XSSFEventToHtml}, which streams the sheet instead of loading the workbook; <code>XLS</code> files (which
+ * can't have more than 65536 rows) are still rendered with {@link ToHtml}.
+ * </p>
+ *
+ * <p>
+ * The cache is a singleton, configured in the spring application context through the {@link #getInstance()} factory
+ * method.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class StatsPageCache {
+
+    /**
+     * The default maximum total length of the cached pages.
+     */
+    private static final long DEFAULT_MAX_CACHED_CHARS = 16 * 1024 * 1024;
+
+    /**
+     * The singleton instance.
+     */
+    private static final StatsPageCache singleton = new StatsPageCache();
+
+    /**
+     * The cached pages in access order. Guarded by <code>this</code>.
+     */
+    private final Map<PageKey, StatsPage> pages = new LinkedHashMap<PageKey, StatsPage>(16, 0.75f, true);
+
+    /**
+     * The renderings in progress.
+     */
+    private final ConcurrentMap<PageKey, FutureTask<StatsPage>> renderings =
+            new ConcurrentHashMap<PageKey, FutureTask<StatsPage>>();
+
+    /**
+     * The total length of the cached pages. Guarded by <code>this</code>.
+     */
+    private long cachedChars;
+
+    /**
+     * The maximum total length of the cached pages.
+     */
+    private volatile long maxCachedChars = DEFAULT_MAX_CACHED_CHARS;
+
+    /**
+     * Private constructor.
+     */
+    private StatsPageCache() {
+    }
+
+    /**
+     * Gets the singleton instance.
+     *
+     * @return the singleton instance.
+     */
+    public static StatsPageCache getInstance() {
+        return singleton;
+    }
+
+    /**
+     * Gets the stats page of a sheet of the excel file, rendering it if it's not cached.
+     *
+     * @param excelFile the path to the excel file.
+     * @param sheetIndex the index of the sheet to display.
+     * @return the stats page.
+     * @throws IllegalArgumentException if the file isn't a valid workbook, or the sheet index is out of range.
+     * @throws Exception if any other error occurs.
+     */
+    public StatsPage getStatsPage(final String excelFile, final int sheetIndex) throws Exception {
+        File file = new File(excelFile);
+        PageKey key = new PageKey(file.getAbsolutePath(), file.lastModified(), file.length(), sheetIndex);
+        synchronized (this) {
+            StatsPage page = pages.get(key);
+            if (page != null) {
+                return page;
+            }
+        }
+
+        FutureTask<StatsPage> task = new FutureTask<StatsPage>(new Callable<StatsPage>() {
+            public StatsPage call() throws Exception {
+                return render(excelFile, sheetIndex);
+            }
+        });
+        FutureTask<StatsPage> rendering = renderings.putIfAbsent(key, task);
+        if (rendering == null) {
+            rendering = task;
+            try {
+                task.run();
+                cache(key, file, task);
+            } finally {
+                renderings.remove(key, task);
+            }
+        }
+
+        try {
+            return rendering.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * Drops the cached pages of an excel file.
+     *
+     * @param excelFile the path to the excel file.
+     */
+    public synchronized void invalidate(String excelFile) {
+        removePages(new File(excelFile).getAbsolutePath(), null);
+    }
+
+    /**
+     * Sets the maximum total length of the cached pages.
+     *
+     * @param maxCachedChars the maximum total length of the cached pages.
+     */
+    public void setMaxCachedChars(long maxCachedChars) {
+        if (maxCachedChars <= 0) {
+            throw new IllegalArgumentException("maxCachedChars should be positive.");
+        }
+        this.maxCachedChars = maxCachedChars;
+    }
+
+    /**
+     * Caches a rendered page, unless the rendering failed or the file was changed meanwhile, and evicts the least
+     * recently used pages exceeding the maximum total length.
+     *
+     * @param key the key of the page.
+     * @param file the excel file.
+     * @param task the finished rendering.
+     */
+    private synchronized void cache(PageKey key, File file, FutureTask<StatsPage> task) {
+        StatsPage page;
+        try {
+            page = task.get();
+        } catch (Exception e) {
+            // the error is thrown to the requests waiting for the page
+            return;
+        }
+        if (file.lastModified() != key.lastModified || file.length() != key.length) {
+            return;
+        }
+
+        // drop the pages of the previous versions of the file
+        removePages(key.path, key);
+
+        pages.put(key, page);
+        cachedChars += page.getTableData().length();
+        Iterator<Map.Entry<PageKey, StatsPage>> it = pages.entrySet().iterator();
+        while (cachedChars > maxCachedChars && it.hasNext()) {
+            cachedChars -= it.next().getValue().getTableData().length();
+            it.remove();
+        }
+    }
+
+    /**
+     * Removes the cached pages of an excel file. Guarded by <code>this</code>.
+     *
+     * @param path the absolute path to the excel file.
+     * @param current the key of the version of the file to keep, null to remove all the pages of the file.
+     */
+    private void removePages(String path, PageKey current) {
+        for (Iterator<Map.Entry<PageKey, StatsPage>> it = pages.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<PageKey, StatsPage> entry = it.next();
+            PageKey key = entry.getKey();
+            if (key.path.equals(path) && (current == null || key.lastModified != current.lastModified
+                || key.length != current.length)) {
+                cachedChars -= entry.getValue().getTableData().length();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Renders the stats page of a sheet.
+     *
+     * @param excelFile the path to the excel file.
+     * @param sheetIndex the index of the sheet to display.
+     * @return the stats page.
+     * @throws Exception if any error occurs.
+     */
+    private static StatsPage render(String excelFile, int sheetIndex) throws Exception {
+        boolean ooxml;
+        InputStream in = new BufferedInputStream(new FileInputStream(excelFile));
+        try {
+            ooxml = POIXMLDocument.hasOOXMLHeader(in);
+        } finally {
+            in.close();
+        }
+
+        List<String> tabs = new ArrayList<String>();
+        String tableData = ooxml ? XSSFEventToHtml.generateStatsPage(sheetIndex, excelFile, tabs)
+                : ToHtml.generateStatsPage(sheetIndex, excelFile, tabs);
+        return new StatsPage(tableData, tabs);
+    }
+
+    /**
+     * <p>A rendered stats page.</p>
+     *
+     * <p>
+     * <strong>Thread Safety:</strong> This class is immutable and thread safe.
+     * </p>
+     */
+    public static class StatsPage {
+
+        /**
+         * The HTML of the displayed sheet.
+         */
+        private final String tableData;
+
+        /**
+         * The names of the sheets having rows.
+         */
+        private final List<String> sheetTabs;
+
+        /**
+         * Creates the page.
+         *
+         * @param tableData the HTML of the displayed sheet.
+         * @param sheetTabs the names of the sheets having rows.
+         */
+        StatsPage(String tableData, List<String> sheetTabs) {
+            this.tableData = tableData;
+            this.sheetTabs = Collections.unmodifiableList(sheetTabs);
+        }
+
+        /**
+         * Gets the HTML of the displayed sheet.
+         *
+         * @return the HTML of the displayed sheet.
+         */
+        public String getTableData() {
+            return tableData;
+        }
+
+        /**
+         * Gets the names of the sheets having rows.
+         *
+         * @return the names of the sheets having rows.
+         */
+        public List<String> getSheetTabs() {
+            return sheetTabs;
+        }
+    }
+
+    /**
+     * <p>The key of a cached page.</p>
+     */
+    private static class PageKey {
+
+        /**
+         * The absolute path to the excel file.
+         */
+        private final String path;
+
+        /**
+         * The modification time of the excel file.
+         */
+        private final long lastModified;
+
+        /**
+         * The length of the excel file.
+         */
+        private final long length;
+
+        /**
+         * The index of the displayed sheet.
+         */
+        private final int sheetIndex;
+
+        /**
+         * Creates the key.
+         *
+         * @param path the absolute path to the excel file.
+         * @param lastModified the modification time of the excel file.
+         * @param length the length of the excel file.
+         * @param sheetIndex the index of the displayed sheet.
+         */
+        PageKey(String path, long lastModified, long length, int sheetIndex) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.sheetIndex = sheetIndex;
+        }
+
+        /**
+         * Checks whether the key equals another object.
+         *
+         * @param obj the other object.
+         * @return true if the keys are equal, false otherwise.
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PageKey)) {
+                return false;
+            }
+            PageKey other = (PageKey) obj;
+            return path.equals(other.path) && lastModified == other.lastModified && length == other.length
+                && sheetIndex == other.sheetIndex;
+        }
+
+        /**
+         * Gets the hash code of the key.
+         *
+         * @return the hash code.
+         */
+        @Override
+        public int hashCode() {
+            int result = path.hashCode();
+            result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+            result = 31 * result + (int) (length ^ (length >>> 32));
+            return 31 * result + sheetIndex;
+        }
+    }
+}
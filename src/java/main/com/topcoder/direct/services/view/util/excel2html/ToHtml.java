@@ -27,8 +27,16 @@ import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
  * This example shows how to display a spreadsheet in HTML using the classes for
  * spreadsheet display.
  *
+ * <p>
+ * Version 1.1 change notes:
+ * <ol>
+ * <li>The style and cell content rendering is exposed to {@link XSSFEventToHtml}
+ * through package private static methods, so both converters produce the same HTML.</li>
+ * </ol>
+ * </p>
+ *
  * @author FireIce
- * @version  1.0
+ * @version  1.1
  */
 public class ToHtml {
     private final Workbook wb;
@@ -42,7 +50,14 @@ public class ToHtml {
     private boolean generateAllSheets = false;
     private int sheetIndex;
 
-    private static final String DEFAULTS_CLASS = "excelDefaults";
+    static final String DEFAULTS_CLASS = "excelDefaults";
+
+    /**
+     * The format of the dates displayed in the second (header) row.
+     *
+     * @since 1.1
+     */
+    static final String HEADER_DATE_FORMAT = "MM/dd/yyyy";
 
     private static final Map<Short, String> ALIGN = mapFor(ALIGN_LEFT, "left",
             ALIGN_CENTER, "center", ALIGN_RIGHT, "right", ALIGN_FILL, "left",
@@ -219,26 +234,7 @@ public class ToHtml {
         ensureOut();
 
         // First, copy the base css
-        BufferedReader in = null;
-        try {
-            in = new BufferedReader(new InputStreamReader(
-                    getClass().getClassLoader().getResourceAsStream("excelStyle.css")));
-            String line;
-            while ((line = in.readLine()) != null) {
-                out.format("%s%n", line);
-            }
-        } catch (IOException e) {
-            throw new IllegalStateException("Reading standard css", e);
-        } finally {
-            if (in != null) {
-                try {
-                    in.close();
-                } catch (IOException e) {
-                    //noinspection ThrowFromFinallyBlock
-                    throw new IllegalStateException("Reading standard css", e);
-                }
-            }
-        }
+        printBaseStyles(out);
 
         // now add css for each used style
         Set<String> seen = new HashSet<String>();
@@ -275,30 +271,71 @@ public class ToHtml {
         }
     }
 
+    /**
+     * Copies the base css of the stats page.
+     *
+     * @param out where the css is written.
+     * @since 1.1
+     */
+    static void printBaseStyles(Formatter out) {
+        BufferedReader in = null;
+        try {
+            in = new BufferedReader(new InputStreamReader(
+                    ToHtml.class.getClassLoader().getResourceAsStream("excelStyle.css")));
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.format("%s%n", line);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Reading standard css", e);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    //noinspection ThrowFromFinallyBlock
+                    throw new IllegalStateException("Reading standard css", e);
+                }
+            }
+        }
+    }
+
     private void printStyle(int sheetIndex, CellStyle style) {
-        out.format(".%s .%s {%n", DEFAULTS_CLASS, styleName(sheetIndex, style));
-        styleContents(style);
+        printStyle(out, styleName(sheetIndex, style), style, wb.getFontAt(style.getFontIndex()), helper);
+    }
+
+    /**
+     * Prints the css rule of a cell style.
+     *
+     * @param out where the rule is written.
+     * @param styleName the name of the style.
+     * @param style the cell style.
+     * @param font the font of the cell style.
+     * @param helper the helper printing the colors of the style.
+     * @since 1.1
+     */
+    static void printStyle(Formatter out, String styleName, CellStyle style, Font font, HtmlHelper helper) {
+        out.format(".%s .%s {%n", DEFAULTS_CLASS, styleName);
+        styleContents(out, style, font, helper);
         out.format("}%n");
     }
 
-    private void styleContents(CellStyle style) {
-        styleOut("text-align", style.getAlignment(), ALIGN);
-        styleOut("vertical-align", style.getAlignment(), VERTICAL_ALIGN);
-        fontStyle(style);
-        borderStyles(style);
+    private static void styleContents(Formatter out, CellStyle style, Font font, HtmlHelper helper) {
+        styleOut(out, "text-align", style.getAlignment(), ALIGN);
+        styleOut(out, "vertical-align", style.getAlignment(), VERTICAL_ALIGN);
+        fontStyle(out, font);
+        borderStyles(out, style);
         helper.colorStyles(style, out);
     }
 
-    private void borderStyles(CellStyle style) {
-        styleOut("border-left", style.getBorderLeft(), BORDER);
-        styleOut("border-right", style.getBorderRight(), BORDER);
-        styleOut("border-top", style.getBorderTop(), BORDER);
-        styleOut("border-bottom", style.getBorderBottom(), BORDER);
+    private static void borderStyles(Formatter out, CellStyle style) {
+        styleOut(out, "border-left", style.getBorderLeft(), BORDER);
+        styleOut(out, "border-right", style.getBorderRight(), BORDER);
+        styleOut(out, "border-top", style.getBorderTop(), BORDER);
+        styleOut(out, "border-bottom", style.getBorderBottom(), BORDER);
     }
 
-    private void fontStyle(CellStyle style) {
-        Font font = wb.getFontAt(style.getFontIndex());
-
+    private static void fontStyle(Formatter out, Font font) {
         if (font.getBoldweight() >= HSSFFont.BOLDWEIGHT_NORMAL)
             out.format("  font-weight: bold;%n");
         if (font.getItalic())
@@ -317,17 +354,29 @@ public class ToHtml {
     private String styleName(int sheetIndex, CellStyle style) {
         if (style == null)
             style = wb.getCellStyleAt((short) 0);
+        return styleName(sheetIndex, style.getIndex());
+    }
+
+    /**
+     * Gets the css class name of a cell style.
+     *
+     * @param sheetIndex the index of the sheet.
+     * @param styleIndex the index of the cell style in the workbook.
+     * @return the css class name.
+     * @since 1.1
+     */
+    static String styleName(int sheetIndex, short styleIndex) {
         StringBuilder sb = new StringBuilder();
         Formatter fmt = new Formatter(sb);
-        if (style.getIndex() > 0) {
-            fmt.format("style_%02x_%02x", sheetIndex, style.getIndex());
+        if (styleIndex > 0) {
+            fmt.format("style_%02x_%02x", sheetIndex, styleIndex);
         } else {
-            fmt.format("style_%02x", style.getIndex());
+            fmt.format("style_%02x", styleIndex);
         }
         return fmt.toString();
     }
 
-    private <K> void styleOut(String attr, K key, Map<K, String> mapping) {
+    private static <K> void styleOut(Formatter out, String attr, K key, Map<K, String> mapping) {
         String value = mapping.get(key);
         if (value != null) {
             out.format("  %s: %s;%n", attr, value);
@@ -420,24 +469,14 @@ public class ToHtml {
                             try {
                                 Date date = cell.getDateCellValue();
                                 if(date != null) {
-                                    content = new SimpleDateFormat("MM/dd/yyyy").format(date);
+                                    content = new SimpleDateFormat(HEADER_DATE_FORMAT).format(date);
                                 }
                             } catch (Exception e) {
                                 // not date cell, so ignore it.
                             }
                         }
 
-                        // hack it.
-                        if (content.contains("(0)")) {
-                            content = content.replace("(0)", "-");
-                        }
-
-                        if (content.contains("(0.00)")) {
-                            content = content.replace("(0.00)", "-");
-                        }
-
-                        if (content.equals(""))
-                            content = "&nbsp;";
+                        content = displayContent(content);
                     }
                 }
                 if (!content.equals("&nbsp;")) {
@@ -459,9 +498,43 @@ public class ToHtml {
         out.format("</tbody>%n");
     }
 
+    /**
+     * Replaces the zero placeholders and the empty content of a formatted cell.
+     *
+     * @param content the formatted cell content.
+     * @return the content to display.
+     * @since 1.1
+     */
+    static String displayContent(String content) {
+        // hack it.
+        if (content.contains("(0)")) {
+            content = content.replace("(0)", "-");
+        }
+
+        if (content.contains("(0.00)")) {
+            content = content.replace("(0.00)", "-");
+        }
+
+        if (content.equals(""))
+            content = "&nbsp;";
+        return content;
+    }
+
     private String tagStyle(Cell cell, CellStyle style) {
+        return tagStyle(ultimateCellType(cell), style);
+    }
+
+    /**
+     * Gets the inline style aligning a cell of the general alignment by its type.
+     *
+     * @param cellType the type of the cell value.
+     * @param style the cell style.
+     * @return the inline style attribute, empty if none.
+     * @since 1.1
+     */
+    static String tagStyle(int cellType, CellStyle style) {
         if (style.getAlignment() == ALIGN_GENERAL) {
-            switch (ultimateCellType(cell)) {
+            switch (cellType) {
             case HSSFCell.CELL_TYPE_STRING:
                 return "style=\"text-align: left;\"";
             case HSSFCell.CELL_TYPE_BOOLEAN:
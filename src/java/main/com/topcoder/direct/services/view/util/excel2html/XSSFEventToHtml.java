@@ -0,0 +1,646 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util.excel2html;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.format.CellFormat;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.model.ThemesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.Formatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Converts a sheet of an <code>XLSX</code> workbook to the HTML of the internal stats page with the SAX (event) API.
+ * The sheet XML is streamed twice, once to get the column bounds and the used styles and once to print the rows, so
+ * only the styles, the shared strings and the current row are kept in memory, instead of the whole workbook as
+ * {@link ToHtml} does. The produced HTML is the same as the one of {@link ToHtml#generateStatsPage}, except that only
+ * the styles used by the displayed sheet are printed.
+ * </p>
+ *
+ * <p>
+ * <strong>Thread Safety:</strong> This class is immutable and thread safe.
+ * </p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public final class XSSFEventToHtml {
+
+    /**
+     * The index of the default cell style.
+     */
+    private static final int DEFAULT_STYLE = 0;
+
+    /**
+     * The feature of the SAX parser disallowing the DOCTYPE declarations.
+     */
+    private static final String DISALLOW_DOCTYPE_FEATURE = "http://apache.org/xml/features/disallow-doctype-decl";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private XSSFEventToHtml() {
+    }
+
+    /**
+     * Generates the stats page HTML of a sheet of the workbook.
+     *
+     * @param sheetIndex the index of the sheet to display.
+     * @param excelFile the path to the <code>XLSX</code> file.
+     * @param tabs the list to which the names of the sheets having rows are added.
+     * @return the HTML of the sheet.
+     * @throws IllegalArgumentException if the file isn't a valid workbook, or the sheet index is out of range.
+     * @throws Exception if any other error occurs.
+     */
+    public static String generateStatsPage(int sheetIndex, String excelFile, List<String> tabs) throws Exception {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(excelFile, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IllegalArgumentException("Cannot create workbook from stream", e);
+        }
+
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+            List<PackagePart> themes = pkg.getPartsByContentType(XSSFRelation.THEME.getContentType());
+            if (!themes.isEmpty()) {
+                styles.setTheme(new ThemesTable(themes.get(0), null));
+            }
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+
+            WorkbookHandler workbook = new WorkbookHandler();
+            parse(reader.getWorkbookData(), workbook);
+
+            // collect the tabs, and the column bounds and the styles of the displayed sheet
+            BoundsHandler bounds = null;
+            int index = 0;
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                InputStream in = sheets.next();
+                boolean hasRows;
+                if (index == sheetIndex) {
+                    bounds = new BoundsHandler();
+                    parse(in, bounds);
+                    hasRows = bounds.hasRows;
+                } else {
+                    hasRows = hasRows(in);
+                }
+                if (hasRows) {
+                    tabs.add(sheets.getSheetName());
+                }
+                index++;
+            }
+            if (bounds == null) {
+                throw new IllegalArgumentException("Sheet index (" + sheetIndex + ") is out of range (0.."
+                    + (index - 1) + ")");
+            }
+
+            StringBuilder strBuf = new StringBuilder();
+            Formatter out = new Formatter(strBuf);
+            printStyles(out, sheetIndex, styles, bounds.styles);
+
+            Iterator<InputStream> it = reader.getSheetsData();
+            for (int i = 0; i < sheetIndex; i++) {
+                it.next().close();
+            }
+            out.format("<div id='sheet_%s'><table class=%s>%n", sheetIndex, ToHtml.DEFAULTS_CLASS);
+            out.format("<col/>%n");
+            for (int i = bounds.firstColumn; i < bounds.endColumn; i++) {
+                out.format("<col/>%n");
+            }
+            out.format("<tbody>%n");
+            parse(it.next(), new RowsHandler(out, sheetIndex, bounds, styles, strings, workbook.date1904));
+            out.format("</tbody>%n");
+            out.format("</table></div>%n");
+            out.flush();
+
+            return strBuf.toString();
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * Prints the inline styles of the sheet.
+     *
+     * @param out where the styles are written.
+     * @param sheetIndex the index of the sheet.
+     * @param styles the styles of the workbook.
+     * @param used the indexes of the styles used by the sheet.
+     */
+    private static void printStyles(Formatter out, int sheetIndex, StylesTable styles, BitSet used) {
+        HtmlHelper helper = new XSSFHtmlHelper();
+        used.set(DEFAULT_STYLE);
+
+        out.format("<style type=\"text/css\">%n");
+        ToHtml.printBaseStyles(out);
+        for (int i = used.nextSetBit(0); i >= 0; i = used.nextSetBit(i + 1)) {
+            XSSFCellStyle style = styles.getStyleAt(i);
+            ToHtml.printStyle(out, ToHtml.styleName(sheetIndex, style.getIndex()), style,
+                styles.getFontAt(style.getFontIndex()), helper);
+        }
+        out.format("</style>%n");
+    }
+
+    /**
+     * Checks whether a sheet has rows. The parsing stops at the first row.
+     *
+     * @param in the sheet XML.
+     * @return true if the sheet has rows, false otherwise.
+     * @throws Exception if any error occurs.
+     */
+    private static boolean hasRows(InputStream in) throws Exception {
+        try {
+            parse(in, new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes)
+                    throws SAXException {
+                    if ("row".equals(localName)) {
+                        throw new StopParsingException();
+                    }
+                }
+            });
+            return false;
+        } catch (StopParsingException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Parses the XML of a workbook part, and closes the stream.
+     *
+     * @param in the XML of the part.
+     * @param handler the SAX handler.
+     * @throws IOException if an I/O error occurs.
+     * @throws SAXException if the XML can't be parsed.
+     * @throws ParserConfigurationException if the parser can't be created.
+     */
+    private static void parse(InputStream in, DefaultHandler handler)
+        throws IOException, SAXException, ParserConfigurationException {
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(DISALLOW_DOCTYPE_FEATURE, true);
+            XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+            xmlReader.setContentHandler(handler);
+            xmlReader.parse(new InputSource(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Gets the zero based column index of a cell reference such as <code>AB12</code>.
+     *
+     * @param ref the cell reference.
+     * @return the column index.
+     */
+    private static int getColumnIndex(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+            column = column * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * <p>The exception stopping the parsing of a sheet once the needed data is read.</p>
+     */
+    private static class StopParsingException extends SAXException {
+
+        /**
+         * Creates the exception.
+         */
+        StopParsingException() {
+            super("Parsing stopped.");
+        }
+    }
+
+    /**
+     * <p>A cell read from the sheet XML.</p>
+     */
+    private static class SheetCell {
+
+        /**
+         * The index of the cell style.
+         */
+        private int style;
+
+        /**
+         * The (cached) type of the cell value, one of the <code>Cell.CELL_TYPE_XXX</code> constants.
+         */
+        private int type;
+
+        /**
+         * The cell value, a <code>Double</code> for the numeric cells and a <code>String</code> otherwise.
+         */
+        private Object value;
+    }
+
+    /**
+     * <p>The handler reading the <code>date1904</code> property of the workbook.</p>
+     */
+    private static class WorkbookHandler extends DefaultHandler {
+
+        /**
+         * Whether the workbook uses the 1904 date system.
+         */
+        private boolean date1904;
+
+        /**
+         * Reads the workbook properties.
+         *
+         * @param uri the namespace URI.
+         * @param localName the local name.
+         * @param qName the qualified name.
+         * @param attributes the attributes.
+         */
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("workbookPr".equals(localName)) {
+                String value = attributes.getValue("date1904");
+                date1904 = "1".equals(value) || "true".equals(value);
+            }
+        }
+    }
+
+    /**
+     * <p>The base handler of the sheet XML, collecting the cells of each row.</p>
+     */
+    private abstract static class SheetHandler extends DefaultHandler {
+
+        /**
+         * The shared strings, null if they aren't needed.
+         */
+        private final ReadOnlySharedStringsTable strings;
+
+        /**
+         * The cells of the current row by column index.
+         */
+        private final Map<Integer, SheetCell> cells = new HashMap<Integer, SheetCell>();
+
+        /**
+         * The text of the current value.
+         */
+        private final StringBuilder text = new StringBuilder();
+
+        /**
+         * The zero based index of the current row.
+         */
+        private int rowNum = -1;
+
+        /**
+         * The column index of the current cell.
+         */
+        private int column;
+
+        /**
+         * The first column of the current row.
+         */
+        private int firstCellNum;
+
+        /**
+         * The column after the last column of the current row.
+         */
+        private int lastCellNum;
+
+        /**
+         * The current cell.
+         */
+        private SheetCell cell;
+
+        /**
+         * The type attribute of the current cell.
+         */
+        private String cellType;
+
+        /**
+         * Whether the value text of the current cell is read.
+         */
+        private boolean inValue;
+
+        /**
+         * Whether the current cell has a value.
+         */
+        private boolean hasValue;
+
+        /**
+         * Creates the handler.
+         *
+         * @param strings the shared strings, null if they aren't needed.
+         */
+        protected SheetHandler(ReadOnlySharedStringsTable strings) {
+            this.strings = strings;
+        }
+
+        /**
+         * Handles a row.
+         *
+         * @param rowNum the zero based index of the row.
+         * @param firstCellNum the first column of the row.
+         * @param lastCellNum the column after the last column of the row.
+         * @param rowCells the cells of the row by column index.
+         */
+        protected abstract void handleRow(int rowNum, int firstCellNum, int lastCellNum,
+            Map<Integer, SheetCell> rowCells);
+
+        /**
+         * Starts a row, a cell or a value.
+         *
+         * @param uri the namespace URI.
+         * @param localName the local name.
+         * @param qName the qualified name.
+         * @param attributes the attributes.
+         */
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("row".equals(localName)) {
+                String ref = attributes.getValue("r");
+                rowNum = ref == null ? rowNum + 1 : Integer.parseInt(ref) - 1;
+                column = -1;
+                firstCellNum = -1;
+                lastCellNum = -1;
+                cells.clear();
+            } else if ("c".equals(localName)) {
+                String ref = attributes.getValue("r");
+                column = ref == null ? column + 1 : getColumnIndex(ref);
+                String style = attributes.getValue("s");
+                cell = new SheetCell();
+                cell.style = style == null ? DEFAULT_STYLE : Integer.parseInt(style);
+                cellType = attributes.getValue("t");
+                hasValue = false;
+                text.setLength(0);
+            } else if ("v".equals(localName) || ("t".equals(localName) && cell != null)) {
+                inValue = true;
+                hasValue = true;
+            }
+        }
+
+        /**
+         * Collects the value text.
+         *
+         * @param ch the characters.
+         * @param start the start offset.
+         * @param length the number of characters.
+         */
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                text.append(ch, start, length);
+            }
+        }
+
+        /**
+         * Ends a row, a cell or a value.
+         *
+         * @param uri the namespace URI.
+         * @param localName the local name.
+         * @param qName the qualified name.
+         */
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if ("v".equals(localName) || "t".equals(localName)) {
+                inValue = false;
+            } else if ("c".equals(localName)) {
+                endCell();
+                cells.put(column, cell);
+                firstCellNum = firstCellNum < 0 ? column : Math.min(firstCellNum, column);
+                lastCellNum = Math.max(lastCellNum, column + 1);
+                cell = null;
+            } else if ("row".equals(localName)) {
+                handleRow(rowNum, firstCellNum, lastCellNum, cells);
+            }
+        }
+
+        /**
+         * Sets the type and the value of the current cell.
+         */
+        private void endCell() {
+            String value = text.toString();
+            if (!hasValue) {
+                cell.type = Cell.CELL_TYPE_BLANK;
+                cell.value = "";
+            } else if ("s".equals(cellType)) {
+                cell.type = Cell.CELL_TYPE_STRING;
+                cell.value = strings == null ? "" : strings.getEntryAt(Integer.parseInt(value.trim()));
+            } else if ("inlineStr".equals(cellType) || "str".equals(cellType)) {
+                cell.type = Cell.CELL_TYPE_STRING;
+                cell.value = value;
+            } else if ("b".equals(cellType)) {
+                cell.type = Cell.CELL_TYPE_BOOLEAN;
+                cell.value = "1".equals(value.trim()) ? "TRUE" : "FALSE";
+            } else if ("e".equals(cellType)) {
+                cell.type = Cell.CELL_TYPE_ERROR;
+                cell.value = "?";
+            } else {
+                cell.type = Cell.CELL_TYPE_NUMERIC;
+                cell.value = Double.valueOf(value.trim());
+            }
+        }
+    }
+
+    /**
+     * <p>The handler collecting the column bounds and the used styles of the sheet.</p>
+     */
+    private static class BoundsHandler extends SheetHandler {
+
+        /**
+         * The indexes of the used styles.
+         */
+        private final BitSet styles = new BitSet();
+
+        /**
+         * Whether the sheet has rows.
+         */
+        private boolean hasRows;
+
+        /**
+         * The first column of the sheet.
+         */
+        private int firstColumn;
+
+        /**
+         * The column after the last column of the sheet.
+         */
+        private int endColumn;
+
+        /**
+         * Creates the handler.
+         */
+        BoundsHandler() {
+            super(null);
+        }
+
+        /**
+         * Updates the column bounds and the used styles with the row.
+         *
+         * @param rowNum the zero based index of the row.
+         * @param firstCellNum the first column of the row.
+         * @param lastCellNum the column after the last column of the row.
+         * @param rowCells the cells of the row by column index.
+         */
+        @Override
+        protected void handleRow(int rowNum, int firstCellNum, int lastCellNum, Map<Integer, SheetCell> rowCells) {
+            if (!hasRows) {
+                hasRows = true;
+                firstColumn = Integer.MAX_VALUE;
+            }
+            if (firstCellNum >= 0) {
+                firstColumn = Math.min(firstColumn, firstCellNum);
+                endColumn = Math.max(endColumn, lastCellNum);
+            }
+            for (SheetCell sheetCell : rowCells.values()) {
+                styles.set(sheetCell.style);
+            }
+        }
+    }
+
+    /**
+     * <p>The handler printing the rows of the sheet.</p>
+     */
+    private static class RowsHandler extends SheetHandler {
+
+        /**
+         * Where the rows are written.
+         */
+        private final Formatter out;
+
+        /**
+         * The index of the sheet.
+         */
+        private final int sheetIndex;
+
+        /**
+         * The column bounds of the sheet.
+         */
+        private final BoundsHandler bounds;
+
+        /**
+         * The styles of the workbook.
+         */
+        private final StylesTable styles;
+
+        /**
+         * Whether the workbook uses the 1904 date system.
+         */
+        private final boolean date1904;
+
+        /**
+         * The css class name of the default style.
+         */
+        private final String defaultStyleName;
+
+        /**
+         * The styles used by the sheet by index, read once from the styles table.
+         */
+        private final Map<Integer, XSSFCellStyle> cellStyles = new HashMap<Integer, XSSFCellStyle>();
+
+        /**
+         * The css class names of the used styles by index.
+         */
+        private final Map<Integer, String> styleNames = new HashMap<Integer, String>();
+
+        /**
+         * Creates the handler.
+         *
+         * @param out where the rows are written.
+         * @param sheetIndex the index of the sheet.
+         * @param bounds the column bounds of the sheet.
+         * @param styles the styles of the workbook.
+         * @param strings the shared strings.
+         * @param date1904 whether the workbook uses the 1904 date system.
+         */
+        RowsHandler(Formatter out, int sheetIndex, BoundsHandler bounds, StylesTable styles,
+            ReadOnlySharedStringsTable strings, boolean date1904) {
+            super(strings);
+            this.out = out;
+            this.sheetIndex = sheetIndex;
+            this.bounds = bounds;
+            this.styles = styles;
+            this.date1904 = date1904;
+            this.defaultStyleName = ToHtml.styleName(sheetIndex, (short) DEFAULT_STYLE);
+        }
+
+        /**
+         * Prints the row, unless all its cells are empty.
+         *
+         * @param rowNum the zero based index of the row.
+         * @param firstCellNum the first column of the row.
+         * @param lastCellNum the column after the last column of the row.
+         * @param rowCells the cells of the row by column index.
+         */
+        @Override
+        protected void handleRow(int rowNum, int firstCellNum, int lastCellNum, Map<Integer, SheetCell> rowCells) {
+            StringBuffer sb = new StringBuffer();
+            boolean empty = true;
+            for (int i = bounds.firstColumn; i < bounds.endColumn; i++) {
+                String content = "&nbsp;";
+                String attrs = "";
+                String styleName = defaultStyleName;
+                SheetCell sheetCell = rowCells.get(i);
+                if (sheetCell != null) {
+                    XSSFCellStyle style = cellStyles.get(sheetCell.style);
+                    if (style == null) {
+                        style = styles.getStyleAt(sheetCell.style);
+                        cellStyles.put(sheetCell.style, style);
+                        styleNames.put(sheetCell.style, ToHtml.styleName(sheetIndex, style.getIndex()));
+                    }
+                    styleName = styleNames.get(sheetCell.style);
+                    attrs = ToHtml.tagStyle(sheetCell.type, style);
+                    content = CellFormat.getInstance(style.getDataFormatString()).apply(sheetCell.value).text;
+                    if (rowNum == 1 && sheetCell.value instanceof Double) {
+                        Date date = DateUtil.getJavaDate((Double) sheetCell.value, date1904);
+                        if (date != null) {
+                            content = new SimpleDateFormat(ToHtml.HEADER_DATE_FORMAT).format(date);
+                        }
+                    }
+                    content = ToHtml.displayContent(content);
+                }
+                if (!content.equals("&nbsp;")) {
+                    empty = false;
+                }
+                sb.append("    <td class=").append(styleName).append(" ").append(attrs).append(">").append(content)
+                    .append("</td>\n");
+            }
+
+            if (!empty) {
+                if (rowNum <= 1) {
+                    out.format("  <tr class='header'>%n");
+                } else {
+                    out.format("  <tr>%n");
+                }
+                out.format("%s%n", sb.toString());
+                out.format("  </tr>%n");
+            }
+        }
+    }
+}
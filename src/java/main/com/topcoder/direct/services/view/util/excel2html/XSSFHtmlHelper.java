@@ -23,6 +23,14 @@ public class XSSFHtmlHelper implements HtmlHelper {
         this.wb = wb;
     }
 
+    /**
+     * Creates a helper for the cell styles read without a workbook, as done by
+     * {@link XSSFEventToHtml}. The colors only depend on the styles.
+     */
+    public XSSFHtmlHelper() {
+        this(null);
+    }
+
     public void colorStyles(CellStyle style, Formatter out) {
         XSSFCellStyle cs = (XSSFCellStyle) style;
         try {
@@ -0,0 +1,25 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util.export;
+
+import com.topcoder.excel.Sheet;
+
+/**
+ * <p>The content of an exported report sheet. The report DTOs implement it with their existing
+ * <code>insertSheetData</code> methods, so that the same code fills the in-memory <code>XLS</code> sheets and the
+ * {@link StreamingSheet}s.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public interface SheetContent {
+
+    /**
+     * <p>Inserts the report rows into the sheet, in increasing row order.</p>
+     *
+     * @param sheet the sheet.
+     * @throws Exception if any error occurs.
+     */
+    void insertSheetData(Sheet sheet) throws Exception;
+}
@@ -0,0 +1,624 @@
+/*
+ * Copyright (C) 2016 TopCoder Inc., All Rights Reserved.
+ */
+package com.topcoder.direct.services.view.util.export;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.topcoder.excel.Cell;
+import com.topcoder.excel.ErrorCode;
+import com.topcoder.excel.Row;
+import com.topcoder.excel.Sheet;
+import com.topcoder.excel.ValueType;
+import com.topcoder.excel.Workbook;
+import com.topcoder.service.util.export.ReportExportFormat;
+import com.topcoder.service.util.export.ReportWriter;
+import com.topcoder.service.util.export.TempFileInputStream;
+
+/**
+ * <p>A <code>Sheet</code> of the Excel utility writing its rows to a {@link ReportWriter} instead of keeping them.
+ * It lets the report DTOs export to the streaming formats with their existing <code>insertSheetData</code> code.</p>
+ *
+ * <p>The sheet keeps a fixed window of the last accessed rows (the rows and columns are 1-based, like in the
+ * <code>ExcelSheet</code>). When a row with a higher index is accessed and the window is full, the lowest row is
+ * written and dropped, so the memory used doesn't depend on the number of rows. The written rows can't be accessed
+ * anymore, and the rows can't be removed or inserted.</p>
+ *
+ * <p><strong>Thread Safety:</strong> This class is not thread safe.</p>
+ *
+ * @author TCSASSEMBLER
+ * @version 1.0
+ */
+public class StreamingSheet extends Sheet {
+
+    /**
+     * <p>The default number of rows kept in memory.</p>
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+
+    /**
+     * <p>The format of the date values, which are written as text.</p>
+     */
+    private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    /**
+     * <p>The sheet name.</p>
+     */
+    private final String name;
+
+    /**
+     * <p>The writer of the rows.</p>
+     */
+    private final ReportWriter writer;
+
+    /**
+     * <p>The number of rows kept in memory.</p>
+     */
+    private final int windowSize;
+
+    /**
+     * <p>The rows not written yet, by index.</p>
+     */
+    private final SortedMap<Integer, StreamingRow> rows = new TreeMap<Integer, StreamingRow>();
+
+    /**
+     * <p>The index of the last written row, 0 if no row is written.</p>
+     */
+    private int writtenRow;
+
+    /**
+     * <p>The index of the last accessed row, 0 if no row is accessed.</p>
+     */
+    private int lastRow;
+
+    /**
+     * <p>The lowest index of the accessed columns, 0 if no column is accessed.</p>
+     */
+    private int firstColumn;
+
+    /**
+     * <p>The highest index of the accessed columns, 0 if no column is accessed.</p>
+     */
+    private int lastColumn;
+
+    /**
+     * <p>Creates the sheet with the default window size.</p>
+     *
+     * @param name the sheet name.
+     * @param writer the writer of the rows.
+     * @throws IllegalArgumentException if name or writer is null.
+     */
+    public StreamingSheet(String name, ReportWriter writer) {
+        this(name, writer, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * <p>Creates the sheet.</p>
+     *
+     * @param name the sheet name.
+     * @param writer the writer of the rows.
+     * @param windowSize the number of rows kept in memory.
+     * @throws IllegalArgumentException if name or writer is null, or windowSize is not positive.
+     */
+    public StreamingSheet(String name, ReportWriter writer, int windowSize) {
+        if (name == null) {
+            throw new IllegalArgumentException("The name should not be null.");
+        }
+        if (writer == null) {
+            throw new IllegalArgumentException("The writer should not be null.");
+        }
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("The windowSize should be positive.");
+        }
+        this.name = name;
+        this.writer = writer;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * <p>Exports a report sheet to a temporary file with the given streaming format.</p>
+     *
+     * @param format the export format.
+     * @param sheetName the sheet name.
+     * @param content the sheet content.
+     * @return the stream reading the exported file, the file is deleted when the stream is closed.
+     * @throws IllegalArgumentException if format is not a streaming format.
+     * @throws IOException if any error occurs when exporting the sheet.
+     */
+    public static InputStream export(ReportExportFormat format, String sheetName, SheetContent content)
+        throws IOException {
+        if (!format.isStreaming()) {
+            throw new IllegalArgumentException("The " + format + " format is not written row by row.");
+        }
+        File file = File.createTempFile("report", "." + format.getExtension());
+        boolean exported = false;
+        try {
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+            try {
+                StreamingSheet sheet = new StreamingSheet(sheetName, format.createWriter(out, sheetName));
+                content.insertSheetData(sheet);
+                sheet.close();
+            } finally {
+                out.close();
+            }
+            InputStream in = new TempFileInputStream(file);
+            exported = true;
+            return in;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to export the " + sheetName + " sheet.", e);
+        } finally {
+            if (!exported) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * <p>Writes the rows kept in memory and completes the document.</p>
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void close() throws IOException {
+        while (!rows.isEmpty()) {
+            writeFirstRow();
+        }
+        writer.close();
+    }
+
+    /**
+     * <p>Gets the sheet name.</p>
+     *
+     * @return the sheet name.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * <p>Gets a row, creating it if needed. If the window is full, the lowest row is written.</p>
+     *
+     * @param index the 1-based row index.
+     * @return the row.
+     * @throws IllegalArgumentException if index is not positive.
+     * @throws IllegalStateException if the row is already written, or it fails to write a row.
+     */
+    @Override
+    public Row getRow(int index) {
+        if (index <= 0) {
+            throw new IllegalArgumentException("The index should be positive.");
+        }
+        if (index <= writtenRow) {
+            throw new IllegalStateException("The row " + index + " is already written.");
+        }
+        StreamingRow row = rows.get(index);
+        if (row == null) {
+            row = new StreamingRow();
+            rows.put(index, row);
+            lastRow = Math.max(lastRow, index);
+            try {
+                while (rows.size() > windowSize) {
+                    writeFirstRow();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write the sheet row.", e);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * <p>Gets the index of the first row.</p>
+     *
+     * @return 1 if a row is accessed, 0 otherwise.
+     */
+    @Override
+    public int getFirstRow() {
+        return lastRow == 0 ? 0 : 1;
+    }
+
+    /**
+     * <p>Gets the index of the last accessed row.</p>
+     *
+     * @return the index of the last row, 0 if no row is accessed.
+     */
+    @Override
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    /**
+     * <p>Gets the lowest index of the accessed columns.</p>
+     *
+     * @return the index of the first column, 0 if no column is accessed.
+     */
+    @Override
+    public int getFirstColumn() {
+        return firstColumn;
+    }
+
+    /**
+     * <p>Gets the highest index of the accessed columns.</p>
+     *
+     * @return the index of the last column, 0 if no column is accessed.
+     */
+    @Override
+    public int getLastColumn() {
+        return lastColumn;
+    }
+
+    /**
+     * <p>This operation is not supported, the rows are written in order.</p>
+     *
+     * @param index the row index.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void removeRow(int index) {
+        throw new UnsupportedOperationException("The rows of a streaming sheet can't be removed.");
+    }
+
+    /**
+     * <p>This operation is not supported, the rows are written in order.</p>
+     *
+     * @param row the row.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void removeRow(Row row) {
+        throw new UnsupportedOperationException("The rows of a streaming sheet can't be removed.");
+    }
+
+    /**
+     * <p>This operation is not supported, the rows are written in order.</p>
+     *
+     * @param index the row index.
+     * @param row the row.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void insertRow(int index, Row row) {
+        throw new UnsupportedOperationException("The rows of a streaming sheet can't be inserted.");
+    }
+
+    /**
+     * <p>Gets the workbook of the sheet.</p>
+     *
+     * @return <code>null</code>, a streaming sheet doesn't belong to a workbook.
+     */
+    @Override
+    public Workbook getWorkbook() {
+        return null;
+    }
+
+    /**
+     * <p>Writes the lowest row kept in memory, preceded by empty rows for the skipped indexes.</p>
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    private void writeFirstRow() throws IOException {
+        int index = rows.firstKey();
+        StreamingRow row = rows.remove(index);
+        for (writtenRow++; writtenRow < index; writtenRow++) {
+            writer.writeRow();
+        }
+        writer.writeRow(row.getValues());
+    }
+
+    /**
+     * <p>A row of the streaming sheet.</p>
+     */
+    private class StreamingRow extends Row {
+
+        /**
+         * <p>The cells of the row, the cell of column <code>i</code> is at index <code>i - 1</code>.</p>
+         */
+        private final List<StreamingCell> cells = new ArrayList<StreamingCell>();
+
+        /**
+         * <p>Gets a cell, creating it if needed.</p>
+         *
+         * @param index the 1-based column index.
+         * @return the cell.
+         * @throws IllegalArgumentException if index is not positive.
+         */
+        @Override
+        public Cell getCell(int index) {
+            if (index <= 0) {
+                throw new IllegalArgumentException("The index should be positive.");
+            }
+            while (cells.size() < index) {
+                cells.add(null);
+            }
+            StreamingCell cell = cells.get(index - 1);
+            if (cell == null) {
+                cell = new StreamingCell(this);
+                cells.set(index - 1, cell);
+                firstColumn = firstColumn == 0 ? index : Math.min(firstColumn, index);
+                lastColumn = Math.max(lastColumn, index);
+            }
+            return cell;
+        }
+
+        /**
+         * <p>Gets the lowest index of the non empty cells.</p>
+         *
+         * @return the index of the first column, 0 if the row is empty.
+         */
+        @Override
+        public int getFirstColumn() {
+            for (int i = 0; i < cells.size(); i++) {
+                if (cells.get(i) != null && !cells.get(i).isEmpty()) {
+                    return i + 1;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * <p>Gets the highest index of the non empty cells.</p>
+         *
+         * @return the index of the last column, 0 if the row is empty.
+         */
+        @Override
+        public int getLastColumn() {
+            for (int i = cells.size() - 1; i >= 0; i--) {
+                if (cells.get(i) != null && !cells.get(i).isEmpty()) {
+                    return i + 1;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * <p>Checks whether all the cells are empty.</p>
+         *
+         * @return true if the row is empty.
+         */
+        @Override
+        public boolean isEmpty() {
+            return getFirstColumn() == 0;
+        }
+
+        /**
+         * <p>This operation is not supported, the cells are created by {@link #getCell(int)}.</p>
+         *
+         * @param index the column index.
+         * @param cell the cell.
+         * @throws UnsupportedOperationException always.
+         */
+        @Override
+        public void insertCell(int index, Cell cell) {
+            throw new UnsupportedOperationException("The cells of a streaming sheet can't be inserted.");
+        }
+
+        /**
+         * <p>Clears a cell.</p>
+         *
+         * @param index the 1-based column index.
+         */
+        @Override
+        public void removeCell(int index) {
+            if (index > 0 && index <= cells.size() && cells.get(index - 1) != null) {
+                cells.get(index - 1).clear();
+            }
+        }
+
+        /**
+         * <p>Gets the sheet of the row.</p>
+         *
+         * @return the sheet.
+         */
+        @Override
+        public Sheet getSheet() {
+            return StreamingSheet.this;
+        }
+
+        /**
+         * <p>Gets the values to write. The integral numbers are written without decimals.</p>
+         *
+         * @return the values, <code>null</code> for the empty cells.
+         */
+        private Object[] getValues() {
+            Object[] values = new Object[cells.size()];
+            for (int i = 0; i < values.length; i++) {
+                StreamingCell cell = cells.get(i);
+                Object value = cell == null ? null : cell.value;
+                if (value instanceof Double) {
+                    double number = (Double) value;
+                    if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+                        value = (long) number;
+                    }
+                } else if (value instanceof Date) {
+                    value = new SimpleDateFormat(DATE_FORMAT).format((Date) value);
+                }
+                values[i] = value;
+            }
+            return values;
+        }
+    }
+
+    /**
+     * <p>A cell of the streaming sheet.</p>
+     */
+    private static class StreamingCell implements Cell {
+
+        /**
+         * <p>The row of the cell.</p>
+         */
+        private final Row row;
+
+        /**
+         * <p>The cell value: a <code>Double</code>, <code>String</code>, <code>Boolean</code>,
+         * <code>ErrorCode</code> or <code>Date</code>, <code>null</code> if the cell is empty.</p>
+         */
+        private Object value;
+
+        /**
+         * <p>Creates the cell.</p>
+         *
+         * @param row the row of the cell.
+         */
+        StreamingCell(Row row) {
+            this.row = row;
+        }
+
+        /**
+         * <p>Checks whether the cell is empty.</p>
+         *
+         * @return true if the cell has no value.
+         */
+        public boolean isEmpty() {
+            return value == null;
+        }
+
+        /**
+         * <p>Gets the type of the value.</p>
+         *
+         * @return the value type, the dates are numbers.
+         */
+        public ValueType getType() {
+            if (value == null) {
+                return ValueType.EMPTY;
+            }
+            if (value instanceof Double || value instanceof Date) {
+                return ValueType.NUMBER;
+            }
+            if (value instanceof Boolean) {
+                return ValueType.BOOLEAN;
+            }
+            if (value instanceof ErrorCode) {
+                return ValueType.ERROR;
+            }
+            return ValueType.STRING;
+        }
+
+        /**
+         * <p>Gets the number value.</p>
+         *
+         * @return the number value, 0 if the value is not a number.
+         */
+        public double getNumberValue() {
+            return value instanceof Double ? (Double) value : 0;
+        }
+
+        /**
+         * <p>Gets the string value.</p>
+         *
+         * @return the string value, <code>null</code> if the value is not a string.
+         */
+        public String getStringValue() {
+            return value instanceof String ? (String) value : null;
+        }
+
+        /**
+         * <p>Gets the boolean value.</p>
+         *
+         * @return the boolean value, false if the value is not a boolean.
+         */
+        public boolean getBooleanValue() {
+            return value instanceof Boolean && (Boolean) value;
+        }
+
+        /**
+         * <p>Gets the error value.</p>
+         *
+         * @return the error value, <code>null</code> if the value is not an error.
+         */
+        public ErrorCode getErrorValue() {
+            return value instanceof ErrorCode ? (ErrorCode) value : null;
+        }
+
+        /**
+         * <p>Gets the date value.</p>
+         *
+         * @return the date value, <code>null</code> if the value is not a date.
+         */
+        public Date getDateValue() {
+            return value instanceof Date ? (Date) value : null;
+        }
+
+        /**
+         * <p>Gets the value as text.</p>
+         *
+         * @return the value as text, an empty string if the cell is empty.
+         */
+        public String getValue() {
+            return value == null ? "" : value.toString();
+        }
+
+        /**
+         * <p>Sets the number value.</p>
+         *
+         * @param value the value.
+         */
+        public void setNumberValue(double value) {
+            this.value = value;
+        }
+
+        /**
+         * <p>Sets the string value.</p>
+         *
+         * @param value the value.
+         */
+        public void setStringValue(String value) {
+            this.value = value;
+        }
+
+        /**
+         * <p>Sets the boolean value.</p>
+         *
+         * @param value the value.
+         */
+        public void setBooleanValue(boolean value) {
+            this.value = value;
+        }
+
+        /**
+         * <p>Sets the error value.</p>
+         *
+         * @param value the value.
+         */
+        public void setErrorValue(ErrorCode value) {
+            this.value = value;
+        }
+
+        /**
+         * <p>Sets the date value, it's written as text.</p>
+         *
+         * @param value the value.
+         */
+        public void setDateValue(Date value) {
+            this.value = value;
+        }
+
+        /**
+         * <p>Clears the value.</p>
+         */
+        public void clear() {
+            value = null;
+        }
+
+        /**
+         * <p>Gets the row of the cell.</p>
+         *
+         * @return the row.
+         */
+        public Row getRow() {
+            return row;
+        }
+    }
+}
@@ -1823,6 +1823,7 @@ $(document).ready(function(){
 
 var calendarData;
 var isEnterpriseCalendarShown;
+var enterpriseCalendarFormData;
 
 function loadEnterpriseCalendar(customerId, projectFilterId, projectFilterValue, showModal) {
     var formData = {};
@@ -1844,8 +1845,125 @@ function loadEnterpriseCalendar(customerId, projectFilterId, projectFilterValue,
         $(".roadmapViewArea .loading").show();
     }
 
-    isEnterpriseCalendarShown = false;
+    enterpriseCalendarFormData = formData;
+    isEnterpriseCalendarShown = !showModal;
 
+    // the calendar fetches the milestones of the displayed weeks whenever it's moved to another month
+    $('.milestoneCalView').fullCalendar('destroy');
+    $('.milestoneCalView').empty();
+
+    $('.milestoneCalView').fullCalendar({
+        header:{
+            left:'prev',
+            center:'title',
+            right:'next'
+        },
+        editable:false,
+        dayNamesShort:['Sunday', 'Monday', 'Tuesday', 'Wednesday', 'Thursday', 'Friday', 'Saturday'],
+        events:fetchEnterpriseCalendarEvents,
+        eventRender:function (event, element) {
+            var inner = element.find(".fc-event-inner");
+
+            inner.click(function(e){
+                e.preventDefault();
+                window.open('projectMilestoneView?formData.viewType=list&formData.projectId=' + event.projectId, '');
+            });
+
+            var milestoneNameClass = "upcoming";
+
+            switch (event["status"]) {
+                case 'completed':
+                    element.addClass("fc-milestone-completed");
+                    if (event.person) {
+                        $("<a/>", {
+                            "text":event.person.name,
+                            "href":event.person.url,
+                            "class":event.person.color
+                        }).appendTo(inner);
+                    }
+                    milestoneNameClass = "completed";
+                    break;
+                case 'upcoming':
+                    element.addClass("fc-milestone-upcoming");
+                    if (event.person) {
+                        $("<a/>", {
+                            "text":event.person.name,
+                            "href":event.person.url,
+                            "class":event.person.color
+                        }).appendTo(inner);
+                    }
+                    milestoneNameClass = "upcoming";
+                    break;
+                case 'overdue':
+                    element.addClass("fc-milestone-overdue");
+                    if (event.person) {
+                        $("<a/>", {
+                            "text":event.person.name,
+                            "href":event.person.url,
+                            "class":event.person.color
+                        }).appendTo(inner);
+                    }
+                    milestoneNameClass = "overdue";
+                    break;
+            }
+
+            var name = $("<span class='milestoneName'></span>").addClass(milestoneNameClass).text(event.title);
+            var project = $("<span></span>").text(event.projectName);
+
+            inner.find(".fc-event-title").empty().append(name).append(project);
+
+            var tcTip = $("<div/>", {
+                "class":"milestoneTips"
+            });
+            $("<div/>", {
+                "class":"triangle"
+            }).appendTo(tcTip);
+            $("<h2/>", {
+                "text":event.title,
+                "class":"tipsTitle"
+            }).appendTo(tcTip);
+            $("<h2/>", {
+                "text":event.projectName,
+                "class":"tipsTitle"
+            }).appendTo(tcTip);
+            $("<p/>", {
+                "text":event.description
+            }).appendTo(tcTip);
+            tcTip.appendTo(inner.parent());
+
+            inner.find(".fc-event-title").hover(function () {
+                tcTip.css("top", $(this).height() + 5 + "px");
+                inner.parent().css("z-index", 9);
+                tcTip.show();
+            }, function () {
+                tcTip.hide();
+                inner.parent().css("z-index", 8);
+            });
+        },
+        eventAfterRender:function (event, element) {
+            if (event["status"] == "overdue") {
+                $('.milestoneCalView .fc-content tbody td:eq(' + element.data("tdIndex") + ")").addClass("fc-overdue");
+            }
+        },
+        viewDisplay:function () {
+            $(".milestoneCalView .fc-today .fc-day-number").html("TODAY");
+        }
+    });
+}
+
+/**
+ * Fetches the milestones displayed by the enterprise calendar between the given dates, it's the event source of
+ * the calendar.
+ *
+ * @param start the first displayed date
+ * @param end the date after the last displayed date
+ * @param callback the function receiving the events
+ */
+function fetchEnterpriseCalendarEvents(start, end, callback) {
+    var formData = $.extend({}, enterpriseCalendarFormData);
+
+    formData.startDate = $.fullCalendar.formatDate(start, 'MM/dd/yyyy');
+    formData.endDate = $.fullCalendar.formatDate(end, 'MM/dd/yyyy');
 
     $.ajax({
         type:'POST',
@@ -1854,14 +1972,14 @@ function loadEnterpriseCalendar(customerId, projectFilterId, projectFilterValue,
         dataType:"html",
         cache:false,
         success:function (result) {
+            var events = [];
 
             if (result.indexOf("calendarData") != -1) {
+                $(".enterpriseCalendar #allResponsiblePerson").remove();
                 $(result).find("#allResponsiblePerson").insertAfter(".enterpriseCalendar .milestoneCalView");
                 calendarData = jQuery.parseJSON($(result).find("#calendarData").html());
 
                 if (calendarData != null) {
-                    $('.milestoneCalView').empty();
-
                     // build the handle map
                     var userHandleColorMap = {};
 
@@ -1873,134 +1991,33 @@ function loadEnterpriseCalendar(customerId, projectFilterId, projectFilterValue,
                         userHandleColorMap[handle] = {color:color, url:url};
                     });
 
-                    // update handle color and link first
+                    // update handle color and link first, the last event of the data is empty
                     $.each(calendarData.events, function (index, item) {
+                        if (!item.start) {
+                            return;
+                        }
                         if (item.person && item.person.name) {
                             if (userHandleColorMap[item.person.name] != null) {
                                 item.person.color = userHandleColorMap[item.person.name].color;
                                 item.person.url = userHandleColorMap[item.person.name].url;
                             }
                         }
-                    });
-
-                    $('.milestoneCalView').fullCalendar({
-                        header:{
-                            left:'prev',
-                            center:'title',
-                            right:'next'
-                        },
-                        editable:false,
-                        dayNamesShort:['Sunday', 'Monday', 'Tuesday', 'Wednesday', 'Thursday', 'Friday', 'Saturday'],
-                        //events:calendarData.events,
-                        eventRender:function (event, element) {
-                            var inner = element.find(".fc-event-inner");
-
-                            inner.click(function(e){
-                                e.preventDefault();
-                                window.open('projectMilestoneView?formData.viewType=list&formData.projectId=' + event.projectId, '');
-                            });
-
-                            var milestoneNameClass = "upcoming";
-
-                            switch (event["status"]) {
-                                case 'completed':
-                                    element.addClass("fc-milestone-completed");
-                                    if (event.person) {
-                                        $("<a/>", {
-                                            "text":event.person.name,
-                                            "href":event.person.url,
-                                            "class":event.person.color
-                                        }).appendTo(inner);
-                                    }
-                                    milestoneNameClass = "completed";
-                                    break;
-                                case 'upcoming':
-                                    element.addClass("fc-milestone-upcoming");
-                                    if (event.person) {
-                                        $("<a/>", {
-                                            "text":event.person.name,
-                                            "href":event.person.url,
-                                            "class":event.person.color
-                                        }).appendTo(inner);
-                                    }
-                                    milestoneNameClass = "upcoming";
-                                    break;
-                                case 'overdue':
-                                    element.addClass("fc-milestone-overdue");
-                                    if (event.person) {
-                                        $("<a/>", {
-                                            "text":event.person.name,
-                                            "href":event.person.url,
-                                            "class":event.person.color
-                                        }).appendTo(inner);
-                                    }
-                                    milestoneNameClass = "overdue";
-                                    break;
-                            }
-
-                            var name = $("<span class='milestoneName'></span>").addClass(milestoneNameClass).text(event.title);
-                            var project = $("<span></span>").text(event.projectName);
-
-                            inner.find(".fc-event-title").empty().append(name).append(project);
-
-                            var tcTip = $("<div/>", {
-                                "class":"milestoneTips"
-                            });
-                            $("<div/>", {
-                                "class":"triangle"
-                            }).appendTo(tcTip);
-                            $("<h2/>", {
-                                "text":event.title,
-                                "class":"tipsTitle"
-                            }).appendTo(tcTip);
-                            $("<h2/>", {
-                                "text":event.projectName,
-                                "class":"tipsTitle"
-                            }).appendTo(tcTip);
-                            $("<p/>", {
-                                "text":event.description
-                            }).appendTo(tcTip);
-                            tcTip.appendTo(inner.parent());
-
-                            inner.find(".fc-event-title").hover(function () {
-                                tcTip.css("top", $(this).height() + 5 + "px");
-                                inner.parent().css("z-index", 9);
-                                tcTip.show();
-                            }, function () {
-                                tcTip.hide();
-                                inner.parent().css("z-index", 8);
-                            });
-                        },
-                        eventAfterRender:function (event, element) {
-                            if (event["status"] == "overdue") {
-                                $('.milestoneCalView .fc-content tbody td:eq(' + element.data("tdIndex") + ")").addClass("fc-overdue");
-                            }
-                        },
-                        viewDisplay:function () {
-                            $(".milestoneCalView .fc-today .fc-day-number").html("TODAY");
-                            // this will be replaced with the ajax call in Assembly
-                            if (!isEnterpriseCalendarShown) {
-                                isEnterpriseCalendarShown = true;
-
-                                $.each(calendarData.events, function (index, item) {
-                                    $('.milestoneCalView').fullCalendar("renderEvent", item, true);
-                                })
-                            }
-                        }
+                        events.push(item);
                     });
                 }
-
-                if(showModal) {
-                    // modalAllClose();
-                    $(".roadmapViewArea .loading").hide();
-                }
             } else {
                 showErrors("Failed to load the milestone data");
             }
-        }
-    });
 
+            callback(events);
 
+            if (!isEnterpriseCalendarShown) {
+                isEnterpriseCalendarShown = true;
+                // modalAllClose();
+                $(".roadmapViewArea .loading").hide();
+            }
+        }
+    });
 }
 
 /**